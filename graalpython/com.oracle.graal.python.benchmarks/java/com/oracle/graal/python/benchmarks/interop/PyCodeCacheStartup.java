@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.benchmarks.interop;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the startup latency of a Python context on a fresh engine, i.e., without any code
+ * shared from earlier contexts. If {@code arg1} is {@code true}, the core library files are loaded
+ * from the persistent code cache (populated during setup), otherwise they are parsed every time.
+ */
+public class PyCodeCacheStartup extends BenchRunner {
+
+    @Param({"true"}) public boolean arg1;
+
+    private Path cacheDir;
+
+    @Setup
+    public void setup() throws IOException {
+        System.out.println("### setup ...");
+        cacheDir = Files.createTempDirectory("graalpython-code-cache");
+        if (arg1) {
+            // populate the cache
+            try (Context c = newContext()) {
+                c.initialize("python");
+            }
+        }
+    }
+
+    private Context newContext() {
+        return Context.newBuilder("python").engine(Engine.newBuilder().build()).allowIO(true).allowExperimentalOptions(true).option("python.PyCachePrefix",
+                        cacheDir.toString()).option("python.DontWriteBytecodeFlag", Boolean.toString(!arg1)).build();
+    }
+
+    @Benchmark
+    public void startup(Blackhole bh) {
+        long start = System.nanoTime();
+        try (Context c = newContext()) {
+            bh.consume(c.eval("python", "1"));
+            System.out.printf("### code cache: %s, startup: %.3f ms%n", arg1, (System.nanoTime() - start) / 1e6);
+        }
+    }
+}
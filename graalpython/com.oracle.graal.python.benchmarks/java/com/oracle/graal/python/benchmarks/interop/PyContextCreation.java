@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.benchmarks.interop;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the latency of creating and initializing Python contexts on a shared engine, as well
+ * as the heap retained per context. The number of contexts created per iteration is given by
+ * {@code arg1}.
+ */
+public class PyContextCreation extends BenchRunner {
+
+    @Param({"10"}) public int arg1;
+
+    private Engine engine;
+
+    @Setup
+    public void setup() {
+        System.out.println("### setup ...");
+        this.engine = Engine.newBuilder().build();
+        // populate the code caches of the shared engine
+        try (Context warmupContext = newContext()) {
+            warmupContext.eval("python", "import json, re, collections");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        engine.close();
+    }
+
+    private Context newContext() {
+        return Context.newBuilder("python").engine(engine).allowIO(true).build();
+    }
+
+    @Benchmark
+    public void createContexts(Blackhole bh) {
+        Context[] contexts = new Context[arg1];
+        long heapBefore = usedHeap();
+        long start = System.nanoTime();
+        for (int i = 0; i < contexts.length; i++) {
+            contexts[i] = newContext();
+            bh.consume(contexts[i].eval("python", "import json, re, collections"));
+        }
+        long duration = System.nanoTime() - start;
+        long heapAfter = usedHeap();
+        System.out.printf("### contexts: %d, latency per context: %.3f ms, heap per context: %d KB%n", arg1, duration / 1e6 / arg1, (heapAfter - heapBefore) / 1024 / arg1);
+        for (Context c : contexts) {
+            c.close();
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
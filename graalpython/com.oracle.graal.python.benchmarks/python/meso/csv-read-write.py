@@ -0,0 +1,100 @@
+# Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+# Parses and writes CSV data in memory with the csv module, mixing plain, quoted and numeric fields.
+# Run it on CPython as well to compare the reader and writer throughput.
+
+import csv
+import io
+import time
+
+
+def make_rows(num):
+    rows = []
+    for i in range(num):
+        rows.append(["%d" % i, "name %d" % (i % 997), "%d.%02d" % (i * 7 % 10000, i % 100),
+                     'a "quoted" text, with a comma' if i % 5 == 0 else "plain text",
+                     "multi\nline" if i % 50 == 0 else "", "x" * (i % 40)])
+    return rows
+
+
+def write_all(rows):
+    out = io.StringIO()
+    writer = csv.writer(out)
+    writer.writerows(rows)
+    return out.getvalue()
+
+
+def read_all(data):
+    count = 0
+    for row in csv.reader(io.StringIO(data, newline="")):
+        count += len(row)
+    return count
+
+
+def read_numeric(data):
+    total = 0.0
+    for row in csv.reader(io.StringIO(data, newline=""), quoting=csv.QUOTE_NONNUMERIC):
+        total += row[0]
+    return total
+
+
+def measure(num):
+    rows = make_rows(num)
+    start = time.time()
+    data = write_all(rows)
+    write_time = time.time() - start
+
+    start = time.time()
+    fields = read_all(data)
+    read_time = time.time() - start
+    assert fields == num * 6, fields
+
+    numeric = write_all([[i, i * 0.5, -i] for i in range(num)])
+    start = time.time()
+    read_numeric(numeric)
+    numeric_time = time.time() - start
+
+    mb = len(data) / (1024.0 * 1024.0)
+    print("csv write %.1f MB/s, read %.1f MB/s, read numeric %.0f rows/s" % (
+        mb / max(write_time, 1e-9), mb / max(read_time, 1e-9), num / max(numeric_time, 1e-9)))
+
+
+def __benchmark__(num=200000):
+    measure(num)
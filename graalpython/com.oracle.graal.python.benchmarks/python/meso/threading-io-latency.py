@@ -0,0 +1,89 @@
+# Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+# Measures how long an I/O bound thread has to wait for the GIL when it wakes up, while another
+# thread is busy running Python code. With a fair GIL hand-off, the latency should stay close to the
+# switch interval.
+
+import sys
+import threading
+import time
+
+SLEEP = 0.001
+
+
+def cpu_bound(stop):
+    x = 0
+    while not stop.is_set():
+        for i in range(1000):
+            x += i * i
+    return x
+
+
+def io_bound(n, latencies):
+    for _ in range(n):
+        start = time.perf_counter()
+        time.sleep(SLEEP)
+        latencies.append(time.perf_counter() - start - SLEEP)
+
+
+def percentile(sorted_values, p):
+    return sorted_values[min(int(len(sorted_values) * p), len(sorted_values) - 1)]
+
+
+def measure(num):
+    stop = threading.Event()
+    latencies = []
+    cpu_thread = threading.Thread(target=cpu_bound, args=(stop,))
+    io_thread = threading.Thread(target=io_bound, args=(num, latencies))
+    cpu_thread.start()
+    io_thread.start()
+    io_thread.join()
+    stop.set()
+    cpu_thread.join()
+    latencies.sort()
+    print("switch interval %.1fms, I/O wake-up latency: p50 %.3fms, p99 %.3fms, max %.3fms" % (
+        sys.getswitchinterval() * 1000,
+        percentile(latencies, 0.5) * 1000,
+        percentile(latencies, 0.99) * 1000,
+        latencies[-1] * 1000))
+
+
+def __benchmark__(num=1000):
+    measure(num)
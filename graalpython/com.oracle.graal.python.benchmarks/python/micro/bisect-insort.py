@@ -1,4 +1,4 @@
-# Copyright (c) 2018, 2021, Oracle and/or its affiliates. All rights reserved.
+# Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
 # DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
 #
 # The Universal Permissive License (UPL), Version 1.0
@@ -36,24 +36,27 @@
 # LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
 # OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
 # SOFTWARE.
+import bisect
 
 
-def _sort(self, key=None, reverse=False):
-    if reverse:
-        if key:
-            lt = lambda a,b: key(a) > key(b)
-        else:
-            lt = lambda a,b: a > b
-    else:
-        if key:
-            lt = lambda a,b: key(a) < key(b)
-        else:
-            lt = lambda a,b: a < b
-    origLen = len(self)
-    TimSort(self, lt=lt).sort()
-    if(origLen != len(self)):
-        raise ValueError("list modified during sort")
-    return None
+def measure(num):
+    total = 0
+    for i in range(num):
+        ints = []
+        for j in range(1_000):
+            bisect.insort(ints, (j * 7919) % 10_000)
+        for j in range(0, 10_000, 7):
+            total += bisect.bisect_left(ints, j) + bisect.bisect_right(ints, j)
 
+        floats = [j / 4.0 for j in range(1_000)]
+        for j in range(1_000):
+            total += bisect.bisect(floats, (j * 7919) % 1_000 / 3.0)
 
-list._sort = _sort
+        words = sorted("word%d" % j for j in range(500))
+        for j in range(500):
+            total += bisect.bisect_left(words, "word%d" % ((j * 31) % 500))
+    print(total)
+
+
+def __benchmark__(num=1_000):
+    measure(num)
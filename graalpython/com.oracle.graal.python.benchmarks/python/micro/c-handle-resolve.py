@@ -0,0 +1,132 @@
+# Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+code = """
+#include "Python.h"
+
+static PyObject** stored = NULL;
+static Py_ssize_t n_stored = 0;
+
+static void release_stored(void) {
+    Py_ssize_t i;
+    for (i = 0; i < n_stored; i++) {
+        Py_DECREF(stored[i]);
+    }
+    PyMem_Free(stored);
+    stored = NULL;
+    n_stored = 0;
+}
+
+/* Keeps raw pointers to the items of a list, so every item has to be handed out as a handle. */
+static PyObject* hr_store(PyObject* self, PyObject* list) {
+    Py_ssize_t i, n = PyList_Size(list);
+    release_stored();
+    stored = (PyObject**) PyMem_Malloc(n * sizeof(PyObject*));
+    if (stored == NULL) {
+        return PyErr_NoMemory();
+    }
+    for (i = 0; i < n; i++) {
+        PyObject* item = PyList_GetItem(list, i);
+        Py_INCREF(item);
+        stored[i] = item;
+    }
+    n_stored = n;
+    Py_RETURN_NONE;
+}
+
+/* Passes the stored pointers back to the interpreter, which needs to resolve each handle. */
+static PyObject* hr_touch(PyObject* self, PyObject* arg) {
+    long rounds = PyLong_AsLong(arg);
+    long r, count = 0;
+    Py_ssize_t i;
+    for (r = 0; r < rounds; r++) {
+        for (i = 0; i < n_stored; i++) {
+            count += PyObject_IsTrue(stored[i]);
+        }
+    }
+    return PyLong_FromLong(count);
+}
+
+static struct PyMethodDef HandleResolve_methods[] = {
+    {"store", (PyCFunction)hr_store, METH_O, ""},
+    {"touch", (PyCFunction)hr_touch, METH_O, ""},
+    {NULL, NULL, 0, NULL}
+};
+
+static PyModuleDef HandleResolvemodule = {
+    PyModuleDef_HEAD_INIT,
+    "c_handle_resolve_module",
+    "",
+    -1,
+    HandleResolve_methods,
+    NULL, NULL, NULL, NULL
+};
+
+PyMODINIT_FUNC
+PyInit_c_handle_resolve_module(void)
+{
+    return PyModule_Create(&HandleResolvemodule);
+}
+
+"""
+
+
+ccompile("c_handle_resolve_module", code)
+import c_handle_resolve_module
+
+
+class Obj:
+    pass
+
+
+# working set sizes ranging from what the inline caches cover to much more than the handle cache holds
+WORKING_SET_SIZES = (1, 3, 16, 256, 4096, 65536)
+
+
+def measure(num):
+    total = 0
+    for size in WORKING_SET_SIZES:
+        c_handle_resolve_module.store([Obj() for _ in range(size)])
+        total += c_handle_resolve_module.touch(max(num // size, 1))
+    c_handle_resolve_module.store([])
+    print("Resolved ", total)
+
+
+def __benchmark__(num=1000000):
+    measure(num)
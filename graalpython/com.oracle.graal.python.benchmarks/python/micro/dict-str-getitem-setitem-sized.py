@@ -0,0 +1,83 @@
+# Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+SIZES = [10, 1_000, 100_000, 10_000_000]
+KEYS = {}
+
+
+def get_keys(size):
+    # built on first use, so that only the sizes a run actually measures are allocated
+    keys = KEYS.get(size)
+    if keys is None:
+        keys = KEYS[size] = ["key%d" % i for i in range(size)]
+    return keys
+
+
+def setitem(keys, rounds):
+    d = {}
+    for r in range(rounds):
+        for k in keys:
+            d[k] = r
+    return d
+
+
+def getitem(d, keys, rounds):
+    total = 0
+    for r in range(rounds):
+        for k in keys:
+            total += d[k]
+    return total
+
+
+def measure(num):
+    # every size does roughly the same number of operations, so that the per-item cost of small
+    # and large string keyed dicts can be compared; sizes above num are skipped
+    total = 0
+    for size in SIZES:
+        if size > num:
+            break
+        keys = get_keys(size)
+        rounds = num // size
+        d = setitem(keys, rounds)
+        total += getitem(d, keys, rounds)
+    print(total)
+
+
+def __benchmark__(num=10_000_000):
+    measure(num)
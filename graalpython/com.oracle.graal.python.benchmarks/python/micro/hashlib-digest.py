@@ -1,4 +1,4 @@
-# Copyright (c) 2020, 2021, Oracle and/or its affiliates. All rights reserved.
+# Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
 # DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
 #
 # The Universal Permissive License (UPL), Version 1.0
@@ -36,23 +36,29 @@
 # LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
 # OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
 # SOFTWARE.
+import hashlib
+import hmac
 
 
-__graalpython__.import_current_as_named_module_with_delegate(
-    module_name="_struct",
-    delegate_name="_cpython_struct",
-    delegate_attributes=['Struct', 'StructError', '_clearcache', 'calcsize', 'error', 'iter_unpack', 'pack',
-                         'pack_into', 'unpack', 'unpack_from'],
-    on_import_error={
-        # Just enough to make zipfile and six import successfully, but raise the
-        # original import error when someone tries to use the Struct object
-        "__all__": ["calcsize", "Struct"],
-        "_clearcache": lambda: None,
-        "__doc__": "Fake _struct",
-        "calcsize": lambda _: 8,
-        "Struct": type("Struct", (), {
-            "__init__": lambda self, _: None,
-            "__getattr__": lambda self, attr: (lambda *args: __import__("_cpython_struct"))
-        })
-    },
-    owner_globals=globals())
+def measure(num):
+    data = bytes(range(256)) * 256
+    chunks = bytearray(data)
+    view = memoryview(chunks)
+    total = 0
+    for i in range(num):
+        for name in ("md5", "sha1", "sha256", "sha512", "sha3_256", "blake2b"):
+            total += hashlib.new(name, data).digest()[0]
+
+        h = hashlib.sha256()
+        for j in range(0, len(view), 4096):
+            h.update(view[j:j + 4096])
+        total += h.digest()[0]
+
+        for j in range(100):
+            total += hmac.digest(b"key", data[j:j + 64], "sha256")[0]
+        total += hashlib.pbkdf2_hmac("sha256", b"password", b"salt", 100)[0]
+    print(total)
+
+
+def __benchmark__(num=1_000):
+    measure(num)
@@ -37,7 +37,24 @@
 # OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
 # SOFTWARE.
 
+import re
 
-# only fake implementation to pass some tests
-def shm_unlink(path):
-    pass
\ No newline at end of file
+WORDS = re.compile(r"\w+")
+PAIRS = re.compile(r"(\w+)=(\w*)")
+SEPARATORS = re.compile(r"\s*[,;]\s*")
+TEXT = ", ".join("key%d=value%d; name%d=" % (i, i, i) for i in range(1_000))
+
+
+def measure(num):
+    total = 0
+    for i in range(num):
+        total += len(WORDS.findall(TEXT))
+        total += len(PAIRS.findall(TEXT))
+        total += len(SEPARATORS.split(TEXT))
+        total += len(PAIRS.sub(r"\2:\1", TEXT))
+        total += PAIRS.subn("-", TEXT)[1]
+    print(total)
+
+
+def __benchmark__(num=1_000):
+    measure(num)
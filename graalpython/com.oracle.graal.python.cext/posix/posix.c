@@ -118,6 +118,10 @@ int64_t call_read(int32_t fd, void *buf, uint64_t count) {
     return read(fd, buf, count);
 }
 
+int64_t call_read_at(int32_t fd, int8_t *buf, uint64_t offset, uint64_t count) {
+    return read(fd, buf + offset, count);
+}
+
 int64_t call_write(int32_t fd, void *buf, uint64_t count) {
     return write(fd, buf, count);
 }
@@ -548,6 +552,14 @@ int32_t call_munmap(int64_t address, int64_t length) {
     return munmap((void *) address, length);
 }
 
+int32_t call_shm_open(const char *name, int32_t flags, int32_t mode) {
+    return shm_open(name, flags, mode);
+}
+
+int32_t call_shm_unlink(const char *name) {
+    return shm_unlink(name);
+}
+
 void call_msync(int64_t address, int64_t offset, int64_t length) {
     // TODO: can be generalized to also accept different flags,
     // but MS_SYNC and such seem to be defined to different values across systems
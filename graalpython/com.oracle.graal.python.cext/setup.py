@@ -391,7 +391,6 @@ builtin_exts = (
     NativeBuiltinModule("_cpython_sre"),
     NativeBuiltinModule("_cpython_unicodedata"),
     NativeBuiltinModule("_mmap"),
-    NativeBuiltinModule("_cpython_struct"),
     NativeBuiltinModule("_testcapi"),
     NativeBuiltinModule("_testmultiphase"),
     # the above modules are more core, we need them first to deal with later, more complex modules with dependencies
@@ -471,7 +470,7 @@ def build_libposix(capi_home):
     files = [os.path.abspath(os.path.join(src_dir, f)) for f in os.listdir(src_dir) if f.endswith(".c")]
     module = Extension(libposix_name,
                        sources=files,
-                       libraries=['crypt'] if not darwin_native else [],
+                       libraries=['crypt', 'rt'] if not darwin_native else [],
                        extra_compile_args=cflags_warnings + ['-Wall', '-Werror'])
     args = [verbosity, 'build', 'install_lib', '-f', '--install-dir=%s' % capi_home, "clean"]
     setup(
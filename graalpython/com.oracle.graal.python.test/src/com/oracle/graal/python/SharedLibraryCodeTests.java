@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.junit.Test;
+
+/**
+ * Checks that standard library code compiled in one context is reused by other contexts on the
+ * same engine.
+ */
+public class SharedLibraryCodeTests {
+    private static final String READ_MODULE = "import __graalpython__\n" +
+                    "path = __graalpython__.stdlib_home + '/textwrap.py'\n" +
+                    "with open(path) as f:\n" +
+                    "    src = f.read()\n";
+
+    private static final String CACHING_MESSAGE = "Caching library CallTarget for ";
+
+    private final ByteArrayOutputStream log = new ByteArrayOutputStream();
+
+    private Engine newEngine() {
+        return Engine.newBuilder().option("log.python.level", "FINEST").logHandler(log).build();
+    }
+
+    private static void run(Engine engine, String compile) {
+        try (Context context = Context.newBuilder().engine(engine).allowExperimentalOptions(true).allowAllAccess(true).build()) {
+            context.eval("python", READ_MODULE + compile + "\n" + "exec(code, {})\n");
+        }
+    }
+
+    private int countCachingMessages() {
+        String text = new String(log.toByteArray(), StandardCharsets.UTF_8);
+        int count = 0;
+        for (String line : text.split("\n")) {
+            if (line.contains(CACHING_MESSAGE) && line.contains("textwrap.py")) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void reusedInSecondContext() {
+        try (Engine engine = newEngine()) {
+            run(engine, "code = compile(src, path, 'exec')");
+            run(engine, "code = compile(src, path, 'exec')");
+        }
+        assertEquals(1, countCachingMessages());
+    }
+
+    @Test
+    public void differentSourceIsParsedAgain() {
+        try (Engine engine = newEngine()) {
+            run(engine, "code = compile(src, path, 'exec')");
+            run(engine, "code = compile(src + '\\nchanged = True\\n', path, 'exec')");
+        }
+        assertEquals(2, countCachingMessages());
+    }
+
+    @Test
+    public void optimizedCodeIsNotCached() {
+        try (Engine engine = newEngine()) {
+            run(engine, "code = compile(src, path, 'exec', optimize=1)");
+            run(engine, "code = compile(src, path, 'exec', optimize=1)");
+        }
+        assertEquals(0, countCachingMessages());
+    }
+}
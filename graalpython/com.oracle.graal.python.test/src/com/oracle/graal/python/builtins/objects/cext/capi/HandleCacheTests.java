@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.cext.capi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.oracle.graal.python.builtins.objects.cext.capi.DynamicObjectNativeWrapper.PrimitiveNativeWrapper;
+import com.oracle.graal.python.test.PythonTests;
+import com.oracle.truffle.api.interop.InteropLibrary;
+import com.oracle.truffle.api.interop.TruffleObject;
+import com.oracle.truffle.api.library.ExportLibrary;
+import com.oracle.truffle.api.library.ExportMessage;
+
+public class HandleCacheTests {
+
+    @Before
+    public void setUp() {
+        PythonTests.enterContext();
+    }
+
+    @After
+    public void tearDown() {
+        PythonTests.closeContext();
+    }
+
+    @Test
+    public void repeatedResolutionHits() throws Exception {
+        ResolveHandle resolve = new ResolveHandle();
+        PythonNativeWrapper wrapper = resolve.add(0x1000L);
+        HandleCache cache = new HandleCache(resolve, 64);
+        InteropLibrary lib = InteropLibrary.getUncached();
+
+        for (int i = 0; i < 10; i++) {
+            assertSame(wrapper, lib.execute(cache, 0x1000L));
+        }
+        assertEquals(1, resolve.calls);
+        assertEquals(1, cache.getSize());
+        assertEquals(1, cache.getMisses());
+        assertEquals(9, cache.getHits());
+    }
+
+    @Test
+    public void growsUpToMaxCapacity() {
+        HandleCache cache = new HandleCache(new ResolveHandle(), 100);
+        assertEquals(64, cache.getCapacity());
+        assertEquals(128, cache.getMaxCapacity());
+        for (long handle = 1; handle <= 200; handle++) {
+            cache.insert(handle << 3, PrimitiveNativeWrapper.createLong(handle));
+        }
+        assertEquals(128, cache.getCapacity());
+    }
+
+    @Test
+    public void collidingEntriesAreEvicted() {
+        // with a single slot every handle collides
+        HandleCache cache = new HandleCache(new ResolveHandle(), 1);
+        PythonNativeWrapper first = PrimitiveNativeWrapper.createInt(1);
+        PythonNativeWrapper second = PrimitiveNativeWrapper.createInt(2);
+
+        cache.insert(0x1000L, first);
+        assertSame(first, cache.lookup(0x1000L));
+        cache.insert(0x2000L, second);
+        assertSame(second, cache.lookup(0x2000L));
+        assertNull(cache.lookup(0x1000L));
+        assertEquals(1, cache.getSize());
+    }
+
+    @Test
+    public void invalidatedEntriesMiss() {
+        HandleCache cache = new HandleCache(new ResolveHandle(), 64);
+        PythonNativeWrapper released = PrimitiveNativeWrapper.createInt(1);
+        cache.insert(0x1000L, released);
+        assertSame(released, cache.lookup(0x1000L));
+
+        PythonNativeWrapper.invalidateAssumption(released.getHandleValidAssumption());
+        assertNull(cache.lookup(0x1000L));
+
+        // the handle may be reused for a different object
+        PythonNativeWrapper reused = PrimitiveNativeWrapper.createInt(2);
+        cache.insert(0x1000L, reused);
+        assertSame(reused, cache.lookup(0x1000L));
+        assertEquals(1, cache.getSize());
+    }
+
+    @Test
+    public void disabled() throws Exception {
+        ResolveHandle resolve = new ResolveHandle();
+        PythonNativeWrapper wrapper = resolve.add(0x1000L);
+        HandleCache cache = new HandleCache(resolve, 0);
+        InteropLibrary lib = InteropLibrary.getUncached();
+
+        assertSame(wrapper, lib.execute(cache, 0x1000L));
+        assertSame(wrapper, lib.execute(cache, 0x1000L));
+        assertEquals(0, cache.getCapacity());
+        assertEquals(2, resolve.calls);
+    }
+
+    @ExportLibrary(InteropLibrary.class)
+    static final class ResolveHandle implements TruffleObject {
+        private final Map<Long, PythonNativeWrapper> wrappers = new HashMap<>();
+        int calls;
+
+        PythonNativeWrapper add(long handle) {
+            PythonNativeWrapper wrapper = PrimitiveNativeWrapper.createLong(handle);
+            wrappers.put(handle, wrapper);
+            return wrapper;
+        }
+
+        @ExportMessage
+        @SuppressWarnings("static-method")
+        boolean isExecutable() {
+            return true;
+        }
+
+        @ExportMessage
+        Object execute(Object[] arguments) {
+            calls++;
+            return wrappers.get((Long) arguments[0]);
+        }
+    }
+}
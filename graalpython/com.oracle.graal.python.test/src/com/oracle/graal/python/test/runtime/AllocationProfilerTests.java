@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Source;
+import org.graalvm.polyglot.Value;
+import org.junit.Test;
+
+public class AllocationProfilerTests {
+    private static final String ALLOCATION_LOOP = "import __graalpython__\n" +
+                    "class Point:\n" +
+                    "    pass\n" +
+                    "__graalpython__.alloc_stats(True)\n" +
+                    "for i in range(1000):\n" +
+                    "    Point()\n" +
+                    "stats = __graalpython__.alloc_stats()\n";
+
+    private static Context.Builder newBuilder() {
+        return Context.newBuilder().allowExperimentalOptions(true).allowAllAccess(true);
+    }
+
+    @Test
+    public void countsPerTypeAndLocation() {
+        try (Context context = newBuilder().option("python.AllocationProfile", "true").build()) {
+            context.eval(Source.newBuilder("python", ALLOCATION_LOOP, "alloc_test.py").buildLiteral());
+
+            Value points = context.eval("python", "stats['types']['Point']");
+            assertEquals(1000, points.getArrayElement(0).asLong());
+            assertTrue(points.getArrayElement(1).asLong() >= 1000 * 16);
+
+            Value location = context.eval("python", "stats['locations']['alloc_test.py:6']");
+            assertTrue(location.getArrayElement(0).asLong() >= 1000);
+
+            long threadTotal = context.eval("python", "sum(c[0] for c in stats['threads'].values())").asLong();
+            assertTrue(threadTotal >= 1000);
+        }
+    }
+
+    @Test
+    public void clearResetsCounts() {
+        try (Context context = newBuilder().option("python.AllocationProfile", "true").build()) {
+            context.eval(Source.newBuilder("python", ALLOCATION_LOOP, "alloc_test.py").buildLiteral());
+            context.eval("python", "__graalpython__.alloc_stats(True)");
+            assertTrue(context.eval("python", "'Point' not in __graalpython__.alloc_stats()['types']").asBoolean());
+        }
+    }
+
+    @Test
+    public void disabledByDefault() {
+        try (Context context = newBuilder().build()) {
+            assertTrue(context.eval("python", "__graalpython__.alloc_stats()").isNull());
+        }
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.test.runtime;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.runtime.PersistentCodeCache;
+import com.oracle.graal.python.runtime.PythonContext;
+import com.oracle.graal.python.test.PythonTests;
+import com.oracle.truffle.api.TruffleFile;
+import com.oracle.truffle.api.source.Source;
+
+public class PersistentCodeCacheTests {
+    private static final FileTime OLD = FileTime.fromMillis(1_000_000_000_000L);
+
+    private Path dir;
+    private Path prefix;
+    private Path sourceFile;
+    private Path cacheFile;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("code-cache-test").toAbsolutePath();
+        // use a cache prefix so that initializing the context does not write into the core library
+        prefix = dir.resolve("prefix");
+        sourceFile = dir.resolve("src").resolve("mod.py");
+        Files.createDirectories(sourceFile.getParent());
+        cacheFile = prefix.resolve(sourceFile.getParent().toString().substring(1)).resolve("mod." + PersistentCodeCache.CACHE_TAG + ".pyc");
+        writeSource("x = 42\n");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        PythonTests.closeContext();
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private void enter(String checkHashPycsMode) {
+        Map<String, String> options = new HashMap<>();
+        options.put("python.PyCachePrefix", prefix.toString());
+        options.put("python.DontWriteBytecodeFlag", "false");
+        options.put("python.CheckHashPycsMode", checkHashPycsMode);
+        PythonTests.enterContext(options, new String[0]);
+    }
+
+    private void writeSource(String code) throws IOException {
+        Files.write(sourceFile, code.getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(sourceFile, OLD);
+    }
+
+    private void parse() throws IOException {
+        PythonContext context = PythonLanguage.getContext();
+        TruffleFile file = context.getEnv().getPublicTruffleFile(sourceFile.toString());
+        Source source = Source.newBuilder(PythonLanguage.ID, file).build();
+        assertNotNull(PersistentCodeCache.parseCached(context, file, source));
+    }
+
+    /**
+     * Parses the source and returns whether the cache file was used. A cache miss rewrites the
+     * cache file, so its modification time is reset beforehand.
+     */
+    private boolean parseAndCheckHit() throws IOException {
+        FileTime marker = FileTime.fromMillis(OLD.toMillis() - 60_000);
+        Files.setLastModifiedTime(cacheFile, marker);
+        parse();
+        return Files.getLastModifiedTime(cacheFile).equals(marker);
+    }
+
+    private byte[] header() throws IOException {
+        return Arrays.copyOf(Files.readAllBytes(cacheFile), 16);
+    }
+
+    private void setFlags(int flags) throws IOException {
+        byte[] data = Files.readAllBytes(cacheFile);
+        data[4] = (byte) flags;
+        Files.write(cacheFile, data);
+    }
+
+    @Test
+    public void storeAndLoad() throws IOException {
+        enter("default");
+        parse();
+        assertTrue(Files.isRegularFile(cacheFile));
+        assertFalse(Files.exists(sourceFile.resolveSibling("__pycache__")));
+        byte[] header = header();
+        assertArrayEquals(PersistentCodeCache.getMagicNumberBytes(), Arrays.copyOf(header, 4));
+        // timestamp-based: flags, mtime and size
+        assertEquals(0, header[4]);
+        assertEquals(OLD.toMillis() / 1000, readInt(header, 8) & 0xFFFFFFFFL);
+        assertEquals(Files.size(sourceFile), readInt(header, 12));
+        assertTrue(parseAndCheckHit());
+    }
+
+    @Test
+    public void invalidatedBySize() throws IOException {
+        enter("default");
+        parse();
+        writeSource("x = 4242\n");
+        assertFalse(parseAndCheckHit());
+        assertTrue(parseAndCheckHit());
+    }
+
+    @Test
+    public void invalidatedByMTime() throws IOException {
+        enter("default");
+        parse();
+        writeSource("x = 43\n");
+        Files.setLastModifiedTime(sourceFile, FileTime.fromMillis(OLD.toMillis() + 5_000));
+        assertFalse(parseAndCheckHit());
+        assertTrue(parseAndCheckHit());
+    }
+
+    @Test
+    public void truncatedHeader() throws IOException {
+        enter("default");
+        parse();
+        Files.write(cacheFile, Arrays.copyOf(Files.readAllBytes(cacheFile), 10));
+        assertFalse(parseAndCheckHit());
+        assertTrue(Files.size(cacheFile) > 16);
+    }
+
+    @Test
+    public void truncatedCode() throws IOException {
+        enter("default");
+        parse();
+        byte[] data = Files.readAllBytes(cacheFile);
+        Files.write(cacheFile, Arrays.copyOf(data, 16 + (data.length - 16) / 2));
+        assertFalse(parseAndCheckHit());
+        assertEquals(data.length, Files.size(cacheFile));
+    }
+
+    @Test
+    public void corruptCode() throws IOException {
+        enter("default");
+        parse();
+        byte[] data = Files.readAllBytes(cacheFile);
+        for (int i = 16; i < data.length; i++) {
+            data[i] = (byte) (data[i] ^ 0x5A);
+        }
+        Files.write(cacheFile, data);
+        assertFalse(parseAndCheckHit());
+    }
+
+    @Test
+    public void badMagic() throws IOException {
+        enter("default");
+        parse();
+        byte[] data = Files.readAllBytes(cacheFile);
+        data[0]++;
+        Files.write(cacheFile, data);
+        assertFalse(parseAndCheckHit());
+    }
+
+    @Test
+    public void checkHashAlways() throws IOException {
+        enter("always");
+        parse();
+        byte[] header = header();
+        assertEquals(0b11, header[4]);
+        byte[] source = Files.readAllBytes(sourceFile);
+        assertArrayEquals(PersistentCodeCache.sourceHash(PersistentCodeCache.getRawMagicNumber(), source, source.length), Arrays.copyOfRange(header, 8, 16));
+        assertTrue(parseAndCheckHit());
+        // same size and mtime, only the hash differs
+        writeSource("x = 43\n");
+        assertFalse(parseAndCheckHit());
+        assertTrue(parseAndCheckHit());
+        // unchecked hash-based pycs are validated as well
+        setFlags(0b01);
+        writeSource("x = 44\n");
+        assertFalse(parseAndCheckHit());
+    }
+
+    @Test
+    public void checkHashDefault() throws IOException {
+        enter("always");
+        parse();
+        PythonTests.closeContext();
+        enter("default");
+        // checked hash-based pycs are validated
+        assertTrue(parseAndCheckHit());
+        writeSource("x = 43\n");
+        assertFalse(parseAndCheckHit());
+        // timestamp-based pycs are written in this mode
+        assertEquals(0, header()[4]);
+    }
+
+    @Test
+    public void checkHashDefaultUnchecked() throws IOException {
+        enter("always");
+        parse();
+        setFlags(0b01);
+        PythonTests.closeContext();
+        enter("default");
+        // unchecked hash-based pycs are not validated
+        writeSource("x = 43\n");
+        assertTrue(parseAndCheckHit());
+    }
+
+    @Test
+    public void checkHashNever() throws IOException {
+        enter("always");
+        parse();
+        PythonTests.closeContext();
+        enter("never");
+        // hash-based pycs are not validated, not even checked ones
+        writeSource("x = 43\n");
+        assertTrue(parseAndCheckHit());
+        // timestamp-based pycs still are
+        Files.delete(cacheFile);
+        parse();
+        assertEquals(0, header()[4]);
+        writeSource("x = 4242\n");
+        assertFalse(parseAndCheckHit());
+    }
+
+    private static int readInt(byte[] data, int offset) {
+        return (data[offset] & 0xFF) | (data[offset + 1] & 0xFF) << 8 | (data[offset + 2] & 0xFF) << 16 | (data[offset + 3] & 0xFF) << 24;
+    }
+}
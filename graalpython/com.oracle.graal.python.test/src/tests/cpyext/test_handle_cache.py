@@ -0,0 +1,81 @@
+# Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import subprocess
+import sys
+
+GRAALPYTHON = sys.implementation.name == "graalpython"
+
+STATS_KEYS = {"capacity", "max_capacity", "size", "hits", "misses"}
+
+
+def run_with_cache_size(size, code):
+    # our sys.executable on Java is a command line
+    cmd = sys.executable.split(" ") + ["--experimental-options", "--python.CApiHandleCacheSize=%d" % size, "-c", code]
+    return subprocess.check_output(cmd).decode().strip()
+
+
+class TestHandleCache:
+
+    def test_stats(self):
+        if GRAALPYTHON:
+            import __graalpython__
+            import _cpython_sre
+            stats = __graalpython__.handle_cache_stats()
+            assert set(stats.keys()) == STATS_KEYS, stats
+            assert 0 <= stats["size"] <= stats["capacity"] <= stats["max_capacity"], stats
+            before = stats["hits"] + stats["misses"]
+            for i in range(100):
+                assert _cpython_sre.ascii_tolower(ord("A")) == ord("a")
+            stats = __graalpython__.handle_cache_stats()
+            assert stats["hits"] + stats["misses"] >= before, stats
+            assert stats["size"] <= stats["capacity"] <= stats["max_capacity"], stats
+
+    def test_stats_without_capi(self):
+        if GRAALPYTHON:
+            assert run_with_cache_size(64, "import __graalpython__; print(__graalpython__.handle_cache_stats())") == "None"
+
+    def test_cache_size_option(self):
+        if GRAALPYTHON:
+            code = "import __graalpython__, _cpython_sre; s = __graalpython__.handle_cache_stats(); print(s['max_capacity'], s['capacity'])"
+            # rounded up to a power of two and never exceeded by the initial table
+            assert run_with_cache_size(100, code) == "128 64"
+            assert run_with_cache_size(16, code) == "16 16"
+            # zero disables the table
+            assert run_with_cache_size(0, code) == "0 0"
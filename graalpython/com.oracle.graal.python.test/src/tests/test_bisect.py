@@ -0,0 +1,166 @@
+# Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+import bisect
+
+
+def reference_right(a, x, lo=0, hi=None):
+    if hi is None:
+        hi = len(a)
+    while lo < hi:
+        mid = (lo + hi) // 2
+        if x < a[mid]:
+            hi = mid
+        else:
+            lo = mid + 1
+    return lo
+
+
+def reference_left(a, x, lo=0, hi=None):
+    if hi is None:
+        hi = len(a)
+    while lo < hi:
+        mid = (lo + hi) // 2
+        if a[mid] < x:
+            lo = mid + 1
+        else:
+            hi = mid
+    return lo
+
+
+SEQUENCES = [
+    [],
+    [1],
+    [1, 1, 2, 2, 2, 3, 5, 8, 8],
+    [2 ** 40, 2 ** 40, 2 ** 41],
+    [0.5, 1.0, 1.0, 2.5, float('inf')],
+    [1, 1.5, 2, 2 ** 70],
+    ['a', 'b', 'b', 'd'],
+]
+
+PROBES = [0, 1, 1.0, 1.5, 2, 3, 9, 2 ** 40, 2 ** 41 + 1, 2 ** 70, 0.25, 3.0, float('inf'), True]
+
+
+def test_bisect_matches_reference():
+    for seq in SEQUENCES:
+        for data in (seq, tuple(seq)):
+            probes = ['', 'a', 'b', 'c', 'z'] if seq and isinstance(seq[0], str) else PROBES
+            for x in probes:
+                assert bisect.bisect_right(data, x) == reference_right(data, x), (data, x)
+                assert bisect.bisect_left(data, x) == reference_left(data, x), (data, x)
+                assert bisect.bisect(data, x) == reference_right(data, x), (data, x)
+                for lo in range(len(data) + 1):
+                    for hi in range(lo, len(data) + 1):
+                        assert bisect.bisect_right(data, x, lo, hi) == reference_right(data, x, lo, hi)
+                        assert bisect.bisect_left(data, x, lo=lo, hi=hi) == reference_left(data, x, lo, hi)
+
+
+def test_insort():
+    for items in ([5, 3, 9, 1, 1, 7], [2 ** 40 + 5, 2 ** 40, 3, 2 ** 41], [0.5, 2.5, 1.5, 1.5, -1.0], ['b', 'a', 'c']):
+        for insort in (bisect.insort, bisect.insort_left, bisect.insort_right):
+            a = []
+            for item in items:
+                insort(a, item)
+            assert a == sorted(items)
+
+
+def test_insort_stability():
+    a = [1, 2, 2, 3]
+    two = 2.0
+    bisect.insort_left(a, two)
+    assert a == [1, 2, 2, 2, 3] and type(a[1]) is float
+    a = [1, 2, 2, 3]
+    bisect.insort_right(a, two)
+    assert type(a[3]) is float
+
+
+def test_insort_mixed_storage():
+    a = [1, 2, 3]
+    bisect.insort(a, 2.5)
+    bisect.insort(a, 2 ** 64)
+    bisect.insort(a, 0)
+    assert a == [0, 1, 2, 2.5, 3, 2 ** 64]
+
+
+def test_insort_calls_insert():
+    class MyList(list):
+        def insert(self, index, item):
+            self.inserted = (index, item)
+            list.insert(self, index, item)
+
+    a = MyList([1, 3])
+    bisect.insort(a, 2)
+    assert a.inserted == (1, 2)
+    assert a == [1, 2, 3]
+
+
+def test_sequence_getitem():
+    class Seq:
+        def __init__(self, n):
+            self.n = n
+
+        def __len__(self):
+            return self.n
+
+        def __getitem__(self, i):
+            return i * 2
+
+    assert bisect.bisect_left(Seq(100), 51) == 26
+    assert bisect.bisect_right(Seq(100), 50) == 26
+
+
+def test_errors():
+    for func in (bisect.bisect_left, bisect.bisect_right, bisect.insort_left, bisect.insort_right):
+        try:
+            func([1, 2], 1, -1)
+        except ValueError:
+            pass
+        else:
+            assert False, func
+        try:
+            func([1, 2, 3], 5, 0, 10)
+        except IndexError:
+            pass
+        else:
+            assert False, func
+        try:
+            func([1, 2], 'a')
+        except TypeError:
+            pass
+        else:
+            assert False, func
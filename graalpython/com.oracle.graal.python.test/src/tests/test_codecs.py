@@ -195,6 +195,31 @@ def test_decode_report_consumed():
     assert consumed == len(data)
 
 
+def test_common_codecs_errors():
+    s = 'a\xe4\u20ac\U0001F600\udcff\ud800b'
+    assert s.encode('utf-8', 'replace') == b'a\xc3\xa4\xe2\x82\xac\xf0\x9f\x98\x80??b'
+    assert s.encode('utf-8', 'ignore') == b'a\xc3\xa4\xe2\x82\xac\xf0\x9f\x98\x80b'
+    assert s.encode('ascii', 'replace') == b'a?????b'
+    assert s.encode('latin-1', 'ignore') == b'a\xe4b'
+    assert 'a\udcff'.encode('ascii', 'surrogateescape') == b'a\xff'
+    assert 'a\udcff'.encode('utf-8', 'surrogateescape') == b'a\xff'
+    assert_raises(UnicodeEncodeError, s.encode, 'utf-8')
+    assert_raises(UnicodeEncodeError, s.encode, 'latin-1')
+    assert_raises(UnicodeEncodeError, 'a\ud800'.encode, 'utf-8', 'surrogateescape')
+
+    b = b'a\xc3\xa4\xe2\x82\xff\xed\xa0\x80\xf0\x9f\x98\x80\xc3'
+    assert b.decode('utf-8', 'replace') == 'a\xe4\ufffd\ufffd\ufffd\ufffd\ufffd\U0001F600\ufffd'
+    assert b.decode('utf-8', 'ignore') == 'a\xe4\U0001F600'
+    assert b.decode('utf-8', 'surrogateescape') == 'a\xe4\udce2\udc82\udcff\udced\udca0\udc80\U0001F600\udcc3'
+    assert b.decode('ascii', 'replace') == 'a' + '\ufffd' * 13
+    assert b.decode('latin-1') == ''.join(chr(x) for x in b)
+    assert_raises(UnicodeDecodeError, b.decode, 'utf-8')
+    assert_raises(UnicodeDecodeError, b.decode, 'ascii')
+    assert codecs.utf_8_decode(b'a\xf0\x9f\x98', 'strict', False) == ('a', 1)
+    assert codecs.utf_8_decode(b'a\xf0\x9f\x98', 'replace', True) == ('a\ufffd', 4)
+    assert codecs.latin_1_decode(bytearray(b'\xe4'))[0] == '\xe4'
+
+
 class EscapeEncodeTest(unittest.TestCase):
 
     def test_escape_encode(self):
@@ -57,3 +57,17 @@ def test_import():
     except ImportError:
         imported = False
     assert imported
+
+
+def test_userlist_sort():
+    from collections import UserList
+    l = UserList([3, 1, 2])
+    l.sort()
+    assert l == [1, 2, 3]
+    l.sort(reverse=True)
+    assert l == [3, 2, 1]
+    l = UserList(["bb", "a", "ccc"])
+    l.sort(key=len)
+    assert l == ["a", "bb", "ccc"]
+    # the shim for the former Python sort implementation is gone
+    assert not hasattr(l, "_sort")
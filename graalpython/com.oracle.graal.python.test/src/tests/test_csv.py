@@ -0,0 +1,185 @@
+# Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import csv
+import io
+import sys
+
+
+def read(data, **kwargs):
+    return list(csv.reader(io.StringIO(data, newline=""), **kwargs))
+
+
+def write(rows, **kwargs):
+    out = io.StringIO()
+    csv.writer(out, **kwargs).writerows(rows)
+    return out.getvalue()
+
+
+def assert_raises(exc, fn, *args, **kwargs):
+    try:
+        fn(*args, **kwargs)
+    except exc as e:
+        return e
+    assert False, "expected %s" % exc.__name__
+
+
+def test_read_simple():
+    assert read("a,b,c\r\n1,2,3\n") == [["a", "b", "c"], ["1", "2", "3"]]
+    assert read("\r\n\r\n") == [[], []]
+    assert read("a,,c") == [["a", "", "c"]]
+    assert read("a;b", delimiter=";") == [["a", "b"]]
+    assert read("a, b", skipinitialspace=True) == [["a", "b"]]
+
+
+def test_read_quoted():
+    assert read('"a,b","c""d"\r\n') == [["a,b", 'c"d']]
+    assert read('"multi\r\nline",x\r\n') == [["multi\r\nline", "x"]]
+    assert read('"a"b,c') == [["ab", "c"]]
+    assert read("'a,b'", quotechar="'") == [["a,b"]]
+    assert read('"a,b"', quoting=csv.QUOTE_NONE) == [['"a', 'b"']]
+    assert read('a\\,b,c', escapechar="\\") == [["a,b", "c"]]
+    assert read('"a\\"b"', escapechar="\\", doublequote=False) == [['a"b']]
+
+
+def test_read_errors():
+    assert_raises(csv.Error, read, '"a"b', strict=True)
+    assert_raises(csv.Error, read, '"unterminated', strict=True)
+    assert read('"unterminated') == [["unterminated"]]
+    if sys.version_info < (3, 11):
+        # newer versions accept NUL characters
+        assert_raises(csv.Error, read, "a\0b")
+    assert_raises(csv.Error, list, csv.reader(["a\rb"]))
+    e = assert_raises(csv.Error, list, csv.reader([b"a,b"]))
+    assert "bytes" in str(e)
+
+
+def test_read_nonnumeric():
+    assert read('1,"a",2.5', quoting=csv.QUOTE_NONNUMERIC) == [[1.0, "a", 2.5]]
+    assert_raises(ValueError, read, "abc", quoting=csv.QUOTE_NONNUMERIC)
+
+
+def test_reader_attributes():
+    r = csv.reader(["a\n", "b\n"], delimiter=":")
+    assert r.dialect.delimiter == ":"
+    assert r.line_num == 0
+    assert next(r) == ["a"]
+    assert r.line_num == 1
+    assert next(r) == ["b"]
+    assert_raises(StopIteration, next, r)
+
+
+def test_field_size_limit():
+    old = csv.field_size_limit()
+    try:
+        assert csv.field_size_limit(10) == old
+        assert read("x" * 10) == [["x" * 10]]
+        assert_raises(csv.Error, read, "x" * 11)
+        assert_raises(csv.Error, read, '"%s"' % ("y" * 11))
+        assert_raises(TypeError, csv.field_size_limit, "10")
+    finally:
+        csv.field_size_limit(old)
+
+
+def test_write_simple():
+    assert write([["a", 1, 2.5, None]]) == "a,1,2.5,\r\n"
+    assert write([[]]) == "\r\n"
+    assert write([[""]]) == '""\r\n'
+    assert write([["a,b", 'c"d', "e\nf"]]) == '"a,b","c""d","e\nf"\r\n'
+    assert write([["a", "b"]], lineterminator="\n", delimiter="\t") == "a\tb\n"
+
+
+def test_write_quoting():
+    assert write([["a", 1, "p,q"]], quoting=csv.QUOTE_ALL) == '"a","1","p,q"\r\n'
+    assert write([["a", 1, None]], quoting=csv.QUOTE_NONNUMERIC) == '"a",1,""\r\n'
+    assert write([["p,q"]], quoting=csv.QUOTE_NONE, escapechar="\\") == "p\\,q\r\n"
+    assert write([['p"q']], escapechar="\\", doublequote=False) == 'p\\"q\r\n'
+    assert_raises(csv.Error, write, [["p,q"]], quoting=csv.QUOTE_NONE)
+    assert_raises(csv.Error, write, [[""]], quoting=csv.QUOTE_NONE)
+    assert_raises(csv.Error, write, [[1]], quoting=csv.QUOTE_NONE, delimiter="1")
+
+
+def test_writerow_result():
+    out = io.StringIO()
+    w = csv.writer(out)
+    assert w.writerow(["ab", "c"]) == 6
+    assert_raises(csv.Error, w.writerow, 5)
+    assert_raises(TypeError, w.writerows, None)
+    assert_raises(TypeError, csv.writer, object())
+
+
+def test_round_trip():
+    rows = [["plain", 'with "quotes"', "with,comma", "multi\r\nline", "", "ünïcödé 😀"] for _ in range(50)]
+    assert read(write(rows)) == rows
+
+
+def test_dialect():
+    d = csv.excel()
+    assert d.delimiter == ","
+    assert d.quotechar == '"'
+    assert d.lineterminator == "\r\n"
+    import _csv
+    cd = _csv.Dialect(d, delimiter=";")
+    assert cd.delimiter == ";"
+    assert cd.escapechar is None
+    assert cd.quoting == csv.QUOTE_MINIMAL
+    assert cd.doublequote is True
+    assert _csv.Dialect(cd) is cd
+    assert _csv.Dialect(quotechar=None).quoting == csv.QUOTE_NONE
+    assert_raises(TypeError, _csv.Dialect, delimiter="ab")
+    assert_raises(TypeError, _csv.Dialect, delimiter=1)
+    assert_raises(TypeError, _csv.Dialect, quoting=10)
+    assert_raises(TypeError, _csv.Dialect, lineterminator=None)
+    assert_raises(TypeError, _csv.Dialect, quoting=csv.QUOTE_ALL, quotechar="")
+
+
+def test_dialect_registry():
+    csv.register_dialect("test_csv_semicolon", delimiter=";", quoting=csv.QUOTE_ALL)
+    try:
+        assert "test_csv_semicolon" in csv.list_dialects()
+        assert csv.get_dialect("test_csv_semicolon").delimiter == ";"
+        assert write([["a", "b"]], dialect="test_csv_semicolon") == '"a";"b"\r\n'
+        assert read("a;b", dialect="test_csv_semicolon") == [["a", "b"]]
+    finally:
+        csv.unregister_dialect("test_csv_semicolon")
+    assert "test_csv_semicolon" not in csv.list_dialects()
+    assert_raises(csv.Error, csv.get_dialect, "test_csv_semicolon")
+    assert_raises(csv.Error, csv.unregister_dialect, "test_csv_semicolon")
+    assert_raises(TypeError, csv.register_dialect, 1)
+    assert_raises(csv.Error, csv.reader, [], "test_csv_semicolon")
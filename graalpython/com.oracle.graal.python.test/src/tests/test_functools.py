@@ -0,0 +1,270 @@
+# Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import functools
+import pickle
+import sys
+import threading
+
+
+def capture(*args, **kw):
+    return args, kw
+
+
+def test_partial_merges_arguments():
+    p = functools.partial(capture, 1, 2, a=3)
+    assert p() == ((1, 2), {'a': 3})
+    assert p(4, b=5) == ((1, 2, 4), {'a': 3, 'b': 5})
+    assert p(a=6) == ((1, 2), {'a': 6})
+    # the bound keywords are not modified by a call
+    assert p.keywords == {'a': 3}
+
+
+def test_partial_flattens_nested():
+    inner = functools.partial(capture, 1, a=1)
+    outer = functools.partial(inner, 2, b=2)
+    assert outer.func is capture
+    assert outer.args == (1, 2)
+    assert outer.keywords == {'a': 1, 'b': 2}
+    assert outer() == ((1, 2), {'a': 1, 'b': 2})
+
+
+def test_partial_attributes():
+    p = functools.partial(capture, 1)
+    try:
+        p.func = max
+    except AttributeError:
+        pass
+    else:
+        assert False, "func should be read-only"
+    p.attr = 42
+    assert p.__dict__ == {'attr': 42}
+    try:
+        functools.partial(1)
+    except TypeError:
+        pass
+    else:
+        assert False, "should require a callable"
+
+
+def test_partial_repr():
+    p = functools.partial(capture, 1, a=2)
+    assert repr(p) == "functools.partial(%r, 1, a=2)" % capture
+
+    class MyPartial(functools.partial):
+        pass
+
+    assert repr(MyPartial(capture)) == "MyPartial(%r)" % capture
+
+
+def test_partial_pickle():
+    p = functools.partial(capture, 1, a=2)
+    p.attr = 'x'
+    q = pickle.loads(pickle.dumps(p))
+    assert q() == ((1,), {'a': 2})
+    assert q.attr == 'x'
+    try:
+        p.__setstate__((capture, (), None))
+    except TypeError:
+        pass
+    else:
+        assert False, "should reject a short state"
+
+
+def test_reduce():
+    assert functools.reduce(lambda x, y: x + y, [1, 2, 3, 4]) == 10
+    assert functools.reduce(lambda x, y: x + y, (1, 2, 3), 10) == 16
+    assert functools.reduce(lambda x, y: x + y, iter(range(5))) == 10
+    assert functools.reduce(lambda x, y: x + y, [], 7) == 7
+    assert functools.reduce(lambda x, y: x + y, [5]) == 5
+    try:
+        functools.reduce(lambda x, y: x + y, [])
+    except TypeError:
+        pass
+    else:
+        assert False, "empty sequence without initial should raise"
+
+
+def test_reduce_list_mutation():
+    lst = [1, 2, 3]
+
+    def f(x, y):
+        if len(lst) < 6:
+            lst.append(y)
+        return x + y
+
+    assert functools.reduce(f, lst) == 1 + 2 + 3 + 2 + 3 + 2
+
+
+def test_reduce_list_subclass():
+    class L(list):
+        def __iter__(self):
+            return iter([10, 20])
+
+    assert functools.reduce(lambda x, y: x + y, L([1, 2, 3])) == 30
+
+
+def test_lru_cache_bounded():
+    calls = []
+
+    @functools.lru_cache(maxsize=2)
+    def f(x):
+        calls.append(x)
+        return x * 2
+
+    assert f(1) == 2
+    assert f(2) == 4
+    assert f(1) == 2
+    # evicts 2, the least recently used entry
+    assert f(3) == 6
+    assert f(1) == 2
+    assert f(2) == 4
+    assert calls == [1, 2, 3, 2]
+    info = f.cache_info()
+    assert (info.hits, info.misses, info.maxsize, info.currsize) == (2, 4, 2, 2)
+    f.cache_clear()
+    assert f.cache_info() == (0, 0, 2, 0)
+
+
+def test_lru_cache_unbounded_and_uncached():
+    @functools.lru_cache(maxsize=None)
+    def f(x, y=0):
+        return x + y
+
+    f(1)
+    f(1)
+    f(1, y=2)
+    f(1, y=2)
+    assert f.cache_info() == (2, 2, None, 2)
+
+    @functools.lru_cache(maxsize=0)
+    def g(x):
+        return x
+
+    g(1)
+    g(1)
+    assert g.cache_info() == (0, 2, 0, 0)
+
+
+def test_lru_cache_typed():
+    @functools.lru_cache(typed=True)
+    def f(x):
+        return type(x)
+
+    assert f(1) is int
+    assert f(1.0) is float
+    assert f.cache_info().currsize == 2
+
+
+def test_lru_cache_recursive():
+    @functools.lru_cache(maxsize=3)
+    def fib(n):
+        return n if n < 2 else fib(n - 1) + fib(n - 2)
+
+    assert fib(30) == 832040
+    assert fib.cache_info().currsize == 3
+
+
+def test_lru_cache_method_and_wrapper():
+    class A:
+        @functools.lru_cache()
+        def m(self, x):
+            return (self, x)
+
+    a = A()
+    assert a.m(1) == (a, 1)
+    assert A.m.__wrapped__(a, 2) == (a, 2)
+    assert A.m.__name__ == 'm'
+
+
+def test_lru_cache_threads():
+    @functools.lru_cache(maxsize=16)
+    def f(x):
+        return x
+
+    def work():
+        for i in range(200):
+            f(i % 32)
+
+    threads = [threading.Thread(target=work) for _ in range(4)]
+    for t in threads:
+        t.start()
+    for t in threads:
+        t.join()
+    info = f.cache_info()
+    assert info.hits + info.misses == 800
+    assert info.currsize <= 16
+
+
+def test_lru_cache_large_maxsize():
+    @functools.lru_cache(maxsize=sys.maxsize)
+    def f(x):
+        return x
+
+    f(1)
+    f(1)
+    assert f.cache_info() == (1, 1, sys.maxsize, 1)
+    try:
+        functools.lru_cache(maxsize=sys.maxsize + 1)(f)
+    except OverflowError:
+        pass
+    else:
+        assert False, "expected OverflowError"
+
+
+def test_lru_cache_hashes_once():
+    class Key:
+        hashes = 0
+
+        def __hash__(self):
+            Key.hashes += 1
+            return 42
+
+    @functools.lru_cache(maxsize=1)
+    def f(x):
+        return x
+
+    a, b = Key(), Key()
+    f(a)
+    assert Key.hashes == 1
+    f(a)
+    assert Key.hashes == 2
+    # a miss that evicts the entry of a
+    f(b)
+    assert Key.hashes == 3
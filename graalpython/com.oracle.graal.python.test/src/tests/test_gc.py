@@ -38,7 +38,14 @@
 # SOFTWARE.
 
 from _weakref import ref, getweakrefcount
+from unittest import skipIf
 import gc
+import sys
+
+if sys.implementation.name == "graalpython":
+    from __graalpython__ import is_native
+else:
+    is_native = False
 
 
 def test_gc_collect():
@@ -48,3 +55,42 @@ def test_gc_collect():
 def test_gc_count():
     c0, c1, c2 = gc.get_count()
     assert c0 + c1 + c2 > 0, "we definitely had something collected"
+
+
+def test_gc_get_stats():
+    stats = gc.get_stats()
+    assert len(stats) == 3
+    for generation in stats:
+        assert generation["collections"] >= 0
+        assert generation["collected"] >= 0
+        assert generation["uncollectable"] >= 0
+
+
+def test_gc_freeze():
+    gc.freeze()
+    assert gc.get_freeze_count() >= 0
+    gc.unfreeze()
+    assert gc.get_freeze_count() == 0
+
+
+@skipIf(is_native, "not supported in native mode")
+def test_gc_callbacks():
+    import time
+    phases = []
+
+    def callback(phase, info):
+        phases.append(phase)
+        assert info["generation"] in (0, 1, 2)
+
+    gc.callbacks.append(callback)
+    try:
+        # the JVM reports collections asynchronously
+        for i in range(100):
+            gc.collect()
+            time.sleep(0.1)
+            if "stop" in phases:
+                break
+    finally:
+        gc.callbacks.remove(callback)
+    assert "stop" in phases
+    assert phases[0] == "start"
@@ -0,0 +1,191 @@
+# Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import array
+import hashlib
+import hmac
+import mmap
+
+
+DATA = bytes(range(256)) * 40
+
+
+def test_known_digests():
+    assert hashlib.md5(b"abc").hexdigest() == "900150983cd24fb0d6963f7d28e17f72"
+    assert hashlib.sha1(b"abc").hexdigest() == "a9993e364706816aba3e25717850c26c9cd0d89d"
+    assert hashlib.sha256(b"abc").hexdigest() == "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad"
+    assert hashlib.sha3_256(b"abc").hexdigest() == "3a985da74fe225b2045c172d6bd390bd855f086e3e9d525b46bfe24511431532"
+    assert hashlib.shake_128(b"").hexdigest(16) == "7f9c2ba4e88f827d616045507605853e"
+    assert hashlib.blake2b(b"abc", digest_size=32).hexdigest() == "bddd813c634239723171ef3fee98579b94964e3bb1cb3e427262c8c068d52319"
+    assert hashlib.blake2s(b"abc").hexdigest() == "508c5e8c327c14e2e1a72ba34eeb452f37458b209ed63a294d999b4c86675982"
+
+
+def test_names_and_sizes():
+    for name, digest_size, block_size in [("md5", 16, 64), ("sha1", 20, 64), ("sha224", 28, 64), ("sha256", 32, 64),
+                                          ("sha384", 48, 128), ("sha512", 64, 128), ("sha3_224", 28, 144),
+                                          ("sha3_256", 32, 136), ("sha3_384", 48, 104), ("sha3_512", 64, 72),
+                                          ("blake2b", 64, 128), ("blake2s", 32, 64)]:
+        h = hashlib.new(name)
+        assert h.name == name
+        assert h.digest_size == digest_size
+        assert h.block_size == block_size
+        assert len(h.digest()) == digest_size
+        assert len(h.hexdigest()) == 2 * digest_size
+    assert hashlib.new("SHA256").name == "sha256"
+    assert hashlib.shake_256().name == "shake_256"
+
+
+def test_incremental_update():
+    for name in ["md5", "sha1", "sha512", "sha3_384", "blake2b", "blake2s"]:
+        expected = hashlib.new(name, DATA).digest()
+        h = hashlib.new(name)
+        for i in range(0, len(DATA), 1000):
+            h.update(DATA[i:i + 1000])
+        assert h.digest() == expected
+        # digest() does not finish the object
+        assert h.digest() == expected
+
+
+def test_buffer_inputs():
+    expected = hashlib.sha256(DATA).digest()
+    for data in [DATA, bytearray(DATA), memoryview(DATA), memoryview(bytearray(DATA)), array.array("b", DATA)]:
+        assert hashlib.sha256(data).digest() == expected
+    view = memoryview(b"xx" + DATA + b"yy")[2:-2]
+    assert hashlib.sha256(view).digest() == expected
+    assert hashlib.sha256(memoryview(bytearray(DATA))[100:200]).digest() == hashlib.sha256(DATA[100:200]).digest()
+    m = mmap.mmap(-1, len(DATA))
+    try:
+        m.write(DATA)
+        h = hashlib.sha256()
+        h.update(m)
+        assert h.digest() == expected
+    finally:
+        m.close()
+
+
+def test_update_errors():
+    h = hashlib.sha1()
+    try:
+        h.update("abc")
+    except TypeError:
+        pass
+    else:
+        assert False
+    try:
+        h.update(42)
+    except TypeError:
+        pass
+    else:
+        assert False
+
+
+def test_copy():
+    for name in ["md5", "sha256", "sha3_256", "blake2s"]:
+        h = hashlib.new(name, b"abc")
+        c = h.copy()
+        c.update(b"def")
+        assert h.digest() == hashlib.new(name, b"abc").digest()
+        assert c.digest() == hashlib.new(name, b"abcdef").digest()
+        assert type(c) is type(h)
+
+
+def test_shake():
+    h = hashlib.shake_128(DATA)
+    assert h.digest_size == 0
+    assert h.digest(500)[:32] == h.digest(32)
+    assert h.hexdigest(10) == h.digest(10).hex()
+    assert len(hashlib.shake_256(b"").digest(1000)) == 1000
+    try:
+        h.digest()
+    except TypeError:
+        pass
+    else:
+        assert False
+
+
+def test_blake2_parameters():
+    h = hashlib.blake2b(b"data", digest_size=20, key=b"key", salt=b"salt", person=b"me", fanout=2, depth=3,
+                        leaf_size=4096, node_offset=12, node_depth=1, inner_size=32, last_node=True)
+    assert h.digest_size == 20
+    assert h.hexdigest() == "89ab15153e25f4f6dd78d5bf5865088330091efe"
+    h = hashlib.blake2s(b"data", digest_size=16, key=b"key", salt=b"salt", person=b"me", node_offset=2 ** 40)
+    assert h.hexdigest() == "f8e979504faac6afd7128da7f4264730"
+    assert hashlib.blake2b.SALT_SIZE == 16
+    assert hashlib.blake2s.MAX_DIGEST_SIZE == 32
+    for kwargs in [dict(digest_size=0), dict(digest_size=65), dict(salt=b"x" * 17), dict(person=b"x" * 17),
+                   dict(key=b"x" * 65), dict(fanout=256), dict(depth=0), dict(node_depth=256), dict(inner_size=65)]:
+        try:
+            hashlib.blake2b(**kwargs)
+        except ValueError:
+            pass
+        else:
+            assert False, kwargs
+    try:
+        hashlib.blake2s(node_offset=2 ** 48)
+    except OverflowError:
+        pass
+    else:
+        assert False
+
+
+def test_hmac():
+    key = b"key"
+    msg = b"The quick brown fox jumps over the lazy dog"
+    assert hmac.digest(key, msg, "md5").hex() == "80070713463e7749b90c2dc24911e275"
+    assert hmac.digest(key, msg, "sha256").hex() == "f7bc83f430538424b13298e6aa6fb143ef4d59a14946175997479dbc2d1a3cd8"
+    for name in ["sha1", "sha512", "sha3_256"]:
+        assert hmac.digest(key, msg, name) == hmac.new(key, msg, name).digest()
+        long_key = b"k" * 500
+        assert hmac.digest(long_key, DATA, name) == hmac.new(long_key, DATA, name).digest()
+
+
+def test_pbkdf2_hmac():
+    assert hashlib.pbkdf2_hmac("sha1", b"password", b"salt", 1).hex() == "0c60c80f961f0e71f3a9b524af6012062fe037a6"
+    assert hashlib.pbkdf2_hmac("sha1", b"password", b"salt", 4096).hex() == "4b007901b765489abead49d926f721d065a429c1"
+    assert hashlib.pbkdf2_hmac("sha256", b"passwordPASSWORDpassword", b"saltSALTsaltSALTsaltSALTsaltSALTsalt", 4096, 40).hex() == \
+        "348c89dbcbd32b2f32d814b8116e84cf2b17347ebc1800181c4e2a1fb8dd53e1c635518c7dac47e9"
+    assert len(hashlib.pbkdf2_hmac("sha512", b"pw", b"salt", 2, None)) == 64
+    for args, error in [(("sha1", b"pw", b"salt", 0), ValueError), (("sha1", b"pw", b"salt", 1, 0), ValueError),
+                        (("unknown", b"pw", b"salt", 1), ValueError), (("sha1", "pw", b"salt", 1), TypeError)]:
+        try:
+            hashlib.pbkdf2_hmac(*args)
+        except error:
+            pass
+        else:
+            assert False, args
@@ -0,0 +1,233 @@
+# Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+import heapq
+import random
+
+
+def check_invariant(heap, max_heap=False):
+    for pos in range(1, len(heap)):
+        parent = heap[(pos - 1) >> 1]
+        if max_heap:
+            assert heap[pos] <= parent, (heap, pos)
+        else:
+            assert parent <= heap[pos], (heap, pos)
+
+
+def values(kind, n):
+    rnd = random.Random(n)
+    if kind == 'int':
+        return [rnd.randrange(1000) for _ in range(n)]
+    elif kind == 'long':
+        return [rnd.randrange(1000) + 2 ** 40 for _ in range(n)]
+    elif kind == 'float':
+        return [rnd.random() for _ in range(n)]
+    elif kind == 'bigint':
+        return [rnd.randrange(1000) * 2 ** 70 for _ in range(n)]
+    elif kind == 'str':
+        return [str(rnd.randrange(1000)) for _ in range(n)]
+    else:
+        return [rnd.choice([rnd.randrange(1000), rnd.random() * 1000]) for _ in range(n)]
+
+
+KINDS = ['int', 'long', 'float', 'bigint', 'str', 'mixed']
+
+
+def test_push_pop():
+    for kind in KINDS:
+        data = values(kind, 200)
+        heap = []
+        for item in data:
+            heapq.heappush(heap, item)
+            check_invariant(heap)
+        result = [heapq.heappop(heap) for _ in range(len(data))]
+        assert result == sorted(data), kind
+        assert heap == []
+
+
+def test_heapify():
+    for kind in KINDS:
+        for n in (0, 1, 2, 3, 10, 101):
+            data = values(kind, n)
+            heap = list(data)
+            heapq.heapify(heap)
+            check_invariant(heap)
+            heap = list(data)
+            heapq._heapify_max(heap)
+            check_invariant(heap, max_heap=True)
+
+
+def test_replace_and_pushpop():
+    for kind in KINDS:
+        data = values(kind, 100)
+        heap = data[:50]
+        heapq.heapify(heap)
+        for item in data[50:]:
+            smallest = heap[0]
+            assert heapq.heapreplace(heap, item) == smallest
+            check_invariant(heap)
+        for item in data:
+            expected = min(heap[0], item)
+            assert heapq.heappushpop(heap, item) == expected
+            check_invariant(heap)
+    assert heapq.heappushpop([], 1) == 1
+
+
+def test_mixed_item_types():
+    heap = [1, 2, 3]
+    heapq.heappush(heap, 0.5)
+    heapq.heappush(heap, 2 ** 64)
+    heapq.heappush(heap, True)
+    check_invariant(heap)
+    assert [heapq.heappop(heap) for _ in range(6)] == [0.5, 1, True, 2, 3, 2 ** 64]
+    heap = [1.5, 2.5]
+    assert heapq.heapreplace(heap, 3) == 1.5
+    assert heap == [2.5, 3]
+    heap = [1, 2]
+    assert heapq.heappushpop(heap, 1.5) == 1
+    assert heap == [1.5, 2]
+
+
+def test_max_variants():
+    data = values('int', 100)
+    heap = list(data)
+    heapq._heapify_max(heap)
+    result = [heapq._heappop_max(heap) for _ in range(len(data))]
+    assert result == sorted(data, reverse=True)
+    heap = [5, 3, 4]
+    assert heapq._heapreplace_max(heap, 1) == 5
+    assert heap == [4, 3, 1]
+
+
+def test_nlargest_nsmallest():
+    for kind in ('int', 'float', 'str'):
+        data = values(kind, 300)
+        assert heapq.nlargest(10, data) == sorted(data, reverse=True)[:10]
+        assert heapq.nsmallest(10, data) == sorted(data)[:10]
+
+
+def test_objects():
+    class Item:
+        def __init__(self, value):
+            self.value = value
+
+        def __lt__(self, other):
+            return self.value < other.value
+
+    heap = []
+    for v in values('int', 100):
+        heapq.heappush(heap, Item(v))
+    result = [heapq.heappop(heap).value for _ in range(100)]
+    assert result == sorted(result)
+
+
+def test_errors():
+    for func in (heapq.heappush, heapq.heapreplace, heapq.heappushpop):
+        try:
+            func((1, 2), 1)
+        except TypeError:
+            pass
+        else:
+            assert False, func
+    for func in (heapq.heappop, heapq.heapify, heapq._heappop_max, heapq._heapify_max):
+        try:
+            func(None)
+        except TypeError:
+            pass
+        else:
+            assert False, func
+    for heap in ([], [1][:0], [1.0][:0]):
+        try:
+            heapq.heappop(heap)
+        except IndexError:
+            pass
+        else:
+            assert False
+        try:
+            heapq.heapreplace(heap, 1)
+        except IndexError:
+            pass
+        else:
+            assert False
+    try:
+        heapq.heappush([1, 2], 'a')
+    except TypeError:
+        pass
+    else:
+        assert False
+
+
+def test_mutation_during_comparison():
+    heap = []
+
+    class Evil:
+        def __lt__(self, other):
+            heap.clear()
+            return NotImplemented
+
+    heap.extend([Evil(), Evil(), Evil()])
+    try:
+        heapq.heappop(heap)
+    except (RuntimeError, IndexError, TypeError):
+        pass
+    else:
+        assert False
+
+
+def test_pop_releases_item():
+    import gc, weakref
+
+    class Item:
+        def __init__(self, value):
+            self.value = value
+
+        def __lt__(self, other):
+            return self.value < other.value
+
+    heap = [Item(i) for i in range(4)]
+    heapq.heapify(heap)
+    refs = [weakref.ref(item) for item in heap]
+    while len(heap) > 1:
+        heapq.heappop(heap)
+    # the popped items must not be reachable through the list's spare capacity
+    i = 0
+    while sum(r() is not None for r in refs) > 1 and i < 500:
+        gc.collect()
+        i += 1
+    assert sum(r() is not None for r in refs) == 1
+    assert heap[0].value == 3
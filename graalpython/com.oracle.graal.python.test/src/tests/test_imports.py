@@ -130,6 +130,17 @@ def test_imp_fix_co_filename():
     assert code.co_filename == old_name + '_more_path'
 
 
+def test_imp_source_hash():
+    import _imp
+    from importlib.util import source_hash, MAGIC_NUMBER
+    h = source_hash(b"x = 1\n")
+    assert len(h) == 8
+    assert h == source_hash(bytearray(b"x = 1\n"))
+    assert h == _imp.source_hash(int.from_bytes(MAGIC_NUMBER, 'little'), b"x = 1\n")
+    assert h != source_hash(b"x = 2\n")
+    assert _imp.source_hash(1, b"x = 1\n") != _imp.source_hash(2, b"x = 1\n")
+
+
 def test_recursive_import_from():
     if sys.version_info.minor >= 6:
         import package.recpkg
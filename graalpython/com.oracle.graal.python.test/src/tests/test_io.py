@@ -263,5 +263,61 @@ class IOBaseTests(unittest.TestCase):
         self.assertRaises(AttributeError, _io._IOBase().writelines, ['aaa', 'bbb'])
 
 
+class ReadintoTests(unittest.TestCase):
+
+    def setUp(self):
+        import tempfile
+        fd, self.path = tempfile.mkstemp()
+        with _io.FileIO(fd, 'w') as f:
+            f.write(bytes(range(256)) * 64)
+
+    def tearDown(self):
+        import os
+        os.unlink(self.path)
+
+    def test_fileio_readinto(self):
+        with _io.FileIO(self.path, 'r') as f:
+            b = bytearray(10)
+            self.assertEqual(10, f.readinto(b))
+            self.assertEqual(bytes(range(10)), b)
+            b = bytearray(20)
+            m = memoryview(b)[5:15]
+            self.assertEqual(10, f.readinto(m))
+            self.assertEqual(bytes(5) + bytes(range(10, 20)) + bytes(5), b)
+            import array
+            a = array.array('b', bytes(4))
+            self.assertEqual(4, f.readinto(a))
+            self.assertEqual(bytes(range(20, 24)), a.tobytes())
+            self.assertRaises(TypeError, f.readinto, memoryview(bytes(4)))
+            f.seek(0, 2)
+            self.assertEqual(0, f.readinto(bytearray(4)))
+
+    def test_buffered_reader(self):
+        with _io.open(self.path, 'rb', buffering=100) as f:
+            data = bytearray()
+            chunk = f.read(7)
+            while chunk:
+                data += chunk
+                chunk = f.read(7)
+            self.assertEqual(bytes(range(256)) * 64, data)
+            f.seek(3)
+            self.assertEqual(3, f.tell())
+            self.assertEqual(bytes(range(3, 8)), f.read(5))
+            self.assertEqual(8, f.tell())
+            self.assertEqual(bytes(range(8, 11)), f.peek(3)[:3])
+
+    def test_bytesio_readinto(self):
+        f = _io.BytesIO(bytes(range(16)))
+        b = bytearray(4)
+        self.assertEqual(4, f.readinto(b))
+        self.assertEqual(bytes(range(4)), b)
+        b = bytearray(8)
+        self.assertEqual(4, f.readinto(memoryview(b)[2:6]))
+        self.assertEqual(bytes(2) + bytes(range(4, 8)) + bytes(2), b)
+        self.assertRaises(TypeError, f.readinto, b"abc")
+        self.assertEqual(8, f.readinto(bytearray(10)))
+        self.assertEqual(0, f.readinto(bytearray(10)))
+
+
 if __name__ == '__main__':
     unittest.main()
@@ -101,3 +101,131 @@ class CombinationsTests(unittest.TestCase):
 
         data = [None, None, None, 20]
         assert list(map(lambda x: x[0], list(groupby(data)))) == [None, 20]
+
+
+class PoolTests(unittest.TestCase):
+
+    def test_pools_from_sequences(self):
+        expected = [(0, 1), (0, 2), (1, 0), (1, 2), (2, 0), (2, 1)]
+        self.assertEqual(list(permutations([0, 1, 2], 2)), expected)
+        self.assertEqual(list(permutations((0, 1, 2), 2)), expected)
+        self.assertEqual(list(permutations(range(3), 2)), expected)
+        self.assertEqual(list(permutations(iter(range(3)), 2)), expected)
+        self.assertEqual(list(product(range(0, 6, 3), [1.5, 'x'])), [(0, 1.5), (0, 'x'), (3, 1.5), (3, 'x')])
+        self.assertEqual(list(combinations(range(10, 0, -3), 3)), [(10, 7, 4), (10, 7, 1), (10, 4, 1), (7, 4, 1)])
+
+    def test_pool_is_a_snapshot(self):
+        l = [1, 2]
+        p = product(l, repeat=2)
+        l.append(3)
+        self.assertEqual(list(p), [(1, 1), (1, 2), (2, 1), (2, 2)])
+
+    def test_reduce_roundtrip(self):
+        import pickle
+        for it in (permutations('abc', 2), product('ab', range(2)), combinations('abcd', 2),
+                   combinations_with_replacement('abc', 2), islice(range(10), 1, 8, 2), chain('ab', 'cd'),
+                   zip_longest('abc', 'd', fillvalue='-'), cycle('ab'), count(3, 2)):
+            next(it)
+            copy = pickle.loads(pickle.dumps(it))
+            self.assertEqual(list(islice(copy, 10)), list(islice(it, 10)))
+
+    def test_reduce_setstate(self):
+        it = islice(range(10), 1, 8, 2)
+        next(it)
+        cls, args, state = it.__reduce__()
+        self.assertIs(cls, islice)
+        self.assertEqual(args[1:], (3, 8, 2))
+        self.assertEqual(state, 2)
+        copy = cls(*args)
+        copy.__setstate__(state)
+        self.assertEqual(list(copy), [3, 5, 7])
+
+        it = cycle('abc')
+        self.assertEqual([next(it) for _ in range(4)], ['a', 'b', 'c', 'a'])
+        cls, args, state = it.__reduce__()
+        copy = cls(*args)
+        copy.__setstate__(state)
+        self.assertEqual([next(copy) for _ in range(4)], [next(it) for _ in range(4)])
+
+        it = permutations(range(4), 2)
+        next(it)
+        cls, args, state = it.__reduce__()
+        copy = cls(*args)
+        copy.__setstate__(state)
+        self.assertEqual(list(copy), list(it))
+
+        it = product([1, 2], (3, 4))
+        next(it)
+        cls, args, state = it.__reduce__()
+        copy = cls(*args)
+        copy.__setstate__(state)
+        self.assertEqual(list(copy), [(1, 4), (2, 3), (2, 4)])
+
+    def test_pools_from_storages(self):
+        # int, long, double, mixed and empty list storages
+        self.assertEqual(list(product([1, 2], [2 ** 40], [0.5], [None, 'a'])),
+                         [(1, 2 ** 40, 0.5, None), (1, 2 ** 40, 0.5, 'a'), (2, 2 ** 40, 0.5, None), (2, 2 ** 40, 0.5, 'a')])
+        self.assertEqual(list(product([], [1])), [])
+        self.assertEqual(list(combinations((), 0)), [()])
+        self.assertEqual(list(combinations_with_replacement((1.5, 'x'), 2)), [(1.5, 1.5), (1.5, 'x'), ('x', 'x')])
+        # ranges with negative steps, empty ranges and large bounds
+        self.assertEqual(list(permutations(range(3, 0, -1))), list(permutations([3, 2, 1])))
+        self.assertEqual(list(product(range(5, 5), repeat=2)), [])
+        big = 2 ** 62
+        self.assertEqual(list(product(range(big, big + 2))), [(big,), (big + 1,)])
+        # subclasses go through the iterator protocol
+        class L(list):
+            def __iter__(self):
+                return iter([9])
+        self.assertEqual(list(product(L([1, 2]))), [(9,)])
+        class T(tuple):
+            def __iter__(self):
+                return iter('ab')
+        self.assertEqual(list(permutations(T((1, 2)))), [('a', 'b'), ('b', 'a')])
+
+    def test_islice_args(self):
+        with self.assertRaisesRegex(TypeError, "islice expected at least 2 arguments, got 1"):
+            islice([])
+        self.assertRaises(TypeError, islice, [], 1, 2, 3, 4)
+        self.assertRaises(ValueError, islice, [], -1)
+        self.assertRaises(ValueError, islice, [], 0, 1, 0)
+        self.assertEqual(list(islice(range(5), None)), [0, 1, 2, 3, 4])
+
+    def test_islice_large_bounds(self):
+        import sys
+        self.assertEqual(list(islice(range(3), 2 ** 31)), [0, 1, 2])
+        self.assertEqual(list(islice(range(3), sys.maxsize)), [0, 1, 2])
+        self.assertRaises(ValueError, islice, range(3), 2 ** 100)
+        self.assertEqual(list(islice(range(10), 2 ** 31, None)), [])
+        self.assertEqual(list(islice(range(10), 0, None, sys.maxsize)), [0])
+        it = islice(count(), 2 ** 32, None, 2 ** 32)
+        self.assertEqual(it.__reduce__()[1][1:], (2 ** 32, None, 2 ** 32))
+        it = islice(range(5), 1, sys.maxsize)
+        self.assertEqual(list(it), [1, 2, 3, 4])
+        self.assertRaises(ValueError, islice, [], 'a')
+        self.assertRaises(ValueError, islice, [], 0, 1.5)
+        self.assertRaises(ValueError, islice, [], 0, 1, 'b')
+        self.assertRaises(ValueError, islice, [], -2 ** 100)
+
+    def test_storage_fast_paths(self):
+        self.assertEqual(list(chain([1, 2], (3.5,), [], ['a'], range(2))), [1, 2, 3.5, 'a', 0, 1])
+        self.assertEqual(list(islice([1, 2, 3, 4, 5, 6], 1, None, 2)), [2, 4, 6])
+        self.assertEqual(list(islice(('a', 'b', 'c'), 5)), ['a', 'b', 'c'])
+        self.assertEqual(list(islice(cycle([1, 2]), 5)), [1, 2, 1, 2, 1])
+        self.assertEqual(list(islice(cycle(()), 5)), [])
+        self.assertEqual(list(zip_longest([1, 2, 3], ('a',), fillvalue=0)), [(1, 'a'), (2, 0), (3, 0)])
+        # the list may grow while it is being iterated
+        l = [1, 2]
+        result = []
+        for x in chain(l):
+            if x < 4:
+                l.append(x + 2)
+            result.append(x)
+        self.assertEqual(result, [1, 2, 3, 4, 5])
+        # errors other than StopIteration are propagated
+        def gen():
+            yield 1
+            raise KeyError
+        self.assertRaises(KeyError, list, chain([0], gen()))
+        self.assertRaises(KeyError, list, zip_longest([0, 1, 2], gen()))
+        self.assertRaises(KeyError, list, cycle(gen()))
@@ -66,6 +66,34 @@ class JsonTest(unittest.TestCase):
         assert json.load(open(new_file_path)) == ['a', 'b', 'c']
         os.remove(new_file_path)
 
+    def test_dump_chunks(self):
+        import io
+        import json
+        import sys
+        obj = {"list": [{"id": i, "name": "ä€%d" % i, "values": [i / 2, None, True]} for i in range(2000)]}
+        for kwargs in ({}, {'ensure_ascii': False}, {'sort_keys': True, 'separators': (',', ':')}):
+            expected = json.dumps(obj, **kwargs)
+            out = io.StringIO()
+            json.dump(obj, out, **kwargs)
+            self.assertEqual(expected, out.getvalue())
+            buf = io.BytesIO()
+            text = io.TextIOWrapper(buf, encoding='utf-8')
+            text.write('x')
+            json.dump(obj, text, **kwargs)
+            text.write('y')
+            text.flush()
+            self.assertEqual('x' + expected + 'y', buf.getvalue().decode('utf-8'))
+            if sys.implementation.name == 'graalpython':
+                buf = io.BytesIO()
+                json.dump(obj, buf, **kwargs)
+                self.assertEqual(expected.encode('utf-8'), buf.getvalue())
+        buf = io.BytesIO()
+        text = io.TextIOWrapper(buf, encoding='utf-8', errors='surrogateescape')
+        json.dump(['\udcff'], text, ensure_ascii=False)
+        text.flush()
+        self.assertEqual(b'["\xff"]', buf.getvalue())
+        self.assertRaises(UnicodeEncodeError, json.dump, ['\ud800'], io.TextIOWrapper(io.BytesIO(), encoding='utf-8'), ensure_ascii=False)
+
     def test_load_bigin(self):
         import json
         data = json.loads(BIGINT_JSON_DATA)
@@ -83,3 +111,67 @@ class JsonTest(unittest.TestCase):
             1521583201347000000,
             10,
         }
+
+    def test_load_bytes(self):
+        import json
+        doc = '{"a": [1, -2.5e3, true, false, null], "ä€": "x\\nü\\u00e9\U0001F600", "k": {"a": 0}}'
+        expected = json.loads(doc)
+        for data in (doc.encode('utf-8'), bytearray(doc.encode('utf-8')), b' \n' + doc.encode('utf-8') + b'\t'):
+            self.assertEqual(expected, json.loads(data))
+        self.assertEqual([{'a': 1}], json.loads(b'[{"a": 1}]', object_hook=lambda d: d))
+        self.assertEqual([('a', 1)], json.loads(b'{"a": 1}', object_pairs_hook=lambda p: p))
+        self.assertEqual(['1.5'], json.loads(b'[1.5]', parse_float=str))
+
+    def test_load_bytes_errors(self):
+        import json
+        for data in (b'[1, 2', b'{"a" 1}', b'[1] x', b'', b'"\\x"'):
+            with self.assertRaises(json.JSONDecodeError) as cm:
+                json.loads(data)
+            self.assertEqual(cm.exception.doc, data.decode('utf-8'))
+        with self.assertRaises(json.JSONDecodeError) as cm:
+            json.loads('[1,\n "ä", x]'.encode('utf-8'))
+        self.assertEqual((2, 7, 10), (cm.exception.lineno, cm.exception.colno, cm.exception.pos))
+        self.assertRaises(UnicodeDecodeError, json.loads, b'["\xff"]')
+
+    def test_load_bytes_hook_errors(self):
+        import json
+        calls = []
+        def hook(d):
+            calls.append(d)
+            raise ValueError('from hook')
+        with self.assertRaisesRegex(ValueError, 'from hook'):
+            json.loads(b'{"a": {"b": 1}}', object_hook=hook)
+        # the document is not parsed again, so the hook runs only once
+        self.assertEqual(calls, [{'b': 1}])
+        floats = []
+        def parse_float(s):
+            floats.append(s)
+            raise ValueError('from parse_float')
+        with self.assertRaisesRegex(ValueError, 'from parse_float'):
+            json.loads(b'[1.5]', parse_float=parse_float)
+        self.assertEqual(floats, ['1.5'])
+
+    def test_load_bytes_malformed_hooks(self):
+        import json
+        for data, expected in ((b'{"a": 1} x', [{'a': 1}]), (b'[{"a": 1}, {"b": 2}, x]', [{'a': 1}, {'b': 2}])):
+            calls = []
+            def hook(d):
+                calls.append(d)
+                return d
+            with self.assertRaises(json.JSONDecodeError):
+                json.loads(data, object_hook=hook)
+            # the hook is not called again while reporting the error
+            self.assertEqual(calls, expected)
+            pairs = []
+            with self.assertRaises(json.JSONDecodeError):
+                json.loads(data, object_pairs_hook=lambda p: pairs.append(p))
+            self.assertEqual(len(pairs), len(expected))
+
+    def test_scanner_rejects_bytes(self):
+        import json
+        scanner = json.decoder.JSONDecoder().scan_once
+        self.assertEqual((1, 1), scanner('1', 0))
+        with self.assertRaisesRegex(TypeError, 'first argument must be a string, not bytes'):
+            scanner(b'1', 0)
+        with self.assertRaises(TypeError):
+            scanner(bytearray(b'1'), 0)
@@ -729,6 +729,49 @@ class ListTest(list_tests.CommonTest):
         l.extend(l)
         self.assertEqual([1,2,3,4,10,20,30,40], l)
 
+    def test_sort_key_stability(self):
+        data = [(i % 7, i) for i in range(200)]
+        self.assertEqual(sorted(data, key=lambda t: t[0]), [t for k in range(7) for t in data if t[0] == k])
+        self.assertEqual(sorted(data, key=lambda t: t[0], reverse=True), [t for k in reversed(range(7)) for t in data if t[0] == k])
+
+    def test_sort_key_called_once(self):
+        calls = []
+
+        def key(x):
+            calls.append(x)
+            return -x
+
+        l = list(range(100))
+        l.sort(key=key)
+        self.assertEqual(list(reversed(range(100))), l)
+        self.assertEqual(list(range(100)), sorted(calls))
+
+    def test_sort_homogeneous_keys(self):
+        import random
+        rnd = random.Random(42)
+        ints = [rnd.randint(-1000, 1000) for _ in range(500)]
+        self.assertEqual(sorted(ints), sorted(ints, key=lambda x: x * 3))
+        self.assertEqual(sorted(ints), sorted(ints, key=lambda x: x * 2**40))
+        self.assertEqual(sorted(ints)[::-1], sorted(ints, key=float, reverse=True))
+        self.assertEqual([int(s) for s in sorted(map(str, ints))], sorted(ints, key=str))
+        strs = [str(i) for i in ints]
+        self.assertEqual(sorted(strs)[::-1], sorted(strs, reverse=True))
+        self.assertEqual([-3, True, 1, 2.5, 2**70], sorted([1, 2.5, 2**70, -3, True]))
+
+    def test_sort_key_raises(self):
+        l = [3, 1, 2]
+
+        def key(x):
+            if x == 2:
+                raise KeyError
+            return x
+
+        self.assertRaises(KeyError, l.sort, key=key)
+        self.assertEqual([3, 1, 2], l)
+        self.assertRaises(TypeError, [2, 1].sort, lambda x: x)
+        self.assertRaises(TypeError, [2, 1].sort, foo=1)
+        self.assertRaises(TypeError, [1, "a"].sort)
+
 class ListCompareTest(CompareTest):
 
     def test_compare(self):
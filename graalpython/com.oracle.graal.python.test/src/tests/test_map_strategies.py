@@ -52,6 +52,8 @@ try:
         lambda: set_strategy(dict(), 'hashmap'),
         lambda: set_strategy(dict(), 'dynamicobject'),
         lambda: set_strategy(dict(), 'economicmap'),
+        lambda: set_strategy(dict(), 'stringmap'),
+        lambda: set_strategy(dict(), 'longmap'),
     ]
 except NameError:
     # For CPython, just to verify the test results
@@ -208,6 +210,31 @@ def test_update():
             assert d1[k2] == v2
 
 
+def test_many_keys():
+    for f in FACTORIES:
+        d = f()
+        n = 1000
+        for i in range(n):
+            d['key%d' % i] = i
+        # remove every other key to leave holes that must be squeezed out when growing
+        for i in range(0, n, 2):
+            del d['key%d' % i]
+        for i in range(n, 2 * n):
+            d['key%d' % i] = i
+        expected = ['key%d' % i for i in range(1, n, 2)] + ['key%d' % i for i in range(n, 2 * n)]
+        assert list(d) == expected
+        assert list(reversed(d)) == list(reversed(expected))
+        assert len(d) == len(expected)
+        for k in expected:
+            assert d[k] == int(k[3:])
+        for i in range(0, n, 2):
+            assert 'key%d' % i not in d
+        cpy = d.copy()
+        d['key1'] = 'changed'
+        assert cpy['key1'] == 1
+        assert list(cpy) == expected
+
+
 log = []
 class LoggingStr(str):
     def __hash__(self):
@@ -233,3 +260,20 @@ def test_side_effects():
         assert log == [
             "Hash on 'foo'",
             "Eq on '%s' and 'foo'" % key]
+
+
+def test_int_keys_iteration():
+    keys = [3, -7, 2**40, 0, -2**63, 2**31 - 1, 2**31]
+    for f in FACTORIES:
+        d = f()
+        for i, k in enumerate(keys):
+            d[k] = i
+        del d[0]
+        expected = [k for k in keys if k != 0]
+        assert list(d) == expected
+        assert list(reversed(d)) == expected[::-1]
+        assert list(d.items()) == [(k, keys.index(k)) for k in expected]
+        assert all(type(k) is int for k in d)
+        other = dict.fromkeys(d)
+        assert list(other) == expected
+        assert {k: 1 for k in d}.keys() & d.keys() == set(expected)
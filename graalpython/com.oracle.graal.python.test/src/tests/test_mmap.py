@@ -159,6 +159,54 @@ class MmapTests(unittest.TestCase):
 
 
 
+    def test_memoryview(self):
+        m = mmap.mmap(-1, 16)
+        m.write(bytes(range(16)))
+        with memoryview(m) as mv:
+            self.assertEqual(16, len(mv))
+            self.assertFalse(mv.readonly)
+            self.assertEqual(bytes(range(16)), mv.tobytes())
+            self.assertEqual(bytes(range(4, 8)), bytes(mv[4:8]))
+            mv[0] = 42
+            mv[1:3] = b'ab'
+        self.assertEqual(b'*ab', m[0:3])
+        # bytes() of an mmap does not depend on the current position
+        self.assertEqual(b'*ab' + bytes(range(3, 16)), bytes(m))
+        m.close()
+
+    def test_file_mapping(self):
+        with open(TESTFN, 'wb') as f:
+            f.write(bytes(range(256)) * 16)
+        try:
+            with open(TESTFN, 'rb') as f:
+                m = mmap.mmap(f.fileno(), 0, access=mmap.ACCESS_READ)
+            self.assertEqual(4096, len(m))
+            self.assertEqual(bytes(range(256)), m[256:512])
+            self.assertEqual(300, m.find(bytes(range(44, 48)), 45))
+            with memoryview(m) as mv:
+                self.assertTrue(mv.readonly)
+                self.assertEqual(bytes(range(10)), bytes(mv[:10]))
+            self.assertRaises(TypeError, m.__setitem__, 0, 1)
+            m.close()
+
+            with open(TESTFN, 'r+b') as f:
+                m = mmap.mmap(f.fileno(), 0, access=mmap.ACCESS_COPY)
+            m[0] = 255
+            self.assertEqual(255, m[0])
+            m.close()
+            with open(TESTFN, 'rb') as f:
+                self.assertEqual(0, f.read(1)[0], "ACCESS_COPY must not write through to the file")
+
+            with open(TESTFN, 'r+b') as f:
+                m = mmap.mmap(f.fileno(), 0, access=mmap.ACCESS_WRITE)
+            m[0:2] = b'xy'
+            m.flush()
+            m.close()
+            with open(TESTFN, 'rb') as f:
+                self.assertEqual(b'xy', f.read(2))
+        finally:
+            os.unlink(TESTFN)
+
     def test_context_manager(self):
         with mmap.mmap(-1, 10) as m:
             self.assertFalse(m.closed)
@@ -199,6 +247,22 @@ def test_find():
         m.close()
 
 
+def test_find_long_needle():
+    size = FIND_BUFFER_SIZE * 4
+    needle = bytes(range(256)) * 5
+    m = mmap.mmap(-1, size)
+    for pos in (0, FIND_BUFFER_SIZE - 7, FIND_BUFFER_SIZE * 2 + 1, size - len(needle)):
+        m[:] = b'\0' * size
+        m[pos:pos + len(needle)] = needle
+        assert m.find(needle) == pos
+        assert m.find(needle, pos + 1) == -1
+        assert m.find(needle, 0, pos + len(needle) - 1) == -1
+        assert m.find(needle[:3], pos) == pos
+    assert m.find(b'', 5) == 5
+    assert m.find(b'', size + 1) == size
+    m.close()
+
+
 def test_getitem():
     m = mmap.mmap(-1, 12)
     for i in range(0, 12):
@@ -222,6 +286,29 @@ def test_readline():
     assert m.readline() == b'ab'
 
 
+def test_shared_memory():
+    from multiprocessing import shared_memory
+    shm = shared_memory.SharedMemory(create=True, size=64)
+    try:
+        shm.buf[:5] = b'hello'
+        other = shared_memory.SharedMemory(shm.name)
+        try:
+            assert bytes(other.buf[:5]) == b'hello'
+            other.buf[5] = ord('!')
+            assert bytes(shm.buf[:6]) == b'hello!'
+        finally:
+            other.close()
+    finally:
+        shm.close()
+        shm.unlink()
+    try:
+        shared_memory.SharedMemory(shm.name)
+    except FileNotFoundError:
+        pass
+    else:
+        assert False, "segment should have been unlinked"
+
+
 def test_main():
     #run_unittest(MmapTests, LargeMmapTests)
     run_unittest(MmapTests)
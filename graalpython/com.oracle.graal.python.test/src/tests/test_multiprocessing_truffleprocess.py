@@ -0,0 +1,97 @@
+# Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import sys
+
+if sys.implementation.name == "graalpython":
+    import _multiprocessing
+    import multiprocessing
+
+    def test_in_memory_pipe():
+        r, w = _multiprocessing._pipe()
+        assert _multiprocessing._select((r,), 0) == []
+        assert _multiprocessing._write(w, b"hello") == 5
+        assert _multiprocessing._select((r,), 0) == [r]
+        assert _multiprocessing._read(r, 3) == b"hel"
+        assert _multiprocessing._read(r, 10) == b"lo"
+        w2 = _multiprocessing._dup(w)
+        _multiprocessing._close(w)
+        assert _multiprocessing._select((r,), 0) == []
+        _multiprocessing._close(w2)
+        # all writing ends are closed, reading returns EOF
+        assert _multiprocessing._select((r,), 0) == [r]
+        assert _multiprocessing._read(r, 10) == b""
+        _multiprocessing._close(r)
+        try:
+            _multiprocessing._read(r, 10)
+        except OSError:
+            pass
+        else:
+            assert False, "reading a closed pipe should raise"
+
+    def test_truffleprocess_connection():
+        ctx = multiprocessing.get_context("truffleprocess")
+        a, b = ctx.Pipe()
+        a.send([1, "two", 3.0])
+        assert b.poll(1)
+        assert b.recv() == [1, "two", 3.0]
+        b.send_bytes(b"x" * 100000)
+        assert a.recv_bytes() == b"x" * 100000
+        a.close()
+        try:
+            b.recv()
+        except EOFError:
+            pass
+        else:
+            assert False, "the other end was closed"
+        b.close()
+
+    def test_truffleprocess_process():
+        ctx = multiprocessing.get_context("truffleprocess")
+        q = ctx.Queue()
+        p = ctx.Process(target=q.put, args=(42,))
+        p.start()
+        assert q.get(timeout=60) == 42
+        p.join(60)
+        assert p.exitcode == 0
+
+    def test_truffleprocess_pool():
+        ctx = multiprocessing.get_context("truffleprocess")
+        with ctx.Pool(2) as pool:
+            assert pool.map(abs, range(-10, 0)) == list(range(10, 0, -1))
@@ -66,5 +66,161 @@ class TestPickle(unittest.TestCase):
         assert [16,17,18,19] == [next(teeit2) for i in range(1, 5)]
         assert [16,17,18,19] == [next(teeit) for i in range(1, 5)]
 
+    def test_roundtrip_all_protocols(self):
+        class_name = TestPickle
+        values = [None, True, False, 0, 1, -1, 255, 256, 65535, 65536, -2**31, 2**31, 2**63, -2**100,
+                  0.5, -1e300, float('inf'), b'', b'abc', b'x' * 300, bytearray(b'xyz'), '', 'abc',
+                  'caf\xe9', '\u20ac\U0001f600', '\ud800', 'a\nb\\c\r\x00', (), (1,), (1, 2), (1, 2, 3),
+                  (1, 2, 3, 4), [], [1, 2, 3], [1.5, 2.5], [True, False], list(range(2500)),
+                  {}, {'a': 1}, {i: str(i) for i in range(1500)}, set(), {1, 2, 3}, frozenset(),
+                  frozenset([1, 2]), len, class_name, type(None), NotImplemented, Ellipsis, complex(1, 2)]
+        for proto in range(pickle.HIGHEST_PROTOCOL + 1):
+            for value in values:
+                result = pickle.loads(pickle.dumps(value, protocol=proto))
+                self.assertEqual(type(result), type(value), (proto, value))
+                if value == value:
+                    self.assertEqual(result, value, (proto, value))
+
+    def test_shared_and_recursive(self):
+        for proto in range(pickle.HIGHEST_PROTOCOL + 1):
+            shared = [1, 2]
+            result = pickle.loads(pickle.dumps([shared, shared], protocol=proto))
+            self.assertIs(result[0], result[1])
+            lst = [1]
+            lst.append(lst)
+            result = pickle.loads(pickle.dumps(lst, protocol=proto))
+            self.assertIs(result[1], result)
+            d = {}
+            d['self'] = d
+            result = pickle.loads(pickle.dumps(d, protocol=proto))
+            self.assertIs(result['self'], result)
+            t = ([],)
+            t[0].append(t)
+            result = pickle.loads(pickle.dumps(t, protocol=proto))
+            self.assertIs(result[0][0], result)
+
+    def test_reduce_and_state(self):
+        for proto in range(pickle.HIGHEST_PROTOCOL + 1):
+            obj = PickleTestClass(1, 'two')
+            obj.extra = [3]
+            result = pickle.loads(pickle.dumps(obj, protocol=proto))
+            self.assertIsInstance(result, PickleTestClass)
+            self.assertEqual(result.__dict__, obj.__dict__)
+            if proto >= 2:
+                slotted = PickleSlots()
+                slotted.a = 5
+                result = pickle.loads(pickle.dumps(slotted, protocol=proto))
+                self.assertEqual(result.a, 5)
+            self.assertEqual(pickle.loads(pickle.dumps(PickleTestClass.method_name, protocol=proto)), PickleTestClass.method_name)
+
+    def test_large_frames(self):
+        data = [b'x' * 100000, 'y' * 70000, list(range(20000))]
+        for proto in range(pickle.HIGHEST_PROTOCOL + 1):
+            self.assertEqual(pickle.loads(pickle.dumps(data, protocol=proto)), data)
+            import io
+            f = io.BytesIO()
+            pickle.dump(data, f, protocol=proto)
+            f.seek(0)
+            self.assertEqual(pickle.load(f), data)
+
+    def test_pickler_unpickler_file(self):
+        import io
+        f = io.BytesIO()
+        pickler = pickle.Pickler(f, 2)
+        pickler.dump([1, 2])
+        pickler.dump('second')
+        f.seek(0)
+        unpickler = pickle.Unpickler(f)
+        self.assertEqual(unpickler.load(), [1, 2])
+        self.assertEqual(unpickler.load(), 'second')
+        self.assertRaises(EOFError, unpickler.load)
+
+    def test_persistent_id(self):
+        import io
+
+        class MyPickler(pickle.Pickler):
+            def persistent_id(self, obj):
+                if isinstance(obj, str) and obj.startswith('ext:'):
+                    return obj[4:]
+                return None
+
+        class MyUnpickler(pickle.Unpickler):
+            def persistent_load(self, pid):
+                return 'loaded:' + pid
+
+        for proto in range(pickle.HIGHEST_PROTOCOL + 1):
+            f = io.BytesIO()
+            MyPickler(f, proto).dump(['ext:a', 'b'])
+            f.seek(0)
+            self.assertEqual(MyUnpickler(f).load(), ['loaded:a', 'b'])
+
+    def test_dispatch_table_and_reducer_override(self):
+        import io
+        import copyreg
+
+        class MyPickler(pickle.Pickler):
+            dispatch_table = copyreg.dispatch_table.copy()
+            dispatch_table[complex] = lambda c: (complex, (c.real, 42.0))
+
+            def reducer_override(self, obj):
+                if isinstance(obj, PickleSlots):
+                    return str, ('replaced',)
+                return NotImplemented
+
+        f = io.BytesIO()
+        MyPickler(f, 4).dump([complex(1, 2), PickleSlots()])
+        self.assertEqual(pickle.loads(f.getvalue()), [complex(1, 42), 'replaced'])
+
+    def test_pickle_buffer(self):
+        data = bytearray(b'abcdef')
+        buf = pickle.PickleBuffer(data)
+        self.assertEqual(bytes(buf.raw()), b'abcdef')
+        self.assertEqual(bytes(memoryview(buf)), b'abcdef')
+        self.assertRaises(pickle.PicklingError, pickle.dumps, buf, protocol=4)
+        result = pickle.loads(pickle.dumps(buf, protocol=5))
+        self.assertEqual(result, data)
+        self.assertIsInstance(result, bytearray)
+        buffers = []
+        dumped = pickle.dumps(buf, protocol=5, buffer_callback=buffers.append)
+        self.assertEqual(len(buffers), 1)
+        result = pickle.loads(dumped, buffers=buffers)
+        self.assertEqual(bytes(result), b'abcdef')
+        self.assertRaises(pickle.UnpicklingError, pickle.loads, dumped)
+        buf.release()
+        self.assertRaises(ValueError, buf.raw)
+
+    def test_errors(self):
+        self.assertRaises((pickle.PicklingError, AttributeError), pickle.dumps, lambda: 1)
+        self.assertRaises(ValueError, pickle.dumps, 1, protocol=pickle.HIGHEST_PROTOCOL + 1)
+        self.assertRaises(EOFError, pickle.loads, b'')
+        self.assertRaises(pickle.UnpicklingError, pickle.loads, b'\x80\x04K')
+        self.assertRaises(pickle.UnpicklingError, pickle.loads, b'\xff')
+        self.assertRaises(TypeError, pickle.loads, 'not bytes')
+        lst = []
+        for i in range(2000):
+            lst = [lst]
+        self.assertRaises(RecursionError, pickle.dumps, lst)
+
+    def test_python2_compat(self):
+        # produced by Python 2: pickle.dumps([u'abc', 'def', xrange(3)], 2)
+        data = b'\x80\x02]q\x00(X\x03\x00\x00\x00abcq\x01U\x03defq\x02c__builtin__\nxrange\nq\x03K\x00K\x03K\x01\x87q\x04Rq\x05e.'
+        self.assertEqual(pickle.loads(data), ['abc', 'def', range(0, 3)])
+        self.assertEqual(pickle.loads(data, encoding='bytes')[1], b'def')
+        self.assertIn(b'__builtin__', pickle.dumps(range(3), protocol=2))
+
+
+class PickleTestClass:
+    def __init__(self, a, b):
+        self.a = a
+        self.b = b
+
+    def method_name(self):
+        pass
+
+
+class PickleSlots:
+    __slots__ = ('a', '__dict__')
+
+
 if __name__ == '__main__':
     unittest.main()
@@ -302,6 +302,40 @@ class ReTests(unittest.TestCase):
         self.assertEqual(re.subn("b*", "x", "xyz", 2), ('xxxyz', 2))
         self.assertEqual(re.subn("b*", "x", "xyz", count=2), ('xxxyz', 2))
 
+    def test_re_sub_template(self):
+        p = re.compile(r"(?P<key>\w+)=(\d+)?")
+        for i in range(3):
+            # the same template is expanded repeatedly
+            self.assertEqual(p.sub(r"\2:\g<key>", "a=1 b= c=3"), "1:a :b 3:c")
+        self.assertEqual(p.subn(r"[\g<0>]\n", "a=1 b=2", 1), ("[a=1]\n b=2", 1))
+        self.assertEqual(p.sub(r"\\", "a=1"), "\\")
+        self.assertEqual(re.sub(rb"(a)(x)?", rb"<\2\1>", b"bab"), b"b<a>b")
+        self.assertEqual(re.sub("x*", r"-\g<0>-", "abxd"), "--a--b-x---d--")
+        self.assertRaises(re.error, re.sub, "(a)", r"\2", "a")
+        self.assertRaises(TypeError, re.sub, "a", b"b", "a")
+
+    def test_re_sub_many_templates(self):
+        p = re.compile(r"(\w)")
+        # more distinct templates than are cached, the recently used ones stay cached
+        for i in range(250):
+            self.assertEqual(p.sub(r"\g<1>%d" % i, "ab"), "a%db%d" % (i, i))
+            self.assertEqual(p.sub(r"<\1>", "a"), "<a>")
+
+    def test_re_sub_callable(self):
+        matches = []
+
+        def repl(m):
+            matches.append(m)
+            return m.group(1).upper() if m.group(1) != "b" else None
+
+        self.assertEqual(re.subn(r"(\w)", repl, "a b c"), ("A  C", 3))
+        self.assertEqual([(m.span(), m.pos, m.endpos) for m in matches], [((0, 1), 0, 5), ((2, 3), 0, 5), ((4, 5), 0, 5)])
+        self.assertEqual(re.sub("x*", lambda m: "-", "abxd"), "-a-b--d-")
+        self.assertEqual(re.sub(rb"a", lambda m: bytearray(b"<>"), b"bab"), b"b<>b")
+        self.assertEqual(re.sub("a", lambda m: "z", "aaa", count=2), "zza")
+        self.assertRaises(TypeError, re.sub, "a", lambda m: 1, "xax")
+        self.assertRaises(TypeError, re.sub, b"a", lambda m: "z", b"xax")
+
     def test_re_split(self):
         for string in ":a:b::c", S(":a:b::c"):
             self.assertTypedEqual(re.split(":", string),
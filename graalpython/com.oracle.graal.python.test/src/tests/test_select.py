@@ -39,8 +39,11 @@
 
 import os
 import select
+import selectors
+import socket
 import sys
 import tempfile
+import threading
 import unittest
 
 PREFIX = 'select_graalpython_test'
@@ -95,3 +98,109 @@ class SelectTests(unittest.TestCase):
             fds = [F(f.fileno()), F(stdout_fd), F(f.fileno())]
             res = select.select(fds, [], [], 1)
             assert res == ([fds[0], fds[2]], [], [])
+
+    def _connected_pair(self):
+        server = socket.socket(socket.AF_INET, socket.SOCK_STREAM)
+        self.addCleanup(server.close)
+        server.bind(('127.0.0.1', 0))
+        server.listen(1)
+        client = socket.create_connection(server.getsockname())
+        self.addCleanup(client.close)
+        conn, _ = server.accept()
+        self.addCleanup(conn.close)
+        return client, conn
+
+    def test_poll(self):
+        client, conn = self._connected_pair()
+        p = select.poll()
+        p.register(conn, select.POLLIN)
+        self.assertEqual(p.poll(0), [])
+        client.sendall(b'x')
+        self.assertEqual(p.poll(5000), [(conn.fileno(), select.POLLIN)])
+        p.modify(conn, select.POLLOUT)
+        self.assertEqual(p.poll(5000), [(conn.fileno(), select.POLLOUT)])
+        p.unregister(conn)
+        self.assertRaises(KeyError, p.unregister, conn)
+        self.assertRaises(FileNotFoundError, p.modify, conn, select.POLLIN)
+        self.assertEqual(conn.recv(1), b'x')
+
+    def test_poll_without_timeout_blocks(self):
+        client, conn = self._connected_pair()
+        client.sendall(b'x')
+        p = select.poll()
+        result = []
+        t = threading.Thread(target=lambda: result.append(p.poll()), daemon=True)
+        t.start()
+        t.join(0.5)
+        # nothing is registered, so poll() waits indefinitely
+        self.assertTrue(t.is_alive())
+        self.assertEqual(result, [])
+        if sys.implementation.name == 'graalpython':
+            # registering a ready descriptor wakes up the waiting poll()
+            p.register(conn, select.POLLIN)
+            t.join(5)
+            self.assertFalse(t.is_alive())
+            self.assertEqual(result, [[(conn.fileno(), select.POLLIN)]])
+
+    def test_poll_hangup(self):
+        client, conn = self._connected_pair()
+        p = select.poll()
+        p.register(conn, select.POLLIN)
+        client.close()
+        self.assertEqual(conn.recv(1), b'')
+        conn.shutdown(socket.SHUT_WR)
+        events = p.poll(5000)
+        self.assertEqual(len(events), 1)
+        fd, mask = events[0]
+        self.assertEqual(fd, conn.fileno())
+        self.assertTrue(mask & select.POLLHUP)
+
+    @unittest.skipUnless(sys.implementation.name == 'graalpython', 'closing does not wake up poll() natively')
+    def test_poll_close_while_polling(self):
+        client, conn = self._connected_pair()
+        fd = conn.fileno()
+        p = select.poll()
+        p.register(conn, select.POLLIN)
+        result = []
+        t = threading.Thread(target=lambda: result.append(p.poll()), daemon=True)
+        t.start()
+        t.join(0.5)
+        self.assertTrue(t.is_alive())
+        # closing a registered descriptor wakes up the waiting poll() and reports a hang-up
+        conn.close()
+        t.join(5)
+        self.assertFalse(t.is_alive())
+        self.assertEqual(result, [[(fd, select.POLLHUP)]])
+        # it is reported until it is unregistered
+        self.assertEqual(p.poll(0), [(fd, select.POLLHUP)])
+        p.unregister(fd)
+        self.assertEqual(p.poll(0), [])
+
+    @unittest.skipUnless(hasattr(select, 'epoll'), 'epoll is not available')
+    def test_epoll(self):
+        client, conn = self._connected_pair()
+        with select.epoll() as ep:
+            ep.register(conn.fileno(), select.EPOLLIN)
+            self.assertRaises(FileExistsError, ep.register, conn.fileno(), select.EPOLLIN)
+            self.assertEqual(ep.poll(0), [])
+            client.sendall(b'x')
+            self.assertEqual(ep.poll(5, 1), [(conn.fileno(), select.EPOLLIN)])
+            self.assertRaises(ValueError, ep.poll, 1, 0)
+            ep.unregister(conn.fileno())
+            self.assertRaises(FileNotFoundError, ep.unregister, conn.fileno())
+        self.assertTrue(ep.closed)
+        self.assertRaises(ValueError, ep.poll, 0)
+
+    def test_default_selector(self):
+        client, conn = self._connected_pair()
+        with selectors.DefaultSelector() as sel:
+            sel.register(conn, selectors.EVENT_READ, 'data')
+            self.assertEqual(sel.select(0), [])
+            client.sendall(b'x')
+            events = sel.select(5)
+            self.assertEqual(len(events), 1)
+            key, mask = events[0]
+            self.assertIs(key.fileobj, conn)
+            self.assertEqual(key.data, 'data')
+            self.assertEqual(mask, selectors.EVENT_READ)
+            self.assertEqual(conn.recv(1), b'x')
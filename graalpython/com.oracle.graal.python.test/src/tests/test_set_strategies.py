@@ -52,6 +52,7 @@ try:
         lambda: set_strategy(set(), 'hashmap'),
         lambda: set_strategy(set(), 'dynamicobject'),
         lambda: set_strategy(set(), 'economicmap'),
+        lambda: set_strategy(set(), 'longmap'),
     ]
 except NameError:
     # For CPython, just to verify the test results
@@ -163,3 +164,31 @@ def test_find_custom_key():
         key = MyWeirdKey()
         assert key not in s
         assert key.log == []
+
+
+def test_int_keys_operations():
+    for (f1, f2) in FACTORIES2:
+        s1 = f1()
+        s2 = f2()
+        for i in range(-500, 500):
+            s1.add(i)
+        for i in range(0, 1000, 3):
+            s2.add(i)
+        for i in range(-500, 0, 2):
+            s1.discard(i)
+        s1.add(2**62)
+        expected1 = set(range(-499, 0, 2)) | set(range(0, 500)) | {2**62}
+        expected2 = set(range(0, 1000, 3))
+        assert s1 == expected1
+        assert s2 == expected2
+        assert s1 | s2 == expected1 | expected2
+        assert s1 & s2 == expected1 & expected2
+        assert s1 - s2 == expected1 - expected2
+        assert s2 - s1 == expected2 - expected1
+        assert s1 ^ s2 == expected1 ^ expected2
+        # keys that are equal to ints, but are not ints themselves
+        assert 1.0 in s1
+        assert True in s1
+        assert 2.0**62 in s1
+        assert 1.5 not in s1
+        assert -500 not in s1
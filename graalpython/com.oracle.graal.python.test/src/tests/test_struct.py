@@ -257,3 +257,74 @@ def test_iter_unpack():
     assert lh(it) == 0
     assert_raises(StopIteration, next, it)
     assert lh(it) == 0
+
+
+def test_buffer_types():
+    import array
+    s = struct.Struct('<hI')
+    arr = array.array('b', [0] * 12)
+    s.pack_into(arr, 2, -2, 0xdeadbeef)
+    assert s.unpack_from(arr, 2) == (-2, 0xdeadbeef)
+    assert s.unpack_from(memoryview(arr), 2) == (-2, 0xdeadbeef)
+
+    buf = bytearray(12)
+    view = memoryview(buf)[4:]
+    s.pack_into(view, 1, 7, 42)
+    assert bytes(buf[5:11]) == b'\x07\x00\x2a\x00\x00\x00'
+    assert s.unpack_from(view, 1) == (7, 42)
+    assert s.unpack(view[1:7]) == (7, 42)
+    assert s.unpack_from(memoryview(bytes(buf)), 5) == (7, 42)
+
+    # negative offsets count from the end
+    s.pack_into(buf, -6, 1, 2)
+    assert s.unpack_from(buf, -6) == (1, 2)
+    assert_raises(struct.error, s.unpack_from, buf, -2)
+    assert_raises(struct.error, s.pack_into, buf, -20, 1, 2)
+
+    assert_raises(TypeError, s.pack_into, bytes(12), 0, 1, 2)
+    assert_raises(TypeError, s.pack_into, memoryview(bytes(12)), 0, 1, 2)
+    assert_raises(TypeError, s.unpack, "abcdef")
+
+
+def test_pack_errors():
+    assert_raises(struct.error, struct.pack, 'b', 128)
+    assert_raises(struct.error, struct.pack, 'B', -1)
+    assert_raises(struct.error, struct.pack, '<h', 0x8000)
+    assert_raises(struct.error, struct.pack, '<I', -1)
+    assert_raises(struct.error, struct.pack, '<Q', 2 ** 64)
+    assert_raises(struct.error, struct.pack, '<q', 2 ** 63)
+    assert_raises(struct.error, struct.pack, 'i', 1.5)
+    assert_raises(struct.error, struct.pack, 'd', 'x')
+    assert_raises(struct.error, struct.pack, 'c', b'ab')
+    assert_raises(struct.error, struct.pack, 'ii', 1)
+    assert_raises(struct.error, struct.calcsize, '3')
+    assert_raises(struct.error, struct.calcsize, 'Z')
+    assert_raises(OverflowError, struct.pack, '<f', 1e300)
+    assert_raises(OverflowError, struct.pack, '<e', 65520.0)
+    assert struct.pack('<Q', 2 ** 64 - 1) == b'\xff' * 8
+    assert struct.unpack('<Q', b'\xff' * 8) == (2 ** 64 - 1,)
+    try:
+        struct.pack('>h', 0x8000)
+    except struct.error as e:
+        assert str(e) == "'h' format requires -32768 <= number <= 32767", str(e)
+
+
+def test_half_float():
+    for x in (0.0, 1.0, -2.5, 65504.0, 2 ** -24, 6.103515625e-05, float('inf')):
+        assert struct.unpack('<e', struct.pack('<e', x)) == (x,)
+    assert struct.pack('<e', 1.0) == b'\x00\x3c'
+    assert struct.pack('>e', -2.0) == b'\xc0\x00'
+    # rounds half to even
+    assert struct.pack('<e', 1.0 + 2 ** -11) == b'\x00\x3c'
+    assert struct.pack('<e', 1.0 + 3 * 2 ** -11) == b'\x02\x3c'
+
+
+def test_struct_reinit():
+    s = struct.Struct('<i')
+    assert s.size == 4
+    s.__init__('<q')
+    assert s.size == 8
+    assert s.format == '<q'
+    assert s.unpack(s.pack(-1)) == (-1,)
+    assert struct.Struct(b'<h').format == '<h'
+    assert_raises(TypeError, struct.Struct, 3)
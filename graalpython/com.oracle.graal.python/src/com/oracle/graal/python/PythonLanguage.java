@@ -61,6 +61,7 @@ import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.PythonCore;
 import com.oracle.graal.python.runtime.PythonOptions;
 import com.oracle.graal.python.runtime.PythonParser.ParserMode;
+import com.oracle.graal.python.runtime.SharedMultiprocessingData;
 import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.interop.InteropMap;
 import com.oracle.graal.python.runtime.object.PythonObjectFactory;
@@ -183,6 +184,12 @@ public final class PythonLanguage extends TruffleLanguage<PythonContext> {
      */
     public final ConcurrentHashMap<String, Semaphore> namedSemaphores = new ConcurrentHashMap<>();
 
+    /**
+     * The in-memory pipes and child contexts of the {@code truffleprocess} start method of
+     * {@code multiprocessing} are shared between contexts in the same way.
+     */
+    public final SharedMultiprocessingData sharedMultiprocessingData = new SharedMultiprocessingData();
+
     @CompilationFinal(dimensions = 1) private volatile Object[] engineOptionsStorage;
     @CompilationFinal private volatile OptionValues engineOptions;
 
@@ -723,6 +730,7 @@ public final class PythonLanguage extends TruffleLanguage<PythonContext> {
 
     private final ConcurrentHashMap<String, CallTarget> cachedCode = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, String[]> cachedCodeModulePath = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LibraryCode> cachedLibraryCode = new ConcurrentHashMap<>();
 
     @TruffleBoundary
     public CallTarget cacheCode(String filename, Supplier<CallTarget> createCode) {
@@ -749,6 +757,34 @@ public final class PythonLanguage extends TruffleLanguage<PythonContext> {
         return ct;
     }
 
+    /**
+     * Cache code of library modules compiled after context initialization, so that other
+     * contexts on the same engine importing the same module do not parse it again. The source
+     * text is kept with the call target (it is referenced from the AST's {@link Source} anyway)
+     * and compared on every lookup, so a module that changed on disk is parsed again.
+     */
+    @TruffleBoundary
+    public CallTarget cacheLibraryCode(String filename, String code, Supplier<CallTarget> createCode) {
+        LibraryCode cached = cachedLibraryCode.get(filename);
+        if (cached != null && cached.code.equals(code)) {
+            return cached.callTarget;
+        }
+        CallTarget ct = createCode.get();
+        LOGGER.log(Level.FINEST, () -> "Caching library CallTarget for " + filename);
+        cachedLibraryCode.put(filename, new LibraryCode(code, ct));
+        return ct;
+    }
+
+    private static final class LibraryCode {
+        private final String code;
+        private final CallTarget callTarget;
+
+        LibraryCode(String code, CallTarget callTarget) {
+            this.code = code;
+            this.callTarget = callTarget;
+        }
+    }
+
     @Override
     protected boolean isThreadAccessAllowed(Thread thread, boolean singleThreaded) {
         if (singleThreaded) {
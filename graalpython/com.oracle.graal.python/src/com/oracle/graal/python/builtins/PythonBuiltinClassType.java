@@ -160,7 +160,37 @@ public enum PythonBuiltinClassType implements TruffleObject {
     PDirEntry("DirEntry", "posix", Flags.PUBLIC_DERIVED_WODICT),
     LsprofProfiler("Profiler", "_lsprof"),
     PStruct("Struct", "_struct"),
-    PStructUnpackIterator("unpack_iterator", "_struct"),
+    PStructUnpackIterator("unpack_iterator", "_struct", Flags.PRIVATE_DERIVED_WODICT),
+
+    // itertools
+    PAccumulate("accumulate", "itertools"),
+    PChain("chain", "itertools"),
+    PCombinations("combinations", "itertools"),
+    PCombinationsWithReplacement("combinations_with_replacement", "itertools"),
+    PCompress("compress", "itertools"),
+    PCount("count", "itertools"),
+    PCycle("cycle", "itertools"),
+    PDropwhile("dropwhile", "itertools"),
+    PFilterfalse("filterfalse", "itertools"),
+    PGroupBy("groupby", "itertools"),
+    PGrouper("_grouper", "itertools", Flags.PUBLIC_DERIVED_WODICT),
+    PIslice("islice", "itertools"),
+    PPermutations("permutations", "itertools"),
+    PProduct("product", "itertools"),
+    PRepeat("repeat", "itertools"),
+    PStarmap("starmap", "itertools"),
+    PTakewhile("takewhile", "itertools"),
+    PTee("_tee", "itertools", Flags.PUBLIC_DERIVED_WODICT),
+    PTeeDataObject("_tee_dataobject", "itertools", Flags.PUBLIC_DERIVED_WODICT),
+    PZipLongest("zip_longest", "itertools"),
+
+    // functools
+    PPartial("partial", "functools", Flags.PUBLIC_BASE_WDICT),
+    PLruCacheWrapper("_lru_cache_wrapper", "functools", Flags.PUBLIC_BASE_WDICT),
+
+    // select
+    PPoll("poll", "select", Flags.PUBLIC_DERIVED_WODICT),
+    PEpoll("epoll", "select", Flags.PUBLIC_BASE_WODICT),
 
     // bz2
     BZ2Compressor("BZ2Compressor", "_bz2"),
@@ -214,6 +244,27 @@ public enum PythonBuiltinClassType implements TruffleObject {
     JSONScanner("Scanner", "_json", Flags.PUBLIC_BASE_WODICT),
     JSONEncoder("Encoder", "_json", Flags.PUBLIC_BASE_WODICT),
 
+    // pickle
+    PPickler("Pickler", "_pickle", Flags.PUBLIC_BASE_WODICT),
+    PUnpickler("Unpickler", "_pickle", Flags.PUBLIC_BASE_WODICT),
+    PPickleBuffer("PickleBuffer", "_pickle", Flags.PUBLIC_DERIVED_WODICT),
+
+    // hashlib
+    PHashlibHash("HASH", "_hashlib", Flags.PUBLIC_DERIVED_WODICT),
+    PSha3_224("sha3_224", "_sha3", Flags.PUBLIC_BASE_WODICT),
+    PSha3_256("sha3_256", "_sha3", Flags.PUBLIC_BASE_WODICT),
+    PSha3_384("sha3_384", "_sha3", Flags.PUBLIC_BASE_WODICT),
+    PSha3_512("sha3_512", "_sha3", Flags.PUBLIC_BASE_WODICT),
+    PShake_128("shake_128", "_sha3", Flags.PUBLIC_BASE_WODICT),
+    PShake_256("shake_256", "_sha3", Flags.PUBLIC_BASE_WODICT),
+    PBlake2b("blake2b", "_blake2", Flags.PUBLIC_BASE_WODICT),
+    PBlake2s("blake2s", "_blake2", Flags.PUBLIC_BASE_WODICT),
+
+    // csv
+    CSVDialect("Dialect", "_csv", Flags.PUBLIC_BASE_WODICT),
+    CSVReader("reader", "_csv", Flags.PRIVATE_DERIVED_WODICT),
+    CSVWriter("writer", "_csv", Flags.PRIVATE_DERIVED_WODICT),
+
     // Errors and exceptions:
 
     // everything after BaseException is considered to be an exception
@@ -260,6 +311,10 @@ public enum PythonBuiltinClassType implements TruffleObject {
     ZLibError("error", "zlib", Flags.EXCEPTION),
     LZMAError("LZMAError", "_lzma", Flags.EXCEPTION),
     StructError("StructError", "_struct", Flags.EXCEPTION),
+    PickleError("PickleError", "_pickle", Flags.EXCEPTION),
+    PicklingError("PicklingError", "_pickle", Flags.EXCEPTION),
+    UnpicklingError("UnpicklingError", "_pickle", Flags.EXCEPTION),
+    CSVError("Error", "_csv", Flags.EXCEPTION),
     SocketGAIError("gaierror", "_socket", Flags.EXCEPTION),
     SocketHError("herror", "_socket", Flags.EXCEPTION),
     SocketTimeout("timeout", "_socket", Flags.EXCEPTION),
@@ -563,6 +618,10 @@ public enum PythonBuiltinClassType implements TruffleObject {
         UnicodeTranslateError.base = UnicodeError;
         RecursionError.base = RuntimeError;
         StructError.base = Exception;
+        PickleError.base = Exception;
+        PicklingError.base = PickleError;
+        UnpicklingError.base = PickleError;
+        CSVError.base = Exception;
         BinasciiError.base = ValueError;
         BinasciiIncomplete.base = Exception;
 
@@ -0,0 +1,417 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules;
+
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.IndexError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.ValueError;
+
+import java.util.List;
+
+import com.oracle.graal.python.annotations.ArgumentClinic;
+import com.oracle.graal.python.annotations.ArgumentClinic.ClinicConversion;
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.PNodeWithRaise;
+import com.oracle.graal.python.nodes.expression.BinaryComparisonNode;
+import com.oracle.graal.python.nodes.expression.CoerceToBooleanNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonQuaternaryClinicBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.clinic.ArgumentClinicProvider;
+import com.oracle.graal.python.nodes.object.GetClassNode;
+import com.oracle.graal.python.nodes.subscript.GetItemNode;
+import com.oracle.graal.python.runtime.sequence.storage.DoubleSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.IntSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.LongSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Cached.Shared;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.library.CachedLibrary;
+import com.oracle.truffle.api.nodes.UnexpectedResultException;
+
+/**
+ * Bisection on sorted sequences. Exact lists with an {@code int}, {@code long} or {@code double}
+ * storage are searched directly on the primitive array if the item has the matching type. Other
+ * lists are searched on their storage with {@code <} comparisons and any other sequence through
+ * {@code __getitem__}, like in CPython.
+ */
+@CoreFunctions(defineModule = "_bisect")
+public class BisectModuleBuiltins extends PythonBuiltins {
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return BisectModuleBuiltinsFactory.getFactories();
+    }
+
+    abstract static class BisectBaseNode extends PythonQuaternaryClinicBuiltinNode {
+
+        protected abstract boolean isRight();
+
+        @Specialization
+        int doIt(VirtualFrame frame, Object a, Object x, int lo, int hi,
+                        @Cached InternalBisectNode bisectNode) {
+            if (lo < 0) {
+                throw raise(ValueError, ErrorMessages.MUST_BE_NON_NEGATIVE, "lo");
+            }
+            return bisectNode.execute(frame, a, x, lo, hi, isRight());
+        }
+    }
+
+    @Builtin(name = "bisect_right", minNumOfPositionalArgs = 2, parameterNames = {"a", "x", "lo", "hi"}, //
+                    doc = "Return the index where to insert item x in list a, assuming a is sorted.\n\n" +
+                                    "The return value i is such that all e in a[:i] have e <= x, and all e in\n" +
+                                    "a[i:] have e > x.  So if x already appears in the list, i points just\n" +
+                                    "beyond the rightmost x already there\n\n" +
+                                    "Optional args lo (default 0) and hi (default len(a)) bound the\n" +
+                                    "slice of a to be searched.")
+    @ArgumentClinic(name = "lo", conversion = ClinicConversion.Index, defaultValue = "0")
+    @ArgumentClinic(name = "hi", conversion = ClinicConversion.Index, defaultValue = "-1", useDefaultForNone = true)
+    @GenerateNodeFactory
+    abstract static class BisectRightNode extends BisectBaseNode {
+
+        @Override
+        protected final boolean isRight() {
+            return true;
+        }
+
+        @Override
+        protected ArgumentClinicProvider getArgumentClinic() {
+            return BisectModuleBuiltinsClinicProviders.BisectRightNodeClinicProviderGen.INSTANCE;
+        }
+    }
+
+    @Builtin(name = "bisect_left", minNumOfPositionalArgs = 2, parameterNames = {"a", "x", "lo", "hi"}, //
+                    doc = "Return the index where to insert item x in list a, assuming a is sorted.\n\n" +
+                                    "The return value i is such that all e in a[:i] have e < x, and all e in\n" +
+                                    "a[i:] have e >= x.  So if x already appears in the list, i points just\n" +
+                                    "before the leftmost x already there.\n\n" +
+                                    "Optional args lo (default 0) and hi (default len(a)) bound the\n" +
+                                    "slice of a to be searched.")
+    @ArgumentClinic(name = "lo", conversion = ClinicConversion.Index, defaultValue = "0")
+    @ArgumentClinic(name = "hi", conversion = ClinicConversion.Index, defaultValue = "-1", useDefaultForNone = true)
+    @GenerateNodeFactory
+    abstract static class BisectLeftNode extends BisectBaseNode {
+
+        @Override
+        protected final boolean isRight() {
+            return false;
+        }
+
+        @Override
+        protected ArgumentClinicProvider getArgumentClinic() {
+            return BisectModuleBuiltinsClinicProviders.BisectLeftNodeClinicProviderGen.INSTANCE;
+        }
+    }
+
+    /**
+     * Inserts into exact lists with a primitive storage without boxing. Everything else is
+     * inserted into the storage of exact lists or by calling {@code insert}.
+     */
+    abstract static class InsortBaseNode extends PythonQuaternaryClinicBuiltinNode {
+
+        protected abstract boolean isRight();
+
+        @Specialization(guards = {"isIntStorage(a)", "cannotBeOverridden(a, getClassNode)"}, limit = "1")
+        PNone doInt(PList a, int x, int lo, int hi,
+                        @Shared("getClass") @Cached @SuppressWarnings("unused") GetClassNode getClassNode) {
+            IntSequenceStorage storage = (IntSequenceStorage) a.getSequenceStorage();
+            storage.insertIntItem(checkIndex(bisect(storage.getInternalIntArray(), storage.length(), x, checkLo(lo), hi, isRight())), x);
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = {"isLongStorage(a)", "cannotBeOverridden(a, getClassNode)"}, limit = "1")
+        PNone doLong(PList a, long x, int lo, int hi,
+                        @Shared("getClass") @Cached @SuppressWarnings("unused") GetClassNode getClassNode) {
+            LongSequenceStorage storage = (LongSequenceStorage) a.getSequenceStorage();
+            storage.insertLongItem(checkIndex(bisect(storage.getInternalLongArray(), storage.length(), x, checkLo(lo), hi, isRight())), x);
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = {"isDoubleStorage(a)", "cannotBeOverridden(a, getClassNode)"}, limit = "1")
+        PNone doDouble(PList a, double x, int lo, int hi,
+                        @Shared("getClass") @Cached @SuppressWarnings("unused") GetClassNode getClassNode) {
+            DoubleSequenceStorage storage = (DoubleSequenceStorage) a.getSequenceStorage();
+            storage.insertDoubleItem(checkIndex(bisect(storage.getInternalDoubleArray(), storage.length(), x, checkLo(lo), hi, isRight())), x);
+            return PNone.NONE;
+        }
+
+        @Specialization
+        PNone doGeneric(VirtualFrame frame, Object a, Object x, int lo, int hi,
+                        @Cached InternalBisectNode bisectNode,
+                        @Shared("getClass") @Cached GetClassNode getClassNode,
+                        @Cached SequenceStorageNodes.InsertItemNode insertItemNode,
+                        @CachedLibrary(limit = "3") PythonObjectLibrary lib) {
+            int index = bisectNode.execute(frame, a, x, checkLo(lo), hi, isRight());
+            if (a instanceof PList && PGuards.cannotBeOverridden(a, getClassNode)) {
+                PList list = (PList) a;
+                list.setSequenceStorage(insertItemNode.execute(list.getSequenceStorage(), index, x));
+            } else {
+                lib.lookupAndCallRegularMethod(a, frame, "insert", index, x);
+            }
+            return PNone.NONE;
+        }
+
+        private int checkLo(int lo) {
+            if (lo < 0) {
+                throw raise(ValueError, ErrorMessages.MUST_BE_NON_NEGATIVE, "lo");
+            }
+            return lo;
+        }
+
+        private int checkIndex(int index) {
+            if (index < 0) {
+                throw raise(IndexError, ErrorMessages.LIST_INDEX_OUT_OF_RANGE);
+            }
+            return index;
+        }
+    }
+
+    @Builtin(name = "insort_right", minNumOfPositionalArgs = 2, parameterNames = {"a", "x", "lo", "hi"}, //
+                    doc = "Insert item x in list a, and keep it sorted assuming a is sorted.\n\n" +
+                                    "If x is already in a, insert it to the right of the rightmost x.\n\n" +
+                                    "Optional args lo (default 0) and hi (default len(a)) bound the\n" +
+                                    "slice of a to be searched.")
+    @ArgumentClinic(name = "lo", conversion = ClinicConversion.Index, defaultValue = "0")
+    @ArgumentClinic(name = "hi", conversion = ClinicConversion.Index, defaultValue = "-1", useDefaultForNone = true)
+    @GenerateNodeFactory
+    abstract static class InsortRightNode extends InsortBaseNode {
+
+        @Override
+        protected final boolean isRight() {
+            return true;
+        }
+
+        @Override
+        protected ArgumentClinicProvider getArgumentClinic() {
+            return BisectModuleBuiltinsClinicProviders.InsortRightNodeClinicProviderGen.INSTANCE;
+        }
+    }
+
+    @Builtin(name = "insort_left", minNumOfPositionalArgs = 2, parameterNames = {"a", "x", "lo", "hi"}, //
+                    doc = "Insert item x in list a, and keep it sorted assuming a is sorted.\n\n" +
+                                    "If x is already in a, insert it to the left of the leftmost x.\n\n" +
+                                    "Optional args lo (default 0) and hi (default len(a)) bound the\n" +
+                                    "slice of a to be searched.")
+    @ArgumentClinic(name = "lo", conversion = ClinicConversion.Index, defaultValue = "0")
+    @ArgumentClinic(name = "hi", conversion = ClinicConversion.Index, defaultValue = "-1", useDefaultForNone = true)
+    @GenerateNodeFactory
+    abstract static class InsortLeftNode extends InsortBaseNode {
+
+        @Override
+        protected final boolean isRight() {
+            return false;
+        }
+
+        @Override
+        protected ArgumentClinicProvider getArgumentClinic() {
+            return BisectModuleBuiltinsClinicProviders.InsortLeftNodeClinicProviderGen.INSTANCE;
+        }
+    }
+
+    /**
+     * Implements CPython's {@code internal_bisect_right} and {@code internal_bisect_left}. A
+     * {@code hi} of {@code -1} stands for the length of the sequence. Like in CPython, an upper
+     * bound beyond the end of the sequence raises an {@code IndexError} only once the search
+     * actually reaches past the end.
+     */
+    abstract static class InternalBisectNode extends PNodeWithRaise {
+        @Child private BinaryComparisonNode ltNode = BinaryComparisonNode.LtNode.create();
+        @Child private CoerceToBooleanNode castToBooleanNode = CoerceToBooleanNode.createIfTrueNode();
+
+        @CompilationFinal private boolean seenNonBoolean = false;
+
+        abstract int execute(VirtualFrame frame, Object a, Object x, int lo, int hi, boolean right);
+
+        @Specialization(guards = {"isIntStorage(a)", "cannotBeOverridden(a, getClassNode)"}, limit = "1")
+        int doInt(PList a, int x, int lo, int hi, boolean right,
+                        @Shared("getClass") @Cached @SuppressWarnings("unused") GetClassNode getClassNode) {
+            IntSequenceStorage storage = (IntSequenceStorage) a.getSequenceStorage();
+            return checkIndex(bisect(storage.getInternalIntArray(), storage.length(), x, lo, hi, right));
+        }
+
+        @Specialization(guards = {"isLongStorage(a)", "cannotBeOverridden(a, getClassNode)"}, limit = "1")
+        int doLong(PList a, long x, int lo, int hi, boolean right,
+                        @Shared("getClass") @Cached @SuppressWarnings("unused") GetClassNode getClassNode) {
+            LongSequenceStorage storage = (LongSequenceStorage) a.getSequenceStorage();
+            return checkIndex(bisect(storage.getInternalLongArray(), storage.length(), x, lo, hi, right));
+        }
+
+        @Specialization(guards = {"isDoubleStorage(a)", "cannotBeOverridden(a, getClassNode)"}, limit = "1")
+        int doDouble(PList a, double x, int lo, int hi, boolean right,
+                        @Shared("getClass") @Cached @SuppressWarnings("unused") GetClassNode getClassNode) {
+            DoubleSequenceStorage storage = (DoubleSequenceStorage) a.getSequenceStorage();
+            return checkIndex(bisect(storage.getInternalDoubleArray(), storage.length(), x, lo, hi, right));
+        }
+
+        /**
+         * Reads the items from the list's storage, which is re-read in every step because the
+         * comparisons may mutate the list.
+         */
+        @Specialization(guards = "cannotBeOverridden(a, getClassNode)", limit = "1")
+        int doList(VirtualFrame frame, PList a, Object x, int lo, int hi, boolean right,
+                        @Shared("getClass") @Cached @SuppressWarnings("unused") GetClassNode getClassNode,
+                        @Cached SequenceStorageNodes.GetItemScalarNode getItemNode) {
+            int low = lo;
+            int high = hi == -1 ? a.getSequenceStorage().length() : hi;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                SequenceStorage storage = a.getSequenceStorage();
+                if (mid >= storage.length()) {
+                    throw raise(IndexError, ErrorMessages.LIST_INDEX_OUT_OF_RANGE);
+                }
+                Object item = getItemNode.execute(storage, mid);
+                if (right ? lessThan(frame, x, item) : !lessThan(frame, item, x)) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low;
+        }
+
+        @Specialization(replaces = "doList")
+        int doGeneric(VirtualFrame frame, Object a, Object x, int lo, int hi, boolean right,
+                        @CachedLibrary(limit = "3") PythonObjectLibrary lib,
+                        @Cached GetItemNode getItemNode) {
+            int low = lo;
+            int high = hi == -1 ? lib.lengthWithFrame(a, frame) : hi;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                Object item = getItemNode.execute(frame, a, mid);
+                if (right ? lessThan(frame, x, item) : !lessThan(frame, item, x)) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low;
+        }
+
+        private boolean lessThan(VirtualFrame frame, Object a, Object b) {
+            if (!seenNonBoolean) {
+                try {
+                    return ltNode.executeBool(frame, a, b);
+                } catch (UnexpectedResultException e) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    seenNonBoolean = true;
+                    return castToBooleanNode.executeBoolean(frame, e.getResult());
+                }
+            }
+            return castToBooleanNode.executeBoolean(frame, ltNode.executeObject(frame, a, b));
+        }
+
+        private int checkIndex(int index) {
+            if (index < 0) {
+                throw raise(IndexError, ErrorMessages.LIST_INDEX_OUT_OF_RANGE);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Binary search on the first {@code length} elements of a primitive array. Returns {@code -1}
+     * if the search would have to read past {@code length}.
+     */
+    static int bisect(int[] array, int length, int x, int lo, int hi, boolean right) {
+        int low = lo;
+        int high = hi == -1 ? length : hi;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (mid >= length) {
+                return -1;
+            }
+            int item = array[mid];
+            if (right ? x < item : !(item < x)) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    static int bisect(long[] array, int length, long x, int lo, int hi, boolean right) {
+        int low = lo;
+        int high = hi == -1 ? length : hi;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (mid >= length) {
+                return -1;
+            }
+            long item = array[mid];
+            if (right ? x < item : !(item < x)) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    static int bisect(double[] array, int length, double x, int lo, int hi, boolean right) {
+        int low = lo;
+        int high = hi == -1 ? length : hi;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (mid >= length) {
+                return -1;
+            }
+            double item = array[mid];
+            if (right ? x < item : !(item < x)) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules;
+
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.OverflowError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.security.MessageDigest;
+import java.util.List;
+
+import com.oracle.graal.python.annotations.ArgumentClinic;
+import com.oracle.graal.python.annotations.ArgumentClinic.ClinicConversion;
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.bytes.BytesNodes;
+import com.oracle.graal.python.builtins.objects.hashlib.Blake2bDigest;
+import com.oracle.graal.python.builtins.objects.hashlib.Blake2sDigest;
+import com.oracle.graal.python.builtins.objects.hashlib.DigestAlgorithm;
+import com.oracle.graal.python.builtins.objects.hashlib.DigestBuiltins.UpdateNode;
+import com.oracle.graal.python.builtins.objects.hashlib.PDigest;
+import com.oracle.graal.python.builtins.objects.type.PythonBuiltinClass;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonClinicBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.clinic.ArgumentClinicProvider;
+import com.oracle.graal.python.runtime.PythonCore;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+/**
+ * BLAKE2 hash objects backed by {@link Blake2bDigest} and {@link Blake2sDigest}, with the same
+ * parameters and argument checks as CPython's {@code _blake2}.
+ */
+@CoreFunctions(defineModule = "_blake2")
+public class Blake2ModuleBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return Blake2ModuleBuiltinsFactory.getFactories();
+    }
+
+    @Override
+    public void initialize(PythonCore core) {
+        builtinConstants.put("BLAKE2B_SALT_SIZE", Blake2bDigest.SALT_SIZE);
+        builtinConstants.put("BLAKE2B_PERSON_SIZE", Blake2bDigest.PERSON_SIZE);
+        builtinConstants.put("BLAKE2B_MAX_KEY_SIZE", Blake2bDigest.MAX_KEY_SIZE);
+        builtinConstants.put("BLAKE2B_MAX_DIGEST_SIZE", Blake2bDigest.MAX_DIGEST_SIZE);
+        builtinConstants.put("BLAKE2S_SALT_SIZE", Blake2sDigest.SALT_SIZE);
+        builtinConstants.put("BLAKE2S_PERSON_SIZE", Blake2sDigest.PERSON_SIZE);
+        builtinConstants.put("BLAKE2S_MAX_KEY_SIZE", Blake2sDigest.MAX_KEY_SIZE);
+        builtinConstants.put("BLAKE2S_MAX_DIGEST_SIZE", Blake2sDigest.MAX_DIGEST_SIZE);
+        super.initialize(core);
+    }
+
+    @Override
+    public void postInitialize(PythonCore core) {
+        super.postInitialize(core);
+        PythonBuiltinClass blake2b = core.lookupType(PythonBuiltinClassType.PBlake2b);
+        blake2b.setAttribute("SALT_SIZE", Blake2bDigest.SALT_SIZE);
+        blake2b.setAttribute("PERSON_SIZE", Blake2bDigest.PERSON_SIZE);
+        blake2b.setAttribute("MAX_KEY_SIZE", Blake2bDigest.MAX_KEY_SIZE);
+        blake2b.setAttribute("MAX_DIGEST_SIZE", Blake2bDigest.MAX_DIGEST_SIZE);
+        PythonBuiltinClass blake2s = core.lookupType(PythonBuiltinClassType.PBlake2s);
+        blake2s.setAttribute("SALT_SIZE", Blake2sDigest.SALT_SIZE);
+        blake2s.setAttribute("PERSON_SIZE", Blake2sDigest.PERSON_SIZE);
+        blake2s.setAttribute("MAX_KEY_SIZE", Blake2sDigest.MAX_KEY_SIZE);
+        blake2s.setAttribute("MAX_DIGEST_SIZE", Blake2sDigest.MAX_DIGEST_SIZE);
+    }
+
+    abstract static class Blake2ConstructorNode extends PythonClinicBuiltinNode {
+
+        protected abstract DigestAlgorithm getAlgorithm();
+
+        @Specialization
+        PDigest doNew(VirtualFrame frame, Object cls, Object data, int digestSize, Object keyObj, Object saltObj, Object personObj, int fanout, int depth, long leafSize, long nodeOffset,
+                        int nodeDepth, int innerSize, boolean lastNode,
+                        @Cached BytesNodes.GetBuffer getBuffer,
+                        @Cached UpdateNode updateNode) {
+            boolean isBlake2b = getAlgorithm() == DigestAlgorithm.BLAKE2B;
+            int maxDigestSize = isBlake2b ? Blake2bDigest.MAX_DIGEST_SIZE : Blake2sDigest.MAX_DIGEST_SIZE;
+            int saltSize = isBlake2b ? Blake2bDigest.SALT_SIZE : Blake2sDigest.SALT_SIZE;
+            int personSize = isBlake2b ? Blake2bDigest.PERSON_SIZE : Blake2sDigest.PERSON_SIZE;
+            int maxKeySize = isBlake2b ? Blake2bDigest.MAX_KEY_SIZE : Blake2sDigest.MAX_KEY_SIZE;
+            if (digestSize <= 0 || digestSize > maxDigestSize) {
+                throw raise(ValueError, ErrorMessages.DIGEST_SIZE_MUST_BE_BETWEEN_1_AND_D_BYTES, maxDigestSize);
+            }
+            byte[] salt = getBytes(saltObj, getBuffer);
+            if (salt.length > saltSize) {
+                throw raise(ValueError, ErrorMessages.MAXIMUM_SALT_LENGTH_IS_D_BYTES, saltSize);
+            }
+            byte[] person = getBytes(personObj, getBuffer);
+            if (person.length > personSize) {
+                throw raise(ValueError, ErrorMessages.MAXIMUM_PERSON_LENGTH_IS_D_BYTES, personSize);
+            }
+            if (fanout < 0 || fanout > 255) {
+                throw raise(ValueError, ErrorMessages.FANOUT_MUST_BE_BETWEEN_0_AND_255);
+            }
+            if (depth <= 0 || depth > 255) {
+                throw raise(ValueError, ErrorMessages.DEPTH_MUST_BE_BETWEEN_1_AND_255);
+            }
+            if (leafSize < 0 || nodeOffset < 0) {
+                throw raise(ValueError, ErrorMessages.VALUE_MUST_BE_POSITIVE);
+            }
+            if (leafSize > 0xFFFFFFFFL) {
+                throw raise(OverflowError, ErrorMessages.LEAF_SIZE_IS_TOO_LARGE);
+            }
+            if (!isBlake2b && nodeOffset > 0xFFFFFFFFFFFFL) {
+                throw raise(OverflowError, ErrorMessages.NODE_OFFSET_IS_TOO_LARGE);
+            }
+            if (nodeDepth < 0 || nodeDepth > 255) {
+                throw raise(ValueError, ErrorMessages.NODE_DEPTH_MUST_BE_BETWEEN_0_AND_255);
+            }
+            if (innerSize < 0 || innerSize > maxDigestSize) {
+                throw raise(ValueError, ErrorMessages.INNER_SIZE_MUST_BE_BETWEEN_0_AND_D, maxDigestSize);
+            }
+            byte[] key = getBytes(keyObj, getBuffer);
+            if (key.length > maxKeySize) {
+                throw raise(ValueError, ErrorMessages.MAXIMUM_KEY_LENGTH_IS_D_BYTES, maxKeySize);
+            }
+            MessageDigest messageDigest = create(isBlake2b, digestSize, key, salt, person, fanout, depth, leafSize, nodeOffset, nodeDepth, innerSize, lastNode);
+            PDigest digest = factory().createDigest(cls, getAlgorithm(), messageDigest);
+            if (!PGuards.isNoValue(data)) {
+                updateNode.execute(frame, digest, data);
+            }
+            return digest;
+        }
+
+        private static byte[] getBytes(Object obj, BytesNodes.GetBuffer getBuffer) {
+            return PGuards.isNoValue(obj) ? new byte[0] : getBuffer.execute(obj);
+        }
+
+        @TruffleBoundary
+        private static MessageDigest create(boolean isBlake2b, int digestSize, byte[] key, byte[] salt, byte[] person, int fanout, int depth, long leafSize, long nodeOffset, int nodeDepth,
+                        int innerSize, boolean lastNode) {
+            if (isBlake2b) {
+                return new Blake2bDigest(digestSize, key, salt, person, fanout, depth, leafSize, nodeOffset, nodeDepth, innerSize, lastNode);
+            }
+            return new Blake2sDigest(digestSize, key, salt, person, fanout, depth, leafSize, nodeOffset, nodeDepth, innerSize, lastNode);
+        }
+    }
+
+    @Builtin(name = "blake2b", minNumOfPositionalArgs = 1, parameterNames = {"$cls", "data"}, varArgsMarker = true, keywordOnlyNames = {"digest_size", "key", "salt", "person", "fanout",
+                    "depth", "leaf_size", "node_offset", "node_depth", "inner_size", "last_node"}, constructsClass = PythonBuiltinClassType.PBlake2b)
+    @ArgumentClinic(name = "digest_size", conversion = ClinicConversion.Int, defaultValue = "64")
+    @ArgumentClinic(name = "fanout", conversion = ClinicConversion.Int, defaultValue = "1")
+    @ArgumentClinic(name = "depth", conversion = ClinicConversion.Int, defaultValue = "1")
+    @ArgumentClinic(name = "leaf_size", conversion = ClinicConversion.Long, defaultValue = "0")
+    @ArgumentClinic(name = "node_offset", conversion = ClinicConversion.Long, defaultValue = "0")
+    @ArgumentClinic(name = "node_depth", conversion = ClinicConversion.Int, defaultValue = "0")
+    @ArgumentClinic(name = "inner_size", conversion = ClinicConversion.Int, defaultValue = "0")
+    @ArgumentClinic(name = "last_node", conversion = ClinicConversion.Boolean, defaultValue = "false")
+    @GenerateNodeFactory
+    abstract static class Blake2bNode extends Blake2ConstructorNode {
+
+        @Override
+        protected final DigestAlgorithm getAlgorithm() {
+            return DigestAlgorithm.BLAKE2B;
+        }
+
+        @Override
+        protected ArgumentClinicProvider getArgumentClinic() {
+            return Blake2ModuleBuiltinsClinicProviders.Blake2bNodeClinicProviderGen.INSTANCE;
+        }
+    }
+
+    @Builtin(name = "blake2s", minNumOfPositionalArgs = 1, parameterNames = {"$cls", "data"}, varArgsMarker = true, keywordOnlyNames = {"digest_size", "key", "salt", "person", "fanout",
+                    "depth", "leaf_size", "node_offset", "node_depth", "inner_size", "last_node"}, constructsClass = PythonBuiltinClassType.PBlake2s)
+    @ArgumentClinic(name = "digest_size", conversion = ClinicConversion.Int, defaultValue = "32")
+    @ArgumentClinic(name = "fanout", conversion = ClinicConversion.Int, defaultValue = "1")
+    @ArgumentClinic(name = "depth", conversion = ClinicConversion.Int, defaultValue = "1")
+    @ArgumentClinic(name = "leaf_size", conversion = ClinicConversion.Long, defaultValue = "0")
+    @ArgumentClinic(name = "node_offset", conversion = ClinicConversion.Long, defaultValue = "0")
+    @ArgumentClinic(name = "node_depth", conversion = ClinicConversion.Int, defaultValue = "0")
+    @ArgumentClinic(name = "inner_size", conversion = ClinicConversion.Int, defaultValue = "0")
+    @ArgumentClinic(name = "last_node", conversion = ClinicConversion.Boolean, defaultValue = "false")
+    @GenerateNodeFactory
+    abstract static class Blake2sNode extends Blake2ConstructorNode {
+
+        @Override
+        protected final DigestAlgorithm getAlgorithm() {
+            return DigestAlgorithm.BLAKE2S;
+        }
+
+        @Override
+        protected ArgumentClinicProvider getArgumentClinic() {
+            return Blake2ModuleBuiltinsClinicProviders.Blake2sNodeClinicProviderGen.INSTANCE;
+        }
+    }
+}
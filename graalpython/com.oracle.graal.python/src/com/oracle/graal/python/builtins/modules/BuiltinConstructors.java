@@ -160,12 +160,14 @@ import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.map.PMap;
 import com.oracle.graal.python.builtins.objects.memoryview.PBuffer;
 import com.oracle.graal.python.builtins.objects.memoryview.PMemoryView;
+import com.oracle.graal.python.builtins.objects.mmap.PMMap;
 import com.oracle.graal.python.builtins.objects.module.PythonModule;
 import com.oracle.graal.python.builtins.objects.object.ObjectBuiltins;
 import com.oracle.graal.python.builtins.objects.object.ObjectBuiltinsFactory;
 import com.oracle.graal.python.builtins.objects.object.ObjectBuiltinsFactory.DictNodeGen;
 import com.oracle.graal.python.builtins.objects.object.PythonObject;
 import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.builtins.objects.pickle.PPickleBuffer;
 import com.oracle.graal.python.builtins.objects.property.PProperty;
 import com.oracle.graal.python.builtins.objects.range.PBigRange;
 import com.oracle.graal.python.builtins.objects.range.PIntRange;
@@ -3489,6 +3491,18 @@ public final class BuiltinConstructors extends PythonBuiltins {
             return factory().createMemoryViewForManagedObject(object, object.getFormat().bytesize, object.getLength(), false, object.getFormatStr());
         }
 
+        @Specialization
+        PMemoryView fromMMap(@SuppressWarnings("unused") Object cls, PMMap object) {
+            if (object.isClosed()) {
+                throw raise(ValueError, ErrorMessages.MMAP_CLOSED_OR_INVALID);
+            }
+            if (object.getLength() > Integer.MAX_VALUE) {
+                throw raise(OverflowError, ErrorMessages.NUMBER_S_CANNOT_FIT_INTO_INDEXSIZED_INT, object.getLength());
+            }
+            // the view reads and writes the mapping directly, see BufferStorageNodes
+            return factory().createMemoryViewForManagedObject(object, 1, (int) object.getLength(), !object.isWriteable(), "B");
+        }
+
         @Specialization
         PMemoryView fromMemoryView(@SuppressWarnings("unused") Object cls, PMemoryView object,
                         @Shared("c") @CachedContext(PythonLanguage.class) PythonContext context) {
@@ -3499,6 +3513,12 @@ public final class BuiltinConstructors extends PythonBuiltins {
                             object.getBufferSuboffsets(), object.getFlags());
         }
 
+        @Specialization
+        PMemoryView fromPickleBuffer(Object cls, PPickleBuffer object,
+                        @Shared("c") @CachedContext(PythonLanguage.class) PythonContext context) {
+            return fromMemoryView(cls, object.getViewChecked(getRaiseNode()), context);
+        }
+
         @Specialization
         PMemoryView fromNative(VirtualFrame frame, @SuppressWarnings("unused") Object cls, PythonAbstractNativeObject object,
                         @Cached CExtNodes.ToSulongNode toSulongNode,
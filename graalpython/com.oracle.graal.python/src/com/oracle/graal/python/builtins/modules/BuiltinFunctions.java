@@ -813,10 +813,12 @@ public final class BuiltinFunctions extends PythonBuiltins {
                     return PythonUtils.getOrCreateCallTarget((RootNode) getCore().getParser().parse(pm, kwOptimize, getCore(), source, null, null));
                 }
             };
-            if (getCore().isInitialized()) {
-                ct = createCode.get();
-            } else {
+            if (!getCore().isInitialized()) {
                 ct = getCore().getLanguage().cacheCode(filename, createCode);
+            } else if (pm == ParserMode.File && kwOptimize <= 0 && context.isSharedLibraryFile(filename)) {
+                ct = getCore().getLanguage().cacheLibraryCode(filename, finalCode, createCode);
+            } else {
+                ct = createCode.get();
             }
             RootCallTarget rootCallTarget = (RootCallTarget) ct;
             if (rootCallTarget.getRootNode() instanceof PRootNode) {
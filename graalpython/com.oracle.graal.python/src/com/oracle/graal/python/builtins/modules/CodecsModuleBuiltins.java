@@ -59,6 +59,7 @@ import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CharsetEncoder;
 import java.nio.charset.CoderResult;
 import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import com.oracle.graal.python.PythonLanguage;
@@ -76,6 +77,7 @@ import com.oracle.graal.python.builtins.objects.common.HashingStorageLibrary;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.GetInternalByteArrayNode;
 import com.oracle.graal.python.builtins.objects.dict.PDict;
 import com.oracle.graal.python.builtins.objects.exception.PBaseException;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
 import com.oracle.graal.python.nodes.ErrorMessages;
 import com.oracle.graal.python.nodes.PRaiseNode;
 import com.oracle.graal.python.nodes.call.CallNode;
@@ -86,14 +88,17 @@ import com.oracle.graal.python.nodes.function.builtins.PythonQuaternaryClinicBui
 import com.oracle.graal.python.nodes.function.builtins.PythonTernaryClinicBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.clinic.ArgumentClinicProvider;
 import com.oracle.graal.python.nodes.util.CastToJavaStringNode;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
 import com.oracle.graal.python.util.CharsetMapping;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Cached.Shared;
 import com.oracle.truffle.api.dsl.CachedLanguage;
 import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.GenerateUncached;
+import com.oracle.truffle.api.dsl.ImportStatic;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.library.CachedLibrary;
@@ -432,6 +437,409 @@ public class CodecsModuleBuiltins extends PythonBuiltins {
         }
     }
 
+    static final int FAST_CODEC_NONE = 0;
+    static final int FAST_CODEC_UTF_8 = 1;
+    static final int FAST_CODEC_ASCII = 2;
+    static final int FAST_CODEC_LATIN_1 = 3;
+
+    static final int FAST_ERRORS_NONE = 0;
+    static final int FAST_ERRORS_STRICT = 1;
+    static final int FAST_ERRORS_REPLACE = 2;
+    static final int FAST_ERRORS_IGNORE = 3;
+    static final int FAST_ERRORS_SURROGATEESCAPE = 4;
+
+    @TruffleBoundary
+    static int fastCodec(String encoding) {
+        Charset charset = CharsetMapping.getCharset(encoding);
+        if (charset == StandardCharsets.UTF_8) {
+            return FAST_CODEC_UTF_8;
+        } else if (charset == StandardCharsets.US_ASCII) {
+            return FAST_CODEC_ASCII;
+        } else if (charset == StandardCharsets.ISO_8859_1) {
+            return FAST_CODEC_LATIN_1;
+        }
+        return FAST_CODEC_NONE;
+    }
+
+    static int fastErrors(String errors) {
+        switch (errors) {
+            case STRICT:
+                return FAST_ERRORS_STRICT;
+            case REPLACE:
+                return FAST_ERRORS_REPLACE;
+            case IGNORE:
+                return FAST_ERRORS_IGNORE;
+            case SURROGATEESCAPE:
+                return FAST_ERRORS_SURROGATEESCAPE;
+            default:
+                return FAST_ERRORS_NONE;
+        }
+    }
+
+    /**
+     * Encodes to UTF-8, ASCII and Latin-1 with the {@code strict}, {@code replace},
+     * {@code ignore} and {@code surrogateescape} error handlers without a {@link CharsetEncoder}.
+     * The result is written into an exactly sized array. Returns {@code null} if the encoding or
+     * error handler is not covered or if an error has to be raised, the caller then falls back to
+     * {@link TruffleEncoder}.
+     */
+    @ImportStatic(CodecsModuleBuiltins.class)
+    public abstract static class EncodeFastPathNode extends Node {
+        public abstract byte[] execute(String input, String encoding, String errors);
+
+        @Specialization(guards = {"encoding.equals(cachedEncoding)", "errors.equals(cachedErrors)"}, limit = "3")
+        static byte[] doCached(String input, @SuppressWarnings("unused") String encoding, @SuppressWarnings("unused") String errors,
+                        @SuppressWarnings("unused") @Cached("encoding") String cachedEncoding,
+                        @SuppressWarnings("unused") @Cached("errors") String cachedErrors,
+                        @Cached("fastCodec(encoding)") int codec,
+                        @Cached("fastErrors(errors)") int handler) {
+            if (codec == FAST_CODEC_NONE || handler == FAST_ERRORS_NONE) {
+                return null;
+            }
+            return encode(input, codec, handler);
+        }
+
+        @Specialization(replaces = "doCached")
+        static byte[] doGeneric(String input, String encoding, String errors) {
+            int codec = fastCodec(encoding);
+            int handler = fastErrors(errors);
+            if (codec == FAST_CODEC_NONE || handler == FAST_ERRORS_NONE) {
+                return null;
+            }
+            return encode(input, codec, handler);
+        }
+
+        @TruffleBoundary
+        private static byte[] encode(String input, int codec, int handler) {
+            int limit = codec == FAST_CODEC_LATIN_1 ? 0x100 : 0x80;
+            int length = input.length();
+            int start = 0;
+            while (start < length && input.charAt(start) < limit) {
+                start++;
+            }
+            if (start == length) {
+                return input.getBytes(StandardCharsets.ISO_8859_1);
+            }
+            if (handler == FAST_ERRORS_STRICT && codec != FAST_CODEC_UTF_8) {
+                return null;
+            }
+            if (codec == FAST_CODEC_UTF_8) {
+                return encodeUtf8(input, start, handler);
+            }
+            return encodeSingleByte(input, start, limit, handler);
+        }
+
+        private static byte[] encodeSingleByte(String input, int start, int limit, int handler) {
+            int length = input.length();
+            int size = start;
+            for (int i = start; i < length; i++) {
+                char c = input.charAt(i);
+                if (c < limit) {
+                    size++;
+                } else if (handler == FAST_ERRORS_SURROGATEESCAPE) {
+                    if (!isEscapedByte(c)) {
+                        return null;
+                    }
+                    size++;
+                } else {
+                    if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(input.charAt(i + 1))) {
+                        // one code point, replaced or ignored as a whole
+                        i++;
+                    }
+                    if (handler == FAST_ERRORS_REPLACE) {
+                        size++;
+                    }
+                }
+            }
+            byte[] result = new byte[size];
+            int j = 0;
+            for (int i = 0; i < length; i++) {
+                char c = input.charAt(i);
+                if (c < limit) {
+                    result[j++] = (byte) c;
+                } else if (handler == FAST_ERRORS_SURROGATEESCAPE) {
+                    result[j++] = (byte) (c - 0xDC00);
+                } else {
+                    if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(input.charAt(i + 1))) {
+                        i++;
+                    }
+                    if (handler == FAST_ERRORS_REPLACE) {
+                        result[j++] = '?';
+                    }
+                }
+            }
+            assert j == size;
+            return result;
+        }
+
+        private static byte[] encodeUtf8(String input, int start, int handler) {
+            int length = input.length();
+            int size = start;
+            boolean loneSurrogates = false;
+            for (int i = start; i < length; i++) {
+                char c = input.charAt(i);
+                if (c < 0x80) {
+                    size++;
+                } else if (c < 0x800) {
+                    size += 2;
+                } else if (!Character.isSurrogate(c)) {
+                    size += 3;
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(input.charAt(i + 1))) {
+                    size += 4;
+                    i++;
+                } else {
+                    if (handler == FAST_ERRORS_STRICT || (handler == FAST_ERRORS_SURROGATEESCAPE && !isEscapedByte(c))) {
+                        return null;
+                    }
+                    loneSurrogates = true;
+                    if (handler != FAST_ERRORS_IGNORE) {
+                        size++;
+                    }
+                }
+            }
+            if (!loneSurrogates) {
+                return input.getBytes(StandardCharsets.UTF_8);
+            }
+            byte[] result = new byte[size];
+            int j = 0;
+            for (int i = 0; i < length; i++) {
+                char c = input.charAt(i);
+                if (c < 0x80) {
+                    result[j++] = (byte) c;
+                } else if (c < 0x800) {
+                    result[j++] = (byte) (0xC0 | (c >> 6));
+                    result[j++] = (byte) (0x80 | (c & 0x3F));
+                } else if (!Character.isSurrogate(c)) {
+                    result[j++] = (byte) (0xE0 | (c >> 12));
+                    result[j++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    result[j++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(input.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, input.charAt(++i));
+                    result[j++] = (byte) (0xF0 | (codePoint >> 18));
+                    result[j++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    result[j++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    result[j++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else if (handler == FAST_ERRORS_REPLACE) {
+                    result[j++] = '?';
+                } else if (handler == FAST_ERRORS_SURROGATEESCAPE) {
+                    result[j++] = (byte) (c - 0xDC00);
+                }
+            }
+            assert j == size;
+            return result;
+        }
+
+        private static boolean isEscapedByte(char c) {
+            return 0xDC80 <= c && c <= 0xDCFF;
+        }
+
+        public static EncodeFastPathNode create() {
+            return CodecsModuleBuiltinsFactory.EncodeFastPathNodeGen.create();
+        }
+    }
+
+    /**
+     * Decodes UTF-8, ASCII and Latin-1 with the {@code strict}, {@code replace}, {@code ignore}
+     * and {@code surrogateescape} error handlers without a {@link CharsetDecoder}. Returns the
+     * tuple of the decoded string and the number of consumed bytes, or {@code null} if the
+     * encoding or error handler is not covered or if an error has to be raised, the caller then
+     * falls back to {@link TruffleDecoder}.
+     */
+    @ImportStatic(CodecsModuleBuiltins.class)
+    public abstract static class DecodeFastPathNode extends Node {
+        public abstract PTuple execute(byte[] input, String encoding, String errors, boolean finalData);
+
+        @Specialization(guards = {"encoding.equals(cachedEncoding)", "errors.equals(cachedErrors)"}, limit = "3")
+        static PTuple doCached(byte[] input, @SuppressWarnings("unused") String encoding, @SuppressWarnings("unused") String errors, boolean finalData,
+                        @SuppressWarnings("unused") @Cached("encoding") String cachedEncoding,
+                        @SuppressWarnings("unused") @Cached("errors") String cachedErrors,
+                        @Cached("fastCodec(encoding)") int codec,
+                        @Cached("fastErrors(errors)") int handler,
+                        @Shared("factory") @Cached PythonObjectFactory factory) {
+            if (codec == FAST_CODEC_NONE || handler == FAST_ERRORS_NONE) {
+                return null;
+            }
+            return decode(input, codec, handler, finalData, factory);
+        }
+
+        @Specialization(replaces = "doCached")
+        static PTuple doGeneric(byte[] input, String encoding, String errors, boolean finalData,
+                        @Shared("factory") @Cached PythonObjectFactory factory) {
+            int codec = fastCodec(encoding);
+            int handler = fastErrors(errors);
+            if (codec == FAST_CODEC_NONE || handler == FAST_ERRORS_NONE) {
+                return null;
+            }
+            return decode(input, codec, handler, finalData, factory);
+        }
+
+        private static PTuple decode(byte[] input, int codec, int handler, boolean finalData, PythonObjectFactory factory) {
+            int end = input.length;
+            if (codec == FAST_CODEC_UTF_8 && !finalData) {
+                end -= incompleteUtf8Suffix(input);
+            }
+            String result = decode(input, end, codec, handler);
+            if (result == null) {
+                return null;
+            }
+            return factory.createTuple(new Object[]{result, end});
+        }
+
+        @TruffleBoundary
+        private static String decode(byte[] input, int end, int codec, int handler) {
+            int start = 0;
+            while (start < end && input[start] >= 0) {
+                start++;
+            }
+            if (start == end || codec == FAST_CODEC_LATIN_1) {
+                return new String(input, 0, end, StandardCharsets.ISO_8859_1);
+            }
+            if (handler == FAST_ERRORS_STRICT && codec == FAST_CODEC_ASCII) {
+                return null;
+            }
+            if (codec == FAST_CODEC_ASCII) {
+                char[] result = new char[end];
+                int j = 0;
+                for (int i = 0; i < end; i++) {
+                    byte b = input[i];
+                    if (b >= 0) {
+                        result[j++] = (char) b;
+                    } else if (handler == FAST_ERRORS_REPLACE) {
+                        result[j++] = '\uFFFD';
+                    } else if (handler == FAST_ERRORS_SURROGATEESCAPE) {
+                        result[j++] = (char) (0xDC00 + (b & 0xFF));
+                    }
+                }
+                return new String(result, 0, j);
+            }
+            int i = start;
+            while (i < end) {
+                int n = utf8SequenceLength(input, i, end);
+                if (n <= 0) {
+                    break;
+                }
+                i += n;
+            }
+            if (i == end) {
+                return new String(input, 0, end, StandardCharsets.UTF_8);
+            }
+            if (handler == FAST_ERRORS_STRICT) {
+                return null;
+            }
+            // a UTF-8 sequence never decodes to more chars than it has bytes
+            char[] result = new char[end];
+            int j = 0;
+            i = 0;
+            while (i < end) {
+                int n = utf8SequenceLength(input, i, end);
+                if (n > 0) {
+                    j = decodeUtf8Sequence(input, i, n, result, j);
+                    i += n;
+                } else {
+                    // the maximal invalid subpart, or the truncated sequence at the end
+                    int errorLength = n == 0 ? end - i : -n;
+                    if (handler == FAST_ERRORS_REPLACE) {
+                        result[j++] = '\uFFFD';
+                    } else if (handler == FAST_ERRORS_SURROGATEESCAPE) {
+                        for (int k = 0; k < errorLength; k++) {
+                            result[j++] = (char) (0xDC00 + (input[i + k] & 0xFF));
+                        }
+                    }
+                    i += errorLength;
+                }
+            }
+            return new String(result, 0, j);
+        }
+
+        private static int decodeUtf8Sequence(byte[] input, int i, int n, char[] result, int j) {
+            int b0 = input[i] & 0xFF;
+            switch (n) {
+                case 1:
+                    result[j] = (char) b0;
+                    return j + 1;
+                case 2:
+                    result[j] = (char) (((b0 & 0x1F) << 6) | (input[i + 1] & 0x3F));
+                    return j + 1;
+                case 3:
+                    result[j] = (char) (((b0 & 0x0F) << 12) | ((input[i + 1] & 0x3F) << 6) | (input[i + 2] & 0x3F));
+                    return j + 1;
+                default:
+                    int codePoint = ((b0 & 0x07) << 18) | ((input[i + 1] & 0x3F) << 12) | ((input[i + 2] & 0x3F) << 6) | (input[i + 3] & 0x3F);
+                    result[j] = Character.highSurrogate(codePoint);
+                    result[j + 1] = Character.lowSurrogate(codePoint);
+                    return j + 2;
+            }
+        }
+
+        /**
+         * Returns the length of the valid UTF-8 sequence at {@code i}, {@code 0} if it is a valid
+         * but truncated prefix of a sequence, or the negated length of the maximal invalid subpart.
+         */
+        static int utf8SequenceLength(byte[] input, int i, int end) {
+            int b0 = input[i] & 0xFF;
+            if (b0 < 0x80) {
+                return 1;
+            }
+            int n;
+            int lower = 0x80;
+            int upper = 0xBF;
+            if (b0 >= 0xC2 && b0 <= 0xDF) {
+                n = 2;
+            } else if (b0 >= 0xE0 && b0 <= 0xEF) {
+                n = 3;
+                if (b0 == 0xE0) {
+                    lower = 0xA0;
+                } else if (b0 == 0xED) {
+                    // no surrogates
+                    upper = 0x9F;
+                }
+            } else if (b0 >= 0xF0 && b0 <= 0xF4) {
+                n = 4;
+                if (b0 == 0xF0) {
+                    lower = 0x90;
+                } else if (b0 == 0xF4) {
+                    upper = 0x8F;
+                }
+            } else {
+                return -1;
+            }
+            for (int k = 1; k < n; k++) {
+                if (i + k >= end) {
+                    return 0;
+                }
+                int b = input[i + k] & 0xFF;
+                if (b < lower || b > upper) {
+                    return -k;
+                }
+                lower = 0x80;
+                upper = 0xBF;
+            }
+            return n;
+        }
+
+        /**
+         * Returns the length of a truncated but so far valid UTF-8 sequence at the end of the
+         * input, which an incremental decoder has to keep for the next call.
+         */
+        static int incompleteUtf8Suffix(byte[] input) {
+            int end = input.length;
+            for (int i = end - 1; i >= 0 && i >= end - 3; i--) {
+                if ((input[i] & 0xC0) != 0x80) {
+                    if ((input[i] & 0xFF) == 0xED && (end - i == 1 || (end - i == 2 && (input[i + 1] & 0xC0) == 0x80))) {
+                        // like CPython, also keep what could be a truncated encoded surrogate
+                        return end - i;
+                    }
+                    return utf8SequenceLength(input, i, end) == 0 ? end - i : 0;
+                }
+            }
+            return 0;
+        }
+
+        public static DecodeFastPathNode create() {
+            return CodecsModuleBuiltinsFactory.DecodeFastPathNodeGen.create();
+        }
+    }
+
     protected static CodingErrorAction convertCodingErrorAction(String errors) {
         CodingErrorAction errorAction;
         switch (errors) {
@@ -471,8 +879,13 @@ public class CodecsModuleBuiltins extends PythonBuiltins {
         @Specialization(guards = {"isString(self)"})
         Object encode(Object self, String encoding, String errors,
                         @Cached CastToJavaStringNode castStr,
+                        @Cached EncodeFastPathNode fastPath,
                         @Cached HandleEncodingErrorNode errorHandler) {
             String input = castStr.execute(self);
+            byte[] fastResult = fastPath.execute(input, encoding, errors);
+            if (fastResult != null) {
+                return factory().createTuple(new Object[]{factory().createBytes(fastResult), input.length()});
+            }
             CodingErrorAction errorAction = convertCodingErrorAction(errors);
             Charset charset = CharsetMapping.getCharset(encoding);
             if (charset == null) {
@@ -514,8 +927,13 @@ public class CodecsModuleBuiltins extends PythonBuiltins {
         @Specialization
         Object decode(PBytesLike input, String encoding, String errors, boolean finalData,
                         @Cached GetInternalByteArrayNode getBytes,
+                        @Cached DecodeFastPathNode fastPath,
                         @Cached HandleDecodingErrorNode errorHandler) {
             byte[] bytes = getBytes.execute(input.getSequenceStorage());
+            PTuple fastResult = fastPath.execute(bytes, encoding, errors, finalData);
+            if (fastResult != null) {
+                return fastResult;
+            }
             CodingErrorAction errorAction = convertCodingErrorAction(errors);
             Charset charset = CharsetMapping.getCharset(encoding);
             if (charset == null) {
@@ -40,18 +40,225 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
-import java.util.ArrayList;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.TypeError;
+
 import java.util.List;
 
+import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageLibrary;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.GetItemScalarNode;
+import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.functools.PLruCacheWrapper;
+import com.oracle.graal.python.builtins.objects.functools.PPartial;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.lib.PyNumberIndexNode;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.control.GetNextNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.object.GetClassNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.nodes.util.CastToJavaLongExactNode;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.sequence.PSequence;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.graal.python.util.PythonUtils;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Cached.Shared;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.library.CachedLibrary;
+import com.oracle.truffle.api.profiles.ConditionProfile;
 
 @CoreFunctions(defineModule = "_functools")
 public class FunctoolsModuleBuiltins extends PythonBuiltins {
     @Override
     protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
-        return new ArrayList<>();
+        return FunctoolsModuleBuiltinsFactory.getFactories();
+    }
+
+    @Builtin(name = "partial", constructsClass = PythonBuiltinClassType.PPartial, minNumOfPositionalArgs = 1, takesVarArgs = true, takesVarKeywordArgs = true, //
+                    doc = "partial(func, *args, **keywords) - new function with partial application\n" +
+                                    "of the given arguments and keywords.\n")
+    @GenerateNodeFactory
+    public abstract static class PartialNode extends PythonBuiltinNode {
+
+        @Specialization
+        PPartial construct(VirtualFrame frame, Object cls, Object[] args, PKeyword[] keywords,
+                        @CachedLibrary(limit = "3") PythonObjectLibrary lib,
+                        @CachedLibrary(limit = "1") HashingStorageLibrary hlib,
+                        @Cached IsBuiltinClassProfile isPartialTypeProfile,
+                        @Cached IsBuiltinClassProfile isPartialFuncProfile,
+                        @Cached ConditionProfile hasFrameProfile) {
+            if (args.length == 0) {
+                throw raise(TypeError, ErrorMessages.FUNCTOOLS_TYPE_PARTIAL_TAKES_AT_LEAST_ONE_ARGUMENT);
+            }
+            Object func = args[0];
+            if (!lib.isCallable(func)) {
+                throw raise(TypeError, ErrorMessages.FUNCTOOLS_THE_FIRST_ARGUMENT_MUST_BE_CALLABLE);
+            }
+            Object[] boundArgs;
+            PDict boundKw = null;
+            // flatten nested partials unless either one is a subclass or the inner one has a dict
+            if (func instanceof PPartial && isPartialTypeProfile.profileClass(cls, PythonBuiltinClassType.PPartial) &&
+                            isPartialFuncProfile.profileObject(func, PythonBuiltinClassType.PPartial) && lib.getDict(func) == null) {
+                PPartial inner = (PPartial) func;
+                Object[] innerArgs = inner.getArgs();
+                boundArgs = new Object[innerArgs.length + args.length - 1];
+                PythonUtils.arraycopy(innerArgs, 0, boundArgs, 0, innerArgs.length);
+                PythonUtils.arraycopy(args, 1, boundArgs, innerArgs.length, args.length - 1);
+                boundKw = inner.getKw();
+                func = inner.getFn();
+            } else {
+                boundArgs = new Object[args.length - 1];
+                PythonUtils.arraycopy(args, 1, boundArgs, 0, boundArgs.length);
+            }
+            PDict kw;
+            if (boundKw == null) {
+                kw = keywords.length == 0 ? factory().createDict() : factory().createDict(PythonUtils.arrayCopyOf(keywords, keywords.length));
+            } else {
+                HashingStorage storage = hlib.copy(boundKw.getDictStorage());
+                for (PKeyword keyword : keywords) {
+                    storage = hlib.setItemWithFrame(storage, keyword.getName(), keyword.getValue(), hasFrameProfile, frame);
+                }
+                kw = factory().createDict(storage);
+            }
+            PPartial self = factory().createPartial(cls);
+            self.setFn(func);
+            self.setArgs(boundArgs);
+            self.setKw(kw);
+            return self;
+        }
+    }
+
+    @Builtin(name = "reduce", minNumOfPositionalArgs = 2, parameterNames = {"function", "sequence", "initial"}, //
+                    doc = "reduce(function, sequence[, initial]) -> value\n\n" +
+                                    "Apply a function of two arguments cumulatively to the items of a sequence,\n" +
+                                    "from left to right, so as to reduce the sequence to a single value.\n" +
+                                    "For example, reduce(lambda x, y: x+y, [1, 2, 3, 4, 5]) calculates\n" +
+                                    "((((1+2)+3)+4)+5).  If initial is present, it is placed before the items\n" +
+                                    "of the sequence in the calculation, and serves as a default when the\n" +
+                                    "sequence is empty.")
+    @GenerateNodeFactory
+    public abstract static class ReduceNode extends PythonTernaryBuiltinNode {
+
+        @Specialization(guards = "cannotBeOverridden(sequence, getClassNode)", limit = "1")
+        Object doList(VirtualFrame frame, Object function, PList sequence, Object initial,
+                        @SuppressWarnings("unused") @Cached GetClassNode getClassNode,
+                        @Shared("getItem") @Cached GetItemScalarNode getItemNode,
+                        @Shared("call") @Cached CallNode callNode) {
+            return reduceSequence(frame, function, sequence, initial, getItemNode, callNode);
+        }
+
+        @Specialization(guards = "cannotBeOverridden(sequence, getClassNode)", limit = "1")
+        Object doTuple(VirtualFrame frame, Object function, PTuple sequence, Object initial,
+                        @SuppressWarnings("unused") @Cached GetClassNode getClassNode,
+                        @Shared("getItem") @Cached GetItemScalarNode getItemNode,
+                        @Shared("call") @Cached CallNode callNode) {
+            return reduceSequence(frame, function, sequence, initial, getItemNode, callNode);
+        }
+
+        /**
+         * Walks the storage directly instead of creating an iterator. The storage and its length
+         * are re-read in every step, which gives the same behavior as the list iterator if the
+         * function mutates the list.
+         */
+        private Object reduceSequence(VirtualFrame frame, Object function, PSequence sequence, Object initial, GetItemScalarNode getItemNode, CallNode callNode) {
+            int i = 0;
+            Object value = initial;
+            if (initial == PNone.NO_VALUE) {
+                SequenceStorage storage = sequence.getSequenceStorage();
+                if (storage.length() == 0) {
+                    throw raise(TypeError, ErrorMessages.FUNCTOOLS_REDUCE_OF_EMPTY_SEQUENCE);
+                }
+                value = getItemNode.execute(storage, 0);
+                i = 1;
+            }
+            for (; i < sequence.getSequenceStorage().length(); i++) {
+                value = callNode.execute(frame, function, value, getItemNode.execute(sequence.getSequenceStorage(), i));
+            }
+            return value;
+        }
+
+        @Specialization(replaces = {"doList", "doTuple"})
+        Object doGeneric(VirtualFrame frame, Object function, Object sequence, Object initial,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib,
+                        @Cached GetNextNode nextNode,
+                        @Cached IsBuiltinClassProfile isStopIterationProfile,
+                        @Shared("call") @Cached CallNode callNode) {
+            Object iterator = lib.getIteratorWithFrame(sequence, frame);
+            Object value = initial;
+            if (initial == PNone.NO_VALUE) {
+                try {
+                    value = nextNode.execute(frame, iterator);
+                } catch (PException e) {
+                    e.expectStopIteration(isStopIterationProfile);
+                    throw raise(TypeError, ErrorMessages.FUNCTOOLS_REDUCE_OF_EMPTY_SEQUENCE);
+                }
+            }
+            while (true) {
+                Object element;
+                try {
+                    element = nextNode.execute(frame, iterator);
+                } catch (PException e) {
+                    e.expectStopIteration(isStopIterationProfile);
+                    return value;
+                }
+                value = callNode.execute(frame, function, value, element);
+            }
+        }
+    }
+
+    @Builtin(name = "_lru_cache_wrapper", constructsClass = PythonBuiltinClassType.PLruCacheWrapper, minNumOfPositionalArgs = 5, //
+                    parameterNames = {"$cls", "user_function", "maxsize", "typed", "cache_info_type"}, //
+                    doc = "Create a cached callable that wraps another function.\n\n" +
+                                    "user_function:      the function being cached\n\n" +
+                                    "maxsize:  0         for no caching\n" +
+                                    "          None      for unlimited cache size\n" +
+                                    "          n         for a bounded cache\n\n" +
+                                    "typed:    False     cache f(3) and f(3.0) as identical calls\n" +
+                                    "          True      cache f(3) and f(3.0) as distinct calls\n\n" +
+                                    "cache_info_type:    namedtuple class with the fields:\n" +
+                                    "                        hits misses currsize maxsize\n")
+    @GenerateNodeFactory
+    public abstract static class LruCacheWrapperNode extends PythonBuiltinNode {
+
+        @Specialization
+        PLruCacheWrapper construct(VirtualFrame frame, Object cls, Object userFunction, Object maxsizeObj, Object typed, Object cacheInfoType,
+                        @CachedLibrary(limit = "3") PythonObjectLibrary lib,
+                        @Cached PyNumberIndexNode indexNode,
+                        @Cached CastToJavaLongExactNode castToLongNode) {
+            if (!lib.isCallable(userFunction)) {
+                throw raise(TypeError, ErrorMessages.FUNCTOOLS_THE_FIRST_ARGUMENT_MUST_BE_CALLABLE);
+            }
+            long maxsize;
+            if (maxsizeObj == PNone.NONE) {
+                maxsize = PLruCacheWrapper.UNBOUNDED;
+            } else if (lib.canBeIndex(maxsizeObj)) {
+                // like Py_ssize_t in CPython, raises OverflowError beyond sys.maxsize
+                maxsize = Math.max(castToLongNode.execute(indexNode.execute(frame, maxsizeObj)), 0);
+            } else {
+                throw raise(TypeError, ErrorMessages.FUNCTOOLS_MAXSIZE_SHOULD_BE_INTEGER_OR_NONE);
+            }
+            PLruCacheWrapper self = factory().createLruCacheWrapper(cls);
+            self.setFunc(userFunction);
+            self.setMaxsize(maxsize);
+            self.setTyped(lib.isTrue(typed, frame));
+            self.setCacheInfoType(cacheInfoType);
+            self.setKwdMark(factory().createPythonObject(PythonBuiltinClassType.PythonObject));
+            return self;
+        }
     }
 }
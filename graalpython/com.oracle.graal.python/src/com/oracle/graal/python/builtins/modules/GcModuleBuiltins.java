@@ -27,7 +27,20 @@ package com.oracle.graal.python.builtins.modules;
 
 import java.lang.management.GarbageCollectorMXBean;
 import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+
+import org.graalvm.nativeimage.ImageInfo;
 
 import com.oracle.graal.python.PythonLanguage;
 import com.oracle.graal.python.builtins.Builtin;
@@ -36,12 +49,17 @@ import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.cext.PythonNativeClass;
 import com.oracle.graal.python.builtins.objects.cext.PythonNativeObject;
+import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.module.PythonModule;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.runtime.AsyncHandler;
 import com.oracle.graal.python.runtime.GilNode;
 import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.PythonCore;
+import com.oracle.graal.python.runtime.PythonOptions;
 import com.oracle.graal.python.util.PythonUtils;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
@@ -49,6 +67,8 @@ import com.oracle.truffle.api.dsl.CachedContext;
 import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.GcInfo;
 
 @CoreFunctions(defineModule = "gc")
 public final class GcModuleBuiltins extends PythonBuiltins {
@@ -58,12 +78,177 @@ public final class GcModuleBuiltins extends PythonBuiltins {
         return GcModuleBuiltinsFactory.getFactories();
     }
 
+    private static final int NUM_GENERATIONS = 3;
+
+    /**
+     * Bytes reclaimed by the JVM collectors since the notification listener was installed, indexed
+     * by the generation we attribute the collection to.
+     */
+    private static final AtomicLong[] COLLECTED_BYTES = {new AtomicLong(), new AtomicLong(), new AtomicLong()};
+    private static final Set<GcModuleBuiltins> LISTENING_MODULES = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+    private static boolean listenerInstalled;
+
+    /**
+     * Collections reported by the JVM that still need to be passed to {@code gc.callbacks}. Events
+     * are only queued once the async action that delivers them is registered.
+     */
+    private final ConcurrentLinkedQueue<GcEvent> pendingEvents = new ConcurrentLinkedQueue<>();
+    private volatile boolean deliverEvents;
+    private PList callbacks;
+
     @Override
     public void initialize(PythonCore core) {
         builtinConstants.put("DEBUG_LEAK", 0);
         super.initialize(core);
     }
 
+    @Override
+    public void postInitialize(PythonCore core) {
+        super.postInitialize(core);
+        PythonModule gcModule = core.lookupBuiltinModule("gc");
+        callbacks = core.factory().createList();
+        gcModule.setAttribute("callbacks", callbacks);
+
+        PythonContext ctx = core.getContext();
+        if (!ImageInfo.inImageCode() && !ctx.getOption(PythonOptions.NoAsyncActions)) {
+            GcCallbacksAction action = new GcCallbacksAction();
+            ctx.registerAsyncAction(() -> pendingEvents.isEmpty() ? null : action);
+            deliverEvents = true;
+        }
+        if (!ImageInfo.inImageCode()) {
+            // GC notifications are not supported on SVM
+            LISTENING_MODULES.add(this);
+            installListener();
+        }
+    }
+
+    @TruffleBoundary
+    private static synchronized void installListener() {
+        if (listenerInstalled) {
+            return;
+        }
+        listenerInstalled = true;
+        for (GarbageCollectorMXBean gcbean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gcbean instanceof NotificationEmitter) {
+                ((NotificationEmitter) gcbean).addNotificationListener(GcModuleBuiltins::handleNotification, null, null);
+            }
+        }
+    }
+
+    /**
+     * Runs on a JVM internal thread for every collection, so it only records the collection and
+     * leaves calling the Python callbacks to the async handler.
+     */
+    private static void handleNotification(Notification notification, @SuppressWarnings("unused") Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return;
+        }
+        GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        GcInfo gcInfo = info.getGcInfo();
+        long reclaimed = Math.max(0, totalUsed(gcInfo.getMemoryUsageBeforeGc()) - totalUsed(gcInfo.getMemoryUsageAfterGc()));
+        int generation = generation(info.getGcName(), info.getGcAction());
+        COLLECTED_BYTES[generation].addAndGet(reclaimed);
+        GcEvent event = new GcEvent(generation, info.getGcCause(), gcInfo.getDuration(), reclaimed);
+        synchronized (LISTENING_MODULES) {
+            for (GcModuleBuiltins module : LISTENING_MODULES) {
+                if (module.deliverEvents && module.callbacks.getSequenceStorage().length() > 0) {
+                    module.pendingEvents.add(event);
+                }
+            }
+        }
+    }
+
+    private static long totalUsed(Map<String, MemoryUsage> usages) {
+        long used = 0;
+        for (MemoryUsage usage : usages.values()) {
+            used += usage.getUsed();
+        }
+        return used;
+    }
+
+    /**
+     * Maps a JVM collection onto the CPython generations: young generation collections count as
+     * generation 0, everything else as generation 2.
+     */
+    private static int generation(String gcName, String gcAction) {
+        if (gcAction != null) {
+            if (gcAction.contains("minor")) {
+                return 0;
+            } else if (gcAction.contains("major")) {
+                return 2;
+            }
+        }
+        String name = gcName.toLowerCase();
+        if (name.contains("young") || name.contains("copy") || name.contains("parnew") || (name.contains("scavenge") && !name.contains("complete"))) {
+            return 0;
+        }
+        return 2;
+    }
+
+    private static final class GcEvent {
+        private final int generation;
+        private final String cause;
+        private final long durationMs;
+        private final long collectedBytes;
+
+        GcEvent(int generation, String cause, long durationMs, long collectedBytes) {
+            this.generation = generation;
+            this.cause = cause;
+            this.durationMs = durationMs;
+            this.collectedBytes = collectedBytes;
+        }
+    }
+
+    /**
+     * Calls everything in {@code gc.callbacks} with the {@code "start"} and {@code "stop"} phases
+     * for each pending collection. The callbacks only run after the collection has finished, so
+     * the info dictionary also carries the duration of the collection.
+     */
+    private final class GcCallbacksAction implements AsyncHandler.AsyncAction {
+        @Override
+        public void execute(PythonContext context) {
+            GcEvent event;
+            while ((event = pendingEvents.poll()) != null) {
+                Object[] callables = callbacks.getSequenceStorage().getCopyOfInternalArray();
+                PDict info = context.getCore().factory().createDict(new PKeyword[]{
+                                new PKeyword("generation", event.generation),
+                                new PKeyword("collected", 0),
+                                new PKeyword("uncollectable", 0),
+                                new PKeyword("collected_bytes", event.collectedBytes),
+                                new PKeyword("duration", event.durationMs / 1000.0),
+                                new PKeyword("cause", event.cause)});
+                for (Object callable : callables) {
+                    new GcCallbackAction(callable, "start", info).execute(context);
+                }
+                for (Object callable : callables) {
+                    new GcCallbackAction(callable, "stop", info).execute(context);
+                }
+            }
+        }
+    }
+
+    private static final class GcCallbackAction extends AsyncHandler.AsyncPythonAction {
+        private final Object callable;
+        private final String phase;
+        private final PDict info;
+
+        GcCallbackAction(Object callable, String phase, PDict info) {
+            this.callable = callable;
+            this.phase = phase;
+            this.info = info;
+        }
+
+        @Override
+        protected Object callable() {
+            return callable;
+        }
+
+        @Override
+        protected Object[] arguments() {
+            return new Object[]{phase, info};
+        }
+    }
+
     @Builtin(name = "collect", minNumOfPositionalArgs = 0, maxNumOfPositionalArgs = 1)
     @GenerateNodeFactory
     abstract static class GcCollectNode extends PythonBuiltinNode {
@@ -147,6 +332,66 @@ public final class GcModuleBuiltins extends PythonBuiltins {
         }
     }
 
+    @Builtin(name = "get_stats", minNumOfPositionalArgs = 0)
+    @GenerateNodeFactory
+    abstract static class GcGetStatsNode extends PythonBuiltinNode {
+        @Specialization
+        @TruffleBoundary
+        public PList getStats() {
+            long[] collections = new long[NUM_GENERATIONS];
+            long[] pauseTimeMs = new long[NUM_GENERATIONS];
+            for (GarbageCollectorMXBean gcbean : ManagementFactory.getGarbageCollectorMXBeans()) {
+                int generation = generation(gcbean.getName(), null);
+                long cc = gcbean.getCollectionCount();
+                if (cc > 0) {
+                    collections[generation] += cc;
+                }
+                long time = gcbean.getCollectionTime();
+                if (time > 0) {
+                    pauseTimeMs[generation] += time;
+                }
+            }
+            Object[] stats = new Object[NUM_GENERATIONS];
+            for (int i = 0; i < NUM_GENERATIONS; i++) {
+                stats[i] = factory().createDict(new PKeyword[]{
+                                new PKeyword("collections", collections[i]),
+                                new PKeyword("collected", 0),
+                                new PKeyword("uncollectable", 0),
+                                new PKeyword("collected_bytes", COLLECTED_BYTES[i].get()),
+                                new PKeyword("pause_time", pauseTimeMs[i] / 1000.0)});
+            }
+            return factory().createList(stats);
+        }
+    }
+
+    @Builtin(name = "freeze", minNumOfPositionalArgs = 0)
+    @GenerateNodeFactory
+    abstract static class GcFreezeNode extends PythonBuiltinNode {
+        @Specialization
+        PNone freeze() {
+            // the JVM collectors have no permanent generation to move objects into
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "unfreeze", minNumOfPositionalArgs = 0)
+    @GenerateNodeFactory
+    abstract static class GcUnfreezeNode extends PythonBuiltinNode {
+        @Specialization
+        PNone unfreeze() {
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "get_freeze_count", minNumOfPositionalArgs = 0)
+    @GenerateNodeFactory
+    abstract static class GcGetFreezeCountNode extends PythonBuiltinNode {
+        @Specialization
+        int getFreezeCount() {
+            return 0;
+        }
+    }
+
     @Builtin(name = "is_tracked", minNumOfPositionalArgs = 1)
     @GenerateNodeFactory
     abstract static class GcIsTrackedNode extends PythonBuiltinNode {
@@ -47,6 +47,7 @@ import static com.oracle.graal.python.runtime.exception.PythonErrorType.NotImple
 
 import java.io.PrintWriter;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 
 import org.graalvm.nativeimage.ImageInfo;
@@ -58,6 +59,7 @@ import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.bytes.PBytes;
+import com.oracle.graal.python.builtins.objects.cext.capi.HandleCache;
 import com.oracle.graal.python.builtins.objects.code.PCode;
 import com.oracle.graal.python.builtins.objects.common.DynamicObjectStorage;
 import com.oracle.graal.python.builtins.objects.common.EconomicMapStorage;
@@ -65,11 +67,14 @@ import com.oracle.graal.python.builtins.objects.common.EmptyStorage;
 import com.oracle.graal.python.builtins.objects.common.HashMapStorage;
 import com.oracle.graal.python.builtins.objects.common.HashingStorage;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageLibrary;
+import com.oracle.graal.python.builtins.objects.common.LongMapStorage;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
+import com.oracle.graal.python.builtins.objects.common.StringMapStorage;
 import com.oracle.graal.python.builtins.objects.dict.PDict;
 import com.oracle.graal.python.builtins.objects.exception.OSErrorEnum;
 import com.oracle.graal.python.builtins.objects.exception.OSErrorEnum.ErrorAndMessagePair;
 import com.oracle.graal.python.builtins.objects.function.PFunction;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.builtins.objects.function.Signature;
 import com.oracle.graal.python.builtins.objects.generator.PGenerator;
 import com.oracle.graal.python.builtins.objects.list.PList;
@@ -97,6 +102,7 @@ import com.oracle.graal.python.runtime.PythonCore;
 import com.oracle.graal.python.runtime.PythonOptions;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.SystemError;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import com.oracle.graal.python.runtime.object.AllocationProfiler;
 import com.oracle.graal.python.runtime.object.PythonObjectFactory;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
 import com.oracle.graal.python.util.PythonUtils;
@@ -584,6 +590,58 @@ public class GraalPythonModuleBuiltins extends PythonBuiltins {
         }
     }
 
+    @Builtin(name = "handle_cache_stats", minNumOfPositionalArgs = 0, doc = "Returns statistics of the C API handle cache or None if the C API was not loaded.")
+    @GenerateNodeFactory
+    public abstract static class HandleCacheStatsNode extends PythonBuiltinNode {
+        @Specialization
+        Object stats() {
+            HandleCache cache = getContext().getCApiHandleCache();
+            if (cache == null) {
+                return PNone.NONE;
+            }
+            return factory().createDict(new PKeyword[]{
+                            new PKeyword("capacity", cache.getCapacity()),
+                            new PKeyword("max_capacity", cache.getMaxCapacity()),
+                            new PKeyword("size", cache.getSize()),
+                            new PKeyword("hits", cache.getHits()),
+                            new PKeyword("misses", cache.getMisses())});
+        }
+    }
+
+    @Builtin(name = "alloc_stats", minNumOfPositionalArgs = 0, parameterNames = {"clear"}, doc = "alloc_stats(clear=False)\n\n" +
+                    "Returns a dict with the allocation counts per 'types', 'locations' and 'threads'. Each count is a\n" +
+                    "tuple (objects, approximate bytes). Returns None if allocation profiling is not enabled. If\n" +
+                    "clear is true, the counters are reset after reading them.")
+    @GenerateNodeFactory
+    public abstract static class AllocStatsNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object stats(Object clear,
+                        @CachedLanguage PythonLanguage lang,
+                        @CachedLibrary(limit = "1") PythonObjectLibrary lib) {
+            if (!lang.getEngineOption(PythonOptions.AllocationProfile)) {
+                return PNone.NONE;
+            }
+            AllocationProfiler profiler = getContext().getAllocationProfiler();
+            PDict result = factory().createDict();
+            result.setItem("types", toDict(profiler.getCountsByType()));
+            result.setItem("locations", toDict(profiler.getCountsByLocation()));
+            result.setItem("threads", toDict(profiler.getCountsByThread()));
+            if (clear != PNone.NO_VALUE && lib.isTrue(clear)) {
+                profiler.clear();
+            }
+            return result;
+        }
+
+        @TruffleBoundary
+        private PDict toDict(Map<?, AllocationProfiler.Counts> counts) {
+            PDict dict = factory().createDict();
+            for (Map.Entry<?, AllocationProfiler.Counts> e : counts.entrySet()) {
+                dict.setItem(e.getKey(), factory().createTuple(new Object[]{e.getValue().getCount(), e.getValue().getBytes()}));
+            }
+            return dict;
+        }
+    }
+
     @Builtin(name = "time_millis", minNumOfPositionalArgs = 0, maxNumOfPositionalArgs = 1, doc = "Like time.time() but in milliseconds resolution.")
     @GenerateNodeFactory
     public abstract static class TimeMillis extends PythonUnaryBuiltinNode {
@@ -620,6 +678,10 @@ public class GraalPythonModuleBuiltins extends PythonBuiltins {
                     return EmptyStorage.INSTANCE;
                 case "hashmap":
                     return new HashMapStorage();
+                case "longmap":
+                    return new LongMapStorage();
+                case "stringmap":
+                    return new StringMapStorage();
                 case "dynamicobject":
                     return new DynamicObjectStorage(lang);
                 case "economicmap":
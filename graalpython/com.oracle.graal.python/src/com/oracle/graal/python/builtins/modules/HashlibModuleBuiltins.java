@@ -0,0 +1,291 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules;
+
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.OverflowError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.security.MessageDigest;
+import java.util.List;
+
+import com.oracle.graal.python.annotations.ArgumentClinic;
+import com.oracle.graal.python.annotations.ArgumentClinic.ClinicConversion;
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.PBytes;
+import com.oracle.graal.python.builtins.objects.common.EconomicMapStorage;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageLibrary;
+import com.oracle.graal.python.builtins.objects.hashlib.DigestAlgorithm;
+import com.oracle.graal.python.builtins.objects.hashlib.DigestBuiltins;
+import com.oracle.graal.python.builtins.objects.hashlib.DigestBuiltins.UpdateNode;
+import com.oracle.graal.python.builtins.objects.hashlib.Hmac;
+import com.oracle.graal.python.builtins.objects.hashlib.PDigest;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryClinicBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonClinicBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryClinicBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.clinic.ArgumentClinicProvider;
+import com.oracle.graal.python.runtime.GilNode;
+import com.oracle.graal.python.runtime.PythonCore;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+/**
+ * The accelerator module of {@code hashlib}. CPython implements it on top of OpenSSL, we use the
+ * digests of the JDK and the SHA-3 and BLAKE2 implementations of {@link DigestAlgorithm}. HMAC and
+ * PBKDF2 are computed in Java without the GIL.
+ */
+@CoreFunctions(defineModule = "_hashlib")
+public class HashlibModuleBuiltins extends PythonBuiltins {
+    static final long NO_KEY_LENGTH = Long.MIN_VALUE;
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return HashlibModuleBuiltinsFactory.getFactories();
+    }
+
+    @Override
+    public void initialize(PythonCore core) {
+        HashingStorageLibrary lib = HashingStorageLibrary.getUncached();
+        HashingStorage names = EconomicMapStorage.create();
+        for (DigestAlgorithm algorithm : DigestAlgorithm.values()) {
+            if (!algorithm.isXOF() && algorithm.create() != null) {
+                names = lib.setItem(names, algorithm.getPythonName(), PNone.NONE);
+            }
+        }
+        builtinConstants.put("openssl_md_meth_names", core.factory().createFrozenSet(names));
+        super.initialize(core);
+    }
+
+    /**
+     * Creates a digest object of class {@code cls} and feeds it {@code data} unless that is
+     * {@link PNone#NO_VALUE}.
+     */
+    static PDigest createDigest(VirtualFrame frame, PythonBuiltinBaseNode node, Object cls, DigestAlgorithm algorithm, Object data, UpdateNode updateNode) {
+        MessageDigest messageDigest = algorithm.create();
+        if (messageDigest == null) {
+            throw node.raise(ValueError, ErrorMessages.UNSUPPORTED_HASH_TYPE);
+        }
+        PDigest digest = node.factory().createDigest(cls, algorithm, messageDigest);
+        if (!PGuards.isNoValue(data)) {
+            updateNode.execute(frame, digest, data);
+        }
+        return digest;
+    }
+
+    @Builtin(name = "new", minNumOfPositionalArgs = 1, parameterNames = {"name", "string"})
+    @ArgumentClinic(name = "name", conversion = ClinicConversion.String)
+    @GenerateNodeFactory
+    abstract static class NewNode extends PythonBinaryClinicBuiltinNode {
+
+        @Override
+        protected ArgumentClinicProvider getArgumentClinic() {
+            return HashlibModuleBuiltinsClinicProviders.NewNodeClinicProviderGen.INSTANCE;
+        }
+
+        @Specialization
+        PDigest doNew(VirtualFrame frame, String name, Object data,
+                        @Cached UpdateNode updateNode) {
+            DigestAlgorithm algorithm = DigestAlgorithm.fromName(name);
+            if (algorithm == null) {
+                throw raise(ValueError, ErrorMessages.UNSUPPORTED_HASH_TYPE);
+            }
+            return createDigest(frame, this, PythonBuiltinClassType.PHashlibHash, algorithm, data, updateNode);
+        }
+    }
+
+    abstract static class ConstructorNode extends PythonUnaryBuiltinNode {
+
+        protected abstract DigestAlgorithm getAlgorithm();
+
+        @Specialization
+        PDigest doNew(VirtualFrame frame, Object data,
+                        @Cached UpdateNode updateNode) {
+            return createDigest(frame, this, PythonBuiltinClassType.PHashlibHash, getAlgorithm(), data, updateNode);
+        }
+    }
+
+    @Builtin(name = "openssl_md5", parameterNames = {"string"})
+    @GenerateNodeFactory
+    abstract static class OpensslMd5Node extends ConstructorNode {
+        @Override
+        protected final DigestAlgorithm getAlgorithm() {
+            return DigestAlgorithm.MD5;
+        }
+    }
+
+    @Builtin(name = "openssl_sha1", parameterNames = {"string"})
+    @GenerateNodeFactory
+    abstract static class OpensslSha1Node extends ConstructorNode {
+        @Override
+        protected final DigestAlgorithm getAlgorithm() {
+            return DigestAlgorithm.SHA1;
+        }
+    }
+
+    @Builtin(name = "openssl_sha224", parameterNames = {"string"})
+    @GenerateNodeFactory
+    abstract static class OpensslSha224Node extends ConstructorNode {
+        @Override
+        protected final DigestAlgorithm getAlgorithm() {
+            return DigestAlgorithm.SHA224;
+        }
+    }
+
+    @Builtin(name = "openssl_sha256", parameterNames = {"string"})
+    @GenerateNodeFactory
+    abstract static class OpensslSha256Node extends ConstructorNode {
+        @Override
+        protected final DigestAlgorithm getAlgorithm() {
+            return DigestAlgorithm.SHA256;
+        }
+    }
+
+    @Builtin(name = "openssl_sha384", parameterNames = {"string"})
+    @GenerateNodeFactory
+    abstract static class OpensslSha384Node extends ConstructorNode {
+        @Override
+        protected final DigestAlgorithm getAlgorithm() {
+            return DigestAlgorithm.SHA384;
+        }
+    }
+
+    @Builtin(name = "openssl_sha512", parameterNames = {"string"})
+    @GenerateNodeFactory
+    abstract static class OpensslSha512Node extends ConstructorNode {
+        @Override
+        protected final DigestAlgorithm getAlgorithm() {
+            return DigestAlgorithm.SHA512;
+        }
+    }
+
+    @Builtin(name = "hmac_digest", minNumOfPositionalArgs = 3, parameterNames = {"key", "msg", "digest"})
+    @ArgumentClinic(name = "key", conversion = ClinicConversion.Buffer)
+    @ArgumentClinic(name = "msg", conversion = ClinicConversion.Buffer)
+    @ArgumentClinic(name = "digest", conversion = ClinicConversion.String)
+    @GenerateNodeFactory
+    abstract static class HmacDigestNode extends PythonTernaryClinicBuiltinNode {
+
+        @Override
+        protected ArgumentClinicProvider getArgumentClinic() {
+            return HashlibModuleBuiltinsClinicProviders.HmacDigestNodeClinicProviderGen.INSTANCE;
+        }
+
+        @Specialization
+        PBytes hmacDigest(byte[] key, byte[] msg, String digest,
+                        @Cached GilNode gil) {
+            Hmac hmac = createHmac(this, digest, key);
+            byte[] result;
+            if (msg.length < DigestBuiltins.GIL_MINSIZE) {
+                result = hmac.compute(msg, 0, msg.length);
+            } else {
+                gil.release(true);
+                try {
+                    result = hmac.compute(msg, 0, msg.length);
+                } finally {
+                    gil.acquire();
+                }
+            }
+            return factory().createBytes(result);
+        }
+    }
+
+    @Builtin(name = "pbkdf2_hmac", minNumOfPositionalArgs = 4, parameterNames = {"hash_name", "password", "salt", "iterations", "dklen"})
+    @ArgumentClinic(name = "hash_name", conversion = ClinicConversion.String)
+    @ArgumentClinic(name = "password", conversion = ClinicConversion.Buffer)
+    @ArgumentClinic(name = "salt", conversion = ClinicConversion.Buffer)
+    @ArgumentClinic(name = "iterations", conversion = ClinicConversion.Long)
+    @ArgumentClinic(name = "dklen", conversion = ClinicConversion.LongIndex, defaultValue = "HashlibModuleBuiltins.NO_KEY_LENGTH", useDefaultForNone = true)
+    @GenerateNodeFactory
+    abstract static class Pbkdf2HmacNode extends PythonClinicBuiltinNode {
+
+        @Override
+        protected ArgumentClinicProvider getArgumentClinic() {
+            return HashlibModuleBuiltinsClinicProviders.Pbkdf2HmacNodeClinicProviderGen.INSTANCE;
+        }
+
+        @Specialization
+        PBytes pbkdf2Hmac(String hashName, byte[] password, byte[] salt, long iterations, long dklen,
+                        @Cached GilNode gil) {
+            Hmac hmac = createHmac(this, hashName, password);
+            if (iterations < 1) {
+                throw raise(ValueError, ErrorMessages.ITERATION_VALUE_MUST_BE_GREATER_THAN_ZERO);
+            }
+            if (iterations > Integer.MAX_VALUE) {
+                throw raise(OverflowError, ErrorMessages.ITERATION_VALUE_IS_TOO_GREAT);
+            }
+            long keyLength = dklen == NO_KEY_LENGTH ? hmac.getDigestSize() : dklen;
+            if (keyLength < 1) {
+                throw raise(ValueError, ErrorMessages.KEY_LENGTH_MUST_BE_GREATER_THAN_ZERO);
+            }
+            if (keyLength > Integer.MAX_VALUE) {
+                throw raise(OverflowError, ErrorMessages.KEY_LENGTH_IS_TOO_GREAT);
+            }
+            byte[] result;
+            gil.release(true);
+            try {
+                result = hmac.pbkdf2(salt, (int) iterations, (int) keyLength);
+            } finally {
+                gil.acquire();
+            }
+            return factory().createBytes(result);
+        }
+    }
+
+    private static Hmac createHmac(PythonBuiltinBaseNode node, String name, byte[] key) {
+        DigestAlgorithm algorithm = DigestAlgorithm.fromName(name);
+        Hmac hmac = algorithm != null ? Hmac.create(algorithm, key) : null;
+        if (hmac == null) {
+            throw node.raise(ValueError, ErrorMessages.UNSUPPORTED_HASH_TYPE);
+        }
+        return hmac;
+    }
+}
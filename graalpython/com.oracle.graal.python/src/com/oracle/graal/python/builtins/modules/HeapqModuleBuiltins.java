@@ -0,0 +1,672 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules;
+
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.IndexError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.RuntimeError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.TypeError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.IndexNodes.NormalizeIndexNode;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.ListGeneralizationNode;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.PNodeWithRaise;
+import com.oracle.graal.python.nodes.builtins.ListNodes;
+import com.oracle.graal.python.nodes.expression.BinaryComparisonNode;
+import com.oracle.graal.python.nodes.expression.CoerceToBooleanNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.runtime.sequence.storage.DoubleSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.IntSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.LongSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.ObjectSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.UnexpectedResultException;
+
+/**
+ * Heap queue operations on lists. Heaps backed by an {@code int}, {@code long} or {@code double}
+ * storage are sifted directly on the primitive array if the new item has the matching type, since
+ * no Python code can run during the comparisons then. All other heaps are sifted with {@code <}
+ * comparisons like in CPython, re-reading the storage after every comparison because it may have
+ * mutated the list.
+ */
+@CoreFunctions(defineModule = "_heapq")
+public class HeapqModuleBuiltins extends PythonBuiltins {
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return HeapqModuleBuiltinsFactory.getFactories();
+    }
+
+    @Builtin(name = "heappush", minNumOfPositionalArgs = 2, parameterNames = {"heap", "item"}, doc = "Push item onto heap, maintaining the heap invariant.")
+    @GenerateNodeFactory
+    public abstract static class HeapPushNode extends PythonBinaryBuiltinNode {
+
+        @Specialization(guards = "isIntStorage(heap)")
+        static PNone doInt(PList heap, int item) {
+            IntSequenceStorage storage = (IntSequenceStorage) heap.getSequenceStorage();
+            storage.appendInt(item);
+            siftDown(storage.getInternalIntArray(), 0, storage.length() - 1, false);
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = "isLongStorage(heap)")
+        static PNone doLong(PList heap, long item) {
+            LongSequenceStorage storage = (LongSequenceStorage) heap.getSequenceStorage();
+            storage.appendLong(item);
+            siftDown(storage.getInternalLongArray(), 0, storage.length() - 1, false);
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = "isDoubleStorage(heap)")
+        static PNone doDouble(PList heap, double item) {
+            DoubleSequenceStorage storage = (DoubleSequenceStorage) heap.getSequenceStorage();
+            storage.appendDouble(item);
+            siftDown(storage.getInternalDoubleArray(), 0, storage.length() - 1, false);
+            return PNone.NONE;
+        }
+
+        @Specialization
+        static PNone doGeneric(VirtualFrame frame, PList heap, Object item,
+                        @Cached ListNodes.AppendNode appendNode,
+                        @Cached SiftNode siftNode) {
+            appendNode.execute(heap, item);
+            siftNode.siftDown(frame, heap, 0, heap.getSequenceStorage().length() - 1, false);
+            return PNone.NONE;
+        }
+
+        @Fallback
+        Object doError(@SuppressWarnings("unused") Object heap, @SuppressWarnings("unused") Object item) {
+            throw raise(TypeError, ErrorMessages.HEAP_ARGUMENT_MUST_BE_A_LIST);
+        }
+    }
+
+    @Builtin(name = "heappop", minNumOfPositionalArgs = 1, parameterNames = {"heap"}, doc = "Pop the smallest item off the heap, maintaining the heap invariant.")
+    @GenerateNodeFactory
+    public abstract static class HeapPopNode extends PythonUnaryBuiltinNode {
+
+        protected boolean isMax() {
+            return false;
+        }
+
+        @Specialization(guards = "isIntStorage(heap)")
+        int doInt(PList heap) {
+            IntSequenceStorage storage = (IntSequenceStorage) heap.getSequenceStorage();
+            int n = storage.length();
+            if (n == 0) {
+                throw raise(IndexError, ErrorMessages.INDEX_OUT_OF_RANGE);
+            }
+            int last = storage.popInt();
+            if (n == 1) {
+                return last;
+            }
+            int[] array = storage.getInternalIntArray();
+            int result = array[0];
+            array[0] = last;
+            siftUp(array, 0, n - 1, isMax());
+            return result;
+        }
+
+        @Specialization(guards = "isLongStorage(heap)")
+        long doLong(PList heap) {
+            LongSequenceStorage storage = (LongSequenceStorage) heap.getSequenceStorage();
+            int n = storage.length();
+            if (n == 0) {
+                throw raise(IndexError, ErrorMessages.INDEX_OUT_OF_RANGE);
+            }
+            long last = storage.popLong();
+            if (n == 1) {
+                return last;
+            }
+            long[] array = storage.getInternalLongArray();
+            long result = array[0];
+            array[0] = last;
+            siftUp(array, 0, n - 1, isMax());
+            return result;
+        }
+
+        @Specialization(guards = "isDoubleStorage(heap)")
+        double doDouble(PList heap) {
+            DoubleSequenceStorage storage = (DoubleSequenceStorage) heap.getSequenceStorage();
+            int n = storage.length();
+            if (n == 0) {
+                throw raise(IndexError, ErrorMessages.INDEX_OUT_OF_RANGE);
+            }
+            double last = storage.popDouble();
+            if (n == 1) {
+                return last;
+            }
+            double[] array = storage.getInternalDoubleArray();
+            double result = array[0];
+            array[0] = last;
+            siftUp(array, 0, n - 1, isMax());
+            return result;
+        }
+
+        @Specialization(guards = {"!isIntStorage(heap)", "!isLongStorage(heap)", "!isDoubleStorage(heap)"})
+        Object doGeneric(VirtualFrame frame, PList heap,
+                        @Cached SequenceStorageNodes.GetItemScalarNode getItemNode,
+                        @Cached SequenceStorageNodes.SetItemScalarNode setItemNode,
+                        @Cached("createDelete()") SequenceStorageNodes.DeleteNode deleteNode,
+                        @Cached SiftNode siftNode) {
+            SequenceStorage storage = heap.getSequenceStorage();
+            int n = storage.length();
+            if (n == 0) {
+                throw raise(IndexError, ErrorMessages.INDEX_OUT_OF_RANGE);
+            }
+            Object last;
+            if (storage instanceof ObjectSequenceStorage) {
+                // clears the vacated slot so the popped item is not kept alive
+                last = ((ObjectSequenceStorage) storage).popObject();
+            } else {
+                last = getItemNode.execute(storage, n - 1);
+                deleteNode.execute(frame, storage, n - 1);
+            }
+            if (n == 1) {
+                return last;
+            }
+            Object result = getItemNode.execute(storage, 0);
+            setItemNode.execute(storage, 0, last);
+            siftNode.siftUp(frame, heap, 0, isMax());
+            return result;
+        }
+
+        @Fallback
+        Object doError(@SuppressWarnings("unused") Object heap) {
+            throw raise(TypeError, ErrorMessages.HEAP_ARGUMENT_MUST_BE_A_LIST);
+        }
+
+        protected static SequenceStorageNodes.DeleteNode createDelete() {
+            return SequenceStorageNodes.DeleteNode.create(NormalizeIndexNode.forList());
+        }
+    }
+
+    @Builtin(name = "_heappop_max", minNumOfPositionalArgs = 1, parameterNames = {"heap"}, doc = "Maxheap variant of heappop.")
+    @GenerateNodeFactory
+    public abstract static class HeapPopMaxNode extends HeapPopNode {
+
+        @Override
+        protected final boolean isMax() {
+            return true;
+        }
+    }
+
+    @Builtin(name = "heapreplace", minNumOfPositionalArgs = 2, parameterNames = {"heap", "item"}, //
+                    doc = "Pop and return the current smallest value, and add the new item.\n\n" +
+                                    "This is more efficient than heappop() followed by heappush(), and can be\n" +
+                                    "more appropriate when using a fixed-size heap.  Note that the value\n" +
+                                    "returned may be larger than item!  That constrains reasonable uses of\n" +
+                                    "this routine unless written as part of a conditional replacement:\n\n" +
+                                    "    if item > heap[0]:\n" +
+                                    "        item = heapreplace(heap, item)")
+    @GenerateNodeFactory
+    public abstract static class HeapReplaceNode extends PythonBinaryBuiltinNode {
+
+        protected boolean isMax() {
+            return false;
+        }
+
+        @Specialization(guards = "isIntStorage(heap)")
+        int doInt(PList heap, int item) {
+            IntSequenceStorage storage = (IntSequenceStorage) heap.getSequenceStorage();
+            int n = storage.length();
+            if (n == 0) {
+                throw raise(IndexError, ErrorMessages.INDEX_OUT_OF_RANGE);
+            }
+            int[] array = storage.getInternalIntArray();
+            int result = array[0];
+            array[0] = item;
+            siftUp(array, 0, n, isMax());
+            return result;
+        }
+
+        @Specialization(guards = "isLongStorage(heap)")
+        long doLong(PList heap, long item) {
+            LongSequenceStorage storage = (LongSequenceStorage) heap.getSequenceStorage();
+            int n = storage.length();
+            if (n == 0) {
+                throw raise(IndexError, ErrorMessages.INDEX_OUT_OF_RANGE);
+            }
+            long[] array = storage.getInternalLongArray();
+            long result = array[0];
+            array[0] = item;
+            siftUp(array, 0, n, isMax());
+            return result;
+        }
+
+        @Specialization(guards = "isDoubleStorage(heap)")
+        double doDouble(PList heap, double item) {
+            DoubleSequenceStorage storage = (DoubleSequenceStorage) heap.getSequenceStorage();
+            int n = storage.length();
+            if (n == 0) {
+                throw raise(IndexError, ErrorMessages.INDEX_OUT_OF_RANGE);
+            }
+            double[] array = storage.getInternalDoubleArray();
+            double result = array[0];
+            array[0] = item;
+            siftUp(array, 0, n, isMax());
+            return result;
+        }
+
+        @Specialization
+        Object doGeneric(VirtualFrame frame, PList heap, Object item,
+                        @Cached SequenceStorageNodes.GetItemScalarNode getItemNode,
+                        @Cached("createSetItem()") SequenceStorageNodes.SetItemNode setItemNode,
+                        @Cached SiftNode siftNode) {
+            SequenceStorage storage = heap.getSequenceStorage();
+            if (storage.length() == 0) {
+                throw raise(IndexError, ErrorMessages.INDEX_OUT_OF_RANGE);
+            }
+            Object result = getItemNode.execute(storage, 0);
+            heap.setSequenceStorage(setItemNode.executeInt(frame, storage, 0, item));
+            siftNode.siftUp(frame, heap, 0, isMax());
+            return result;
+        }
+
+        @Fallback
+        Object doError(@SuppressWarnings("unused") Object heap, @SuppressWarnings("unused") Object item) {
+            throw raise(TypeError, ErrorMessages.HEAP_ARGUMENT_MUST_BE_A_LIST);
+        }
+    }
+
+    @Builtin(name = "_heapreplace_max", minNumOfPositionalArgs = 2, parameterNames = {"heap", "item"}, doc = "Maxheap variant of heapreplace.")
+    @GenerateNodeFactory
+    public abstract static class HeapReplaceMaxNode extends HeapReplaceNode {
+
+        @Override
+        protected final boolean isMax() {
+            return true;
+        }
+    }
+
+    @Builtin(name = "heappushpop", minNumOfPositionalArgs = 2, parameterNames = {"heap", "item"}, //
+                    doc = "Push item on the heap, then pop and return the smallest item from the heap.\n\n" +
+                                    "The combined action runs more efficiently than heappush() followed by\n" +
+                                    "a separate call to heappop().")
+    @GenerateNodeFactory
+    public abstract static class HeapPushPopNode extends PythonBinaryBuiltinNode {
+
+        @Specialization(guards = "isIntStorage(heap)")
+        static int doInt(PList heap, int item) {
+            IntSequenceStorage storage = (IntSequenceStorage) heap.getSequenceStorage();
+            int n = storage.length();
+            int[] array = storage.getInternalIntArray();
+            if (n == 0 || !(array[0] < item)) {
+                return item;
+            }
+            int result = array[0];
+            array[0] = item;
+            siftUp(array, 0, n, false);
+            return result;
+        }
+
+        @Specialization(guards = "isLongStorage(heap)")
+        static long doLong(PList heap, long item) {
+            LongSequenceStorage storage = (LongSequenceStorage) heap.getSequenceStorage();
+            int n = storage.length();
+            long[] array = storage.getInternalLongArray();
+            if (n == 0 || !(array[0] < item)) {
+                return item;
+            }
+            long result = array[0];
+            array[0] = item;
+            siftUp(array, 0, n, false);
+            return result;
+        }
+
+        @Specialization(guards = "isDoubleStorage(heap)")
+        static double doDouble(PList heap, double item) {
+            DoubleSequenceStorage storage = (DoubleSequenceStorage) heap.getSequenceStorage();
+            int n = storage.length();
+            double[] array = storage.getInternalDoubleArray();
+            if (n == 0 || !(array[0] < item)) {
+                return item;
+            }
+            double result = array[0];
+            array[0] = item;
+            siftUp(array, 0, n, false);
+            return result;
+        }
+
+        @Specialization
+        Object doGeneric(VirtualFrame frame, PList heap, Object item,
+                        @Cached SequenceStorageNodes.GetItemScalarNode getItemNode,
+                        @Cached("createSetItem()") SequenceStorageNodes.SetItemNode setItemNode,
+                        @Cached SiftNode siftNode) {
+            if (heap.getSequenceStorage().length() == 0) {
+                return item;
+            }
+            Object top = getItemNode.execute(heap.getSequenceStorage(), 0);
+            if (!siftNode.lessThan(frame, top, item)) {
+                return item;
+            }
+            SequenceStorage storage = heap.getSequenceStorage();
+            if (storage.length() == 0) {
+                throw raise(IndexError, ErrorMessages.INDEX_OUT_OF_RANGE);
+            }
+            Object result = getItemNode.execute(storage, 0);
+            heap.setSequenceStorage(setItemNode.executeInt(frame, storage, 0, item));
+            siftNode.siftUp(frame, heap, 0, false);
+            return result;
+        }
+
+        @Fallback
+        Object doError(@SuppressWarnings("unused") Object heap, @SuppressWarnings("unused") Object item) {
+            throw raise(TypeError, ErrorMessages.HEAP_ARGUMENT_MUST_BE_A_LIST);
+        }
+    }
+
+    @Builtin(name = "heapify", minNumOfPositionalArgs = 1, parameterNames = {"heap"}, doc = "Transform list into a heap, in-place, in O(len(heap)) time.")
+    @GenerateNodeFactory
+    public abstract static class HeapifyNode extends PythonUnaryBuiltinNode {
+
+        protected boolean isMax() {
+            return false;
+        }
+
+        @Specialization(guards = "isIntStorage(heap)")
+        PNone doInt(PList heap) {
+            IntSequenceStorage storage = (IntSequenceStorage) heap.getSequenceStorage();
+            int n = storage.length();
+            int[] array = storage.getInternalIntArray();
+            for (int i = n / 2 - 1; i >= 0; i--) {
+                siftUp(array, i, n, isMax());
+            }
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = "isLongStorage(heap)")
+        PNone doLong(PList heap) {
+            LongSequenceStorage storage = (LongSequenceStorage) heap.getSequenceStorage();
+            int n = storage.length();
+            long[] array = storage.getInternalLongArray();
+            for (int i = n / 2 - 1; i >= 0; i--) {
+                siftUp(array, i, n, isMax());
+            }
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = "isDoubleStorage(heap)")
+        PNone doDouble(PList heap) {
+            DoubleSequenceStorage storage = (DoubleSequenceStorage) heap.getSequenceStorage();
+            int n = storage.length();
+            double[] array = storage.getInternalDoubleArray();
+            for (int i = n / 2 - 1; i >= 0; i--) {
+                siftUp(array, i, n, isMax());
+            }
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = {"!isIntStorage(heap)", "!isLongStorage(heap)", "!isDoubleStorage(heap)"})
+        PNone doGeneric(VirtualFrame frame, PList heap,
+                        @Cached SiftNode siftNode) {
+            int n = heap.getSequenceStorage().length();
+            for (int i = n / 2 - 1; i >= 0; i--) {
+                siftNode.siftUp(frame, heap, i, isMax());
+            }
+            return PNone.NONE;
+        }
+
+        @Fallback
+        Object doError(@SuppressWarnings("unused") Object heap) {
+            throw raise(TypeError, ErrorMessages.HEAP_ARGUMENT_MUST_BE_A_LIST);
+        }
+    }
+
+    @Builtin(name = "_heapify_max", minNumOfPositionalArgs = 1, parameterNames = {"heap"}, doc = "Maxheap variant of heapify.")
+    @GenerateNodeFactory
+    public abstract static class HeapifyMaxNode extends HeapifyNode {
+
+        @Override
+        protected final boolean isMax() {
+            return true;
+        }
+    }
+
+    static SequenceStorageNodes.SetItemNode createSetItem() {
+        return SequenceStorageNodes.SetItemNode.create(NormalizeIndexNode.forListAssign(), () -> ListGeneralizationNode.create());
+    }
+
+    /**
+     * Sifts heaps with arbitrary elements, following CPython's {@code siftdown} and
+     * {@code siftup}. In a max-heap, the operands of every comparison are swapped.
+     */
+    static final class SiftNode extends PNodeWithRaise {
+        @Child private BinaryComparisonNode ltNode = BinaryComparisonNode.LtNode.create();
+        @Child private CoerceToBooleanNode castToBooleanNode = CoerceToBooleanNode.createIfTrueNode();
+        @Child private SequenceStorageNodes.GetItemScalarNode getItemNode = SequenceStorageNodes.GetItemScalarNode.create();
+        @Child private SequenceStorageNodes.SetItemScalarNode setItemNode = SequenceStorageNodes.SetItemScalarNode.create();
+
+        @CompilationFinal private boolean seenNonBoolean = false;
+
+        boolean lessThan(VirtualFrame frame, Object a, Object b) {
+            if (!seenNonBoolean) {
+                try {
+                    return ltNode.executeBool(frame, a, b);
+                } catch (UnexpectedResultException e) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    seenNonBoolean = true;
+                    return castToBooleanNode.executeBoolean(frame, e.getResult());
+                }
+            }
+            return castToBooleanNode.executeBoolean(frame, ltNode.executeObject(frame, a, b));
+        }
+
+        /**
+         * Moves the item at {@code pos} towards the root until its parent is not greater than it.
+         */
+        void siftDown(VirtualFrame frame, PList heap, int startpos, int initialPos, boolean max) {
+            int pos = initialPos;
+            int size = heap.getSequenceStorage().length();
+            if (pos >= size) {
+                throw raise(IndexError, ErrorMessages.INDEX_OUT_OF_RANGE);
+            }
+            while (pos > startpos) {
+                int parentpos = (pos - 1) >> 1;
+                SequenceStorage storage = heap.getSequenceStorage();
+                Object newitem = getItemNode.execute(storage, pos);
+                Object parent = getItemNode.execute(storage, parentpos);
+                boolean lt = max ? lessThan(frame, parent, newitem) : lessThan(frame, newitem, parent);
+                storage = heap.getSequenceStorage();
+                if (size != storage.length()) {
+                    throw raise(RuntimeError, ErrorMessages.CHANGED_SIZE_DURING_ITERATION, "list");
+                }
+                if (!lt) {
+                    break;
+                }
+                swap(storage, parentpos, pos);
+                pos = parentpos;
+            }
+        }
+
+        /**
+         * Moves the smaller child of {@code pos} up until a leaf is reached and then sifts the
+         * item that was at {@code pos} down to its final place from there.
+         */
+        void siftUp(VirtualFrame frame, PList heap, int initialPos, boolean max) {
+            int pos = initialPos;
+            int endpos = heap.getSequenceStorage().length();
+            if (pos >= endpos) {
+                throw raise(IndexError, ErrorMessages.INDEX_OUT_OF_RANGE);
+            }
+            int limit = endpos >> 1;
+            while (pos < limit) {
+                int childpos = 2 * pos + 1;
+                if (childpos + 1 < endpos) {
+                    SequenceStorage storage = heap.getSequenceStorage();
+                    Object a = getItemNode.execute(storage, childpos);
+                    Object b = getItemNode.execute(storage, childpos + 1);
+                    boolean lt = max ? lessThan(frame, b, a) : lessThan(frame, a, b);
+                    if (!lt) {
+                        childpos++;
+                    }
+                    if (endpos != heap.getSequenceStorage().length()) {
+                        throw raise(RuntimeError, ErrorMessages.CHANGED_SIZE_DURING_ITERATION, "list");
+                    }
+                }
+                swap(heap.getSequenceStorage(), childpos, pos);
+                pos = childpos;
+            }
+            siftDown(frame, heap, initialPos, pos, max);
+        }
+
+        private void swap(SequenceStorage storage, int i, int j) {
+            Object tmp = getItemNode.execute(storage, i);
+            setItemNode.execute(storage, i, getItemNode.execute(storage, j));
+            setItemNode.execute(storage, j, tmp);
+        }
+
+        static SiftNode create() {
+            return new SiftNode();
+        }
+    }
+
+    static void siftDown(int[] heap, int startpos, int initialPos, boolean max) {
+        int pos = initialPos;
+        int newitem = heap[pos];
+        while (pos > startpos) {
+            int parentpos = (pos - 1) >> 1;
+            int parent = heap[parentpos];
+            if (!(max ? parent < newitem : newitem < parent)) {
+                break;
+            }
+            heap[pos] = parent;
+            pos = parentpos;
+        }
+        heap[pos] = newitem;
+    }
+
+    static void siftUp(int[] heap, int initialPos, int endpos, boolean max) {
+        int pos = initialPos;
+        int newitem = heap[pos];
+        int childpos = 2 * pos + 1;
+        while (childpos < endpos) {
+            int rightpos = childpos + 1;
+            if (rightpos < endpos && !(max ? heap[rightpos] < heap[childpos] : heap[childpos] < heap[rightpos])) {
+                childpos = rightpos;
+            }
+            heap[pos] = heap[childpos];
+            pos = childpos;
+            childpos = 2 * pos + 1;
+        }
+        heap[pos] = newitem;
+        siftDown(heap, initialPos, pos, max);
+    }
+
+    static void siftDown(long[] heap, int startpos, int initialPos, boolean max) {
+        int pos = initialPos;
+        long newitem = heap[pos];
+        while (pos > startpos) {
+            int parentpos = (pos - 1) >> 1;
+            long parent = heap[parentpos];
+            if (!(max ? parent < newitem : newitem < parent)) {
+                break;
+            }
+            heap[pos] = parent;
+            pos = parentpos;
+        }
+        heap[pos] = newitem;
+    }
+
+    static void siftUp(long[] heap, int initialPos, int endpos, boolean max) {
+        int pos = initialPos;
+        long newitem = heap[pos];
+        int childpos = 2 * pos + 1;
+        while (childpos < endpos) {
+            int rightpos = childpos + 1;
+            if (rightpos < endpos && !(max ? heap[rightpos] < heap[childpos] : heap[childpos] < heap[rightpos])) {
+                childpos = rightpos;
+            }
+            heap[pos] = heap[childpos];
+            pos = childpos;
+            childpos = 2 * pos + 1;
+        }
+        heap[pos] = newitem;
+        siftDown(heap, initialPos, pos, max);
+    }
+
+    static void siftDown(double[] heap, int startpos, int initialPos, boolean max) {
+        int pos = initialPos;
+        double newitem = heap[pos];
+        while (pos > startpos) {
+            int parentpos = (pos - 1) >> 1;
+            double parent = heap[parentpos];
+            if (!(max ? parent < newitem : newitem < parent)) {
+                break;
+            }
+            heap[pos] = parent;
+            pos = parentpos;
+        }
+        heap[pos] = newitem;
+    }
+
+    static void siftUp(double[] heap, int initialPos, int endpos, boolean max) {
+        int pos = initialPos;
+        double newitem = heap[pos];
+        int childpos = 2 * pos + 1;
+        while (childpos < endpos) {
+            int rightpos = childpos + 1;
+            if (rightpos < endpos && !(max ? heap[rightpos] < heap[childpos] : heap[childpos] < heap[rightpos])) {
+                childpos = rightpos;
+            }
+            heap[pos] = heap[childpos];
+            pos = childpos;
+            childpos = 2 * pos + 1;
+        }
+        heap[pos] = newitem;
+        siftDown(heap, initialPos, pos, max);
+    }
+}
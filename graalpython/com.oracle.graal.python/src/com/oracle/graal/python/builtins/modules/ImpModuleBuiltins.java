@@ -67,6 +67,7 @@ import com.oracle.graal.python.builtins.objects.cext.hpy.GraalHPyInitObject;
 import com.oracle.graal.python.builtins.objects.cext.hpy.GraalHPyNodesFactory.HPyAsPythonObjectNodeGen;
 import com.oracle.graal.python.builtins.objects.code.PCode;
 import com.oracle.graal.python.builtins.objects.common.HashingCollectionNodes.SetItemNode;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.GetInternalByteArrayNode;
 import com.oracle.graal.python.builtins.objects.dict.PDict;
 import com.oracle.graal.python.builtins.objects.exception.PBaseException;
 import com.oracle.graal.python.builtins.objects.ints.IntBuiltins;
@@ -88,13 +89,14 @@ import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
 import com.oracle.graal.python.nodes.statement.ExceptionHandlingStatementNode;
 import com.oracle.graal.python.nodes.util.CastToJavaStringNode;
-import com.oracle.graal.python.parser.sst.SerializationUtils;
 import com.oracle.graal.python.runtime.ExecutionContext.IndirectCallContext;
 import com.oracle.graal.python.runtime.GilNode;
+import com.oracle.graal.python.runtime.PersistentCodeCache;
 import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.PythonCore;
 import com.oracle.graal.python.runtime.PythonOptions;
 import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
 import com.oracle.graal.python.util.PythonUtils;
 import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerDirectives;
@@ -103,6 +105,7 @@ import com.oracle.truffle.api.TruffleFile;
 import com.oracle.truffle.api.TruffleLanguage.Env;
 import com.oracle.truffle.api.TruffleLogger;
 import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Cached.Shared;
 import com.oracle.truffle.api.dsl.CachedContext;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
@@ -181,7 +184,7 @@ public class ImpModuleBuiltins extends PythonBuiltins {
     @Builtin(name = "get_magic")
     @GenerateNodeFactory
     public abstract static class GetMagic extends PythonBuiltinNode {
-        static final int MAGIC_NUMBER = 21000 + SerializationUtils.VERSION * 10;
+        static final int MAGIC_NUMBER = PersistentCodeCache.MAGIC_NUMBER;
 
         @Child private IntBuiltins.ToBytesNode toBytesNode = IntBuiltins.ToBytesNode.create();
         @Child private PythonObjectLibrary pol = PythonObjectLibrary.getFactory().createDispatched(1);
@@ -652,26 +655,22 @@ public class ImpModuleBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     public abstract static class SourceHashNode extends PythonBinaryBuiltinNode {
         @Specialization
-        @TruffleBoundary
-        PBytes run(long magicNumber, PBytesLike source) {
-            byte[] hash = new byte[Long.BYTES];
-            long hashCode = magicNumber ^ source.hashCode();
-            for (int i = 0; i < hash.length; i++) {
-                hash[i] = (byte) (hashCode << (8 * i));
-            }
-            return factory().createBytes(hash);
+        PBytes run(long magicNumber, PBytesLike source,
+                        @Shared("getBytes") @Cached GetInternalByteArrayNode getBytes) {
+            SequenceStorage storage = source.getSequenceStorage();
+            return factory().createBytes(PersistentCodeCache.sourceHash(magicNumber, getBytes.execute(storage), storage.length()));
         }
 
         @Specialization
-        @TruffleBoundary
-        PBytes run(PInt magicNumber, PBytesLike source) {
-            return run(magicNumber.longValue(), source);
+        PBytes run(PInt magicNumber, PBytesLike source,
+                        @Shared("getBytes") @Cached GetInternalByteArrayNode getBytes) {
+            return run(magicNumber.longValue(), source, getBytes);
         }
 
         @Specialization
-        @TruffleBoundary
-        PBytes run(int magicNumber, PBytesLike source) {
-            return run((long) magicNumber, source);
+        PBytes run(int magicNumber, PBytesLike source,
+                        @Shared("getBytes") @Cached GetInternalByteArrayNode getBytes) {
+            return run((long) magicNumber, source, getBytes);
         }
     }
 
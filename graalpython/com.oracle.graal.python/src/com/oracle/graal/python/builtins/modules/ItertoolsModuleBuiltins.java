@@ -25,19 +25,607 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
-import java.util.Collections;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.OverflowError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.TypeError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.ValueError;
+
 import java.util.List;
 
+import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.CopyInternalArrayNode;
+import com.oracle.graal.python.builtins.objects.complex.PComplex;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.itertools.ItertoolsNodes.GetPoolNode;
+import com.oracle.graal.python.builtins.objects.itertools.PAccumulate;
+import com.oracle.graal.python.builtins.objects.itertools.PChain;
+import com.oracle.graal.python.builtins.objects.itertools.PCombinations;
+import com.oracle.graal.python.builtins.objects.itertools.PCompress;
+import com.oracle.graal.python.builtins.objects.itertools.PCount;
+import com.oracle.graal.python.builtins.objects.itertools.PCycle;
+import com.oracle.graal.python.builtins.objects.itertools.PDropwhile;
+import com.oracle.graal.python.builtins.objects.itertools.PFilterfalse;
+import com.oracle.graal.python.builtins.objects.itertools.PGroupBy;
+import com.oracle.graal.python.builtins.objects.itertools.PGrouper;
+import com.oracle.graal.python.builtins.objects.itertools.PIslice;
+import com.oracle.graal.python.builtins.objects.itertools.PPermutations;
+import com.oracle.graal.python.builtins.objects.itertools.PProduct;
+import com.oracle.graal.python.builtins.objects.itertools.PRepeat;
+import com.oracle.graal.python.builtins.objects.itertools.PStarmap;
+import com.oracle.graal.python.builtins.objects.itertools.PTakewhile;
+import com.oracle.graal.python.builtins.objects.itertools.PTee;
+import com.oracle.graal.python.builtins.objects.itertools.PTeeDataObject;
+import com.oracle.graal.python.builtins.objects.itertools.PZipLongest;
+import com.oracle.graal.python.builtins.objects.itertools.TeeBuiltins;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.lib.PyNumberAsSizeNode;
+import com.oracle.graal.python.lib.PyNumberIndexNode;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.call.CallNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonQuaternaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToJavaLongExactNode;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.library.CachedLibrary;
 
 @CoreFunctions(defineModule = "itertools")
 public final class ItertoolsModuleBuiltins extends PythonBuiltins {
 
     @Override
     protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
-        return Collections.emptyList();
+        return ItertoolsModuleBuiltinsFactory.getFactories();
+    }
+
+    @Builtin(name = "accumulate", constructsClass = PythonBuiltinClassType.PAccumulate, minNumOfPositionalArgs = 2, parameterNames = {"$cls", "iterable", "func"}, varArgsMarker = true, //
+                    keywordOnlyNames = {"initial"}, doc = "Return series of accumulated sums (or other binary function results).")
+    @GenerateNodeFactory
+    public abstract static class AccumulateNode extends PythonQuaternaryBuiltinNode {
+
+        @Specialization
+        PAccumulate construct(VirtualFrame frame, Object cls, Object iterable, Object func, Object initial,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib) {
+            PAccumulate self = factory().createAccumulate(cls);
+            self.setIterable(lib.getIteratorWithFrame(iterable, frame));
+            self.setFunc(func instanceof PNone ? null : func);
+            self.setInitial(initial instanceof PNone ? null : initial);
+            return self;
+        }
+    }
+
+    @Builtin(name = "chain", constructsClass = PythonBuiltinClassType.PChain, minNumOfPositionalArgs = 1, takesVarArgs = true, //
+                    doc = "chain(*iterables) --> chain object\n\n" +
+                                    "Return a chain object whose .__next__() method returns elements from the\n" +
+                                    "first iterable until it is exhausted, then elements from the next\n" +
+                                    "iterable, until all of the iterables are exhausted.")
+    @GenerateNodeFactory
+    public abstract static class ChainNode extends PythonBuiltinNode {
+
+        @Specialization
+        PChain construct(VirtualFrame frame, Object cls, Object[] args,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib) {
+            PChain self = factory().createChain(cls);
+            self.setSource(lib.getIteratorWithFrame(factory().createTuple(args), frame));
+            return self;
+        }
+    }
+
+    @Builtin(name = "combinations", constructsClass = PythonBuiltinClassType.PCombinations, minNumOfPositionalArgs = 3, parameterNames = {"$cls", "iterable", "r"}, //
+                    doc = "Return successive r-length combinations of elements in the iterable.\n\n" +
+                                    "combinations(range(4), 3) --> (0,1,2), (0,1,3), (0,2,3), (1,2,3)")
+    @GenerateNodeFactory
+    public abstract static class CombinationsNode extends PythonTernaryBuiltinNode {
+
+        @Specialization
+        PCombinations construct(VirtualFrame frame, Object cls, Object iterable, Object rObj,
+                        @Cached GetPoolNode getPoolNode,
+                        @Cached PyNumberAsSizeNode asSizeNode) {
+            Object[] pool = getPoolNode.execute(frame, iterable);
+            int r = asSizeNode.executeExact(frame, rObj);
+            if (r < 0) {
+                throw raise(ValueError, ErrorMessages.MUST_BE_NON_NEGATIVE, "r");
+            }
+            PCombinations self = factory().createCombinations(cls);
+            int[] indices = new int[r];
+            for (int i = 0; i < r; i++) {
+                indices[i] = i;
+            }
+            self.setPool(pool);
+            self.setR(r);
+            self.setIndices(indices);
+            self.setStopped(r > pool.length);
+            return self;
+        }
+    }
+
+    @Builtin(name = "combinations_with_replacement", constructsClass = PythonBuiltinClassType.PCombinationsWithReplacement, minNumOfPositionalArgs = 3, //
+                    parameterNames = {"$cls", "iterable", "r"}, //
+                    doc = "Return successive r-length combinations of elements in the iterable allowing individual elements to have successive repeats.\n\n" +
+                                    "combinations_with_replacement('ABC', 2) --> AA AB AC BB BC CC")
+    @GenerateNodeFactory
+    public abstract static class CombinationsWithReplacementNode extends PythonTernaryBuiltinNode {
+
+        @Specialization
+        PCombinations construct(VirtualFrame frame, Object cls, Object iterable, Object rObj,
+                        @Cached GetPoolNode getPoolNode,
+                        @Cached PyNumberAsSizeNode asSizeNode) {
+            Object[] pool = getPoolNode.execute(frame, iterable);
+            int r = asSizeNode.executeExact(frame, rObj);
+            if (r < 0) {
+                throw raise(ValueError, ErrorMessages.MUST_BE_NON_NEGATIVE, "r");
+            }
+            PCombinations self = factory().createCombinations(cls);
+            self.setPool(pool);
+            self.setR(r);
+            self.setIndices(new int[r]);
+            self.setStopped(pool.length == 0 && r > 0);
+            return self;
+        }
+    }
+
+    @Builtin(name = "compress", constructsClass = PythonBuiltinClassType.PCompress, minNumOfPositionalArgs = 3, parameterNames = {"$cls", "data", "selectors"}, //
+                    doc = "Return data elements corresponding to true selector elements.\n\n" +
+                                    "Forms a shorter iterator from selected data elements using the selectors to\n" +
+                                    "choose the data elements.")
+    @GenerateNodeFactory
+    public abstract static class CompressNode extends PythonTernaryBuiltinNode {
+
+        @Specialization
+        PCompress construct(VirtualFrame frame, Object cls, Object data, Object selectors,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib) {
+            PCompress self = factory().createCompress(cls);
+            self.setData(lib.getIteratorWithFrame(data, frame));
+            self.setSelectors(lib.getIteratorWithFrame(selectors, frame));
+            return self;
+        }
+    }
+
+    @Builtin(name = "count", constructsClass = PythonBuiltinClassType.PCount, minNumOfPositionalArgs = 1, parameterNames = {"$cls", "start", "step"}, //
+                    doc = "Return a count object whose .__next__() method returns consecutive values.\n\n" +
+                                    "Equivalent to:\n" +
+                                    "    def count(firstval=0, step=1):\n" +
+                                    "        x = firstval\n" +
+                                    "        while 1:\n" +
+                                    "            yield x\n" +
+                                    "            x += step")
+    @GenerateNodeFactory
+    public abstract static class CountNode extends PythonTernaryBuiltinNode {
+
+        @Specialization
+        PCount construct(Object cls, Object start, Object step,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib) {
+            Object cnt = start == PNone.NO_VALUE ? 0 : start;
+            Object stp = step == PNone.NO_VALUE ? 1 : step;
+            if (!isNumber(cnt, lib) || !isNumber(stp, lib)) {
+                throw raise(TypeError, ErrorMessages.ITERTOOLS_A_NUMBER_IS_REQUIRED);
+            }
+            PCount self = factory().createCount(cls);
+            self.setCnt(cnt);
+            self.setStep(stp);
+            return self;
+        }
+
+        private static boolean isNumber(Object obj, PythonObjectLibrary lib) {
+            if (obj instanceof Integer || obj instanceof Long || obj instanceof Double || obj instanceof Boolean || obj instanceof PInt || obj instanceof PComplex) {
+                return true;
+            }
+            return lib.canBePInt(obj) || lib.canBeJavaDouble(obj);
+        }
+    }
+
+    @Builtin(name = "cycle", constructsClass = PythonBuiltinClassType.PCycle, minNumOfPositionalArgs = 2, parameterNames = {"$cls", "iterable"}, //
+                    doc = "Return elements from the iterable until it is exhausted. Then repeat the sequence indefinitely.")
+    @GenerateNodeFactory
+    public abstract static class CycleNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        PCycle construct(VirtualFrame frame, Object cls, Object iterable,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib) {
+            PCycle self = factory().createCycle(cls);
+            self.setIterable(lib.getIteratorWithFrame(iterable, frame));
+            self.setSaved(factory().createList());
+            return self;
+        }
+    }
+
+    @Builtin(name = "dropwhile", constructsClass = PythonBuiltinClassType.PDropwhile, minNumOfPositionalArgs = 3, parameterNames = {"$cls", "predicate", "iterable"}, //
+                    doc = "Drop items from the iterable while predicate(item) is true.\n\n" +
+                                    "Afterwards, return every element until the iterable is exhausted.")
+    @GenerateNodeFactory
+    public abstract static class DropwhileNode extends PythonTernaryBuiltinNode {
+
+        @Specialization
+        PDropwhile construct(VirtualFrame frame, Object cls, Object predicate, Object iterable,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib) {
+            PDropwhile self = factory().createDropwhile(cls);
+            self.setPredicate(predicate);
+            self.setIterable(lib.getIteratorWithFrame(iterable, frame));
+            return self;
+        }
+    }
+
+    @Builtin(name = "filterfalse", constructsClass = PythonBuiltinClassType.PFilterfalse, minNumOfPositionalArgs = 3, parameterNames = {"$cls", "function", "iterable"}, //
+                    doc = "Return those items of iterable for which function(item) is false.\n\n" +
+                                    "If function is None, return the items that are false.")
+    @GenerateNodeFactory
+    public abstract static class FilterfalseNode extends PythonTernaryBuiltinNode {
+
+        @Specialization
+        PFilterfalse construct(VirtualFrame frame, Object cls, Object func, Object iterable,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib) {
+            PFilterfalse self = factory().createFilterfalse(cls);
+            self.setFunc(func == PNone.NONE ? null : func);
+            self.setSequence(lib.getIteratorWithFrame(iterable, frame));
+            return self;
+        }
+    }
+
+    @Builtin(name = "groupby", constructsClass = PythonBuiltinClassType.PGroupBy, minNumOfPositionalArgs = 2, parameterNames = {"$cls", "iterable", "key"}, //
+                    doc = "make an iterator that returns consecutive keys and groups from the iterable\n\n" +
+                                    "  iterable\n" +
+                                    "    Elements to divide into groups according to the key function.\n" +
+                                    "  key\n" +
+                                    "    A function for computing the group category for each element.\n" +
+                                    "    If the key function is not specified or is None, the element itself\n" +
+                                    "    is used for grouping.")
+    @GenerateNodeFactory
+    public abstract static class GroupByNode extends PythonTernaryBuiltinNode {
+
+        @Specialization
+        PGroupBy construct(VirtualFrame frame, Object cls, Object iterable, Object key,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib) {
+            PGroupBy self = factory().createGroupBy(cls);
+            self.setKeyFunc(key instanceof PNone ? null : key);
+            self.setIt(lib.getIteratorWithFrame(iterable, frame));
+            return self;
+        }
+    }
+
+    @Builtin(name = "_grouper", constructsClass = PythonBuiltinClassType.PGrouper, minNumOfPositionalArgs = 3, parameterNames = {"$cls", "parent", "tgtkey"})
+    @GenerateNodeFactory
+    public abstract static class GrouperNode extends PythonTernaryBuiltinNode {
+
+        @Specialization
+        PGrouper construct(Object cls, PGroupBy parent, Object tgtKey) {
+            PGrouper self = factory().createGrouper(cls);
+            self.setParent(parent);
+            self.setTgtKey(tgtKey);
+            parent.setCurrGrouper(self);
+            return self;
+        }
+
+        @Specialization(guards = "!isGroupBy(parent)")
+        PGrouper construct(@SuppressWarnings("unused") Object cls, Object parent, @SuppressWarnings("unused") Object tgtKey) {
+            throw raise(TypeError, ErrorMessages.ITERTOOLS_GROUPER_ARG_MUST_BE_GROUPBY, parent);
+        }
+
+        protected static boolean isGroupBy(Object obj) {
+            return obj instanceof PGroupBy;
+        }
+    }
+
+    @Builtin(name = "islice", constructsClass = PythonBuiltinClassType.PIslice, minNumOfPositionalArgs = 2, takesVarArgs = true, //
+                    doc = "islice(iterable, stop) --> islice object\n" +
+                                    "islice(iterable, start, stop[, step]) --> islice object\n\n" +
+                                    "Return an iterator whose next() method returns selected values from an\n" +
+                                    "iterable.  If start is specified, will skip all preceding elements;\n" +
+                                    "otherwise, start defaults to zero.  Step defaults to one.  If\n" +
+                                    "specified as another value, step determines how many values are\n" +
+                                    "skipped between successive calls.  Works like a slice() on a list\n" +
+                                    "but returns an iterator.")
+    @GenerateNodeFactory
+    public abstract static class IsliceNode extends PythonBuiltinNode {
+
+        @Specialization
+        PIslice construct(VirtualFrame frame, Object cls, Object iterable, Object[] args,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib,
+                        @Cached PyNumberIndexNode indexNode,
+                        @Cached CastToJavaLongExactNode castNode) {
+            if (args.length == 0) {
+                throw raise(TypeError, ErrorMessages.EXPECTED_AT_LEAST_D_ARGS_GOT_D, "islice", 2, 1);
+            }
+            if (args.length > 3) {
+                throw raise(TypeError, ErrorMessages.EXPECTED_AT_MOST_D_ARGS_GOT_D, "islice", 4, args.length + 1);
+            }
+            long start = 0;
+            long stop = -1;
+            long step = 1;
+            if (args.length == 1) {
+                if (args[0] != PNone.NONE) {
+                    stop = asSize(frame, args[0], indexNode, castNode);
+                    if (stop == -1) {
+                        throw raise(ValueError, ErrorMessages.ITERTOOLS_ISLICE_STOP_MUST_BE_NONE_OR_INT);
+                    }
+                }
+            } else {
+                if (args[0] != PNone.NONE) {
+                    start = asSize(frame, args[0], indexNode, castNode);
+                }
+                if (args[1] != PNone.NONE) {
+                    stop = asSize(frame, args[1], indexNode, castNode);
+                    if (stop == -1) {
+                        throw raise(ValueError, ErrorMessages.ITERTOOLS_ISLICE_STOP_MUST_BE_NONE_OR_INT);
+                    }
+                }
+            }
+            if (start < 0 || stop < -1) {
+                throw raise(ValueError, ErrorMessages.ITERTOOLS_ISLICE_INDICES_MUST_BE_NONE_OR_INT);
+            }
+            if (args.length == 3 && args[2] != PNone.NONE) {
+                step = asSize(frame, args[2], indexNode, castNode);
+            }
+            if (step < 1) {
+                throw raise(ValueError, ErrorMessages.ITERTOOLS_ISLICE_STEP_MUST_BE_POSITIVE_INT_OR_NONE);
+            }
+            PIslice self = factory().createIslice(cls);
+            self.setIterable(lib.getIteratorWithFrame(iterable, frame));
+            self.setNext(start);
+            self.setStop(stop);
+            self.setStep(step);
+            return self;
+        }
+
+        /**
+         * Like {@code PyNumber_AsSsize_t} followed by {@code PyErr_Clear}: any failure to convert
+         * the argument to a Java long is reported as {@code -1}, which the callers then reject.
+         */
+        private static long asSize(VirtualFrame frame, Object obj, PyNumberIndexNode indexNode, CastToJavaLongExactNode castNode) {
+            try {
+                return castNode.execute(indexNode.execute(frame, obj));
+            } catch (PException e) {
+                return -1;
+            }
+        }
+    }
+
+    @Builtin(name = "permutations", constructsClass = PythonBuiltinClassType.PPermutations, minNumOfPositionalArgs = 2, parameterNames = {"$cls", "iterable", "r"}, //
+                    doc = "Return successive r-length permutations of elements in the iterable.\n\n" +
+                                    "permutations(range(3), 2) --> (0,1), (0,2), (1,0), (1,2), (2,0), (2,1)")
+    @GenerateNodeFactory
+    public abstract static class PermutationsNode extends PythonTernaryBuiltinNode {
+
+        @Specialization
+        PPermutations construct(VirtualFrame frame, Object cls, Object iterable, Object rObj,
+                        @Cached GetPoolNode getPoolNode,
+                        @Cached PyNumberAsSizeNode asSizeNode) {
+            Object[] pool = getPoolNode.execute(frame, iterable);
+            int n = pool.length;
+            int r = n;
+            if (!(rObj instanceof PNone)) {
+                if (!(rObj instanceof Integer || rObj instanceof Long || rObj instanceof Boolean || rObj instanceof PInt)) {
+                    throw raise(TypeError, ErrorMessages.ITERTOOLS_EXPECTED_INT_AS_R);
+                }
+                r = asSizeNode.executeExact(frame, rObj);
+                if (r < 0) {
+                    throw raise(ValueError, ErrorMessages.MUST_BE_NON_NEGATIVE, "r");
+                }
+            }
+            int[] indices = new int[n];
+            for (int i = 0; i < n; i++) {
+                indices[i] = i;
+            }
+            int[] cycles = new int[r];
+            for (int i = 0; i < r; i++) {
+                cycles[i] = n - i;
+            }
+            PPermutations self = factory().createPermutations(cls);
+            self.setPool(pool);
+            self.setR(r);
+            self.setIndices(indices);
+            self.setCycles(cycles);
+            self.setStopped(r > n);
+            return self;
+        }
+    }
+
+    @Builtin(name = "product", constructsClass = PythonBuiltinClassType.PProduct, minNumOfPositionalArgs = 1, takesVarArgs = true, keywordOnlyNames = {"repeat"}, //
+                    doc = "product(*iterables, repeat=1) --> product object\n\n" +
+                                    "Cartesian product of input iterables.  Equivalent to nested for-loops.\n\n" +
+                                    "For example, product(A, B) returns the same as:  ((x,y) for x in A for y in B).\n" +
+                                    "The leftmost iterators are in the outermost for-loop, so the output tuples\n" +
+                                    "cycle in a manner similar to an odometer (with the rightmost element changing\n" +
+                                    "on every iteration).\n\n" +
+                                    "To compute the product of an iterable with itself, specify the number\n" +
+                                    "of repetitions with the optional repeat keyword argument. For example,\n" +
+                                    "product(A, repeat=4) means the same as product(A, A, A, A).\n\n" +
+                                    "product('ab', range(3)) --> ('a',0) ('a',1) ('a',2) ('b',0) ('b',1) ('b',2)\n" +
+                                    "product((0,1), (0,1), (0,1)) --> (0,0,0) (0,0,1) (0,1,0) (0,1,1) (1,0,0) ...")
+    @GenerateNodeFactory
+    public abstract static class ProductNode extends PythonBuiltinNode {
+
+        @Specialization
+        PProduct construct(VirtualFrame frame, Object cls, Object[] args, Object repeatObj,
+                        @Cached GetPoolNode getPoolNode,
+                        @Cached PyNumberAsSizeNode asSizeNode) {
+            int repeat = 1;
+            if (repeatObj != PNone.NO_VALUE) {
+                repeat = asSizeNode.executeExact(frame, repeatObj);
+                if (repeat < 0) {
+                    throw raise(ValueError, ErrorMessages.ITERTOOLS_REPEAT_ARGUMENT_CANNOT_BE_NEGATIVE);
+                }
+            }
+            if (repeat != 0 && args.length > Integer.MAX_VALUE / repeat) {
+                throw raise(OverflowError, ErrorMessages.ITERTOOLS_REPEAT_ARGUMENT_TOO_LARGE);
+            }
+            Object[][] pools = new Object[args.length][];
+            for (int i = 0; i < args.length; i++) {
+                pools[i] = getPoolNode.execute(frame, args[i]);
+            }
+            Object[][] gears = new Object[args.length * repeat][];
+            for (int i = 0; i < repeat; i++) {
+                System.arraycopy(pools, 0, gears, i * pools.length, pools.length);
+            }
+            PProduct self = factory().createProduct(cls);
+            self.setGears(gears);
+            self.setIndices(new int[gears.length]);
+            return self;
+        }
+    }
+
+    @Builtin(name = "repeat", constructsClass = PythonBuiltinClassType.PRepeat, minNumOfPositionalArgs = 2, parameterNames = {"$cls", "object", "times"}, //
+                    doc = "repeat(object [,times]) -> create an iterator which returns the object\n" +
+                                    "for the specified number of times.  If not specified, returns the object\n" +
+                                    "endlessly.")
+    @GenerateNodeFactory
+    public abstract static class RepeatNode extends PythonTernaryBuiltinNode {
+
+        @Specialization
+        PRepeat construct(VirtualFrame frame, Object cls, Object element, Object times,
+                        @Cached PyNumberAsSizeNode asSizeNode) {
+            PRepeat self = factory().createRepeat(cls);
+            self.setElement(element);
+            if (times == PNone.NO_VALUE) {
+                self.setCnt(-1);
+            } else {
+                self.setCnt(Math.max(asSizeNode.executeExact(frame, times), 0));
+            }
+            return self;
+        }
+    }
+
+    @Builtin(name = "starmap", constructsClass = PythonBuiltinClassType.PStarmap, minNumOfPositionalArgs = 3, parameterNames = {"$cls", "function", "iterable"}, //
+                    doc = "Return an iterator whose values are returned from the function evaluated with an argument tuple taken from the given sequence.")
+    @GenerateNodeFactory
+    public abstract static class StarmapNode extends PythonTernaryBuiltinNode {
+
+        @Specialization
+        PStarmap construct(VirtualFrame frame, Object cls, Object fun, Object iterable,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib) {
+            PStarmap self = factory().createStarmap(cls);
+            self.setFun(fun);
+            self.setIterable(lib.getIteratorWithFrame(iterable, frame));
+            return self;
+        }
+    }
+
+    @Builtin(name = "takewhile", constructsClass = PythonBuiltinClassType.PTakewhile, minNumOfPositionalArgs = 3, parameterNames = {"$cls", "predicate", "iterable"}, //
+                    doc = "Return successive entries from an iterable as long as the predicate evaluates to true for each entry.")
+    @GenerateNodeFactory
+    public abstract static class TakewhileNode extends PythonTernaryBuiltinNode {
+
+        @Specialization
+        PTakewhile construct(VirtualFrame frame, Object cls, Object predicate, Object iterable,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib) {
+            PTakewhile self = factory().createTakewhile(cls);
+            self.setPredicate(predicate);
+            self.setIterable(lib.getIteratorWithFrame(iterable, frame));
+            return self;
+        }
+    }
+
+    @Builtin(name = "_tee", constructsClass = PythonBuiltinClassType.PTee, minNumOfPositionalArgs = 2, parameterNames = {"$cls", "iterable"}, //
+                    doc = "Iterator wrapped to make it copyable")
+    @GenerateNodeFactory
+    public abstract static class TeeNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        PTee construct(VirtualFrame frame, @SuppressWarnings("unused") Object cls, Object iterable,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib) {
+            return TeeBuiltins.fromIterator(factory(), lib.getIteratorWithFrame(iterable, frame));
+        }
+    }
+
+    @Builtin(name = "_tee_dataobject", constructsClass = PythonBuiltinClassType.PTeeDataObject, minNumOfPositionalArgs = 4, parameterNames = {"$cls", "iterable", "values", "next"}, //
+                    doc = "teedataobject(iterable, values, next, /)\n--\n\nData container common to multiple tee objects.")
+    @GenerateNodeFactory
+    public abstract static class TeeDataObjectNode extends PythonQuaternaryBuiltinNode {
+
+        @Specialization
+        PTeeDataObject construct(Object cls, Object it, PList values, Object next,
+                        @Cached CopyInternalArrayNode copyNode) {
+            Object[] items = copyNode.execute(values.getSequenceStorage());
+            if (items.length > PTeeDataObject.LINKCELLS) {
+                throw raise(ValueError, ErrorMessages.ITERTOOLS_INVALID_ARGUMENTS_TEE);
+            }
+            PTeeDataObject self = factory().createTeeDataObject(cls);
+            self.setIt(it);
+            System.arraycopy(items, 0, self.getValues(), 0, items.length);
+            self.setNumread(items.length);
+            if (next != PNone.NONE) {
+                if (items.length != PTeeDataObject.LINKCELLS || !(next instanceof PTeeDataObject)) {
+                    throw raise(ValueError, ErrorMessages.ITERTOOLS_INVALID_ARGUMENTS_TEE);
+                }
+                self.setNextlink((PTeeDataObject) next);
+            }
+            return self;
+        }
+
+        @Specialization(guards = "!isList(values)")
+        PTeeDataObject construct(@SuppressWarnings("unused") Object cls, @SuppressWarnings("unused") Object it, Object values, @SuppressWarnings("unused") Object next) {
+            throw raise(TypeError, ErrorMessages.ARG_D_MUST_BE_S_NOT_P, "_tee_dataobject()", 2, "list", values);
+        }
+    }
+
+    @Builtin(name = "tee", minNumOfPositionalArgs = 1, parameterNames = {"iterable", "n"}, doc = "Returns a tuple of n independent iterators.")
+    @GenerateNodeFactory
+    public abstract static class TeeFunctionNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        PTuple tee(VirtualFrame frame, Object iterable, Object nObj,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib,
+                        @Cached PyNumberAsSizeNode asSizeNode,
+                        @Cached CallNode callNode) {
+            int n = nObj == PNone.NO_VALUE ? 2 : asSizeNode.executeExact(frame, nObj);
+            if (n < 0) {
+                throw raise(ValueError, ErrorMessages.ITERTOOLS_N_MUST_BE_AT_LEAST_ZERO);
+            }
+            Object[] result = new Object[n];
+            if (n == 0) {
+                return factory().createTuple(result);
+            }
+            Object it = lib.getIteratorWithFrame(iterable, frame);
+            Object copyFunc = it instanceof PTee ? PNone.NO_VALUE : lib.lookupAttribute(it, frame, "__copy__");
+            if (copyFunc == PNone.NO_VALUE) {
+                PTee tee = it instanceof PTee ? (PTee) it : TeeBuiltins.fromIterator(factory(), it);
+                result[0] = tee;
+                for (int i = 1; i < n; i++) {
+                    result[i] = TeeBuiltins.copy(factory(), tee);
+                }
+            } else {
+                result[0] = it;
+                for (int i = 1; i < n; i++) {
+                    result[i] = callNode.execute(frame, copyFunc);
+                }
+            }
+            return factory().createTuple(result);
+        }
+    }
+
+    @Builtin(name = "zip_longest", constructsClass = PythonBuiltinClassType.PZipLongest, minNumOfPositionalArgs = 1, takesVarArgs = true, keywordOnlyNames = {"fillvalue"}, //
+                    doc = "zip_longest(iter1 [,iter2 [...]], [fillvalue=None]) --> zip_longest object\n\n" +
+                                    "Return a zip_longest object whose .__next__() method returns a tuple where\n" +
+                                    "the i-th element comes from the i-th iterable argument.  The .__next__()\n" +
+                                    "method continues until the longest iterable in the argument sequence\n" +
+                                    "is exhausted and then it raises StopIteration.  When the shorter iterables\n" +
+                                    "are exhausted, the fillvalue is substituted in their place.  The fillvalue\n" +
+                                    "defaults to None or can be specified by a keyword argument.")
+    @GenerateNodeFactory
+    public abstract static class ZipLongestNode extends PythonBuiltinNode {
+
+        @Specialization
+        PZipLongest construct(VirtualFrame frame, Object cls, Object[] args, Object fillValue,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib) {
+            Object[] iterators = new Object[args.length];
+            for (int i = 0; i < args.length; i++) {
+                iterators[i] = lib.getIteratorWithFrame(args[i], frame);
+            }
+            PZipLongest self = factory().createZipLongest(cls);
+            self.setIterators(iterators);
+            self.setNumActive(iterators.length);
+            self.setFillValue(fillValue == PNone.NO_VALUE ? PNone.NONE : fillValue);
+            return self;
+        }
     }
 }
@@ -44,26 +44,54 @@ import java.util.List;
 import java.util.concurrent.Semaphore;
 
 import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.annotations.ArgumentClinic;
+import com.oracle.graal.python.annotations.ArgumentClinic.ClinicConversion;
 import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.PBytes;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.GetItemNode;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.LenNode;
+import com.oracle.graal.python.builtins.objects.exception.OSErrorEnum;
+import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.thread.PSemLock;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
 import com.oracle.graal.python.nodes.ErrorMessages;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryClinicBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryClinicBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.clinic.ArgumentClinicProvider;
 import com.oracle.graal.python.nodes.util.CannotCastException;
 import com.oracle.graal.python.nodes.util.CastToJavaIntExactNode;
 import com.oracle.graal.python.nodes.util.CastToJavaStringNode;
+import com.oracle.graal.python.runtime.GilNode;
+import com.oracle.graal.python.runtime.PosixConstants;
+import com.oracle.graal.python.runtime.PosixSupportLibrary.PosixException;
+import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.PythonCore;
+import com.oracle.graal.python.runtime.SharedMultiprocessingData;
+import com.oracle.graal.python.runtime.SharedMultiprocessingData.ChildContext;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.exception.PythonExitException;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.TruffleContext;
+import com.oracle.truffle.api.TruffleLanguage;
+import com.oracle.truffle.api.TruffleSafepoint;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.CachedLanguage;
+import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.source.Source;
 
 @CoreFunctions(defineModule = "_multiprocessing")
 public class MultiprocessingModuleBuiltins extends PythonBuiltins {
@@ -117,7 +145,8 @@ public class MultiprocessingModuleBuiltins extends PythonBuiltins {
                     semaphorePut(lang, semaphore, name);
                 }
             }
-            return factory().createSemLock(cls, name, kind, semaphore);
+            // unlinked semaphores cannot be looked up by name, so they do not report one
+            return factory().createSemLock(cls, unlink == 0 ? name : null, kind, semaphore);
         }
 
         @TruffleBoundary
@@ -154,4 +183,373 @@ public class MultiprocessingModuleBuiltins extends PythonBuiltins {
             return lang.namedSemaphores.remove(name);
         }
     }
+
+    /**
+     * Blocking operations on in-memory pipes and child contexts wait in slices of this length, so
+     * that the waiting thread can be cancelled in between.
+     */
+    private static final long POLL_INTERVAL_MS = 100;
+
+    @Builtin(name = "_pipe", minNumOfPositionalArgs = 0, parameterNames = {"duplex"})
+    @ArgumentClinic(name = "duplex", conversion = ClinicConversion.Boolean, defaultValue = "false")
+    @GenerateNodeFactory
+    abstract static class PipeNode extends PythonUnaryClinicBuiltinNode {
+
+        @Override
+        protected ArgumentClinicProvider getArgumentClinic() {
+            return MultiprocessingModuleBuiltinsClinicProviders.PipeNodeClinicProviderGen.INSTANCE;
+        }
+
+        @Specialization
+        PTuple pipe(boolean duplex,
+                        @CachedLanguage PythonLanguage lang) {
+            int[] fds = lang.sharedMultiprocessingData.pipe(duplex);
+            return factory().createTuple(new Object[]{fds[0], fds[1]});
+        }
+    }
+
+    @Builtin(name = "_dup", minNumOfPositionalArgs = 1, parameterNames = {"fd"})
+    @ArgumentClinic(name = "fd", conversion = ClinicConversion.Int)
+    @GenerateNodeFactory
+    abstract static class DupNode extends PythonUnaryClinicBuiltinNode {
+
+        @Override
+        protected ArgumentClinicProvider getArgumentClinic() {
+            return MultiprocessingModuleBuiltinsClinicProviders.DupNodeClinicProviderGen.INSTANCE;
+        }
+
+        @Specialization
+        int dup(VirtualFrame frame, int fd,
+                        @CachedLanguage PythonLanguage lang) {
+            try {
+                return lang.sharedMultiprocessingData.dup(fd);
+            } catch (PosixException e) {
+                throw raiseOSErrorFromPosixException(frame, e);
+            }
+        }
+    }
+
+    @Builtin(name = "_close", minNumOfPositionalArgs = 1, parameterNames = {"fd"})
+    @ArgumentClinic(name = "fd", conversion = ClinicConversion.Int)
+    @GenerateNodeFactory
+    abstract static class CloseNode extends PythonUnaryClinicBuiltinNode {
+
+        @Override
+        protected ArgumentClinicProvider getArgumentClinic() {
+            return MultiprocessingModuleBuiltinsClinicProviders.CloseNodeClinicProviderGen.INSTANCE;
+        }
+
+        @Specialization
+        PNone close(VirtualFrame frame, int fd,
+                        @CachedLanguage PythonLanguage lang) {
+            try {
+                lang.sharedMultiprocessingData.close(fd);
+            } catch (PosixException e) {
+                throw raiseOSErrorFromPosixException(frame, e);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "_read", minNumOfPositionalArgs = 2, parameterNames = {"fd", "length"})
+    @ArgumentClinic(name = "fd", conversion = ClinicConversion.Int)
+    @ArgumentClinic(name = "length", conversion = ClinicConversion.Index)
+    @GenerateNodeFactory
+    abstract static class ReadNode extends PythonBinaryClinicBuiltinNode {
+
+        @Override
+        protected ArgumentClinicProvider getArgumentClinic() {
+            return MultiprocessingModuleBuiltinsClinicProviders.ReadNodeClinicProviderGen.INSTANCE;
+        }
+
+        @Specialization
+        PBytes read(VirtualFrame frame, int fd, int length,
+                        @CachedLanguage PythonLanguage lang,
+                        @Cached GilNode gil) {
+            if (length < 0) {
+                throw raiseOSError(frame, OSErrorEnum.EINVAL);
+            }
+            byte[] bytes;
+            try {
+                gil.release(true);
+                try {
+                    do {
+                        bytes = lang.sharedMultiprocessingData.read(fd, length, POLL_INTERVAL_MS);
+                        if (bytes == null) {
+                            TruffleSafepoint.poll(this);
+                        }
+                    } while (bytes == null);
+                } finally {
+                    gil.acquire();
+                }
+            } catch (PosixException e) {
+                throw raiseOSErrorFromPosixException(frame, e);
+            }
+            return factory().createBytes(bytes);
+        }
+    }
+
+    @Builtin(name = "_write", minNumOfPositionalArgs = 2, parameterNames = {"fd", "data"})
+    @ArgumentClinic(name = "fd", conversion = ClinicConversion.Int)
+    @ArgumentClinic(name = "data", conversion = ClinicConversion.Buffer)
+    @GenerateNodeFactory
+    abstract static class WriteNode extends PythonBinaryClinicBuiltinNode {
+
+        @Override
+        protected ArgumentClinicProvider getArgumentClinic() {
+            return MultiprocessingModuleBuiltinsClinicProviders.WriteNodeClinicProviderGen.INSTANCE;
+        }
+
+        @Specialization
+        int write(VirtualFrame frame, int fd, byte[] data,
+                        @CachedLanguage PythonLanguage lang) {
+            try {
+                lang.sharedMultiprocessingData.write(fd, data);
+            } catch (PosixException e) {
+                throw raiseOSErrorFromPosixException(frame, e);
+            }
+            return data.length;
+        }
+    }
+
+    @Builtin(name = "_select", minNumOfPositionalArgs = 1, parameterNames = {"fds", "timeout"})
+    @ArgumentClinic(name = "timeout", conversion = ClinicConversion.Double, defaultValue = "-1.0")
+    @GenerateNodeFactory
+    abstract static class SelectNode extends PythonBinaryClinicBuiltinNode {
+
+        @Override
+        protected ArgumentClinicProvider getArgumentClinic() {
+            return MultiprocessingModuleBuiltinsClinicProviders.SelectNodeClinicProviderGen.INSTANCE;
+        }
+
+        @Specialization
+        PList select(VirtualFrame frame, PTuple fdsTuple, double timeout,
+                        @Cached LenNode lenNode,
+                        @Cached("createNotNormalized()") GetItemNode getItemNode,
+                        @Cached CastToJavaIntExactNode castToIntNode,
+                        @CachedLanguage PythonLanguage lang,
+                        @Cached GilNode gil) {
+            int[] fds = convertFdTuple(frame, this, fdsTuple, lenNode, getItemNode, castToIntNode);
+            // a negative timeout waits forever
+            long deadline = timeout < 0 ? Long.MAX_VALUE : currentTimeMillis() + (long) (timeout * 1000);
+            int[] ready;
+            try {
+                gil.release(true);
+                try {
+                    while (true) {
+                        long remaining = deadline - currentTimeMillis();
+                        ready = lang.sharedMultiprocessingData.select(fds, Math.max(0, Math.min(remaining, POLL_INTERVAL_MS)));
+                        if (ready.length > 0 || remaining <= 0) {
+                            break;
+                        }
+                        TruffleSafepoint.poll(this);
+                    }
+                } finally {
+                    gil.acquire();
+                }
+            } catch (PosixException e) {
+                throw raiseOSErrorFromPosixException(frame, e);
+            }
+            Object[] result = new Object[ready.length];
+            for (int i = 0; i < ready.length; i++) {
+                result[i] = ready[i];
+            }
+            return factory().createList(result);
+        }
+
+        @Fallback
+        Object select(Object fds, @SuppressWarnings("unused") Object timeout) {
+            throw raise(PythonBuiltinClassType.TypeError, ErrorMessages.ARG_D_MUST_BE_S_NOT_P, "_select()", 1, "tuple", fds);
+        }
+
+        @TruffleBoundary
+        private static long currentTimeMillis() {
+            return System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Starts a new child context on a new thread and runs
+     * {@code multiprocessing.popen_truffleprocess.spawn_truffleprocess(fd)} in it. The child owns
+     * the in-memory pipe ends in {@code keep_fds}, which are closed when it exits. Returns the id of
+     * the new thread, which identifies the child in {@code _waittid} and
+     * {@code _terminate_spawned_thread}.
+     */
+    @Builtin(name = "_spawn_context", minNumOfPositionalArgs = 2, parameterNames = {"fd", "keep_fds"})
+    @ArgumentClinic(name = "fd", conversion = ClinicConversion.Int)
+    @GenerateNodeFactory
+    abstract static class SpawnContextNode extends PythonBinaryClinicBuiltinNode {
+
+        @Override
+        protected ArgumentClinicProvider getArgumentClinic() {
+            return MultiprocessingModuleBuiltinsClinicProviders.SpawnContextNodeClinicProviderGen.INSTANCE;
+        }
+
+        @Specialization
+        long spawn(VirtualFrame frame, int fd, PTuple keepFdsTuple,
+                        @Cached LenNode lenNode,
+                        @Cached("createNotNormalized()") GetItemNode getItemNode,
+                        @Cached CastToJavaIntExactNode castToIntNode,
+                        @CachedLanguage PythonLanguage lang) {
+            int[] keepFds = convertFdTuple(frame, this, keepFdsTuple, lenNode, getItemNode, castToIntNode);
+            return spawnContext(getContext(), lang.sharedMultiprocessingData, fd, keepFds);
+        }
+
+        @Fallback
+        long spawn(@SuppressWarnings("unused") Object fd, Object keepFds) {
+            throw raise(PythonBuiltinClassType.TypeError, ErrorMessages.ARG_D_MUST_BE_S_NOT_P, "_spawn_context()", 2, "tuple", keepFds);
+        }
+
+        @TruffleBoundary
+        private static long spawnContext(PythonContext context, SharedMultiprocessingData data, int fd, int[] keepFds) {
+            TruffleLanguage.Env env = context.getEnv();
+            // the child shares the engine, and with it all code compiled so far
+            TruffleContext truffleContext = env.newContextBuilder().build();
+            ChildContext child = new ChildContext(truffleContext, keepFds);
+            Thread thread = env.createThread(new ChildContextRunnable(data, child, fd), truffleContext, context.getThreadGroup());
+            child.setThread(thread);
+            long tid = thread.getId();
+            data.addChild(tid, child);
+            thread.start();
+            return tid;
+        }
+    }
+
+    private static final class ChildContextRunnable implements Runnable {
+        private static final int SIGTERM = 15;
+
+        private final SharedMultiprocessingData data;
+        private final ChildContext child;
+        private final int fd;
+
+        ChildContextRunnable(SharedMultiprocessingData data, ChildContext child, int fd) {
+            this.data = data;
+            this.child = child;
+            this.fd = fd;
+        }
+
+        @Override
+        public void run() {
+            int exitCode = 1;
+            try {
+                Source source = Source.newBuilder(PythonLanguage.ID, "from multiprocessing.popen_truffleprocess import spawn_truffleprocess\nspawn_truffleprocess(" + fd + ")\n",
+                                "<spawned-child-context>").internal(true).build();
+                CallTarget callTarget = PythonLanguage.getContext().getEnv().parsePublic(source);
+                callTarget.call();
+                exitCode = 0;
+            } catch (PythonExitException e) {
+                exitCode = e.getExceptionExitStatus();
+            } catch (PException e) {
+                // the error was already reported by the top level exception handler
+                exitCode = 1;
+            } finally {
+                data.childFinished(child, child.isTerminated() ? -SIGTERM : exitCode);
+            }
+        }
+    }
+
+    @Builtin(name = "_waittid", minNumOfPositionalArgs = 2, parameterNames = {"tid", "options"})
+    @ArgumentClinic(name = "tid", conversion = ClinicConversion.Long)
+    @ArgumentClinic(name = "options", conversion = ClinicConversion.Int)
+    @GenerateNodeFactory
+    abstract static class WaitTidNode extends PythonBinaryClinicBuiltinNode {
+
+        @Override
+        protected ArgumentClinicProvider getArgumentClinic() {
+            return MultiprocessingModuleBuiltinsClinicProviders.WaitTidNodeClinicProviderGen.INSTANCE;
+        }
+
+        @Specialization
+        Object waittid(VirtualFrame frame, long tid, int options,
+                        @CachedLanguage PythonLanguage lang,
+                        @Cached GilNode gil) {
+            SharedMultiprocessingData data = lang.sharedMultiprocessingData;
+            ChildContext child = data.getChild(tid);
+            if (child == null) {
+                throw raiseOSError(frame, OSErrorEnum.ECHILD);
+            }
+            if ((options & PosixConstants.WNOHANG.value) != 0 && !child.isFinished()) {
+                return PNone.NONE;
+            }
+            gil.release(true);
+            try {
+                while (!join(child.getThread())) {
+                    TruffleSafepoint.poll(this);
+                }
+                if (!child.isTerminated()) {
+                    // terminated children were already closed when they were cancelled
+                    closeContext(child.getContext());
+                }
+            } finally {
+                gil.acquire();
+            }
+            data.removeChild(tid);
+            return child.getExitCode();
+        }
+
+        @TruffleBoundary
+        private static boolean join(Thread thread) {
+            try {
+                thread.join(POLL_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return !thread.isAlive();
+        }
+
+        @TruffleBoundary
+        private static void closeContext(TruffleContext context) {
+            context.close();
+        }
+    }
+
+    @Builtin(name = "_terminate_spawned_thread", minNumOfPositionalArgs = 1, parameterNames = {"tid"})
+    @ArgumentClinic(name = "tid", conversion = ClinicConversion.Long)
+    @GenerateNodeFactory
+    abstract static class TerminateSpawnedThreadNode extends PythonUnaryClinicBuiltinNode {
+
+        @Override
+        protected ArgumentClinicProvider getArgumentClinic() {
+            return MultiprocessingModuleBuiltinsClinicProviders.TerminateSpawnedThreadNodeClinicProviderGen.INSTANCE;
+        }
+
+        @Specialization
+        PNone terminate(VirtualFrame frame, long tid,
+                        @CachedLanguage PythonLanguage lang,
+                        @Cached GilNode gil) {
+            ChildContext child = lang.sharedMultiprocessingData.getChild(tid);
+            if (child == null) {
+                throw raiseOSError(frame, OSErrorEnum.ESRCH);
+            }
+            if (!child.isFinished()) {
+                child.setTerminated();
+                gil.release(true);
+                try {
+                    cancel(child.getContext(), this);
+                } finally {
+                    gil.acquire();
+                }
+            }
+            return PNone.NONE;
+        }
+
+        @TruffleBoundary
+        private static void cancel(TruffleContext context, Node location) {
+            context.closeCancelled(location, "terminated");
+        }
+    }
+
+    private static int[] convertFdTuple(VirtualFrame frame, PythonBuiltinBaseNode node, PTuple fdTuple, LenNode lenNode, GetItemNode getItemNode, CastToJavaIntExactNode castToIntNode) {
+        SequenceStorage storage = fdTuple.getSequenceStorage();
+        int len = lenNode.execute(storage);
+        int[] fds = new int[len];
+        for (int i = 0; i < len; ++i) {
+            try {
+                fds[i] = castToIntNode.execute(getItemNode.execute(frame, storage, i));
+            } catch (CannotCastException e) {
+                throw node.raise(PythonBuiltinClassType.TypeError, ErrorMessages.INTEGER_REQUIRED);
+            }
+        }
+        return fds;
+    }
 }
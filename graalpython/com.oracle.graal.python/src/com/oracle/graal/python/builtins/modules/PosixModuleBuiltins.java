@@ -590,6 +590,38 @@ public class PosixModuleBuiltins extends PythonBuiltins {
                 gil.acquire();
             }
         }
+
+        /**
+         * Like {@link #read}, but stores the data directly into {@code buffer} at {@code offset}
+         * instead of allocating a new bytes object.
+         */
+        public int readInto(VirtualFrame frame, int fd, byte[] buffer, int offset, int length,
+                        PosixSupportLibrary posixLib,
+                        BranchProfile errorProfile, GilNode gil) throws PosixException {
+            if (length < 0) {
+                int error = OSErrorEnum.EINVAL.getNumber();
+                throw raiseOSError(frame, error, posixLib.strerror(getPosixSupport(), error));
+            }
+            gil.release(true);
+            try {
+                while (true) {
+                    try {
+                        return (int) posixLib.readInto(getPosixSupport(), fd, buffer, offset, length);
+                    } catch (PosixException e) {
+                        errorProfile.enter();
+                        if (e.getErrorCode() == OSErrorEnum.EINTR.getNumber()) {
+                            gil.acquire(); // need gil to trigger actions or construct OSError
+                            getContext().triggerAsyncActions();
+                            gil.release(true); // continue read loop without gil
+                        } else {
+                            throw e;
+                        }
+                    }
+                }
+            } finally {
+                gil.acquire();
+            }
+        }
     }
 
     @Builtin(name = "write", minNumOfPositionalArgs = 2, parameterNames = {"fd", "data"})
@@ -40,19 +40,97 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.ValueError;
+import static com.oracle.graal.python.nodes.ErrorMessages.EMBEDDED_NULL_BYTE;
+
+import java.util.List;
+
+import com.oracle.graal.python.annotations.ArgumentClinic;
+import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.exception.OSErrorEnum;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryClinicBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryClinicBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.clinic.ArgumentClinicProvider;
+import com.oracle.graal.python.runtime.PosixSupportLibrary;
+import com.oracle.graal.python.runtime.PosixSupportLibrary.PosixException;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
-import java.util.ArrayList;
-import java.util.List;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.library.CachedLibrary;
+import com.oracle.truffle.api.profiles.BranchProfile;
 
 @CoreFunctions(defineModule = "_posixshmem")
 public class PosixShMemModuleBuiltins extends PythonBuiltins {
 
     @Override
     protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
-        return new ArrayList<>();
+        return PosixShMemModuleBuiltinsFactory.getFactories();
     }
 
+    @Builtin(name = "shm_open", minNumOfPositionalArgs = 2, parameterNames = {"path", "flags", "mode"})
+    @ArgumentClinic(name = "path", conversion = ArgumentClinic.ClinicConversion.String)
+    @ArgumentClinic(name = "flags", conversion = ArgumentClinic.ClinicConversion.Int)
+    @ArgumentClinic(name = "mode", conversion = ArgumentClinic.ClinicConversion.Int, defaultValue = "0777")
+    @GenerateNodeFactory
+    abstract static class ShmOpenNode extends PythonTernaryClinicBuiltinNode {
+
+        @Override
+        protected ArgumentClinicProvider getArgumentClinic() {
+            return PosixShMemModuleBuiltinsClinicProviders.ShmOpenNodeClinicProviderGen.INSTANCE;
+        }
+
+        @Specialization
+        int shmOpen(VirtualFrame frame, String path, int flags, int mode,
+                        @CachedLibrary("getPosixSupport()") PosixSupportLibrary posixLib,
+                        @Cached BranchProfile errorProfile) {
+            Object name = posixLib.createPathFromString(getPosixSupport(), path);
+            if (name == null) {
+                throw raise(ValueError, EMBEDDED_NULL_BYTE);
+            }
+            while (true) {
+                try {
+                    return posixLib.shmOpen(getPosixSupport(), name, flags, mode);
+                } catch (PosixException e) {
+                    errorProfile.enter();
+                    if (e.getErrorCode() == OSErrorEnum.EINTR.getNumber()) {
+                        getContext().triggerAsyncActions();
+                    } else {
+                        throw raiseOSErrorFromPosixException(frame, e, path);
+                    }
+                }
+            }
+        }
+    }
+
+    @Builtin(name = "shm_unlink", minNumOfPositionalArgs = 1, parameterNames = {"path"})
+    @ArgumentClinic(name = "path", conversion = ArgumentClinic.ClinicConversion.String)
+    @GenerateNodeFactory
+    abstract static class ShmUnlinkNode extends PythonUnaryClinicBuiltinNode {
+
+        @Override
+        protected ArgumentClinicProvider getArgumentClinic() {
+            return PosixShMemModuleBuiltinsClinicProviders.ShmUnlinkNodeClinicProviderGen.INSTANCE;
+        }
+
+        @Specialization
+        PNone shmUnlink(VirtualFrame frame, String path,
+                        @CachedLibrary("getPosixSupport()") PosixSupportLibrary posixLib) {
+            Object name = posixLib.createPathFromString(getPosixSupport(), path);
+            if (name == null) {
+                throw raise(ValueError, EMBEDDED_NULL_BYTE);
+            }
+            try {
+                posixLib.shmUnlink(getPosixSupport(), name);
+            } catch (PosixException e) {
+                throw raiseOSErrorFromPosixException(frame, e, path);
+            }
+            return PNone.NONE;
+        }
+    }
 }
@@ -2074,8 +2074,11 @@ public class PythonCextBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class PyTruffleHandleCacheCreate extends PythonUnaryBuiltinNode {
         @Specialization
-        static Object createCache(TruffleObject ptrToResolveHandle) {
-            return new HandleCache(ptrToResolveHandle);
+        Object createCache(TruffleObject ptrToResolveHandle) {
+            PythonContext context = getContext();
+            HandleCache cache = new HandleCache(ptrToResolveHandle, context.getOption(PythonOptions.CApiHandleCacheSize));
+            context.setCApiHandleCache(cache);
+            return cache;
         }
     }
 
@@ -43,24 +43,38 @@ package com.oracle.graal.python.builtins.modules;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
 
+import java.io.ByteArrayOutputStream;
 import java.io.UnsupportedEncodingException;
 import java.util.List;
 
 import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.annotations.ArgumentClinic;
+import com.oracle.graal.python.annotations.ArgumentClinic.ClinicConversion;
 import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.SequenceNodes.GetObjectArrayNode;
 import com.oracle.graal.python.builtins.objects.function.PFunction;
+import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.ErrorMessages;
 import com.oracle.graal.python.nodes.call.CallNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonClinicBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.clinic.ArgumentClinicProvider;
 import com.oracle.graal.python.nodes.truffle.PythonArithmeticTypes;
+import com.oracle.graal.python.nodes.util.CannotCastException;
 import com.oracle.graal.python.nodes.util.CastToJavaStringNode;
 import com.oracle.graal.python.runtime.ExecutionContext.IndirectCallContext;
 import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.PythonCore;
 import com.oracle.graal.python.runtime.PythonOptions;
+import com.oracle.graal.python.util.ArrayBuilder;
+import com.oracle.graal.python.util.PythonUtils;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
@@ -73,6 +87,7 @@ import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.interop.ArityException;
 import com.oracle.truffle.api.interop.ExceptionType;
 import com.oracle.truffle.api.interop.InteropLibrary;
+import com.oracle.truffle.api.interop.UnknownIdentifierException;
 import com.oracle.truffle.api.interop.UnsupportedMessageException;
 import com.oracle.truffle.api.interop.UnsupportedTypeException;
 import com.oracle.truffle.api.library.CachedLibrary;
@@ -220,4 +235,354 @@ public class SREModuleBuiltins extends PythonBuiltins {
             }
         }
     }
+
+    /**
+     * Base class for the nodes running the {@code findall}, {@code split} and {@code sub} loops
+     * directly on a compiled regex. The matches are only accessed through the interop protocol of
+     * the regex result, so no Python {@code Match} object is created per match (unless a callable
+     * replacement needs one) and groups are only extracted when they are needed.
+     */
+    abstract static class TRegexLoopNode extends PythonClinicBuiltinNode {
+
+        protected final Object exec(InteropLibrary execLib, Object callable, Object input, int fromIndex) {
+            try {
+                return execLib.execute(callable, input, fromIndex);
+            } catch (ArityException | UnsupportedTypeException | UnsupportedMessageException e) {
+                throw raise(TypeError, "%s", e);
+            }
+        }
+
+        protected static boolean isMatch(InteropLibrary resultLib, Object result) {
+            try {
+                return resultLib.asBoolean(resultLib.readMember(result, "isMatch"));
+            } catch (UnsupportedMessageException | UnknownIdentifierException e) {
+                throw CompilerDirectives.shouldNotReachHere();
+            }
+        }
+
+        protected static int getStart(InteropLibrary resultLib, Object result, int groupIndex) {
+            return getPosition(resultLib, result, "getStart", groupIndex);
+        }
+
+        protected static int getEnd(InteropLibrary resultLib, Object result, int groupIndex) {
+            return getPosition(resultLib, result, "getEnd", groupIndex);
+        }
+
+        private static int getPosition(InteropLibrary resultLib, Object result, String member, int groupIndex) {
+            try {
+                return resultLib.asInt(resultLib.invokeMember(result, member, groupIndex));
+            } catch (UnsupportedMessageException | UnknownIdentifierException | ArityException | UnsupportedTypeException e) {
+                throw CompilerDirectives.shouldNotReachHere();
+            }
+        }
+
+        /**
+         * Returns the input as a Java string, or the contents of a bytes-like input as a byte
+         * array.
+         */
+        protected final Object getInputData(Object input, PythonObjectLibrary bufferLib, CastToJavaStringNode castToStringNode) {
+            if (input instanceof String || input instanceof PString) {
+                return castToStringNode.execute(input);
+            }
+            try {
+                return bufferLib.getBufferBytes(input);
+            } catch (UnsupportedMessageException e) {
+                throw raise(TypeError, ErrorMessages.EXPECTED_STR_OR_BYTESLIKE_OBJ);
+            }
+        }
+
+        /**
+         * Converts a literal part of a replacement to the same representation as the input data.
+         */
+        protected final Object getLiteralData(Object literal, boolean binary, PythonObjectLibrary bufferLib, CastToJavaStringNode castToStringNode) {
+            if (binary) {
+                try {
+                    return bufferLib.getBufferBytes(literal);
+                } catch (UnsupportedMessageException e) {
+                    throw raise(TypeError, ErrorMessages.EXPECTED_BYTESLIKE_GOT_P, literal);
+                }
+            }
+            try {
+                return castToStringNode.execute(literal);
+            } catch (CannotCastException e) {
+                throw raise(TypeError, ErrorMessages.EXPECTED_STR_INSTANCE_P, literal);
+            }
+        }
+
+        protected static int length(Object data) {
+            return data instanceof String ? ((String) data).length() : ((byte[]) data).length;
+        }
+
+        protected final Object slice(Object data, int start, int end) {
+            if (data instanceof String) {
+                return PString.substring((String) data, start, end);
+            }
+            return factory().createBytes(PythonUtils.arrayCopyOfRange((byte[]) data, start, end));
+        }
+
+        /**
+         * The contents of a group, or an empty string if the group did not participate in the
+         * match.
+         */
+        protected final Object group(InteropLibrary resultLib, Object data, Object result, int groupIndex) {
+            int start = getStart(resultLib, result, groupIndex);
+            if (start < 0) {
+                return data instanceof String ? "" : factory().createBytes(PythonUtils.EMPTY_BYTE_ARRAY);
+            }
+            return slice(data, start, getEnd(resultLib, result, groupIndex));
+        }
+    }
+
+    @Builtin(name = "tregex_findall", minNumOfPositionalArgs = 5, parameterNames = {"exec", "string", "pos", "endpos", "group_count"})
+    @ArgumentClinic(name = "pos", conversion = ClinicConversion.Int)
+    @ArgumentClinic(name = "endpos", conversion = ClinicConversion.Int)
+    @ArgumentClinic(name = "group_count", conversion = ClinicConversion.Int)
+    @GenerateNodeFactory
+    abstract static class TRegexFindAllNode extends TRegexLoopNode {
+
+        @Override
+        protected ArgumentClinicProvider getArgumentClinic() {
+            return SREModuleBuiltinsClinicProviders.TRegexFindAllNodeClinicProviderGen.INSTANCE;
+        }
+
+        @Specialization(limit = "1")
+        PList findall(VirtualFrame frame, Object callable, Object string, int pos, int endpos, int groupCount,
+                        @CachedLibrary("callable") InteropLibrary execLib,
+                        @CachedLibrary(limit = "3") InteropLibrary resultLib,
+                        @CachedLibrary(limit = "3") PythonObjectLibrary bufferLib,
+                        @Cached CastToJavaStringNode castToStringNode,
+                        @CachedContext(PythonLanguage.class) PythonContext context) {
+            Object data = getInputData(string, bufferLib, castToStringNode);
+            ArrayBuilder<Object> matches = new ArrayBuilder<>();
+            Object state = IndirectCallContext.enter(frame, context, this);
+            try {
+                int searchPos = pos;
+                while (searchPos <= endpos) {
+                    Object result = exec(execLib, callable, string, searchPos);
+                    if (!isMatch(resultLib, result)) {
+                        break;
+                    }
+                    int start = getStart(resultLib, result, 0);
+                    int end = getEnd(resultLib, result, 0);
+                    if (groupCount == 1) {
+                        matches.add(slice(data, start, end));
+                    } else if (groupCount == 2) {
+                        matches.add(group(resultLib, data, result, 1));
+                    } else {
+                        Object[] groups = new Object[groupCount - 1];
+                        for (int i = 1; i < groupCount; i++) {
+                            groups[i - 1] = group(resultLib, data, result, i);
+                        }
+                        matches.add(factory().createTuple(groups));
+                    }
+                    searchPos = start == end ? end + 1 : end;
+                }
+            } finally {
+                IndirectCallContext.exit(frame, context, state);
+            }
+            return factory().createList(matches.toArray(new Object[0]));
+        }
+    }
+
+    @Builtin(name = "tregex_split", minNumOfPositionalArgs = 4, parameterNames = {"exec", "string", "maxsplit", "group_count"})
+    @ArgumentClinic(name = "maxsplit", conversion = ClinicConversion.Int)
+    @ArgumentClinic(name = "group_count", conversion = ClinicConversion.Int)
+    @GenerateNodeFactory
+    abstract static class TRegexSplitNode extends TRegexLoopNode {
+
+        @Override
+        protected ArgumentClinicProvider getArgumentClinic() {
+            return SREModuleBuiltinsClinicProviders.TRegexSplitNodeClinicProviderGen.INSTANCE;
+        }
+
+        @Specialization(limit = "1")
+        PList split(VirtualFrame frame, Object callable, Object string, int maxsplit, int groupCount,
+                        @CachedLibrary("callable") InteropLibrary execLib,
+                        @CachedLibrary(limit = "3") InteropLibrary resultLib,
+                        @CachedLibrary(limit = "3") PythonObjectLibrary bufferLib,
+                        @Cached CastToJavaStringNode castToStringNode,
+                        @CachedContext(PythonLanguage.class) PythonContext context) {
+            Object data = getInputData(string, bufferLib, castToStringNode);
+            int length = length(data);
+            ArrayBuilder<Object> parts = new ArrayBuilder<>();
+            Object state = IndirectCallContext.enter(frame, context, this);
+            try {
+                int n = 0;
+                int collectPos = 0;
+                int searchPos = 0;
+                while ((maxsplit == 0 || n < maxsplit) && searchPos <= length) {
+                    Object result = exec(execLib, callable, string, searchPos);
+                    if (!isMatch(resultLib, result)) {
+                        break;
+                    }
+                    n++;
+                    int start = getStart(resultLib, result, 0);
+                    int end = getEnd(resultLib, result, 0);
+                    parts.add(slice(data, collectPos, start));
+                    for (int i = 1; i < groupCount; i++) {
+                        int groupStart = getStart(resultLib, result, i);
+                        parts.add(groupStart >= 0 ? slice(data, groupStart, getEnd(resultLib, result, i)) : PNone.NONE);
+                    }
+                    collectPos = end;
+                    searchPos = start == end ? end + 1 : end;
+                }
+                parts.add(slice(data, collectPos, length));
+            } finally {
+                IndirectCallContext.exit(frame, context, state);
+            }
+            return factory().createList(parts.toArray(new Object[0]));
+        }
+    }
+
+    /**
+     * Implements {@code subn}. The replacement is either a precompiled template, which is a tuple
+     * of literal strings or bytes and {@code int} group references, or a callable. A callable is
+     * called with the {@code Match} object that {@code match_factory} creates from the regex
+     * result; it is the only case in which a {@code Match} is created per match.
+     */
+    @Builtin(name = "tregex_subn", minNumOfPositionalArgs = 4, parameterNames = {"exec", "string", "count", "repl", "match_factory"})
+    @ArgumentClinic(name = "count", conversion = ClinicConversion.Int)
+    @GenerateNodeFactory
+    abstract static class TRegexSubnNode extends TRegexLoopNode {
+
+        @Override
+        protected ArgumentClinicProvider getArgumentClinic() {
+            return SREModuleBuiltinsClinicProviders.TRegexSubnNodeClinicProviderGen.INSTANCE;
+        }
+
+        @Specialization(limit = "1")
+        PTuple subnTemplate(VirtualFrame frame, Object callable, Object string, int count, PTuple template, @SuppressWarnings("unused") PNone matchFactory,
+                        @CachedLibrary("callable") InteropLibrary execLib,
+                        @CachedLibrary(limit = "3") InteropLibrary resultLib,
+                        @CachedLibrary(limit = "3") PythonObjectLibrary bufferLib,
+                        @Cached CastToJavaStringNode castToStringNode,
+                        @Cached GetObjectArrayNode getObjectArrayNode,
+                        @CachedContext(PythonLanguage.class) PythonContext context) {
+            Object data = getInputData(string, bufferLib, castToStringNode);
+            boolean binary = data instanceof byte[];
+            int length = length(data);
+            Object[] templateParts = getObjectArrayNode.execute(template);
+            Object[] parts = new Object[templateParts.length];
+            for (int i = 0; i < parts.length; i++) {
+                Object part = templateParts[i];
+                parts[i] = part instanceof Integer ? part : getLiteralData(part, binary, bufferLib, castToStringNode);
+            }
+            StringBuilder sb = binary ? null : PythonUtils.newStringBuilder(length);
+            ByteArrayOutputStream bytes = binary ? new ByteArrayOutputStream(length) : null;
+            int n = 0;
+            Object state = IndirectCallContext.enter(frame, context, this);
+            try {
+                int pos = 0;
+                while ((count == 0 || n < count) && pos <= length) {
+                    Object result = exec(execLib, callable, string, pos);
+                    if (!isMatch(resultLib, result)) {
+                        break;
+                    }
+                    n++;
+                    int start = getStart(resultLib, result, 0);
+                    int end = getEnd(resultLib, result, 0);
+                    append(sb, bytes, data, pos, start);
+                    for (Object part : parts) {
+                        if (part instanceof Integer) {
+                            int groupIndex = (int) part;
+                            int groupStart = getStart(resultLib, result, groupIndex);
+                            if (groupStart >= 0) {
+                                append(sb, bytes, data, groupStart, getEnd(resultLib, result, groupIndex));
+                            }
+                        } else {
+                            append(sb, bytes, part, 0, length(part));
+                        }
+                    }
+                    pos = appendEmptyMatchSkip(sb, bytes, data, start, end, length);
+                }
+                if (pos < length) {
+                    append(sb, bytes, data, pos, length);
+                }
+            } finally {
+                IndirectCallContext.exit(frame, context, state);
+            }
+            return createResult(sb, bytes, n);
+        }
+
+        @Specialization(guards = "!isPNone(matchFactory)", limit = "1")
+        PTuple subnCallable(VirtualFrame frame, Object callable, Object string, int count, Object repl, Object matchFactory,
+                        @CachedLibrary("callable") InteropLibrary execLib,
+                        @CachedLibrary(limit = "3") InteropLibrary resultLib,
+                        @CachedLibrary(limit = "3") PythonObjectLibrary bufferLib,
+                        @Cached CastToJavaStringNode castToStringNode,
+                        @Cached CallNode callFactoryNode,
+                        @Cached CallNode callReplNode,
+                        @CachedContext(PythonLanguage.class) PythonContext context) {
+            Object data = getInputData(string, bufferLib, castToStringNode);
+            boolean binary = data instanceof byte[];
+            int length = length(data);
+            StringBuilder sb = binary ? null : PythonUtils.newStringBuilder(length);
+            ByteArrayOutputStream bytes = binary ? new ByteArrayOutputStream(length) : null;
+            int n = 0;
+            int pos = 0;
+            while ((count == 0 || n < count) && pos <= length) {
+                Object result;
+                Object state = IndirectCallContext.enter(frame, context, this);
+                try {
+                    result = exec(execLib, callable, string, pos);
+                } finally {
+                    IndirectCallContext.exit(frame, context, state);
+                }
+                if (!isMatch(resultLib, result)) {
+                    break;
+                }
+                n++;
+                int start = getStart(resultLib, result, 0);
+                int end = getEnd(resultLib, result, 0);
+                append(sb, bytes, data, pos, start);
+                Object replacement = callReplNode.execute(frame, repl, callFactoryNode.execute(frame, matchFactory, result));
+                if (replacement != PNone.NONE) {
+                    Object replacementData = getLiteralData(replacement, binary, bufferLib, castToStringNode);
+                    append(sb, bytes, replacementData, 0, length(replacementData));
+                }
+                pos = appendEmptyMatchSkip(sb, bytes, data, start, end, length);
+            }
+            if (pos < length) {
+                append(sb, bytes, data, pos, length);
+            }
+            return createResult(sb, bytes, n);
+        }
+
+        /**
+         * After an empty match, the character at its position is copied and the search continues
+         * after it. Returns the next search position.
+         */
+        private static int appendEmptyMatchSkip(StringBuilder sb, ByteArrayOutputStream bytes, Object data, int start, int end, int length) {
+            if (start == end) {
+                if (end < length) {
+                    append(sb, bytes, data, end, end + 1);
+                }
+                return end + 1;
+            }
+            return end;
+        }
+
+        private PTuple createResult(StringBuilder sb, ByteArrayOutputStream bytes, int n) {
+            Object result = sb == null ? factory().createBytes(toByteArray(bytes)) : PythonUtils.sbToString(sb);
+            return factory().createTuple(new Object[]{result, n});
+        }
+
+        private static void append(StringBuilder sb, ByteArrayOutputStream bytes, Object data, int start, int end) {
+            if (sb != null) {
+                PythonUtils.append(sb, (String) data, start, end);
+            } else {
+                write(bytes, (byte[]) data, start, end - start);
+            }
+        }
+
+        @TruffleBoundary
+        private static void write(ByteArrayOutputStream bytes, byte[] data, int offset, int len) {
+            bytes.write(data, offset, len);
+        }
+
+        @TruffleBoundary
+        private static byte[] toByteArray(ByteArrayOutputStream bytes) {
+            return bytes.toByteArray();
+        }
+    }
 }
@@ -56,7 +56,9 @@ import com.oracle.graal.python.builtins.objects.floats.PFloat;
 import com.oracle.graal.python.builtins.objects.function.PArguments;
 import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.builtins.objects.select.PPoll;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.lib.PyNumberAsSizeNode;
 import com.oracle.graal.python.nodes.ErrorMessages;
 import com.oracle.graal.python.nodes.PGuards;
 import com.oracle.graal.python.nodes.PNodeWithRaise;
@@ -65,6 +67,8 @@ import com.oracle.graal.python.nodes.builtins.ListNodes.FastConstructListNode;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallBinaryNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
 import com.oracle.graal.python.runtime.EmulatedPosixSupport;
 import com.oracle.graal.python.runtime.PosixResources;
 import com.oracle.graal.python.runtime.PosixSupportLibrary;
@@ -94,6 +98,33 @@ public class SelectModuleBuiltins extends PythonBuiltins {
 
     public SelectModuleBuiltins() {
         builtinConstants.put("error", PythonErrorType.OSError);
+        builtinConstants.put("POLLIN", PPoll.POLLIN);
+        builtinConstants.put("POLLPRI", PPoll.POLLPRI);
+        builtinConstants.put("POLLOUT", PPoll.POLLOUT);
+        builtinConstants.put("POLLERR", PPoll.POLLERR);
+        builtinConstants.put("POLLHUP", PPoll.POLLHUP);
+        builtinConstants.put("POLLNVAL", PPoll.POLLNVAL);
+        builtinConstants.put("POLLRDNORM", PPoll.POLLRDNORM);
+        builtinConstants.put("POLLRDBAND", PPoll.POLLRDBAND);
+        builtinConstants.put("POLLWRNORM", PPoll.POLLWRNORM);
+        builtinConstants.put("POLLWRBAND", PPoll.POLLWRBAND);
+        builtinConstants.put("POLLMSG", PPoll.POLLMSG);
+        builtinConstants.put("POLLRDHUP", PPoll.POLLRDHUP);
+        builtinConstants.put("EPOLLIN", PPoll.POLLIN);
+        builtinConstants.put("EPOLLPRI", PPoll.POLLPRI);
+        builtinConstants.put("EPOLLOUT", PPoll.POLLOUT);
+        builtinConstants.put("EPOLLERR", PPoll.POLLERR);
+        builtinConstants.put("EPOLLHUP", PPoll.POLLHUP);
+        builtinConstants.put("EPOLLRDNORM", PPoll.POLLRDNORM);
+        builtinConstants.put("EPOLLRDBAND", PPoll.POLLRDBAND);
+        builtinConstants.put("EPOLLWRNORM", PPoll.POLLWRNORM);
+        builtinConstants.put("EPOLLWRBAND", PPoll.POLLWRBAND);
+        builtinConstants.put("EPOLLMSG", PPoll.POLLMSG);
+        builtinConstants.put("EPOLLRDHUP", PPoll.POLLRDHUP);
+        builtinConstants.put("EPOLLEXCLUSIVE", PPoll.EPOLLEXCLUSIVE);
+        builtinConstants.put("EPOLLONESHOT", PPoll.EPOLLONESHOT);
+        builtinConstants.put("EPOLLET", PPoll.EPOLLET);
+        builtinConstants.put("EPOLL_CLOEXEC", PPoll.EPOLL_CLOEXEC);
     }
 
     @Override
@@ -228,12 +259,37 @@ public class SelectModuleBuiltins extends PythonBuiltins {
         }
     }
 
-    static final long US_TO_NS = 1000L;
-    static final long MS_TO_US = 1000L;
-    static final long SEC_TO_MS = 1000L;
-    static final long MS_TO_NS = MS_TO_US * US_TO_NS;
-    static final long SEC_TO_NS = SEC_TO_MS * MS_TO_NS;
-    static final long SEC_TO_US = SEC_TO_MS * MS_TO_US;
+    @Builtin(name = "poll", minNumOfPositionalArgs = 1, parameterNames = {"$cls"}, constructsClass = PythonBuiltinClassType.PPoll)
+    @GenerateNodeFactory
+    abstract static class PollNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PPoll poll(Object cls) {
+            return factory().createPoll(cls);
+        }
+    }
+
+    @Builtin(name = "epoll", minNumOfPositionalArgs = 1, parameterNames = {"$cls", "sizehint", "flags"}, constructsClass = PythonBuiltinClassType.PEpoll)
+    @GenerateNodeFactory
+    abstract static class EpollNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        PPoll epoll(VirtualFrame frame, Object cls, Object sizehint, @SuppressWarnings("unused") Object flags,
+                        @Cached PyNumberAsSizeNode asSizeNode) {
+            if (!PGuards.isNoValue(sizehint)) {
+                int hint = asSizeNode.executeExact(frame, sizehint);
+                if (hint != -1 && hint <= 0) {
+                    throw raise(ValueError, ErrorMessages.SELECT_NEGATIVE_SIZEHINT);
+                }
+            }
+            return factory().createPoll(cls);
+        }
+    }
+
+    public static final long US_TO_NS = 1000L;
+    public static final long MS_TO_US = 1000L;
+    public static final long SEC_TO_MS = 1000L;
+    public static final long MS_TO_NS = MS_TO_US * US_TO_NS;
+    public static final long SEC_TO_NS = SEC_TO_MS * MS_TO_NS;
+    public static final long SEC_TO_US = SEC_TO_MS * MS_TO_US;
 
     static Timeval timeAsTimeval(long t) {
         long secs = t / SEC_TO_NS;
@@ -252,7 +308,7 @@ public class SelectModuleBuiltins extends PythonBuiltins {
         return new Timeval(secs, usec);
     }
 
-    static long pyTimeDivide(long t, long k) {
+    public static long pyTimeDivide(long t, long k) {
         // _PyTime_Divide, for now hard-coded mode HALP_UP
         assert k > 1;
         if (t >= 0) {
@@ -265,8 +321,8 @@ public class SelectModuleBuiltins extends PythonBuiltins {
     /**
      * Equivalent of {@code _PyTime_FromObject} from CPython.
      */
-    abstract static class PyTimeFromObjectNode extends PNodeWithRaise {
-        abstract long execute(VirtualFrame frame, Object obj, long unitToNs);
+    public abstract static class PyTimeFromObjectNode extends PNodeWithRaise {
+        public abstract long execute(VirtualFrame frame, Object obj, long unitToNs);
 
         @Specialization
         long doDouble(double d, long unitToNs) {
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.hashlib.DigestAlgorithm;
+import com.oracle.graal.python.builtins.objects.hashlib.DigestBuiltins.UpdateNode;
+import com.oracle.graal.python.builtins.objects.hashlib.PDigest;
+import com.oracle.graal.python.builtins.objects.hashlib.Sha3Digest;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+/**
+ * SHA-3 and SHAKE hash objects backed by {@link Sha3Digest}. Unlike the {@code _hashlib} objects,
+ * these classes can be subclassed.
+ */
+@CoreFunctions(defineModule = "_sha3")
+public class Sha3ModuleBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return Sha3ModuleBuiltinsFactory.getFactories();
+    }
+
+    abstract static class Sha3ConstructorNode extends PythonBinaryBuiltinNode {
+
+        protected abstract DigestAlgorithm getAlgorithm();
+
+        @Specialization
+        PDigest doNew(VirtualFrame frame, Object cls, Object data,
+                        @Cached UpdateNode updateNode) {
+            return HashlibModuleBuiltins.createDigest(frame, this, cls, getAlgorithm(), data, updateNode);
+        }
+    }
+
+    @Builtin(name = "sha3_224", minNumOfPositionalArgs = 1, parameterNames = {"$cls", "data"}, constructsClass = PythonBuiltinClassType.PSha3_224)
+    @GenerateNodeFactory
+    abstract static class Sha3_224Node extends Sha3ConstructorNode {
+        @Override
+        protected final DigestAlgorithm getAlgorithm() {
+            return DigestAlgorithm.SHA3_224;
+        }
+    }
+
+    @Builtin(name = "sha3_256", minNumOfPositionalArgs = 1, parameterNames = {"$cls", "data"}, constructsClass = PythonBuiltinClassType.PSha3_256)
+    @GenerateNodeFactory
+    abstract static class Sha3_256Node extends Sha3ConstructorNode {
+        @Override
+        protected final DigestAlgorithm getAlgorithm() {
+            return DigestAlgorithm.SHA3_256;
+        }
+    }
+
+    @Builtin(name = "sha3_384", minNumOfPositionalArgs = 1, parameterNames = {"$cls", "data"}, constructsClass = PythonBuiltinClassType.PSha3_384)
+    @GenerateNodeFactory
+    abstract static class Sha3_384Node extends Sha3ConstructorNode {
+        @Override
+        protected final DigestAlgorithm getAlgorithm() {
+            return DigestAlgorithm.SHA3_384;
+        }
+    }
+
+    @Builtin(name = "sha3_512", minNumOfPositionalArgs = 1, parameterNames = {"$cls", "data"}, constructsClass = PythonBuiltinClassType.PSha3_512)
+    @GenerateNodeFactory
+    abstract static class Sha3_512Node extends Sha3ConstructorNode {
+        @Override
+        protected final DigestAlgorithm getAlgorithm() {
+            return DigestAlgorithm.SHA3_512;
+        }
+    }
+
+    @Builtin(name = "shake_128", minNumOfPositionalArgs = 1, parameterNames = {"$cls", "data"}, constructsClass = PythonBuiltinClassType.PShake_128)
+    @GenerateNodeFactory
+    abstract static class Shake128Node extends Sha3ConstructorNode {
+        @Override
+        protected final DigestAlgorithm getAlgorithm() {
+            return DigestAlgorithm.SHAKE_128;
+        }
+    }
+
+    @Builtin(name = "shake_256", minNumOfPositionalArgs = 1, parameterNames = {"$cls", "data"}, constructsClass = PythonBuiltinClassType.PShake_256)
+    @GenerateNodeFactory
+    abstract static class Shake256Node extends Sha3ConstructorNode {
+        @Override
+        protected final DigestAlgorithm getAlgorithm() {
+            return DigestAlgorithm.SHAKE_256;
+        }
+    }
+}
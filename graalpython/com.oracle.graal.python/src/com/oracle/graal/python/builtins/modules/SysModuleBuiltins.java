@@ -40,6 +40,7 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.OverflowError;
 import static com.oracle.graal.python.builtins.PythonBuiltinClassType.TypeError;
 import static com.oracle.graal.python.builtins.PythonBuiltinClassType.ValueError;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__SIZEOF__;
@@ -69,6 +70,7 @@ import com.oracle.graal.python.builtins.objects.function.PArguments;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
 import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.module.PythonModule;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
 import com.oracle.graal.python.builtins.objects.str.PString;
 import com.oracle.graal.python.builtins.objects.str.StringNodes;
 import com.oracle.graal.python.builtins.objects.traceback.GetTracebackNode;
@@ -85,6 +87,7 @@ import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonClinicBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.clinic.ArgumentClinicProvider;
 import com.oracle.graal.python.nodes.object.GetClassNode;
 import com.oracle.graal.python.nodes.util.ExceptionStateNodes.GetCaughtExceptionNode;
@@ -109,6 +112,7 @@ import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.library.CachedLibrary;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 
 @CoreFunctions(defineModule = "sys")
@@ -671,6 +675,39 @@ public class SysModuleBuiltins extends PythonBuiltins {
         }
     }
 
+    @Builtin(name = "getswitchinterval", minNumOfPositionalArgs = 0)
+    @GenerateNodeFactory
+    public abstract static class GetSwitchIntervalNode extends PythonBuiltinNode {
+        @Specialization
+        static double doGeneric(
+                        @CachedContext(PythonLanguage.class) PythonContext context) {
+            return 1e-6 * context.getSwitchInterval();
+        }
+    }
+
+    @Builtin(name = "setswitchinterval", minNumOfPositionalArgs = 1, parameterNames = {"interval"})
+    @GenerateNodeFactory
+    public abstract static class SetSwitchIntervalNode extends PythonUnaryBuiltinNode {
+        @Specialization(limit = "3")
+        PNone doGeneric(VirtualFrame frame, Object interval,
+                        @CachedLibrary("interval") PythonObjectLibrary lib,
+                        @CachedContext(PythonLanguage.class) PythonContext context) {
+            if (!lib.canBeJavaDouble(interval)) {
+                throw raise(TypeError, ErrorMessages.MUST_BE_REAL_NUMBER, interval);
+            }
+            double value = lib.asJavaDoubleWithFrame(interval, frame);
+            if (value <= 0.0) {
+                throw raise(ValueError, ErrorMessages.SWITCH_INTERVAL_MUST_BE_POSITIVE);
+            }
+            double microseconds = 1e6 * value;
+            if (!(microseconds <= PythonContext.MAX_SWITCH_INTERVAL)) {
+                throw raise(OverflowError, ErrorMessages.SWITCH_INTERVAL_TOO_LARGE);
+            }
+            context.setSwitchInterval((long) microseconds);
+            return PNone.NONE;
+        }
+    }
+
     @Builtin(name = "is_finalizing")
     @GenerateNodeFactory
     public abstract static class IsFinalizingNode extends PythonBuiltinNode {
@@ -0,0 +1,440 @@
+/* Copyright (c) 2021, Oracle and/or its affiliates.
+ * Copyright (C) 1996-2020 Python Software Foundation
+ *
+ * Licensed under the PYTHON SOFTWARE FOUNDATION LICENSE VERSION 2
+ */
+package com.oracle.graal.python.builtins.modules.csv;
+
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.CSVDialect;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.CSVError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.CSVReader;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.CSVWriter;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.TypeError;
+import static com.oracle.graal.python.builtins.modules.csv.PCSVDialect.NOT_SET;
+import static com.oracle.graal.python.builtins.modules.csv.PCSVDialect.QUOTE_MINIMAL;
+import static com.oracle.graal.python.builtins.modules.csv.PCSVDialect.QUOTE_NONE;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageLibrary;
+import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.module.PythonModule;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.PNodeWithRaise;
+import com.oracle.graal.python.nodes.SpecialAttributeNames;
+import com.oracle.graal.python.nodes.builtins.ListNodes.ConstructListNode;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.nodes.util.CannotCastException;
+import com.oracle.graal.python.nodes.util.CastToJavaLongExactNode;
+import com.oracle.graal.python.nodes.util.CastToJavaStringNode;
+import com.oracle.graal.python.runtime.PythonCore;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.graal.python.util.PythonUtils;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.library.CachedLibrary;
+import com.oracle.truffle.api.object.DynamicObjectLibrary;
+import com.oracle.truffle.api.object.HiddenKey;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+
+@CoreFunctions(defineModule = "_csv")
+public final class CSVModuleBuiltins extends PythonBuiltins {
+    private static final HiddenKey DIALECTS = new HiddenKey("dialects");
+    private static final HiddenKey FIELD_LIMIT = new HiddenKey("field_limit");
+    private static final long DEFAULT_FIELD_LIMIT = 128 * 1024;
+
+    private static final String MODULE_DOC = "CSV parsing and writing.\n" +
+                    "\n" +
+                    "This module provides classes that assist in the reading and writing\n" +
+                    "of Comma Separated Value (CSV) files, and implements the interface\n" +
+                    "described by PEP 305.  Although many CSV files are simple to parse,\n" +
+                    "the format is not formally defined by a stable specification and\n" +
+                    "is subtle enough that parsing lines of a CSV file with something\n" +
+                    "like line.split(\",\") is bound to fail.  The module supports three\n" +
+                    "basic APIs: reading, writing, and registration of dialects.\n" +
+                    "\n" +
+                    "\n" +
+                    "DIALECT REGISTRATION:\n" +
+                    "\n" +
+                    "Readers and writers support a dialect argument, which is a convenient\n" +
+                    "handle on a group of settings.  When the dialect argument is a string,\n" +
+                    "it identifies one of the dialects previously registered with the module.\n" +
+                    "If it is a class or instance, the attributes of the argument are used as\n" +
+                    "the settings for the reader or writer:\n" +
+                    "\n" +
+                    "    class excel:\n" +
+                    "        delimiter = ','\n" +
+                    "        quotechar = '\"'\n" +
+                    "        escapechar = None\n" +
+                    "        doublequote = True\n" +
+                    "        skipinitialspace = False\n" +
+                    "        lineterminator = '\\r\\n'\n" +
+                    "        quoting = QUOTE_MINIMAL\n" +
+                    "\n" +
+                    "SETTINGS:\n" +
+                    "\n" +
+                    "    * quotechar - specifies a one-character string to use as the\n" +
+                    "        quoting character.  It defaults to '\"'.\n" +
+                    "    * delimiter - specifies a one-character string to use as the\n" +
+                    "        field separator.  It defaults to ','.\n" +
+                    "    * skipinitialspace - specifies how to interpret whitespace which\n" +
+                    "        immediately follows a delimiter.  It defaults to False, which\n" +
+                    "        means that whitespace immediately following a delimiter is part\n" +
+                    "        of the following field.\n" +
+                    "    * lineterminator -  specifies the character sequence which should\n" +
+                    "        terminate rows.\n" +
+                    "    * quoting - controls when quotes should be generated by the writer.\n" +
+                    "        It can take on any of the following module constants:\n" +
+                    "\n" +
+                    "        csv.QUOTE_MINIMAL means only when required, for example, when a\n" +
+                    "            field contains either the quotechar or the delimiter\n" +
+                    "        csv.QUOTE_ALL means that quotes are always placed around fields.\n" +
+                    "        csv.QUOTE_NONNUMERIC means that quotes are always placed around\n" +
+                    "            fields which do not parse as integers or floating point\n" +
+                    "            numbers.\n" +
+                    "        csv.QUOTE_NONE means that quotes are never placed around fields.\n" +
+                    "    * escapechar - specifies a one-character string used to escape\n" +
+                    "        the delimiter when quoting is set to QUOTE_NONE.\n" +
+                    "    * doublequote - controls the handling of quotes inside fields.  When\n" +
+                    "        True, two consecutive quotes are interpreted as one during read,\n" +
+                    "        and when writing, each quote character embedded in the data is\n" +
+                    "        written as two quotes.\n";
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return CSVModuleBuiltinsFactory.getFactories();
+    }
+
+    @Override
+    public void initialize(PythonCore core) {
+        builtinConstants.put(SpecialAttributeNames.__DOC__, MODULE_DOC);
+        builtinConstants.put("__version__", "1.0");
+        builtinConstants.put("QUOTE_MINIMAL", PCSVDialect.QUOTE_MINIMAL);
+        builtinConstants.put("QUOTE_ALL", PCSVDialect.QUOTE_ALL);
+        builtinConstants.put("QUOTE_NONNUMERIC", PCSVDialect.QUOTE_NONNUMERIC);
+        builtinConstants.put("QUOTE_NONE", PCSVDialect.QUOTE_NONE);
+        // the registry must stay reachable even if the user deletes the attribute
+        Object dialects = PythonObjectFactory.getUncached().createDict();
+        builtinConstants.put("_dialects", dialects);
+        builtinConstants.put(DIALECTS, dialects);
+        builtinConstants.put(FIELD_LIMIT, DEFAULT_FIELD_LIMIT);
+        super.initialize(core);
+    }
+
+    static long getFieldLimit(PythonModule module, DynamicObjectLibrary dylib) {
+        return (long) dylib.getOrDefault(module, FIELD_LIMIT, DEFAULT_FIELD_LIMIT);
+    }
+
+    static PDict getDialects(PythonModule module, DynamicObjectLibrary dylib) {
+        return (PDict) dylib.getOrDefault(module, DIALECTS, null);
+    }
+
+    abstract static class GetDialectNode extends PNodeWithRaise {
+        abstract Object execute(VirtualFrame frame, PythonModule module, Object name);
+
+        @Specialization
+        Object get(VirtualFrame frame, PythonModule module, Object name,
+                        @CachedLibrary(limit = "1") DynamicObjectLibrary dylib,
+                        @CachedLibrary(limit = "3") HashingStorageLibrary hlib,
+                        @Cached ConditionProfile hasFrame) {
+            Object dialect = hlib.getItemWithFrame(getDialects(module, dylib).getDictStorage(), name, hasFrame, frame);
+            if (dialect == null) {
+                throw raise(CSVError, ErrorMessages.UNKNOWN_DIALECT);
+            }
+            return dialect;
+        }
+    }
+
+    @Builtin(name = "register_dialect", minNumOfPositionalArgs = 2, parameterNames = {"$mod", "name", "dialect"}, declaresExplicitSelf = true, takesVarKeywordArgs = true, //
+                    doc = "Create a mapping from a string name to a dialect class.\n" +
+                                    "    dialect = csv.register_dialect(name[, dialect[, **fmtparams]])")
+    @GenerateNodeFactory
+    abstract static class RegisterDialectNode extends PythonBuiltinNode {
+        @Specialization
+        Object register(VirtualFrame frame, PythonModule module, Object name, Object dialectObj, PKeyword[] kwargs,
+                        @Cached CallNode callNode,
+                        @CachedLibrary(limit = "1") DynamicObjectLibrary dylib,
+                        @CachedLibrary(limit = "3") HashingStorageLibrary hlib,
+                        @Cached ConditionProfile hasFrame) {
+            if (!PGuards.isString(name)) {
+                throw raise(TypeError, ErrorMessages.DIALECT_NAME_MUST_BE_A_STRING);
+            }
+            Object[] args = dialectObj == PNone.NO_VALUE ? PythonUtils.EMPTY_OBJECT_ARRAY : new Object[]{dialectObj};
+            Object dialect = callNode.execute(frame, CSVDialect, args, kwargs);
+            PDict dialects = getDialects(module, dylib);
+            dialects.setDictStorage(hlib.setItemWithFrame(dialects.getDictStorage(), name, dialect, hasFrame, frame));
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "unregister_dialect", minNumOfPositionalArgs = 2, parameterNames = {"$mod", "name"}, declaresExplicitSelf = true, //
+                    doc = "Delete the name/dialect mapping associated with a string name.\n" +
+                                    "    csv.unregister_dialect(name)")
+    @GenerateNodeFactory
+    abstract static class UnregisterDialectNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object unregister(VirtualFrame frame, PythonModule module, Object name,
+                        @CachedLibrary(limit = "1") DynamicObjectLibrary dylib,
+                        @CachedLibrary(limit = "3") HashingStorageLibrary hlib,
+                        @Cached ConditionProfile hasFrame) {
+            PDict dialects = getDialects(module, dylib);
+            if (hlib.getItemWithFrame(dialects.getDictStorage(), name, hasFrame, frame) == null) {
+                throw raise(CSVError, ErrorMessages.UNKNOWN_DIALECT);
+            }
+            dialects.setDictStorage(hlib.delItemWithFrame(dialects.getDictStorage(), name, hasFrame, frame));
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "get_dialect", minNumOfPositionalArgs = 2, parameterNames = {"$mod", "name"}, declaresExplicitSelf = true, //
+                    doc = "Return the dialect instance associated with name.\n" +
+                                    "    dialect = csv.get_dialect(name)")
+    @GenerateNodeFactory
+    abstract static class GetDialectBuiltinNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        static Object get(VirtualFrame frame, PythonModule module, Object name,
+                        @Cached GetDialectNode getDialectNode) {
+            return getDialectNode.execute(frame, module, name);
+        }
+    }
+
+    @Builtin(name = "list_dialects", minNumOfPositionalArgs = 1, parameterNames = {"$mod"}, declaresExplicitSelf = true, //
+                    doc = "Return a list of all know dialect names.\n" +
+                                    "    names = csv.list_dialects()")
+    @GenerateNodeFactory
+    abstract static class ListDialectsNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static PList list(VirtualFrame frame, PythonModule module,
+                        @CachedLibrary(limit = "1") DynamicObjectLibrary dylib,
+                        @Cached ConstructListNode constructListNode) {
+            return constructListNode.execute(frame, getDialects(module, dylib));
+        }
+    }
+
+    @Builtin(name = "field_size_limit", minNumOfPositionalArgs = 1, parameterNames = {"$mod", "new_limit"}, declaresExplicitSelf = true, //
+                    doc = "Sets an upper limit on parsed fields.\n" +
+                                    "    csv.field_size_limit([limit])\n" +
+                                    "\n" +
+                                    "Returns old limit. If limit is not given, no new limit is set and\n" +
+                                    "the old limit is returned")
+    @GenerateNodeFactory
+    abstract static class FieldSizeLimitNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object limit(PythonModule module, Object newLimit,
+                        @CachedLibrary(limit = "1") DynamicObjectLibrary dylib,
+                        @Cached IsBuiltinClassProfile isInt,
+                        @Cached CastToJavaLongExactNode castToLong) {
+            long oldLimit = getFieldLimit(module, dylib);
+            if (newLimit != PNone.NO_VALUE) {
+                if (!isInt.profileObject(newLimit, PythonBuiltinClassType.PInt)) {
+                    throw raise(TypeError, ErrorMessages.LIMIT_MUST_BE_AN_INTEGER);
+                }
+                dylib.put(module, FIELD_LIMIT, castToLong.execute(newLimit));
+            }
+            return oldLimit;
+        }
+    }
+
+    @Builtin(name = "reader", minNumOfPositionalArgs = 2, parameterNames = {"$mod", "csvfile", "dialect"}, declaresExplicitSelf = true, takesVarKeywordArgs = true, //
+                    doc = "    csv_reader = reader(iterable [, dialect='excel']\n" +
+                                    "                        [optional keyword args])\n" +
+                                    "    for row in csv_reader:\n" +
+                                    "        process(row)\n" +
+                                    "\n" +
+                                    "The \"iterable\" argument can be any object that returns a line\n" +
+                                    "of input for each iteration, such as a file object or a list.  The\n" +
+                                    "optional \"dialect\" parameter is discussed below.  The function\n" +
+                                    "also accepts optional keyword arguments which override settings\n" +
+                                    "provided by the dialect.\n" +
+                                    "\n" +
+                                    "The returned object is an iterator.  Each iteration returns a row\n" +
+                                    "of the CSV file (which can span multiple input lines).\n")
+    @GenerateNodeFactory
+    abstract static class ReaderNode extends PythonBuiltinNode {
+        @Specialization
+        Object reader(VirtualFrame frame, PythonModule module, Object csvfile, Object dialectObj, PKeyword[] kwargs,
+                        @Cached CallNode callNode,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib) {
+            Object inputIter = lib.getIteratorWithFrame(csvfile, frame);
+            Object[] args = dialectObj == PNone.NO_VALUE ? PythonUtils.EMPTY_OBJECT_ARRAY : new Object[]{dialectObj};
+            PCSVDialect dialect = (PCSVDialect) callNode.execute(frame, CSVDialect, args, kwargs);
+            return factory().createCSVReader(CSVReader, module, inputIter, dialect);
+        }
+    }
+
+    @Builtin(name = "writer", minNumOfPositionalArgs = 2, parameterNames = {"$mod", "fileobj", "dialect"}, declaresExplicitSelf = true, takesVarKeywordArgs = true, //
+                    doc = "    csv_writer = csv.writer(fileobj [, dialect='excel']\n" +
+                                    "                            [optional keyword args])\n" +
+                                    "    for row in sequence:\n" +
+                                    "        csv_writer.writerow(row)\n" +
+                                    "\n" +
+                                    "    [or]\n" +
+                                    "\n" +
+                                    "    csv_writer = csv.writer(fileobj [, dialect='excel']\n" +
+                                    "                            [optional keyword args])\n" +
+                                    "    csv_writer.writerows(rows)\n" +
+                                    "\n" +
+                                    "The \"fileobj\" argument can be any object that supports the file API.\n")
+    @GenerateNodeFactory
+    abstract static class WriterNode extends PythonBuiltinNode {
+        @Specialization
+        Object writer(VirtualFrame frame, @SuppressWarnings("unused") PythonModule module, Object fileobj, Object dialectObj, PKeyword[] kwargs,
+                        @Cached CallNode callNode,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib) {
+            Object write = lib.lookupAttribute(fileobj, frame, "write");
+            if (write == PNone.NO_VALUE || !lib.isCallable(write)) {
+                throw raise(TypeError, ErrorMessages.ARG_1_MUST_HAVE_A_WRITE_METHOD);
+            }
+            Object[] args = dialectObj == PNone.NO_VALUE ? PythonUtils.EMPTY_OBJECT_ARRAY : new Object[]{dialectObj};
+            PCSVDialect dialect = (PCSVDialect) callNode.execute(frame, CSVDialect, args, kwargs);
+            return factory().createCSVWriter(CSVWriter, write, dialect);
+        }
+    }
+
+    @Builtin(name = "Dialect", minNumOfPositionalArgs = 1, constructsClass = PythonBuiltinClassType.CSVDialect, //
+                    parameterNames = {"$cls", "dialect", "delimiter", "doublequote", "escapechar", "lineterminator", "quotechar", "quoting", "skipinitialspace", "strict"}, //
+                    doc = "CSV dialect\n" +
+                                    "\n" +
+                                    "The Dialect type records CSV parsing and generation options.\n")
+    @GenerateNodeFactory
+    public abstract static class DialectNode extends PythonBuiltinNode {
+
+        @Specialization
+        Object doNew(VirtualFrame frame, Object cls, Object dialectObj, Object delimiterObj, Object doubleQuoteObj, Object escapeCharObj, Object lineTerminatorObj, Object quoteCharObj,
+                        Object quotingObj, Object skipInitialSpaceObj, Object strictObj,
+                        @Cached GetDialectNode getDialectNode,
+                        @Cached IsBuiltinClassProfile isInt,
+                        @Cached CastToJavaLongExactNode castToLong,
+                        @Cached CastToJavaStringNode castToJavaString,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib) {
+            Object dialect = dialectObj;
+            if (PGuards.isString(dialect)) {
+                dialect = getDialectNode.execute(frame, getCore().lookupBuiltinModule("_csv"), dialect);
+            }
+            Object delimiter = delimiterObj;
+            Object doubleQuote = doubleQuoteObj;
+            Object escapeChar = escapeCharObj;
+            Object lineTerminator = lineTerminatorObj;
+            Object quoteChar = quoteCharObj;
+            Object quoting = quotingObj;
+            Object skipInitialSpace = skipInitialSpaceObj;
+            Object strict = strictObj;
+            if (dialect instanceof PCSVDialect && delimiter == PNone.NO_VALUE && doubleQuote == PNone.NO_VALUE && escapeChar == PNone.NO_VALUE && lineTerminator == PNone.NO_VALUE &&
+                            quoteChar == PNone.NO_VALUE && quoting == PNone.NO_VALUE && skipInitialSpace == PNone.NO_VALUE && strict == PNone.NO_VALUE) {
+                // dialects are immutable, so the instance can be shared
+                return dialect;
+            }
+            if (dialect != PNone.NO_VALUE && dialect != PNone.NONE) {
+                delimiter = getAttribute(frame, lib, dialect, delimiter, "delimiter");
+                doubleQuote = getAttribute(frame, lib, dialect, doubleQuote, "doublequote");
+                escapeChar = getAttribute(frame, lib, dialect, escapeChar, "escapechar");
+                lineTerminator = getAttribute(frame, lib, dialect, lineTerminator, "lineterminator");
+                quoteChar = getAttribute(frame, lib, dialect, quoteChar, "quotechar");
+                quoting = getAttribute(frame, lib, dialect, quoting, "quoting");
+                skipInitialSpace = getAttribute(frame, lib, dialect, skipInitialSpace, "skipinitialspace");
+                strict = getAttribute(frame, lib, dialect, strict, "strict");
+            }
+
+            int delimiterValue = getChar("delimiter", delimiter, ',', castToJavaString);
+            boolean doubleQuoteValue = getBoolean(frame, doubleQuote, true, lib);
+            int escapeCharValue = getChar("escapechar", escapeChar, NOT_SET, castToJavaString);
+            String lineTerminatorValue = getString("lineterminator", lineTerminator, "\r\n", castToJavaString);
+            int quoteCharValue = getChar("quotechar", quoteChar, '"', castToJavaString);
+            long quotingValue = QUOTE_MINIMAL;
+            if (quoting != PNone.NO_VALUE) {
+                if (!isInt.profileObject(quoting, PythonBuiltinClassType.PInt)) {
+                    throw raise(TypeError, ErrorMessages.S_MUST_BE_AN_INTEGER, "quoting");
+                }
+                quotingValue = castToLong.execute(quoting);
+            }
+            boolean skipInitialSpaceValue = getBoolean(frame, skipInitialSpace, false, lib);
+            boolean strictValue = getBoolean(frame, strict, false, lib);
+
+            if (quotingValue < QUOTE_MINIMAL || quotingValue > QUOTE_NONE) {
+                throw raise(TypeError, ErrorMessages.BAD_QUOTING_VALUE);
+            }
+            if (delimiterValue == NOT_SET) {
+                throw raise(TypeError, ErrorMessages.S_MUST_BE_A_1_CHAR_STRING, "delimiter");
+            }
+            if (quoteChar == PNone.NONE && quoting == PNone.NO_VALUE) {
+                quotingValue = QUOTE_NONE;
+            }
+            if (quotingValue != QUOTE_NONE && quoteCharValue == NOT_SET) {
+                throw raise(TypeError, ErrorMessages.QUOTECHAR_MUST_BE_SET_IF_QUOTING_ENABLED);
+            }
+            if (lineTerminatorValue == null) {
+                throw raise(TypeError, ErrorMessages.LINETERMINATOR_MUST_BE_SET);
+            }
+            return factory().createCSVDialect(cls, delimiterValue, doubleQuoteValue, escapeCharValue, lineTerminatorValue, quoteCharValue, (int) quotingValue, skipInitialSpaceValue,
+                            strictValue);
+        }
+
+        private static Object getAttribute(VirtualFrame frame, PythonObjectLibrary lib, Object dialect, Object value, String name) {
+            if (value != PNone.NO_VALUE) {
+                return value;
+            }
+            return lib.lookupAttribute(dialect, frame, name);
+        }
+
+        private static boolean getBoolean(VirtualFrame frame, Object value, boolean defaultValue, PythonObjectLibrary lib) {
+            if (value == PNone.NO_VALUE) {
+                return defaultValue;
+            }
+            return lib.isTrue(value, frame);
+        }
+
+        private int getChar(String name, Object value, int defaultValue, CastToJavaStringNode castToJavaString) {
+            if (value == PNone.NO_VALUE) {
+                return defaultValue;
+            }
+            if (value == PNone.NONE) {
+                return NOT_SET;
+            }
+            String str;
+            try {
+                str = castToJavaString.execute(value);
+            } catch (CannotCastException e) {
+                throw raise(TypeError, ErrorMessages.S_MUST_BE_STRING_NOT_P, name, value);
+            }
+            if (str.isEmpty()) {
+                return NOT_SET;
+            }
+            int c = str.codePointAt(0);
+            if (str.length() != Character.charCount(c)) {
+                throw raise(TypeError, ErrorMessages.S_MUST_BE_A_1_CHAR_STRING, name);
+            }
+            return c;
+        }
+
+        private String getString(String name, Object value, String defaultValue, CastToJavaStringNode castToJavaString) {
+            if (value == PNone.NO_VALUE) {
+                return defaultValue;
+            }
+            if (value == PNone.NONE) {
+                return null;
+            }
+            try {
+                return castToJavaString.execute(value);
+            } catch (CannotCastException e) {
+                throw raise(TypeError, ErrorMessages.S_MUST_BE_A_STRING, name);
+            }
+        }
+    }
+}
@@ -0,0 +1,336 @@
+/* Copyright (c) 2021, Oracle and/or its affiliates.
+ * Copyright (C) 1996-2020 Python Software Foundation
+ *
+ * Licensed under the PYTHON SOFTWARE FOUNDATION LICENSE VERSION 2
+ */
+package com.oracle.graal.python.builtins.modules.csv;
+
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.CSVError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.CSVReader;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.ValueError;
+import static com.oracle.graal.python.builtins.modules.csv.PCSVDialect.QUOTE_NONE;
+import static com.oracle.graal.python.builtins.modules.csv.PCSVDialect.QUOTE_NONNUMERIC;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ITER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__NEXT__;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.modules.csv.PCSVReader.State;
+import com.oracle.graal.python.builtins.objects.floats.FloatUtils;
+import com.oracle.graal.python.builtins.objects.object.ObjectNodes;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.control.GetNextNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.nodes.util.CannotCastException;
+import com.oracle.graal.python.nodes.util.CastToJavaStringNode;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.library.CachedLibrary;
+import com.oracle.truffle.api.object.DynamicObjectLibrary;
+
+@CoreFunctions(extendClasses = CSVReader)
+public final class CSVReaderBuiltins extends PythonBuiltins {
+    /** Marks the end of an input line, distinct from any code point. */
+    private static final int EOL = -2;
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return CSVReaderBuiltinsFactory.getFactories();
+    }
+
+    @Builtin(name = __ITER__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class IterNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static PCSVReader iter(PCSVReader self) {
+            return self;
+        }
+    }
+
+    @Builtin(name = __NEXT__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class NextNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object next(VirtualFrame frame, PCSVReader self,
+                        @Cached GetNextNode nextNode,
+                        @Cached IsBuiltinClassProfile isStopIterationProfile,
+                        @Cached CastToJavaStringNode castToJavaStringNode,
+                        @CachedLibrary(limit = "1") DynamicObjectLibrary dylib) {
+            self.parseReset();
+            do {
+                Object lineObj;
+                try {
+                    lineObj = nextNode.execute(frame, self.inputIter);
+                } catch (PException e) {
+                    e.expectStopIteration(isStopIterationProfile);
+                    if (self.fieldLen != 0 || self.state == State.IN_QUOTED_FIELD) {
+                        if (self.dialect.strict) {
+                            throw raise(CSVError, ErrorMessages.UNEXPECTED_END_OF_DATA);
+                        }
+                        saveField(self);
+                        break;
+                    }
+                    throw e;
+                }
+                String line;
+                try {
+                    // a lazy string is materialized once here and then scanned as a whole
+                    line = castToJavaStringNode.execute(lineObj);
+                } catch (CannotCastException e) {
+                    throw raise(CSVError, ErrorMessages.ITERATOR_SHOULD_RETURN_STRINGS_NOT_P, lineObj);
+                }
+                self.lineNum++;
+                parseLine(self, line, CSVModuleBuiltins.getFieldLimit(self.module, dylib));
+            } while (self.state != State.START_RECORD);
+            return factory().createList(self.takeFields());
+        }
+
+        @TruffleBoundary
+        private void parseLine(PCSVReader self, String line, long fieldLimit) {
+            PCSVDialect dialect = self.dialect;
+            int len = line.length();
+            int i = 0;
+            while (i < len) {
+                if (self.state == State.IN_FIELD || self.state == State.IN_QUOTED_FIELD) {
+                    // copy runs of ordinary characters in one go
+                    boolean quoted = self.state == State.IN_QUOTED_FIELD;
+                    int start = i;
+                    int count = 0;
+                    while (i < len) {
+                        int c = line.codePointAt(i);
+                        if (c == 0 || c == dialect.escapeChar) {
+                            break;
+                        }
+                        if (quoted) {
+                            if (c == dialect.quoteChar && dialect.quoting != QUOTE_NONE) {
+                                break;
+                            }
+                        } else if (c == '\n' || c == '\r' || c == dialect.delimiter) {
+                            break;
+                        }
+                        i += Character.charCount(c);
+                        count++;
+                    }
+                    if (count > 0) {
+                        if (self.fieldLen + count > fieldLimit) {
+                            throw raise(CSVError, ErrorMessages.FIELD_LARGER_THAN_FIELD_LIMIT, fieldLimit);
+                        }
+                        self.field.append(line, start, i);
+                        self.fieldLen += count;
+                        continue;
+                    }
+                }
+                int c = line.codePointAt(i);
+                if (c == 0) {
+                    throw raise(CSVError, ErrorMessages.LINE_CONTAINS_NUL);
+                }
+                processChar(self, c, fieldLimit);
+                i += Character.charCount(c);
+            }
+            processChar(self, EOL, fieldLimit);
+        }
+
+        private void processChar(PCSVReader self, int codePoint, long fieldLimit) {
+            PCSVDialect dialect = self.dialect;
+            int c = codePoint;
+            switch (self.state) {
+                case START_RECORD:
+                    // start of record
+                    if (c == EOL) {
+                        // empty line - return []
+                        break;
+                    } else if (c == '\n' || c == '\r') {
+                        self.state = State.EAT_CRNL;
+                        break;
+                    }
+                    // normal character - handle as START_FIELD
+                    self.state = State.START_FIELD;
+                    // fall through
+                case START_FIELD:
+                    // expecting field
+                    if (c == '\n' || c == '\r' || c == EOL) {
+                        // save empty field - return [fields]
+                        saveField(self);
+                        self.state = c == EOL ? State.START_RECORD : State.EAT_CRNL;
+                    } else if (c == dialect.quoteChar && dialect.quoting != QUOTE_NONE) {
+                        // start quoted field
+                        self.state = State.IN_QUOTED_FIELD;
+                    } else if (c == dialect.escapeChar) {
+                        // possible escaped character
+                        self.state = State.ESCAPED_CHAR;
+                    } else if (c == ' ' && dialect.skipInitialSpace) {
+                        // ignore space at start of field
+                    } else if (c == dialect.delimiter) {
+                        // save empty field
+                        saveField(self);
+                    } else {
+                        // begin new unquoted field
+                        if (dialect.quoting == QUOTE_NONNUMERIC) {
+                            self.numericField = true;
+                        }
+                        addChar(self, c, fieldLimit);
+                        self.state = State.IN_FIELD;
+                    }
+                    break;
+                case ESCAPED_CHAR:
+                    if (c == '\n' || c == '\r') {
+                        addChar(self, c, fieldLimit);
+                        self.state = State.AFTER_ESCAPED_CRNL;
+                        break;
+                    }
+                    if (c == EOL) {
+                        c = '\n';
+                    }
+                    addChar(self, c, fieldLimit);
+                    self.state = State.IN_FIELD;
+                    break;
+                case AFTER_ESCAPED_CRNL:
+                    if (c == EOL) {
+                        break;
+                    }
+                    // fall through
+                case IN_FIELD:
+                    // in unquoted field
+                    if (c == '\n' || c == '\r' || c == EOL) {
+                        // end of line - return [fields]
+                        saveField(self);
+                        self.state = c == EOL ? State.START_RECORD : State.EAT_CRNL;
+                    } else if (c == dialect.escapeChar) {
+                        // possible escaped character
+                        self.state = State.ESCAPED_CHAR;
+                    } else if (c == dialect.delimiter) {
+                        // save field - wait for new field
+                        saveField(self);
+                        self.state = State.START_FIELD;
+                    } else {
+                        // normal character - save in field
+                        addChar(self, c, fieldLimit);
+                    }
+                    break;
+                case IN_QUOTED_FIELD:
+                    // in quoted field
+                    if (c == EOL) {
+                        // the line break is part of the field and already in it
+                    } else if (c == dialect.escapeChar) {
+                        // possible escape character
+                        self.state = State.ESCAPE_IN_QUOTED_FIELD;
+                    } else if (c == dialect.quoteChar && dialect.quoting != QUOTE_NONE) {
+                        if (dialect.doubleQuote) {
+                            // doublequote; " represented by ""
+                            self.state = State.QUOTE_IN_QUOTED_FIELD;
+                        } else {
+                            // end of quote part of field
+                            self.state = State.IN_FIELD;
+                        }
+                    } else {
+                        // normal character - save in field
+                        addChar(self, c, fieldLimit);
+                    }
+                    break;
+                case ESCAPE_IN_QUOTED_FIELD:
+                    if (c == EOL) {
+                        c = '\n';
+                    }
+                    addChar(self, c, fieldLimit);
+                    self.state = State.IN_QUOTED_FIELD;
+                    break;
+                case QUOTE_IN_QUOTED_FIELD:
+                    // doublequote - seen a quote in a quoted field
+                    if (dialect.quoting != QUOTE_NONE && c == dialect.quoteChar) {
+                        // save "" as "
+                        addChar(self, c, fieldLimit);
+                        self.state = State.IN_QUOTED_FIELD;
+                    } else if (c == dialect.delimiter) {
+                        // save field - wait for new field
+                        saveField(self);
+                        self.state = State.START_FIELD;
+                    } else if (c == '\n' || c == '\r' || c == EOL) {
+                        // end of line - return [fields]
+                        saveField(self);
+                        self.state = c == EOL ? State.START_RECORD : State.EAT_CRNL;
+                    } else if (!dialect.strict) {
+                        addChar(self, c, fieldLimit);
+                        self.state = State.IN_FIELD;
+                    } else {
+                        // illegal
+                        throw raise(CSVError, ErrorMessages.S_EXPECTED_AFTER_S, PCSVDialect.charToString(dialect.delimiter), PCSVDialect.charToString(dialect.quoteChar));
+                    }
+                    break;
+                case EAT_CRNL:
+                    if (c == '\n' || c == '\r') {
+                        // skip
+                    } else if (c == EOL) {
+                        self.state = State.START_RECORD;
+                    } else {
+                        throw raise(CSVError, ErrorMessages.NEWLINE_IN_UNQUOTED_FIELD);
+                    }
+                    break;
+            }
+        }
+
+        private void addChar(PCSVReader self, int c, long fieldLimit) {
+            if (self.fieldLen >= fieldLimit) {
+                throw raise(CSVError, ErrorMessages.FIELD_LARGER_THAN_FIELD_LIMIT, fieldLimit);
+            }
+            self.field.appendCodePoint(c);
+            self.fieldLen++;
+        }
+
+        @TruffleBoundary
+        private void saveField(PCSVReader self) {
+            String field = self.field.toString();
+            self.field.setLength(0);
+            self.fieldLen = 0;
+            if (self.numericField) {
+                self.numericField = false;
+                self.fields.add(convertToDouble(field));
+            } else {
+                self.fields.add(field);
+            }
+        }
+
+        private double convertToDouble(String field) {
+            String str = FloatUtils.removeUnicodeAndUnderscores(field);
+            if (str != null) {
+                int len = str.length();
+                int offset = FloatUtils.skipAsciiWhitespace(str, 0, len);
+                FloatUtils.StringToDoubleResult res = FloatUtils.stringToDouble(str, offset, len);
+                if (res != null) {
+                    int end = FloatUtils.skipAsciiWhitespace(str, res.position, len);
+                    if (end == len) {
+                        return res.value;
+                    }
+                }
+            }
+            throw raise(ValueError, ErrorMessages.COULD_NOT_CONVERT_STRING_TO_FLOAT, ObjectNodes.ReprAsJavaStringNode.getUncached().execute(null, field));
+        }
+    }
+
+    @Builtin(name = "dialect", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class DialectNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static PCSVDialect get(PCSVReader self) {
+            return self.getDialect();
+        }
+    }
+
+    @Builtin(name = "line_num", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class LineNumNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static long get(PCSVReader self) {
+            return self.getLineNum();
+        }
+    }
+}
@@ -0,0 +1,236 @@
+/* Copyright (c) 2021, Oracle and/or its affiliates.
+ * Copyright (C) 1996-2020 Python Software Foundation
+ *
+ * Licensed under the PYTHON SOFTWARE FOUNDATION LICENSE VERSION 2
+ */
+package com.oracle.graal.python.builtins.modules.csv;
+
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.CSVError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.CSVWriter;
+import static com.oracle.graal.python.builtins.modules.csv.PCSVDialect.NOT_SET;
+import static com.oracle.graal.python.builtins.modules.csv.PCSVDialect.QUOTE_ALL;
+import static com.oracle.graal.python.builtins.modules.csv.PCSVDialect.QUOTE_NONE;
+import static com.oracle.graal.python.builtins.modules.csv.PCSVDialect.QUOTE_NONNUMERIC;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.complex.PComplex;
+import com.oracle.graal.python.builtins.objects.object.ObjectNodes;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.control.GetNextNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.nodes.util.CastToJavaStringNode;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.library.CachedLibrary;
+
+@CoreFunctions(extendClasses = CSVWriter)
+public final class CSVWriterBuiltins extends PythonBuiltins {
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return CSVWriterBuiltinsFactory.getFactories();
+    }
+
+    @Builtin(name = "writerow", minNumOfPositionalArgs = 2, parameterNames = {"$self", "row"}, //
+                    doc = "writerow(iterable)\n" +
+                                    "\n" +
+                                    "Construct and write a CSV record from an iterable of fields.  Non-string\n" +
+                                    "elements will be converted to string.")
+    @GenerateNodeFactory
+    abstract static class WriteRowNode extends PythonBinaryBuiltinNode {
+
+        static WriteRowNode create() {
+            return CSVWriterBuiltinsFactory.WriteRowNodeFactory.create();
+        }
+
+        @Specialization
+        Object writeRow(VirtualFrame frame, PCSVWriter self, Object seq,
+                        @Cached GetNextNode nextNode,
+                        @Cached IsBuiltinClassProfile isStopIterationProfile,
+                        @Cached CastToJavaStringNode castToJavaStringNode,
+                        @Cached ObjectNodes.StrAsJavaStringNode strNode,
+                        @Cached CallNode callNode,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib) {
+            PCSVDialect dialect = self.dialect;
+            Object iter;
+            try {
+                iter = lib.getIteratorWithFrame(seq, frame);
+            } catch (PException e) {
+                throw raise(CSVError, ErrorMessages.ITERABLE_EXPECTED_NOT_P, seq);
+            }
+            joinReset(self);
+            while (true) {
+                Object field;
+                try {
+                    field = nextNode.execute(frame, iter);
+                } catch (PException e) {
+                    e.expectStopIteration(isStopIterationProfile);
+                    break;
+                }
+                boolean quoted;
+                if (dialect.quoting == QUOTE_NONNUMERIC) {
+                    quoted = !isNumber(field, lib);
+                } else {
+                    quoted = dialect.quoting == QUOTE_ALL;
+                }
+                String str;
+                if (PGuards.isString(field)) {
+                    str = castToJavaStringNode.execute(field);
+                } else if (field == PNone.NONE) {
+                    str = null;
+                } else {
+                    str = strNode.execute(frame, field);
+                }
+                joinAppend(self, str, quoted);
+            }
+            if (self.numFields > 0 && isRecordEmpty(self)) {
+                if (dialect.quoting == QUOTE_NONE) {
+                    throw raise(CSVError, ErrorMessages.SINGLE_EMPTY_FIELD_RECORD_MUST_BE_QUOTED);
+                }
+                self.numFields--;
+                joinAppend(self, null, true);
+            }
+            return callNode.execute(frame, self.write, joinFinish(self));
+        }
+
+        private static boolean isNumber(Object field, PythonObjectLibrary lib) {
+            return lib.canBePInt(field) || lib.canBeJavaDouble(field) || field instanceof PComplex;
+        }
+
+        @TruffleBoundary
+        private static void joinReset(PCSVWriter self) {
+            self.rec.setLength(0);
+            self.numFields = 0;
+        }
+
+        @TruffleBoundary
+        private static boolean isRecordEmpty(PCSVWriter self) {
+            return self.rec.length() == 0;
+        }
+
+        @TruffleBoundary
+        private static String joinFinish(PCSVWriter self) {
+            self.rec.append(self.dialect.lineTerminator);
+            return self.rec.toString();
+        }
+
+        private static boolean isSpecial(PCSVDialect dialect, int c) {
+            return c == dialect.delimiter || c == dialect.escapeChar || c == dialect.quoteChar || dialect.lineTerminator.indexOf(c) >= 0;
+        }
+
+        private static boolean wantEscape(PCSVDialect dialect, int c) {
+            return dialect.quoting == QUOTE_NONE || c == dialect.escapeChar || (c == dialect.quoteChar && !dialect.doubleQuote);
+        }
+
+        /**
+         * Appends one field to the record. The field is scanned once to decide whether it has to
+         * be quoted and whether any of its characters have to be escaped or doubled; fields that
+         * need neither are copied as a whole.
+         */
+        @TruffleBoundary
+        private void joinAppend(PCSVWriter self, String field, boolean quotedIn) {
+            PCSVDialect dialect = self.dialect;
+            StringBuilder rec = self.rec;
+            boolean quoted = quotedIn;
+            boolean copyChars = false;
+            if (field != null) {
+                for (int i = 0; i < field.length();) {
+                    int c = field.codePointAt(i);
+                    if (isSpecial(dialect, c)) {
+                        if (wantEscape(dialect, c)) {
+                            if (dialect.escapeChar == NOT_SET) {
+                                throw raise(CSVError, ErrorMessages.NEED_TO_ESCAPE_BUT_NO_ESCAPECHAR_SET);
+                            }
+                            copyChars = true;
+                        } else {
+                            // the quote character is doubled
+                            copyChars |= c == dialect.quoteChar;
+                            quoted = true;
+                        }
+                    }
+                    i += Character.charCount(c);
+                }
+            }
+            // if this is not the first field we need a field separator
+            if (self.numFields > 0) {
+                rec.appendCodePoint(dialect.delimiter);
+            }
+            if (quoted) {
+                rec.appendCodePoint(dialect.quoteChar);
+            }
+            if (field != null) {
+                if (!copyChars) {
+                    rec.append(field);
+                } else {
+                    for (int i = 0; i < field.length();) {
+                        int c = field.codePointAt(i);
+                        if (isSpecial(dialect, c)) {
+                            if (wantEscape(dialect, c)) {
+                                rec.appendCodePoint(dialect.escapeChar);
+                            } else if (c == dialect.quoteChar) {
+                                rec.appendCodePoint(dialect.quoteChar);
+                            }
+                        }
+                        rec.appendCodePoint(c);
+                        i += Character.charCount(c);
+                    }
+                }
+            }
+            if (quoted) {
+                rec.appendCodePoint(dialect.quoteChar);
+            }
+            self.numFields++;
+        }
+    }
+
+    @Builtin(name = "writerows", minNumOfPositionalArgs = 2, parameterNames = {"$self", "rows"}, //
+                    doc = "writerows(iterable of iterables)\n" +
+                                    "\n" +
+                                    "Construct and write a series of iterables to a csv file.  Non-string\n" +
+                                    "elements will be converted to string.")
+    @GenerateNodeFactory
+    abstract static class WriteRowsNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        static Object writeRows(VirtualFrame frame, PCSVWriter self, Object seq,
+                        @Cached GetNextNode nextNode,
+                        @Cached IsBuiltinClassProfile isStopIterationProfile,
+                        @Cached WriteRowNode writeRowNode,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib) {
+            Object iter = lib.getIteratorWithFrame(seq, frame);
+            while (true) {
+                Object row;
+                try {
+                    row = nextNode.execute(frame, iter);
+                } catch (PException e) {
+                    e.expectStopIteration(isStopIterationProfile);
+                    return PNone.NONE;
+                }
+                writeRowNode.execute(frame, self, row);
+            }
+        }
+    }
+
+    @Builtin(name = "dialect", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class DialectNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static PCSVDialect get(PCSVWriter self) {
+            return self.getDialect();
+        }
+    }
+}
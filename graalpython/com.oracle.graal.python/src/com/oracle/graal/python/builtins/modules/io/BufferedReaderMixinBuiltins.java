@@ -55,6 +55,7 @@ import static com.oracle.graal.python.builtins.modules.io.IONodes.READLINE;
 import static com.oracle.graal.python.builtins.objects.bytes.BytesUtils.append;
 import static com.oracle.graal.python.builtins.objects.bytes.BytesUtils.createOutputStream;
 import static com.oracle.graal.python.builtins.objects.bytes.BytesUtils.toByteArray;
+import static com.oracle.graal.python.builtins.objects.exception.OSErrorEnum.EAGAIN;
 import static com.oracle.graal.python.nodes.ErrorMessages.IO_S_INVALID_LENGTH;
 import static com.oracle.graal.python.nodes.ErrorMessages.IO_S_SHOULD_RETURN_BYTES;
 import static com.oracle.graal.python.nodes.ErrorMessages.MUST_BE_NON_NEG_OR_NEG_1;
@@ -70,6 +71,7 @@ import java.util.List;
 import com.oracle.graal.python.annotations.ArgumentClinic;
 import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.modules.PosixModuleBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.bytes.BytesNodes;
 import com.oracle.graal.python.builtins.objects.bytes.BytesUtils;
@@ -85,6 +87,9 @@ import com.oracle.graal.python.nodes.call.special.CallUnaryMethodNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.builtins.clinic.ArgumentClinicProvider;
 import com.oracle.graal.python.nodes.object.GetClassNode;
+import com.oracle.graal.python.runtime.GilNode;
+import com.oracle.graal.python.runtime.PosixSupportLibrary;
+import com.oracle.graal.python.runtime.PosixSupportLibrary.PosixException;
 import com.oracle.graal.python.runtime.object.PythonObjectFactory;
 import com.oracle.graal.python.util.PythonUtils;
 import com.oracle.truffle.api.CompilerDirectives;
@@ -96,6 +101,7 @@ import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.interop.UnsupportedMessageException;
 import com.oracle.truffle.api.library.CachedLibrary;
+import com.oracle.truffle.api.profiles.BranchProfile;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 
 @CoreFunctions(extendClasses = {PBufferedReader, PBufferedRandom})
@@ -156,15 +162,42 @@ public class BufferedReaderMixinBuiltins extends AbstractBufferedIOBuiltins {
 
         public abstract int execute(VirtualFrame frame, PBuffered self);
 
+        /*
+         * If the raw stream is a plain FileIO, there is no need to go through its readinto and a
+         * temporary bytearray: read straight into our buffer.
+         */
+        @Specialization(guards = {"self.isFastClosedChecks()", "!self.getFileIORaw().isClosed()", "self.getFileIORaw().isReadable()"})
+        static int fillFromFileIO(VirtualFrame frame, PBuffered self,
+                        @Cached PosixModuleBuiltins.ReadNode posixRead,
+                        @CachedLibrary(limit = "1") PosixSupportLibrary posixLib,
+                        @Cached BranchProfile readErrorProfile,
+                        @Cached GilNode gil) {
+            int start = getFillStart(self);
+            int len = self.getBufferSize() - start;
+            int n;
+            try {
+                n = posixRead.readInto(frame, self.getFileIORaw().getFD(), self.getBuffer(), start, len, posixLib, readErrorProfile, gil);
+            } catch (PosixException e) {
+                if (e.getErrorCode() == EAGAIN.getNumber()) {
+                    return -2;
+                }
+                throw posixRead.raiseOSErrorFromPosixException(frame, e);
+            }
+            if (n > 0 && self.getAbsPos() != -1) {
+                self.incAbsPos(n);
+            }
+            if (n == 0) {
+                return n;
+            }
+            self.setReadEnd(start + n);
+            self.setRawPos(start + n);
+            return n;
+        }
+
         @Specialization
         static int bufferedreaderFillBuffer(VirtualFrame frame, PBuffered self,
                         @Cached RawReadNode rawReadNode) {
-            int start;
-            if (isValidReadBuffer(self)) {
-                start = self.getReadEnd();
-            } else {
-                start = 0;
-            }
+            int start = getFillStart(self);
             int len = self.getBufferSize() - start;
             byte[] fill = rawReadNode.execute(frame, self, len);
             if (fill == BLOCKED) {
@@ -179,6 +212,14 @@ public class BufferedReaderMixinBuiltins extends AbstractBufferedIOBuiltins {
             self.setRawPos(start + n);
             return n;
         }
+
+        private static int getFillStart(PBuffered self) {
+            if (isValidReadBuffer(self)) {
+                return self.getReadEnd();
+            } else {
+                return 0;
+            }
+        }
     }
 
     @Builtin(name = READABLE, minNumOfPositionalArgs = 1)
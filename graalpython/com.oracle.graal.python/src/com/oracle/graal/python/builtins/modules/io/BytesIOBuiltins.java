@@ -354,6 +354,8 @@ public class BytesIOBuiltins extends PythonBuiltins {
                         @CachedLibrary("buffer") PythonObjectLibrary lib,
                         @Cached ConditionProfile isBuffer,
                         @Cached SequenceStorageNodes.GetInternalByteArrayNode getBytes,
+                        @Cached BytesNodes.GetWritableBackingArrayNode getBackingArray,
+                        @Cached ConditionProfile directProfile,
                         @Cached SequenceStorageNodes.BytesMemcpyNode memcpyNode) {
             if (isBuffer.profile(!lib.isBuffer(buffer))) {
                 return error(self, buffer);
@@ -369,7 +371,12 @@ public class BytesIOBuiltins extends PythonBuiltins {
             }
 
             byte[] buf = getBytes.execute(self.getBuf().getSequenceStorage());
-            memcpyNode.execute(frame, buffer, 0, buf, self.getPos(), len);
+            byte[] target = getBackingArray.execute(buffer);
+            if (directProfile.profile(target != null)) {
+                PythonUtils.arraycopy(buf, self.getPos(), target, BytesNodes.GetWritableBackingArrayNode.getOffset(buffer), len);
+            } else {
+                memcpyNode.execute(frame, buffer, 0, buf, self.getPos(), len);
+            }
             assert (self.getPos() + len < Integer.MAX_VALUE);
             assert (len >= 0);
             self.incPos(len);
@@ -589,6 +589,8 @@ public class FileIOBuiltins extends PythonBuiltins {
                         @Cached SequenceStorageNodes.GetInternalByteArrayNode getBytes,
                         @Cached SequenceStorageNodes.BytesMemcpyNode memcpyNode,
                         @Cached("createReadIntoArg()") BytesNodes.GetByteLengthIfWritableNode getLen,
+                        @Cached BytesNodes.GetWritableBackingArrayNode getBackingArray,
+                        @Cached ConditionProfile directProfile,
                         @CachedLibrary(limit = "1") PosixSupportLibrary posixLib,
                         @Cached BranchProfile exceptionProfile,
                         @Cached GilNode gil) {
@@ -597,6 +599,12 @@ public class FileIOBuiltins extends PythonBuiltins {
                 return 0;
             }
             try {
+                byte[] target = getBackingArray.execute(buffer);
+                if (directProfile.profile(target != null)) {
+                    // read straight into the caller's memory, no intermediate bytes object
+                    int offset = BytesNodes.GetWritableBackingArrayNode.getOffset(buffer);
+                    return posixRead.readInto(frame, self.getFD(), target, offset, size, posixLib, readErrorProfile, gil);
+                }
                 PBytes data = posixRead.read(frame, self.getFD(), size, posixLib, readErrorProfile, gil);
                 byte[] buf = getBytes.execute(data.getSequenceStorage());
                 int n = buf.length;
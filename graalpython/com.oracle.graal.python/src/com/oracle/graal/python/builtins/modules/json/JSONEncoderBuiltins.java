@@ -5,14 +5,24 @@
  */
 package com.oracle.graal.python.builtins.modules.json;
 
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.PBufferedRandom;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.PBufferedWriter;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.PBytesIO;
 import static com.oracle.graal.python.builtins.PythonBuiltinClassType.PDict;
 import static com.oracle.graal.python.builtins.PythonBuiltinClassType.PList;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.PTextIOWrapper;
 import static com.oracle.graal.python.builtins.PythonBuiltinClassType.PTuple;
 import static com.oracle.graal.python.builtins.PythonBuiltinClassType.TypeError;
 import static com.oracle.graal.python.builtins.PythonBuiltinClassType.ValueError;
+import static com.oracle.graal.python.builtins.modules.io.IONodes.ENCODE;
+import static com.oracle.graal.python.builtins.modules.io.IONodes.WRITE;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__CALL__;
 import static com.oracle.graal.python.nodes.object.IsBuiltinClassProfile.profileClassSlowPath;
 
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import com.oracle.graal.python.annotations.ArgumentClinic;
@@ -20,6 +30,9 @@ import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.modules.io.IOModuleBuiltins;
+import com.oracle.graal.python.builtins.modules.io.PTextIO;
+import com.oracle.graal.python.builtins.modules.json.PJSONEncoder.FastEncode;
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.common.HashingStorage;
 import com.oracle.graal.python.builtins.objects.common.HashingStorage.DictEntry;
@@ -32,6 +45,7 @@ import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
 import com.oracle.graal.python.builtins.objects.list.ListBuiltins.ListSortNode;
 import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
 import com.oracle.graal.python.builtins.objects.str.PString;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
 import com.oracle.graal.python.nodes.PGuards;
@@ -52,6 +66,7 @@ import com.oracle.graal.python.runtime.formatting.FloatFormatter;
 import com.oracle.graal.python.runtime.object.PythonObjectFactory;
 import com.oracle.graal.python.runtime.sequence.PSequence;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.graal.python.util.CharsetMapping;
 import com.oracle.graal.python.util.PythonUtils;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
@@ -66,10 +81,7 @@ public class JSONEncoderBuiltins extends PythonBuiltins {
         return JSONEncoderBuiltinsFactory.getFactories();
     }
 
-    @Builtin(name = __CALL__, minNumOfPositionalArgs = 1, parameterNames = {"$self", "obj", "_current_indent_level"})
-    @ArgumentClinic(name = "_current_indent_level", conversion = ArgumentClinic.ClinicConversion.Int, defaultValue = "0", useDefaultForNone = true)
-    @GenerateNodeFactory
-    public abstract static class CallEncoderNode extends PythonTernaryClinicBuiltinNode {
+    abstract static class EncoderBaseNode extends PythonTernaryClinicBuiltinNode {
 
         @Child private CallUnaryMethodNode callEncode = CallUnaryMethodNode.create();
         @Child private CallUnaryMethodNode callDefaultFn = CallUnaryMethodNode.create();
@@ -86,20 +98,7 @@ public class JSONEncoderBuiltins extends PythonBuiltins {
         @Child private GetClassNode getDictClass = GetClassNode.create();
         @Child private ConstructListNode constructList = ConstructListNode.create();
 
-        @Child private PythonObjectFactory factory = PythonObjectFactory.create();
-
-        @Override
-        protected ArgumentClinicProvider getArgumentClinic() {
-            return JSONEncoderBuiltinsClinicProviders.CallEncoderNodeClinicProviderGen.INSTANCE;
-        }
-
-        @Specialization
-        @TruffleBoundary
-        protected PTuple call(PJSONEncoder self, Object obj, @SuppressWarnings("unused") int indent) {
-            StringBuilder builder = new StringBuilder();
-            appendListObj(self, builder, obj);
-            return factory.createTuple(new Object[]{builder.toString()});
-        }
+        @Child protected PythonObjectFactory factory = PythonObjectFactory.create();
 
         private static void appendConst(StringBuilder builder, Object obj) {
             if (obj == PNone.NONE) {
@@ -177,21 +176,27 @@ public class JSONEncoderBuiltins extends PythonBuiltins {
             return true;
         }
 
-        private void appendListObj(PJSONEncoder encoder, StringBuilder builder, Object obj) {
+        protected void appendListObj(PJSONEncoder encoder, StringBuilder builder, Object obj, ChunkWriter writer) {
             if (appendSimpleObj(encoder, builder, obj)) {
                 // done
             } else if (obj instanceof PList || obj instanceof PTuple) {
-                appendList(encoder, builder, (PSequence) obj);
+                appendList(encoder, builder, (PSequence) obj, writer);
             } else if (obj instanceof PDict) {
-                appendDict(encoder, builder, (PDict) obj);
+                appendDict(encoder, builder, (PDict) obj, writer);
             } else {
                 startRecursion(encoder, obj);
                 Object newObj = callDefaultFn.executeObject(encoder.defaultFn, obj);
-                appendListObj(encoder, builder, newObj);
+                appendListObj(encoder, builder, newObj, writer);
                 endRecursion(encoder, obj);
             }
         }
 
+        private static void flushIfFull(ChunkWriter writer, StringBuilder builder) {
+            if (writer != null && builder.length() >= ChunkWriter.CHUNK_SIZE) {
+                writer.flush(builder);
+            }
+        }
+
         private static void endRecursion(PJSONEncoder encoder, Object obj) {
             if (encoder.markers != PNone.NONE) {
                 encoder.circular.remove(obj);
@@ -207,7 +212,7 @@ public class JSONEncoderBuiltins extends PythonBuiltins {
             }
         }
 
-        private void appendDict(PJSONEncoder encoder, StringBuilder builder, PDict dict) {
+        private void appendDict(PJSONEncoder encoder, StringBuilder builder, PDict dict, ChunkWriter writer) {
             HashingStorage storage = dict.getDictStorage();
 
             if (dictLib.length(storage) == 0) {
@@ -220,7 +225,8 @@ public class JSONEncoderBuiltins extends PythonBuiltins {
                     HashingStorageIterable<DictEntry> entries = dictLib.entries(storage);
                     boolean first = true;
                     for (DictEntry entry : entries) {
-                        first = appendDictEntry(encoder, builder, first, entry.key, entry.value);
+                        first = appendDictEntry(encoder, builder, first, entry.key, entry.value, writer);
+                        flushIfFull(writer, builder);
                     }
                 } else {
                     Object items = constructList.execute(null, callGetItems.executeObject(null, dict));
@@ -243,7 +249,8 @@ public class JSONEncoderBuiltins extends PythonBuiltins {
                         SequenceStorage sequenceStorage = ((PTuple) item).getSequenceStorage();
                         Object key = sequenceStorage.getItemNormalized(0);
                         Object value = sequenceStorage.getItemNormalized(1);
-                        first = appendDictEntry(encoder, builder, first, key, value);
+                        first = appendDictEntry(encoder, builder, first, key, value, writer);
+                        flushIfFull(writer, builder);
                     }
                 }
 
@@ -252,7 +259,7 @@ public class JSONEncoderBuiltins extends PythonBuiltins {
             }
         }
 
-        private boolean appendDictEntry(PJSONEncoder encoder, StringBuilder builder, boolean first, Object key, Object value) {
+        private boolean appendDictEntry(PJSONEncoder encoder, StringBuilder builder, boolean first, Object key, Object value, ChunkWriter writer) {
             if (!first) {
                 builder.append(encoder.itemSeparator);
             }
@@ -273,11 +280,11 @@ public class JSONEncoderBuiltins extends PythonBuiltins {
                 builder.append('"');
             }
             builder.append(encoder.keySeparator);
-            appendListObj(encoder, builder, value);
+            appendListObj(encoder, builder, value, writer);
             return false;
         }
 
-        private void appendList(PJSONEncoder encoder, StringBuilder builder, PSequence list) {
+        private void appendList(PJSONEncoder encoder, StringBuilder builder, PSequence list, ChunkWriter writer) {
             SequenceStorage storage = list.getSequenceStorage();
 
             if (storage.length() == 0) {
@@ -291,7 +298,8 @@ public class JSONEncoderBuiltins extends PythonBuiltins {
                         if (i > 0) {
                             builder.append(encoder.itemSeparator);
                         }
-                        appendListObj(encoder, builder, storage.getItemNormalized(i));
+                        appendListObj(encoder, builder, storage.getItemNormalized(i), writer);
+                        flushIfFull(writer, builder);
                     }
                 } else {
                     Object iter = callGetListIter.executeObject(null, list);
@@ -308,7 +316,8 @@ public class JSONEncoderBuiltins extends PythonBuiltins {
                             builder.append(encoder.itemSeparator);
                             first = false;
                         }
-                        appendListObj(encoder, builder, item);
+                        appendListObj(encoder, builder, item, writer);
+                        flushIfFull(writer, builder);
                     }
                 }
 
@@ -317,4 +326,157 @@ public class JSONEncoderBuiltins extends PythonBuiltins {
             }
         }
     }
+
+    @Builtin(name = __CALL__, minNumOfPositionalArgs = 1, parameterNames = {"$self", "obj", "_current_indent_level"})
+    @ArgumentClinic(name = "_current_indent_level", conversion = ArgumentClinic.ClinicConversion.Int, defaultValue = "0", useDefaultForNone = true)
+    @GenerateNodeFactory
+    public abstract static class CallEncoderNode extends EncoderBaseNode {
+
+        @Override
+        protected ArgumentClinicProvider getArgumentClinic() {
+            return JSONEncoderBuiltinsClinicProviders.CallEncoderNodeClinicProviderGen.INSTANCE;
+        }
+
+        @Specialization
+        @TruffleBoundary
+        protected PTuple call(PJSONEncoder self, Object obj, @SuppressWarnings("unused") int indent) {
+            StringBuilder builder = new StringBuilder();
+            appendListObj(self, builder, obj, null);
+            return factory.createTuple(new Object[]{builder.toString()});
+        }
+    }
+
+    /**
+     * Encodes {@code obj} and passes the output to {@code fp.write} in chunks, so that the whole
+     * document never has to be held in memory. Binary streams, and the buffer of UTF-8 text
+     * streams, get the UTF-8 encoded bytes directly.
+     */
+    @Builtin(name = "dump", minNumOfPositionalArgs = 3, parameterNames = {"$self", "obj", "fp"})
+    @GenerateNodeFactory
+    public abstract static class DumpNode extends EncoderBaseNode {
+
+        @Child private PythonObjectLibrary writeLib = PythonObjectLibrary.getFactory().createDispatched(2);
+        @Child private GetClassNode getTargetClass = GetClassNode.create();
+
+        @Override
+        protected ArgumentClinicProvider getArgumentClinic() {
+            return ArgumentClinicProvider.NOOP;
+        }
+
+        @Specialization
+        @TruffleBoundary
+        protected Object dump(PJSONEncoder self, Object obj, Object fp) {
+            ChunkWriter writer = createWriter(self, fp);
+            StringBuilder builder = new StringBuilder();
+            appendListObj(self, builder, obj, writer);
+            writer.flush(builder);
+            return PNone.NONE;
+        }
+
+        private ChunkWriter createWriter(PJSONEncoder encoder, Object fp) {
+            Object cls = getTargetClass.execute(fp);
+            if (fp instanceof PTextIO && profileClassSlowPath(cls, PTextIOWrapper) && canWriteToBuffer(encoder, (PTextIO) fp)) {
+                PTextIO textIO = (PTextIO) fp;
+                ChunkWriter writer = new ChunkWriter(textIO.getBuffer(), true, textIO, writeLib, factory);
+                writer.writePending();
+                textIO.clearDecodedChars();
+                textIO.clearSnapshot();
+                return writer;
+            } else if (profileClassSlowPath(cls, PBytesIO) || profileClassSlowPath(cls, PBufferedWriter) || profileClassSlowPath(cls, PBufferedRandom)) {
+                return new ChunkWriter(fp, true, null, writeLib, factory);
+            }
+            return new ChunkWriter(fp, false, null, writeLib, factory);
+        }
+
+        /**
+         * The encoded output can bypass the text layer if it is UTF-8 and contains no line breaks
+         * that the text stream would have to translate or flush on.
+         */
+        private static boolean canWriteToBuffer(PJSONEncoder encoder, PTextIO textIO) {
+            if (textIO.isDetached() || !textIO.hasEncoder() || encoder.fastEncode == FastEncode.None) {
+                return false;
+            }
+            if (hasLineBreak(encoder.itemSeparator) || hasLineBreak(encoder.keySeparator)) {
+                return false;
+            }
+            return StandardCharsets.UTF_8.equals(CharsetMapping.getCharset(textIO.getEncoding()));
+        }
+
+        private static boolean hasLineBreak(String s) {
+            return s.indexOf('\n') >= 0 || s.indexOf('\r') >= 0;
+        }
+    }
+
+    /**
+     * Passes encoded output to the {@code write} method of a stream once at least
+     * {@link #CHUNK_SIZE} characters have accumulated, either as {@code str} or UTF-8 encoded as
+     * {@code bytes}.
+     */
+    static final class ChunkWriter {
+        static final int CHUNK_SIZE = IOModuleBuiltins.DEFAULT_BUFFER_SIZE;
+
+        private final Object target;
+        private final boolean binary;
+        /** The text stream wrapping {@link #target}, if any. */
+        private final PTextIO textIO;
+        private final PythonObjectLibrary lib;
+        private final PythonObjectFactory factory;
+
+        ChunkWriter(Object target, boolean binary, PTextIO textIO, PythonObjectLibrary lib, PythonObjectFactory factory) {
+            this.target = target;
+            this.binary = binary;
+            this.textIO = textIO;
+            this.lib = lib;
+            this.factory = factory;
+        }
+
+        void flush(StringBuilder builder) {
+            if (builder.length() == 0) {
+                return;
+            }
+            String chunk = builder.toString();
+            builder.setLength(0);
+            if (!binary) {
+                lib.lookupAndCallRegularMethod(target, null, WRITE, chunk);
+                return;
+            }
+            byte[] bytes = encodeUtf8(chunk);
+            if (bytes != null) {
+                lib.lookupAndCallRegularMethod(target, null, WRITE, factory.createBytes(bytes));
+            } else if (textIO != null) {
+                // lone surrogates, let the text stream apply its error handler
+                lib.lookupAndCallRegularMethod(textIO, null, WRITE, chunk);
+                writePending();
+            } else {
+                // raises the appropriate UnicodeEncodeError
+                lib.lookupAndCallRegularMethod(target, null, WRITE, lib.lookupAndCallRegularMethod(chunk, null, ENCODE));
+            }
+        }
+
+        /**
+         * Writes out the bytes the text stream still holds, they must precede any output that is
+         * written to its buffer directly.
+         */
+        void writePending() {
+            if (textIO.hasPendingBytes()) {
+                lib.lookupAndCallRegularMethod(target, null, WRITE, factory.createBytes(textIO.getAndClearPendingBytes()));
+            }
+        }
+
+        private static byte[] encodeUtf8(String chunk) {
+            for (int i = 0; i < chunk.length(); i++) {
+                if (Character.isSurrogate(chunk.charAt(i))) {
+                    try {
+                        ByteBuffer encoded = StandardCharsets.UTF_8.newEncoder().encode(CharBuffer.wrap(chunk));
+                        byte[] bytes = new byte[encoded.remaining()];
+                        encoded.get(bytes);
+                        return bytes;
+                    } catch (CharacterCodingException e) {
+                        return null;
+                    }
+                }
+            }
+            return chunk.getBytes(StandardCharsets.UTF_8);
+        }
+    }
 }
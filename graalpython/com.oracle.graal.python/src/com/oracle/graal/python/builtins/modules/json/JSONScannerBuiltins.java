@@ -8,6 +8,9 @@ package com.oracle.graal.python.builtins.modules.json;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__CALL__;
 
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import com.oracle.graal.python.PythonLanguage;
@@ -18,13 +21,17 @@ import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.modules.BuiltinConstructors;
 import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.PBytesLike;
 import com.oracle.graal.python.builtins.objects.common.EconomicMapStorage;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageLibrary;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
 import com.oracle.graal.python.builtins.objects.dict.PDict;
 import com.oracle.graal.python.builtins.objects.exception.PBaseException;
 import com.oracle.graal.python.builtins.objects.floats.FloatUtils;
 import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.builtins.objects.str.StringNodes.CastToJavaStringCheckedNode;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.ErrorMessages;
 import com.oracle.graal.python.nodes.PRaiseNode;
 import com.oracle.graal.python.nodes.call.CallNode;
 import com.oracle.graal.python.nodes.call.special.CallUnaryMethodNode;
@@ -35,11 +42,14 @@ import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
 import com.oracle.graal.python.nodes.statement.AbstractImportNode;
 import com.oracle.graal.python.runtime.object.PythonObjectFactory;
 import com.oracle.graal.python.runtime.sequence.storage.ObjectSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.nodes.ControlFlowException;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.object.Shape;
 
@@ -55,11 +65,7 @@ public class JSONScannerBuiltins extends PythonBuiltins {
         return JSONScannerBuiltinsFactory.getFactories();
     }
 
-    @Builtin(name = __CALL__, minNumOfPositionalArgs = 1, parameterNames = {"$self", "string", "idx"})
-    @ArgumentClinic(name = "string", conversion = ArgumentClinic.ClinicConversion.String)
-    @ArgumentClinic(name = "idx", conversion = ArgumentClinic.ClinicConversion.Int, defaultValue = "0", useDefaultForNone = true)
-    @GenerateNodeFactory
-    public abstract static class CallScannerNode extends PythonTernaryClinicBuiltinNode {
+    abstract static class ScannerNode extends PythonTernaryClinicBuiltinNode {
 
         @Child private PRaiseNode raiseNode = PRaiseNode.create();
         @Child private CallUnaryMethodNode callParseFloat = CallUnaryMethodNode.create();
@@ -75,14 +81,28 @@ public class JSONScannerBuiltins extends PythonBuiltins {
         private Shape listInstanceShape;
         private Shape dictInstanceShape;
 
-        @Override
-        protected ArgumentClinicProvider getArgumentClinic() {
-            return JSONScannerBuiltinsClinicProviders.CallScannerNodeClinicProviderGen.INSTANCE;
+        @TruffleBoundary
+        final PTuple scanUnicode(PJSONScanner self, String string, int idx) {
+            initShapes();
+            IntRef nextIdx = new IntRef();
+            Object result = scanOnceUnicode(self, string, idx, nextIdx);
+            return factory.createTuple(new Object[]{result, nextIdx.value});
         }
 
-        @Specialization
         @TruffleBoundary
-        protected PTuple call(PJSONScanner self, String string, int idx) {
+        final Object scanBytes(PJSONScanner self, byte[] bytes, int length, int idx) {
+            initShapes();
+            IntRef nextIdx = new IntRef();
+            Object result;
+            try {
+                result = scanOnceBytes(self, bytes, length, idx, nextIdx);
+            } catch (BytesScanException e) {
+                return PNone.NONE;
+            }
+            return factory.createTuple(new Object[]{result, nextIdx.value});
+        }
+
+        private void initShapes() {
             if (tupleInstanceShape == null) {
                 tupleInstanceShape = PythonLanguage.getCurrent().getBuiltinTypeInstanceShape(PythonBuiltinClassType.PTuple);
             }
@@ -92,9 +112,6 @@ public class JSONScannerBuiltins extends PythonBuiltins {
             if (dictInstanceShape == null) {
                 dictInstanceShape = PythonLanguage.getCurrent().getBuiltinTypeInstanceShape(PythonBuiltinClassType.PDict);
             }
-            IntRef nextIdx = new IntRef();
-            Object result = scanOnceUnicode(self, string, idx, nextIdx);
-            return factory.createTuple(new Object[]{result, nextIdx.value});
         }
 
         private Object parseObjectUnicode(PJSONScanner scanner, String string, int start, IntRef nextIdx) {
@@ -320,6 +337,10 @@ public class JSONScannerBuiltins extends PythonBuiltins {
             }
 
             nextIdx.value = idx;
+            return createNumber(scanner, string, start, idx, isFloat);
+        }
+
+        private Object createNumber(PJSONScanner scanner, String string, int start, int idx, boolean isFloat) {
             if (isFloat) {
                 if (IsBuiltinClassProfile.profileClassSlowPath(scanner.parseFloat, PythonBuiltinClassType.PFloat)) {
                     String numStr = string.substring(start, idx);
@@ -439,6 +460,267 @@ public class JSONScannerBuiltins extends PythonBuiltins {
             return matchNumberUnicode(scanner, string, idx, nextIdx);
         }
 
+        private Object scanOnceBytes(PJSONScanner scanner, byte[] bytes, int length, int idx, IntRef nextIdx) {
+            /*
+             * Same as scanOnceUnicode, but over UTF-8 encoded bytes. Only the string values are
+             * decoded, everything else in a JSON document is ASCII.
+             */
+            if (idx < 0 || idx >= length) {
+                throw BytesScanException.INSTANCE;
+            }
+
+            switch (bytes[idx]) {
+                case '"':
+                    return scanStringBytes(bytes, length, idx + 1, scanner.strict, nextIdx);
+                case '{':
+                    return parseObjectBytes(scanner, bytes, length, idx + 1, nextIdx);
+                case '[':
+                    return parseArrayBytes(scanner, bytes, length, idx + 1, nextIdx);
+                case 'n':
+                    if (matchBytes(bytes, length, idx, "null")) {
+                        nextIdx.value = idx + 4;
+                        return PNone.NONE;
+                    }
+                    break;
+                case 't':
+                    if (matchBytes(bytes, length, idx, "true")) {
+                        nextIdx.value = idx + 4;
+                        return true;
+                    }
+                    break;
+                case 'f':
+                    if (matchBytes(bytes, length, idx, "false")) {
+                        nextIdx.value = idx + 5;
+                        return false;
+                    }
+                    break;
+                case 'N':
+                    if (matchBytes(bytes, length, idx, "NaN")) {
+                        return parseConstant(scanner, "NaN", idx, nextIdx);
+                    }
+                    break;
+                case 'I':
+                    if (matchBytes(bytes, length, idx, "Infinity")) {
+                        return parseConstant(scanner, "Infinity", idx, nextIdx);
+                    }
+                    break;
+                case '-':
+                    if (matchBytes(bytes, length, idx, "-Infinity")) {
+                        return parseConstant(scanner, "-Infinity", idx, nextIdx);
+                    }
+                    break;
+            }
+            return matchNumberBytes(scanner, bytes, length, idx, nextIdx);
+        }
+
+        private Object parseObjectBytes(PJSONScanner scanner, byte[] bytes, int length, int start, IntRef nextIdx) {
+            boolean hasPairsHook = scanner.objectPairsHook != PNone.NONE;
+
+            int idx = start;
+
+            ObjectSequenceStorage listStorage = null;
+            EconomicMapStorage mapStorage = null;
+            if (hasPairsHook) {
+                listStorage = new ObjectSequenceStorage(4);
+            } else {
+                mapStorage = EconomicMapStorage.create();
+            }
+
+            idx = skipWhitespace(bytes, idx, length);
+            if (idx >= length || bytes[idx] != '}') {
+                while (true) {
+                    if (idx >= length || bytes[idx] != '"') {
+                        throw BytesScanException.INSTANCE;
+                    }
+                    String newKey = scanStringBytes(bytes, length, idx + 1, scanner.strict, nextIdx);
+                    String key = scanner.memo.putIfAbsent(newKey, newKey);
+                    if (key == null) {
+                        key = newKey;
+                    }
+                    idx = skipWhitespace(bytes, nextIdx.value, length);
+                    if (idx >= length || bytes[idx] != ':') {
+                        throw BytesScanException.INSTANCE;
+                    }
+                    idx = skipWhitespace(bytes, idx + 1, length);
+
+                    Object val = scanOnceBytes(scanner, bytes, length, idx, nextIdx);
+                    idx = nextIdx.value;
+
+                    if (hasPairsHook) {
+                        listStorage.insertItem(listStorage.length(), factory.createTuple(PythonBuiltinClassType.PTuple, tupleInstanceShape, new Object[]{key, val}));
+                    } else {
+                        mapLib.setItem(mapStorage, key, val);
+                    }
+
+                    idx = skipWhitespace(bytes, idx, length);
+                    if (idx < length && bytes[idx] == '}') {
+                        break;
+                    }
+                    if (idx >= length || bytes[idx] != ',') {
+                        throw BytesScanException.INSTANCE;
+                    }
+                    idx = skipWhitespace(bytes, idx + 1, length);
+                }
+            }
+
+            nextIdx.value = idx + 1;
+
+            if (hasPairsHook) {
+                return callObjectPairsHook.executeObject(scanner.objectPairsHook, factory.createList(PythonBuiltinClassType.PList, listInstanceShape, listStorage));
+            }
+            PDict rval = factory.createDict(PythonBuiltinClassType.PDict, dictInstanceShape, mapStorage);
+            if (scanner.objectHook != PNone.NONE) {
+                return callObjectHook.executeObject(scanner.objectHook, rval);
+            }
+            return rval;
+        }
+
+        private Object parseArrayBytes(PJSONScanner scanner, byte[] bytes, int length, int start, IntRef nextIdx) {
+            ObjectSequenceStorage storage = new ObjectSequenceStorage(4);
+            int idx = skipWhitespace(bytes, start, length);
+            if (idx >= length || bytes[idx] != ']') {
+                while (true) {
+                    Object val = scanOnceBytes(scanner, bytes, length, idx, nextIdx);
+                    storage.insertItem(storage.length(), val);
+                    idx = skipWhitespace(bytes, nextIdx.value, length);
+                    if (idx < length && bytes[idx] == ']') {
+                        break;
+                    }
+                    if (idx >= length || bytes[idx] != ',') {
+                        throw BytesScanException.INSTANCE;
+                    }
+                    idx = skipWhitespace(bytes, idx + 1, length);
+                }
+            }
+            if (idx >= length || bytes[idx] != ']') {
+                throw BytesScanException.INSTANCE;
+            }
+            nextIdx.value = idx + 1;
+            return factory.createList(PythonBuiltinClassType.PList, listInstanceShape, storage);
+        }
+
+        private Object matchNumberBytes(PJSONScanner scanner, byte[] bytes, int length, int start, IntRef nextIdx) {
+            int idx = start;
+            if (bytes[idx] == '-') {
+                idx++;
+                if (idx >= length) {
+                    throw BytesScanException.INSTANCE;
+                }
+            }
+            if (bytes[idx] >= '1' && bytes[idx] <= '9') {
+                idx = skipDigits(bytes, idx + 1, length);
+            } else if (bytes[idx] == '0') {
+                idx++;
+            } else {
+                throw BytesScanException.INSTANCE;
+            }
+            boolean isFloat = false;
+            if (idx < (length - 1) && bytes[idx] == '.' && isDigit(bytes[idx + 1])) {
+                isFloat = true;
+                idx = skipDigits(bytes, idx + 2, length);
+            }
+            if (idx < (length - 1) && (bytes[idx] == 'e' || bytes[idx] == 'E')) {
+                int eStart = idx;
+                idx++;
+                if (idx < (length - 1) && (bytes[idx] == '-' || bytes[idx] == '+')) {
+                    idx++;
+                }
+                idx = skipDigits(bytes, idx, length);
+                if (isDigit(bytes[idx - 1])) {
+                    isFloat = true;
+                } else {
+                    idx = eStart;
+                }
+            }
+            nextIdx.value = idx;
+            // numbers are pure ASCII, so Latin-1 is the cheapest way to get a String
+            String numStr = new String(bytes, start, idx - start, StandardCharsets.ISO_8859_1);
+            return createNumber(scanner, numStr, 0, numStr.length(), isFloat);
+        }
+
+        private static boolean matchBytes(byte[] bytes, int length, int idx, String expected) {
+            if (idx + expected.length() > length) {
+                return false;
+            }
+            for (int i = 0; i < expected.length(); i++) {
+                if (bytes[idx + i] != expected.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean isDigit(byte b) {
+            return b >= '0' && b <= '9';
+        }
+
+        private static int skipDigits(byte[] bytes, int start, int length) {
+            int idx = start;
+            while (idx < length && isDigit(bytes[idx])) {
+                idx++;
+            }
+            return idx;
+        }
+
+        private static int skipWhitespace(byte[] bytes, int start, int length) {
+            int idx = start;
+            while (idx < length && JSONModuleBuiltins.isWhitespace((char) bytes[idx])) {
+                idx++;
+            }
+            return idx;
+        }
+    }
+
+    @Builtin(name = __CALL__, minNumOfPositionalArgs = 1, parameterNames = {"$self", "string", "idx"})
+    @ArgumentClinic(name = "idx", conversion = ArgumentClinic.ClinicConversion.Int, defaultValue = "0", useDefaultForNone = true)
+    @GenerateNodeFactory
+    public abstract static class CallScannerNode extends ScannerNode {
+
+        @Override
+        protected ArgumentClinicProvider getArgumentClinic() {
+            return JSONScannerBuiltinsClinicProviders.CallScannerNodeClinicProviderGen.INSTANCE;
+        }
+
+        @Specialization
+        protected PTuple call(PJSONScanner self, String string, int idx) {
+            return scanUnicode(self, string, idx);
+        }
+
+        @Specialization
+        protected PTuple callOther(PJSONScanner self, Object string, int idx,
+                        @Cached CastToJavaStringCheckedNode castString) {
+            return scanUnicode(self, castString.execute(string, ErrorMessages.FIRST_ARG_MUST_BE_STRING_NOT_P, new Object[]{string}), idx);
+        }
+    }
+
+    /*
+     * Internal entry point of json.loads for UTF-8 encoded bytes, which are scanned in place, the
+     * returned index is a byte offset. A malformed document is reported by returning None,
+     * json.loads then decodes the document to produce the proper JSONDecodeError. Exceptions
+     * raised by the hooks propagate as usual.
+     */
+    @Builtin(name = "_scan_once_bytes", minNumOfPositionalArgs = 2, parameterNames = {"$self", "string", "idx"})
+    @ArgumentClinic(name = "idx", conversion = ArgumentClinic.ClinicConversion.Int, defaultValue = "0", useDefaultForNone = true)
+    @GenerateNodeFactory
+    public abstract static class ScanOnceBytesNode extends ScannerNode {
+
+        @Override
+        protected ArgumentClinicProvider getArgumentClinic() {
+            return JSONScannerBuiltinsClinicProviders.ScanOnceBytesNodeClinicProviderGen.INSTANCE;
+        }
+
+        @Specialization
+        protected Object scan(PJSONScanner self, PBytesLike bytes, int idx,
+                        @Cached SequenceStorageNodes.GetInternalByteArrayNode getBytes,
+                        @Cached SequenceStorageNodes.LenNode lenNode) {
+            SequenceStorage storage = bytes.getSequenceStorage();
+            return scanBytes(self, getBytes.execute(storage), lenNode.execute(storage), idx);
+        }
+
+        @Specialization(guards = "!isBytes(string)")
+        protected Object scanOther(@SuppressWarnings("unused") PJSONScanner self, Object string, @SuppressWarnings("unused") int idx) {
+            throw raise(PythonBuiltinClassType.TypeError, ErrorMessages.EXPECTED_BYTESLIKE_GOT_P, string);
+        }
     }
 
     @TruffleBoundary
@@ -517,6 +799,92 @@ public class JSONScannerBuiltins extends PythonBuiltins {
         throw decodeError(raiseNode, string, start - 1, "Unterminated string starting at");
     }
 
+    static String scanStringBytes(byte[] bytes, int length, int start, boolean strict, IntRef nextIdx) {
+        StringBuilder builder = null;
+        boolean ascii = true;
+        // start of the raw run of bytes since the last escape sequence
+        int runStart = start;
+        int idx = start;
+        while (idx < length) {
+            byte b = bytes[idx++];
+            if (b == '"') {
+                nextIdx.value = idx;
+                if (builder == null) {
+                    // no escapes, create the value directly from the byte slice
+                    return decodeRun(bytes, runStart, idx - 1, ascii);
+                }
+                builder.append(decodeRun(bytes, runStart, idx - 1, ascii));
+                return builder.toString();
+            } else if (b == '\\') {
+                if (builder == null) {
+                    builder = new StringBuilder();
+                }
+                builder.append(decodeRun(bytes, runStart, idx - 1, ascii));
+                ascii = true;
+                if (idx >= length) {
+                    throw BytesScanException.INSTANCE;
+                }
+                char c = (char) bytes[idx++];
+                if (c == 'u') {
+                    if (idx + 3 >= length) {
+                        throw BytesScanException.INSTANCE;
+                    }
+                    c = 0;
+                    for (int i = 0; i < 4; i++) {
+                        int digit = Character.digit((char) bytes[idx++], 16);
+                        if (digit == -1) {
+                            throw BytesScanException.INSTANCE;
+                        }
+                        c = (char) ((c << 4) + digit);
+                    }
+                } else {
+                    switch (c) {
+                        case '"':
+                        case '\\':
+                        case '/':
+                            break;
+                        case 'b':
+                            c = '\b';
+                            break;
+                        case 'f':
+                            c = '\f';
+                            break;
+                        case 'n':
+                            c = '\n';
+                            break;
+                        case 'r':
+                            c = '\r';
+                            break;
+                        case 't':
+                            c = '\t';
+                            break;
+                        default:
+                            throw BytesScanException.INSTANCE;
+                    }
+                }
+                builder.append(c);
+                runStart = idx;
+            } else if (b < 0) {
+                ascii = false;
+            } else if (strict && b < 0x20) {
+                throw BytesScanException.INSTANCE;
+            }
+        }
+        throw BytesScanException.INSTANCE;
+    }
+
+    private static String decodeRun(byte[] bytes, int from, int to, boolean ascii) {
+        if (ascii) {
+            return new String(bytes, from, to - from, StandardCharsets.ISO_8859_1);
+        }
+        try {
+            // a fresh decoder reports malformed input instead of replacing it
+            return StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(bytes, from, to - from)).toString();
+        } catch (CharacterCodingException e) {
+            throw BytesScanException.INSTANCE;
+        }
+    }
+
     private static RuntimeException decodeError(Node raisingNode, String jsonString, int pos, String format) {
         CompilerAsserts.neverPartOfCompilation();
         Object module = AbstractImportNode.importModule("json.decoder");
@@ -530,4 +898,14 @@ public class JSONScannerBuiltins extends PythonBuiltins {
         Object exception = CallNode.getUncached().execute(PythonLanguage.getContext().getCore().lookupType(PythonBuiltinClassType.StopIteration), value);
         throw PRaiseNode.raise(raisingNode, (PBaseException) exception, false);
     }
+
+    /**
+     * Signals a malformed document while scanning UTF-8 encoded bytes. It never escapes the
+     * scanner, which returns {@code None} instead, so that it cannot be confused with errors
+     * raised by the user's hooks.
+     */
+    static final class BytesScanException extends ControlFlowException {
+        private static final long serialVersionUID = 1L;
+        static final BytesScanException INSTANCE = new BytesScanException();
+    }
 }
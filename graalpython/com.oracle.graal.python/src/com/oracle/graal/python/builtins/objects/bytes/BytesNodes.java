@@ -903,6 +903,54 @@ public abstract class BytesNodes {
         }
     }
 
+    /**
+     * Returns the Java byte array that backs a writable buffer object, or {@code null} if the
+     * object's memory is not a managed byte array that can be written to directly (e.g. native
+     * memory or a non-contiguous memoryview). The object's data starts at {@link #getOffset} in
+     * the returned array. The caller must have checked writability and length with
+     * {@link GetByteLengthIfWritableNode}.
+     */
+    public abstract static class GetWritableBackingArrayNode extends PNodeWithContext {
+
+        public abstract byte[] execute(Object buf);
+
+        @Specialization(guards = "isByteStorage(buf)")
+        static byte[] doByteArray(PByteArray buf) {
+            return ((ByteSequenceStorage) buf.getSequenceStorage()).getInternalByteArray();
+        }
+
+        @Specialization(guards = {"!buf.isReleased()", "!buf.isReadOnly()", "buf.getBufferPointer() == null", "buf.isCContiguous()", "isByteArrayOwner(buf.getOwner())"})
+        static byte[] doMemoryView(PMemoryView buf) {
+            return ((ByteSequenceStorage) ((PByteArray) buf.getOwner()).getSequenceStorage()).getInternalByteArray();
+        }
+
+        @Specialization
+        static byte[] doArray(PArray buf) {
+            return buf.getBuffer();
+        }
+
+        @Fallback
+        static byte[] doOther(@SuppressWarnings("unused") Object buf) {
+            return null;
+        }
+
+        public static int getOffset(Object buf) {
+            return buf instanceof PMemoryView ? ((PMemoryView) buf).getOffset() : 0;
+        }
+
+        static boolean isByteArrayOwner(Object owner) {
+            return owner instanceof PByteArray && isByteStorage((PByteArray) owner);
+        }
+
+        static boolean isByteStorage(PByteArray buf) {
+            return buf.getSequenceStorage() instanceof ByteSequenceStorage;
+        }
+
+        public static GetWritableBackingArrayNode create() {
+            return BytesNodesFactory.GetWritableBackingArrayNodeGen.create();
+        }
+    }
+
     public abstract static class GetBuffer extends PNodeWithRaise {
 
         public abstract byte[] execute(Object buffer);
@@ -45,8 +45,10 @@ import com.oracle.graal.python.runtime.GilNode;
 import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Cached.Exclusive;
+import com.oracle.truffle.api.dsl.Cached.Shared;
 import com.oracle.truffle.api.dsl.GenerateUncached;
 import com.oracle.truffle.api.dsl.ImportStatic;
 import com.oracle.truffle.api.dsl.Specialization;
@@ -60,29 +62,167 @@ import com.oracle.truffle.api.library.ExportLibrary;
 import com.oracle.truffle.api.library.ExportMessage;
 import com.oracle.truffle.api.nodes.InvalidAssumptionException;
 import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.profiles.ConditionProfile;
 
+/**
+ * Cache for resolving handles (i.e. pointers into the handle space) that native code passes back
+ * to us. Besides the small per-call-site inline cache of {@link GetOrInsertNode}, the cache keeps an
+ * open addressing table mapping handles to their native wrappers. The table starts small and is
+ * doubled whenever it becomes too full, up to the capacity given by
+ * {@link com.oracle.graal.python.runtime.PythonOptions#CApiHandleCacheSize}. Once the maximum
+ * capacity is reached, colliding entries are simply overwritten.
+ *
+ * An entry is only valid as long as the handle-valid assumption of the wrapper that was current at
+ * insertion time is valid, i.e., until the handle is released.
+ */
 @ExportLibrary(InteropLibrary.class)
 public final class HandleCache implements TruffleObject {
+    /** Limit of the inline cache in {@link GetOrInsertNode}. */
     public static final int CACHE_SIZE = 3;
 
-    final long[] keys;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int MAX_PROBES = 8;
+
     private final TruffleObject ptrToResolveHandle;
+    private final int maxCapacity;
 
-    int pos = 0;
+    private long[] keys;
+    private PythonNativeWrapper[] values;
+    private Assumption[] assumptions;
+    private int size;
+
+    private long hits;
+    private long misses;
 
     public HandleCache(TruffleObject ptrToResolveHandle) {
-        keys = new long[CACHE_SIZE];
+        this(ptrToResolveHandle, INITIAL_CAPACITY);
+    }
+
+    public HandleCache(TruffleObject ptrToResolveHandle, int maxCapacity) {
         this.ptrToResolveHandle = ptrToResolveHandle;
+        this.maxCapacity = maxCapacity <= 0 ? 0 : powerOfTwo(maxCapacity);
+        int capacity = Math.min(INITIAL_CAPACITY, this.maxCapacity);
+        keys = new long[capacity];
+        values = new PythonNativeWrapper[capacity];
+        assumptions = new Assumption[capacity];
     }
 
-    protected int len() {
+    private static int powerOfTwo(int n) {
+        int highest = Integer.highestOneBit(n);
+        return highest == n || highest == 1 << 30 ? highest : highest << 1;
+    }
+
+    private static int hash(long handle) {
+        // handles are aligned pointers, so spread the high bits
+        return (int) ((handle * 0x9E3779B97F4A7C15L) >>> 32);
+    }
+
+    public int getCapacity() {
         return keys.length;
     }
 
+    public int getMaxCapacity() {
+        return maxCapacity;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
     protected TruffleObject getPtrToResolveHandle() {
         return ptrToResolveHandle;
     }
 
+    /**
+     * Returns the wrapper cached for the given handle or {@code null}. Must be called with the GIL
+     * held.
+     */
+    PythonNativeWrapper lookup(long handle) {
+        long[] k = keys;
+        if (k.length == 0) {
+            return null;
+        }
+        int mask = k.length - 1;
+        int idx = hash(handle) & mask;
+        for (int i = 0; i < MAX_PROBES; i++) {
+            PythonNativeWrapper value = values[idx];
+            if (value == null) {
+                break;
+            }
+            if (k[idx] == handle) {
+                if (assumptions[idx].isValid()) {
+                    hits++;
+                    return value;
+                }
+                break;
+            }
+            idx = (idx + 1) & mask;
+        }
+        misses++;
+        return null;
+    }
+
+    /**
+     * Adds a resolved handle to the table. Must be called with the GIL held.
+     */
+    @TruffleBoundary
+    void insert(long handle, PythonNativeWrapper wrapper) {
+        if (keys.length == 0) {
+            return;
+        }
+        if (size >= keys.length - (keys.length >> 2) && keys.length < maxCapacity) {
+            grow();
+        }
+        put(handle, wrapper, wrapper.ensureHandleValidAssumption());
+    }
+
+    private void put(long handle, PythonNativeWrapper wrapper, Assumption assumption) {
+        int mask = keys.length - 1;
+        int home = hash(handle) & mask;
+        int idx = home;
+        for (int i = 0; i < MAX_PROBES; i++) {
+            if (values[idx] == null) {
+                size++;
+                break;
+            }
+            if (keys[idx] == handle || !assumptions[idx].isValid()) {
+                break;
+            }
+            idx = (idx + 1) & mask;
+            if (i == MAX_PROBES - 1) {
+                // no free slot in the probe sequence, replace the entry at the home slot
+                idx = home;
+            }
+        }
+        keys[idx] = handle;
+        values[idx] = wrapper;
+        assumptions[idx] = assumption;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        PythonNativeWrapper[] oldValues = values;
+        Assumption[] oldAssumptions = assumptions;
+        int capacity = oldKeys.length << 1;
+        keys = new long[capacity];
+        values = new PythonNativeWrapper[capacity];
+        assumptions = new Assumption[capacity];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null && oldAssumptions[i].isValid()) {
+                put(oldKeys[i], oldValues[i], oldAssumptions[i]);
+            }
+        }
+    }
+
     @ExportMessage
     @SuppressWarnings("static-method")
     public boolean isExecutable() {
@@ -125,14 +265,29 @@ public final class HandleCache implements TruffleObject {
         @Specialization(replaces = "doCachedSingleContext", assumptions = "singleContextAssumption()")
         static Object doGenericSingleContext(@SuppressWarnings("unused") HandleCache cache, long handle,
                         @Cached(value = "cache.getPtrToResolveHandle()", allowUncached = true) TruffleObject resolveHandleFunction,
-                        @CachedLibrary("resolveHandleFunction") InteropLibrary interopLibrary) throws UnsupportedTypeException, ArityException, UnsupportedMessageException {
-            return resolveHandle(handle, resolveHandleFunction, interopLibrary);
+                        @CachedLibrary("resolveHandleFunction") InteropLibrary interopLibrary,
+                        @Shared("hitProfile") @Cached ConditionProfile hitProfile) throws UnsupportedTypeException, ArityException, UnsupportedMessageException {
+            return lookupOrResolve(cache, handle, resolveHandleFunction, interopLibrary, hitProfile);
         }
 
         @Specialization(limit = "3", replaces = {"doCachedSingleContext", "doGenericSingleContext"})
         static Object doGeneric(@SuppressWarnings("unused") HandleCache cache, long handle,
-                        @CachedLibrary("cache.getPtrToResolveHandle()") InteropLibrary interopLibrary) throws UnsupportedTypeException, ArityException, UnsupportedMessageException {
-            return resolveHandle(handle, cache.getPtrToResolveHandle(), interopLibrary);
+                        @CachedLibrary("cache.getPtrToResolveHandle()") InteropLibrary interopLibrary,
+                        @Shared("hitProfile") @Cached ConditionProfile hitProfile) throws UnsupportedTypeException, ArityException, UnsupportedMessageException {
+            return lookupOrResolve(cache, handle, cache.getPtrToResolveHandle(), interopLibrary, hitProfile);
+        }
+
+        private static Object lookupOrResolve(HandleCache cache, long handle, TruffleObject resolveHandleFunction, InteropLibrary interopLibrary, ConditionProfile hitProfile)
+                        throws UnsupportedTypeException, ArityException, UnsupportedMessageException {
+            PythonNativeWrapper cached = cache.lookup(handle);
+            if (hitProfile.profile(cached != null)) {
+                return cached;
+            }
+            Object resolved = resolveHandle(handle, resolveHandleFunction, interopLibrary);
+            if (resolved instanceof PythonNativeWrapper) {
+                cache.insert(handle, (PythonNativeWrapper) resolved);
+            }
+            return resolved;
         }
 
         static PythonNativeWrapper resolveHandleUncached(HandleCache cache, long handle)
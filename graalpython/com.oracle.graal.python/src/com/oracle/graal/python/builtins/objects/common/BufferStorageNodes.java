@@ -45,20 +45,26 @@ import static com.oracle.graal.python.builtins.PythonBuiltinClassType.OverflowEr
 import static com.oracle.graal.python.builtins.PythonBuiltinClassType.TypeError;
 import static com.oracle.graal.python.builtins.PythonBuiltinClassType.ValueError;
 
+import com.oracle.graal.python.PythonLanguage;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.modules.io.PBytesIOBuffer;
 import com.oracle.graal.python.builtins.objects.array.PArray;
 import com.oracle.graal.python.builtins.objects.bytes.PBytes;
 import com.oracle.graal.python.builtins.objects.bytes.PBytesLike;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.mmap.PMMap;
 import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
 import com.oracle.graal.python.builtins.objects.str.PString;
 import com.oracle.graal.python.builtins.objects.str.StringNodes;
 import com.oracle.graal.python.lib.PyNumberIndexNode;
 import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.PConstructAndRaiseNode;
 import com.oracle.graal.python.nodes.PGuards;
 import com.oracle.graal.python.nodes.PRaiseNode;
 import com.oracle.graal.python.nodes.util.CastToJavaUnsignedLongNode;
+import com.oracle.graal.python.runtime.PosixSupportLibrary;
+import com.oracle.graal.python.runtime.PosixSupportLibrary.PosixException;
+import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.object.PythonObjectFactory;
 import com.oracle.graal.python.util.BufferFormat;
@@ -67,6 +73,7 @@ import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Cached.Shared;
+import com.oracle.truffle.api.dsl.CachedContext;
 import com.oracle.truffle.api.dsl.GenerateUncached;
 import com.oracle.truffle.api.dsl.ImportStatic;
 import com.oracle.truffle.api.dsl.Specialization;
@@ -333,6 +340,12 @@ public abstract class BufferStorageNodes {
         static int doArray(PArray array) {
             return array.getLength() * array.getFormat().bytesize;
         }
+
+        @Specialization
+        static int doMMap(PMMap mmap) {
+            // memoryviews of mmaps larger than the int range are rejected when they are created
+            return (int) mmap.getLength();
+        }
     }
 
     @GenerateUncached
@@ -363,6 +376,22 @@ public abstract class BufferStorageNodes {
                 throw raiseNode.raise(IndexError, ErrorMessages.INVALID_BUFFER_ACCESS);
             }
         }
+
+        @Specialization
+        static void doMMap(PMMap src, int srcPos, byte[] dest, int destPos, int length,
+                        @CachedContext(PythonLanguage.class) PythonContext context,
+                        @CachedLibrary(limit = "1") PosixSupportLibrary posixLib,
+                        @Cached PRaiseNode raiseNode,
+                        @Cached PConstructAndRaiseNode constructAndRaiseNode) {
+            if (src.isClosed()) {
+                throw raiseNode.raise(ValueError, ErrorMessages.MMAP_CLOSED_OR_INVALID);
+            }
+            try {
+                posixLib.mmapReadBytes(context.getPosixSupport(), src.getPosixSupportHandle(), srcPos, dest, destPos, length);
+            } catch (PosixException e) {
+                throw constructAndRaiseNode.raiseOSError(null, e.getErrorCode(), e.getMessage(), null, null);
+            }
+        }
     }
 
     @GenerateUncached
@@ -387,5 +416,22 @@ public abstract class BufferStorageNodes {
                 throw raiseNode.raise(IndexError, ErrorMessages.INVALID_BUFFER_ACCESS);
             }
         }
+
+        @Specialization
+        static void doMMap(byte[] src, int srcPos, PMMap dest, int destPos, int length,
+                        @CachedContext(PythonLanguage.class) PythonContext context,
+                        @CachedLibrary(limit = "1") PosixSupportLibrary posixLib,
+                        @Cached PRaiseNode raiseNode,
+                        @Cached PConstructAndRaiseNode constructAndRaiseNode) {
+            if (dest.isClosed()) {
+                throw raiseNode.raise(ValueError, ErrorMessages.MMAP_CLOSED_OR_INVALID);
+            }
+            byte[] data = srcPos == 0 ? src : PythonUtils.arrayCopyOfRange(src, srcPos, srcPos + length);
+            try {
+                posixLib.mmapWriteBytes(context.getPosixSupport(), dest.getPosixSupportHandle(), destPos, data, length);
+            } catch (PosixException e) {
+                throw constructAndRaiseNode.raiseOSError(null, e.getErrorCode(), e.getMessage(), null, null);
+            }
+        }
     }
 }
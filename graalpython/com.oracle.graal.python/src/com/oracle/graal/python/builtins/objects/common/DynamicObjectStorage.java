@@ -324,7 +324,7 @@ public final class DynamicObjectStorage extends HashingStorage {
             HashingStorage newStore;
             if (isBuiltinKey.profile(PGuards.isBuiltinString(key, profile))) {
                 // To avoid calling the costly length message we use SIZE_THRESHOLD
-                newStore = new HashMapStorage(SIZE_THRESHOLD);
+                newStore = new StringMapStorage(SIZE_THRESHOLD);
             } else {
                 newStore = EconomicMapStorage.create(lib.length(self));
             }
@@ -84,7 +84,7 @@ public class EconomicMapStorage extends HashingStorage {
         return new EconomicMapStorage(initialCapacity, false);
     }
 
-    static final class DictKey {
+    public static final class DictKey {
         final Object value;
         final long hash;
 
@@ -120,6 +120,26 @@ public class EconomicMapStorage extends HashingStorage {
         return map.size();
     }
 
+    /**
+     * Creates a key for the {@code ...KnownHash} accessors below, which let callers that access
+     * the same key several times compute its hash only once.
+     */
+    public static DictKey createKey(Object key, PythonObjectLibrary lib, ThreadState state, ConditionProfile gotState) {
+        return new DictKey(key, getHashWithState(key, lib, state, gotState));
+    }
+
+    public Object getItemKnownHash(DictKey key, PythonObjectLibrary keylib, PythonObjectLibrary otherlib, ConditionProfile findProfile, ConditionProfile gotState, ThreadState state) {
+        return map.get(key, keylib, otherlib, findProfile, gotState, state);
+    }
+
+    public void setItemKnownHash(DictKey key, Object value, PythonObjectLibrary keylib, PythonObjectLibrary otherlib, ConditionProfile findProfile, ConditionProfile gotState, ThreadState state) {
+        map.put(key, value, keylib, otherlib, findProfile, gotState, state);
+    }
+
+    public void delItemKnownHash(DictKey key, PythonObjectLibrary keylib, PythonObjectLibrary otherlib, ConditionProfile gotState, ThreadState state) {
+        map.removeKey(key, keylib, otherlib, gotState, state);
+    }
+
     @ExportMessage
     @ImportStatic(PGuards.class)
     static class GetItemWithState {
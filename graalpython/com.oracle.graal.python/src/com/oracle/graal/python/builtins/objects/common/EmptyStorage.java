@@ -86,11 +86,13 @@ public class EmptyStorage extends HashingStorage {
     @ExportMessage
     public HashingStorage setItemWithState(Object key, Object value, ThreadState state,
                     @CachedLanguage PythonLanguage lang,
-                    @CachedLibrary(limit = "2") HashingStorageLibrary lib,
+                    @CachedLibrary(limit = "3") HashingStorageLibrary lib,
                     @Exclusive @Cached ConditionProfile gotState) {
         HashingStorage newStore;
         if (key instanceof String) {
             newStore = new DynamicObjectStorage(lang);
+        } else if (LongMapStorage.isSupportedKey(key)) {
+            newStore = new LongMapStorage();
         } else {
             newStore = EconomicMapStorage.create();
         }
@@ -0,0 +1,516 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.common;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.oracle.graal.python.builtins.objects.common.HashingStorageLibrary.ForEachNode;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageLibrary.HashingStorageIterable;
+import com.oracle.graal.python.builtins.objects.function.PArguments.ThreadState;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Cached.Exclusive;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.library.CachedLibrary;
+import com.oracle.truffle.api.library.ExportLibrary;
+import com.oracle.truffle.api.library.ExportMessage;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+
+/**
+ * Hashing storage specialized for {@code int} keys that fit into a Java {@code long}. The entries
+ * are kept in insertion order in a primitive {@code long[]} array of keys and a parallel array of
+ * values, and an open addressing table of indices into those arrays is used for lookups, so the
+ * keys are never boxed and comparing them does not dispatch {@code __eq__}. Removed entries have a
+ * {@code null} value and are squeezed out the next time the arrays need to grow. The storage is
+ * generalized to {@link EconomicMapStorage} once a key that is not a Java {@code int} or
+ * {@code long} is inserted.
+ *
+ * Set operations between two storages of this type run as primitive loops over the key arrays.
+ */
+@ExportLibrary(HashingStorageLibrary.class)
+public final class LongMapStorage extends HashingStorage {
+    private static final int MIN_CAPACITY = 8;
+
+    /**
+     * Indices into the entry arrays, offset by one, so that zero denotes a free slot. The table is
+     * always at least twice as large as the entry arrays, so there is always a free slot to stop
+     * probing at.
+     */
+    private int[] table;
+    /** The keys in insertion order. */
+    private long[] keys;
+    /** The values in insertion order, removed entries have a {@code null} value. */
+    private Object[] values;
+    /** The number of used entries, including removed ones. */
+    private int used;
+    /** The number of live entries. */
+    private int size;
+
+    public LongMapStorage(int capacity) {
+        allocate(capacity);
+    }
+
+    public LongMapStorage() {
+        this(MIN_CAPACITY);
+    }
+
+    private LongMapStorage(LongMapStorage original) {
+        this.table = Arrays.copyOf(original.table, original.table.length);
+        this.keys = Arrays.copyOf(original.keys, original.keys.length);
+        this.values = Arrays.copyOf(original.values, original.values.length);
+        this.used = original.used;
+        this.size = original.size;
+    }
+
+    private void allocate(int capacity) {
+        int entries = capacity <= MIN_CAPACITY ? MIN_CAPACITY : Integer.highestOneBit(capacity - 1) << 1;
+        table = new int[entries << 1];
+        keys = new long[entries];
+        values = new Object[entries];
+        used = 0;
+        size = 0;
+    }
+
+    static boolean isSupportedKey(Object obj) {
+        return obj instanceof Integer || obj instanceof Long;
+    }
+
+    /**
+     * Boxes a key for code outside of this storage. Keys are stored as {@code long}, but keys in
+     * the {@code int} range are handed out as {@link Integer}, like the rest of the runtime
+     * represents them.
+     */
+    private static Object boxKey(long key) {
+        return PInt.isIntRange(key) ? (Object) (int) key : (Object) key;
+    }
+
+    private static int firstSlot(long hash, int mask) {
+        int h = (int) (hash ^ (hash >>> 32));
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private int findEntry(long key) {
+        int mask = table.length - 1;
+        int slot = firstSlot(PythonObjectLibrary.hash(key), mask);
+        while (true) {
+            int index = table[slot] - 1;
+            if (index < 0) {
+                return -1;
+            }
+            if (keys[index] == key && values[index] != null) {
+                return index;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private Object get(long key) {
+        int index = findEntry(key);
+        return index < 0 ? null : values[index];
+    }
+
+    private void put(long key, Object value) {
+        long hash = PythonObjectLibrary.hash(key);
+        int mask = table.length - 1;
+        int slot = firstSlot(hash, mask);
+        int freeSlot = -1;
+        while (true) {
+            int index = table[slot] - 1;
+            if (index < 0) {
+                break;
+            }
+            if (values[index] == null) {
+                // the slot points to a removed entry and can be reused if the key is not found
+                if (freeSlot < 0) {
+                    freeSlot = slot;
+                }
+            } else if (keys[index] == key) {
+                values[index] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (used == keys.length) {
+            resize();
+            insertIndex(hash, used);
+        } else {
+            table[freeSlot < 0 ? slot : freeSlot] = used + 1;
+        }
+        keys[used] = key;
+        values[used] = value;
+        used++;
+        size++;
+    }
+
+    private void removeEntry(int index) {
+        values[index] = null;
+        size--;
+    }
+
+    private void remove(long key) {
+        int index = findEntry(key);
+        if (index >= 0) {
+            removeEntry(index);
+        }
+    }
+
+    private void insertIndex(long hash, int index) {
+        int mask = table.length - 1;
+        int slot = firstSlot(hash, mask);
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = index + 1;
+    }
+
+    /**
+     * Grows the entry arrays, or just squeezes out the removed entries if there are enough of
+     * them, and rebuilds the index table.
+     */
+    @TruffleBoundary
+    private void resize() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        int oldUsed = used;
+        int live = size;
+        allocate(live < (oldKeys.length >> 1) ? oldKeys.length : oldKeys.length << 1);
+        for (int i = 0; i < oldUsed; i++) {
+            if (oldValues[i] != null) {
+                keys[used] = oldKeys[i];
+                values[used] = oldValues[i];
+                insertIndex(PythonObjectLibrary.hash(oldKeys[i]), used);
+                used++;
+            }
+        }
+        size = live;
+    }
+
+    /**
+     * Looks up the entry of a key that is not a Java {@code int} or {@code long}, but may still be
+     * equal to one of the keys (e.g. {@code 1.0} or {@code True}).
+     */
+    private int findEntry(Object key, long hash, PythonObjectLibrary lib, PythonObjectLibrary otherLib, ThreadState state) {
+        int mask = table.length - 1;
+        int slot = firstSlot(hash, mask);
+        while (true) {
+            int index = table[slot] - 1;
+            if (index < 0) {
+                return -1;
+            }
+            if (values[index] != null && PythonObjectLibrary.hash(keys[index]) == hash && lib.equalsWithState(key, boxKey(keys[index]), otherLib, state)) {
+                return index;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    @ExportMessage
+    @Override
+    public int length() {
+        return size;
+    }
+
+    @ExportMessage
+    static class GetItemWithState {
+        @Specialization
+        static Object getItemInt(LongMapStorage self, int key, @SuppressWarnings("unused") ThreadState state) {
+            return self.get(key);
+        }
+
+        @Specialization
+        static Object getItemLong(LongMapStorage self, long key, @SuppressWarnings("unused") ThreadState state) {
+            return self.get(key);
+        }
+
+        @Specialization(guards = "!isSupportedKey(key)", limit = "3")
+        static Object getItemNotSupportedKey(LongMapStorage self, Object key, ThreadState state,
+                        @CachedLibrary("key") PythonObjectLibrary lib,
+                        @CachedLibrary(limit = "1") PythonObjectLibrary otherLib,
+                        @Exclusive @Cached ConditionProfile gotState) {
+            // we must still search the storage for items that have the same hash and that may
+            // return true from key.__eq__
+            long hash = getHashWithState(key, lib, state, gotState);
+            int index = self.findEntry(key, hash, lib, otherLib, state);
+            return index < 0 ? null : self.values[index];
+        }
+    }
+
+    @ExportMessage
+    static class SetItemWithState {
+        @Specialization
+        static HashingStorage setItemInt(LongMapStorage self, int key, Object value, @SuppressWarnings("unused") ThreadState state) {
+            self.put(key, value);
+            return self;
+        }
+
+        @Specialization
+        static HashingStorage setItemLong(LongMapStorage self, long key, Object value, @SuppressWarnings("unused") ThreadState state) {
+            self.put(key, value);
+            return self;
+        }
+
+        @Specialization(guards = "!isSupportedKey(key)")
+        static HashingStorage setItemNotSupportedKey(LongMapStorage self, Object key, Object value, @SuppressWarnings("unused") ThreadState state,
+                        @CachedLibrary("self") HashingStorageLibrary thisLib,
+                        @CachedLibrary(limit = "1") HashingStorageLibrary newLib) {
+            HashingStorage newStore = EconomicMapStorage.create(self.length());
+            thisLib.addAllToOther(self, newStore);
+            newLib.setItem(newStore, key, value);
+            return newStore;
+        }
+    }
+
+    @ExportMessage
+    static class DelItemWithState {
+        @Specialization
+        static HashingStorage delItemInt(LongMapStorage self, int key, @SuppressWarnings("unused") ThreadState state) {
+            self.remove(key);
+            return self;
+        }
+
+        @Specialization
+        static HashingStorage delItemLong(LongMapStorage self, long key, @SuppressWarnings("unused") ThreadState state) {
+            self.remove(key);
+            return self;
+        }
+
+        @Specialization(guards = "!isSupportedKey(key)", limit = "3")
+        static HashingStorage delItemNotSupportedKey(LongMapStorage self, Object key, ThreadState state,
+                        @CachedLibrary("key") PythonObjectLibrary lib,
+                        @CachedLibrary(limit = "1") PythonObjectLibrary otherLib,
+                        @Exclusive @Cached ConditionProfile gotState) {
+            long hash = getHashWithState(key, lib, state, gotState);
+            int index = self.findEntry(key, hash, lib, otherLib, state);
+            if (index >= 0) {
+                self.removeEntry(index);
+            }
+            return self;
+        }
+    }
+
+    @ExportMessage
+    public static class AddAllToOther {
+        @TruffleBoundary
+        @Specialization
+        static HashingStorage toSameType(LongMapStorage self, LongMapStorage other) {
+            for (int i = 0; i < self.used; i++) {
+                if (self.values[i] != null) {
+                    other.put(self.keys[i], self.values[i]);
+                }
+            }
+            return other;
+        }
+
+        @TruffleBoundary
+        @Specialization(guards = "!isLongMapStorage(other)")
+        static HashingStorage generic(LongMapStorage self, HashingStorage other,
+                        @CachedLibrary(limit = "2") HashingStorageLibrary lib) {
+            HashingStorage result = other;
+            for (int i = 0; i < self.used; i++) {
+                if (self.values[i] != null) {
+                    result = lib.setItem(result, boxKey(self.keys[i]), self.values[i]);
+                }
+            }
+            return result;
+        }
+    }
+
+    @ExportMessage
+    public static class IntersectWithState {
+        @TruffleBoundary
+        @Specialization
+        static HashingStorage intersectSameType(LongMapStorage self, LongMapStorage other, @SuppressWarnings("unused") ThreadState state) {
+            LongMapStorage result = new LongMapStorage(Math.min(self.size, other.size));
+            for (int i = 0; i < self.used; i++) {
+                if (self.values[i] != null && other.findEntry(self.keys[i]) >= 0) {
+                    result.put(self.keys[i], self.values[i]);
+                }
+            }
+            return result;
+        }
+
+        @TruffleBoundary
+        @Specialization(guards = "!isLongMapStorage(other)", limit = "4")
+        static HashingStorage intersectGeneric(LongMapStorage self, HashingStorage other, @SuppressWarnings("unused") ThreadState state,
+                        @CachedLibrary("other") HashingStorageLibrary hlib) {
+            LongMapStorage result = new LongMapStorage();
+            for (int i = 0; i < self.used; i++) {
+                if (self.values[i] != null && hlib.hasKey(other, boxKey(self.keys[i]))) {
+                    result.put(self.keys[i], self.values[i]);
+                }
+            }
+            return result;
+        }
+    }
+
+    @ExportMessage
+    public static class DiffWithState {
+        @TruffleBoundary
+        @Specialization
+        static HashingStorage diffSameType(LongMapStorage self, LongMapStorage other, @SuppressWarnings("unused") ThreadState state) {
+            LongMapStorage result = new LongMapStorage(self.size);
+            for (int i = 0; i < self.used; i++) {
+                if (self.values[i] != null && other.findEntry(self.keys[i]) < 0) {
+                    result.put(self.keys[i], self.values[i]);
+                }
+            }
+            return result;
+        }
+
+        @TruffleBoundary
+        @Specialization(guards = "!isLongMapStorage(other)", limit = "4")
+        static HashingStorage diffGeneric(LongMapStorage self, HashingStorage other, @SuppressWarnings("unused") ThreadState state,
+                        @CachedLibrary("other") HashingStorageLibrary hlib) {
+            LongMapStorage result = new LongMapStorage();
+            for (int i = 0; i < self.used; i++) {
+                if (self.values[i] != null && !hlib.hasKey(other, boxKey(self.keys[i]))) {
+                    result.put(self.keys[i], self.values[i]);
+                }
+            }
+            return result;
+        }
+    }
+
+    @ExportMessage
+    public HashingStorage xor(HashingStorage other,
+                    @CachedLibrary("this") HashingStorageLibrary selfLib,
+                    @CachedLibrary(limit = "2") HashingStorageLibrary otherLib) {
+        HashingStorage a = selfLib.diff(this, other);
+        HashingStorage b = otherLib.diff(other, this);
+        return selfLib.union(a, b);
+    }
+
+    static boolean isLongMapStorage(HashingStorage storage) {
+        return storage instanceof LongMapStorage;
+    }
+
+    @ExportMessage
+    @Override
+    Object forEachUntyped(ForEachNode<Object> node, Object argIn) {
+        Object arg = argIn;
+        for (int i = 0; i < used; i++) {
+            if (values[i] != null) {
+                arg = node.execute(boxKey(keys[i]), arg);
+            }
+        }
+        return arg;
+    }
+
+    @ExportMessage
+    @Override
+    public HashingStorage clear() {
+        allocate(MIN_CAPACITY);
+        return this;
+    }
+
+    @ExportMessage
+    @Override
+    public HashingStorage copy() {
+        return new LongMapStorage(this);
+    }
+
+    @ExportMessage
+    @Override
+    public HashingStorageIterable<Object> keys() {
+        return new HashingStorageIterable<>(new KeysIterator(this));
+    }
+
+    @ExportMessage
+    @Override
+    public HashingStorageIterable<Object> reverseKeys() {
+        return new HashingStorageIterable<>(new ReverseKeysIterator(this));
+    }
+
+    private static final class KeysIterator implements Iterator<Object> {
+        private final LongMapStorage storage;
+        private int index;
+
+        KeysIterator(LongMapStorage storage) {
+            this.storage = storage;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (index < storage.used && storage.values[index] == null) {
+                index++;
+            }
+            return index < storage.used;
+        }
+
+        @Override
+        public Object next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return boxKey(storage.keys[index++]);
+        }
+    }
+
+    private static final class ReverseKeysIterator implements Iterator<Object> {
+        private final LongMapStorage storage;
+        private int index;
+
+        ReverseKeysIterator(LongMapStorage storage) {
+            this.storage = storage;
+            this.index = storage.used - 1;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (index >= 0 && (index >= storage.used || storage.values[index] == null)) {
+                index--;
+            }
+            return index >= 0;
+        }
+
+        @Override
+        public Object next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return boxKey(storage.keys[index--]);
+        }
+    }
+}
@@ -0,0 +1,444 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.common;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.oracle.graal.python.builtins.objects.common.HashingStorageLibrary.ForEachNode;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageLibrary.HashingStorageIterable;
+import com.oracle.graal.python.builtins.objects.function.PArguments.ThreadState;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.nodes.util.CastToJavaStringNode;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Cached.Exclusive;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.library.CachedLibrary;
+import com.oracle.truffle.api.library.ExportLibrary;
+import com.oracle.truffle.api.library.ExportMessage;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+
+/**
+ * Hashing storage specialized for builtin string keys. The entries are kept in insertion order in
+ * parallel arrays of keys, cached hash codes and values, and an open addressing table of indices
+ * into those arrays is used for lookups. Lookups therefore neither box the key nor dispatch
+ * {@code __hash__} or {@code __eq__}, and most mismatching probes are rejected by comparing the
+ * cached hash codes. Removed entries leave a hole in the entry arrays that is squeezed out the next
+ * time the arrays need to grow. The storage is generalized to {@link EconomicMapStorage} once a key
+ * that is not a builtin string is inserted.
+ */
+@ExportLibrary(HashingStorageLibrary.class)
+public final class StringMapStorage extends HashingStorage {
+    private static final int MIN_CAPACITY = 8;
+
+    /**
+     * Indices into the entry arrays, offset by one, so that zero denotes a free slot. The table is
+     * always at least twice as large as the entry arrays, so there is always a free slot to stop
+     * probing at.
+     */
+    private int[] table;
+    /** The keys in insertion order, removed entries have a {@code null} key. */
+    private String[] keys;
+    private int[] hashes;
+    private Object[] values;
+    /** The number of used entries, including removed ones. */
+    private int used;
+    /** The number of live entries. */
+    private int size;
+
+    public StringMapStorage(int capacity) {
+        allocate(capacity);
+    }
+
+    public StringMapStorage() {
+        this(MIN_CAPACITY);
+    }
+
+    private StringMapStorage(StringMapStorage original) {
+        this.table = Arrays.copyOf(original.table, original.table.length);
+        this.keys = Arrays.copyOf(original.keys, original.keys.length);
+        this.hashes = Arrays.copyOf(original.hashes, original.hashes.length);
+        this.values = Arrays.copyOf(original.values, original.values.length);
+        this.used = original.used;
+        this.size = original.size;
+    }
+
+    private void allocate(int capacity) {
+        int entries = capacity <= MIN_CAPACITY ? MIN_CAPACITY : Integer.highestOneBit(capacity - 1) << 1;
+        table = new int[entries << 1];
+        keys = new String[entries];
+        hashes = new int[entries];
+        values = new Object[entries];
+        used = 0;
+        size = 0;
+    }
+
+    static boolean isSupportedKey(Object obj, IsBuiltinClassProfile isBuiltinClassProfile) {
+        return PGuards.isBuiltinString(obj, isBuiltinClassProfile);
+    }
+
+    private static int firstSlot(int hash, int mask) {
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private int findEntry(String key, int hash) {
+        int mask = table.length - 1;
+        int slot = firstSlot(hash, mask);
+        while (true) {
+            int index = table[slot] - 1;
+            if (index < 0) {
+                return -1;
+            }
+            if (hashes[index] == hash) {
+                String k = keys[index];
+                if (k != null && (k == key || k.equals(key))) {
+                    return index;
+                }
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private Object get(String key) {
+        int index = findEntry(key, key.hashCode());
+        return index < 0 ? null : values[index];
+    }
+
+    private void put(String key, Object value) {
+        int hash = key.hashCode();
+        int mask = table.length - 1;
+        int slot = firstSlot(hash, mask);
+        int freeSlot = -1;
+        while (true) {
+            int index = table[slot] - 1;
+            if (index < 0) {
+                break;
+            }
+            String k = keys[index];
+            if (k == null) {
+                // the slot points to a removed entry and can be reused if the key is not found
+                if (freeSlot < 0) {
+                    freeSlot = slot;
+                }
+            } else if (hashes[index] == hash && (k == key || k.equals(key))) {
+                values[index] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (used == keys.length) {
+            resize();
+            insertIndex(hash, used);
+        } else {
+            table[freeSlot < 0 ? slot : freeSlot] = used + 1;
+        }
+        keys[used] = key;
+        hashes[used] = hash;
+        values[used] = value;
+        used++;
+        size++;
+    }
+
+    private void removeEntry(int index) {
+        keys[index] = null;
+        values[index] = null;
+        size--;
+    }
+
+    private void remove(String key) {
+        int index = findEntry(key, key.hashCode());
+        if (index >= 0) {
+            removeEntry(index);
+        }
+    }
+
+    private void insertIndex(int hash, int index) {
+        int mask = table.length - 1;
+        int slot = firstSlot(hash, mask);
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = index + 1;
+    }
+
+    /**
+     * Grows the entry arrays, or just squeezes out the removed entries if there are enough of
+     * them, and rebuilds the index table.
+     */
+    @TruffleBoundary
+    private void resize() {
+        String[] oldKeys = keys;
+        int[] oldHashes = hashes;
+        Object[] oldValues = values;
+        int oldUsed = used;
+        int live = size;
+        allocate(live < (oldKeys.length >> 1) ? oldKeys.length : oldKeys.length << 1);
+        for (int i = 0; i < oldUsed; i++) {
+            String k = oldKeys[i];
+            if (k != null) {
+                keys[used] = k;
+                hashes[used] = oldHashes[i];
+                values[used] = oldValues[i];
+                insertIndex(oldHashes[i], used);
+                used++;
+            }
+        }
+        size = live;
+    }
+
+    /**
+     * Looks up the entry of a key that is not a builtin string, but may still be equal to one of
+     * the keys.
+     */
+    private int findEntry(Object key, int hash, PythonObjectLibrary lib, PythonObjectLibrary otherLib, ThreadState state) {
+        int mask = table.length - 1;
+        int slot = firstSlot(hash, mask);
+        while (true) {
+            int index = table[slot] - 1;
+            if (index < 0) {
+                return -1;
+            }
+            if (hashes[index] == hash) {
+                String k = keys[index];
+                // Hopefully it will be uncommon that the object we search for will have the same
+                // hash as some of the items in the storage, so the equals call does not hurt much
+                if (k != null && lib.equalsWithState(key, k, otherLib, state)) {
+                    return index;
+                }
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    @ExportMessage
+    @Override
+    public int length() {
+        return size;
+    }
+
+    @ExportMessage
+    static class GetItemWithState {
+        @Specialization
+        static Object getItemString(StringMapStorage self, String key, @SuppressWarnings("unused") ThreadState state) {
+            return self.get(key);
+        }
+
+        @Specialization(replaces = "getItemString", guards = "isSupportedKey(key, profile)")
+        static Object getItem(StringMapStorage self, Object key, @SuppressWarnings("unused") ThreadState state,
+                        @Cached CastToJavaStringNode castNode,
+                        @SuppressWarnings("unused") @Cached IsBuiltinClassProfile profile) {
+            return self.get(castNode.execute(key));
+        }
+
+        @Specialization(guards = "!isSupportedKey(key, profile)", limit = "3")
+        static Object getItemNotSupportedKey(StringMapStorage self, Object key, ThreadState state,
+                        @SuppressWarnings("unused") @Cached IsBuiltinClassProfile profile,
+                        @CachedLibrary("key") PythonObjectLibrary lib,
+                        @CachedLibrary(limit = "1") PythonObjectLibrary otherLib,
+                        @Exclusive @Cached ConditionProfile gotState) {
+            // we must still search the storage for items that have the same hash and that may
+            // return true from key.__eq__
+            long hash = getHashWithState(key, lib, state, gotState);
+            if (PInt.isIntRange(hash)) {
+                int index = self.findEntry(key, (int) hash, lib, otherLib, state);
+                return index < 0 ? null : self.values[index];
+            }
+            // else the hashes cannot possibly match
+            return null;
+        }
+    }
+
+    @ExportMessage
+    static class SetItemWithState {
+        @Specialization
+        static HashingStorage setItemString(StringMapStorage self, String key, Object value, @SuppressWarnings("unused") ThreadState state) {
+            self.put(key, value);
+            return self;
+        }
+
+        @Specialization(replaces = "setItemString", guards = "isSupportedKey(key, profile)")
+        static HashingStorage setItem(StringMapStorage self, Object key, Object value, @SuppressWarnings("unused") ThreadState state,
+                        @Cached CastToJavaStringNode castNode,
+                        @SuppressWarnings("unused") @Cached IsBuiltinClassProfile profile) {
+            self.put(castNode.execute(key), value);
+            return self;
+        }
+
+        @Specialization(guards = "!isSupportedKey(key, profile)", limit = "3")
+        static HashingStorage setItemNotSupportedKey(StringMapStorage self, Object key, Object value, @SuppressWarnings("unused") ThreadState state,
+                        @SuppressWarnings("unused") @Cached IsBuiltinClassProfile profile,
+                        @CachedLibrary("self") HashingStorageLibrary thisLib,
+                        @CachedLibrary(limit = "1") HashingStorageLibrary newLib) {
+            HashingStorage newStore = EconomicMapStorage.create(self.length());
+            thisLib.addAllToOther(self, newStore);
+            newLib.setItem(newStore, key, value);
+            return newStore;
+        }
+    }
+
+    @ExportMessage
+    static class DelItemWithState {
+        @Specialization
+        static HashingStorage delItemString(StringMapStorage self, String key, @SuppressWarnings("unused") ThreadState state) {
+            self.remove(key);
+            return self;
+        }
+
+        @Specialization(replaces = "delItemString", guards = "isSupportedKey(key, profile)")
+        static HashingStorage delItem(StringMapStorage self, Object key, @SuppressWarnings("unused") ThreadState state,
+                        @Cached CastToJavaStringNode castNode,
+                        @SuppressWarnings("unused") @Cached IsBuiltinClassProfile profile) {
+            self.remove(castNode.execute(key));
+            return self;
+        }
+
+        @Specialization(guards = "!isSupportedKey(key, profile)", limit = "3")
+        static HashingStorage delItemNonSupportedKey(StringMapStorage self, Object key, ThreadState state,
+                        @SuppressWarnings("unused") @Cached IsBuiltinClassProfile profile,
+                        @CachedLibrary("key") PythonObjectLibrary lib,
+                        @CachedLibrary(limit = "1") PythonObjectLibrary otherLib,
+                        @Exclusive @Cached ConditionProfile gotState) {
+            long hash = getHashWithState(key, lib, state, gotState);
+            if (PInt.isIntRange(hash)) {
+                int index = self.findEntry(key, (int) hash, lib, otherLib, state);
+                if (index >= 0) {
+                    self.removeEntry(index);
+                }
+            }
+            // else the hashes cannot possibly match
+            return self;
+        }
+    }
+
+    @ExportMessage
+    @Override
+    Object forEachUntyped(ForEachNode<Object> node, Object argIn) {
+        Object arg = argIn;
+        for (int i = 0; i < used; i++) {
+            String key = keys[i];
+            if (key != null) {
+                arg = node.execute(key, arg);
+            }
+        }
+        return arg;
+    }
+
+    @ExportMessage
+    @Override
+    public HashingStorage clear() {
+        allocate(MIN_CAPACITY);
+        return this;
+    }
+
+    @ExportMessage
+    @Override
+    public HashingStorage copy() {
+        return new StringMapStorage(this);
+    }
+
+    @ExportMessage
+    @Override
+    public HashingStorageIterable<Object> keys() {
+        return new HashingStorageIterable<>(new KeysIterator(this));
+    }
+
+    @ExportMessage
+    @Override
+    public HashingStorageIterable<Object> reverseKeys() {
+        return new HashingStorageIterable<>(new ReverseKeysIterator(this));
+    }
+
+    private static final class KeysIterator implements Iterator<Object> {
+        private final StringMapStorage storage;
+        private int index;
+
+        KeysIterator(StringMapStorage storage) {
+            this.storage = storage;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (index < storage.used && storage.keys[index] == null) {
+                index++;
+            }
+            return index < storage.used;
+        }
+
+        @Override
+        public Object next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return storage.keys[index++];
+        }
+    }
+
+    private static final class ReverseKeysIterator implements Iterator<Object> {
+        private final StringMapStorage storage;
+        private int index;
+
+        ReverseKeysIterator(StringMapStorage storage) {
+            this.storage = storage;
+            this.index = storage.used - 1;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (index >= 0 && (index >= storage.used || storage.keys[index] == null)) {
+                index--;
+            }
+            return index >= 0;
+        }
+
+        @Override
+        public Object next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return storage.keys[index--];
+        }
+    }
+}
@@ -35,11 +35,11 @@ import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.objects.common.DynamicObjectStorage;
 import com.oracle.graal.python.builtins.objects.common.EconomicMapStorage;
 import com.oracle.graal.python.builtins.objects.common.EmptyStorage;
-import com.oracle.graal.python.builtins.objects.common.HashMapStorage;
 import com.oracle.graal.python.builtins.objects.common.HashingStorage;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageLibrary;
 import com.oracle.graal.python.builtins.objects.common.KeywordsStorage;
 import com.oracle.graal.python.builtins.objects.common.PHashingCollection;
+import com.oracle.graal.python.builtins.objects.common.StringMapStorage;
 import com.oracle.graal.python.builtins.objects.function.PArguments.ThreadState;
 import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
@@ -102,7 +102,7 @@ public final class PDict extends PHashingCollection {
             if (expectedSize < DynamicObjectStorage.SIZE_THRESHOLD) {
                 newDictStorage = new DynamicObjectStorage(lang);
             } else {
-                newDictStorage = new HashMapStorage(expectedSize);
+                newDictStorage = new StringMapStorage(expectedSize);
             }
         } else {
             newDictStorage = EconomicMapStorage.create(expectedSize);
@@ -0,0 +1,341 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.functools;
+
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.TypeError;
+import static com.oracle.graal.python.nodes.SpecialAttributeNames.__DICT__;
+import static com.oracle.graal.python.nodes.SpecialAttributeNames.__QUALNAME__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__CALL__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GET__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REDUCE__;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.EconomicMapStorage;
+import com.oracle.graal.python.builtins.objects.common.EconomicMapStorage.DictKey;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageLibrary;
+import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.function.PArguments;
+import com.oracle.graal.python.builtins.objects.function.PArguments.ThreadState;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.functools.LruCacheWrapperBuiltinsFactory.MakeKeyNodeGen;
+import com.oracle.graal.python.builtins.objects.functools.PLruCacheWrapper.Link;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonVarargsBuiltinNode;
+import com.oracle.graal.python.nodes.object.GetClassNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.graal.python.util.PythonUtils;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.interop.UnsupportedMessageException;
+import com.oracle.truffle.api.library.CachedLibrary;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PLruCacheWrapper)
+public final class LruCacheWrapperBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return LruCacheWrapperBuiltinsFactory.getFactories();
+    }
+
+    /**
+     * Builds the cache key for a call like {@code functools._make_key} does: a single positional
+     * argument of exact type {@code str} or {@code int} is its own key, everything else is
+     * flattened into a tuple of the positional arguments, a marker, the keyword items and, for
+     * typed caches, the argument types.
+     */
+    abstract static class MakeKeyNode extends PNodeWithContext {
+
+        abstract Object execute(PLruCacheWrapper self, Object[] args, PKeyword[] kwds);
+
+        @Specialization
+        static Object makeKey(PLruCacheWrapper self, Object[] args, PKeyword[] kwds,
+                        @Cached GetClassNode getClassNode,
+                        @Cached IsBuiltinClassProfile isStrProfile,
+                        @Cached IsBuiltinClassProfile isIntProfile,
+                        @Cached ConditionProfile singleArgProfile,
+                        @Cached PythonObjectFactory factory) {
+            if (singleArgProfile.profile(!self.isTyped() && kwds.length == 0 && args.length == 1 && isExactStrOrInt(args[0], isStrProfile, isIntProfile))) {
+                return args[0];
+            }
+            boolean typed = self.isTyped();
+            int size = args.length;
+            if (kwds.length > 0) {
+                size += 1 + 2 * kwds.length;
+            }
+            if (typed) {
+                size += args.length + kwds.length;
+            }
+            Object[] key = new Object[size];
+            PythonUtils.arraycopy(args, 0, key, 0, args.length);
+            int pos = args.length;
+            if (kwds.length > 0) {
+                key[pos++] = self.getKwdMark();
+                for (PKeyword kwd : kwds) {
+                    key[pos++] = kwd.getName();
+                    key[pos++] = kwd.getValue();
+                }
+            }
+            if (typed) {
+                for (Object arg : args) {
+                    key[pos++] = getClassNode.execute(arg);
+                }
+                for (PKeyword kwd : kwds) {
+                    key[pos++] = getClassNode.execute(kwd.getValue());
+                }
+            }
+            return factory.createTuple(key);
+        }
+
+        private static boolean isExactStrOrInt(Object arg, IsBuiltinClassProfile isStrProfile, IsBuiltinClassProfile isIntProfile) {
+            if (arg instanceof String || arg instanceof Integer || arg instanceof Long) {
+                return true;
+            } else if (arg instanceof PString) {
+                return isStrProfile.profileObject(arg, PythonBuiltinClassType.PString);
+            } else if (arg instanceof PInt) {
+                return isIntProfile.profileObject(arg, PythonBuiltinClassType.PInt);
+            }
+            return false;
+        }
+
+        static MakeKeyNode create() {
+            return MakeKeyNodeGen.create();
+        }
+    }
+
+    @Builtin(name = __CALL__, minNumOfPositionalArgs = 1, takesVarArgs = true, takesVarKeywordArgs = true)
+    @GenerateNodeFactory
+    public abstract static class CallNode extends PythonVarargsBuiltinNode {
+        @Child private com.oracle.graal.python.nodes.call.CallNode callNode = com.oracle.graal.python.nodes.call.CallNode.create();
+
+        @Specialization(guards = "self.getMaxsize() == 0")
+        Object uncached(VirtualFrame frame, PLruCacheWrapper self, Object[] arguments, PKeyword[] keywords) {
+            self.incrementMisses();
+            return callNode.execute(frame, self.getFunc(), arguments, keywords);
+        }
+
+        @Specialization(guards = "self.isUnbounded()")
+        Object unbounded(VirtualFrame frame, PLruCacheWrapper self, Object[] arguments, PKeyword[] keywords,
+                        @Cached MakeKeyNode makeKeyNode,
+                        @CachedLibrary(limit = "1") HashingStorageLibrary lib,
+                        @Cached ConditionProfile hitProfile,
+                        @Cached ConditionProfile hasFrameProfile) {
+            Object key = makeKeyNode.execute(self, arguments, keywords);
+            Object result = lib.getItemWithFrame(self.getCache(), key, hasFrameProfile, frame);
+            if (hitProfile.profile(result != null)) {
+                self.incrementHits();
+                return result;
+            }
+            self.incrementMisses();
+            result = callNode.execute(frame, self.getFunc(), arguments, keywords);
+            lib.setItemWithFrame(self.getCache(), key, result, hasFrameProfile, frame);
+            return result;
+        }
+
+        @Specialization(guards = "self.getMaxsize() > 0")
+        Object bounded(VirtualFrame frame, PLruCacheWrapper self, Object[] arguments, PKeyword[] keywords,
+                        @Cached MakeKeyNode makeKeyNode,
+                        @CachedLibrary(limit = "3") PythonObjectLibrary keyLib,
+                        @CachedLibrary(limit = "2") PythonObjectLibrary otherLib,
+                        @Cached ConditionProfile hitProfile,
+                        @Cached ConditionProfile fullProfile,
+                        @Cached ConditionProfile findProfile,
+                        @Cached ConditionProfile hasFrameProfile,
+                        @Cached ConditionProfile gotState) {
+            ThreadState state = PArguments.getThreadStateOrNull(frame, hasFrameProfile);
+            EconomicMapStorage cache = self.getCache();
+            // the hash of the key is computed only once, evicted links remember theirs
+            DictKey key = EconomicMapStorage.createKey(makeKeyNode.execute(self, arguments, keywords), keyLib, state, gotState);
+            Object link = cache.getItemKnownHash(key, keyLib, otherLib, findProfile, gotState, state);
+            if (hitProfile.profile(link != null)) {
+                self.moveToEnd((Link) link);
+                self.incrementHits();
+                return ((Link) link).getResult();
+            }
+            self.incrementMisses();
+            Object result = callNode.execute(frame, self.getFunc(), arguments, keywords);
+            if (cache.getItemKnownHash(key, keyLib, otherLib, findProfile, gotState, state) != null) {
+                // a recursive call or another thread already cached this key while we were
+                // calling the function; keep the existing entry
+                return result;
+            }
+            if (fullProfile.profile(cache.length() >= self.getMaxsize() && !self.isListEmpty())) {
+                Link oldest = self.popOldestLink();
+                cache.delItemKnownHash(oldest.getKey(), keyLib, otherLib, gotState, state);
+                self.reuseLink(oldest, key, result);
+                cache.setItemKnownHash(key, oldest, keyLib, otherLib, findProfile, gotState, state);
+            } else {
+                Link newLink = self.addLink(key, result);
+                cache.setItemKnownHash(key, newLink, keyLib, otherLib, findProfile, gotState, state);
+            }
+            return result;
+        }
+
+        @Override
+        public Object varArgExecute(VirtualFrame frame, @SuppressWarnings("unused") Object self, Object[] arguments, PKeyword[] keywords) throws VarargsBuiltinDirectInvocationNotSupported {
+            Object[] argsWithoutSelf = new Object[arguments.length - 1];
+            PythonUtils.arraycopy(arguments, 1, argsWithoutSelf, 0, argsWithoutSelf.length);
+            return execute(frame, arguments[0], argsWithoutSelf, keywords);
+        }
+    }
+
+    @Builtin(name = "cache_info", minNumOfPositionalArgs = 1, doc = "Report cache statistics")
+    @GenerateNodeFactory
+    public abstract static class CacheInfoNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static Object cacheInfo(VirtualFrame frame, PLruCacheWrapper self,
+                        @CachedLibrary(limit = "1") HashingStorageLibrary lib,
+                        @Cached com.oracle.graal.python.nodes.call.CallNode callNode) {
+            Object maxsizeObj = self.isUnbounded() ? PNone.NONE : self.getMaxsize();
+            return callNode.execute(frame, self.getCacheInfoType(), self.getHits(), self.getMisses(), maxsizeObj, lib.length(self.getCache()));
+        }
+    }
+
+    @Builtin(name = "cache_clear", minNumOfPositionalArgs = 1, doc = "Clear the cache and cache statistics")
+    @GenerateNodeFactory
+    public abstract static class CacheClearNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static Object cacheClear(PLruCacheWrapper self,
+                        @CachedLibrary(limit = "1") HashingStorageLibrary lib) {
+            self.clearList();
+            lib.clear(self.getCache());
+            self.resetStatistics();
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = __GET__, minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    public abstract static class GetNode extends PythonTernaryBuiltinNode {
+        @Specialization(guards = "isNoValue(obj) || isNone(obj)")
+        static Object getFromClass(PLruCacheWrapper self, @SuppressWarnings("unused") Object obj, @SuppressWarnings("unused") Object type) {
+            return self;
+        }
+
+        @Specialization(guards = {"!isNoValue(obj)", "!isNone(obj)"})
+        Object get(PLruCacheWrapper self, Object obj, @SuppressWarnings("unused") Object type) {
+            return factory().createMethod(obj, self);
+        }
+    }
+
+    @Builtin(name = __REDUCE__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class ReduceNode extends PythonUnaryBuiltinNode {
+        @Specialization(limit = "1")
+        static Object reduce(VirtualFrame frame, PLruCacheWrapper self,
+                        @CachedLibrary("self") PythonObjectLibrary lib) {
+            return lib.lookupAttributeStrict(self, frame, __QUALNAME__);
+        }
+    }
+
+    @Builtin(name = "__copy__", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class CopyNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static Object copy(PLruCacheWrapper self) {
+            return self;
+        }
+    }
+
+    @Builtin(name = "__deepcopy__", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class DeepCopyNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        static Object deepcopy(PLruCacheWrapper self, @SuppressWarnings("unused") Object memo) {
+            return self;
+        }
+    }
+
+    @Builtin(name = __DICT__, minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2, isGetter = true, isSetter = true)
+    @GenerateNodeFactory
+    public abstract static class DictNode extends PythonBinaryBuiltinNode {
+        @Specialization(limit = "1")
+        Object getDict(PLruCacheWrapper self, @SuppressWarnings("unused") PNone mapping,
+                        @CachedLibrary("self") PythonObjectLibrary lib) {
+            PDict dict = lib.getDict(self);
+            if (dict == null) {
+                dict = factory().createDictFixedStorage(self);
+                setDict(lib, self, dict);
+            }
+            return dict;
+        }
+
+        @Specialization(limit = "1")
+        static Object setDict(PLruCacheWrapper self, PDict mapping,
+                        @CachedLibrary("self") PythonObjectLibrary lib) {
+            setDict(lib, self, mapping);
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = {"!isNoValue(mapping)", "!isDict(mapping)"})
+        Object setDict(@SuppressWarnings("unused") PLruCacheWrapper self, Object mapping) {
+            throw raise(TypeError, ErrorMessages.DICT_MUST_BE_SET_TO_DICT, mapping);
+        }
+
+        private static void setDict(PythonObjectLibrary lib, PLruCacheWrapper self, PDict dict) {
+            try {
+                lib.setDict(self, dict);
+            } catch (UnsupportedMessageException e) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
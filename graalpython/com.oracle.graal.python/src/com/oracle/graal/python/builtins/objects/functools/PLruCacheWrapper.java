@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.functools;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.oracle.graal.python.builtins.objects.common.EconomicMapStorage;
+import com.oracle.graal.python.builtins.objects.common.EconomicMapStorage.DictKey;
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.truffle.api.object.Shape;
+
+/**
+ * The state of {@code functools._lru_cache_wrapper}. Cached results live in a dedicated hashing
+ * storage. For bounded caches, the values of that storage are {@link Link links} of a circular
+ * doubly-linked list ordered from least to most recently used, with {@link #getRoot() root} as
+ * the sentinel. Links keep the {@link DictKey} of their entry, so that evicting it does not
+ * compute the hash of the key again. Unbounded caches store the results directly.
+ */
+public final class PLruCacheWrapper extends PythonBuiltinObject {
+    /** {@link #getMaxsize()} of an unbounded cache, i.e., one created with {@code maxsize=None}. */
+    public static final long UNBOUNDED = -1;
+
+    public static final class Link {
+        DictKey key;
+        Object result;
+        Link prev;
+        Link next;
+
+        Link() {
+            this.prev = this;
+            this.next = this;
+        }
+
+        Link(DictKey key, Object result) {
+            this.key = key;
+            this.result = result;
+        }
+
+        public DictKey getKey() {
+            return key;
+        }
+
+        public Object getResult() {
+            return result;
+        }
+    }
+
+    private Object func;
+    private Object cacheInfoType;
+    private Object kwdMark;
+    private long maxsize;
+    private boolean typed;
+    private final EconomicMapStorage cache = EconomicMapStorage.create();
+    private final Link root = new Link();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public PLruCacheWrapper(Object cls, Shape instanceShape) {
+        super(cls, instanceShape);
+    }
+
+    public Object getFunc() {
+        return func;
+    }
+
+    public void setFunc(Object func) {
+        this.func = func;
+    }
+
+    public Object getCacheInfoType() {
+        return cacheInfoType;
+    }
+
+    public void setCacheInfoType(Object cacheInfoType) {
+        this.cacheInfoType = cacheInfoType;
+    }
+
+    /**
+     * The object separating positional from keyword arguments in cache keys.
+     */
+    public Object getKwdMark() {
+        return kwdMark;
+    }
+
+    public void setKwdMark(Object kwdMark) {
+        this.kwdMark = kwdMark;
+    }
+
+    public long getMaxsize() {
+        return maxsize;
+    }
+
+    public void setMaxsize(long maxsize) {
+        this.maxsize = maxsize;
+    }
+
+    public boolean isUnbounded() {
+        return maxsize == UNBOUNDED;
+    }
+
+    public boolean isTyped() {
+        return typed;
+    }
+
+    public void setTyped(boolean typed) {
+        this.typed = typed;
+    }
+
+    /**
+     * The storage of the cached entries. An {@link EconomicMapStorage} accepts any key and is
+     * always updated in place, so it never needs to be replaced.
+     */
+    public EconomicMapStorage getCache() {
+        return cache;
+    }
+
+    public Link getRoot() {
+        return root;
+    }
+
+    public boolean isListEmpty() {
+        return root.next == root;
+    }
+
+    /**
+     * Appends a new link as the most recently used one.
+     */
+    public Link addLink(DictKey key, Object result) {
+        Link link = new Link(key, result);
+        appendLink(link);
+        return link;
+    }
+
+    /**
+     * Unlinks the least recently used link and returns it.
+     */
+    public Link popOldestLink() {
+        Link oldest = root.next;
+        unlink(oldest);
+        return oldest;
+    }
+
+    /**
+     * Marks {@code link} as the most recently used one by moving it to the end of the list.
+     */
+    public void moveToEnd(Link link) {
+        unlink(link);
+        appendLink(link);
+    }
+
+    /**
+     * Reuses a link that was removed with {@link #popOldestLink()} for a new entry.
+     */
+    public void reuseLink(Link link, DictKey key, Object result) {
+        link.key = key;
+        link.result = result;
+        appendLink(link);
+    }
+
+    public void clearList() {
+        root.prev = root;
+        root.next = root;
+    }
+
+    private void appendLink(Link link) {
+        Link last = root.prev;
+        last.next = link;
+        root.prev = link;
+        link.prev = last;
+        link.next = root;
+    }
+
+    private static void unlink(Link link) {
+        link.prev.next = link.next;
+        link.next.prev = link.prev;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public void incrementHits() {
+        hits.incrementAndGet();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public void incrementMisses() {
+        misses.incrementAndGet();
+    }
+
+    public void resetStatistics() {
+        hits.set(0);
+        misses.set(0);
+    }
+}
@@ -0,0 +1,328 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.functools;
+
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.TypeError;
+import static com.oracle.graal.python.nodes.SpecialAttributeNames.__DICT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__CALL__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REDUCE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REPR__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__SETSTATE__;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage.DictEntry;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageLibrary;
+import com.oracle.graal.python.builtins.objects.common.SequenceNodes.GetObjectArrayNode;
+import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.function.PArguments;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.builtins.objects.type.TypeNodes.GetNameNode;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.argument.keywords.ExpandKeywordStarargsNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonVarargsBuiltinNode;
+import com.oracle.graal.python.nodes.object.GetClassNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.nodes.util.CastToJavaStringNode;
+import com.oracle.graal.python.util.PythonUtils;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Cached.Shared;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.interop.UnsupportedMessageException;
+import com.oracle.truffle.api.library.CachedLibrary;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PPartial)
+public final class PartialBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return PartialBuiltinsFactory.getFactories();
+    }
+
+    @Builtin(name = "func", minNumOfPositionalArgs = 1, isGetter = true, doc = "function object to use in future partial calls")
+    @GenerateNodeFactory
+    public abstract static class FuncNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static Object func(PPartial self) {
+            return self.getFn();
+        }
+    }
+
+    @Builtin(name = "args", minNumOfPositionalArgs = 1, isGetter = true, doc = "tuple of arguments to future partial calls")
+    @GenerateNodeFactory
+    public abstract static class ArgsNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PTuple args(PPartial self) {
+            return self.getArgsTuple(factory());
+        }
+    }
+
+    @Builtin(name = "keywords", minNumOfPositionalArgs = 1, isGetter = true, doc = "dictionary of keyword arguments to future partial calls")
+    @GenerateNodeFactory
+    public abstract static class KeywordsNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static PDict keywords(PPartial self) {
+            return self.getKw();
+        }
+    }
+
+    @Builtin(name = __DICT__, minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2, isGetter = true, isSetter = true)
+    @GenerateNodeFactory
+    public abstract static class DictNode extends PythonBinaryBuiltinNode {
+        @Specialization(limit = "1")
+        Object getDict(PPartial self, @SuppressWarnings("unused") PNone mapping,
+                        @CachedLibrary("self") PythonObjectLibrary lib) {
+            PDict dict = lib.getDict(self);
+            if (dict == null) {
+                dict = factory().createDictFixedStorage(self);
+                setDict(lib, self, dict);
+            }
+            return dict;
+        }
+
+        @Specialization(limit = "1")
+        static Object setDict(PPartial self, PDict mapping,
+                        @CachedLibrary("self") PythonObjectLibrary lib) {
+            setDict(lib, self, mapping);
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = {"!isNoValue(mapping)", "!isDict(mapping)"})
+        Object setDict(@SuppressWarnings("unused") PPartial self, Object mapping) {
+            throw raise(TypeError, ErrorMessages.DICT_MUST_BE_SET_TO_DICT, mapping);
+        }
+
+        static void setDict(PythonObjectLibrary lib, PPartial self, PDict dict) {
+            try {
+                lib.setDict(self, dict);
+            } catch (UnsupportedMessageException e) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    @Builtin(name = __CALL__, minNumOfPositionalArgs = 1, takesVarArgs = true, takesVarKeywordArgs = true)
+    @GenerateNodeFactory
+    public abstract static class CallNode extends PythonVarargsBuiltinNode {
+        @Child private com.oracle.graal.python.nodes.call.CallNode callNode = com.oracle.graal.python.nodes.call.CallNode.create();
+
+        /**
+         * Merges the bound and call-site positional arguments in an unrolled loop, so that a
+         * partial called from a monomorphic site compiles down to a direct call of its function.
+         */
+        @Specialization(guards = {"self.getArgs().length == cachedPartialArgsLen", "arguments.length == cachedCallArgsLen"}, limit = "getVariableArgumentInlineCacheLimit()")
+        @ExplodeLoop
+        Object callCached(VirtualFrame frame, PPartial self, Object[] arguments, PKeyword[] keywords,
+                        @Cached("self.getArgs().length") int cachedPartialArgsLen,
+                        @Cached("arguments.length") int cachedCallArgsLen,
+                        @Shared("expand") @Cached ExpandKeywordStarargsNode expandNode,
+                        @Shared("lib") @CachedLibrary(limit = "1") HashingStorageLibrary lib,
+                        @Shared("hasKw") @Cached ConditionProfile hasKeywordsProfile,
+                        @Shared("hasFrame") @Cached ConditionProfile hasFrameProfile) {
+            Object[] partialArgs = self.getArgs();
+            Object[] callArgs = new Object[cachedPartialArgsLen + cachedCallArgsLen];
+            for (int i = 0; i < cachedPartialArgsLen; i++) {
+                callArgs[i] = partialArgs[i];
+            }
+            for (int i = 0; i < cachedCallArgsLen; i++) {
+                callArgs[cachedPartialArgsLen + i] = arguments[i];
+            }
+            return callNode.execute(frame, self.getFn(), callArgs, mergeKeywords(frame, self, keywords, expandNode, lib, hasKeywordsProfile, hasFrameProfile));
+        }
+
+        @Specialization(replaces = "callCached")
+        Object call(VirtualFrame frame, PPartial self, Object[] arguments, PKeyword[] keywords,
+                        @Shared("expand") @Cached ExpandKeywordStarargsNode expandNode,
+                        @Shared("lib") @CachedLibrary(limit = "1") HashingStorageLibrary lib,
+                        @Shared("hasKw") @Cached ConditionProfile hasKeywordsProfile,
+                        @Shared("hasFrame") @Cached ConditionProfile hasFrameProfile) {
+            Object[] partialArgs = self.getArgs();
+            Object[] callArgs = new Object[partialArgs.length + arguments.length];
+            PythonUtils.arraycopy(partialArgs, 0, callArgs, 0, partialArgs.length);
+            PythonUtils.arraycopy(arguments, 0, callArgs, partialArgs.length, arguments.length);
+            return callNode.execute(frame, self.getFn(), callArgs, mergeKeywords(frame, self, keywords, expandNode, lib, hasKeywordsProfile, hasFrameProfile));
+        }
+
+        private PKeyword[] mergeKeywords(VirtualFrame frame, PPartial self, PKeyword[] keywords, ExpandKeywordStarargsNode expandNode, HashingStorageLibrary lib,
+                        ConditionProfile hasKeywordsProfile, ConditionProfile hasFrameProfile) {
+            HashingStorage storage = self.getKw().getDictStorage();
+            if (hasKeywordsProfile.profile(lib.length(storage) == 0)) {
+                return keywords;
+            }
+            if (keywords.length == 0) {
+                return expandNode.execute(self.getKw());
+            }
+            // call-site keywords override the bound ones
+            HashingStorage merged = lib.copy(storage);
+            for (PKeyword keyword : keywords) {
+                merged = lib.setItemWithFrame(merged, keyword.getName(), keyword.getValue(), hasFrameProfile, frame);
+            }
+            return expandNode.execute(factory().createDict(merged));
+        }
+
+        @Override
+        public Object varArgExecute(VirtualFrame frame, @SuppressWarnings("unused") Object self, Object[] arguments, PKeyword[] keywords) throws VarargsBuiltinDirectInvocationNotSupported {
+            Object[] argsWithoutSelf = new Object[arguments.length - 1];
+            PythonUtils.arraycopy(arguments, 1, argsWithoutSelf, 0, argsWithoutSelf.length);
+            return execute(frame, arguments[0], argsWithoutSelf, keywords);
+        }
+    }
+
+    @Builtin(name = __REPR__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class ReprNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object repr(VirtualFrame frame, PPartial self,
+                        @Cached GetClassNode getClassNode,
+                        @Cached IsBuiltinClassProfile isPartialProfile,
+                        @Cached GetNameNode getNameNode,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib,
+                        @CachedLibrary(limit = "1") HashingStorageLibrary hlib,
+                        @Cached CastToJavaStringNode castToStringNode) {
+            Object cls = getClassNode.execute(self);
+            String name = isPartialProfile.profileClass(cls, PythonBuiltinClassType.PPartial) ? "functools.partial" : getNameNode.execute(cls);
+            if (!getContext().reprEnter(self)) {
+                return "...";
+            }
+            try {
+                StringBuilder sb = PythonUtils.newStringBuilder(name);
+                PythonUtils.append(sb, '(');
+                PythonUtils.append(sb, repr(frame, self.getFn(), lib, castToStringNode));
+                for (Object arg : self.getArgs()) {
+                    PythonUtils.append(sb, ", ");
+                    PythonUtils.append(sb, repr(frame, arg, lib, castToStringNode));
+                }
+                for (DictEntry entry : hlib.entries(self.getKw().getDictStorage())) {
+                    PythonUtils.append(sb, ", ");
+                    PythonUtils.append(sb, castToStringNode.execute(entry.getKey()));
+                    PythonUtils.append(sb, '=');
+                    PythonUtils.append(sb, repr(frame, entry.getValue(), lib, castToStringNode));
+                }
+                PythonUtils.append(sb, ')');
+                return PythonUtils.sbToString(sb);
+            } finally {
+                getContext().reprLeave(self);
+            }
+        }
+
+        private static String repr(VirtualFrame frame, Object obj, PythonObjectLibrary lib, CastToJavaStringNode castToStringNode) {
+            return castToStringNode.execute(lib.asPStringWithState(obj, PArguments.getThreadState(frame)));
+        }
+    }
+
+    @Builtin(name = __REDUCE__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class ReduceNode extends PythonUnaryBuiltinNode {
+        @Specialization(limit = "1")
+        Object reduce(PPartial self,
+                        @Cached GetClassNode getClassNode,
+                        @CachedLibrary("self") PythonObjectLibrary lib,
+                        @CachedLibrary(limit = "1") HashingStorageLibrary hlib) {
+            PDict kw = self.getKw();
+            PDict dict = lib.getDict(self);
+            Object kwState = hlib.length(kw.getDictStorage()) == 0 ? PNone.NONE : kw;
+            Object dictState = dict == null || hlib.length(dict.getDictStorage()) == 0 ? PNone.NONE : dict;
+            PTuple state = factory().createTuple(new Object[]{self.getFn(), self.getArgsTuple(factory()), kwState, dictState});
+            return factory().createTuple(new Object[]{getClassNode.execute(self), factory().createTuple(new Object[]{self.getFn()}), state});
+        }
+    }
+
+    @Builtin(name = __SETSTATE__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class SetStateNode extends PythonBinaryBuiltinNode {
+        @Specialization(limit = "1")
+        Object setState(PPartial self, PTuple state,
+                        @CachedLibrary("self") PythonObjectLibrary lib,
+                        @CachedLibrary(limit = "3") PythonObjectLibrary fnLib,
+                        @CachedLibrary(limit = "1") HashingStorageLibrary hlib,
+                        @Cached GetObjectArrayNode getObjectArrayNode,
+                        @Cached IsBuiltinClassProfile isDictProfile) {
+            Object[] items = getObjectArrayNode.execute(state);
+            if (items.length != 4) {
+                throw raise(TypeError, ErrorMessages.FUNCTOOLS_EXPECTED_4_ITEMS_IN_STATE, items.length);
+            }
+            Object fn = items[0];
+            Object args = items[1];
+            Object kw = items[2];
+            Object namespace = items[3];
+            if (!fnLib.isCallable(fn) || !(args instanceof PTuple) || (kw != PNone.NONE && !(kw instanceof PDict)) || (namespace != PNone.NONE && !(namespace instanceof PDict))) {
+                throw raise(TypeError, ErrorMessages.FUNCTOOLS_INVALID_PARTIAL_STATE);
+            }
+            PDict kwDict;
+            if (kw == PNone.NONE) {
+                kwDict = factory().createDict();
+            } else if (!isDictProfile.profileObject(kw, PythonBuiltinClassType.PDict)) {
+                kwDict = factory().createDict(hlib.copy(((PDict) kw).getDictStorage()));
+            } else {
+                kwDict = (PDict) kw;
+            }
+            DictNode.setDict(lib, self, namespace == PNone.NONE ? factory().createDict() : (PDict) namespace);
+            self.setFn(fn);
+            // always make a new tuple, in case 'args' was a tuple subclass
+            self.setArgs(getObjectArrayNode.execute(args));
+            self.setKw(kwDict);
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = "!isPTuple(state)")
+        Object setState(@SuppressWarnings("unused") PPartial self, @SuppressWarnings("unused") Object state) {
+            throw raise(TypeError, ErrorMessages.FUNCTOOLS_ARGUMENT_TO_SETSTATE_MUST_BE_A_TUPLE);
+        }
+    }
+}
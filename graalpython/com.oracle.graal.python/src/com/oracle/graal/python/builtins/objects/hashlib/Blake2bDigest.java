@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.hashlib;
+
+import java.security.MessageDigest;
+
+/**
+ * BLAKE2b (RFC 7693) with the full parameter block, including the tree hashing parameters
+ * supported by CPython's {@code _blake2.blake2b}. The arguments are expected to have been
+ * validated by the caller.
+ */
+public final class Blake2bDigest extends MessageDigest implements Cloneable {
+    public static final int BLOCK_SIZE = 128;
+    public static final int MAX_DIGEST_SIZE = 64;
+    public static final int MAX_KEY_SIZE = 64;
+    public static final int SALT_SIZE = 16;
+    public static final int PERSON_SIZE = 16;
+
+    private static final long[] IV = {
+                    0x6a09e667f3bcc908L, 0xbb67ae8584caa73bL, 0x3c6ef372fe94f82bL, 0xa54ff53a5f1d36f1L,
+                    0x510e527fade682d1L, 0x9b05688c2b3e6c1fL, 0x1f83d9abfb41bd6bL, 0x5be0cd19137e2179L
+    };
+
+    static final byte[][] SIGMA = {
+                    {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15},
+                    {14, 10, 4, 8, 9, 15, 13, 6, 1, 12, 0, 2, 11, 7, 5, 3},
+                    {11, 8, 12, 0, 5, 2, 15, 13, 10, 14, 3, 6, 7, 1, 9, 4},
+                    {7, 9, 3, 1, 13, 12, 11, 14, 2, 6, 5, 10, 4, 0, 15, 8},
+                    {9, 0, 5, 7, 2, 4, 10, 15, 14, 1, 11, 12, 6, 8, 3, 13},
+                    {2, 12, 6, 10, 0, 11, 8, 3, 4, 13, 7, 5, 15, 14, 1, 9},
+                    {12, 5, 1, 15, 14, 13, 4, 10, 0, 7, 6, 3, 9, 2, 8, 11},
+                    {13, 11, 7, 14, 12, 1, 3, 9, 5, 0, 15, 4, 8, 6, 2, 10},
+                    {6, 15, 14, 9, 11, 3, 0, 8, 12, 2, 13, 7, 1, 4, 10, 5},
+                    {10, 2, 8, 4, 7, 6, 1, 5, 15, 11, 9, 14, 3, 12, 13, 0}
+    };
+
+    private final int digestLength;
+    private final long[] initialState;
+    private final byte[] key;
+    private final boolean lastNode;
+
+    private long[] h = new long[8];
+    private long[] v = new long[16];
+    private long[] m = new long[16];
+    private byte[] buffer = new byte[BLOCK_SIZE];
+    private int bufferLength;
+    private long counter0;
+    private long counter1;
+
+    public Blake2bDigest() {
+        this(MAX_DIGEST_SIZE, new byte[0], new byte[0], new byte[0], 1, 1, 0, 0, 0, 0, false);
+    }
+
+    public Blake2bDigest(int digestLength, byte[] key, byte[] salt, byte[] person, int fanout, int depth, long leafSize, long nodeOffset, int nodeDepth, int innerSize, boolean lastNode) {
+        super("BLAKE2b-" + digestLength * 8);
+        this.digestLength = digestLength;
+        this.key = key;
+        this.lastNode = lastNode;
+        byte[] param = new byte[64];
+        param[0] = (byte) digestLength;
+        param[1] = (byte) key.length;
+        param[2] = (byte) fanout;
+        param[3] = (byte) depth;
+        writeInt(param, 4, (int) leafSize);
+        writeLong(param, 8, nodeOffset);
+        param[16] = (byte) nodeDepth;
+        param[17] = (byte) innerSize;
+        System.arraycopy(salt, 0, param, 32, salt.length);
+        System.arraycopy(person, 0, param, 48, person.length);
+        initialState = new long[8];
+        for (int i = 0; i < 8; i++) {
+            initialState[i] = IV[i] ^ readLong(param, i * 8);
+        }
+        engineReset();
+    }
+
+    @Override
+    protected int engineGetDigestLength() {
+        return digestLength;
+    }
+
+    @Override
+    protected void engineUpdate(byte input) {
+        if (bufferLength == BLOCK_SIZE) {
+            increment(BLOCK_SIZE);
+            compress(buffer, 0, false);
+            bufferLength = 0;
+        }
+        buffer[bufferLength++] = input;
+    }
+
+    @Override
+    protected void engineUpdate(byte[] input, int offset, int len) {
+        if (len <= 0) {
+            return;
+        }
+        int off = offset;
+        int remaining = len;
+        int fill = BLOCK_SIZE - bufferLength;
+        if (remaining > fill) {
+            // the last block must stay buffered, it is compressed with the final flag
+            System.arraycopy(input, off, buffer, bufferLength, fill);
+            increment(BLOCK_SIZE);
+            compress(buffer, 0, false);
+            bufferLength = 0;
+            off += fill;
+            remaining -= fill;
+            while (remaining > BLOCK_SIZE) {
+                increment(BLOCK_SIZE);
+                compress(input, off, false);
+                off += BLOCK_SIZE;
+                remaining -= BLOCK_SIZE;
+            }
+        }
+        System.arraycopy(input, off, buffer, bufferLength, remaining);
+        bufferLength += remaining;
+    }
+
+    @Override
+    protected byte[] engineDigest() {
+        increment(bufferLength);
+        for (int i = bufferLength; i < BLOCK_SIZE; i++) {
+            buffer[i] = 0;
+        }
+        compress(buffer, 0, true);
+        byte[] out = new byte[64];
+        for (int i = 0; i < 8; i++) {
+            writeLong(out, i * 8, h[i]);
+        }
+        byte[] result = new byte[digestLength];
+        System.arraycopy(out, 0, result, 0, digestLength);
+        engineReset();
+        return result;
+    }
+
+    @Override
+    protected void engineReset() {
+        System.arraycopy(initialState, 0, h, 0, 8);
+        counter0 = 0;
+        counter1 = 0;
+        bufferLength = 0;
+        if (key.length > 0) {
+            System.arraycopy(key, 0, buffer, 0, key.length);
+            for (int i = key.length; i < BLOCK_SIZE; i++) {
+                buffer[i] = 0;
+            }
+            bufferLength = BLOCK_SIZE;
+        }
+    }
+
+    @Override
+    public Object clone() throws CloneNotSupportedException {
+        Blake2bDigest copy = (Blake2bDigest) super.clone();
+        copy.h = h.clone();
+        copy.v = new long[16];
+        copy.m = new long[16];
+        copy.buffer = buffer.clone();
+        return copy;
+    }
+
+    private void increment(int n) {
+        counter0 += n;
+        if (Long.compareUnsigned(counter0, n) < 0) {
+            counter1++;
+        }
+    }
+
+    private void compress(byte[] block, int offset, boolean last) {
+        for (int i = 0; i < 16; i++) {
+            m[i] = readLong(block, offset + i * 8);
+        }
+        System.arraycopy(h, 0, v, 0, 8);
+        System.arraycopy(IV, 0, v, 8, 8);
+        v[12] ^= counter0;
+        v[13] ^= counter1;
+        if (last) {
+            v[14] = ~v[14];
+            if (lastNode) {
+                v[15] = ~v[15];
+            }
+        }
+        for (int round = 0; round < 12; round++) {
+            byte[] s = SIGMA[round % 10];
+            mix(0, 4, 8, 12, m[s[0]], m[s[1]]);
+            mix(1, 5, 9, 13, m[s[2]], m[s[3]]);
+            mix(2, 6, 10, 14, m[s[4]], m[s[5]]);
+            mix(3, 7, 11, 15, m[s[6]], m[s[7]]);
+            mix(0, 5, 10, 15, m[s[8]], m[s[9]]);
+            mix(1, 6, 11, 12, m[s[10]], m[s[11]]);
+            mix(2, 7, 8, 13, m[s[12]], m[s[13]]);
+            mix(3, 4, 9, 14, m[s[14]], m[s[15]]);
+        }
+        for (int i = 0; i < 8; i++) {
+            h[i] ^= v[i] ^ v[i + 8];
+        }
+    }
+
+    private void mix(int a, int b, int c, int d, long x, long y) {
+        v[a] += v[b] + x;
+        v[d] = Long.rotateRight(v[d] ^ v[a], 32);
+        v[c] += v[d];
+        v[b] = Long.rotateRight(v[b] ^ v[c], 24);
+        v[a] += v[b] + y;
+        v[d] = Long.rotateRight(v[d] ^ v[a], 16);
+        v[c] += v[d];
+        v[b] = Long.rotateRight(v[b] ^ v[c], 63);
+    }
+
+    static long readLong(byte[] b, int off) {
+        return (b[off] & 0xFFL) | (b[off + 1] & 0xFFL) << 8 | (b[off + 2] & 0xFFL) << 16 | (b[off + 3] & 0xFFL) << 24 |
+                        (b[off + 4] & 0xFFL) << 32 | (b[off + 5] & 0xFFL) << 40 | (b[off + 6] & 0xFFL) << 48 | (b[off + 7] & 0xFFL) << 56;
+    }
+
+    static void writeLong(byte[] b, int off, long value) {
+        for (int i = 0; i < 8; i++) {
+            b[off + i] = (byte) (value >>> (i * 8));
+        }
+    }
+
+    static int readInt(byte[] b, int off) {
+        return (b[off] & 0xFF) | (b[off + 1] & 0xFF) << 8 | (b[off + 2] & 0xFF) << 16 | (b[off + 3] & 0xFF) << 24;
+    }
+
+    static void writeInt(byte[] b, int off, int value) {
+        for (int i = 0; i < 4; i++) {
+            b[off + i] = (byte) (value >>> (i * 8));
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.hashlib;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * The hash algorithms known to {@code hashlib}, with their Python names and block sizes. The
+ * classic digests come from the JDK, SHA-3, SHAKE and BLAKE2 are implemented in this package.
+ */
+public enum DigestAlgorithm {
+    MD5("md5", "MD5", 64),
+    SHA1("sha1", "SHA-1", 64),
+    SHA224("sha224", "SHA-224", 64),
+    SHA256("sha256", "SHA-256", 64),
+    SHA384("sha384", "SHA-384", 128),
+    SHA512("sha512", "SHA-512", 128),
+    SHA512_224("sha512_224", "SHA-512/224", 128),
+    SHA512_256("sha512_256", "SHA-512/256", 128),
+    SHA3_224("sha3_224", null, 144),
+    SHA3_256("sha3_256", null, 136),
+    SHA3_384("sha3_384", null, 104),
+    SHA3_512("sha3_512", null, 72),
+    SHAKE_128("shake_128", null, 168),
+    SHAKE_256("shake_256", null, 136),
+    BLAKE2B("blake2b", null, Blake2bDigest.BLOCK_SIZE),
+    BLAKE2S("blake2s", null, Blake2sDigest.BLOCK_SIZE);
+
+    private static final DigestAlgorithm[] VALUES = values();
+
+    private final String pythonName;
+    private final String javaName;
+    private final int blockSize;
+
+    DigestAlgorithm(String pythonName, String javaName, int blockSize) {
+        this.pythonName = pythonName;
+        this.javaName = javaName;
+        this.blockSize = blockSize;
+    }
+
+    public String getPythonName() {
+        return pythonName;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Whether the digest has a variable output length, i.e., is one of the SHAKE functions.
+     */
+    public boolean isXOF() {
+        return this == SHAKE_128 || this == SHAKE_256;
+    }
+
+    /**
+     * Creates a new digest in its initial state, or returns {@code null} if the JDK does not
+     * provide the algorithm.
+     */
+    @TruffleBoundary
+    public MessageDigest create() {
+        switch (this) {
+            case SHA3_224:
+                return Sha3Digest.sha3(224);
+            case SHA3_256:
+                return Sha3Digest.sha3(256);
+            case SHA3_384:
+                return Sha3Digest.sha3(384);
+            case SHA3_512:
+                return Sha3Digest.sha3(512);
+            case SHAKE_128:
+                return Sha3Digest.shake(128);
+            case SHAKE_256:
+                return Sha3Digest.shake(256);
+            case BLAKE2B:
+                return new Blake2bDigest();
+            case BLAKE2S:
+                return new Blake2sDigest();
+            default:
+                try {
+                    return MessageDigest.getInstance(javaName);
+                } catch (NoSuchAlgorithmException e) {
+                    return null;
+                }
+        }
+    }
+
+    /**
+     * Looks up an algorithm by the names accepted by {@code _hashlib.new}, ignoring case and
+     * accepting dashes instead of underscores (e.g., {@code "SHA256"} or {@code "sha512-256"}).
+     * Returns {@code null} for unknown names.
+     */
+    @TruffleBoundary
+    public static DigestAlgorithm fromName(String name) {
+        String normalized = name.toLowerCase(Locale.ROOT).replace('-', '_');
+        for (DigestAlgorithm algorithm : VALUES) {
+            if (algorithm.pythonName.equals(normalized)) {
+                return algorithm;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Clones a digest, which is cheaper than hashing the same prefix again.
+     */
+    @TruffleBoundary
+    static MessageDigest copy(MessageDigest digest) {
+        try {
+            return (MessageDigest) digest.clone();
+        } catch (CloneNotSupportedException e) {
+            throw CompilerDirectives.shouldNotReachHere(e);
+        }
+    }
+}
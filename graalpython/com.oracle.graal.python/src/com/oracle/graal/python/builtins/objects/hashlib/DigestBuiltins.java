@@ -0,0 +1,320 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.hashlib;
+
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.util.List;
+
+import com.oracle.graal.python.annotations.ArgumentClinic;
+import com.oracle.graal.python.annotations.ArgumentClinic.ClinicConversion;
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.array.PArray;
+import com.oracle.graal.python.builtins.objects.bytes.BytesNodes.ByteToHexNode;
+import com.oracle.graal.python.builtins.objects.bytes.PBytes;
+import com.oracle.graal.python.builtins.objects.bytes.PBytesLike;
+import com.oracle.graal.python.builtins.objects.memoryview.PMemoryView;
+import com.oracle.graal.python.builtins.objects.mmap.PMMap;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryClinicBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.clinic.ArgumentClinicProvider;
+import com.oracle.graal.python.nodes.object.GetClassNode;
+import com.oracle.graal.python.runtime.GilNode;
+import com.oracle.graal.python.runtime.PosixSupportLibrary;
+import com.oracle.graal.python.runtime.PosixSupportLibrary.PosixException;
+import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Cached.Shared;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.interop.UnsupportedMessageException;
+import com.oracle.truffle.api.library.CachedLibrary;
+
+@CoreFunctions(extendClasses = {PythonBuiltinClassType.PHashlibHash, PythonBuiltinClassType.PSha3_224, PythonBuiltinClassType.PSha3_256, PythonBuiltinClassType.PSha3_384,
+                PythonBuiltinClassType.PSha3_512, PythonBuiltinClassType.PShake_128, PythonBuiltinClassType.PShake_256, PythonBuiltinClassType.PBlake2b,
+                PythonBuiltinClassType.PBlake2s})
+public class DigestBuiltins extends PythonBuiltins {
+    /**
+     * Like CPython's {@code HASHLIB_GIL_MINSIZE}, smaller updates are not worth releasing the GIL.
+     */
+    static final int GIL_MINSIZE = 2048;
+
+    private static final int MMAP_CHUNK_SIZE = 64 * 1024;
+    private static final int MAX_XOF_LENGTH = 1 << 29;
+    static final long NO_LENGTH = Long.MIN_VALUE;
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return DigestBuiltinsFactory.getFactories();
+    }
+
+    /**
+     * Hashes the contents of a buffer. The backing arrays of bytes-like objects, arrays and their
+     * memoryviews are hashed in place, mmaps are read in chunks. Only other buffers are copied.
+     */
+    @Builtin(name = "update", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class UpdateNode extends PythonBinaryBuiltinNode {
+
+        public abstract PNone execute(VirtualFrame frame, PDigest self, Object data);
+
+        @Specialization(guards = "isByteStorage(data)")
+        static PNone doBytes(PDigest self, PBytesLike data,
+                        @Shared("gil") @Cached GilNode gil) {
+            ByteSequenceStorage storage = (ByteSequenceStorage) data.getSequenceStorage();
+            update(self, storage.getInternalByteArray(), 0, storage.length(), gil);
+            return PNone.NONE;
+        }
+
+        @Specialization
+        static PNone doArray(PDigest self, PArray data,
+                        @Shared("gil") @Cached GilNode gil) {
+            update(self, data.getBuffer(), 0, data.getLength() * data.getFormat().bytesize, gil);
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = "isBytesView(data)")
+        static PNone doBytesView(PDigest self, PMemoryView data,
+                        @Shared("gil") @Cached GilNode gil) {
+            ByteSequenceStorage storage = (ByteSequenceStorage) ((PBytesLike) data.getOwner()).getSequenceStorage();
+            update(self, storage.getInternalByteArray(), data.getOffset(), data.getLength(), gil);
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = "isArrayView(data)")
+        static PNone doArrayView(PDigest self, PMemoryView data,
+                        @Shared("gil") @Cached GilNode gil) {
+            update(self, ((PArray) data.getOwner()).getBuffer(), data.getOffset(), data.getLength(), gil);
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = "!data.isClosed()")
+        PNone doMMap(VirtualFrame frame, PDigest self, PMMap data,
+                        @CachedLibrary("getPosixSupport()") PosixSupportLibrary posixLib,
+                        @Shared("gil") @Cached GilNode gil) {
+            long length = data.getLength();
+            byte[] chunk = new byte[(int) Math.min(length, MMAP_CHUNK_SIZE)];
+            long pos = 0;
+            while (pos < length) {
+                int n;
+                try {
+                    n = posixLib.mmapReadBytes(getPosixSupport(), data.getPosixSupportHandle(), pos, chunk, 0, (int) Math.min(length - pos, chunk.length));
+                } catch (PosixException e) {
+                    throw raiseOSErrorFromPosixException(frame, e);
+                }
+                update(self, chunk, 0, n, gil);
+                pos += n;
+            }
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = "data.isClosed()")
+        PNone doClosedMMap(@SuppressWarnings("unused") PDigest self, @SuppressWarnings("unused") PMMap data) {
+            throw raise(ValueError, ErrorMessages.MMAP_CLOSED_OR_INVALID);
+        }
+
+        @Specialization(guards = "isString(data)")
+        PNone doString(@SuppressWarnings("unused") PDigest self, @SuppressWarnings("unused") Object data) {
+            throw raise(TypeError, ErrorMessages.UNICODE_OBJECTS_MUST_BE_ENCODED_BEFORE_HASHING);
+        }
+
+        @Specialization(guards = "isGeneric(data)")
+        PNone doGeneric(PDigest self, Object data,
+                        @CachedLibrary(limit = "3") PythonObjectLibrary lib,
+                        @Shared("gil") @Cached GilNode gil) {
+            if (!lib.isBuffer(data)) {
+                throw raise(TypeError, ErrorMessages.OBJECT_SUPPORTING_BUFFER_API_REQUIRED);
+            }
+            byte[] bytes;
+            try {
+                bytes = lib.getBufferBytes(data);
+            } catch (UnsupportedMessageException e) {
+                throw CompilerDirectives.shouldNotReachHere(e);
+            }
+            update(self, bytes, 0, bytes.length, gil);
+            return PNone.NONE;
+        }
+
+        private static void update(PDigest self, byte[] data, int offset, int length, GilNode gil) {
+            if (length < GIL_MINSIZE) {
+                self.update(data, offset, length);
+                return;
+            }
+            gil.release(true);
+            try {
+                self.update(data, offset, length);
+            } finally {
+                gil.acquire();
+            }
+        }
+
+        static boolean isBytesView(PMemoryView view) {
+            Object owner = view.getOwner();
+            return isDirect(view) && owner instanceof PBytesLike && PGuards.isByteStorage((PBytesLike) owner);
+        }
+
+        static boolean isArrayView(PMemoryView view) {
+            return isDirect(view) && view.getOwner() instanceof PArray;
+        }
+
+        private static boolean isDirect(PMemoryView view) {
+            return !view.isReleased() && view.getBufferPointer() == null && view.isCContiguous();
+        }
+
+        static boolean isGeneric(Object data) {
+            if (data instanceof PBytesLike) {
+                return !PGuards.isByteStorage((PBytesLike) data);
+            } else if (data instanceof PMemoryView) {
+                return !isBytesView((PMemoryView) data) && !isArrayView((PMemoryView) data);
+            }
+            return !(data instanceof PArray || data instanceof PMMap || PGuards.isString(data));
+        }
+
+        public static UpdateNode create() {
+            return DigestBuiltinsFactory.UpdateNodeFactory.create();
+        }
+    }
+
+    @Builtin(name = "digest", minNumOfPositionalArgs = 1, parameterNames = {"$self", "length"})
+    @ArgumentClinic(name = "length", conversion = ClinicConversion.LongIndex, defaultValue = "DigestBuiltins.NO_LENGTH")
+    @GenerateNodeFactory
+    abstract static class DigestNode extends PythonBinaryClinicBuiltinNode {
+
+        @Override
+        protected ArgumentClinicProvider getArgumentClinic() {
+            return DigestBuiltinsClinicProviders.DigestNodeClinicProviderGen.INSTANCE;
+        }
+
+        @Specialization
+        PBytes digest(PDigest self, long length) {
+            return factory().createBytes(getDigest(this, "digest", self, length));
+        }
+    }
+
+    @Builtin(name = "hexdigest", minNumOfPositionalArgs = 1, parameterNames = {"$self", "length"})
+    @ArgumentClinic(name = "length", conversion = ClinicConversion.LongIndex, defaultValue = "DigestBuiltins.NO_LENGTH")
+    @GenerateNodeFactory
+    abstract static class HexdigestNode extends PythonBinaryClinicBuiltinNode {
+
+        @Override
+        protected ArgumentClinicProvider getArgumentClinic() {
+            return DigestBuiltinsClinicProviders.HexdigestNodeClinicProviderGen.INSTANCE;
+        }
+
+        @Specialization
+        String hexdigest(PDigest self, long length) {
+            byte[] digest = getDigest(this, "hexdigest", self, length);
+            return ByteToHexNode.zero(digest, digest.length, (byte) 0, 0);
+        }
+    }
+
+    /**
+     * SHAKE digests require the output length, all other digests take no arguments.
+     */
+    static byte[] getDigest(PythonBuiltinBaseNode node, String name, PDigest self, long length) {
+        if (!self.getAlgorithm().isXOF()) {
+            if (length != NO_LENGTH) {
+                throw node.raise(TypeError, ErrorMessages.TAKES_NO_ARGUMENTS_D_GIVEN, name, 1);
+            }
+            return self.digest();
+        }
+        if (length == NO_LENGTH) {
+            throw node.raise(TypeError, ErrorMessages.MISSING_D_REQUIRED_S_ARGUMENT_S_POS, name, "length", 1);
+        }
+        if (length < 0) {
+            throw node.raise(ValueError, ErrorMessages.VALUE_MUST_BE_POSITIVE);
+        }
+        if (length >= MAX_XOF_LENGTH) {
+            throw node.raise(ValueError, ErrorMessages.LENGTH_IS_TOO_LARGE);
+        }
+        return self.digest((int) length);
+    }
+
+    @Builtin(name = "copy", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class CopyNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PDigest copy(PDigest self,
+                        @Cached GetClassNode getClassNode) {
+            return factory().createDigest(getClassNode.execute(self), self.getAlgorithm(), self.copyDigest());
+        }
+    }
+
+    @Builtin(name = "name", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class NameNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static String name(PDigest self) {
+            return self.getName();
+        }
+    }
+
+    @Builtin(name = "digest_size", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class DigestSizeNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static int digestSize(PDigest self) {
+            return self.getDigestSize();
+        }
+    }
+
+    @Builtin(name = "block_size", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class BlockSizeNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static int blockSize(PDigest self) {
+            return self.getBlockSize();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.hashlib;
+
+import java.security.MessageDigest;
+
+import com.oracle.graal.python.util.PythonUtils;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * HMAC (RFC 2104) and PBKDF2-HMAC (RFC 8018) on top of {@link DigestAlgorithm}. The inner and outer
+ * digests are keyed once and cloned for every message, so each PBKDF2 iteration only hashes the
+ * message itself.
+ */
+public final class Hmac {
+    private static final byte IPAD = 0x36;
+    private static final byte OPAD = 0x5c;
+
+    private final MessageDigest inner;
+    private final MessageDigest outer;
+
+    private Hmac(MessageDigest digest, int blockSize, byte[] key) {
+        byte[] paddedKey = new byte[blockSize];
+        if (key.length > blockSize) {
+            byte[] hashedKey = digest.digest(key);
+            PythonUtils.arraycopy(hashedKey, 0, paddedKey, 0, hashedKey.length);
+        } else {
+            PythonUtils.arraycopy(key, 0, paddedKey, 0, key.length);
+        }
+        byte[] pad = new byte[blockSize];
+        for (int i = 0; i < blockSize; i++) {
+            pad[i] = (byte) (paddedKey[i] ^ IPAD);
+        }
+        inner = DigestAlgorithm.copy(digest);
+        inner.update(pad);
+        for (int i = 0; i < blockSize; i++) {
+            pad[i] = (byte) (paddedKey[i] ^ OPAD);
+        }
+        outer = digest;
+        outer.update(pad);
+    }
+
+    /**
+     * Returns {@code null} if the algorithm is not available or has no fixed digest size.
+     */
+    @TruffleBoundary
+    public static Hmac create(DigestAlgorithm algorithm, byte[] key) {
+        if (algorithm.isXOF()) {
+            return null;
+        }
+        MessageDigest digest = algorithm.create();
+        if (digest == null) {
+            return null;
+        }
+        return new Hmac(digest, algorithm.getBlockSize(), key);
+    }
+
+    public int getDigestSize() {
+        return outer.getDigestLength();
+    }
+
+    @TruffleBoundary
+    public byte[] compute(byte[] msg, int offset, int length) {
+        MessageDigest innerCopy = DigestAlgorithm.copy(inner);
+        innerCopy.update(msg, offset, length);
+        MessageDigest outerCopy = DigestAlgorithm.copy(outer);
+        outerCopy.update(innerCopy.digest());
+        return outerCopy.digest();
+    }
+
+    @TruffleBoundary
+    public byte[] pbkdf2(byte[] salt, int iterations, int keyLength) {
+        byte[] result = new byte[keyLength];
+        byte[] blockSalt = new byte[salt.length + 4];
+        PythonUtils.arraycopy(salt, 0, blockSalt, 0, salt.length);
+        int block = 1;
+        for (int pos = 0; pos < keyLength; block++) {
+            blockSalt[salt.length] = (byte) (block >>> 24);
+            blockSalt[salt.length + 1] = (byte) (block >>> 16);
+            blockSalt[salt.length + 2] = (byte) (block >>> 8);
+            blockSalt[salt.length + 3] = (byte) block;
+            byte[] u = compute(blockSalt, 0, blockSalt.length);
+            byte[] t = u.clone();
+            for (int i = 1; i < iterations; i++) {
+                u = compute(u, 0, u.length);
+                for (int j = 0; j < t.length; j++) {
+                    t[j] ^= u[j];
+                }
+            }
+            int n = Math.min(t.length, keyLength - pos);
+            PythonUtils.arraycopy(t, 0, result, pos, n);
+            pos += n;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.hashlib;
+
+import java.security.MessageDigest;
+
+/**
+ * The Keccak sponge behind SHA-3 and SHAKE (FIPS 202). The JDK only provides SHA-3 since 9 and no
+ * SHAKE at all, so both are implemented here on top of one permutation. A {@code SHAKE} instance
+ * reports a digest length of zero, its output is read with {@link #squeeze(int)}.
+ */
+public final class Sha3Digest extends MessageDigest implements Cloneable {
+    private static final long[] ROUND_CONSTANTS = {
+                    0x0000000000000001L, 0x0000000000008082L, 0x800000000000808AL, 0x8000000080008000L,
+                    0x000000000000808BL, 0x0000000080000001L, 0x8000000080008081L, 0x8000000000008009L,
+                    0x000000000000008AL, 0x0000000000000088L, 0x0000000080008009L, 0x000000008000000AL,
+                    0x000000008000808BL, 0x800000000000008BL, 0x8000000000008089L, 0x8000000000008003L,
+                    0x8000000000008002L, 0x8000000000000080L, 0x000000000000800AL, 0x800000008000000AL,
+                    0x8000000080008081L, 0x8000000000008080L, 0x0000000080000001L, 0x8000000080008008L
+    };
+    private static final int[] ROTATIONS = {1, 3, 6, 10, 15, 21, 28, 36, 45, 55, 2, 14, 27, 41, 56, 8, 25, 43, 62, 18, 39, 61, 20, 44};
+    private static final int[] PI_LANES = {10, 7, 11, 17, 18, 3, 5, 16, 8, 21, 24, 4, 15, 23, 19, 13, 12, 2, 20, 14, 22, 9, 6, 1};
+
+    private static final byte SHA3_SUFFIX = 0x06;
+    private static final byte SHAKE_SUFFIX = 0x1F;
+
+    private final int rate;
+    private final int digestLength;
+    private final byte suffix;
+    private long[] state = new long[25];
+    private byte[] buffer;
+    private int bufferLength;
+
+    private Sha3Digest(String algorithm, int rate, int digestLength, byte suffix) {
+        super(algorithm);
+        this.rate = rate;
+        this.digestLength = digestLength;
+        this.suffix = suffix;
+        this.buffer = new byte[rate];
+    }
+
+    public static Sha3Digest sha3(int bits) {
+        return new Sha3Digest("SHA3-" + bits, 200 - 2 * (bits / 8), bits / 8, SHA3_SUFFIX);
+    }
+
+    public static Sha3Digest shake(int bits) {
+        return new Sha3Digest("SHAKE" + bits, 200 - 2 * (bits / 8), 0, SHAKE_SUFFIX);
+    }
+
+    public int getRate() {
+        return rate;
+    }
+
+    @Override
+    protected int engineGetDigestLength() {
+        return digestLength;
+    }
+
+    @Override
+    protected void engineUpdate(byte input) {
+        buffer[bufferLength++] = input;
+        if (bufferLength == rate) {
+            absorb(buffer, 0);
+            bufferLength = 0;
+        }
+    }
+
+    @Override
+    protected void engineUpdate(byte[] input, int offset, int len) {
+        int off = offset;
+        int remaining = len;
+        if (bufferLength > 0) {
+            int n = Math.min(rate - bufferLength, remaining);
+            System.arraycopy(input, off, buffer, bufferLength, n);
+            bufferLength += n;
+            off += n;
+            remaining -= n;
+            if (bufferLength < rate) {
+                return;
+            }
+            absorb(buffer, 0);
+            bufferLength = 0;
+        }
+        while (remaining >= rate) {
+            absorb(input, off);
+            off += rate;
+            remaining -= rate;
+        }
+        System.arraycopy(input, off, buffer, 0, remaining);
+        bufferLength = remaining;
+    }
+
+    @Override
+    protected byte[] engineDigest() {
+        byte[] result = squeeze(digestLength);
+        engineReset();
+        return result;
+    }
+
+    /**
+     * Pads the pending input and returns the first {@code length} bytes of output. The digest
+     * must not be updated afterwards, callers work on a clone.
+     */
+    public byte[] squeeze(int length) {
+        for (int i = bufferLength; i < rate; i++) {
+            buffer[i] = 0;
+        }
+        buffer[bufferLength] ^= suffix;
+        buffer[rate - 1] ^= (byte) 0x80;
+        absorb(buffer, 0);
+        bufferLength = 0;
+        byte[] result = new byte[length];
+        int pos = 0;
+        while (true) {
+            for (int i = 0; i < rate && pos < length; i++, pos++) {
+                result[pos] = (byte) (state[i >> 3] >>> ((i & 7) << 3));
+            }
+            if (pos == length) {
+                return result;
+            }
+            keccak(state);
+        }
+    }
+
+    @Override
+    protected void engineReset() {
+        for (int i = 0; i < state.length; i++) {
+            state[i] = 0;
+        }
+        bufferLength = 0;
+    }
+
+    @Override
+    public Object clone() throws CloneNotSupportedException {
+        Sha3Digest copy = (Sha3Digest) super.clone();
+        copy.state = state.clone();
+        copy.buffer = buffer.clone();
+        return copy;
+    }
+
+    private void absorb(byte[] block, int offset) {
+        for (int i = 0; i < rate / 8; i++) {
+            state[i] ^= Blake2bDigest.readLong(block, offset + i * 8);
+        }
+        keccak(state);
+    }
+
+    private static void keccak(long[] st) {
+        long[] bc = new long[5];
+        for (int round = 0; round < 24; round++) {
+            for (int i = 0; i < 5; i++) {
+                bc[i] = st[i] ^ st[i + 5] ^ st[i + 10] ^ st[i + 15] ^ st[i + 20];
+            }
+            for (int i = 0; i < 5; i++) {
+                long t = bc[(i + 4) % 5] ^ Long.rotateLeft(bc[(i + 1) % 5], 1);
+                for (int j = 0; j < 25; j += 5) {
+                    st[j + i] ^= t;
+                }
+            }
+            long t = st[1];
+            for (int i = 0; i < 24; i++) {
+                int j = PI_LANES[i];
+                long next = st[j];
+                st[j] = Long.rotateLeft(t, ROTATIONS[i]);
+                t = next;
+            }
+            for (int j = 0; j < 25; j += 5) {
+                for (int i = 0; i < 5; i++) {
+                    bc[i] = st[j + i];
+                }
+                for (int i = 0; i < 5; i++) {
+                    st[j + i] ^= ~bc[(i + 1) % 5] & bc[(i + 2) % 5];
+                }
+            }
+            st[0] ^= ROUND_CONSTANTS[round];
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.itertools;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ITER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__NEXT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REDUCE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__SETSTATE__;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.control.GetNextNode;
+import com.oracle.graal.python.nodes.expression.BinaryArithmetic;
+import com.oracle.graal.python.nodes.expression.BinaryOpNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.object.GetClassNode;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.library.CachedLibrary;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PAccumulate)
+public final class AccumulateBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return AccumulateBuiltinsFactory.getFactories();
+    }
+
+    @Builtin(name = __ITER__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class IterNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static Object iter(PAccumulate self) {
+            return self;
+        }
+    }
+
+    @Builtin(name = __NEXT__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class NextNode extends PythonUnaryBuiltinNode {
+        @Child private BinaryOpNode addNode;
+
+        @Specialization
+        Object next(VirtualFrame frame, PAccumulate self,
+                        @Cached GetNextNode nextNode,
+                        @Cached CallNode callNode) {
+            if (self.getInitial() != null) {
+                self.setTotal(self.getInitial());
+                self.setInitial(null);
+                return self.getTotal();
+            }
+            Object value = nextNode.execute(frame, self.getIterable());
+            if (self.getTotal() == null) {
+                self.setTotal(value);
+                return value;
+            }
+            Object newTotal;
+            if (self.getFunc() == null) {
+                newTotal = getAddNode().executeObject(frame, self.getTotal(), value);
+            } else {
+                newTotal = callNode.execute(frame, self.getFunc(), self.getTotal(), value);
+            }
+            self.setTotal(newTotal);
+            return newTotal;
+        }
+
+        private BinaryOpNode getAddNode() {
+            if (addNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                addNode = insert(BinaryArithmetic.Add.create());
+            }
+            return addNode;
+        }
+    }
+
+    @Builtin(name = __REDUCE__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class ReduceNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PTuple reduce(VirtualFrame frame, PAccumulate self,
+                        @Cached GetClassNode getClassNode,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib) {
+            Object type = getClassNode.execute(self);
+            Object func = self.getFunc() == null ? PNone.NONE : self.getFunc();
+            if (self.getInitial() != null) {
+                PChain it = createChain(frame, self.getInitial(), self.getIterable(), lib);
+                return factory().createTuple(new Object[]{type, factory().createTuple(new Object[]{it, func}), PNone.NONE});
+            }
+            if (self.getTotal() == PNone.NONE) {
+                PAccumulate it = factory().createAccumulate(type);
+                it.setIterable(createChain(frame, PNone.NONE, self.getIterable(), lib));
+                it.setFunc(self.getFunc());
+                return factory().createTuple(new Object[]{PythonBuiltinClassType.PIslice, factory().createTuple(new Object[]{it, 1, PNone.NONE})});
+            }
+            Object total = self.getTotal() == null ? PNone.NONE : self.getTotal();
+            return factory().createTuple(new Object[]{type, factory().createTuple(new Object[]{self.getIterable(), func}), total});
+        }
+
+        /**
+         * Equivalent of {@code chain((first,), it)}.
+         */
+        private PChain createChain(VirtualFrame frame, Object first, Object it, PythonObjectLibrary lib) {
+            PChain chain = factory().createChain();
+            PTuple iterables = factory().createTuple(new Object[]{factory().createTuple(new Object[]{first}), it});
+            chain.setSource(lib.getIteratorWithFrame(iterables, frame));
+            return chain;
+        }
+    }
+
+    @Builtin(name = __SETSTATE__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class SetStateNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        static Object setState(PAccumulate self, Object state) {
+            self.setTotal(state);
+            return PNone.NONE;
+        }
+    }
+}
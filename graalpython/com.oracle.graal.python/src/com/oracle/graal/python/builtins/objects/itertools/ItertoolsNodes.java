@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.itertools;
+
+import com.oracle.graal.python.builtins.objects.common.SequenceNodes.GetSequenceStorageNode;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.CopyInternalArrayNode;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.CreateStorageFromIteratorNode;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.GetItemScalarNode;
+import com.oracle.graal.python.builtins.objects.iterator.PIntegerSequenceIterator;
+import com.oracle.graal.python.builtins.objects.iterator.PSequenceIterator;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.builtins.objects.range.PIntRange;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.nodes.control.GetNextNode;
+import com.oracle.graal.python.nodes.object.GetClassNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.runtime.PythonOptions;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Cached.Shared;
+import com.oracle.truffle.api.dsl.ImportStatic;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.library.CachedLibrary;
+
+public abstract class ItertoolsNodes {
+
+    /**
+     * Materializes the items of an iterable into a fresh Java array, as needed for the pools of
+     * {@code product}, {@code permutations} and the {@code combinations} variants. Builtin lists
+     * and tuples are copied directly from their storage and integer ranges are expanded without
+     * going through the iterator protocol.
+     */
+    @ImportStatic({PGuards.class, PythonOptions.class})
+    public abstract static class GetPoolNode extends PNodeWithContext {
+
+        public abstract Object[] execute(VirtualFrame frame, Object iterable);
+
+        @Specialization(guards = "cannotBeOverridden(iterable, getClassNode)", limit = "1")
+        static Object[] doList(PList iterable,
+                        @SuppressWarnings("unused") @Cached GetClassNode getClassNode,
+                        @Shared("copy") @Cached CopyInternalArrayNode copyNode) {
+            return copyNode.execute(iterable.getSequenceStorage());
+        }
+
+        @Specialization(guards = "cannotBeOverridden(iterable, getClassNode)", limit = "1")
+        static Object[] doTuple(PTuple iterable,
+                        @SuppressWarnings("unused") @Cached GetClassNode getClassNode,
+                        @Shared("copy") @Cached CopyInternalArrayNode copyNode) {
+            return copyNode.execute(iterable.getSequenceStorage());
+        }
+
+        @Specialization
+        static Object[] doIntRange(PIntRange iterable) {
+            int start = iterable.getIntStart();
+            int step = iterable.getIntStep();
+            Object[] pool = new Object[iterable.getIntLength()];
+            for (int i = 0; i < pool.length; i++) {
+                pool[i] = start + i * step;
+            }
+            return pool;
+        }
+
+        @Specialization
+        static Object[] doGeneric(VirtualFrame frame, Object iterable,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib,
+                        @Cached CreateStorageFromIteratorNode storageNode,
+                        @Shared("copy") @Cached CopyInternalArrayNode copyNode) {
+            Object iterator = lib.getIteratorWithFrame(iterable, frame);
+            return copyNode.execute(storageNode.execute(frame, iterator));
+        }
+
+        public static GetPoolNode create() {
+            return ItertoolsNodesFactory.GetPoolNodeGen.create();
+        }
+    }
+
+    /**
+     * Returns the next item of an iterator or {@code null} once the iterator is exhausted. Iterators
+     * over lists and tuples are advanced directly on the sequence storage, so the {@code chain},
+     * {@code cycle}, {@code islice} and {@code zip_longest} loops neither dispatch to
+     * {@code __next__} nor raise and catch a {@code StopIteration} at the end of each source.
+     * Errors other than {@code StopIteration} are propagated.
+     */
+    public abstract static class NextOrNullNode extends PNodeWithContext {
+
+        public abstract Object execute(VirtualFrame frame, Object iterator);
+
+        @Specialization(guards = "iterator.isPSequence()")
+        static Object doSequence(PSequenceIterator iterator,
+                        @Cached GetSequenceStorageNode getStorageNode,
+                        @Cached GetItemScalarNode getItemNode) {
+            if (iterator.isExhausted()) {
+                return null;
+            }
+            SequenceStorage storage = getStorageNode.execute(iterator.getPSequence());
+            if (iterator.index < storage.length()) {
+                return getItemNode.execute(storage, iterator.index++);
+            }
+            iterator.setExhausted();
+            return null;
+        }
+
+        @Specialization
+        static Object doIntSequence(PIntegerSequenceIterator iterator) {
+            if (!iterator.isExhausted() && iterator.hasNext()) {
+                return iterator.next();
+            }
+            iterator.setExhausted();
+            return null;
+        }
+
+        @Specialization(guards = {"!isSequenceIterator(iterator)", "!isIntSequenceIterator(iterator)"})
+        static Object doGeneric(VirtualFrame frame, Object iterator,
+                        @Cached GetNextNode nextNode,
+                        @Cached IsBuiltinClassProfile isStopIterationProfile) {
+            try {
+                return nextNode.execute(frame, iterator);
+            } catch (PException e) {
+                e.expectStopIteration(isStopIterationProfile);
+                return null;
+            }
+        }
+
+        static boolean isSequenceIterator(Object iterator) {
+            return iterator instanceof PSequenceIterator && ((PSequenceIterator) iterator).isPSequence();
+        }
+
+        static boolean isIntSequenceIterator(Object iterator) {
+            return iterator instanceof PIntegerSequenceIterator;
+        }
+
+        public static NextOrNullNode create() {
+            return ItertoolsNodesFactory.NextOrNullNodeGen.create();
+        }
+    }
+
+    static PTuple createIntTuple(PythonObjectFactory factory, int[] values, int length) {
+        Object[] items = new Object[length];
+        for (int i = 0; i < length; i++) {
+            items[i] = values[i];
+        }
+        return factory.createTuple(items);
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.itertools;
+
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.RuntimeError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.TypeError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.ValueError;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ITER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__NEXT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REDUCE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__SETSTATE__;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.SequenceNodes.GetObjectArrayNode;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.lib.PyNumberAsSizeNode;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.control.GetNextNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.object.GetClassNode;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PTee)
+public final class TeeBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return TeeBuiltinsFactory.getFactories();
+    }
+
+    @Builtin(name = __ITER__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class IterNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static Object iter(PTee self) {
+            return self;
+        }
+    }
+
+    @Builtin(name = __NEXT__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class NextNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object next(VirtualFrame frame, PTee self,
+                        @Cached GetNextNode nextNode) {
+            if (self.getIndex() >= PTeeDataObject.LINKCELLS) {
+                PTeeDataObject current = self.getDataobj();
+                if (current.getNextlink() == null) {
+                    PTeeDataObject link = factory().createTeeDataObject();
+                    link.setIt(current.getIt());
+                    current.setNextlink(link);
+                }
+                self.setDataobj(current.getNextlink());
+                self.setIndex(0);
+            }
+            PTeeDataObject dataobj = self.getDataobj();
+            int index = self.getIndex();
+            Object value;
+            if (index < dataobj.getNumread()) {
+                value = dataobj.getValues()[index];
+            } else {
+                // this is the lead iterator, so fetch more data
+                if (dataobj.isRunning()) {
+                    throw raise(RuntimeError, ErrorMessages.ITERTOOLS_CANNOT_REENTER_TEE_ITERATOR);
+                }
+                dataobj.setRunning(true);
+                try {
+                    value = nextNode.execute(frame, dataobj.getIt());
+                } finally {
+                    dataobj.setRunning(false);
+                }
+                dataobj.getValues()[index] = value;
+                dataobj.setNumread(index + 1);
+            }
+            self.setIndex(index + 1);
+            return value;
+        }
+    }
+
+    @Builtin(name = "__copy__", minNumOfPositionalArgs = 1, doc = "Returns an independent iterator.")
+    @GenerateNodeFactory
+    public abstract static class CopyNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PTee copy(PTee self) {
+            return TeeBuiltins.copy(factory(), self);
+        }
+    }
+
+    @Builtin(name = __REDUCE__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class ReduceNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PTuple reduce(PTee self,
+                        @Cached GetClassNode getClassNode) {
+            PTuple args = factory().createTuple(new Object[]{factory().createEmptyTuple()});
+            PTuple state = factory().createTuple(new Object[]{self.getDataobj(), self.getIndex()});
+            return factory().createTuple(new Object[]{getClassNode.execute(self), args, state});
+        }
+    }
+
+    @Builtin(name = __SETSTATE__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class SetStateNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object setState(VirtualFrame frame, PTee self, PTuple state,
+                        @Cached GetObjectArrayNode getObjectArrayNode,
+                        @Cached PyNumberAsSizeNode asSizeNode) {
+            Object[] items = getObjectArrayNode.execute(state);
+            if (items.length != 2) {
+                throw raise(TypeError, ErrorMessages.ITERTOOLS_INVALID_ARGUMENTS);
+            }
+            if (!(items[0] instanceof PTeeDataObject)) {
+                throw raise(TypeError, ErrorMessages.ITERTOOLS_TEE_ARG_MUST_BE_TEE_DATAOBJECT, items[0]);
+            }
+            int index = asSizeNode.executeExact(frame, items[1]);
+            if (index < 0 || index > PTeeDataObject.LINKCELLS) {
+                throw raise(ValueError, ErrorMessages.ITERTOOLS_INDEX_OUT_OF_RANGE);
+            }
+            self.setDataobj((PTeeDataObject) items[0]);
+            self.setIndex(index);
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = "!isPTuple(state)")
+        Object setState(@SuppressWarnings("unused") PTee self, @SuppressWarnings("unused") Object state) {
+            throw raise(TypeError, ErrorMessages.ITERTOOLS_STATE_IS_NOT_A_TUPLE);
+        }
+    }
+
+    /**
+     * Creates a tee iterator reading from the given iterator. If the iterator is a tee already, a
+     * copy of it is returned instead.
+     */
+    public static PTee fromIterator(PythonObjectFactory factory, Object iterator) {
+        if (iterator instanceof PTee) {
+            return copy(factory, (PTee) iterator);
+        }
+        PTeeDataObject dataobj = factory.createTeeDataObject();
+        dataobj.setIt(iterator);
+        PTee tee = factory.createTee();
+        tee.setDataobj(dataobj);
+        return tee;
+    }
+
+    public static PTee copy(PythonObjectFactory factory, PTee tee) {
+        PTee copy = factory.createTee();
+        copy.setDataobj(tee.getDataobj());
+        copy.setIndex(tee.getIndex());
+        return copy;
+    }
+}
@@ -52,7 +52,6 @@ import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeErro
 
 import java.math.BigInteger;
 import java.util.Arrays;
-import java.util.Comparator;
 import java.util.List;
 
 import com.oracle.graal.python.PythonLanguage;
@@ -83,17 +82,15 @@ import com.oracle.graal.python.builtins.objects.list.ListBuiltinsFactory.ListRev
 import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
 import com.oracle.graal.python.builtins.objects.range.PIntRange;
 import com.oracle.graal.python.builtins.objects.str.PString;
-import com.oracle.graal.python.builtins.objects.str.StringUtils;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
 import com.oracle.graal.python.nodes.ErrorMessages;
 import com.oracle.graal.python.nodes.PGuards;
-import com.oracle.graal.python.nodes.attributes.GetAttributeNode;
 import com.oracle.graal.python.nodes.builtins.ListNodes;
 import com.oracle.graal.python.nodes.builtins.ListNodes.AppendNode;
 import com.oracle.graal.python.nodes.builtins.ListNodes.IndexNode;
-import com.oracle.graal.python.nodes.call.CallNode;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
 import com.oracle.graal.python.nodes.control.GetNextNode;
+import com.oracle.graal.python.nodes.expression.CoerceToBooleanNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
@@ -115,7 +112,6 @@ import com.oracle.graal.python.runtime.sequence.storage.DoubleSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.EmptySequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.IntSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.LongSequenceStorage;
-import com.oracle.graal.python.runtime.sequence.storage.ObjectSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStorageFactory;
 import com.oracle.graal.python.util.PythonUtils;
@@ -873,9 +869,7 @@ public class ListBuiltins extends PythonBuiltins {
 
     abstract static class SimpleSortNode extends Node {
 
-        protected static final String SORT = "_sort";
-
-        protected abstract void execute(VirtualFrame frame, PList list, SequenceStorage storage);
+        protected abstract void execute(PList list, SequenceStorage storage);
 
         @Specialization
         @TruffleBoundary
@@ -916,44 +910,9 @@ public class ListBuiltins extends PythonBuiltins {
             Arrays.sort(storage.getInternalDoubleArray(), 0, storage.length());
         }
 
-        private static final class StringComparator implements Comparator<Object> {
-            public int compare(Object o1, Object o2) {
-                return StringUtils.compareToUnicodeAware((String) o1, (String) o2);
-            }
-        }
-
-        private static final StringComparator COMPARATOR = new StringComparator();
-
-        @Specialization(guards = "isStringOnly(storage)")
-        @TruffleBoundary
-        void sort(@SuppressWarnings("unused") PList list, ObjectSequenceStorage storage) {
-            Arrays.sort(storage.getInternalArray(), 0, storage.length(), COMPARATOR);
-        }
-
-        @TruffleBoundary
-        protected static boolean isStringOnly(ObjectSequenceStorage storage) {
-            int length = storage.length();
-            Object[] array = storage.getInternalArray();
-            for (int i = 0; i < length; i++) {
-                Object value = array[i];
-                if (!(value instanceof String)) {
-                    return false;
-                }
-            }
-            return true;
-        }
-
         protected static boolean isSimpleType(SequenceStorage storage) {
             return storage instanceof BoolSequenceStorage || storage instanceof ByteSequenceStorage || storage instanceof IntSequenceStorage || storage instanceof LongSequenceStorage ||
-                            storage instanceof DoubleSequenceStorage || (storage instanceof ObjectSequenceStorage && isStringOnly((ObjectSequenceStorage) storage));
-        }
-
-        @Specialization(guards = "!isSimpleType(storage)")
-        void defaultSort(VirtualFrame frame, PList list, @SuppressWarnings("unused") SequenceStorage storage,
-                        @Cached("create(SORT)") GetAttributeNode sort,
-                        @Cached CallNode callSort) {
-            Object sortMethod = sort.executeObject(frame, list);
-            callSort.execute(frame, sortMethod, PythonUtils.EMPTY_OBJECT_ARRAY, PKeyword.EMPTY_KEYWORDS);
+                            storage instanceof DoubleSequenceStorage;
         }
     }
 
@@ -962,26 +921,15 @@ public class ListBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     public abstract static class ListSortNode extends PythonVarargsBuiltinNode {
 
-        protected static final String SORT = "_sort";
         protected static final String KEY = "key";
+        protected static final String REVERSE = "reverse";
 
         protected static boolean isSortable(PList list, SequenceStorageNodes.LenNode lenNode) {
             return lenNode.execute(list.getSequenceStorage()) > 1;
         }
 
-        protected static boolean maySideEffect(PList list, PKeyword[] keywords) {
-            if (PGuards.isObjectStorage(list)) {
-                return true;
-            }
-            if (keywords.length > 0) {
-                if (KEY.equals(keywords[0].getName())) {
-                    return true;
-                }
-                if (keywords.length > 1 && KEY.equals(keywords[1].getName())) {
-                    return true;
-                }
-            }
-            return false;
+        protected static boolean isSimpleType(PList list) {
+            return SimpleSortNode.isSimpleType(list.getSequenceStorage());
         }
 
         public final Object sort(VirtualFrame frame, PList list) {
@@ -990,42 +938,41 @@ public class ListBuiltins extends PythonBuiltins {
 
         public abstract Object execute(VirtualFrame frame, PList list, Object[] arguments, PKeyword[] keywords);
 
-        @Specialization(guards = "!isSortable(list, lenNode)")
+        @Specialization(guards = {"arguments.length == 0", "keywords.length == 0", "!isSortable(list, lenNode)"})
         @SuppressWarnings("unused")
         Object none(VirtualFrame frame, PList list, Object[] arguments, PKeyword[] keywords,
                         @Cached SequenceStorageNodes.LenNode lenNode) {
             return PNone.NONE;
         }
 
-        @Specialization(guards = {"isSortable(list, lenNode)", "arguments.length == 0", "keywords.length == 0", "!maySideEffect(list, keywords)"})
-        Object simple(VirtualFrame frame, PList list, @SuppressWarnings("unused") Object[] arguments, @SuppressWarnings("unused") PKeyword[] keywords,
+        @Specialization(guards = {"arguments.length == 0", "keywords.length == 0", "isSortable(list, lenNode)", "isSimpleType(list)"})
+        Object simple(@SuppressWarnings("unused") VirtualFrame frame, PList list, @SuppressWarnings("unused") Object[] arguments, @SuppressWarnings("unused") PKeyword[] keywords,
                         @Cached SimpleSortNode simpleSort,
                         @SuppressWarnings("unused") @Cached SequenceStorageNodes.LenNode lenNode) {
-            simpleSort.execute(frame, list, list.getSequenceStorage());
+            simpleSort.execute(list, list.getSequenceStorage());
             return PNone.NONE;
         }
 
-        @Specialization(guards = {"isSortable(list, lenNode)", "maySideEffect(list, keywords)"})
-        Object withKey(VirtualFrame frame, PList list, Object[] arguments, PKeyword[] keywords,
-                        @Cached("create(SORT)") GetAttributeNode sort,
-                        @Cached CallNode callSort,
-                        @SuppressWarnings("unused") @Cached SequenceStorageNodes.LenNode lenNode) {
-            list.getSequenceStorage().setLock();
-            try {
-                defaultSort(frame, list, arguments, keywords, sort, callSort, lenNode);
-            } finally {
-                list.getSequenceStorage().releaseLock();
+        @Specialization
+        Object sort(VirtualFrame frame, PList list, Object[] arguments, PKeyword[] keywords,
+                        @Cached ListSortNodes.SortListNode sortListNode,
+                        @Cached("createIfTrueNode()") CoerceToBooleanNode castToBooleanNode) {
+            if (arguments.length != 0) {
+                throw raise(TypeError, ErrorMessages.TAKES_NO_POSITIONAL_ARGS, SORT);
             }
-            return PNone.NONE;
-        }
-
-        @Specialization(guards = {"isSortable(list, lenNode)", "!maySideEffect(list, keywords)"})
-        Object defaultSort(VirtualFrame frame, PList list, Object[] arguments, PKeyword[] keywords,
-                        @Cached("create(SORT)") GetAttributeNode sort,
-                        @Cached CallNode callSort,
-                        @SuppressWarnings("unused") @Cached SequenceStorageNodes.LenNode lenNode) {
-            Object sortMethod = sort.executeObject(frame, list);
-            callSort.execute(frame, sortMethod, arguments, keywords);
+            Object key = PNone.NONE;
+            boolean reverse = false;
+            for (PKeyword keyword : keywords) {
+                String name = keyword.getName();
+                if (KEY.equals(name)) {
+                    key = keyword.getValue();
+                } else if (REVERSE.equals(name)) {
+                    reverse = castToBooleanNode.executeBoolean(frame, keyword.getValue());
+                } else {
+                    throw raise(TypeError, ErrorMessages.GOT_UNEXPECTED_KEYWORD_ARG, SORT, name);
+                }
+            }
+            sortListNode.execute(frame, list, key, reverse);
             return PNone.NONE;
         }
 
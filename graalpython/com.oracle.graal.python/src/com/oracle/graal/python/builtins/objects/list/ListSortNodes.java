@@ -0,0 +1,864 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.list;
+
+import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
+import com.oracle.graal.python.builtins.objects.str.StringUtils;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.IndirectCallNode;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.PNodeWithRaise;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.expression.BinaryComparisonNode;
+import com.oracle.graal.python.nodes.expression.CoerceToBooleanNode;
+import com.oracle.graal.python.runtime.ExecutionContext.IndirectCallContext;
+import com.oracle.graal.python.runtime.PythonContext;
+import com.oracle.graal.python.runtime.sequence.storage.EmptySequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.NativeSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.ObjectSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorageFactory;
+import com.oracle.graal.python.util.PythonUtils;
+import com.oracle.truffle.api.Assumption;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.CachedContext;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.UnexpectedResultException;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+
+public abstract class ListSortNodes {
+
+    /**
+     * Implements {@code list.sort(key=None, reverse=False)} for all cases that cannot be handled
+     * by sorting a primitive storage in place. Keys are computed exactly once per element. If all
+     * keys are of the same simple type ({@code int}, {@code float}, {@code str}), they are
+     * compared directly in Java, otherwise {@code __lt__} is used. Like CPython, the list appears
+     * empty while it is being sorted and {@code reverse} is implemented by reversing the input and
+     * the output of a stable sort, so that the comparison itself is never inverted.
+     */
+    public abstract static class SortListNode extends PNodeWithRaise implements IndirectCallNode {
+        private final Assumption dontNeedExceptionState = Truffle.getRuntime().createAssumption();
+        private final Assumption dontNeedCallerFrame = Truffle.getRuntime().createAssumption();
+
+        private boolean seenNonBoolean = false;
+
+        @Override
+        public Assumption needNotPassFrameAssumption() {
+            return dontNeedCallerFrame;
+        }
+
+        @Override
+        public Assumption needNotPassExceptionAssumption() {
+            return dontNeedExceptionState;
+        }
+
+        public abstract void execute(VirtualFrame frame, PList list, Object keyfunc, boolean reverse);
+
+        @Specialization
+        void sort(VirtualFrame frame, PList list, Object keyfunc, boolean reverse,
+                        @Cached SequenceStorageNodes.ToArrayNode toArrayNode,
+                        @Cached SequenceStorageNodes.SetItemScalarNode setItemNode,
+                        @Cached CallNode keyCall,
+                        @Cached BinaryComparisonNode.LtNode ltNode,
+                        @Cached("createIfTrueNode()") CoerceToBooleanNode castToBooleanNode,
+                        @Cached ConditionProfile isNativeProfile,
+                        @Cached ConditionProfile hasKeyProfile,
+                        @Cached ConditionProfile reverseProfile,
+                        @Cached ConditionProfile genericProfile,
+                        @CachedContext(PythonLanguage.class) PythonContext context) {
+            SequenceStorage storage = list.getSequenceStorage();
+            Object[] values = toArrayNode.execute(storage);
+            int n = values.length;
+            boolean isNative = isNativeProfile.profile(storage instanceof NativeSequenceStorage);
+            if (!isNative) {
+                list.setSequenceStorage(EmptySequenceStorage.INSTANCE);
+            }
+            boolean reversed = false;
+            boolean modified;
+            try {
+                Object[] keys;
+                if (hasKeyProfile.profile(!PGuards.isPNone(keyfunc))) {
+                    keys = new Object[n];
+                    for (int i = 0; i < n; i++) {
+                        keys[i] = keyCall.execute(frame, keyfunc, values[i]);
+                    }
+                } else {
+                    keys = values;
+                }
+                Object[] payload = keys == values ? null : values;
+                if (reverseProfile.profile(reverse)) {
+                    reverseSlice(keys, payload, 0, n);
+                    reversed = true;
+                }
+                KeyKind kind = classify(keys);
+                if (genericProfile.profile(kind == KeyKind.GENERIC)) {
+                    // the merge sort is not partially evaluated, the comparisons run behind a
+                    // boundary without a frame
+                    Object state = IndirectCallContext.enter(frame, context, this);
+                    try {
+                        sortGeneric(ltNode, castToBooleanNode, keys, payload);
+                    } finally {
+                        IndirectCallContext.exit(frame, context, state);
+                    }
+                } else {
+                    sortHomogeneous(kind, keys, payload);
+                }
+            } finally {
+                if (reversed) {
+                    reverseSlice(values, null, 0, n);
+                }
+                if (isNative) {
+                    modified = false;
+                    for (int i = 0; i < n; i++) {
+                        setItemNode.execute(storage, i, values[i]);
+                    }
+                } else {
+                    modified = list.getSequenceStorage() != EmptySequenceStorage.INSTANCE;
+                    list.setSequenceStorage(createStorage(storage, values));
+                }
+            }
+            if (modified) {
+                throw raise(PythonBuiltinClassType.ValueError, ErrorMessages.LIST_MODIFIED_DURING_SORT);
+            }
+        }
+
+        @TruffleBoundary
+        private void sortGeneric(BinaryComparisonNode ltNode, CoerceToBooleanNode castToBooleanNode, Object[] keys, Object[] payload) {
+            new GenericTimSort(this, ltNode, castToBooleanNode, keys, payload).sort();
+        }
+
+        boolean lessThan(BinaryComparisonNode ltNode, CoerceToBooleanNode castToBooleanNode, Object a, Object b) {
+            if (!seenNonBoolean) {
+                try {
+                    return ltNode.executeBool(null, a, b);
+                } catch (UnexpectedResultException e) {
+                    seenNonBoolean = true;
+                    return castToBooleanNode.executeBoolean(null, e.getResult());
+                }
+            }
+            return castToBooleanNode.executeBoolean(null, ltNode.executeObject(null, a, b));
+        }
+
+        private static SequenceStorage createStorage(SequenceStorage original, Object[] values) {
+            if (original instanceof ObjectSequenceStorage) {
+                return new ObjectSequenceStorage(values);
+            }
+            return SequenceStorageFactory.createStorage(values);
+        }
+
+        @TruffleBoundary
+        private static void sortHomogeneous(KeyKind kind, Object[] keys, Object[] payload) {
+            new HomogeneousTimSort(kind, keys, payload).sort();
+        }
+
+        public static SortListNode create() {
+            return ListSortNodesFactory.SortListNodeGen.create();
+        }
+    }
+
+    /**
+     * Key types that can be compared without calling {@code __lt__}.
+     */
+    enum KeyKind {
+        LONG,
+        DOUBLE,
+        STRING,
+        GENERIC
+    }
+
+    static KeyKind classify(Object[] keys) {
+        if (keys.length == 0) {
+            return KeyKind.GENERIC;
+        }
+        Object first = keys[0];
+        if (first instanceof Integer || first instanceof Long) {
+            for (int i = 1; i < keys.length; i++) {
+                if (!(keys[i] instanceof Integer || keys[i] instanceof Long)) {
+                    return KeyKind.GENERIC;
+                }
+            }
+            return KeyKind.LONG;
+        } else if (first instanceof Double) {
+            for (int i = 0; i < keys.length; i++) {
+                // NaN is unordered, CPython's unsafe float compare does not apply then either
+                if (!(keys[i] instanceof Double) || Double.isNaN((double) keys[i])) {
+                    return KeyKind.GENERIC;
+                }
+            }
+            return KeyKind.DOUBLE;
+        } else if (first instanceof String) {
+            for (int i = 1; i < keys.length; i++) {
+                if (!(keys[i] instanceof String)) {
+                    return KeyKind.GENERIC;
+                }
+            }
+            return KeyKind.STRING;
+        }
+        return KeyKind.GENERIC;
+    }
+
+    static void reverseSlice(Object[] keys, Object[] payload, int lo, int hi) {
+        for (int i = lo, j = hi - 1; i < j; i++, j--) {
+            Object tmp = keys[i];
+            keys[i] = keys[j];
+            keys[j] = tmp;
+            if (payload != null) {
+                tmp = payload[i];
+                payload[i] = payload[j];
+                payload[j] = tmp;
+            }
+        }
+    }
+
+    private static final class HomogeneousTimSort extends TimSort {
+        private final KeyKind kind;
+
+        HomogeneousTimSort(KeyKind kind, Object[] keys, Object[] payload) {
+            super(keys, payload);
+            this.kind = kind;
+        }
+
+        @Override
+        boolean lt(Object a, Object b) {
+            switch (kind) {
+                case LONG:
+                    return ((Number) a).longValue() < ((Number) b).longValue();
+                case DOUBLE:
+                    return (double) a < (double) b;
+                case STRING:
+                    return StringUtils.compareToUnicodeAware((String) a, (String) b) < 0;
+                default:
+                    throw CompilerDirectives.shouldNotReachHere();
+            }
+        }
+    }
+
+    private static final class GenericTimSort extends TimSort {
+        private final SortListNode owner;
+        private final BinaryComparisonNode ltNode;
+        private final CoerceToBooleanNode castToBooleanNode;
+
+        GenericTimSort(SortListNode owner, BinaryComparisonNode ltNode, CoerceToBooleanNode castToBooleanNode, Object[] keys, Object[] payload) {
+            super(keys, payload);
+            this.owner = owner;
+            this.ltNode = ltNode;
+            this.castToBooleanNode = castToBooleanNode;
+        }
+
+        @Override
+        boolean lt(Object a, Object b) {
+            return owner.lessThan(ltNode, castToBooleanNode, a, b);
+        }
+    }
+
+    /**
+     * A stable, adaptive merge sort on an array of keys with an optional parallel array of
+     * payload values that is permuted in lockstep. This is a port of CPython's {@code listsort}
+     * (see {@code lib-graalpython/listsort.txt} for a description of the algorithm) and only
+     * ever compares keys using {@link #lt}. If {@link #lt} throws, the arrays still contain a
+     * permutation of the original elements.
+     */
+    abstract static class TimSort {
+        private static final int MIN_GALLOP = 7;
+        private static final int MAX_MERGE_PENDING = 85;
+
+        private final Object[] keys;
+        private final Object[] payload;
+
+        private Object[] tmpKeys = PythonUtils.EMPTY_OBJECT_ARRAY;
+        private Object[] tmpPayload = PythonUtils.EMPTY_OBJECT_ARRAY;
+
+        private int minGallop = MIN_GALLOP;
+        private final int[] runBase = new int[MAX_MERGE_PENDING];
+        private final int[] runLen = new int[MAX_MERGE_PENDING];
+        private int pending = 0;
+
+        private boolean lastRunDescending;
+
+        TimSort(Object[] keys, Object[] payload) {
+            assert payload == null || payload.length == keys.length;
+            this.keys = keys;
+            this.payload = payload;
+        }
+
+        abstract boolean lt(Object a, Object b);
+
+        final void sort() {
+            int remaining = keys.length;
+            if (remaining < 2) {
+                return;
+            }
+            int lo = 0;
+            int minRun = computeMinRun(remaining);
+            do {
+                int n = countRun(lo, lo + remaining);
+                if (lastRunDescending) {
+                    reverseSlice(keys, payload, lo, lo + n);
+                }
+                if (n < minRun) {
+                    int force = remaining <= minRun ? remaining : minRun;
+                    binarySort(lo, lo + force, lo + n);
+                    n = force;
+                }
+                runBase[pending] = lo;
+                runLen[pending] = n;
+                pending++;
+                mergeCollapse();
+                lo += n;
+                remaining -= n;
+            } while (remaining != 0);
+            mergeForceCollapse();
+            assert pending == 1 && runBase[0] == 0 && runLen[0] == keys.length;
+        }
+
+        private static int computeMinRun(int length) {
+            int n = length;
+            int r = 0;
+            while (n >= 64) {
+                r |= n & 1;
+                n >>= 1;
+            }
+            return n + r;
+        }
+
+        /**
+         * Returns the length of the run beginning at {@code lo}. A run is either non-descending or
+         * strictly descending, the latter is reported in {@link #lastRunDescending}.
+         */
+        private int countRun(int lo, int hi) {
+            lastRunDescending = false;
+            int i = lo + 1;
+            if (i == hi) {
+                return 1;
+            }
+            int n = 2;
+            if (lt(keys[i], keys[i - 1])) {
+                lastRunDescending = true;
+                for (i = i + 1; i < hi; i++, n++) {
+                    if (!lt(keys[i], keys[i - 1])) {
+                        break;
+                    }
+                }
+            } else {
+                for (i = i + 1; i < hi; i++, n++) {
+                    if (lt(keys[i], keys[i - 1])) {
+                        break;
+                    }
+                }
+            }
+            return n;
+        }
+
+        /**
+         * Sorts {@code [lo, hi)} with a binary insertion sort, assuming {@code [lo, start)} is
+         * already sorted.
+         */
+        private void binarySort(int lo, int hi, int startIdx) {
+            int start = startIdx;
+            if (lo == start) {
+                start++;
+            }
+            for (; start < hi; start++) {
+                Object pivot = keys[start];
+                int l = lo;
+                int r = start;
+                do {
+                    int p = l + ((r - l) >> 1);
+                    if (lt(pivot, keys[p])) {
+                        r = p;
+                    } else {
+                        l = p + 1;
+                    }
+                } while (l < r);
+                PythonUtils.arraycopy(keys, l, keys, l + 1, start - l);
+                keys[l] = pivot;
+                if (payload != null) {
+                    Object pivotValue = payload[start];
+                    PythonUtils.arraycopy(payload, l, payload, l + 1, start - l);
+                    payload[l] = pivotValue;
+                }
+            }
+        }
+
+        /**
+         * Locates the proper position of {@code key} in the sorted slice {@code a[base:base+n]}.
+         * Returns {@code k} such that {@code a[base+k-1] < key <= a[base+k]}, i.e. the leftmost
+         * position if there are equal elements.
+         */
+        private int gallopLeft(Object key, Object[] a, int base, int n, int hint) {
+            int lastOfs = 0;
+            int ofs = 1;
+            if (lt(a[base + hint], key)) {
+                // a[hint] < key: gallop right until a[hint + lastOfs] < key <= a[hint + ofs]
+                int maxOfs = n - hint;
+                while (ofs < maxOfs) {
+                    if (lt(a[base + hint + ofs], key)) {
+                        lastOfs = ofs;
+                        ofs = (ofs << 1) + 1;
+                        if (ofs <= 0) {
+                            ofs = maxOfs;
+                        }
+                    } else {
+                        break;
+                    }
+                }
+                if (ofs > maxOfs) {
+                    ofs = maxOfs;
+                }
+                lastOfs += hint;
+                ofs += hint;
+            } else {
+                // key <= a[hint]: gallop left until a[hint - ofs] < key <= a[hint - lastOfs]
+                int maxOfs = hint + 1;
+                while (ofs < maxOfs) {
+                    if (lt(a[base + hint - ofs], key)) {
+                        break;
+                    }
+                    lastOfs = ofs;
+                    ofs = (ofs << 1) + 1;
+                    if (ofs <= 0) {
+                        ofs = maxOfs;
+                    }
+                }
+                if (ofs > maxOfs) {
+                    ofs = maxOfs;
+                }
+                int k = lastOfs;
+                lastOfs = hint - ofs;
+                ofs = hint - k;
+            }
+            assert -1 <= lastOfs && lastOfs < ofs && ofs <= n;
+            // a[lastOfs] < key <= a[ofs]: binary search with invariant a[lastOfs-1] < key <=
+            // a[ofs]
+            lastOfs++;
+            while (lastOfs < ofs) {
+                int m = lastOfs + ((ofs - lastOfs) >> 1);
+                if (lt(a[base + m], key)) {
+                    lastOfs = m + 1;
+                } else {
+                    ofs = m;
+                }
+            }
+            return ofs;
+        }
+
+        /**
+         * Like {@link #gallopLeft} but returns the rightmost position if there are equal
+         * elements, i.e. {@code k} such that {@code a[base+k-1] <= key < a[base+k]}.
+         */
+        private int gallopRight(Object key, Object[] a, int base, int n, int hint) {
+            int lastOfs = 0;
+            int ofs = 1;
+            if (lt(key, a[base + hint])) {
+                // key < a[hint]: gallop left until a[hint - ofs] <= key < a[hint - lastOfs]
+                int maxOfs = hint + 1;
+                while (ofs < maxOfs) {
+                    if (lt(key, a[base + hint - ofs])) {
+                        lastOfs = ofs;
+                        ofs = (ofs << 1) + 1;
+                        if (ofs <= 0) {
+                            ofs = maxOfs;
+                        }
+                    } else {
+                        break;
+                    }
+                }
+                if (ofs > maxOfs) {
+                    ofs = maxOfs;
+                }
+                int k = lastOfs;
+                lastOfs = hint - ofs;
+                ofs = hint - k;
+            } else {
+                // a[hint] <= key: gallop right until a[hint + lastOfs] <= key < a[hint + ofs]
+                int maxOfs = n - hint;
+                while (ofs < maxOfs) {
+                    if (lt(key, a[base + hint + ofs])) {
+                        break;
+                    }
+                    lastOfs = ofs;
+                    ofs = (ofs << 1) + 1;
+                    if (ofs <= 0) {
+                        ofs = maxOfs;
+                    }
+                }
+                if (ofs > maxOfs) {
+                    ofs = maxOfs;
+                }
+                lastOfs += hint;
+                ofs += hint;
+            }
+            assert -1 <= lastOfs && lastOfs < ofs && ofs <= n;
+            lastOfs++;
+            while (lastOfs < ofs) {
+                int m = lastOfs + ((ofs - lastOfs) >> 1);
+                if (lt(key, a[base + m])) {
+                    ofs = m;
+                } else {
+                    lastOfs = m + 1;
+                }
+            }
+            return ofs;
+        }
+
+        private void ensureTmpCapacity(int need) {
+            if (tmpKeys.length < need) {
+                tmpKeys = new Object[need];
+                if (payload != null) {
+                    tmpPayload = new Object[need];
+                }
+            }
+        }
+
+        private void copy(Object[] srcKeys, Object[] srcPayload, int src, Object[] dstKeys, Object[] dstPayload, int dst, int len) {
+            PythonUtils.arraycopy(srcKeys, src, dstKeys, dst, len);
+            if (payload != null) {
+                PythonUtils.arraycopy(srcPayload, src, dstPayload, dst, len);
+            }
+        }
+
+        private void move(Object[] srcKeys, Object[] srcPayload, int src, int dst) {
+            keys[dst] = srcKeys[src];
+            if (payload != null) {
+                payload[dst] = srcPayload[src];
+            }
+        }
+
+        /**
+         * Merges the two adjacent runs at stack indices {@code i} and {@code i + 1}.
+         */
+        private void mergeAt(int i) {
+            int baseA = runBase[i];
+            int na = runLen[i];
+            int baseB = runBase[i + 1];
+            int nb = runLen[i + 1];
+            assert na > 0 && nb > 0 && baseA + na == baseB;
+
+            runLen[i] = na + nb;
+            if (i == pending - 3) {
+                runBase[i + 1] = runBase[i + 2];
+                runLen[i + 1] = runLen[i + 2];
+            }
+            pending--;
+
+            // Elements of A that are already in place can be ignored.
+            int k = gallopRight(keys[baseB], keys, baseA, na, 0);
+            baseA += k;
+            na -= k;
+            if (na == 0) {
+                return;
+            }
+            // Elements of B that are already in place can be ignored.
+            nb = gallopLeft(keys[baseA + na - 1], keys, baseB, nb, nb - 1);
+            if (nb <= 0) {
+                return;
+            }
+            if (na <= nb) {
+                mergeLo(baseA, na, baseB, nb);
+            } else {
+                mergeHi(baseA, na, baseB, nb);
+            }
+        }
+
+        /**
+         * Merges the runs at the top of the stack until the invariants described in
+         * {@code listsort.txt} hold again.
+         */
+        private void mergeCollapse() {
+            while (pending > 1) {
+                int n = pending - 2;
+                if ((n > 0 && runLen[n - 1] <= runLen[n] + runLen[n + 1]) || (n > 1 && runLen[n - 2] <= runLen[n - 1] + runLen[n])) {
+                    if (runLen[n - 1] < runLen[n + 1]) {
+                        n--;
+                    }
+                    mergeAt(n);
+                } else if (runLen[n] <= runLen[n + 1]) {
+                    mergeAt(n);
+                } else {
+                    break;
+                }
+            }
+        }
+
+        private void mergeForceCollapse() {
+            while (pending > 1) {
+                int n = pending - 2;
+                if (n > 0 && runLen[n - 1] < runLen[n + 1]) {
+                    n--;
+                }
+                mergeAt(n);
+            }
+        }
+
+        /**
+         * Merges the adjacent runs {@code [baseA, baseA+lenA)} and {@code [baseB, baseB+lenB)}
+         * in place, copying the (shorter) run A to a temporary array first. The first element of
+         * B must belong before A's first element and the last element of A must belong after B's
+         * last element.
+         */
+        private void mergeLo(int baseA, int lenA, int baseB, int lenB) {
+            assert lenA > 0 && lenB > 0 && baseA + lenA == baseB && lenA <= lenB;
+            ensureTmpCapacity(lenA);
+            Object[] tk = tmpKeys;
+            Object[] tp = tmpPayload;
+            copy(keys, payload, baseA, tk, tp, 0, lenA);
+
+            int pa = 0;
+            int pb = baseB;
+            int dest = baseA;
+            int na = lenA;
+            int nb = lenB;
+            try {
+                move(keys, payload, pb++, dest++);
+                nb--;
+                if (nb == 0) {
+                    return;
+                }
+                boolean copyB = na == 1;
+                int mg = minGallop;
+                outer: while (!copyB) {
+                    int acount = 0;
+                    int bcount = 0;
+                    // Straightforward merge until one run appears to win consistently.
+                    do {
+                        if (lt(keys[pb], tk[pa])) {
+                            move(keys, payload, pb++, dest++);
+                            bcount++;
+                            acount = 0;
+                            nb--;
+                            if (nb == 0) {
+                                break outer;
+                            }
+                        } else {
+                            move(tk, tp, pa++, dest++);
+                            acount++;
+                            bcount = 0;
+                            na--;
+                            if (na == 1) {
+                                copyB = true;
+                                break outer;
+                            }
+                        }
+                    } while (acount < mg && bcount < mg);
+
+                    // Galloping may be a huge win, so try that until it no longer pays off.
+                    mg++;
+                    do {
+                        mg -= mg > 1 ? 1 : 0;
+                        minGallop = mg;
+                        int k = gallopRight(keys[pb], tk, pa, na, 0);
+                        acount = k;
+                        if (k != 0) {
+                            copy(tk, tp, pa, keys, payload, dest, k);
+                            dest += k;
+                            pa += k;
+                            na -= k;
+                            if (na == 1) {
+                                copyB = true;
+                                break outer;
+                            }
+                            // na == 0 is impossible with a consistent comparison
+                            if (na == 0) {
+                                break outer;
+                            }
+                        }
+                        move(keys, payload, pb++, dest++);
+                        nb--;
+                        if (nb == 0) {
+                            break outer;
+                        }
+
+                        k = gallopLeft(tk[pa], keys, pb, nb, 0);
+                        bcount = k;
+                        if (k != 0) {
+                            copy(keys, payload, pb, keys, payload, dest, k);
+                            dest += k;
+                            pb += k;
+                            nb -= k;
+                            if (nb == 0) {
+                                break outer;
+                            }
+                        }
+                        move(tk, tp, pa++, dest++);
+                        na--;
+                        if (na == 1) {
+                            copyB = true;
+                            break outer;
+                        }
+                    } while (acount >= MIN_GALLOP || bcount >= MIN_GALLOP);
+                    mg++;
+                    minGallop = mg;
+                }
+                if (copyB) {
+                    // The last element of A belongs at the end of the merge.
+                    assert na == 1 && nb > 0;
+                    copy(keys, payload, pb, keys, payload, dest, nb);
+                    move(tk, tp, pa, dest + nb);
+                    na = 0;
+                }
+            } finally {
+                // Also reached if a comparison failed: keep the array a permutation of its input.
+                if (na != 0) {
+                    copy(tk, tp, pa, keys, payload, dest, na);
+                }
+            }
+        }
+
+        /**
+         * Mirror image of {@link #mergeLo}, used if run B is the shorter one. Merges from the
+         * right end, copying run B to a temporary array first.
+         */
+        private void mergeHi(int baseA, int lenA, int baseB, int lenB) {
+            assert lenA > 0 && lenB > 0 && baseA + lenA == baseB && lenA >= lenB;
+            ensureTmpCapacity(lenB);
+            Object[] tk = tmpKeys;
+            Object[] tp = tmpPayload;
+            copy(keys, payload, baseB, tk, tp, 0, lenB);
+
+            int dest = baseB + lenB - 1;
+            int pa = baseA + lenA - 1;
+            int pb = lenB - 1;
+            int na = lenA;
+            int nb = lenB;
+            try {
+                move(keys, payload, pa--, dest--);
+                na--;
+                if (na == 0) {
+                    return;
+                }
+                boolean copyA = nb == 1;
+                int mg = minGallop;
+                outer: while (!copyA) {
+                    int acount = 0;
+                    int bcount = 0;
+                    do {
+                        if (lt(tk[pb], keys[pa])) {
+                            move(keys, payload, pa--, dest--);
+                            acount++;
+                            bcount = 0;
+                            na--;
+                            if (na == 0) {
+                                break outer;
+                            }
+                        } else {
+                            move(tk, tp, pb--, dest--);
+                            bcount++;
+                            acount = 0;
+                            nb--;
+                            if (nb == 1) {
+                                copyA = true;
+                                break outer;
+                            }
+                        }
+                    } while (acount < mg && bcount < mg);
+
+                    mg++;
+                    do {
+                        mg -= mg > 1 ? 1 : 0;
+                        minGallop = mg;
+                        int k = gallopRight(tk[pb], keys, baseA, na, na - 1);
+                        k = na - k;
+                        acount = k;
+                        if (k != 0) {
+                            dest -= k;
+                            pa -= k;
+                            copy(keys, payload, pa + 1, keys, payload, dest + 1, k);
+                            na -= k;
+                            if (na == 0) {
+                                break outer;
+                            }
+                        }
+                        move(tk, tp, pb--, dest--);
+                        nb--;
+                        if (nb == 1) {
+                            copyA = true;
+                            break outer;
+                        }
+
+                        k = gallopLeft(keys[pa], tk, 0, nb, nb - 1);
+                        k = nb - k;
+                        bcount = k;
+                        if (k != 0) {
+                            dest -= k;
+                            pb -= k;
+                            copy(tk, tp, pb + 1, keys, payload, dest + 1, k);
+                            nb -= k;
+                            if (nb == 1) {
+                                copyA = true;
+                                break outer;
+                            }
+                            // nb == 0 is impossible with a consistent comparison
+                            if (nb == 0) {
+                                break outer;
+                            }
+                        }
+                        move(keys, payload, pa--, dest--);
+                        na--;
+                        if (na == 0) {
+                            break outer;
+                        }
+                    } while (acount >= MIN_GALLOP || bcount >= MIN_GALLOP);
+                    mg++;
+                    minGallop = mg;
+                }
+                if (copyA) {
+                    // The first element of B belongs at the front of the merge.
+                    assert nb == 1 && na > 0 && pb == 0;
+                    dest -= na;
+                    pa -= na;
+                    copy(keys, payload, pa + 1, keys, payload, dest + 1, na);
+                    move(tk, tp, pb, dest);
+                    nb = 0;
+                }
+            } finally {
+                if (nb != 0) {
+                    copy(tk, tp, 0, keys, payload, dest - (nb - 1), nb);
+                }
+            }
+        }
+    }
+}
@@ -202,7 +202,7 @@ public class MMapBuiltins extends PythonBuiltins {
             assert len > 0;
             assert pos + len <= self.getLength();
             byte[] buffer = new byte[len];
-            posixLib.mmapReadBytes(node.getPosixSupport(), self.getPosixSupportHandle(), pos, buffer, buffer.length);
+            posixLib.mmapReadBytes(node.getPosixSupport(), self.getPosixSupportHandle(), pos, buffer, 0, buffer.length);
             return buffer;
         } catch (PosixException e) {
             throw node.raiseOSErrorFromPosixException(frame, e);
@@ -296,6 +296,9 @@ public class MMapBuiltins extends PythonBuiltins {
         }
 
         private void writeBuffer(VirtualFrame frame, PosixSupportLibrary posixSupportLib, PMMap mmap, long idx, byte[] bytes, int len) {
+            if (!mmap.isWriteable()) {
+                throw raise(TypeError, ErrorMessages.MMAP_CANNOT_MODIFY_READONLY_MEMORY);
+            }
             try {
                 posixSupportLib.mmapWriteBytes(getPosixSupport(), mmap.getPosixSupportHandle(), idx, bytes, len);
             } catch (PosixException ex) {
@@ -482,7 +485,7 @@ public class MMapBuiltins extends PythonBuiltins {
             int nread;
             outer: while (self.getPos() < self.getLength()) {
                 try {
-                    nread = posixLib.mmapReadBytes(getPosixSupport(), self.getPosixSupportHandle(), self.getPos(), buffer, (int) Math.min(self.getRemaining(), buffer.length));
+                    nread = posixLib.mmapReadBytes(getPosixSupport(), self.getPosixSupportHandle(), self.getPos(), buffer, 0, (int) Math.min(self.getRemaining(), buffer.length));
                 } catch (PosixException e) {
                     throw raiseOSErrorFromPosixException(frame, e);
                 }
@@ -585,57 +588,51 @@ public class MMapBuiltins extends PythonBuiltins {
             long start = normalizeIndex(frame, startConverter, startIn, self.getLength(), self.getPos());
             long end = normalizeIndex(frame, endConverter, endIn, self.getLength(), self.getLength());
 
-            // We use two arrays to implement circular buffer, once the search for the needle would
-            // overflow the second buffer, we load more data into the other buffer and then swap the
-            // buffers and continue.
-            // This is way more complicated than it needs to be, but we do not want to access the
-            // mmap byte-by-byte as with some implementations that could be very inefficient.
-            int bufferSize = Math.max(BUFFER_SIZE, sub.length);
-            int buffersIndex = bufferSize;
-            byte[] firstBuffer = new byte[bufferSize];
-            byte[] secondBuffer = new byte[bufferSize];
-
-            readBytes(frame, self, posixLib, start, secondBuffer);
-            for (long selfIdx = start; selfIdx <= end - sub.length; selfIdx++, buffersIndex++) {
-                // Make sure that the buffers have enough room for the search
-                if (buffersIndex + sub.length > bufferSize * 2) {
-                    byte[] tmp = firstBuffer;
-                    firstBuffer = secondBuffer;
-                    secondBuffer = tmp;
-                    buffersIndex -= bufferSize; // move to the tail of the first buffer now
-                    long readIndex = selfIdx + sub.length - 1;
-                    readBytes(frame, self, posixLib, readIndex, secondBuffer);
-                    // It's OK if we read less than buffer size, the outer loop condition
-                    // 'selfIdx <= end' and the check in readBytes should cover that we don't read
-                    // garbage from the buffer
-                }
-                boolean found = true;
-                for (int subIdx = 0; subIdx < sub.length; subIdx++) {
-                    byte value;
-                    int currentBuffersIdx = buffersIndex + subIdx;
-                    if (currentBuffersIdx >= bufferSize) {
-                        value = secondBuffer[currentBuffersIdx % bufferSize];
-                    } else {
-                        value = firstBuffer[currentBuffersIdx];
-                    }
-                    if (sub[subIdx] != value) {
-                        found = false;
-                        break;
+            if (sub.length == 0) {
+                return start <= end ? start : -1;
+            }
+            // The mapping is searched in windows. Each window is read with a single bulk read, which
+            // the emulated backend serves from its mapped buffers, and the last sub.length - 1
+            // bytes are kept at the front of the next window so that matches across windows are
+            // found.
+            long limit = end - sub.length;
+            if (start > limit) {
+                return -1;
+            }
+            byte[] buffer = new byte[(int) Math.min(BUFFER_SIZE + sub.length - 1, end - start)];
+            long bufferStart = start;
+            int filled = 0;
+            while (bufferStart <= limit) {
+                int toRead = (int) Math.min(buffer.length - filled, end - bufferStart - filled);
+                readBytes(frame, self, posixLib, bufferStart + filled, buffer, filled, toRead);
+                filled += toRead;
+                int lastCandidate = (int) Math.min(filled - sub.length, limit - bufferStart);
+                for (int i = 0; i <= lastCandidate; i++) {
+                    if (matchesAt(buffer, i, sub)) {
+                        return bufferStart + i;
                     }
                 }
-                if (found) {
-                    return selfIdx;
-                }
+                int tail = filled - lastCandidate - 1;
+                PythonUtils.arraycopy(buffer, lastCandidate + 1, buffer, 0, tail);
+                bufferStart += lastCandidate + 1;
+                filled = tail;
             }
             return -1;
         }
 
-        private void readBytes(VirtualFrame frame, PMMap self, PosixSupportLibrary posixLib, long index, byte[] buffer) {
+        private static boolean matchesAt(byte[] buffer, int index, byte[] sub) {
+            for (int i = 0; i < sub.length; i++) {
+                if (buffer[index + i] != sub[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void readBytes(VirtualFrame frame, PMMap self, PosixSupportLibrary posixLib, long index, byte[] buffer, int offset, int length) {
             try {
-                long remaining = self.getLength() - index;
-                int toReadLen = remaining > buffer.length ? buffer.length : (int) remaining;
-                int nread = posixLib.mmapReadBytes(getPosixSupport(), self.getPosixSupportHandle(), index, buffer, toReadLen);
-                if (toReadLen != nread) {
+                int nread = posixLib.mmapReadBytes(getPosixSupport(), self.getPosixSupportHandle(), index, buffer, offset, length);
+                if (length != nread) {
                     throw raise(PythonBuiltinClassType.SystemError, MMAP_CHANGED_LENGTH);
                 }
             } catch (PosixException ex) {
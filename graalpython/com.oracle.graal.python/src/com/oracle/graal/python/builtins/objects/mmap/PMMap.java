@@ -93,7 +93,7 @@ public final class PMMap extends PythonObject {
         }
     }
 
-    boolean isClosed() {
+    public boolean isClosed() {
         return handle == null;
     }
 
@@ -143,7 +143,7 @@ public final class PMMap extends PythonObject {
         try {
             int len = castToIntNode.execute(length);
             byte[] buffer = new byte[len];
-            posixLib.mmapReadBytes(ctx.getPosixSupport(), getPosixSupportHandle(), getPos(), buffer, buffer.length);
+            posixLib.mmapReadBytes(ctx.getPosixSupport(), getPosixSupportHandle(), 0, buffer, 0, buffer.length);
             return buffer;
         } catch (PosixException e) {
             // TODO(fa) how to handle?
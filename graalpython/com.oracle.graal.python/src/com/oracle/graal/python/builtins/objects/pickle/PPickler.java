@@ -0,0 +1,1629 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.pickle;
+
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.PicklingError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.RecursionError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.RuntimeError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.TypeError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.ValueError;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.ADDITEMS;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.APPEND;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.APPENDS;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.BATCHSIZE;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.BINBYTES;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.BINFLOAT;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.BINGET;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.BININT;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.BININT1;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.BININT2;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.BINPERSID;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.BINPUT;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.BINUNICODE;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.BUILD;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.BYTEARRAY8;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.DICT;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.EMPTY_DICT;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.EMPTY_LIST;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.EMPTY_SET;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.EMPTY_TUPLE;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.EXT1;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.EXT2;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.EXT4;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.FAST_NESTING_LIMIT;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.FLOAT;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.FRAME;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.FRAME_HEADER_SIZE;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.FRAME_SIZE_MIN;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.FRAME_SIZE_TARGET;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.FROZENSET;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.GLOBAL;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.HIGHEST_PROTOCOL;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.LIST;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.LONG1;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.LONG4;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.LONG_BINGET;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.LONG_BINPUT;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.MARK;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.MAX_DEPTH;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.MEMOIZE;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.NEWFALSE;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.NEWOBJ;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.NEWOBJ_EX;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.NEWTRUE;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.NEXT_BUFFER;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.NONE;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.PERSID;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.POP;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.POP_MARK;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.PROTO;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.READONLY_BUFFER;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.REDUCE;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.SETITEM;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.SETITEMS;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.SHORT_BINBYTES;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.SHORT_BINUNICODE;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.STACK_GLOBAL;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.STOP;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.TUPLE;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.TUPLE1;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.TUPLE2;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.UNICODE;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.asStringOrNull;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.getDeepAttribute;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.getDottedPath;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.getItemOrNull;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.getModuleAttribute;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.importModule;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.repr;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REPR__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__STR__;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.IdentityHashMap;
+
+import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.PNotImplemented;
+import com.oracle.graal.python.builtins.objects.bytes.PBytesLike;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage.DictEntry;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageLibrary;
+import com.oracle.graal.python.builtins.objects.common.PHashingCollection;
+import com.oracle.graal.python.builtins.objects.common.SequenceNodesFactory.GetObjectArrayNodeGen;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
+import com.oracle.graal.python.builtins.objects.ellipsis.PEllipsis;
+import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.floats.PFloat;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.memoryview.PMemoryView;
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.builtins.objects.type.TypeNodes;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.PRaiseNode;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.control.GetNextNode;
+import com.oracle.graal.python.nodes.expression.IsExpressionNodeGen.IsNodeGen;
+import com.oracle.graal.python.nodes.object.GetClassNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.graal.python.runtime.sequence.storage.BoolSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.DoubleSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.IntSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.LongSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.graal.python.util.PythonUtils;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.interop.UnsupportedMessageException;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.object.Shape;
+
+/**
+ * A {@code _pickle.Pickler}. This is a port of the pickling half of CPython's {@code _pickle.c}
+ * and produces the same byte stream. The pickle is accumulated in a growable byte array which is
+ * split into frames for protocol 4 and above. If the pickler writes to a file, each completed
+ * frame and, at the end of {@link #dump}, the rest of the buffer is passed to the file's
+ * {@code write} method; large bytes and str payloads bypass the buffer.
+ * <p>
+ * Exact lists, tuples, dicts and sets are walked directly on their storages. Lists backed by a
+ * primitive storage are written without boxing their elements unless a {@code persistent_id}
+ * hook needs to see every object.
+ */
+public final class PPickler extends PythonBuiltinObject {
+    private static final int INITIAL_OUTPUT_SIZE = 4096;
+
+    private boolean initialized;
+    private int protocol;
+    private boolean bin;
+    private boolean fixImports;
+    private boolean fast;
+    private Object write;
+    private Object bufferCallback;
+    private IdentityHashMap<Object, Integer> memo = new IdentityHashMap<>();
+    private Object persistentIdAttribute;
+    private Object dispatchTableAttribute;
+
+    private int fastNesting;
+    private IdentityHashMap<Object, Object> fastMemo;
+
+    private byte[] output = new byte[INITIAL_OUTPUT_SIZE];
+    private int outputLen;
+    private int frameStart = -1;
+    private boolean framing;
+
+    // only valid during dump
+    private Node raisingNode;
+    private Object persistentId;
+    private Object reducerOverride;
+    private Object dispatchTable;
+    private Object copyreg;
+    private int depth;
+
+    public PPickler(Object cls, Shape instanceShape) {
+        super(cls, instanceShape);
+    }
+
+    /**
+     * Equivalent of {@code Pickler.__init__}. {@code file} is {@code null} for {@code dumps}, in
+     * which case the result is available from {@link #getOutput()}.
+     */
+    @TruffleBoundary
+    public void init(Node node, Object file, int proto, boolean fixImportsArg, Object callback) {
+        if (proto > HIGHEST_PROTOCOL) {
+            throw PRaiseNode.raiseUncached(node, ValueError, ErrorMessages.PICKLE_PROTOCOL_MUST_BE_LE, HIGHEST_PROTOCOL);
+        }
+        protocol = proto < 0 ? HIGHEST_PROTOCOL : proto;
+        bin = protocol > 0;
+        fixImports = fixImportsArg && protocol < 3;
+        if (file != null) {
+            Object writeMethod = PythonObjectLibrary.getUncached().lookupAttribute(file, null, "write");
+            if (writeMethod == PNone.NO_VALUE) {
+                throw PRaiseNode.raiseUncached(node, TypeError, ErrorMessages.FILE_MUST_HAVE_WRITE_ATTR);
+            }
+            write = writeMethod;
+        } else {
+            write = null;
+        }
+        if (callback == PNone.NONE || callback == PNone.NO_VALUE) {
+            bufferCallback = null;
+        } else {
+            if (protocol < 5) {
+                throw PRaiseNode.raiseUncached(node, ValueError, ErrorMessages.BUFFER_CALLBACK_NEEDS_PROTOCOL_5);
+            }
+            bufferCallback = callback;
+        }
+        memo = new IdentityHashMap<>();
+        clearBuffer();
+        fast = false;
+        fastNesting = 0;
+        fastMemo = null;
+        initialized = true;
+    }
+
+    public Object getPersistentIdAttribute() {
+        return persistentIdAttribute;
+    }
+
+    public void setPersistentIdAttribute(Object value) {
+        persistentIdAttribute = value;
+    }
+
+    public Object getDispatchTableAttribute() {
+        return dispatchTableAttribute;
+    }
+
+    public void setDispatchTableAttribute(Object value) {
+        dispatchTableAttribute = value;
+    }
+
+    public boolean isFast() {
+        return fast;
+    }
+
+    public void setFast(boolean fast) {
+        this.fast = fast;
+    }
+
+    @TruffleBoundary
+    public void clearMemo() {
+        memo.clear();
+    }
+
+    @TruffleBoundary
+    public byte[] getOutput() {
+        return PythonUtils.arrayCopyOf(output, outputLen);
+    }
+
+    /**
+     * Pickles {@code obj}. Must be called in an indirect call context, since {@code __reduce__}
+     * methods and the other hooks are called from here.
+     */
+    @TruffleBoundary
+    public void dump(Node node, Object obj) {
+        if (!initialized) {
+            throw PRaiseNode.raiseUncached(node, PicklingError, ErrorMessages.PICKLER_INIT_NOT_CALLED, this);
+        }
+        PythonObjectLibrary lib = PythonObjectLibrary.getUncached();
+        raisingNode = node;
+        persistentId = nullIfMissing(lib.lookupAttribute(this, null, "persistent_id"));
+        reducerOverride = nullIfMissing(lib.lookupAttribute(this, null, "reducer_override"));
+        dispatchTable = nullIfMissing(lib.lookupAttribute(this, null, "dispatch_table"));
+        copyreg = null;
+        depth = 0;
+        try {
+            clearBuffer();
+            if (protocol >= 2) {
+                writeOp(PROTO);
+                writeByte(protocol);
+            }
+            if (protocol >= 4) {
+                framing = true;
+            }
+            save(obj, false);
+            writeOp(STOP);
+            commitFrame();
+            framing = false;
+            if (write != null) {
+                flushToFile();
+                clearBuffer();
+            }
+        } finally {
+            framing = false;
+            raisingNode = null;
+            persistentId = null;
+            reducerOverride = null;
+            dispatchTable = null;
+            copyreg = null;
+        }
+    }
+
+    private static Object nullIfMissing(Object value) {
+        return value == PNone.NO_VALUE || value == PNone.NONE ? null : value;
+    }
+
+    private PException raise(PythonBuiltinClassType type, String format, Object... args) {
+        throw PRaiseNode.raiseUncached(raisingNode, type, format, args);
+    }
+
+    private static Object call(Object callable, Object... args) {
+        return CallNode.getUncached().execute(callable, args);
+    }
+
+    private static PythonObjectFactory factory() {
+        return PythonObjectFactory.getUncached();
+    }
+
+    private Object getCopyregAttribute(String name) {
+        if (copyreg == null) {
+            copyreg = importModule("copyreg");
+        }
+        return PythonObjectLibrary.getUncached().lookupAttributeStrict(copyreg, null, name);
+    }
+
+    // output buffer
+
+    private void clearBuffer() {
+        outputLen = 0;
+        frameStart = -1;
+    }
+
+    /**
+     * Makes room for {@code len} more bytes and starts a new frame if necessary, see CPython's
+     * {@code _Pickler_Write}.
+     */
+    private void reserve(int len) {
+        boolean newFrame = framing && frameStart == -1;
+        int required = outputLen + len + (newFrame ? FRAME_HEADER_SIZE : 0);
+        if (required < 0) {
+            throw raise(PythonBuiltinClassType.MemoryError, ErrorMessages.PICKLE_OUTPUT_TOO_LARGE);
+        }
+        if (required > output.length) {
+            output = PythonUtils.arrayCopyOf(output, Math.max(required, output.length < Integer.MAX_VALUE / 2 ? output.length * 2 : Integer.MAX_VALUE));
+        }
+        if (newFrame) {
+            frameStart = outputLen;
+            for (int i = 0; i < FRAME_HEADER_SIZE; i++) {
+                output[outputLen++] = 0;
+            }
+        }
+    }
+
+    private void writeOp(int op) {
+        reserve(1);
+        output[outputLen++] = (byte) op;
+    }
+
+    private void writeByte(int b) {
+        writeOp(b);
+    }
+
+    private void writeOpAndByte(int op, int arg) {
+        reserve(2);
+        output[outputLen++] = (byte) op;
+        output[outputLen++] = (byte) arg;
+    }
+
+    private void writeOpAndShort(int op, int arg) {
+        reserve(3);
+        output[outputLen++] = (byte) op;
+        output[outputLen++] = (byte) arg;
+        output[outputLen++] = (byte) (arg >> 8);
+    }
+
+    private void writeOpAndInt(int op, int arg) {
+        reserve(5);
+        output[outputLen++] = (byte) op;
+        putInt(output, outputLen, arg);
+        outputLen += 4;
+    }
+
+    private void writeOpAndLong(int op, long arg) {
+        reserve(9);
+        output[outputLen++] = (byte) op;
+        putLong(output, outputLen, arg);
+        outputLen += 8;
+    }
+
+    private void writeBytes(byte[] data, int len) {
+        reserve(len);
+        PythonUtils.arraycopy(data, 0, output, outputLen, len);
+        outputLen += len;
+    }
+
+    private void writeAscii(String s) {
+        int len = s.length();
+        reserve(len);
+        for (int i = 0; i < len; i++) {
+            output[outputLen++] = (byte) s.charAt(i);
+        }
+    }
+
+    private static void putInt(byte[] buf, int off, int v) {
+        buf[off] = (byte) v;
+        buf[off + 1] = (byte) (v >> 8);
+        buf[off + 2] = (byte) (v >> 16);
+        buf[off + 3] = (byte) (v >> 24);
+    }
+
+    private static void putLong(byte[] buf, int off, long v) {
+        for (int i = 0; i < 8; i++) {
+            buf[off + i] = (byte) (v >> (8 * i));
+        }
+    }
+
+    private void commitFrame() {
+        if (!framing || frameStart == -1) {
+            return;
+        }
+        int frameLen = outputLen - frameStart - FRAME_HEADER_SIZE;
+        if (frameLen >= FRAME_SIZE_MIN) {
+            output[frameStart] = (byte) FRAME;
+            putLong(output, frameStart + 1, frameLen);
+        } else {
+            PythonUtils.arraycopy(output, frameStart + FRAME_HEADER_SIZE, output, frameStart, frameLen);
+            outputLen -= FRAME_HEADER_SIZE;
+        }
+        frameStart = -1;
+    }
+
+    private void opcodeBoundary() {
+        if (!framing || frameStart == -1) {
+            return;
+        }
+        if (outputLen - frameStart - FRAME_HEADER_SIZE >= FRAME_SIZE_TARGET) {
+            commitFrame();
+            if (write != null) {
+                // hand the frame to the file and reuse the buffer for the next one
+                flushToFile();
+                clearBuffer();
+            }
+        }
+    }
+
+    private void flushToFile() {
+        call(write, factory().createBytes(PythonUtils.arrayCopyOf(output, outputLen)));
+    }
+
+    /**
+     * Writes an opcode with its length argument, which is already in {@code header}, followed by
+     * {@code payload}. Large payloads are not copied into a frame but passed to the file as they
+     * are, see CPython's {@code _Pickler_write_bytes}. {@code payloadObj} is the object to pass to
+     * {@code write} in that case, or {@code null} if a bytes object has to be created.
+     */
+    private void writeWithPayload(byte[] header, int headerLen, byte[] payload, int payloadLen, Object payloadObj) {
+        boolean bypassBuffer = payloadLen >= FRAME_SIZE_TARGET;
+        boolean wasFraming = framing;
+        if (bypassBuffer) {
+            commitFrame();
+            framing = false;
+        }
+        writeBytes(header, headerLen);
+        if (bypassBuffer && write != null) {
+            flushToFile();
+            call(write, payloadObj != null ? payloadObj : factory().createBytes(PythonUtils.arrayCopyOf(payload, payloadLen)));
+            clearBuffer();
+        } else {
+            writeBytes(payload, payloadLen);
+        }
+        framing = wasFraming;
+    }
+
+    // memo
+
+    private void memoize(Object obj) {
+        if (fast) {
+            return;
+        }
+        int idx = memo.size();
+        memo.put(obj, idx);
+        if (protocol >= 4) {
+            writeOp(MEMOIZE);
+        } else if (bin) {
+            if (idx < 256) {
+                writeOpAndByte(BINPUT, idx);
+            } else {
+                writeOpAndInt(LONG_BINPUT, idx);
+            }
+        } else {
+            writeAscii("p" + idx + "\n");
+        }
+    }
+
+    private void writeGet(int idx) {
+        if (bin) {
+            if (idx < 256) {
+                writeOpAndByte(BINGET, idx);
+            } else {
+                writeOpAndInt(LONG_BINGET, idx);
+            }
+        } else {
+            writeAscii("g" + idx + "\n");
+        }
+    }
+
+    private boolean fastSaveEnter(Object obj) {
+        if (fastNesting >= 0 && ++fastNesting >= FAST_NESTING_LIMIT) {
+            if (fastMemo == null) {
+                fastMemo = new IdentityHashMap<>();
+            }
+            if (fastMemo.containsKey(obj)) {
+                fastNesting = -1;
+                throw raise(ValueError, ErrorMessages.FAST_MODE_CANT_PICKLE_CYCLIC_OBJECTS, obj, System.identityHashCode(obj));
+            }
+            fastMemo.put(obj, obj);
+        }
+        return true;
+    }
+
+    private void fastSaveLeave(Object obj) {
+        if (fastNesting-- >= FAST_NESTING_LIMIT) {
+            fastMemo.remove(obj);
+        }
+    }
+
+    // save
+
+    private void save(Object object, boolean persSave) {
+        opcodeBoundary();
+        Object obj = object instanceof PythonBuiltinClassType ? PythonLanguage.getCore().lookupType((PythonBuiltinClassType) object) : object;
+        if (++depth > MAX_DEPTH) {
+            depth--;
+            throw raise(RecursionError, ErrorMessages.MAX_RECURSION_DEPTH_EXCEEDED_WHILE_PICKLING);
+        }
+        try {
+            saveImpl(obj, persSave);
+        } finally {
+            depth--;
+        }
+    }
+
+    private void saveImpl(Object obj, boolean persSave) {
+        if (!persSave && persistentId != null && savePers(obj)) {
+            return;
+        }
+        Object type = GetClassNode.getUncached().execute(obj);
+        // atomic types are never memoized
+        if (obj == PNone.NONE) {
+            writeOp(NONE);
+            return;
+        } else if (obj instanceof Boolean) {
+            saveBool((Boolean) obj);
+            return;
+        } else if (obj instanceof Integer) {
+            saveLong((Integer) obj);
+            return;
+        } else if (obj instanceof Long) {
+            saveLong((Long) obj);
+            return;
+        } else if (obj instanceof Double) {
+            saveFloat(obj, (Double) obj);
+            return;
+        } else if (obj instanceof PInt && isExact(type, PythonBuiltinClassType.Boolean)) {
+            saveBool(((PInt) obj).isOne());
+            return;
+        } else if (obj instanceof PInt && isExact(type, PythonBuiltinClassType.PInt)) {
+            saveBigLong(((PInt) obj).getValue());
+            return;
+        } else if (obj instanceof PFloat && isExact(type, PythonBuiltinClassType.PFloat)) {
+            saveFloat(obj, ((PFloat) obj).getValue());
+            return;
+        }
+
+        Integer memoIndex = memo.get(obj);
+        if (memoIndex != null) {
+            writeGet(memoIndex);
+            return;
+        }
+
+        if (isExact(type, PythonBuiltinClassType.PBytes)) {
+            saveBytes(obj);
+            return;
+        } else if (isExact(type, PythonBuiltinClassType.PString)) {
+            saveStr(obj);
+            return;
+        }
+
+        Object reduceValue = null;
+        if (reducerOverride != null) {
+            reduceValue = call(reducerOverride, obj);
+            if (reduceValue == PNotImplemented.NOT_IMPLEMENTED) {
+                reduceValue = null;
+            }
+        }
+        if (reduceValue == null) {
+            if (isExact(type, PythonBuiltinClassType.PDict)) {
+                saveDict((PHashingCollection) obj);
+                return;
+            } else if (isExact(type, PythonBuiltinClassType.PSet)) {
+                saveSet((PHashingCollection) obj);
+                return;
+            } else if (isExact(type, PythonBuiltinClassType.PFrozenSet)) {
+                saveFrozenSet(obj);
+                return;
+            } else if (isExact(type, PythonBuiltinClassType.PList)) {
+                saveList((PList) obj);
+                return;
+            } else if (isExact(type, PythonBuiltinClassType.PTuple)) {
+                saveTuple(obj);
+                return;
+            } else if (isExact(type, PythonBuiltinClassType.PByteArray)) {
+                saveByteArray(obj, type);
+                return;
+            } else if (obj instanceof PPickleBuffer) {
+                savePickleBuffer((PPickleBuffer) obj);
+                return;
+            } else if (isExact(type, PythonBuiltinClassType.PythonClass)) {
+                saveType(obj);
+                return;
+            } else if (isExact(type, PythonBuiltinClassType.PFunction)) {
+                saveGlobal(obj, null);
+                return;
+            }
+
+            Object reduceFunc = getItemOrNull(dispatchTable != null ? dispatchTable : getCopyregAttribute("dispatch_table"), type);
+            if (reduceFunc != null) {
+                reduceValue = call(reduceFunc, obj);
+            } else if (TypeNodes.IsTypeNode.getUncached().execute(obj)) {
+                saveGlobal(obj, null);
+                return;
+            } else {
+                PythonObjectLibrary lib = PythonObjectLibrary.getUncached();
+                reduceFunc = lib.lookupAttribute(obj, null, "__reduce_ex__");
+                if (reduceFunc != PNone.NO_VALUE) {
+                    reduceValue = call(reduceFunc, protocol);
+                } else {
+                    reduceFunc = lib.lookupAttribute(obj, null, "__reduce__");
+                    if (reduceFunc == PNone.NO_VALUE) {
+                        throw raise(PicklingError, ErrorMessages.CANT_PICKLE_P_OBJECT_S, obj, repr(obj));
+                    }
+                    reduceValue = call(reduceFunc);
+                }
+            }
+        }
+
+        if (isExact(GetClassNode.getUncached().execute(reduceValue), PythonBuiltinClassType.PString)) {
+            saveGlobal(obj, reduceValue);
+        } else if (reduceValue instanceof PTuple) {
+            saveReduce(GetObjectArrayNodeGen.getUncached().execute(reduceValue), obj);
+        } else {
+            throw raise(PicklingError, ErrorMessages.REDUCE_MUST_RETURN_STRING_OR_TUPLE);
+        }
+    }
+
+    private static boolean isExact(Object type, PythonBuiltinClassType expected) {
+        return IsBuiltinClassProfile.profileClassSlowPath(type, expected);
+    }
+
+    private boolean savePers(Object obj) {
+        Object pid = call(persistentId, obj);
+        if (pid == PNone.NONE) {
+            return false;
+        }
+        if (bin) {
+            save(pid, true);
+            writeOp(BINPERSID);
+        } else {
+            String s = asStringOrNull(PythonObjectLibrary.getUncached().lookupAndCallSpecialMethod(pid, null, __STR__));
+            if (s == null || !isAscii(s)) {
+                throw raise(PicklingError, ErrorMessages.PERSISTENT_IDS_IN_PROTOCOL_0_MUST_BE_ASCII);
+            }
+            writeOp(PERSID);
+            writeAscii(s);
+            writeOp('\n');
+        }
+        return true;
+    }
+
+    private static boolean isAscii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > 0x7f) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void saveBool(boolean value) {
+        if (protocol >= 2) {
+            writeOp(value ? NEWTRUE : NEWFALSE);
+        } else {
+            writeAscii(value ? "I01\n" : "I00\n");
+        }
+    }
+
+    private void saveLong(long value) {
+        if (value == (int) value) {
+            if (bin) {
+                if (value >= 0 && value <= 0xff) {
+                    writeOpAndByte(BININT1, (int) value);
+                } else if (value >= 0 && value <= 0xffff) {
+                    writeOpAndShort(BININT2, (int) value);
+                } else {
+                    writeOpAndInt(BININT, (int) value);
+                }
+            } else {
+                writeAscii("I" + value + "\n");
+            }
+        } else {
+            saveBigLong(BigInteger.valueOf(value));
+        }
+    }
+
+    private void saveBigLong(BigInteger value) {
+        if (value.bitLength() < 32) {
+            saveLong(value.intValue());
+        } else if (protocol >= 2) {
+            // minimal little-endian two's complement representation
+            byte[] bigEndian = value.toByteArray();
+            int n = bigEndian.length;
+            byte[] data = new byte[n];
+            for (int i = 0; i < n; i++) {
+                data[i] = bigEndian[n - 1 - i];
+            }
+            if (n < 256) {
+                writeOpAndByte(LONG1, n);
+            } else {
+                writeOpAndInt(LONG4, n);
+            }
+            writeBytes(data, n);
+        } else {
+            writeAscii("L" + value.toString() + "L\n");
+        }
+    }
+
+    private void saveFloat(Object obj, double value) {
+        if (bin) {
+            long bits = Double.doubleToRawLongBits(value);
+            reserve(9);
+            output[outputLen++] = (byte) BINFLOAT;
+            for (int i = 7; i >= 0; i--) {
+                output[outputLen++] = (byte) (bits >> (8 * i));
+            }
+        } else {
+            writeOp(FLOAT);
+            writeAscii(asStringOrNull(PythonObjectLibrary.getUncached().lookupAndCallSpecialMethod(obj, null, __REPR__)));
+            writeOp('\n');
+        }
+    }
+
+    private static byte[] getBytes(Object obj) {
+        if (obj instanceof PBytesLike) {
+            SequenceStorage storage = ((PBytesLike) obj).getSequenceStorage();
+            if (storage instanceof ByteSequenceStorage) {
+                // never modified, so the internal array can be used if it has the right size
+                byte[] bytes = ((ByteSequenceStorage) storage).getInternalByteArray();
+                int len = storage.length();
+                return len == bytes.length ? bytes : PythonUtils.arrayCopyOf(bytes, len);
+            }
+        }
+        try {
+            return PythonObjectLibrary.getUncached().getBufferBytes(obj);
+        } catch (UnsupportedMessageException e) {
+            throw CompilerDirectives.shouldNotReachHere(e);
+        }
+    }
+
+    private void saveBytes(Object obj) {
+        byte[] data = getBytes(obj);
+        if (protocol < 3) {
+            // older protocols have no opcode for bytes, produce something that also unpickles in
+            // Python 2
+            Object reduceValue;
+            if (data.length == 0) {
+                reduceValue = factory().createTuple(new Object[]{PythonBuiltinClassType.PBytes, factory().createTuple(PythonUtils.EMPTY_OBJECT_ARRAY)});
+            } else {
+                String latin1 = new String(data, StandardCharsets.ISO_8859_1);
+                Object encode = getModuleAttribute("codecs", "encode");
+                reduceValue = factory().createTuple(new Object[]{encode, factory().createTuple(new Object[]{latin1, "latin1"})});
+            }
+            saveReduce(GetObjectArrayNodeGen.getUncached().execute(reduceValue), obj);
+            return;
+        }
+        saveBytesData(obj, data, obj);
+    }
+
+    private void saveBytesData(Object obj, byte[] data, Object payloadObj) {
+        byte[] header = new byte[9];
+        int headerLen;
+        int len = data.length;
+        if (len <= 0xff) {
+            header[0] = (byte) SHORT_BINBYTES;
+            header[1] = (byte) len;
+            headerLen = 2;
+        } else {
+            header[0] = (byte) BINBYTES;
+            putInt(header, 1, len);
+            headerLen = 5;
+        }
+        writeWithPayload(header, headerLen, data, len, payloadObj);
+        memoize(obj);
+    }
+
+    private void saveByteArrayData(Object obj, byte[] data, Object payloadObj) {
+        byte[] header = new byte[9];
+        header[0] = (byte) BYTEARRAY8;
+        putLong(header, 1, data.length);
+        writeWithPayload(header, 9, data, data.length, payloadObj);
+        memoize(obj);
+    }
+
+    private void saveByteArray(Object obj, Object type) {
+        byte[] data = getBytes(obj);
+        if (protocol < 5) {
+            Object args = data.length == 0 ? factory().createTuple(PythonUtils.EMPTY_OBJECT_ARRAY) : factory().createTuple(new Object[]{factory().createBytes(data)});
+            saveReduce(new Object[]{type, args}, obj);
+        } else {
+            saveByteArrayData(obj, data, obj);
+        }
+    }
+
+    private void savePickleBuffer(PPickleBuffer obj) {
+        if (protocol < 5) {
+            throw raise(PicklingError, ErrorMessages.PICKLEBUFFER_ONLY_WITH_PROTOCOL_5);
+        }
+        PMemoryView view = obj.getView();
+        if (view == null) {
+            throw raise(ValueError, ErrorMessages.OP_FORBIDDEN_ON_RELEASED_PICKLEBUFFER);
+        }
+        if (!view.isCContiguous() && !view.isFortranContiguous()) {
+            throw raise(PicklingError, ErrorMessages.PICKLEBUFFER_NON_CONTIGUOUS);
+        }
+        boolean inBand = true;
+        if (bufferCallback != null) {
+            inBand = PythonObjectLibrary.getUncached().isTrue(call(bufferCallback, obj));
+        }
+        if (inBand) {
+            byte[] data = getBytes(obj);
+            if (view.isReadOnly()) {
+                saveBytesData(obj, data, null);
+            } else {
+                saveByteArrayData(obj, data, null);
+            }
+        } else {
+            writeOp(NEXT_BUFFER);
+            if (view.isReadOnly()) {
+                writeOp(READONLY_BUFFER);
+            }
+        }
+    }
+
+    private void saveStr(Object obj) {
+        String s = asStringOrNull(obj);
+        if (bin) {
+            byte[] encoded = encodeUtf8SurrogatePass(s);
+            byte[] header = new byte[5];
+            int headerLen;
+            if (encoded.length <= 0xff && protocol >= 4) {
+                header[0] = (byte) SHORT_BINUNICODE;
+                header[1] = (byte) encoded.length;
+                headerLen = 2;
+            } else {
+                header[0] = (byte) BINUNICODE;
+                putInt(header, 1, encoded.length);
+                headerLen = 5;
+            }
+            writeWithPayload(header, headerLen, encoded, encoded.length, null);
+        } else {
+            writeOp(UNICODE);
+            writeRawUnicodeEscape(s);
+            writeOp('\n');
+        }
+        memoize(obj);
+    }
+
+    /**
+     * Encodes to UTF-8 like {@code str.encode('utf-8', 'surrogatepass')}, i.e., lone surrogates
+     * are encoded as if they were regular code points.
+     */
+    static byte[] encodeUtf8SurrogatePass(String s) {
+        int len = s.length();
+        boolean hasLoneSurrogate = false;
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(s.charAt(i + 1))) {
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                hasLoneSurrogate = true;
+                break;
+            }
+        }
+        if (!hasLoneSurrogate) {
+            return s.getBytes(StandardCharsets.UTF_8);
+        }
+        byte[] result = new byte[len * 3];
+        int pos = 0;
+        for (int i = 0; i < len; i++) {
+            int cp = s.charAt(i);
+            if (Character.isHighSurrogate((char) cp) && i + 1 < len && Character.isLowSurrogate(s.charAt(i + 1))) {
+                cp = Character.toCodePoint((char) cp, s.charAt(++i));
+            }
+            if (cp < 0x80) {
+                result[pos++] = (byte) cp;
+            } else if (cp < 0x800) {
+                result[pos++] = (byte) (0xc0 | (cp >> 6));
+                result[pos++] = (byte) (0x80 | (cp & 0x3f));
+            } else if (cp < 0x10000) {
+                result[pos++] = (byte) (0xe0 | (cp >> 12));
+                result[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+                result[pos++] = (byte) (0x80 | (cp & 0x3f));
+            } else {
+                result[pos++] = (byte) (0xf0 | (cp >> 18));
+                result[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+                result[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+                result[pos++] = (byte) (0x80 | (cp & 0x3f));
+            }
+        }
+        return PythonUtils.arrayCopyOf(result, pos);
+    }
+
+    /**
+     * Writes {@code s} in the {@code raw-unicode-escape} encoding. Backslashes and the characters
+     * that would end the line early are escaped as well, like {@code pickle.py} does.
+     */
+    private void writeRawUnicodeEscape(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length();) {
+            int cp = s.codePointAt(i);
+            i += Character.charCount(cp);
+            if (cp >= 0x10000) {
+                sb.append(String.format("\\U%08x", cp));
+            } else if (cp >= 0x100 || cp == '\\' || cp == 0 || cp == '\n' || cp == '\r' || cp == 0x1a) {
+                sb.append(String.format("\\u%04x", cp));
+            } else {
+                sb.append((char) cp);
+            }
+        }
+        writeAscii(sb.toString());
+    }
+
+    private void saveTuple(Object obj) {
+        Object[] items = GetObjectArrayNodeGen.getUncached().execute(obj);
+        int len = items.length;
+        if (len == 0) {
+            if (bin) {
+                writeOp(EMPTY_TUPLE);
+            } else {
+                writeOp(MARK);
+                writeOp(TUPLE);
+            }
+            return;
+        }
+        if (len <= 3 && protocol >= 2) {
+            for (Object item : items) {
+                save(item, false);
+            }
+            Integer memoIndex = memo.get(obj);
+            if (memoIndex != null) {
+                // the tuple is recursive, throw away the elements and fetch it from the memo
+                for (int i = 0; i < len; i++) {
+                    writeOp(POP);
+                }
+                writeGet(memoIndex);
+                return;
+            }
+            writeOp(TUPLE1 + len - 1);
+        } else {
+            writeOp(MARK);
+            for (Object item : items) {
+                save(item, false);
+            }
+            Integer memoIndex = memo.get(obj);
+            if (memoIndex != null) {
+                if (bin) {
+                    writeOp(POP_MARK);
+                } else {
+                    for (int i = 0; i <= len; i++) {
+                        writeOp(POP);
+                    }
+                }
+                writeGet(memoIndex);
+                return;
+            }
+            writeOp(TUPLE);
+        }
+        memoize(obj);
+    }
+
+    private void saveList(PList obj) {
+        if (fast) {
+            fastSaveEnter(obj);
+        }
+        try {
+            if (bin) {
+                writeOp(EMPTY_LIST);
+            } else {
+                writeOp(MARK);
+                writeOp(LIST);
+            }
+            memoize(obj);
+            int len = obj.getSequenceStorage().length();
+            if (len == 1 && bin) {
+                save(getListItem(obj, 0), false);
+                writeOp(APPEND);
+            } else if (len != 0) {
+                batchListExact(obj);
+            }
+        } finally {
+            if (fast) {
+                fastSaveLeave(obj);
+            }
+        }
+    }
+
+    private static Object getListItem(PList list, int idx) {
+        return SequenceStorageNodes.GetItemScalarNode.getUncached().execute(list.getSequenceStorage(), idx);
+    }
+
+    /**
+     * Writes the list items in batches of {@link PickleUtils#BATCHSIZE}. The storage is fetched
+     * again for each item because saving an item may modify the list.
+     */
+    private void batchListExact(PList list) {
+        int total = 0;
+        do {
+            if (bin) {
+                writeOp(MARK);
+            }
+            int thisBatch = 0;
+            while (total < list.getSequenceStorage().length()) {
+                SequenceStorage storage = list.getSequenceStorage();
+                if (persistentId != null || !saveItemUnboxed(storage, total)) {
+                    save(getListItem(list, total), false);
+                }
+                total++;
+                if (!bin) {
+                    writeOp(APPEND);
+                } else if (++thisBatch == BATCHSIZE) {
+                    break;
+                }
+            }
+            if (bin) {
+                writeOp(APPENDS);
+            }
+        } while (total < list.getSequenceStorage().length());
+    }
+
+    /**
+     * Writes an element of a primitive storage without boxing it. Returns {@code false} if the
+     * storage holds objects.
+     */
+    private boolean saveItemUnboxed(SequenceStorage storage, int idx) {
+        opcodeBoundary();
+        if (storage instanceof IntSequenceStorage) {
+            saveLong(((IntSequenceStorage) storage).getIntItemNormalized(idx));
+        } else if (storage instanceof LongSequenceStorage) {
+            saveLong(((LongSequenceStorage) storage).getLongItemNormalized(idx));
+        } else if (storage instanceof DoubleSequenceStorage && bin) {
+            saveFloat(null, ((DoubleSequenceStorage) storage).getDoubleItemNormalized(idx));
+        } else if (storage instanceof BoolSequenceStorage) {
+            saveBool(((BoolSequenceStorage) storage).getBoolItemNormalized(idx));
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private void saveDict(PHashingCollection obj) {
+        if (fast) {
+            fastSaveEnter(obj);
+        }
+        try {
+            if (bin) {
+                writeOp(EMPTY_DICT);
+            } else {
+                writeOp(MARK);
+                writeOp(DICT);
+            }
+            memoize(obj);
+            HashingStorage storage = obj.getDictStorage();
+            HashingStorageLibrary lib = HashingStorageLibrary.getUncached();
+            int size = lib.length(storage);
+            if (size == 0) {
+                return;
+            }
+            // take a snapshot, saving keys and values may modify the dict
+            Object[] keys = new Object[size];
+            Object[] values = new Object[size];
+            int n = 0;
+            for (DictEntry entry : lib.entries(storage)) {
+                keys[n] = entry.key;
+                values[n] = entry.value;
+                n++;
+            }
+            if (size == 1 && bin) {
+                save(keys[0], false);
+                save(values[0], false);
+                writeOp(SETITEM);
+                return;
+            }
+            int i = 0;
+            do {
+                if (bin) {
+                    writeOp(MARK);
+                }
+                int thisBatch = 0;
+                while (i < size) {
+                    save(keys[i], false);
+                    save(values[i], false);
+                    i++;
+                    if (!bin) {
+                        writeOp(SETITEM);
+                    } else if (++thisBatch == BATCHSIZE) {
+                        break;
+                    }
+                }
+                if (bin) {
+                    writeOp(SETITEMS);
+                }
+                if (lib.length(obj.getDictStorage()) != size) {
+                    throw raise(RuntimeError, ErrorMessages.CHANGED_SIZE_DURING_ITERATION, "dictionary");
+                }
+            } while (i < size);
+        } finally {
+            if (fast) {
+                fastSaveLeave(obj);
+            }
+        }
+    }
+
+    private static Object[] getSetItems(Object obj) {
+        HashingStorage storage = ((PHashingCollection) obj).getDictStorage();
+        HashingStorageLibrary lib = HashingStorageLibrary.getUncached();
+        Object[] items = new Object[lib.length(storage)];
+        int n = 0;
+        for (Object key : lib.keys(storage)) {
+            items[n++] = key;
+        }
+        return items;
+    }
+
+    private void saveSet(PHashingCollection obj) {
+        Object[] items = getSetItems(obj);
+        if (protocol < 4) {
+            Object args = factory().createTuple(new Object[]{factory().createList(items)});
+            saveReduce(new Object[]{PythonBuiltinClassType.PSet, args}, obj);
+            return;
+        }
+        writeOp(EMPTY_SET);
+        memoize(obj);
+        int size = items.length;
+        int i = 0;
+        while (i < size) {
+            writeOp(MARK);
+            int thisBatch = 0;
+            while (i < size) {
+                save(items[i++], false);
+                if (++thisBatch == BATCHSIZE) {
+                    break;
+                }
+            }
+            writeOp(ADDITEMS);
+            if (HashingStorageLibrary.getUncached().length(obj.getDictStorage()) != size) {
+                throw raise(RuntimeError, ErrorMessages.CHANGED_SIZE_DURING_ITERATION, "set");
+            }
+        }
+    }
+
+    private void saveFrozenSet(Object obj) {
+        Object[] items = getSetItems(obj);
+        if (protocol < 4) {
+            Object args = factory().createTuple(new Object[]{factory().createList(items)});
+            saveReduce(new Object[]{PythonBuiltinClassType.PFrozenSet, args}, obj);
+            return;
+        }
+        writeOp(MARK);
+        for (Object item : items) {
+            save(item, false);
+        }
+        Integer memoIndex = memo.get(obj);
+        if (memoIndex != null) {
+            // recursive through __reduce__ of an element
+            writeOp(POP_MARK);
+            writeGet(memoIndex);
+            return;
+        }
+        writeOp(FROZENSET);
+        memoize(obj);
+    }
+
+    private void saveType(Object obj) {
+        Object singleton = null;
+        if (IsBuiltinClassProfile.profileClassSlowPath(obj, PythonBuiltinClassType.PNone)) {
+            singleton = PNone.NONE;
+        } else if (IsBuiltinClassProfile.profileClassSlowPath(obj, PythonBuiltinClassType.PNotImplemented)) {
+            singleton = PNotImplemented.NOT_IMPLEMENTED;
+        } else if (IsBuiltinClassProfile.profileClassSlowPath(obj, PythonBuiltinClassType.PEllipsis)) {
+            singleton = PEllipsis.INSTANCE;
+        }
+        if (singleton != null) {
+            saveReduce(new Object[]{PythonBuiltinClassType.PythonClass, factory().createTuple(new Object[]{singleton})}, obj);
+        } else {
+            saveGlobal(obj, null);
+        }
+    }
+
+    /**
+     * Equivalent of CPython's {@code whichmodule}: the object's {@code __module__} or the first
+     * module in {@code sys.modules} that contains it.
+     */
+    private static Object whichModule(Object obj, String[] dottedPath) {
+        Object moduleName = PythonObjectLibrary.getUncached().lookupAttribute(obj, null, "__module__");
+        if (moduleName != PNone.NO_VALUE && moduleName != PNone.NONE) {
+            return moduleName;
+        }
+        HashingStorage modules = PythonLanguage.getContext().getSysModules().getDictStorage();
+        for (DictEntry entry : HashingStorageLibrary.getUncached().entries(modules)) {
+            if (entry.value == PNone.NONE || "__main__".equals(asStringOrNull(entry.key))) {
+                continue;
+            }
+            Object[] candidate = getDeepAttribute(entry.value, dottedPath);
+            if (candidate != null && candidate[0] == obj) {
+                return entry.key;
+            }
+        }
+        return "__main__";
+    }
+
+    private void saveGlobal(Object obj, Object name) {
+        PythonObjectLibrary lib = PythonObjectLibrary.getUncached();
+        Object globalNameObj = name;
+        if (globalNameObj == null) {
+            globalNameObj = lib.lookupAttribute(obj, null, "__qualname__");
+            if (globalNameObj == PNone.NO_VALUE) {
+                globalNameObj = lib.lookupAttributeStrict(obj, null, "__name__");
+            }
+        }
+        String globalName = asStringOrNull(globalNameObj);
+        if (globalName == null) {
+            throw raise(TypeError, ErrorMessages.MUST_BE_STR_NOT_P, globalNameObj);
+        }
+        String[] dottedPath = getDottedPath(raisingNode, null, globalName);
+        Object moduleNameObj = whichModule(obj, dottedPath);
+        String moduleName = asStringOrNull(moduleNameObj);
+        if (moduleName == null) {
+            throw raise(TypeError, ErrorMessages.MUST_BE_STR_NOT_P, moduleNameObj);
+        }
+        Object module;
+        try {
+            module = importModule(moduleName);
+        } catch (PException e) {
+            throw raise(PicklingError, ErrorMessages.CANT_PICKLE_S_IMPORT_OF_MODULE_S_FAILED, repr(obj), repr(moduleNameObj));
+        }
+        Object[] resolved = getDeepAttribute(module, dottedPath);
+        if (resolved == null) {
+            throw raise(PicklingError, ErrorMessages.CANT_PICKLE_S_ATTRIBUTE_LOOKUP_S_ON_S_FAILED, repr(obj), globalName, moduleName);
+        }
+        if (!IsNodeGen.getUncached().execute(resolved[0], obj)) {
+            throw raise(PicklingError, ErrorMessages.CANT_PICKLE_S_NOT_SAME_OBJECT_AS_S_S, repr(obj), moduleName, globalName);
+        }
+        Object parent = resolved[1];
+        String lastName = dottedPath[dottedPath.length - 1];
+
+        if (protocol >= 2) {
+            Object key = factory().createTuple(new Object[]{moduleName, globalName});
+            Object code = getItemOrNull(getCopyregAttribute("_extension_registry"), key);
+            if (code != null) {
+                if (!isIntObject(code)) {
+                    throw raise(PicklingError, ErrorMessages.CANT_PICKLE_S_EXTENSION_CODE_S_NOT_INT, repr(obj), repr(code));
+                }
+                BigInteger bigCode = code instanceof PInt ? ((PInt) code).getValue() : BigInteger.valueOf(((Number) code).longValue());
+                if (bigCode.signum() <= 0 || bigCode.bitLength() > 31) {
+                    throw raise(PicklingError, ErrorMessages.CANT_PICKLE_S_EXTENSION_CODE_S_OUT_OF_RANGE, repr(obj), bigCode.toString());
+                }
+                int c = bigCode.intValue();
+                if (c <= 0xff) {
+                    writeOpAndByte(EXT1, c);
+                } else if (c <= 0xffff) {
+                    writeOpAndShort(EXT2, c);
+                } else {
+                    writeOpAndInt(EXT4, c);
+                }
+                return;
+            }
+        }
+
+        if (parent == module) {
+            globalName = lastName;
+        }
+        if (protocol >= 4) {
+            save(moduleName, false);
+            save(globalName, false);
+            writeOp(STACK_GLOBAL);
+        } else if (parent != module) {
+            Object getattr = PythonLanguage.getCore().getBuiltins().getAttribute("getattr");
+            saveReduce(new Object[]{getattr, factory().createTuple(new Object[]{parent, lastName})}, null);
+        } else {
+            if (fixImports) {
+                String[] fixed = reverseFixImports(moduleName, globalName);
+                moduleName = fixed[0];
+                globalName = fixed[1];
+            }
+            if (protocol != 3 && !isAscii(moduleName)) {
+                throw raise(PicklingError, ErrorMessages.CANT_PICKLE_MODULE_IDENTIFIER_S_USING_PROTOCOL_D, moduleName, protocol);
+            }
+            if (protocol != 3 && !isAscii(globalName)) {
+                throw raise(PicklingError, ErrorMessages.CANT_PICKLE_GLOBAL_IDENTIFIER_S_USING_PROTOCOL_D, globalName, protocol);
+            }
+            writeOp(GLOBAL);
+            byte[] encoded = encodeUtf8SurrogatePass(moduleName);
+            writeBytes(encoded, encoded.length);
+            writeOp('\n');
+            encoded = encodeUtf8SurrogatePass(globalName);
+            writeBytes(encoded, encoded.length);
+            writeOp('\n');
+        }
+        memoize(obj);
+    }
+
+    private static boolean isIntObject(Object obj) {
+        return obj instanceof Integer || obj instanceof Long || obj instanceof PInt;
+    }
+
+    /**
+     * Maps Python 3 names to Python 2 names for protocols 0 to 2, using the reverse mappings of
+     * {@code _compat_pickle}.
+     */
+    private String[] reverseFixImports(String moduleName, String globalName) {
+        Object key = factory().createTuple(new Object[]{moduleName, globalName});
+        Object item = getItemOrNull(getModuleAttribute("_compat_pickle", "REVERSE_NAME_MAPPING"), key);
+        if (item != null) {
+            if (!(item instanceof PTuple)) {
+                throw raise(RuntimeError, ErrorMessages.COMPAT_PICKLE_S_VALUES_SHOULD_BE_2_TUPLES_NOT_P, "REVERSE_NAME_MAPPING", item);
+            }
+            Object[] pair = GetObjectArrayNodeGen.getUncached().execute(item);
+            String fixedModule = pair.length == 2 ? asStringOrNull(pair[0]) : null;
+            String fixedName = pair.length == 2 ? asStringOrNull(pair[1]) : null;
+            if (fixedModule == null || fixedName == null) {
+                throw raise(RuntimeError, ErrorMessages.COMPAT_PICKLE_S_VALUES_SHOULD_BE_2_TUPLES_NOT_P, "REVERSE_NAME_MAPPING", item);
+            }
+            return new String[]{fixedModule, fixedName};
+        }
+        item = getItemOrNull(getModuleAttribute("_compat_pickle", "REVERSE_IMPORT_MAPPING"), moduleName);
+        if (item != null) {
+            String fixedModule = asStringOrNull(item);
+            if (fixedModule == null) {
+                throw raise(RuntimeError, ErrorMessages.COMPAT_PICKLE_S_VALUES_SHOULD_BE_STRINGS_NOT_P, "REVERSE_IMPORT_MAPPING", item);
+            }
+            return new String[]{fixedModule, globalName};
+        }
+        return new String[]{moduleName, globalName};
+    }
+
+    /**
+     * Saves the result of {@code __reduce__}. {@code obj} is the object being reduced, or
+     * {@code null} if the reduce value is generated internally and nothing should be memoized.
+     */
+    private void saveReduce(Object[] args, Object obj) {
+        PythonObjectLibrary lib = PythonObjectLibrary.getUncached();
+        int size = args.length;
+        if (size < 2 || size > 6) {
+            throw raise(PicklingError, ErrorMessages.REDUCE_TUPLE_MUST_CONTAIN_2_TO_6_ELEMENTS);
+        }
+        Object callable = args[0];
+        Object argtup = args[1];
+        Object state = size > 2 && args[2] != PNone.NONE ? args[2] : null;
+        Object listitems = size > 3 && args[3] != PNone.NONE ? args[3] : null;
+        Object dictitems = size > 4 && args[4] != PNone.NONE ? args[4] : null;
+        Object stateSetter = size > 5 && args[5] != PNone.NONE ? args[5] : null;
+
+        if (!lib.isCallable(callable)) {
+            throw raise(PicklingError, ErrorMessages.REDUCE_FIRST_ITEM_MUST_BE_CALLABLE);
+        }
+        if (!(argtup instanceof PTuple)) {
+            throw raise(PicklingError, ErrorMessages.REDUCE_SECOND_ITEM_MUST_BE_TUPLE);
+        }
+        if (listitems != null && lib.lookupAttributeOnType(listitems, "__next__") == PNone.NO_VALUE) {
+            throw raise(PicklingError, ErrorMessages.REDUCE_S_ELEMENT_MUST_BE_S_NOT_P, "fourth", "an iterator", listitems);
+        }
+        if (dictitems != null && lib.lookupAttributeOnType(dictitems, "__next__") == PNone.NO_VALUE) {
+            throw raise(PicklingError, ErrorMessages.REDUCE_S_ELEMENT_MUST_BE_S_NOT_P, "fifth", "an iterator", dictitems);
+        }
+        if (stateSetter != null && !lib.isCallable(stateSetter)) {
+            throw raise(PicklingError, ErrorMessages.REDUCE_S_ELEMENT_MUST_BE_S_NOT_P, "sixth", "a function", stateSetter);
+        }
+
+        boolean useNewobj = false;
+        boolean useNewobjEx = false;
+        if (protocol >= 2) {
+            String name = asStringOrNull(lib.lookupAttribute(callable, null, "__name__"));
+            if (name != null) {
+                useNewobjEx = "__newobj_ex__".equals(name);
+                useNewobj = !useNewobjEx && "__newobj__".equals(name);
+            }
+        }
+
+        Object[] argItems = GetObjectArrayNodeGen.getUncached().execute(argtup);
+        if (useNewobjEx) {
+            if (argItems.length != 3) {
+                throw raise(PicklingError, ErrorMessages.NEWOBJ_EX_ARGS_LENGTH_MUST_BE_3_NOT_D, argItems.length);
+            }
+            Object cls = argItems[0];
+            if (!TypeNodes.IsTypeNode.getUncached().execute(cls)) {
+                throw raise(PicklingError, ErrorMessages.NEWOBJ_EX_S_ITEM_MUST_BE_S_NOT_P, "first", "a class", cls);
+            }
+            Object clsArgs = argItems[1];
+            if (!(clsArgs instanceof PTuple)) {
+                throw raise(PicklingError, ErrorMessages.NEWOBJ_EX_S_ITEM_MUST_BE_S_NOT_P, "second", "a tuple", clsArgs);
+            }
+            Object kwargs = argItems[2];
+            if (!(kwargs instanceof PDict)) {
+                throw raise(PicklingError, ErrorMessages.NEWOBJ_EX_S_ITEM_MUST_BE_S_NOT_P, "third", "a dict", kwargs);
+            }
+            if (protocol >= 4) {
+                save(cls, false);
+                save(clsArgs, false);
+                save(kwargs, false);
+                writeOp(NEWOBJ_EX);
+            } else {
+                // functools.partial(cls.__new__, cls, *args, **kwargs)
+                Object[] clsArgItems = GetObjectArrayNodeGen.getUncached().execute(clsArgs);
+                Object[] newargs = new Object[clsArgItems.length + 2];
+                newargs[0] = lib.lookupAttributeStrict(cls, null, "__new__");
+                newargs[1] = cls;
+                PythonUtils.arraycopy(clsArgItems, 0, newargs, 2, clsArgItems.length);
+                Object partial = CallNode.getUncached().execute(PythonLanguage.getCore().lookupType(PythonBuiltinClassType.PPartial), newargs, getKeywords(kwargs));
+                save(partial, false);
+                save(factory().createTuple(PythonUtils.EMPTY_OBJECT_ARRAY), false);
+                writeOp(REDUCE);
+            }
+        } else if (useNewobj) {
+            if (argItems.length == 0) {
+                throw raise(PicklingError, ErrorMessages.NEWOBJ_ARGLIST_IS_EMPTY);
+            }
+            Object cls = argItems[0];
+            if (!TypeNodes.IsTypeNode.getUncached().execute(cls)) {
+                throw raise(PicklingError, ErrorMessages.NEWOBJ_ARGS0_IS_NOT_A_TYPE);
+            }
+            if (obj != null) {
+                Object objClass = lib.lookupAttribute(obj, null, "__class__");
+                if (objClass == PNone.NO_VALUE || !IsNodeGen.getUncached().execute(objClass, cls)) {
+                    throw raise(PicklingError, ErrorMessages.NEWOBJ_ARGS0_HAS_WRONG_CLASS);
+                }
+            }
+            save(cls, false);
+            Object[] newargs = new Object[argItems.length - 1];
+            PythonUtils.arraycopy(argItems, 1, newargs, 0, newargs.length);
+            save(factory().createTuple(newargs), false);
+            writeOp(NEWOBJ);
+        } else {
+            save(callable, false);
+            save(argtup, false);
+            writeOp(REDUCE);
+        }
+
+        if (obj != null) {
+            Integer memoIndex = memo.get(obj);
+            if (memoIndex != null) {
+                // recursive object, throw away what we built and fetch it from the memo
+                writeOp(POP);
+                writeGet(memoIndex);
+                return;
+            }
+            memoize(obj);
+        }
+        if (listitems != null) {
+            batchList(listitems);
+        }
+        if (dictitems != null) {
+            batchDict(dictitems);
+        }
+        if (state != null) {
+            if (stateSetter == null) {
+                save(state, false);
+                writeOp(BUILD);
+            } else {
+                // call state_setter(obj, state) and throw away the result
+                save(stateSetter, false);
+                save(obj, false);
+                save(state, false);
+                writeOp(TUPLE2);
+                writeOp(REDUCE);
+                writeOp(POP);
+            }
+        }
+    }
+
+    private static PKeyword[] getKeywords(Object kwargs) {
+        HashingStorage storage = ((PHashingCollection) kwargs).getDictStorage();
+        HashingStorageLibrary lib = HashingStorageLibrary.getUncached();
+        PKeyword[] keywords = new PKeyword[lib.length(storage)];
+        int i = 0;
+        for (DictEntry entry : lib.entries(storage)) {
+            keywords[i++] = new PKeyword(asStringOrNull(entry.key), entry.value);
+        }
+        return keywords;
+    }
+
+    /**
+     * Returns the next item of {@code iterator}, or {@code null} if it is exhausted.
+     */
+    private static Object next(Object iterator) {
+        try {
+            return GetNextNode.getUncached().execute(null, iterator);
+        } catch (PException e) {
+            e.expectStopIteration(IsBuiltinClassProfile.getUncached());
+            return null;
+        }
+    }
+
+    /**
+     * Writes the items of {@code iterator}, which is the {@code listitems} element of a reduce
+     * value. Items are saved while iterating.
+     */
+    private void batchList(Object iterator) {
+        if (!bin) {
+            Object item;
+            while ((item = next(iterator)) != null) {
+                save(item, false);
+                writeOp(APPEND);
+            }
+            return;
+        }
+        int n;
+        do {
+            Object first = next(iterator);
+            if (first == null) {
+                break;
+            }
+            Object item = next(iterator);
+            if (item == null) {
+                save(first, false);
+                writeOp(APPEND);
+                break;
+            }
+            writeOp(MARK);
+            save(first, false);
+            save(item, false);
+            n = 2;
+            while (n < BATCHSIZE) {
+                item = next(iterator);
+                if (item == null) {
+                    break;
+                }
+                save(item, false);
+                n++;
+            }
+            writeOp(APPENDS);
+        } while (n == BATCHSIZE);
+    }
+
+    private void saveDictItem(Object item) {
+        if (!(item instanceof PTuple)) {
+            throw raise(TypeError, ErrorMessages.DICT_ITEMS_ITERATOR_MUST_RETURN_2_TUPLES);
+        }
+        Object[] pair = GetObjectArrayNodeGen.getUncached().execute(item);
+        if (pair.length != 2) {
+            throw raise(TypeError, ErrorMessages.DICT_ITEMS_ITERATOR_MUST_RETURN_2_TUPLES);
+        }
+        save(pair[0], false);
+        save(pair[1], false);
+    }
+
+    /**
+     * Writes the {@code (key, value)} pairs of {@code iterator}, which is the {@code dictitems}
+     * element of a reduce value.
+     */
+    private void batchDict(Object iterator) {
+        if (!bin) {
+            Object item;
+            while ((item = next(iterator)) != null) {
+                saveDictItem(item);
+                writeOp(SETITEM);
+            }
+            return;
+        }
+        int n;
+        do {
+            Object first = next(iterator);
+            if (first == null) {
+                break;
+            }
+            Object item = next(iterator);
+            if (item == null) {
+                saveDictItem(first);
+                writeOp(SETITEM);
+                break;
+            }
+            writeOp(MARK);
+            saveDictItem(first);
+            saveDictItem(item);
+            n = 2;
+            while (n < BATCHSIZE) {
+                item = next(iterator);
+                if (item == null) {
+                    break;
+                }
+                saveDictItem(item);
+                n++;
+            }
+            writeOp(SETITEMS);
+        } while (n == BATCHSIZE);
+    }
+}
@@ -0,0 +1,1272 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.pickle;
+
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.AttributeError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.EOFError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.KeyError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.TypeError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.UnpicklingError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.ValueError;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.ADDITEMS;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.APPEND;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.APPENDS;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.BINBYTES;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.BINBYTES8;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.BINFLOAT;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.BINGET;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.BININT;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.BININT1;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.BININT2;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.BINPERSID;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.BINPUT;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.BINSTRING;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.BINUNICODE;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.BINUNICODE8;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.BUILD;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.BYTEARRAY8;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.DICT;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.DUP;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.EMPTY_DICT;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.EMPTY_LIST;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.EMPTY_SET;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.EMPTY_TUPLE;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.EXT1;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.EXT2;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.EXT4;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.FLOAT;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.FRAME;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.FROZENSET;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.GET;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.GLOBAL;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.HIGHEST_PROTOCOL;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.INST;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.INT;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.LIST;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.LONG;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.LONG1;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.LONG4;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.LONG_BINGET;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.LONG_BINPUT;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.MARK;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.MEMOIZE;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.NEWFALSE;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.NEWOBJ;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.NEWOBJ_EX;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.NEWTRUE;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.NEXT_BUFFER;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.NONE;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.OBJ;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.PERSID;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.POP;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.POP_MARK;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.PROTO;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.PUT;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.READONLY_BUFFER;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.REDUCE;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.SETITEM;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.SETITEMS;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.SHORT_BINBYTES;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.SHORT_BINSTRING;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.SHORT_BINUNICODE;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.STACK_GLOBAL;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.STOP;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.STRING;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.TUPLE;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.TUPLE1;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.TUPLE2;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.TUPLE3;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.UNICODE;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.asStringOrNull;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.getDeepAttribute;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.getDottedPath;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.getItemOrNull;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.getModuleAttribute;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.importModule;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.isBuiltinType;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.repr;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__SETITEM__;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.PBytes;
+import com.oracle.graal.python.builtins.objects.common.EconomicMapStorage;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage.DictEntry;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageLibrary;
+import com.oracle.graal.python.builtins.objects.common.PHashingCollection;
+import com.oracle.graal.python.builtins.objects.common.SequenceNodesFactory.GetObjectArrayNodeGen;
+import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.list.ListNodes;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.builtins.objects.type.TypeNodes;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.PRaiseNode;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.control.GetNextNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorageFactory;
+import com.oracle.graal.python.util.PythonUtils;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.interop.UnsupportedMessageException;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.object.Shape;
+
+/**
+ * A {@code _pickle.Unpickler}. This is a port of the unpickling half of CPython's
+ * {@code _pickle.c}. When loading from bytes, the opcodes are decoded directly from the byte
+ * array. When loading from a file, each read calls the file's {@code read} or {@code readline}
+ * method, except inside a frame, which is read as a whole and then decoded from memory.
+ */
+public final class PUnpickler extends PythonBuiltinObject {
+    private static final int INITIAL_STACK_SIZE = 16;
+
+    private boolean initialized;
+    private Object read;
+    private Object readline;
+    private boolean fixImports;
+    private String encoding;
+    private String errors;
+    private Object buffers;
+    private Object persistentLoadAttribute;
+
+    private byte[] input;
+    private int inputPos;
+    private int inputLen;
+
+    private int proto;
+    private Object[] stack = new Object[INITIAL_STACK_SIZE];
+    private int stackLen;
+    private int[] marks = new int[INITIAL_STACK_SIZE];
+    private int numMarks;
+    private int fence;
+    private Object[] memo = new Object[INITIAL_STACK_SIZE];
+    private int memoLen;
+
+    // only valid during load
+    private Node raisingNode;
+
+    public PUnpickler(Object cls, Shape instanceShape) {
+        super(cls, instanceShape);
+    }
+
+    /**
+     * Equivalent of {@code Unpickler.__init__}. {@code file} is {@code null} for {@code loads},
+     * in which case the data is passed to {@link #setInput}.
+     */
+    @TruffleBoundary
+    public void init(Node node, Object file, boolean fixImportsArg, String encodingArg, String errorsArg, Object buffersArg) {
+        if (file != null) {
+            PythonObjectLibrary lib = PythonObjectLibrary.getUncached();
+            Object readMethod = lib.lookupAttribute(file, null, "read");
+            Object readlineMethod = lib.lookupAttribute(file, null, "readline");
+            if (readMethod == PNone.NO_VALUE || readlineMethod == PNone.NO_VALUE) {
+                throw PRaiseNode.raiseUncached(node, TypeError, ErrorMessages.FILE_MUST_HAVE_READ_AND_READLINE_ATTRS);
+            }
+            read = readMethod;
+            readline = readlineMethod;
+        } else {
+            read = null;
+            readline = null;
+        }
+        fixImports = fixImportsArg;
+        encoding = encodingArg;
+        errors = errorsArg;
+        if (buffersArg == PNone.NONE || buffersArg == PNone.NO_VALUE) {
+            buffers = null;
+        } else {
+            buffers = PythonObjectLibrary.getUncached().getIterator(buffersArg);
+        }
+        input = null;
+        inputPos = 0;
+        inputLen = 0;
+        memo = new Object[INITIAL_STACK_SIZE];
+        memoLen = 0;
+        proto = 0;
+        initialized = true;
+    }
+
+    public Object getPersistentLoadAttribute() {
+        return persistentLoadAttribute;
+    }
+
+    public void setPersistentLoadAttribute(Object value) {
+        persistentLoadAttribute = value;
+    }
+
+    /**
+     * Sets the data for {@code loads}. The array is never modified.
+     */
+    public void setInput(byte[] data, int len) {
+        input = data;
+        inputPos = 0;
+        inputLen = len;
+    }
+
+    /**
+     * Reads one pickle. Must be called in an indirect call context, since {@code find_class} and
+     * the reconstructors in the pickle are called from here.
+     */
+    @TruffleBoundary
+    public Object load(Node node) {
+        if (!initialized) {
+            throw PRaiseNode.raiseUncached(node, UnpicklingError, ErrorMessages.UNPICKLER_INIT_NOT_CALLED, this);
+        }
+        raisingNode = node;
+        stackLen = 0;
+        numMarks = 0;
+        fence = 0;
+        proto = 0;
+        try {
+            return loadImpl();
+        } finally {
+            // drop references to the loaded objects
+            Arrays.fill(stack, 0, stackLen, null);
+            stackLen = 0;
+            raisingNode = null;
+        }
+    }
+
+    private PException raise(PythonBuiltinClassType type, String format, Object... args) {
+        throw PRaiseNode.raiseUncached(raisingNode, type, format, args);
+    }
+
+    private static Object call(Object callable, Object... args) {
+        return CallNode.getUncached().execute(callable, args);
+    }
+
+    private static PythonObjectFactory factory() {
+        return PythonObjectFactory.getUncached();
+    }
+
+    // input
+
+    private int readOpcode() {
+        if (inputPos >= inputLen && !fill(1)) {
+            throw raise(EOFError, ErrorMessages.RAN_OUT_OF_INPUT);
+        }
+        return input[inputPos++] & 0xff;
+    }
+
+    /**
+     * Makes sure at least {@code n} bytes are available in the input buffer, reading from the
+     * file if necessary. Returns {@code false} if there is not enough data.
+     */
+    private boolean fill(int n) {
+        if (inputLen - inputPos >= n) {
+            return true;
+        }
+        if (read == null) {
+            return false;
+        }
+        int have = inputLen - inputPos;
+        byte[] data = toBytes(call(read, n - have));
+        byte[] newInput = new byte[have + data.length];
+        if (have > 0) {
+            PythonUtils.arraycopy(input, inputPos, newInput, 0, have);
+        }
+        PythonUtils.arraycopy(data, 0, newInput, have, data.length);
+        input = newInput;
+        inputPos = 0;
+        inputLen = newInput.length;
+        return inputLen >= n;
+    }
+
+    private PException truncated() {
+        throw raise(UnpicklingError, ErrorMessages.PICKLE_DATA_WAS_TRUNCATED);
+    }
+
+    private int readByte() {
+        if (!fill(1)) {
+            throw truncated();
+        }
+        return input[inputPos++] & 0xff;
+    }
+
+    private int readUnsignedShort() {
+        if (!fill(2)) {
+            throw truncated();
+        }
+        int result = (input[inputPos] & 0xff) | (input[inputPos + 1] & 0xff) << 8;
+        inputPos += 2;
+        return result;
+    }
+
+    private int readInt() {
+        if (!fill(4)) {
+            throw truncated();
+        }
+        int result = (input[inputPos] & 0xff) | (input[inputPos + 1] & 0xff) << 8 | (input[inputPos + 2] & 0xff) << 16 | (input[inputPos + 3] & 0xff) << 24;
+        inputPos += 4;
+        return result;
+    }
+
+    private long readLong() {
+        if (!fill(8)) {
+            throw truncated();
+        }
+        long result = 0;
+        for (int i = 7; i >= 0; i--) {
+            result = result << 8 | (input[inputPos + i] & 0xff);
+        }
+        inputPos += 8;
+        return result;
+    }
+
+    /**
+     * Reads a 4 or 8 byte size argument, rejecting sizes we cannot allocate.
+     */
+    private int readSize(boolean eightBytes, String opcodeName) {
+        long size = eightBytes ? readLong() : readInt() & 0xffffffffL;
+        if (size < 0 || size > Integer.MAX_VALUE - 8) {
+            throw raise(UnpicklingError, ErrorMessages.BYTE_COUNT_EXCEEDS_MAXIMUM_FOR_S, opcodeName);
+        }
+        return (int) size;
+    }
+
+    private byte[] readBytes(int n) {
+        if (!fill(n)) {
+            throw truncated();
+        }
+        byte[] result = new byte[n];
+        PythonUtils.arraycopy(input, inputPos, result, 0, n);
+        inputPos += n;
+        return result;
+    }
+
+    /**
+     * Reads a line without the trailing newline.
+     */
+    private byte[] readLine() {
+        for (int i = inputPos; i < inputLen; i++) {
+            if (input[i] == '\n') {
+                byte[] result = new byte[i - inputPos];
+                PythonUtils.arraycopy(input, inputPos, result, 0, result.length);
+                inputPos = i + 1;
+                return result;
+            }
+        }
+        if (readline == null) {
+            throw truncated();
+        }
+        // drain what is left in the buffer (of a frame) and read the rest from the file
+        byte[] prefix = readBytes(inputLen - inputPos);
+        byte[] line = toBytes(call(readline));
+        if (line.length == 0 || line[line.length - 1] != '\n') {
+            throw truncated();
+        }
+        byte[] result = new byte[prefix.length + line.length - 1];
+        PythonUtils.arraycopy(prefix, 0, result, 0, prefix.length);
+        PythonUtils.arraycopy(line, 0, result, prefix.length, line.length - 1);
+        return result;
+    }
+
+    private static String readLineAscii(byte[] line) {
+        return new String(line, StandardCharsets.ISO_8859_1);
+    }
+
+    private byte[] toBytes(Object data) {
+        if (data instanceof PBytes) {
+            try {
+                return PythonObjectLibrary.getUncached().getBufferBytes(data);
+            } catch (UnsupportedMessageException e) {
+                // fall through
+            }
+        }
+        throw raise(ValueError, ErrorMessages.READ_SHOULD_HAVE_RETURNED_BYTES_NOT_P, data);
+    }
+
+    // stack
+
+    private void push(Object obj) {
+        if (stackLen == stack.length) {
+            stack = PythonUtils.arrayCopyOf(stack, stack.length * 2);
+        }
+        stack[stackLen++] = obj;
+    }
+
+    private PException stackUnderflow() {
+        throw raise(UnpicklingError, numMarks > 0 ? ErrorMessages.UNEXPECTED_MARK_FOUND : ErrorMessages.UNPICKLING_STACK_UNDERFLOW);
+    }
+
+    private Object pop() {
+        if (stackLen <= fence) {
+            throw stackUnderflow();
+        }
+        Object result = stack[--stackLen];
+        stack[stackLen] = null;
+        return result;
+    }
+
+    private Object peek() {
+        if (stackLen <= fence) {
+            throw stackUnderflow();
+        }
+        return stack[stackLen - 1];
+    }
+
+    private void pushMark() {
+        if (numMarks == marks.length) {
+            marks = PythonUtils.arrayCopyOf(marks, marks.length * 2);
+        }
+        marks[numMarks++] = stackLen;
+        fence = stackLen;
+    }
+
+    /**
+     * Pops the topmost mark and returns the stack index it points to.
+     */
+    private int popMark() {
+        if (numMarks < 1) {
+            throw raise(UnpicklingError, ErrorMessages.COULD_NOT_FIND_MARK);
+        }
+        int mark = marks[--numMarks];
+        fence = numMarks > 0 ? marks[numMarks - 1] : 0;
+        return mark;
+    }
+
+    /**
+     * Removes the items from {@code start} to the top of the stack and returns them.
+     */
+    private Object[] popItems(int start) {
+        if (start < fence) {
+            throw stackUnderflow();
+        }
+        Object[] result = new Object[stackLen - start];
+        PythonUtils.arraycopy(stack, start, result, 0, result.length);
+        Arrays.fill(stack, start, stackLen, null);
+        stackLen = start;
+        return result;
+    }
+
+    private Object[] popMarkedItems() {
+        return popItems(popMark());
+    }
+
+    // memo
+
+    private void memoPut(long idx, Object value) {
+        if (idx >= Integer.MAX_VALUE - 8) {
+            throw raise(PythonBuiltinClassType.MemoryError, ErrorMessages.MEMO_INDEX_TOO_LARGE);
+        }
+        int i = (int) idx;
+        if (i >= memo.length) {
+            memo = PythonUtils.arrayCopyOf(memo, Math.max(i + 1, memo.length * 2));
+        }
+        if (memo[i] == null) {
+            memoLen++;
+        }
+        memo[i] = value;
+    }
+
+    private Object memoGet(long idx) {
+        Object value = idx >= 0 && idx < memo.length ? memo[(int) idx] : null;
+        if (value == null) {
+            throw raise(KeyError, "%d", idx);
+        }
+        return value;
+    }
+
+    // load
+
+    private Object loadImpl() {
+        while (true) {
+            int op = readOpcode();
+            switch (op) {
+                case NONE:
+                    push(PNone.NONE);
+                    break;
+                case BININT:
+                    push(readInt());
+                    break;
+                case BININT1:
+                    push(readByte());
+                    break;
+                case BININT2:
+                    push(readUnsignedShort());
+                    break;
+                case INT:
+                    loadInt();
+                    break;
+                case LONG:
+                    loadLong();
+                    break;
+                case LONG1:
+                    loadCountedLong(readByte());
+                    break;
+                case LONG4:
+                    int n = readInt();
+                    if (n < 0) {
+                        throw raise(UnpicklingError, ErrorMessages.LONG_PICKLE_HAS_NEGATIVE_BYTE_COUNT);
+                    }
+                    loadCountedLong(n);
+                    break;
+                case FLOAT:
+                    push(call(PythonLanguage.getCore().lookupType(PythonBuiltinClassType.PFloat), readLineAscii(readLine())));
+                    break;
+                case BINFLOAT:
+                    loadBinFloat();
+                    break;
+                case SHORT_BINBYTES:
+                    push(factory().createBytes(readBytes(readByte())));
+                    break;
+                case BINBYTES:
+                    push(factory().createBytes(readBytes(readSize(false, "BINBYTES"))));
+                    break;
+                case BINBYTES8:
+                    push(factory().createBytes(readBytes(readSize(true, "BINBYTES8"))));
+                    break;
+                case BYTEARRAY8:
+                    push(factory().createByteArray(readBytes(readSize(true, "BYTEARRAY8"))));
+                    break;
+                case NEXT_BUFFER:
+                    loadNextBuffer();
+                    break;
+                case READONLY_BUFFER:
+                    loadReadonlyBuffer();
+                    break;
+                case SHORT_BINSTRING:
+                    push(decodeString(readBytes(readByte())));
+                    break;
+                case BINSTRING:
+                    int size = readInt();
+                    if (size < 0) {
+                        throw raise(UnpicklingError, ErrorMessages.BINSTRING_PICKLE_HAS_NEGATIVE_BYTE_COUNT);
+                    }
+                    push(decodeString(readBytes(size)));
+                    break;
+                case STRING:
+                    loadString();
+                    break;
+                case UNICODE:
+                    push(PythonObjectLibrary.getUncached().lookupAndCallRegularMethod(factory().createBytes(readLine()), null, "decode", "raw-unicode-escape"));
+                    break;
+                case SHORT_BINUNICODE:
+                    push(decodeUtf8(readBytes(readByte())));
+                    break;
+                case BINUNICODE:
+                    push(decodeUtf8(readBytes(readSize(false, "BINUNICODE"))));
+                    break;
+                case BINUNICODE8:
+                    push(decodeUtf8(readBytes(readSize(true, "BINUNICODE8"))));
+                    break;
+                case TUPLE:
+                    push(factory().createTuple(popMarkedItems()));
+                    break;
+                case EMPTY_TUPLE:
+                    push(factory().createTuple(PythonUtils.EMPTY_OBJECT_ARRAY));
+                    break;
+                case TUPLE1:
+                case TUPLE2:
+                case TUPLE3:
+                    push(factory().createTuple(popItems(stackLen - (op - TUPLE1 + 1))));
+                    break;
+                case EMPTY_LIST:
+                    push(factory().createList());
+                    break;
+                case LIST:
+                    push(factory().createList(popMarkedItems()));
+                    break;
+                case EMPTY_DICT:
+                    push(factory().createDict());
+                    break;
+                case DICT:
+                    loadDict();
+                    break;
+                case EMPTY_SET:
+                    push(factory().createSet(EconomicMapStorage.create()));
+                    break;
+                case ADDITEMS:
+                    loadAddItems();
+                    break;
+                case FROZENSET:
+                    loadFrozenSet();
+                    break;
+                case OBJ:
+                    loadObj();
+                    break;
+                case INST:
+                    loadInst();
+                    break;
+                case NEWOBJ:
+                    loadNewObj();
+                    break;
+                case NEWOBJ_EX:
+                    loadNewObjEx();
+                    break;
+                case GLOBAL:
+                    loadGlobal();
+                    break;
+                case STACK_GLOBAL:
+                    loadStackGlobal();
+                    break;
+                case APPEND:
+                    doAppend(stackLen - 1);
+                    break;
+                case APPENDS:
+                    doAppend(popMark());
+                    break;
+                case BUILD:
+                    loadBuild();
+                    break;
+                case DUP:
+                    push(peek());
+                    break;
+                case BINGET:
+                    push(memoGet(readByte()));
+                    break;
+                case LONG_BINGET:
+                    push(memoGet(readInt() & 0xffffffffL));
+                    break;
+                case GET:
+                    push(memoGet(parseLong(readLine())));
+                    break;
+                case EXT1:
+                    loadExtension(readByte());
+                    break;
+                case EXT2:
+                    loadExtension(readUnsignedShort());
+                    break;
+                case EXT4:
+                    loadExtension(readInt());
+                    break;
+                case MARK:
+                    pushMark();
+                    break;
+                case BINPUT:
+                    memoPut(readByte(), peek());
+                    break;
+                case LONG_BINPUT:
+                    memoPut(readInt() & 0xffffffffL, peek());
+                    break;
+                case PUT:
+                    long idx = parseLong(readLine());
+                    if (idx < 0) {
+                        throw raise(ValueError, ErrorMessages.NEGATIVE_PUT_ARGUMENT);
+                    }
+                    memoPut(idx, peek());
+                    break;
+                case MEMOIZE:
+                    memoPut(memoLen, peek());
+                    break;
+                case POP:
+                    loadPop();
+                    break;
+                case POP_MARK:
+                    popMarkedItems();
+                    break;
+                case SETITEM:
+                    doSetItems(stackLen - 2);
+                    break;
+                case SETITEMS:
+                    doSetItems(popMark());
+                    break;
+                case PERSID:
+                    loadPersId();
+                    break;
+                case BINPERSID:
+                    push(callPersistentLoad(pop()));
+                    break;
+                case REDUCE:
+                    Object args = pop();
+                    Object callable = pop();
+                    push(callWithTuple(callable, args));
+                    break;
+                case PROTO:
+                    int version = readByte();
+                    if (version > HIGHEST_PROTOCOL) {
+                        throw raise(ValueError, ErrorMessages.UNSUPPORTED_PICKLE_PROTOCOL_D, version);
+                    }
+                    proto = version;
+                    break;
+                case FRAME:
+                    loadFrame();
+                    break;
+                case NEWTRUE:
+                    push(true);
+                    break;
+                case NEWFALSE:
+                    push(false);
+                    break;
+                case STOP:
+                    return pop();
+                default:
+                    throw invalidLoadKey(op);
+            }
+        }
+    }
+
+    private PException invalidLoadKey(int op) {
+        String key;
+        if (op >= 0x20 && op < 0x7f) {
+            key = String.valueOf((char) op);
+        } else {
+            key = String.format("\\x%02x", op);
+        }
+        throw raise(UnpicklingError, ErrorMessages.INVALID_LOAD_KEY_S, key);
+    }
+
+    private void loadFrame() {
+        int frameLen = readSize(true, "FRAME");
+        if (!fill(frameLen)) {
+            throw truncated();
+        }
+    }
+
+    private long parseLong(byte[] line) {
+        try {
+            return Long.parseLong(readLineAscii(line).trim());
+        } catch (NumberFormatException e) {
+            throw raise(ValueError, ErrorMessages.INVALID_LITERAL_FOR_INT_WITH_BASE, 10, repr(readLineAscii(line)));
+        }
+    }
+
+    private static Object toPythonInt(BigInteger value) {
+        if (value.bitLength() < 32) {
+            return value.intValue();
+        } else if (value.bitLength() < 64) {
+            return value.longValue();
+        }
+        return factory().createInt(value);
+    }
+
+    private Object parseInt(String s) {
+        try {
+            return toPythonInt(new BigInteger(s.trim()));
+        } catch (NumberFormatException e) {
+            throw raise(ValueError, ErrorMessages.INVALID_LITERAL_FOR_INT_WITH_BASE, 10, repr(s));
+        }
+    }
+
+    private void loadInt() {
+        String s = readLineAscii(readLine());
+        if (s.length() == 2 && s.charAt(0) == '0' && (s.charAt(1) == '0' || s.charAt(1) == '1')) {
+            push(s.charAt(1) == '1');
+        } else {
+            push(parseInt(s));
+        }
+    }
+
+    private void loadLong() {
+        String s = readLineAscii(readLine());
+        if (s.endsWith("L")) {
+            s = s.substring(0, s.length() - 1);
+        }
+        push(parseInt(s));
+    }
+
+    private void loadCountedLong(int n) {
+        if (n == 0) {
+            push(0);
+            return;
+        }
+        byte[] data = readBytes(n);
+        // little-endian two's complement
+        byte[] bigEndian = new byte[n];
+        for (int i = 0; i < n; i++) {
+            bigEndian[i] = data[n - 1 - i];
+        }
+        push(toPythonInt(new BigInteger(bigEndian)));
+    }
+
+    private void loadBinFloat() {
+        if (!fill(8)) {
+            throw truncated();
+        }
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits = bits << 8 | (input[inputPos + i] & 0xff);
+        }
+        inputPos += 8;
+        push(Double.longBitsToDouble(bits));
+    }
+
+    private static Object decodeUtf8(byte[] data) {
+        try {
+            return StandardCharsets.UTF_8.newDecoder().onMalformedInput(CodingErrorAction.REPORT).onUnmappableCharacter(CodingErrorAction.REPORT).decode(ByteBuffer.wrap(data)).toString();
+        } catch (CharacterCodingException e) {
+            // e.g. lone surrogates, which the pickler encodes with 'surrogatepass'
+            return PythonObjectLibrary.getUncached().lookupAndCallRegularMethod(factory().createBytes(data), null, "decode", "utf-8", "surrogatepass");
+        }
+    }
+
+    /**
+     * Decodes a Python 2 string with the encoding given to the constructor. The special encoding
+     * {@code "bytes"} keeps them as bytes objects.
+     */
+    private Object decodeString(byte[] data) {
+        if ("bytes".equals(encoding)) {
+            return factory().createBytes(data);
+        }
+        if ("ASCII".equalsIgnoreCase(encoding)) {
+            boolean ascii = true;
+            for (byte b : data) {
+                if (b < 0) {
+                    ascii = false;
+                    break;
+                }
+            }
+            if (ascii) {
+                return new String(data, StandardCharsets.ISO_8859_1);
+            }
+        }
+        return PythonObjectLibrary.getUncached().lookupAndCallRegularMethod(factory().createBytes(data), null, "decode", encoding, errors);
+    }
+
+    private void loadString() {
+        byte[] line = readLine();
+        int len = line.length;
+        // strip the quotes
+        if (len < 2 || line[0] != line[len - 1] || (line[0] != '\'' && line[0] != '"')) {
+            throw raise(UnpicklingError, ErrorMessages.PICKLED_STRING_NOT_QUOTED);
+        }
+        byte[] quoted = new byte[len - 2];
+        PythonUtils.arraycopy(line, 1, quoted, 0, len - 2);
+        Object decoded = call(getModuleAttribute("codecs", "escape_decode"), factory().createBytes(quoted));
+        Object bytes = GetObjectArrayNodeGen.getUncached().execute(decoded)[0];
+        try {
+            push(decodeString(PythonObjectLibrary.getUncached().getBufferBytes(bytes)));
+        } catch (UnsupportedMessageException e) {
+            throw raise(UnpicklingError, ErrorMessages.PICKLED_STRING_NOT_QUOTED);
+        }
+    }
+
+    private void loadNextBuffer() {
+        if (buffers == null) {
+            throw raise(UnpicklingError, ErrorMessages.PICKLE_REFERS_TO_OUT_OF_BAND_DATA);
+        }
+        try {
+            push(GetNextNode.getUncached().execute(null, buffers));
+        } catch (PException e) {
+            e.expectStopIteration(IsBuiltinClassProfile.getUncached());
+            throw raise(UnpicklingError, ErrorMessages.NOT_ENOUGH_OUT_OF_BAND_BUFFERS);
+        }
+    }
+
+    private void loadReadonlyBuffer() {
+        Object buffer = peek();
+        PythonObjectLibrary lib = PythonObjectLibrary.getUncached();
+        Object view = call(PythonLanguage.getCore().lookupType(PythonBuiltinClassType.PMemoryView), buffer);
+        if (!lib.isTrue(lib.lookupAttributeStrict(view, null, "readonly"))) {
+            stack[stackLen - 1] = lib.lookupAndCallRegularMethod(view, null, "toreadonly");
+        }
+    }
+
+    private void loadDict() {
+        int start = popMark();
+        int n = stackLen - start;
+        if (n % 2 != 0) {
+            throw raise(UnpicklingError, ErrorMessages.ODD_NUMBER_OF_ITEMS_FOR_S, "DICT");
+        }
+        PDict dict = factory().createDict();
+        HashingStorageLibrary lib = HashingStorageLibrary.getUncached();
+        HashingStorage storage = dict.getDictStorage();
+        for (int i = start; i < stackLen; i += 2) {
+            storage = lib.setItem(storage, stack[i], stack[i + 1]);
+        }
+        dict.setDictStorage(storage);
+        popItems(start);
+        push(dict);
+    }
+
+    private void doSetItems(int start) {
+        // the dict is below the items
+        if (start > stackLen || start <= fence) {
+            throw stackUnderflow();
+        }
+        if (start == stackLen) {
+            return;
+        }
+        if ((stackLen - start) % 2 != 0) {
+            throw raise(UnpicklingError, ErrorMessages.ODD_NUMBER_OF_ITEMS_FOR_S, "SETITEMS");
+        }
+        Object dict = stack[start - 1];
+        if (dict instanceof PDict && isBuiltinType(dict, PythonBuiltinClassType.PDict)) {
+            PHashingCollection collection = (PDict) dict;
+            HashingStorageLibrary lib = HashingStorageLibrary.getUncached();
+            HashingStorage storage = collection.getDictStorage();
+            for (int i = start; i < stackLen; i += 2) {
+                storage = lib.setItem(storage, stack[i], stack[i + 1]);
+            }
+            collection.setDictStorage(storage);
+        } else {
+            PythonObjectLibrary lib = PythonObjectLibrary.getUncached();
+            for (int i = start; i < stackLen; i += 2) {
+                lib.lookupAndCallSpecialMethod(dict, null, __SETITEM__, stack[i], stack[i + 1]);
+            }
+        }
+        popItems(start);
+    }
+
+    private void doAppend(int start) {
+        // the list is below the items
+        if (start > stackLen || start <= fence) {
+            throw stackUnderflow();
+        }
+        if (start == stackLen) {
+            return;
+        }
+        Object list = stack[start - 1];
+        if (list instanceof PList && isBuiltinType(list, PythonBuiltinClassType.PList)) {
+            PList plist = (PList) list;
+            if (plist.getSequenceStorage().length() == 0) {
+                // the common case of a list that was just created, build a specialized storage
+                // for all items at once
+                plist.setSequenceStorage(SequenceStorageFactory.createStorage(popItems(start)));
+                return;
+            }
+            ListNodes.AppendNode append = ListNodes.AppendNode.getUncached();
+            for (int i = start; i < stackLen; i++) {
+                append.execute(plist, stack[i]);
+            }
+        } else {
+            PythonObjectLibrary lib = PythonObjectLibrary.getUncached();
+            Object extend = lib.lookupAttribute(list, null, "extend");
+            if (extend != PNone.NO_VALUE) {
+                Object[] items = new Object[stackLen - start];
+                PythonUtils.arraycopy(stack, start, items, 0, items.length);
+                call(extend, factory().createList(items));
+            } else {
+                Object append = lib.lookupAttributeStrict(list, null, "append");
+                for (int i = start; i < stackLen; i++) {
+                    call(append, stack[i]);
+                }
+            }
+        }
+        popItems(start);
+    }
+
+    private void loadAddItems() {
+        int start = popMark();
+        if (start > stackLen || start <= fence) {
+            throw stackUnderflow();
+        }
+        if (start == stackLen) {
+            return;
+        }
+        Object set = stack[start - 1];
+        if (isBuiltinType(set, PythonBuiltinClassType.PSet)) {
+            PHashingCollection collection = (PHashingCollection) set;
+            HashingStorageLibrary lib = HashingStorageLibrary.getUncached();
+            HashingStorage storage = collection.getDictStorage();
+            for (int i = start; i < stackLen; i++) {
+                storage = lib.setItem(storage, stack[i], PNone.NONE);
+            }
+            collection.setDictStorage(storage);
+        } else {
+            Object add = PythonObjectLibrary.getUncached().lookupAttributeStrict(set, null, "add");
+            for (int i = start; i < stackLen; i++) {
+                call(add, stack[i]);
+            }
+        }
+        popItems(start);
+    }
+
+    private void loadFrozenSet() {
+        Object[] items = popMarkedItems();
+        HashingStorageLibrary lib = HashingStorageLibrary.getUncached();
+        HashingStorage storage = EconomicMapStorage.create(items.length);
+        for (Object item : items) {
+            storage = lib.setItem(storage, item, PNone.NONE);
+        }
+        push(factory().createFrozenSet(storage));
+    }
+
+    private void loadPop() {
+        if (numMarks > 0 && marks[numMarks - 1] >= stackLen) {
+            // POP right after MARK removes the mark
+            popMark();
+        } else {
+            pop();
+        }
+    }
+
+    private Object callWithTuple(Object callable, Object args) {
+        if (!(args instanceof PTuple)) {
+            throw raise(TypeError, ErrorMessages.ARGUMENT_LIST_MUST_BE_A_TUPLE);
+        }
+        return CallNode.getUncached().execute(callable, GetObjectArrayNodeGen.getUncached().execute(args), PKeyword.EMPTY_KEYWORDS);
+    }
+
+    /**
+     * Equivalent of CPython's {@code instantiate}, used by the INST and OBJ opcodes of protocol
+     * 0 and 1.
+     */
+    private static Object instantiate(Object cls, Object[] args) {
+        PythonObjectLibrary lib = PythonObjectLibrary.getUncached();
+        if (args.length == 0 && TypeNodes.IsTypeNode.getUncached().execute(cls) && lib.lookupAttribute(cls, null, "__getinitargs__") == PNone.NO_VALUE) {
+            return call(lib.lookupAttributeStrict(cls, null, "__new__"), cls);
+        }
+        return CallNode.getUncached().execute(cls, args, PKeyword.EMPTY_KEYWORDS);
+    }
+
+    private void loadObj() {
+        int start = popMark();
+        if (stackLen - start < 1) {
+            throw stackUnderflow();
+        }
+        Object cls = stack[start];
+        Object[] args = popItems(start + 1);
+        popItems(start);
+        push(instantiate(cls, args));
+    }
+
+    private void loadInst() {
+        String module = decodeUtf8Line(readLine());
+        String name = decodeUtf8Line(readLine());
+        Object cls = callFindClass(module, name);
+        push(instantiate(cls, popMarkedItems()));
+    }
+
+    private static String decodeUtf8Line(byte[] line) {
+        return asStringOrNull(decodeUtf8(line));
+    }
+
+    private void loadNewObj() {
+        Object args = pop();
+        Object cls = pop();
+        if (!TypeNodes.IsTypeNode.getUncached().execute(cls)) {
+            throw raise(UnpicklingError, ErrorMessages.S_CLASS_ARGUMENT_ISNT_A_TYPE_OBJECT, "NEWOBJ");
+        }
+        if (!(args instanceof PTuple)) {
+            throw raise(UnpicklingError, ErrorMessages.S_ARGS_ARGUMENT_MUST_BE_A_TUPLE, "NEWOBJ");
+        }
+        Object[] argItems = GetObjectArrayNodeGen.getUncached().execute(args);
+        Object[] newArgs = new Object[argItems.length + 1];
+        newArgs[0] = cls;
+        PythonUtils.arraycopy(argItems, 0, newArgs, 1, argItems.length);
+        Object newMethod = PythonObjectLibrary.getUncached().lookupAttributeStrict(cls, null, "__new__");
+        push(CallNode.getUncached().execute(newMethod, newArgs, PKeyword.EMPTY_KEYWORDS));
+    }
+
+    private void loadNewObjEx() {
+        Object kwargs = pop();
+        Object args = pop();
+        Object cls = pop();
+        if (!TypeNodes.IsTypeNode.getUncached().execute(cls)) {
+            throw raise(UnpicklingError, ErrorMessages.S_CLASS_ARGUMENT_ISNT_A_TYPE_OBJECT, "NEWOBJ_EX");
+        }
+        if (!(args instanceof PTuple)) {
+            throw raise(UnpicklingError, ErrorMessages.S_ARGS_ARGUMENT_MUST_BE_A_TUPLE, "NEWOBJ_EX");
+        }
+        if (!(kwargs instanceof PDict)) {
+            throw raise(UnpicklingError, ErrorMessages.NEWOBJ_EX_KWARGS_MUST_BE_A_DICT);
+        }
+        Object[] argItems = GetObjectArrayNodeGen.getUncached().execute(args);
+        Object[] newArgs = new Object[argItems.length + 1];
+        newArgs[0] = cls;
+        PythonUtils.arraycopy(argItems, 0, newArgs, 1, argItems.length);
+        HashingStorageLibrary lib = HashingStorageLibrary.getUncached();
+        HashingStorage storage = ((PDict) kwargs).getDictStorage();
+        PKeyword[] keywords = new PKeyword[lib.length(storage)];
+        int i = 0;
+        for (DictEntry entry : lib.entries(storage)) {
+            String key = asStringOrNull(entry.key);
+            if (key == null) {
+                throw raise(TypeError, ErrorMessages.KEYWORDS_MUST_BE_STRINGS, "__new__");
+            }
+            keywords[i++] = new PKeyword(key, entry.value);
+        }
+        Object newMethod = PythonObjectLibrary.getUncached().lookupAttributeStrict(cls, null, "__new__");
+        push(CallNode.getUncached().execute(newMethod, newArgs, keywords));
+    }
+
+    private void loadGlobal() {
+        String module = decodeUtf8Line(readLine());
+        String name = decodeUtf8Line(readLine());
+        push(callFindClass(module, name));
+    }
+
+    private void loadStackGlobal() {
+        Object name = pop();
+        Object module = pop();
+        if (asStringOrNull(name) == null || asStringOrNull(module) == null) {
+            throw raise(UnpicklingError, ErrorMessages.STACK_GLOBAL_REQUIRES_STR);
+        }
+        push(callFindClass(module, name));
+    }
+
+    /**
+     * Calls {@code self.find_class}, which may be overridden in a subclass.
+     */
+    private Object callFindClass(Object module, Object name) {
+        Object findClass = PythonObjectLibrary.getUncached().lookupAttributeStrict(this, null, "find_class");
+        return call(findClass, module, name);
+    }
+
+    /**
+     * The default implementation of {@code find_class}.
+     */
+    @TruffleBoundary
+    public Object findClass(Node node, String moduleNameArg, String globalNameArg) {
+        String moduleName = moduleNameArg;
+        String globalName = globalNameArg;
+        if (proto < 3 && fixImports) {
+            Object key = factory().createTuple(new Object[]{moduleName, globalName});
+            Object item = getItemOrNull(getModuleAttribute("_compat_pickle", "NAME_MAPPING"), key);
+            if (item != null) {
+                Object[] pair = item instanceof PTuple ? GetObjectArrayNodeGen.getUncached().execute(item) : null;
+                if (pair == null || pair.length != 2 || asStringOrNull(pair[0]) == null || asStringOrNull(pair[1]) == null) {
+                    throw PRaiseNode.raiseUncached(node, PythonBuiltinClassType.RuntimeError, ErrorMessages.COMPAT_PICKLE_S_VALUES_SHOULD_BE_2_TUPLES_NOT_P, "NAME_MAPPING", item);
+                }
+                moduleName = asStringOrNull(pair[0]);
+                globalName = asStringOrNull(pair[1]);
+            } else {
+                item = getItemOrNull(getModuleAttribute("_compat_pickle", "IMPORT_MAPPING"), moduleName);
+                if (item != null) {
+                    moduleName = asStringOrNull(item);
+                    if (moduleName == null) {
+                        throw PRaiseNode.raiseUncached(node, PythonBuiltinClassType.RuntimeError, ErrorMessages.COMPAT_PICKLE_S_VALUES_SHOULD_BE_STRINGS_NOT_P, "IMPORT_MAPPING", item);
+                    }
+                }
+            }
+        }
+        Object module = importModule(moduleName);
+        Object result;
+        if (proto >= 4) {
+            Object[] resolved = getDeepAttribute(module, getDottedPath(node, module, globalName));
+            result = resolved != null ? resolved[0] : null;
+        } else {
+            result = PythonObjectLibrary.getUncached().lookupAttribute(module, null, globalName);
+            result = result != PNone.NO_VALUE ? result : null;
+        }
+        if (result == null) {
+            throw PRaiseNode.raiseUncached(node, AttributeError, ErrorMessages.CANT_GET_ATTRIBUTE_S_ON_S, repr(globalName), repr(module));
+        }
+        return result;
+    }
+
+    private void loadExtension(int code) {
+        if (code <= 0) {
+            throw raise(ValueError, ErrorMessages.EXTENSION_CODE_IS_NOT_POSITIVE);
+        }
+        Object copyreg = importModule("copyreg");
+        PythonObjectLibrary lib = PythonObjectLibrary.getUncached();
+        Object cache = lib.lookupAttributeStrict(copyreg, null, "_extension_cache");
+        Object obj = getItemOrNull(cache, code);
+        if (obj != null) {
+            push(obj);
+            return;
+        }
+        Object key = getItemOrNull(lib.lookupAttributeStrict(copyreg, null, "_inverted_registry"), code);
+        if (key == null) {
+            throw raise(ValueError, ErrorMessages.UNREGISTERED_EXTENSION_CODE_D, code);
+        }
+        Object[] pair = key instanceof PTuple ? GetObjectArrayNodeGen.getUncached().execute(key) : null;
+        if (pair == null || pair.length != 2 || asStringOrNull(pair[0]) == null || asStringOrNull(pair[1]) == null) {
+            throw raise(ValueError, ErrorMessages.INVERTED_REGISTRY_D_ISNT_A_2_TUPLE_OF_STRINGS, code);
+        }
+        obj = callFindClass(pair[0], pair[1]);
+        lib.lookupAndCallSpecialMethod(cache, null, __SETITEM__, code, obj);
+        push(obj);
+    }
+
+    private Object callPersistentLoad(Object pid) {
+        Object persistentLoad = PythonObjectLibrary.getUncached().lookupAttribute(this, null, "persistent_load");
+        if (persistentLoad == PNone.NO_VALUE || persistentLoad == PNone.NONE) {
+            throw raise(UnpicklingError, ErrorMessages.NO_PERSISTENT_LOAD_FUNCTION);
+        }
+        return call(persistentLoad, pid);
+    }
+
+    private void loadPersId() {
+        byte[] line = readLine();
+        for (byte b : line) {
+            if (b < 0) {
+                throw raise(UnpicklingError, ErrorMessages.PERSISTENT_IDS_IN_PROTOCOL_0_MUST_BE_ASCII);
+            }
+        }
+        push(callPersistentLoad(readLineAscii(line)));
+    }
+
+    private void loadBuild() {
+        Object state = pop();
+        Object inst = peek();
+        PythonObjectLibrary lib = PythonObjectLibrary.getUncached();
+        Object setstate = lib.lookupAttribute(inst, null, "__setstate__");
+        if (setstate != PNone.NO_VALUE) {
+            call(setstate, state);
+            return;
+        }
+        // no __setstate__, update the instance dict and set the slots
+        Object slotstate = null;
+        if (state instanceof PTuple) {
+            Object[] items = GetObjectArrayNodeGen.getUncached().execute(state);
+            if (items.length == 2) {
+                state = items[0];
+                slotstate = items[1];
+            }
+        }
+        if (state != PNone.NONE) {
+            if (!(state instanceof PDict)) {
+                throw raise(UnpicklingError, ErrorMessages.STATE_IS_NOT_A_DICTIONARY);
+            }
+            Object dict = lib.lookupAttributeStrict(inst, null, "__dict__");
+            HashingStorageLibrary hlib = HashingStorageLibrary.getUncached();
+            for (DictEntry entry : hlib.entries(((PDict) state).getDictStorage())) {
+                lib.lookupAndCallSpecialMethod(dict, null, __SETITEM__, entry.key, entry.value);
+            }
+        }
+        if (slotstate != null && slotstate != PNone.NONE) {
+            if (!(slotstate instanceof PDict)) {
+                throw raise(UnpicklingError, ErrorMessages.SLOT_STATE_IS_NOT_A_DICTIONARY);
+            }
+            Object setattr = PythonLanguage.getCore().getBuiltins().getAttribute("setattr");
+            for (DictEntry entry : HashingStorageLibrary.getUncached().entries(((PDict) slotstate).getDictStorage())) {
+                call(setattr, inst, entry.key, entry.value);
+            }
+        }
+    }
+}
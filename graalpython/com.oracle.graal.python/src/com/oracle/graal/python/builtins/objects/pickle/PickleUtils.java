@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.pickle;
+
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.AttributeError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.KeyError;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GETITEM__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REPR__;
+
+import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageLibrary;
+import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.PRaiseNode;
+import com.oracle.graal.python.nodes.object.GetClassNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.nodes.statement.AbstractImportNode;
+import com.oracle.graal.python.nodes.util.CannotCastException;
+import com.oracle.graal.python.nodes.util.CastToJavaStringNode;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.nodes.Node;
+
+/**
+ * Opcodes, limits and helpers shared by {@link PPickler} and {@link PUnpickler}. The opcodes are
+ * the ones documented in {@code pickletools}, the limits are the same as in CPython's
+ * {@code _pickle.c}.
+ */
+public final class PickleUtils {
+    public static final int DEFAULT_PROTOCOL = 4;
+    public static final int HIGHEST_PROTOCOL = 5;
+
+    /** Number of items written between {@code MARK} and {@code APPENDS}/{@code SETITEMS}. */
+    static final int BATCHSIZE = 1000;
+    /** Nesting depth from which the pickler starts tracking containers in fast mode. */
+    static final int FAST_NESTING_LIMIT = 50;
+    /** Maximum nesting of objects, corresponds to CPython's default recursion limit. */
+    static final int MAX_DEPTH = 1000;
+
+    static final int FRAME_SIZE_MIN = 4;
+    static final int FRAME_SIZE_TARGET = 64 * 1024;
+    static final int FRAME_HEADER_SIZE = 9;
+
+    // protocol 0 and 1
+    static final int MARK = '(';
+    static final int STOP = '.';
+    static final int POP = '0';
+    static final int POP_MARK = '1';
+    static final int DUP = '2';
+    static final int FLOAT = 'F';
+    static final int INT = 'I';
+    static final int BININT = 'J';
+    static final int BININT1 = 'K';
+    static final int LONG = 'L';
+    static final int BININT2 = 'M';
+    static final int NONE = 'N';
+    static final int PERSID = 'P';
+    static final int BINPERSID = 'Q';
+    static final int REDUCE = 'R';
+    static final int STRING = 'S';
+    static final int BINSTRING = 'T';
+    static final int SHORT_BINSTRING = 'U';
+    static final int UNICODE = 'V';
+    static final int BINUNICODE = 'X';
+    static final int APPEND = 'a';
+    static final int BUILD = 'b';
+    static final int GLOBAL = 'c';
+    static final int DICT = 'd';
+    static final int EMPTY_DICT = '}';
+    static final int APPENDS = 'e';
+    static final int GET = 'g';
+    static final int BINGET = 'h';
+    static final int INST = 'i';
+    static final int LONG_BINGET = 'j';
+    static final int LIST = 'l';
+    static final int EMPTY_LIST = ']';
+    static final int OBJ = 'o';
+    static final int PUT = 'p';
+    static final int BINPUT = 'q';
+    static final int LONG_BINPUT = 'r';
+    static final int SETITEM = 's';
+    static final int TUPLE = 't';
+    static final int EMPTY_TUPLE = ')';
+    static final int SETITEMS = 'u';
+    static final int BINFLOAT = 'G';
+
+    // protocol 2
+    static final int PROTO = 0x80;
+    static final int NEWOBJ = 0x81;
+    static final int EXT1 = 0x82;
+    static final int EXT2 = 0x83;
+    static final int EXT4 = 0x84;
+    static final int TUPLE1 = 0x85;
+    static final int TUPLE2 = 0x86;
+    static final int TUPLE3 = 0x87;
+    static final int NEWTRUE = 0x88;
+    static final int NEWFALSE = 0x89;
+    static final int LONG1 = 0x8a;
+    static final int LONG4 = 0x8b;
+
+    // protocol 3
+    static final int BINBYTES = 'B';
+    static final int SHORT_BINBYTES = 'C';
+
+    // protocol 4
+    static final int SHORT_BINUNICODE = 0x8c;
+    static final int BINUNICODE8 = 0x8d;
+    static final int BINBYTES8 = 0x8e;
+    static final int EMPTY_SET = 0x8f;
+    static final int ADDITEMS = 0x90;
+    static final int FROZENSET = 0x91;
+    static final int NEWOBJ_EX = 0x92;
+    static final int STACK_GLOBAL = 0x93;
+    static final int MEMOIZE = 0x94;
+    static final int FRAME = 0x95;
+
+    // protocol 5
+    static final int BYTEARRAY8 = 0x96;
+    static final int NEXT_BUFFER = 0x97;
+    static final int READONLY_BUFFER = 0x98;
+
+    private PickleUtils() {
+        // no instances
+    }
+
+    static boolean isBuiltinType(Object obj, PythonBuiltinClassType type) {
+        return IsBuiltinClassProfile.profileClassSlowPath(GetClassNode.getUncached().execute(obj), type);
+    }
+
+    /**
+     * Returns the Java string for {@code obj} if it is a Python {@code str}, {@code null}
+     * otherwise.
+     */
+    static String asStringOrNull(Object obj) {
+        try {
+            return CastToJavaStringNode.getUncached().execute(obj);
+        } catch (CannotCastException e) {
+            return null;
+        }
+    }
+
+    static String repr(Object obj) {
+        Object result = PythonObjectLibrary.getUncached().lookupAndCallSpecialMethod(obj, null, __REPR__);
+        String s = asStringOrNull(result);
+        return s != null ? s : String.valueOf(result);
+    }
+
+    /**
+     * Returns {@code mapping[key]}, or {@code null} if the key is not present. Plain dicts are
+     * looked up without going through {@code __getitem__}.
+     */
+    static Object getItemOrNull(Object mapping, Object key) {
+        if (mapping instanceof PDict && isBuiltinType(mapping, PythonBuiltinClassType.PDict)) {
+            PDict dict = (PDict) mapping;
+            return HashingStorageLibrary.getUncached().getItem(dict.getDictStorage(), key);
+        }
+        try {
+            return PythonObjectLibrary.getUncached().lookupAndCallSpecialMethod(mapping, null, __GETITEM__, key);
+        } catch (PException e) {
+            e.expect(KeyError, IsBuiltinClassProfile.getUncached());
+            return null;
+        }
+    }
+
+    /**
+     * Equivalent of {@code PyImport_Import}: imports the module and returns the entry from
+     * {@code sys.modules}, so that dotted names give the submodule and not the top-level package.
+     */
+    @TruffleBoundary
+    static Object importModule(String name) {
+        Object top = AbstractImportNode.importModule(name);
+        PDict sysModules = PythonLanguage.getContext().getSysModules();
+        Object module = HashingStorageLibrary.getUncached().getItem(sysModules.getDictStorage(), name);
+        return module != null ? module : top;
+    }
+
+    static Object getModuleAttribute(String module, String name) {
+        return PythonObjectLibrary.getUncached().lookupAttributeStrict(importModule(module), null, name);
+    }
+
+    /**
+     * Splits a qualified name into its components, rejecting names of local objects. {@code obj}
+     * is the object the path is going to be resolved on, or {@code null} when pickling.
+     */
+    @TruffleBoundary
+    static String[] getDottedPath(Node raisingNode, Object obj, String name) {
+        String[] path = name.split("\\.", -1);
+        for (String subpath : path) {
+            if ("<locals>".equals(subpath)) {
+                if (obj == null) {
+                    throw PRaiseNode.raiseUncached(raisingNode, AttributeError, ErrorMessages.CANT_PICKLE_LOCAL_OBJECT_S, repr(name));
+                }
+                throw PRaiseNode.raiseUncached(raisingNode, AttributeError, ErrorMessages.CANT_GET_LOCAL_ATTRIBUTE_S_ON_S, repr(name), repr(obj));
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Resolves {@code path} starting from {@code obj}. Returns the attribute and its parent, or
+     * {@code null} if any of the attributes does not exist.
+     */
+    static Object[] getDeepAttribute(Object obj, String[] path) {
+        PythonObjectLibrary lib = PythonObjectLibrary.getUncached();
+        Object parent = null;
+        Object current = obj;
+        for (String name : path) {
+            parent = current;
+            current = lib.lookupAttribute(parent, null, name);
+            if (current == PNone.NO_VALUE) {
+                return null;
+            }
+        }
+        return new Object[]{current, parent};
+    }
+}
@@ -0,0 +1,531 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.select;
+
+import java.io.IOException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Set;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.socket.PSocket;
+import com.oracle.graal.python.util.IntArrayBuilder;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.object.Shape;
+
+/**
+ * The state of {@code select.poll} and {@code select.epoll} objects. Registered file descriptors
+ * that are backed by a selectable NIO channel are kept registered with one {@link Selector} for
+ * the lifetime of the object, so that polling only needs to look at the ready keys instead of
+ * rebuilding the whole interest set on every call. File descriptors without a selectable channel
+ * are tracked separately and polled by the caller.
+ *
+ * The registrations may be changed by other threads while one thread is polling with the GIL
+ * released, so all accesses to them are guarded by the monitor of this object. The selector
+ * itself is waited on outside of the monitor, every change of the registrations wakes it up.
+ *
+ * Closing a channel cancels its key, so the selector never reports it. The POSIX emulation layer
+ * therefore tells the poll object about closed channels (see {@link #channelClosed}), which are
+ * then reported with {@link #POLLHUP} until they are unregistered.
+ */
+public final class PPoll extends PythonBuiltinObject {
+    public static final int POLLIN = 0x001;
+    public static final int POLLPRI = 0x002;
+    public static final int POLLOUT = 0x004;
+    public static final int POLLERR = 0x008;
+    public static final int POLLHUP = 0x010;
+    public static final int POLLNVAL = 0x020;
+    public static final int POLLRDNORM = 0x040;
+    public static final int POLLRDBAND = 0x080;
+    public static final int POLLWRNORM = 0x100;
+    public static final int POLLWRBAND = 0x200;
+    public static final int POLLMSG = 0x400;
+    public static final int POLLRDHUP = 0x2000;
+
+    public static final long EPOLLEXCLUSIVE = 1L << 28;
+    public static final long EPOLLONESHOT = 1L << 30;
+    public static final long EPOLLET = 1L << 31;
+    public static final int EPOLL_CLOEXEC = 0x80000;
+
+    public static final int READ_EVENTS = POLLIN | POLLRDNORM;
+    public static final int WRITE_EVENTS = POLLOUT | POLLWRNORM;
+
+    /**
+     * A registered file descriptor. {@link #key} is {@code null} if the descriptor has no
+     * selectable channel, {@link #hasChannel} tells whether it has a non-selectable emulated
+     * channel (e.g. a regular file, which is always ready) or is not known to the emulation layer
+     * at all (i.e. it is a native file descriptor).
+     */
+    public static final class Registration {
+        private final int fd;
+        private volatile long events;
+        private final SelectionKey key;
+        private final boolean hasChannel;
+        /** The socket owning the channel, if any, its blocking mode is restored on removal. */
+        private final PSocket socket;
+        /** The blocking mode of a channel that is not a socket before it was registered. */
+        private final boolean wasBlocking;
+        /** Set once a one-shot registration has been reported, until it is modified. */
+        private boolean disabled;
+
+        Registration(int fd, long events, SelectionKey key, boolean hasChannel, PSocket socket, boolean wasBlocking) {
+            this.fd = fd;
+            this.events = events;
+            this.key = key;
+            this.hasChannel = hasChannel;
+            this.socket = socket;
+            this.wasBlocking = wasBlocking;
+        }
+
+        public int getFd() {
+            return fd;
+        }
+
+        public long getEvents() {
+            return events;
+        }
+
+        public boolean hasChannel() {
+            return hasChannel;
+        }
+
+        private boolean isBackedBy(Object channel) {
+            return key != null && (key.channel() == channel || socket == channel);
+        }
+    }
+
+    private Selector selector;
+    private final HashMap<Integer, Registration> registrations = new HashMap<>();
+    private final HashMap<Integer, Registration> unselectable = new HashMap<>();
+    /** Removed registrations whose channel still has to be switched back to blocking mode. */
+    private final ArrayList<Registration> pendingRestore = new ArrayList<>();
+    /** Registrations whose channel was closed while registered. */
+    private final ArrayList<Registration> closedChannels = new ArrayList<>();
+    /** Incremented on every change of the registrations, see {@link #select}. */
+    private long generation;
+    private boolean polling;
+    private boolean closed;
+
+    public PPoll(Object cls, Shape instanceShape) {
+        super(cls, instanceShape);
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Marks the object as being polled, returns {@code false} if it already is.
+     */
+    public synchronized boolean enterPoll() {
+        if (polling) {
+            return false;
+        }
+        polling = true;
+        return true;
+    }
+
+    @TruffleBoundary
+    public synchronized void leavePoll() {
+        polling = false;
+        restoreBlocking();
+    }
+
+    @TruffleBoundary
+    public synchronized boolean isRegistered(int fd) {
+        return registrations.containsKey(fd);
+    }
+
+    /**
+     * Registers or re-registers {@code fd}. {@code channel} is the selectable channel backing the
+     * descriptor, or {@code null} if there is none, in which case {@code hasChannel} tells whether
+     * the descriptor is backed by a non-selectable channel of the emulation layer. {@code socket}
+     * is the socket owning {@code channel}, if any.
+     */
+    @TruffleBoundary
+    public synchronized void register(int fd, long events, SelectableChannel channel, PSocket socket, boolean hasChannel) throws IOException {
+        remove(fd);
+        Registration registration;
+        if (channel != null) {
+            if (selector == null) {
+                selector = Selector.open();
+            }
+            boolean wasBlocking = channel.isBlocking();
+            for (int i = 0; i < pendingRestore.size(); i++) {
+                Registration previous = pendingRestore.get(i);
+                if (previous.key.channel() == channel) {
+                    // the channel is registered again before its blocking mode was restored
+                    wasBlocking = previous.wasBlocking;
+                    pendingRestore.remove(i);
+                    break;
+                }
+            }
+            // channels stay registered with the selector, so they must be non-blocking from now
+            // on; blocking sockets emulate blocking operations on top of that
+            channel.configureBlocking(false);
+            SelectionKey oldKey = channel.keyFor(selector);
+            if (oldKey != null && !oldKey.isValid()) {
+                // the channel was unregistered before, flush the cancelled key
+                flushCancelledKeys();
+            }
+            SelectionKey key = channel.register(selector, interestOps(events, channel));
+            registration = new Registration(fd, events, key, true, socket, wasBlocking);
+            key.attach(registration);
+        } else {
+            registration = new Registration(fd, events, null, hasChannel, null, false);
+            unselectable.put(fd, registration);
+        }
+        registrations.put(fd, registration);
+        changed();
+    }
+
+    /**
+     * Changes the event mask of {@code fd}, returns {@code false} if it is not registered.
+     */
+    @TruffleBoundary
+    public synchronized boolean modify(int fd, long events) {
+        Registration registration = registrations.get(fd);
+        if (registration == null) {
+            return false;
+        }
+        registration.events = events;
+        registration.disabled = false;
+        if (registration.key != null && registration.key.isValid()) {
+            registration.key.interestOps(interestOps(events, registration.key.channel()));
+        }
+        changed();
+        return true;
+    }
+
+    /**
+     * Removes {@code fd}, returns {@code false} if it was not registered. Once the channel of the
+     * descriptor is not registered anymore, its original blocking mode is restored.
+     */
+    @TruffleBoundary
+    public synchronized boolean unregister(int fd) {
+        if (!remove(fd)) {
+            return false;
+        }
+        changed();
+        return true;
+    }
+
+    private boolean remove(int fd) {
+        Registration registration = registrations.remove(fd);
+        if (registration == null) {
+            return false;
+        }
+        if (registration.key != null) {
+            registration.key.cancel();
+            closedChannels.remove(registration);
+            pendingRestore.add(registration);
+        } else {
+            unselectable.remove(fd);
+        }
+        return true;
+    }
+
+    public synchronized boolean hasUnselectable() {
+        return !unselectable.isEmpty();
+    }
+
+    public synchronized boolean hasSelectable() {
+        return registrations.size() > unselectable.size();
+    }
+
+    /**
+     * Called by the POSIX emulation layer after {@code channel} was closed. Registrations backed by
+     * it are reported with {@link #POLLHUP} from now on and a concurrent {@link #select} is woken
+     * up.
+     */
+    @TruffleBoundary
+    public synchronized void channelClosed(Object channel) {
+        boolean found = false;
+        for (Registration registration : registrations.values()) {
+            if (registration.isBackedBy(channel) && !closedChannels.contains(registration)) {
+                closedChannels.add(registration);
+                found = true;
+            }
+        }
+        if (found) {
+            changed();
+        }
+    }
+
+    @TruffleBoundary
+    public synchronized Registration[] getUnselectable() {
+        return unselectable.values().toArray(new Registration[0]);
+    }
+
+    /**
+     * Waits on the selector and appends the ready descriptors and their events to {@code result}
+     * as pairs. A negative timeout waits indefinitely, a zero timeout does not block. At most
+     * {@code maxevents} pairs are appended. One-shot registrations are disabled once they have
+     * been reported. Descriptors whose channel was closed or reached EOF are reported with
+     * {@link #POLLHUP}.
+     *
+     * If nothing is registered with the selector, this waits until the registrations change.
+     * Returns {@code true} if nothing was found because the registrations changed while waiting,
+     * in which case the caller should poll again with the remaining timeout.
+     */
+    @TruffleBoundary
+    public boolean select(long timeoutMs, int maxevents, IntArrayBuilder result) throws IOException {
+        long startGeneration;
+        Selector sel;
+        boolean hungUp;
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+            startGeneration = generation;
+            sel = selector;
+            hungUp = !closedChannels.isEmpty();
+        }
+        if (sel == null) {
+            if (timeoutMs != 0) {
+                waitForChange(startGeneration, timeoutMs);
+            }
+            synchronized (this) {
+                return generation != startGeneration;
+            }
+        }
+        try {
+            if (timeoutMs == 0 || hungUp) {
+                sel.selectNow();
+            } else {
+                sel.select(timeoutMs < 0 ? 0 : timeoutMs);
+            }
+        } catch (ClosedSelectorException e) {
+            // closed concurrently
+            return false;
+        }
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+            int count = collect(sel, maxevents, result);
+            return count == 0 && generation != startGeneration;
+        }
+    }
+
+    private int collect(Selector sel, int maxevents, IntArrayBuilder result) {
+        int count = 0;
+        for (int i = 0; i < closedChannels.size() && count < maxevents; i++) {
+            // the key was cancelled when the channel was closed, it will not be selected
+            Registration registration = closedChannels.get(i);
+            if (!registration.disabled) {
+                count += report(registration, POLLHUP, result);
+            }
+        }
+        Iterator<SelectionKey> it = sel.selectedKeys().iterator();
+        while (it.hasNext() && count < maxevents) {
+            SelectionKey key = it.next();
+            it.remove();
+            if (!key.isValid()) {
+                continue;
+            }
+            Registration registration = (Registration) key.attachment();
+            int events = readyEvents(key.readyOps(), registration.events);
+            if (registration.socket != null && registration.socket.isEof()) {
+                events |= POLLHUP;
+            }
+            count += report(registration, events, result);
+        }
+        return count;
+    }
+
+    private static int report(Registration registration, int events, IntArrayBuilder result) {
+        if (events == 0) {
+            return 0;
+        }
+        result.add(registration.fd);
+        result.add(events);
+        if ((registration.events & EPOLLONESHOT) != 0) {
+            registration.disabled = true;
+            if (registration.key.isValid()) {
+                registration.key.interestOps(0);
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * Waits until the registrations change, the timeout expires or the thread is interrupted. A
+     * negative timeout waits indefinitely.
+     */
+    private synchronized void waitForChange(long startGeneration, long timeoutMs) {
+        long deadline = timeoutMs < 0 ? 0 : System.currentTimeMillis() + timeoutMs;
+        try {
+            while (generation == startGeneration) {
+                if (timeoutMs < 0) {
+                    wait();
+                } else {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        return;
+                    }
+                    wait(remaining);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Wakes up a thread blocked in {@link #select}.
+     */
+    @TruffleBoundary
+    public synchronized void wakeup() {
+        if (selector != null) {
+            selector.wakeup();
+        }
+        notifyAll();
+    }
+
+    @TruffleBoundary
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        closedChannels.clear();
+        for (Registration registration : registrations.values()) {
+            if (registration.key != null) {
+                pendingRestore.add(registration);
+            }
+        }
+        registrations.clear();
+        unselectable.clear();
+        Selector sel = selector;
+        selector = null;
+        try {
+            if (sel != null) {
+                // deregisters all channels
+                sel.close();
+            }
+        } finally {
+            restoreBlocking();
+            changed();
+        }
+    }
+
+    private void changed() {
+        generation++;
+        notifyAll();
+        if (polling && selector != null) {
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * Switches the channels of removed registrations back to their original blocking mode. This
+     * can only be done once they are not registered with the selector anymore, which requires a
+     * selection operation, so it is deferred while another thread is polling.
+     */
+    private void restoreBlocking() {
+        if (pendingRestore.isEmpty() || polling) {
+            return;
+        }
+        try {
+            if (selector != null) {
+                flushCancelledKeys();
+            }
+        } catch (IOException e) {
+            // the channels stay non-blocking
+            pendingRestore.clear();
+            return;
+        }
+        for (Registration registration : pendingRestore) {
+            SelectableChannel channel = registration.key.channel();
+            if (!channel.isOpen() || channel.isRegistered()) {
+                continue;
+            }
+            boolean blocking = registration.socket != null ? registration.socket.isBlocking() : registration.wasBlocking;
+            try {
+                channel.configureBlocking(blocking);
+            } catch (IOException e) {
+                // best effort, the channel may have been closed concurrently
+            }
+        }
+        pendingRestore.clear();
+    }
+
+    private void flushCancelledKeys() throws IOException {
+        // a concurrent poll holds the selector until it is woken up
+        selector.wakeup();
+        selector.selectNow();
+        // the selection may have added ready keys that would be reported as stale events later,
+        // readiness is level-triggered, so ready keys are selected again by the next poll
+        Set<SelectionKey> keys = selector.selectedKeys();
+        selector.wakeup();
+        synchronized (keys) {
+            keys.clear();
+        }
+    }
+
+    private static int interestOps(long events, SelectableChannel channel) {
+        int ops = 0;
+        if ((events & (READ_EVENTS | POLLPRI)) != 0) {
+            ops |= SelectionKey.OP_READ | SelectionKey.OP_ACCEPT;
+        }
+        if ((events & WRITE_EVENTS) != 0) {
+            ops |= SelectionKey.OP_WRITE | SelectionKey.OP_CONNECT;
+        }
+        return ops & channel.validOps();
+    }
+
+    private static int readyEvents(int readyOps, long events) {
+        int result = 0;
+        if ((readyOps & (SelectionKey.OP_READ | SelectionKey.OP_ACCEPT)) != 0) {
+            result |= (int) (events & READ_EVENTS);
+        }
+        if ((readyOps & (SelectionKey.OP_WRITE | SelectionKey.OP_CONNECT)) != 0) {
+            result |= (int) (events & WRITE_EVENTS);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,347 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.select;
+
+import static com.oracle.graal.python.builtins.modules.SelectModuleBuiltins.MS_TO_NS;
+import static com.oracle.graal.python.builtins.modules.SelectModuleBuiltins.pyTimeDivide;
+
+import java.io.IOException;
+import java.nio.channels.Channel;
+import java.nio.channels.SelectableChannel;
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.modules.SelectModuleBuiltins.PyTimeFromObjectNode;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.exception.OSErrorEnum;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.builtins.objects.select.PPoll.Registration;
+import com.oracle.graal.python.builtins.objects.socket.PSocket;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.runtime.GilNode;
+import com.oracle.graal.python.runtime.PosixResources;
+import com.oracle.graal.python.runtime.PosixSupportLibrary;
+import com.oracle.graal.python.runtime.PosixSupportLibrary.ChannelNotSelectableException;
+import com.oracle.graal.python.runtime.PosixSupportLibrary.PosixException;
+import com.oracle.graal.python.runtime.PosixSupportLibrary.SelectResult;
+import com.oracle.graal.python.runtime.PosixSupportLibrary.Timeval;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.graal.python.util.IntArrayBuilder;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.library.CachedLibrary;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PPoll)
+public class PollBuiltins extends PythonBuiltins {
+
+    static final int DEFAULT_EVENTS = PPoll.POLLIN | PPoll.POLLPRI | PPoll.POLLOUT;
+
+    /**
+     * While native file descriptors are registered together with selectable channels, we cannot
+     * block on both at the same time, so the selector is waited on in slices of this length. If
+     * only native file descriptors are registered, the native {@code select} blocks for the whole
+     * timeout instead.
+     */
+    private static final long MIXED_POLL_INTERVAL_MS = 10;
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return PollBuiltinsFactory.getFactories();
+    }
+
+    /**
+     * Registers {@code fd} with the poll object, resolving it to the selectable channel of the
+     * POSIX emulation layer if there is one.
+     */
+    static void register(VirtualFrame frame, PythonBuiltinBaseNode node, PPoll self, int fd, long events) {
+        PosixResources resources = node.getContext().getResources();
+        Channel channel = resources.getFileChannel(fd);
+        SelectableChannel selectable = getSelectableChannel(channel);
+        if (selectable != null) {
+            // closing the channel cancels its key, let the poll object report it as hung up
+            resources.addPollObject(self);
+        }
+        try {
+            self.register(fd, events, selectable, channel instanceof PSocket ? (PSocket) channel : null, channel != null);
+        } catch (IOException e) {
+            throw node.raiseOSError(frame, e);
+        }
+    }
+
+    @TruffleBoundary
+    private static SelectableChannel getSelectableChannel(Channel channel) {
+        if (channel instanceof SelectableChannel) {
+            return (SelectableChannel) channel;
+        } else if (channel instanceof PSocket) {
+            PSocket socket = (PSocket) channel;
+            if (socket.getSocket() != null) {
+                return socket.getSocket();
+            }
+            return socket.getServerSocket();
+        }
+        return null;
+    }
+
+    /**
+     * Polls the registered file descriptors and returns a list of {@code (fd, events)} tuples. A
+     * negative timeout waits indefinitely.
+     */
+    static PList poll(VirtualFrame frame, PythonBuiltinBaseNode node, PythonObjectFactory factory, PPoll self, long timeoutMs, int maxevents, PosixSupportLibrary posixLib, GilNode gil) {
+        if (!self.enterPoll()) {
+            throw node.raise(PythonBuiltinClassType.RuntimeError, ErrorMessages.SELECT_CONCURRENT_POLL_INVOCATION);
+        }
+        IntArrayBuilder result = new IntArrayBuilder();
+        try {
+            gil.release(true);
+            try {
+                long deadline = timeoutMs > 0 ? System.currentTimeMillis() + timeoutMs : 0;
+                long remaining = timeoutMs;
+                while (true) {
+                    boolean changed = false;
+                    if (!self.hasUnselectable()) {
+                        changed = self.select(remaining, maxevents, result);
+                    } else {
+                        pollMixed(node, self, remaining, maxevents, posixLib, result);
+                    }
+                    if (!changed || result.size() > 0 || timeoutMs == 0) {
+                        break;
+                    }
+                    // the registrations changed while waiting, poll them again
+                    if (timeoutMs > 0) {
+                        remaining = deadline - System.currentTimeMillis();
+                        if (remaining <= 0) {
+                            break;
+                        }
+                    }
+                }
+            } finally {
+                gil.acquire();
+            }
+        } catch (IOException e) {
+            throw node.raiseOSError(frame, e);
+        } catch (PosixException e) {
+            throw node.raiseOSErrorFromPosixException(frame, e);
+        } finally {
+            self.leavePoll();
+        }
+        Object[] tuples = new Object[result.size() / 2];
+        for (int i = 0; i < tuples.length; i++) {
+            tuples[i] = factory.createTuple(new Object[]{result.get(2 * i), result.get(2 * i + 1)});
+        }
+        return factory.createList(tuples);
+    }
+
+    private static void pollMixed(PythonBuiltinBaseNode node, PPoll self, long timeoutMs, int maxevents, PosixSupportLibrary posixLib, IntArrayBuilder result)
+                    throws IOException, PosixException {
+        if (!self.hasSelectable()) {
+            pollUnselectable(node, self, posixLib, toTimeval(timeoutMs), result);
+            return;
+        }
+        long deadline = timeoutMs < 0 ? -1 : System.currentTimeMillis() + timeoutMs;
+        while (true) {
+            pollUnselectable(node, self, posixLib, new Timeval(0, 0), result);
+            int found = result.size() / 2;
+            if (found > 0 || timeoutMs == 0) {
+                if (found < maxevents) {
+                    self.select(0, maxevents - found, result);
+                }
+                return;
+            }
+            long slice = MIXED_POLL_INTERVAL_MS;
+            if (deadline >= 0) {
+                slice = Math.min(slice, deadline - System.currentTimeMillis());
+                if (slice <= 0) {
+                    return;
+                }
+            }
+            self.select(slice, maxevents, result);
+            if (result.size() > 0) {
+                return;
+            }
+        }
+    }
+
+    private static Timeval toTimeval(long timeoutMs) {
+        if (timeoutMs < 0) {
+            return null;
+        }
+        return new Timeval(timeoutMs / 1000, (timeoutMs % 1000) * 1000);
+    }
+
+    /**
+     * Checks the registered file descriptors that are not backed by a selectable channel. Those
+     * with a (non-selectable) emulated channel are always ready, native ones are checked with a
+     * {@code select} that waits up to {@code timeout} ({@code null} waits indefinitely) unless an
+     * emulated channel was already found ready.
+     */
+    private static void pollUnselectable(PythonBuiltinBaseNode node, PPoll self, PosixSupportLibrary posixLib, Timeval timeout, IntArrayBuilder result) throws PosixException {
+        int initialSize = result.size();
+        Registration[] registrations = self.getUnselectable();
+        IntArrayBuilder readfds = new IntArrayBuilder();
+        IntArrayBuilder writefds = new IntArrayBuilder();
+        for (Registration registration : registrations) {
+            long events = registration.getEvents();
+            if (registration.hasChannel()) {
+                int ready = (int) (events & (PPoll.READ_EVENTS | PPoll.WRITE_EVENTS));
+                if (ready != 0) {
+                    result.add(registration.getFd());
+                    result.add(ready);
+                }
+            } else {
+                if ((events & PPoll.READ_EVENTS) != 0) {
+                    readfds.add(registration.getFd());
+                }
+                if ((events & PPoll.WRITE_EVENTS) != 0) {
+                    writefds.add(registration.getFd());
+                }
+            }
+        }
+        if (readfds.size() == 0 && writefds.size() == 0) {
+            return;
+        }
+        int[] rfds = readfds.toArray();
+        int[] wfds = writefds.toArray();
+        boolean[] rready;
+        boolean[] wready;
+        try {
+            Timeval nativeTimeout = result.size() > initialSize ? new Timeval(0, 0) : timeout;
+            SelectResult selectResult = posixLib.select(node.getPosixSupport(), rfds, wfds, new int[0], nativeTimeout);
+            rready = selectResult.getReadFds();
+            wready = selectResult.getWriteFds();
+        } catch (ChannelNotSelectableException e) {
+            // like select(), report everything as ready
+            rready = null;
+            wready = null;
+        }
+        for (Registration registration : registrations) {
+            if (registration.hasChannel()) {
+                continue;
+            }
+            int fd = registration.getFd();
+            int ready = (int) (registration.getEvents() & PPoll.READ_EVENTS & (isReady(fd, rfds, rready) ? -1 : 0));
+            ready |= (int) (registration.getEvents() & PPoll.WRITE_EVENTS & (isReady(fd, wfds, wready) ? -1 : 0));
+            if (ready != 0) {
+                result.add(fd);
+                result.add(ready);
+            }
+        }
+    }
+
+    private static boolean isReady(int fd, int[] fds, boolean[] ready) {
+        for (int i = 0; i < fds.length; i++) {
+            if (fds[i] == fd) {
+                return ready == null || ready[i];
+            }
+        }
+        return false;
+    }
+
+    @Builtin(name = "register", minNumOfPositionalArgs = 2, parameterNames = {"$self", "fd", "eventmask"})
+    @GenerateNodeFactory
+    abstract static class RegisterNode extends PythonBuiltinNode {
+        @Specialization(limit = "3")
+        Object register(VirtualFrame frame, PPoll self, Object fdObj, Object eventmask,
+                        @CachedLibrary("fdObj") PythonObjectLibrary fdLib,
+                        @CachedLibrary(limit = "1") PythonObjectLibrary maskLib) {
+            int fd = fdLib.asFileDescriptor(fdObj);
+            long events = PGuards.isNoValue(eventmask) ? DEFAULT_EVENTS : maskLib.asJavaLong(eventmask, frame);
+            PollBuiltins.register(frame, this, self, fd, events);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "modify", minNumOfPositionalArgs = 3, parameterNames = {"$self", "fd", "eventmask"})
+    @GenerateNodeFactory
+    abstract static class ModifyNode extends PythonBuiltinNode {
+        @Specialization(limit = "3")
+        Object modify(VirtualFrame frame, PPoll self, Object fdObj, Object eventmask,
+                        @CachedLibrary("fdObj") PythonObjectLibrary fdLib,
+                        @CachedLibrary(limit = "1") PythonObjectLibrary maskLib) {
+            int fd = fdLib.asFileDescriptor(fdObj);
+            if (!self.modify(fd, maskLib.asJavaLong(eventmask, frame))) {
+                throw raiseOSError(frame, OSErrorEnum.ENOENT);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "unregister", minNumOfPositionalArgs = 2, parameterNames = {"$self", "fd"})
+    @GenerateNodeFactory
+    abstract static class UnregisterNode extends PythonBinaryBuiltinNode {
+        @Specialization(limit = "3")
+        Object unregister(PPoll self, Object fdObj,
+                        @CachedLibrary("fdObj") PythonObjectLibrary fdLib) {
+            int fd = fdLib.asFileDescriptor(fdObj);
+            if (!self.unregister(fd)) {
+                throw raise(PythonBuiltinClassType.KeyError, new Object[]{fd});
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "poll", minNumOfPositionalArgs = 1, parameterNames = {"$self", "timeout"})
+    @GenerateNodeFactory
+    abstract static class PollNode extends PythonBinaryBuiltinNode {
+        @Specialization(limit = "3")
+        PList poll(VirtualFrame frame, PPoll self, Object timeout,
+                        @CachedLibrary("getPosixSupport()") PosixSupportLibrary posixLib,
+                        @Cached PyTimeFromObjectNode pyTimeFromObjectNode,
+                        @Cached GilNode gil) {
+            long timeoutMs = -1;
+            if (!PGuards.isPNone(timeout)) {
+                timeoutMs = pyTimeDivide(pyTimeFromObjectNode.execute(frame, timeout, MS_TO_NS), MS_TO_NS);
+            }
+            return PollBuiltins.poll(frame, this, factory(), self, timeoutMs < 0 ? -1 : timeoutMs, Integer.MAX_VALUE, posixLib, gil);
+        }
+    }
+}
@@ -112,6 +112,8 @@ public class PSocket extends PythonBuiltinObject implements Channel {
 
     private boolean blocking = true;
 
+    private boolean eof;
+
     private HashMap<Object, Object> options;
 
     public PSocket(Object cls, Shape instanceShape, int family, int type, int proto) {
@@ -201,6 +203,17 @@ public class PSocket extends PythonBuiltinObject implements Channel {
         }
     }
 
+    /**
+     * Whether a read has reached the end of the stream, i.e. the peer shut down its end.
+     */
+    public boolean isEof() {
+        return eof;
+    }
+
+    public void setEof() {
+        this.eof = true;
+    }
+
     @TruffleBoundary
     public boolean isOpen() {
         return (getSocket() != null && getSocket().isOpen()) || (getServerSocket() != null && getServerSocket().isOpen());
@@ -40,6 +40,7 @@
  */
 package com.oracle.graal.python.builtins.objects.socket;
 
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.InterruptedError;
 import static com.oracle.graal.python.builtins.PythonBuiltinClassType.SocketTimeout;
 
 import java.io.IOException;
@@ -50,6 +51,7 @@ import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 
+import com.oracle.graal.python.builtins.objects.exception.OSErrorEnum;
 import com.oracle.graal.python.nodes.ErrorMessages;
 import com.oracle.graal.python.nodes.PNodeWithRaise;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -59,11 +61,19 @@ public class SocketUtils {
     public static void setBlocking(PSocket socket, boolean blocking) throws IOException {
         socket.setBlocking(blocking);
         if (socket.getSocket() != null) {
-            socket.getSocket().configureBlocking(blocking);
+            configureBlocking(socket.getSocket(), blocking);
         }
 
         if (socket.getServerSocket() != null) {
-            socket.getServerSocket().configureBlocking(blocking);
+            configureBlocking(socket.getServerSocket(), blocking);
+        }
+    }
+
+    private static void configureBlocking(SelectableChannel channel, boolean blocking) throws IOException {
+        // channels registered with a poll object must stay non-blocking, blocking operations are
+        // emulated in handleTimeout
+        if (!blocking || !channel.isRegistered()) {
+            channel.configureBlocking(blocking);
         }
     }
 
@@ -74,9 +84,10 @@ public class SocketUtils {
     @TruffleBoundary
     public static int recv(PNodeWithRaise node, PSocket socket, ByteBuffer target, long timeoutMilliseconds) throws IOException {
         SocketChannel nativeSocket = socket.getSocket();
-        handleTimeout(node, nativeSocket, SelectionKey.OP_READ, timeoutMilliseconds);
+        handleTimeout(node, socket, nativeSocket, SelectionKey.OP_READ, timeoutMilliseconds);
         int length = nativeSocket.read(target);
         if (length < 0) {
+            socket.setEof();
             return 0; // EOF, but Python expects 0-bytes
         } else {
             return length;
@@ -90,7 +101,7 @@ public class SocketUtils {
     @TruffleBoundary
     public static int send(PNodeWithRaise node, PSocket socket, ByteBuffer source, long timeoutMilliseconds) throws IOException {
         SocketChannel nativeSocket = socket.getSocket();
-        handleTimeout(node, nativeSocket, SelectionKey.OP_WRITE, timeoutMilliseconds);
+        handleTimeout(node, socket, nativeSocket, SelectionKey.OP_WRITE, timeoutMilliseconds);
         return nativeSocket.write(source);
     }
 
@@ -101,12 +112,28 @@ public class SocketUtils {
     @TruffleBoundary
     public static SocketChannel accept(PNodeWithRaise node, PSocket socket, long timeoutMillisedonds) throws IOException {
         ServerSocketChannel nativeSocket = socket.getServerSocket();
-        handleTimeout(node, nativeSocket, SelectionKey.OP_ACCEPT, timeoutMillisedonds);
+        handleTimeout(node, socket, nativeSocket, SelectionKey.OP_ACCEPT, timeoutMillisedonds);
         return nativeSocket.accept();
     }
 
-    private static void handleTimeout(PNodeWithRaise node, SelectableChannel nativeSocket, int op, long timeoutMilliseconds) throws IOException {
-        if (!nativeSocket.isBlocking() && timeoutMilliseconds > 0) {
+    private static void handleTimeout(PNodeWithRaise node, PSocket socket, SelectableChannel nativeSocket, int op, long timeoutMilliseconds) throws IOException {
+        if (nativeSocket.isBlocking()) {
+            return;
+        }
+        if (socket.isBlocking()) {
+            // the channel is registered with a poll object, wait until it is ready
+            try (Selector selector = Selector.open()) {
+                nativeSocket.register(selector, op);
+                while (selector.select() == 0) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        // the non-blocking operation would not block but return nothing, which
+                        // looks like EOF, so report the interruption instead
+                        throw node.raise(InterruptedError, OSErrorEnum.EINTR.getNumber(), OSErrorEnum.EINTR.getMessage());
+                    }
+                    // woken up without the channel being ready, wait again
+                }
+            }
+        } else if (timeoutMilliseconds > 0) {
             try (Selector selector = Selector.open()) {
                 SelectionKey key = nativeSocket.register(selector, op);
                 selector.select(timeoutMilliseconds);
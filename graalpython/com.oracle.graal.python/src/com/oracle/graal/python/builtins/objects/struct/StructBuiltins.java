@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.struct;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__INIT__;
+
+import java.util.List;
+
+import com.oracle.graal.python.annotations.ArgumentClinic;
+import com.oracle.graal.python.annotations.ArgumentClinic.ClinicConversion;
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.PBytes;
+import com.oracle.graal.python.builtins.objects.struct.StructBuiltinsClinicProviders.StructUnpackFromNodeClinicProviderGen;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryClinicBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.clinic.ArgumentClinicProvider;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PStruct)
+public final class StructBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return StructBuiltinsFactory.getFactories();
+    }
+
+    @Builtin(name = __INIT__, minNumOfPositionalArgs = 2, parameterNames = {"$self", "format"})
+    @GenerateNodeFactory
+    public abstract static class StructInitNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        static PNone init(PStruct self, Object format,
+                        @Cached StructNodes.GetStructFormatNode getFormat) {
+            self.setFormat(getFormat.execute(format));
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "pack", minNumOfPositionalArgs = 1, takesVarArgs = true, //
+                    doc = "S.pack(v1, v2, ...) -> bytes\n\n" +
+                                    "Return a bytes object containing values v1, v2, ... packed according\n" +
+                                    "to the format string S.format.  See help(struct) for more on format\n" +
+                                    "strings.")
+    @GenerateNodeFactory
+    public abstract static class StructPackNode extends PythonBuiltinNode {
+
+        @Specialization
+        static PBytes pack(VirtualFrame frame, PStruct self, Object[] args,
+                        @Cached StructNodes.PackNode packNode) {
+            return packNode.execute(frame, self.getFormat(), args, 0);
+        }
+    }
+
+    @Builtin(name = "pack_into", minNumOfPositionalArgs = 1, takesVarArgs = true, //
+                    doc = "S.pack_into(buffer, offset, v1, v2, ...)\n\n" +
+                                    "Pack the values v1, v2, ... according to the format string S.format\n" +
+                                    "and write the packed bytes into the writable buffer buf starting at\n" +
+                                    "offset.  Note that the offset is a required argument.  See\n" +
+                                    "help(struct) for more on format strings.")
+    @GenerateNodeFactory
+    public abstract static class StructPackIntoNode extends PythonBuiltinNode {
+
+        @Specialization
+        static PNone packInto(VirtualFrame frame, PStruct self, Object[] args,
+                        @Cached StructNodes.PackIntoNode packIntoNode) {
+            return packIntoNode.execute(frame, self.getFormat(), args, 0);
+        }
+    }
+
+    @Builtin(name = "unpack", minNumOfPositionalArgs = 2, numOfPositionalOnlyArgs = 2, parameterNames = {"$self", "buffer"}, //
+                    doc = "unpack($self, buffer, /)\n--\n\n" +
+                                    "Return a tuple containing unpacked values.\n\n" +
+                                    "Unpack according to the format string Struct.format. The buffer's size\n" +
+                                    "in bytes must be Struct.size.\n\n" +
+                                    "See help(struct) for more on format strings.")
+    @GenerateNodeFactory
+    public abstract static class StructUnpackNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        static PTuple unpack(PStruct self, Object buffer,
+                        @Cached StructNodes.UnpackNode unpackNode) {
+            return unpackNode.execute(self.getFormat(), buffer);
+        }
+    }
+
+    @Builtin(name = "unpack_from", minNumOfPositionalArgs = 2, parameterNames = {"$self", "buffer", "offset"}, //
+                    doc = "unpack_from($self, /, buffer, offset=0)\n--\n\n" +
+                                    "Return a tuple containing unpacked values.\n\n" +
+                                    "Values are unpacked according to the format string Struct.format.\n\n" +
+                                    "The buffer's size in bytes, starting at position offset, must be\n" +
+                                    "at least Struct.size.\n\n" +
+                                    "See help(struct) for more on format strings.")
+    @ArgumentClinic(name = "offset", conversion = ClinicConversion.Index, defaultValue = "0")
+    @GenerateNodeFactory
+    public abstract static class StructUnpackFromNode extends PythonTernaryClinicBuiltinNode {
+
+        @Override
+        protected ArgumentClinicProvider getArgumentClinic() {
+            return StructUnpackFromNodeClinicProviderGen.INSTANCE;
+        }
+
+        @Specialization
+        static PTuple unpackFrom(PStruct self, Object buffer, int offset,
+                        @Cached StructNodes.UnpackFromNode unpackFromNode) {
+            return unpackFromNode.execute(self.getFormat(), buffer, offset);
+        }
+    }
+
+    @Builtin(name = "iter_unpack", minNumOfPositionalArgs = 2, numOfPositionalOnlyArgs = 2, parameterNames = {"$self", "buffer"}, //
+                    doc = "iter_unpack($self, buffer, /)\n--\n\n" +
+                                    "Return an iterator yielding tuples.\n\n" +
+                                    "Tuples are unpacked from the given bytes source, like a repeated\n" +
+                                    "invocation of unpack_from().\n\n" +
+                                    "Requires that the bytes length be a multiple of the struct size.")
+    @GenerateNodeFactory
+    public abstract static class StructIterUnpackNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        static PStructUnpackIterator iterUnpack(PStruct self, Object buffer,
+                        @Cached StructNodes.IterUnpackNode iterUnpackNode) {
+            return iterUnpackNode.execute(self.getFormat(), buffer);
+        }
+    }
+
+    @Builtin(name = "format", minNumOfPositionalArgs = 1, isGetter = true, doc = "struct format string")
+    @GenerateNodeFactory
+    public abstract static class StructFormatNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        static String format(PStruct self) {
+            return self.getFormat().getFormat();
+        }
+    }
+
+    @Builtin(name = "size", minNumOfPositionalArgs = 1, isGetter = true, doc = "struct size in bytes")
+    @GenerateNodeFactory
+    public abstract static class StructSizeNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        static int size(PStruct self) {
+            return self.getFormat().getSize();
+        }
+    }
+}
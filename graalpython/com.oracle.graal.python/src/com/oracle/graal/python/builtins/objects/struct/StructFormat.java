@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.struct;
+
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.StructError;
+
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.PRaiseNode;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.nodes.Node;
+
+/**
+ * A compiled struct format string. This is the equivalent of the {@code s_codes} array CPython
+ * computes in {@code _struct.c: prepare_s}. Instances are immutable and are shared through a
+ * bounded cache, so all {@link PStruct} objects and module-level functions using the same format
+ * see the same instance and nodes can specialize on it by identity.
+ */
+public final class StructFormat {
+
+    /** Same limit as CPython's {@code MAXCACHE}; the whole cache is dropped when it is full. */
+    private static final int MAXCACHE = 100;
+    private static final HashMap<String, StructFormat> cache = new HashMap<>();
+
+    private static final String NATIVE_CODES = "xbBcsphHiIlLnNqQ?efdP";
+    private static final String STANDARD_CODES = "xbBcsphHiIlLqQ?efd";
+
+    /**
+     * A single entry of the compiled format: {@code repeat} consecutive items of type
+     * {@code format}, each {@code size} bytes long, starting at {@code offset}. For {@code 's'}
+     * and {@code 'p'}, {@code repeat} is always 1 and {@code size} is the string length.
+     */
+    public static final class FormatCode {
+        public final char format;
+        public final int offset;
+        public final int size;
+        public final int repeat;
+
+        FormatCode(char format, int offset, int size, int repeat) {
+            this.format = format;
+            this.offset = offset;
+            this.size = size;
+            this.repeat = repeat;
+        }
+    }
+
+    private final String format;
+    @CompilationFinal(dimensions = 1) private final FormatCode[] codes;
+    private final boolean nativeMode;
+    private final boolean littleEndian;
+    private final int size;
+    private final int len;
+
+    private StructFormat(String format, FormatCode[] codes, boolean nativeMode, boolean littleEndian, int size, int len) {
+        this.format = format;
+        this.codes = codes;
+        this.nativeMode = nativeMode;
+        this.littleEndian = littleEndian;
+        this.size = size;
+        this.len = len;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public FormatCode[] getCodes() {
+        return codes;
+    }
+
+    /**
+     * Native mode ({@code '@'} or no prefix) uses native sizes and alignment and allows the
+     * {@code 'n'}, {@code 'N'} and {@code 'P'} codes.
+     */
+    public boolean isNativeMode() {
+        return nativeMode;
+    }
+
+    public boolean isLittleEndian() {
+        return littleEndian;
+    }
+
+    /** The number of bytes needed for packing, i.e., {@code struct.calcsize(format)}. */
+    public int getSize() {
+        return size;
+    }
+
+    /** The number of values produced by unpacking (and expected by packing). */
+    public int getLength() {
+        return len;
+    }
+
+    @TruffleBoundary
+    public static StructFormat lookup(Node raisingNode, String format) {
+        synchronized (cache) {
+            StructFormat result = cache.get(format);
+            if (result == null) {
+                result = compile(raisingNode, format);
+                if (cache.size() >= MAXCACHE) {
+                    cache.clear();
+                }
+                cache.put(format, result);
+            }
+            return result;
+        }
+    }
+
+    @TruffleBoundary
+    public static void clearCache() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    @TruffleBoundary
+    static StructFormat compile(Node raisingNode, String format) {
+        if (format.indexOf('\0') >= 0) {
+            throw PRaiseNode.raiseUncached(raisingNode, StructError, ErrorMessages.EMBEDDED_NULL_CHARACTER);
+        }
+        int start = 0;
+        boolean nativeMode = false;
+        boolean littleEndian = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
+        switch (format.isEmpty() ? '@' : format.charAt(0)) {
+            case '<':
+                littleEndian = true;
+                start = 1;
+                break;
+            case '>':
+            case '!':
+                littleEndian = false;
+                start = 1;
+                break;
+            case '=':
+                start = 1;
+                break;
+            case '@':
+                nativeMode = true;
+                start = format.isEmpty() ? 0 : 1;
+                break;
+            default:
+                nativeMode = true;
+                break;
+        }
+        String allowed = nativeMode ? NATIVE_CODES : STANDARD_CODES;
+        ArrayList<FormatCode> codes = new ArrayList<>();
+        long size = 0;
+        int len = 0;
+        int i = start;
+        while (i < format.length()) {
+            char c = format.charAt(i++);
+            if (isSpace(c)) {
+                continue;
+            }
+            long num = 1;
+            if ('0' <= c && c <= '9') {
+                num = c - '0';
+                while (i < format.length() && '0' <= (c = format.charAt(i)) && c <= '9') {
+                    num = num * 10 + (c - '0');
+                    if (num > Integer.MAX_VALUE) {
+                        throw PRaiseNode.raiseUncached(raisingNode, StructError, ErrorMessages.STRUCT_SIZE_TOO_LONG);
+                    }
+                    i++;
+                }
+                if (i == format.length()) {
+                    throw PRaiseNode.raiseUncached(raisingNode, StructError, ErrorMessages.REPEAT_COUNT_WITHOUT_FMT);
+                }
+                c = format.charAt(i++);
+            }
+            if (c > 0x7f || allowed.indexOf(c) < 0) {
+                throw PRaiseNode.raiseUncached(raisingNode, StructError, ErrorMessages.BAD_CHAR_IN_STRUCT_FORMAT);
+            }
+            int itemSize = nativeMode ? nativeSize(c) : standardSize(c);
+            if (nativeMode && itemSize > 1 && size > 0) {
+                // native items are aligned to their size
+                size += (itemSize - 1) - (size - 1) % itemSize;
+            }
+            if (c == 's' || c == 'p') {
+                codes.add(new FormatCode(c, (int) size, (int) num, 1));
+                len++;
+            } else if (c != 'x' && num > 0) {
+                codes.add(new FormatCode(c, (int) size, itemSize, (int) num));
+                len += num;
+            }
+            size += num * itemSize;
+            if (size > Integer.MAX_VALUE) {
+                throw PRaiseNode.raiseUncached(raisingNode, StructError, ErrorMessages.STRUCT_SIZE_TOO_LONG);
+            }
+        }
+        return new StructFormat(format, codes.toArray(new FormatCode[codes.size()]), nativeMode, littleEndian, (int) size, len);
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\u000b' || c == '\f';
+    }
+
+    private static int nativeSize(char c) {
+        switch (c) {
+            case 'h':
+            case 'H':
+            case 'e':
+                return 2;
+            case 'i':
+            case 'I':
+            case 'f':
+                return 4;
+            case 'l':
+            case 'L':
+            case 'n':
+            case 'N':
+            case 'q':
+            case 'Q':
+            case 'd':
+            case 'P':
+                return 8;
+            default:
+                return 1;
+        }
+    }
+
+    private static int standardSize(char c) {
+        switch (c) {
+            case 'h':
+            case 'H':
+            case 'e':
+                return 2;
+            case 'i':
+            case 'I':
+            case 'l':
+            case 'L':
+            case 'f':
+                return 4;
+            case 'q':
+            case 'Q':
+            case 'd':
+                return 8;
+            default:
+                return 1;
+        }
+    }
+}
@@ -0,0 +1,897 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.struct;
+
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.IndexError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.OverflowError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.StructError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.TypeError;
+
+import java.util.Arrays;
+
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.array.PArray;
+import com.oracle.graal.python.builtins.objects.bytes.BytesNodes;
+import com.oracle.graal.python.builtins.objects.bytes.BytesNodesFactory;
+import com.oracle.graal.python.builtins.objects.bytes.BytesUtils;
+import com.oracle.graal.python.builtins.objects.bytes.PByteArray;
+import com.oracle.graal.python.builtins.objects.bytes.PBytes;
+import com.oracle.graal.python.builtins.objects.bytes.PBytesLike;
+import com.oracle.graal.python.builtins.objects.common.BufferStorageNodes;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.memoryview.PMemoryView;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.builtins.objects.struct.StructFormat.FormatCode;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.lib.PyNumberAsSizeNode;
+import com.oracle.graal.python.lib.PyNumberIndexNode;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.PNodeWithRaise;
+import com.oracle.graal.python.nodes.util.CastToJavaStringNode;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
+import com.oracle.graal.python.util.OverflowException;
+import com.oracle.graal.python.util.PythonUtils;
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Cached.Shared;
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.ImportStatic;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.interop.UnsupportedMessageException;
+import com.oracle.truffle.api.library.CachedLibrary;
+import com.oracle.truffle.api.memory.ByteArraySupport;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
+
+/**
+ * Implementation of CPython's {@code _struct.c}. The packing and unpacking loops are unrolled for
+ * formats that are constant at the call site, and buffers backed by a Java byte array are read and
+ * written in place.
+ */
+public abstract class StructNodes {
+
+    /** Formats with more items than this are packed and unpacked without loop unrolling. */
+    static final int MAX_UNROLLED_ITEMS = 16;
+
+    private static final ByteArraySupport LITTLE_ENDIAN = ByteArraySupport.littleEndian();
+    private static final ByteArraySupport BIG_ENDIAN = ByteArraySupport.bigEndian();
+
+    static ByteArraySupport getAccessor(StructFormat format) {
+        return format.isLittleEndian() ? LITTLE_ENDIAN : BIG_ENDIAN;
+    }
+
+    static boolean isByteStorage(PBytesLike buffer) {
+        return buffer.getSequenceStorage() instanceof ByteSequenceStorage;
+    }
+
+    static boolean isManagedContiguous(PMemoryView view) {
+        return view.getBufferPointer() == null && view.isCContiguous() && !view.isReleased();
+    }
+
+    static boolean ownerIsByteStorage(PMemoryView view) {
+        Object owner = view.getOwner();
+        return owner instanceof PBytesLike && isByteStorage((PBytesLike) owner);
+    }
+
+    static boolean ownerIsWritableByteStorage(PMemoryView view) {
+        return !view.isReadOnly() && view.getOwner() instanceof PByteArray && isByteStorage((PByteArray) view.getOwner());
+    }
+
+    static boolean ownerIsArray(PMemoryView view) {
+        return view.getOwner() instanceof PArray;
+    }
+
+    static int getBufferLength(PNodeWithRaise node, PythonObjectLibrary lib, Object buffer) {
+        if (!lib.isBuffer(buffer)) {
+            throw node.raise(TypeError, ErrorMessages.A_BYTES_LIKE_OBJECT_IS_REQUIRED_NOT_P, buffer);
+        }
+        try {
+            return lib.getBufferLength(buffer);
+        } catch (UnsupportedMessageException e) {
+            throw CompilerDirectives.shouldNotReachHere(e);
+        }
+    }
+
+    /**
+     * Turns the format argument of the module-level functions and of the {@code Struct}
+     * constructor into a {@link StructFormat}. Formats that are constant at the call site are
+     * compiled only once.
+     */
+    public abstract static class GetStructFormatNode extends PNodeWithRaise {
+
+        public abstract StructFormat execute(Object format);
+
+        @Specialization(guards = "cachedFormat.equals(format)", limit = "3")
+        static StructFormat doCached(@SuppressWarnings("unused") String format,
+                        @Cached("format") @SuppressWarnings("unused") String cachedFormat,
+                        @Cached("lookup(format)") StructFormat compiled) {
+            return compiled;
+        }
+
+        @Specialization(replaces = "doCached")
+        StructFormat doString(String format) {
+            return lookup(format);
+        }
+
+        @Specialization
+        StructFormat doPString(PString format,
+                        @Cached CastToJavaStringNode cast) {
+            return lookup(cast.execute(format));
+        }
+
+        @Specialization
+        StructFormat doBytes(PBytes format,
+                        @Cached BytesNodes.ToBytesNode toBytes) {
+            return lookup(BytesUtils.createASCIIString(toBytes.execute(format)));
+        }
+
+        @Fallback
+        StructFormat doOther(Object format) {
+            throw raise(TypeError, ErrorMessages.STRUCT_ARG_MUST_BE_STR_OR_BYTES, format);
+        }
+
+        StructFormat lookup(String format) {
+            return StructFormat.lookup(this, format);
+        }
+
+        public static GetStructFormatNode create() {
+            return StructNodesFactory.GetStructFormatNodeGen.create();
+        }
+    }
+
+    /**
+     * Unpacks all values of a format from a byte array, starting at {@code offset}. The caller is
+     * responsible for checking that there is enough data.
+     */
+    @ImportStatic(StructNodes.class)
+    public abstract static class UnpackValuesNode extends PNodeWithRaise {
+
+        public abstract Object[] execute(StructFormat format, byte[] bytes, int offset);
+
+        @Specialization(guards = {"format == cachedFormat", "cachedFormat.getLength() <= MAX_UNROLLED_ITEMS"}, limit = "3")
+        static Object[] doCached(@SuppressWarnings("unused") StructFormat format, byte[] bytes, int offset,
+                        @Cached("format") StructFormat cachedFormat,
+                        @Shared("factory") @Cached PythonObjectFactory factory) {
+            Object[] result = new Object[cachedFormat.getLength()];
+            unpackExploded(cachedFormat, cachedFormat.getCodes(), bytes, offset, result, factory);
+            return result;
+        }
+
+        @Specialization(replaces = "doCached")
+        static Object[] doGeneric(StructFormat format, byte[] bytes, int offset,
+                        @Shared("factory") @Cached PythonObjectFactory factory) {
+            Object[] result = new Object[format.getLength()];
+            FormatCode[] codes = format.getCodes();
+            int i = 0;
+            for (int c = 0; c < codes.length; c++) {
+                FormatCode code = codes[c];
+                int pos = offset + code.offset;
+                for (int j = 0; j < code.repeat; j++) {
+                    result[i++] = unpackItem(format, code, bytes, pos, factory);
+                    pos += code.size;
+                }
+            }
+            return result;
+        }
+
+        @ExplodeLoop
+        private static void unpackExploded(StructFormat format, FormatCode[] codes, byte[] bytes, int offset, Object[] result, PythonObjectFactory factory) {
+            CompilerAsserts.partialEvaluationConstant(codes.length);
+            int i = 0;
+            for (int c = 0; c < codes.length; c++) {
+                FormatCode code = codes[c];
+                int pos = offset + code.offset;
+                for (int j = 0; j < code.repeat; j++) {
+                    result[i++] = unpackItem(format, code, bytes, pos, factory);
+                    pos += code.size;
+                }
+            }
+        }
+
+        private static Object unpackItem(StructFormat format, FormatCode code, byte[] bytes, int pos, PythonObjectFactory factory) {
+            ByteArraySupport accessor = getAccessor(format);
+            switch (code.format) {
+                case 'b':
+                    return (int) bytes[pos];
+                case 'B':
+                    return bytes[pos] & 0xFF;
+                case '?':
+                    return bytes[pos] != 0;
+                case 'c':
+                    return factory.createBytes(new byte[]{bytes[pos]});
+                case 's':
+                    return factory.createBytes(PythonUtils.arrayCopyOfRange(bytes, pos, pos + code.size));
+                case 'p': {
+                    int n = Math.max(Math.min(bytes[pos] & 0xFF, code.size - 1), 0);
+                    return factory.createBytes(PythonUtils.arrayCopyOfRange(bytes, pos + 1, pos + 1 + n));
+                }
+                case 'h':
+                case 'i':
+                case 'l':
+                case 'q':
+                case 'n':
+                    switch (code.size) {
+                        case 2:
+                            return (int) accessor.getShort(bytes, pos);
+                        case 4:
+                            return accessor.getInt(bytes, pos);
+                        default:
+                            return accessor.getLong(bytes, pos);
+                    }
+                case 'H':
+                case 'I':
+                case 'L':
+                case 'Q':
+                case 'N':
+                case 'P':
+                    switch (code.size) {
+                        case 2:
+                            return accessor.getShort(bytes, pos) & 0xFFFF;
+                        case 4:
+                            return accessor.getInt(bytes, pos) & 0xFFFFFFFFL;
+                        default:
+                            long value = accessor.getLong(bytes, pos);
+                            if (value < 0) {
+                                return factory.createInt(PInt.longToUnsignedBigInteger(value));
+                            }
+                            return value;
+                    }
+                case 'e':
+                    return unpackHalfFloat(accessor.getShort(bytes, pos));
+                case 'f':
+                    return (double) Float.intBitsToFloat(accessor.getInt(bytes, pos));
+                case 'd':
+                    return Double.longBitsToDouble(accessor.getLong(bytes, pos));
+                default:
+                    throw CompilerDirectives.shouldNotReachHere();
+            }
+        }
+
+        public static UnpackValuesNode create() {
+            return StructNodesFactory.UnpackValuesNodeGen.create();
+        }
+    }
+
+    /**
+     * Packs {@code args[argsOffset:]} into {@code dest} starting at {@code offset}. The caller is
+     * responsible for checking the number of arguments and the size of {@code dest}. Like in
+     * CPython, the whole destination range is zeroed first, so pad bytes are always {@code 0}.
+     */
+    @ImportStatic(StructNodes.class)
+    public abstract static class PackValuesNode extends PNodeWithRaise {
+
+        public abstract void execute(VirtualFrame frame, StructFormat format, Object[] args, int argsOffset, byte[] dest, int offset);
+
+        @Specialization(guards = {"format == cachedFormat", "cachedFormat.getLength() <= MAX_UNROLLED_ITEMS"}, limit = "3")
+        static void doCached(VirtualFrame frame, @SuppressWarnings("unused") StructFormat format, Object[] args, int argsOffset, byte[] dest, int offset,
+                        @Cached("format") StructFormat cachedFormat,
+                        @Cached("createPackItemNodes(cachedFormat)") PackItemNode[] packItemNodes) {
+            Arrays.fill(dest, offset, offset + cachedFormat.getSize(), (byte) 0);
+            packExploded(frame, cachedFormat, cachedFormat.getCodes(), args, argsOffset, dest, offset, packItemNodes);
+        }
+
+        @Specialization(replaces = "doCached")
+        static void doGeneric(VirtualFrame frame, StructFormat format, Object[] args, int argsOffset, byte[] dest, int offset,
+                        @Cached PackItemNode packItemNode) {
+            Arrays.fill(dest, offset, offset + format.getSize(), (byte) 0);
+            FormatCode[] codes = format.getCodes();
+            int i = argsOffset;
+            for (int c = 0; c < codes.length; c++) {
+                FormatCode code = codes[c];
+                int pos = offset + code.offset;
+                for (int j = 0; j < code.repeat; j++) {
+                    packItemNode.execute(frame, format, code, args[i++], dest, pos);
+                    pos += code.size;
+                }
+            }
+        }
+
+        @ExplodeLoop
+        private static void packExploded(VirtualFrame frame, StructFormat format, FormatCode[] codes, Object[] args, int argsOffset, byte[] dest, int offset, PackItemNode[] packItemNodes) {
+            CompilerAsserts.partialEvaluationConstant(codes.length);
+            int i = argsOffset;
+            int n = 0;
+            for (int c = 0; c < codes.length; c++) {
+                FormatCode code = codes[c];
+                int pos = offset + code.offset;
+                for (int j = 0; j < code.repeat; j++) {
+                    packItemNodes[n++].execute(frame, format, code, args[i++], dest, pos);
+                    pos += code.size;
+                }
+            }
+        }
+
+        static PackItemNode[] createPackItemNodes(StructFormat format) {
+            PackItemNode[] nodes = new PackItemNode[format.getLength()];
+            for (int i = 0; i < nodes.length; i++) {
+                nodes[i] = StructNodesFactory.PackItemNodeGen.create();
+            }
+            return nodes;
+        }
+
+        public static PackValuesNode create() {
+            return StructNodesFactory.PackValuesNodeGen.create();
+        }
+    }
+
+    /**
+     * Packs a single value. This corresponds to the {@code np_*}, {@code bp_*} and {@code lp_*}
+     * functions in CPython, including their error messages.
+     */
+    abstract static class PackItemNode extends PNodeWithRaise {
+
+        abstract void execute(VirtualFrame frame, StructFormat format, FormatCode code, Object value, byte[] dest, int pos);
+
+        @Specialization(limit = "3")
+        void pack(VirtualFrame frame, StructFormat format, FormatCode code, Object value, byte[] dest, int pos,
+                        @CachedLibrary("value") PythonObjectLibrary lib,
+                        @Cached PyNumberIndexNode indexNode,
+                        @Cached BufferStorageNodes.GetByteLength getByteLength,
+                        @Cached BufferStorageNodes.CopyBytesFromBuffer copyFromBuffer) {
+            ByteArraySupport accessor = getAccessor(format);
+            switch (code.format) {
+                case '?':
+                    dest[pos] = lib.isTrue(value, frame) ? (byte) 1 : (byte) 0;
+                    return;
+                case 'c':
+                    if (!(value instanceof PBytes) || getByteLength.execute(value) != 1) {
+                        throw raise(StructError, ErrorMessages.STRUCT_CHAR_FORMAT_REQUIRES_BYTES);
+                    }
+                    copyFromBuffer.execute(value, 0, dest, pos, 1);
+                    return;
+                case 's':
+                case 'p': {
+                    if (!(value instanceof PBytesLike)) {
+                        throw raise(StructError, ErrorMessages.STRUCT_ARG_FOR_S_MUST_BE_BYTES, code.format);
+                    }
+                    if (code.size == 0) {
+                        return;
+                    }
+                    int length = getByteLength.execute(value);
+                    if (code.format == 's') {
+                        copyFromBuffer.execute(value, 0, dest, pos, Math.min(length, code.size));
+                    } else {
+                        int n = Math.min(length, code.size - 1);
+                        copyFromBuffer.execute(value, 0, dest, pos + 1, n);
+                        dest[pos] = (byte) Math.min(n, 255);
+                    }
+                    return;
+                }
+                case 'e': {
+                    int bits = packHalfFloat(getDouble(frame, value, lib));
+                    if (bits < 0) {
+                        throw raise(OverflowError, ErrorMessages.STRUCT_FLOAT_TOO_LARGE_TO_PACK, 'e');
+                    }
+                    accessor.putShort(dest, pos, (short) bits);
+                    return;
+                }
+                case 'f': {
+                    double x = getDouble(frame, value, lib);
+                    float y = (float) x;
+                    if (!format.isNativeMode() && Float.isInfinite(y) && !Double.isInfinite(x)) {
+                        throw raise(OverflowError, ErrorMessages.STRUCT_FLOAT_TOO_LARGE_TO_PACK, 'f');
+                    }
+                    accessor.putInt(dest, pos, Float.floatToRawIntBits(y));
+                    return;
+                }
+                case 'd':
+                    accessor.putLong(dest, pos, Double.doubleToRawLongBits(getDouble(frame, value, lib)));
+                    return;
+                default:
+                    packInteger(frame, format, code, value, dest, pos, accessor, lib, indexNode);
+            }
+        }
+
+        private double getDouble(VirtualFrame frame, Object value, PythonObjectLibrary lib) {
+            if (!lib.canBeJavaDouble(value)) {
+                throw raise(StructError, ErrorMessages.STRUCT_ARG_NOT_A_FLOAT);
+            }
+            return lib.asJavaDoubleWithFrame(value, frame);
+        }
+
+        private void packInteger(VirtualFrame frame, StructFormat format, FormatCode code, Object value, byte[] dest, int pos, ByteArraySupport accessor,
+                        PythonObjectLibrary lib, PyNumberIndexNode indexNode) {
+            if (!lib.canBeIndex(value)) {
+                throw raise(StructError, ErrorMessages.STRUCT_ARG_NOT_AN_INTEGER);
+            }
+            Object index = indexNode.execute(frame, value);
+            long x;
+            // the value does not fit into a signed long, but into an unsigned one
+            boolean unsigned64 = false;
+            // the value does not fit into 64 bits at all
+            boolean overflow = false;
+            if (index instanceof Integer) {
+                x = (int) index;
+            } else if (index instanceof Long) {
+                x = (long) index;
+            } else if (index instanceof Boolean) {
+                x = (boolean) index ? 1 : 0;
+            } else {
+                PInt pint = (PInt) index;
+                try {
+                    x = pint.longValueExact();
+                } catch (OverflowException e) {
+                    if (!pint.isNegative() && pint.bitLength() <= 64) {
+                        x = pint.longValue();
+                        unsigned64 = true;
+                    } else {
+                        x = 0;
+                        overflow = true;
+                    }
+                }
+            }
+            char c = code.format;
+            boolean isSigned = c == 'b' || c == 'h' || c == 'i' || c == 'l' || c == 'q' || c == 'n';
+            boolean isByteOrShort = c == 'b' || c == 'B' || (format.isNativeMode() && (c == 'h' || c == 'H'));
+            if (c == 'P' || (!format.isNativeMode() && (c == 'q' || c == 'Q'))) {
+                // these go through _PyLong_AsByteArray or PyLong_AsVoidPtr in CPython
+                if (overflow || (c == 'q' && unsigned64) || (c == 'Q' && x < 0 && !unsigned64)) {
+                    throw raise(StructError, ErrorMessages.STRUCT_INT_TOO_LARGE);
+                }
+            } else if (isSigned || isByteOrShort) {
+                // CPython's get_long
+                if (overflow || unsigned64) {
+                    throw raise(StructError, ErrorMessages.STRUCT_ARG_OUT_OF_RANGE);
+                }
+            } else {
+                // CPython's get_ulong
+                if (overflow || (x < 0 && !unsigned64)) {
+                    throw raise(StructError, ErrorMessages.STRUCT_ARG_OUT_OF_RANGE);
+                }
+            }
+            switch (c) {
+                case 'b':
+                    if (x < -128 || x > 127) {
+                        throw raise(StructError, ErrorMessages.STRUCT_BYTE_FORMAT_RANGE);
+                    }
+                    break;
+                case 'B':
+                    if (x < 0 || x > 255) {
+                        throw raise(StructError, ErrorMessages.STRUCT_UBYTE_FORMAT_RANGE);
+                    }
+                    break;
+                default:
+                    if (code.size == 2 || code.size == 4) {
+                        checkRange(format, code, x, isSigned);
+                    }
+            }
+            switch (code.size) {
+                case 1:
+                    dest[pos] = (byte) x;
+                    break;
+                case 2:
+                    accessor.putShort(dest, pos, (short) x);
+                    break;
+                case 4:
+                    accessor.putInt(dest, pos, (int) x);
+                    break;
+                default:
+                    accessor.putLong(dest, pos, x);
+            }
+        }
+
+        private void checkRange(StructFormat format, FormatCode code, long x, boolean isSigned) {
+            int bits = code.size * 8;
+            if (isSigned) {
+                long max = (1L << (bits - 1)) - 1;
+                if (x < -max - 1 || x > max) {
+                    if (format.isNativeMode() && code.format == 'h') {
+                        throw raise(StructError, ErrorMessages.STRUCT_SHORT_FORMAT_RANGE);
+                    }
+                    throw raise(StructError, ErrorMessages.STRUCT_FMT_REQUIRES_RANGE, code.format, -max - 1, max);
+                }
+            } else {
+                long max = (1L << bits) - 1;
+                if (x < 0 || x > max) {
+                    if (format.isNativeMode() && code.format == 'H') {
+                        throw raise(StructError, ErrorMessages.STRUCT_USHORT_FORMAT_RANGE);
+                    }
+                    throw raise(StructError, ErrorMessages.STRUCT_FMT_REQUIRES_UNSIGNED_RANGE, code.format, max);
+                }
+            }
+        }
+    }
+
+    /**
+     * Unpacks directly from the memory backing a buffer object, without copying it first. The
+     * caller is responsible for checking that the buffer is long enough.
+     */
+    public abstract static class UnpackBufferNode extends PNodeWithRaise {
+
+        public abstract Object[] execute(StructFormat format, Object buffer, int offset);
+
+        @Specialization(guards = "isByteStorage(buffer)")
+        Object[] doBytes(StructFormat format, PBytesLike buffer, int offset,
+                        @Shared("unpack") @Cached UnpackValuesNode unpack) {
+            ByteSequenceStorage storage = (ByteSequenceStorage) buffer.getSequenceStorage();
+            checkBounds(offset, format.getSize(), storage.length());
+            return unpack.execute(format, storage.getInternalByteArray(), offset);
+        }
+
+        @Specialization
+        Object[] doArray(StructFormat format, PArray buffer, int offset,
+                        @Shared("unpack") @Cached UnpackValuesNode unpack) {
+            checkBounds(offset, format.getSize(), buffer.getLength() * buffer.getFormat().bytesize);
+            return unpack.execute(format, buffer.getBuffer(), offset);
+        }
+
+        @Specialization(guards = {"isManagedContiguous(buffer)", "ownerIsByteStorage(buffer)"})
+        Object[] doMemoryViewBytes(StructFormat format, PMemoryView buffer, int offset,
+                        @Shared("unpack") @Cached UnpackValuesNode unpack) {
+            ByteSequenceStorage storage = (ByteSequenceStorage) ((PBytesLike) buffer.getOwner()).getSequenceStorage();
+            int start = buffer.getOffset() + offset;
+            checkBounds(start, format.getSize(), storage.length());
+            return unpack.execute(format, storage.getInternalByteArray(), start);
+        }
+
+        @Specialization(guards = {"isManagedContiguous(buffer)", "ownerIsArray(buffer)"})
+        Object[] doMemoryViewArray(StructFormat format, PMemoryView buffer, int offset,
+                        @Shared("unpack") @Cached UnpackValuesNode unpack) {
+            PArray array = (PArray) buffer.getOwner();
+            int start = buffer.getOffset() + offset;
+            checkBounds(start, format.getSize(), array.getLength() * array.getFormat().bytesize);
+            return unpack.execute(format, array.getBuffer(), start);
+        }
+
+        @Specialization(guards = "!isDirectlyReadable(buffer)", limit = "3")
+        Object[] doGeneric(StructFormat format, Object buffer, int offset,
+                        @CachedLibrary("buffer") PythonObjectLibrary lib,
+                        @Shared("unpack") @Cached UnpackValuesNode unpack) {
+            byte[] bytes;
+            try {
+                bytes = lib.getBufferBytes(buffer);
+            } catch (UnsupportedMessageException e) {
+                throw raise(TypeError, ErrorMessages.A_BYTES_LIKE_OBJECT_IS_REQUIRED_NOT_P, buffer);
+            }
+            checkBounds(offset, format.getSize(), bytes.length);
+            return unpack.execute(format, bytes, offset);
+        }
+
+        static boolean isDirectlyReadable(Object buffer) {
+            if (buffer instanceof PBytesLike) {
+                return isByteStorage((PBytesLike) buffer);
+            } else if (buffer instanceof PMemoryView) {
+                PMemoryView view = (PMemoryView) buffer;
+                return isManagedContiguous(view) && (ownerIsByteStorage(view) || ownerIsArray(view));
+            }
+            return buffer instanceof PArray;
+        }
+
+        private void checkBounds(int offset, int size, int length) {
+            if (offset < 0 || offset + size > length) {
+                // the buffer was resized since its length was checked
+                throw raise(IndexError, ErrorMessages.INVALID_BUFFER_ACCESS);
+            }
+        }
+
+        public static UnpackBufferNode create() {
+            return StructNodesFactory.UnpackBufferNodeGen.create();
+        }
+    }
+
+    /**
+     * Packs directly into the memory backing a writable buffer object. Buffers that are not
+     * backed by a Java byte array are packed into a temporary array and copied. The caller is
+     * responsible for checking that the buffer is long enough.
+     */
+    public abstract static class PackIntoBufferNode extends PNodeWithRaise {
+
+        public abstract void execute(VirtualFrame frame, StructFormat format, Object buffer, int offset, Object[] args, int argsOffset);
+
+        @Specialization(guards = "isByteStorage(buffer)")
+        static void doByteArray(VirtualFrame frame, StructFormat format, PByteArray buffer, int offset, Object[] args, int argsOffset,
+                        @Shared("pack") @Cached PackValuesNode pack) {
+            byte[] dest = ((ByteSequenceStorage) buffer.getSequenceStorage()).getInternalByteArray();
+            pack.execute(frame, format, args, argsOffset, dest, offset);
+        }
+
+        @Specialization
+        static void doArray(VirtualFrame frame, StructFormat format, PArray buffer, int offset, Object[] args, int argsOffset,
+                        @Shared("pack") @Cached PackValuesNode pack) {
+            pack.execute(frame, format, args, argsOffset, buffer.getBuffer(), offset);
+        }
+
+        @Specialization(guards = {"isManagedContiguous(buffer)", "ownerIsWritableByteStorage(buffer)"})
+        static void doMemoryViewByteArray(VirtualFrame frame, StructFormat format, PMemoryView buffer, int offset, Object[] args, int argsOffset,
+                        @Shared("pack") @Cached PackValuesNode pack) {
+            byte[] dest = ((ByteSequenceStorage) ((PByteArray) buffer.getOwner()).getSequenceStorage()).getInternalByteArray();
+            pack.execute(frame, format, args, argsOffset, dest, buffer.getOffset() + offset);
+        }
+
+        @Specialization(guards = {"isManagedContiguous(buffer)", "!buffer.isReadOnly()", "ownerIsArray(buffer)"})
+        static void doMemoryViewArray(VirtualFrame frame, StructFormat format, PMemoryView buffer, int offset, Object[] args, int argsOffset,
+                        @Shared("pack") @Cached PackValuesNode pack) {
+            pack.execute(frame, format, args, argsOffset, ((PArray) buffer.getOwner()).getBuffer(), buffer.getOffset() + offset);
+        }
+
+        @Specialization(guards = "!isDirectlyWritable(buffer)")
+        static void doGeneric(VirtualFrame frame, StructFormat format, Object buffer, int offset, Object[] args, int argsOffset,
+                        @Shared("pack") @Cached PackValuesNode pack,
+                        @Cached SequenceStorageNodes.BytesMemcpyNode memcpyNode) {
+            byte[] bytes = new byte[format.getSize()];
+            pack.execute(frame, format, args, argsOffset, bytes, 0);
+            memcpyNode.execute(frame, buffer, offset, bytes, 0, bytes.length);
+        }
+
+        static boolean isDirectlyWritable(Object buffer) {
+            if (buffer instanceof PByteArray) {
+                return isByteStorage((PByteArray) buffer);
+            } else if (buffer instanceof PMemoryView) {
+                PMemoryView view = (PMemoryView) buffer;
+                return isManagedContiguous(view) && (ownerIsWritableByteStorage(view) || (!view.isReadOnly() && ownerIsArray(view)));
+            }
+            return buffer instanceof PArray;
+        }
+
+        public static PackIntoBufferNode create() {
+            return StructNodesFactory.PackIntoBufferNodeGen.create();
+        }
+    }
+
+    /**
+     * Implements {@code Struct.unpack}.
+     */
+    public abstract static class UnpackNode extends PNodeWithRaise {
+
+        public abstract PTuple execute(StructFormat format, Object buffer);
+
+        @Specialization(limit = "3")
+        PTuple unpack(StructFormat format, Object buffer,
+                        @CachedLibrary("buffer") PythonObjectLibrary lib,
+                        @Cached UnpackBufferNode unpackBuffer,
+                        @Cached PythonObjectFactory factory) {
+            int length = getBufferLength(this, lib, buffer);
+            if (length != format.getSize()) {
+                throw raise(StructError, ErrorMessages.STRUCT_UNPACK_REQUIRES_N_BYTES, format.getSize());
+            }
+            return factory.createTuple(unpackBuffer.execute(format, buffer, 0));
+        }
+    }
+
+    /**
+     * Implements {@code Struct.unpack_from}.
+     */
+    public abstract static class UnpackFromNode extends PNodeWithRaise {
+
+        public abstract PTuple execute(StructFormat format, Object buffer, int offset);
+
+        @Specialization(limit = "3")
+        PTuple unpackFrom(StructFormat format, Object buffer, int offsetArg,
+                        @CachedLibrary("buffer") PythonObjectLibrary lib,
+                        @Cached UnpackBufferNode unpackBuffer,
+                        @Cached PythonObjectFactory factory) {
+            int length = getBufferLength(this, lib, buffer);
+            int size = format.getSize();
+            int offset = offsetArg;
+            if (offset < 0) {
+                if (offset + size > 0) {
+                    throw raise(StructError, ErrorMessages.STRUCT_NOT_ENOUGH_DATA_TO_UNPACK, size, offset);
+                }
+                if (offset + length < 0) {
+                    throw raise(StructError, ErrorMessages.STRUCT_OFFSET_OUT_OF_RANGE, offset, length);
+                }
+                offset += length;
+            }
+            if (length - offset < size) {
+                throw raise(StructError, ErrorMessages.STRUCT_UNPACK_FROM_REQUIRES_N_BYTES, (long) size + offset, size, offset, length);
+            }
+            return factory.createTuple(unpackBuffer.execute(format, buffer, offset));
+        }
+    }
+
+    /**
+     * Implements {@code Struct.iter_unpack}.
+     */
+    public abstract static class IterUnpackNode extends PNodeWithRaise {
+
+        public abstract PStructUnpackIterator execute(StructFormat format, Object buffer);
+
+        @Specialization(limit = "3")
+        PStructUnpackIterator iterUnpack(StructFormat format, Object buffer,
+                        @CachedLibrary("buffer") PythonObjectLibrary lib,
+                        @Cached PythonObjectFactory factory) {
+            if (format.getSize() == 0) {
+                throw raise(StructError, ErrorMessages.STRUCT_ITER_CANNOT_UNPACK_FROM_STRUCT_OF_SIZE_0);
+            }
+            int length = getBufferLength(this, lib, buffer);
+            if (length % format.getSize() != 0) {
+                throw raise(StructError, ErrorMessages.STRUCT_ITER_UNPACK_REQ_A_BUFFER_OF_A_MUL_OF_BYTES, format.getSize());
+            }
+            return factory.createStructUnpackIterator(format, buffer, length);
+        }
+    }
+
+    /**
+     * Implements {@code Struct.pack}, the values are {@code args[argsOffset:]}.
+     */
+    public abstract static class PackNode extends PNodeWithRaise {
+
+        public abstract PBytes execute(VirtualFrame frame, StructFormat format, Object[] args, int argsOffset);
+
+        @Specialization
+        PBytes pack(VirtualFrame frame, StructFormat format, Object[] args, int argsOffset,
+                        @Cached PackValuesNode packValues,
+                        @Cached PythonObjectFactory factory) {
+            int nargs = args.length - argsOffset;
+            if (nargs != format.getLength()) {
+                throw raise(StructError, ErrorMessages.STRUCT_PACK_EXPECTED_N_ITEMS_GOT_K, format.getLength(), nargs);
+            }
+            byte[] bytes = new byte[format.getSize()];
+            packValues.execute(frame, format, args, argsOffset, bytes, 0);
+            return factory.createBytes(bytes);
+        }
+    }
+
+    /**
+     * Implements {@code Struct.pack_into}, the arguments (buffer, offset and values) are
+     * {@code args[argsOffset:]}.
+     */
+    public abstract static class PackIntoNode extends PNodeWithRaise {
+
+        public abstract PNone execute(VirtualFrame frame, StructFormat format, Object[] args, int argsOffset);
+
+        @Specialization
+        PNone packInto(VirtualFrame frame, StructFormat format, Object[] args, int argsOffset,
+                        @Cached("createPackIntoArg()") BytesNodes.GetByteLengthIfWritableNode getLength,
+                        @Cached PyNumberAsSizeNode asSizeNode,
+                        @Cached PackIntoBufferNode packIntoBuffer) {
+            int nargs = args.length - argsOffset;
+            if (nargs != format.getLength() + 2) {
+                if (nargs == 0) {
+                    throw raise(StructError, ErrorMessages.STRUCT_PACK_INTO_EXPECTED_BUFFER_ARG);
+                } else if (nargs == 1) {
+                    throw raise(StructError, ErrorMessages.STRUCT_PACK_INTO_EXPECTED_OFFSET_ARG);
+                }
+                throw raise(StructError, ErrorMessages.STRUCT_PACK_INTO_EXPECTED_N_ITEMS_GOT_K, format.getLength(), nargs - 2);
+            }
+            Object buffer = args[argsOffset];
+            int length = getLength.execute(frame, buffer);
+            int offset = asSizeNode.executeExact(frame, args[argsOffset + 1], IndexError);
+            int size = format.getSize();
+            if (offset < 0) {
+                if (offset + size > 0) {
+                    throw raise(StructError, ErrorMessages.STRUCT_NO_SPACE_TO_PACK_N_BYTES, size, offset);
+                }
+                if (offset + length < 0) {
+                    throw raise(StructError, ErrorMessages.STRUCT_OFFSET_OUT_OF_RANGE, offset, length);
+                }
+                offset += length;
+            }
+            if (length - offset < size) {
+                throw raise(StructError, ErrorMessages.STRUCT_PACK_INTO_REQUIRES_N_BYTES, (long) size + offset, size, offset, length);
+            }
+            packIntoBuffer.execute(frame, format, buffer, offset, args, argsOffset + 2);
+            return PNone.NONE;
+        }
+
+        static BytesNodes.GetByteLengthIfWritableNode createPackIntoArg() {
+            return BytesNodesFactory.GetByteLengthIfWritableNodeGen.create("pack_into", "argument");
+        }
+    }
+
+    /**
+     * Converts a double to IEEE 754 half precision bits like CPython's {@code _PyFloat_Pack2}
+     * (rounding half to even). Returns {@code -1} if the value is too large.
+     */
+    static int packHalfFloat(double value) {
+        double x = value;
+        int sign;
+        int e;
+        int bits;
+        if (x == 0.0) {
+            sign = Double.doubleToRawLongBits(x) < 0 ? 1 : 0;
+            e = 0;
+            bits = 0;
+        } else if (Double.isInfinite(x)) {
+            sign = x < 0.0 ? 1 : 0;
+            e = 0x1f;
+            bits = 0;
+        } else if (Double.isNaN(x)) {
+            sign = Double.doubleToRawLongBits(x) < 0 ? 1 : 0;
+            e = 0x1f;
+            bits = 512;
+        } else {
+            sign = x < 0.0 ? 1 : 0;
+            if (sign == 1) {
+                x = -x;
+            }
+            // normalize x to f * 2**e with f in [1.0, 2.0)
+            e = Math.getExponent(x);
+            double f = e < Double.MIN_EXPONENT ? 0.0 : Math.scalb(x, -e);
+            if (e >= 16) {
+                return -1;
+            } else if (e < -25) {
+                // |x| < 2**-25, underflow to zero
+                f = 0.0;
+                e = 0;
+            } else if (e < -14) {
+                // |x| < 2**-14, gradual underflow
+                f = Math.scalb(f, 14 + e);
+                e = 0;
+            } else {
+                e += 15;
+                f -= 1.0;
+            }
+            f *= 1024.0;
+            bits = (int) f;
+            if ((f - bits > 0.5) || ((f - bits == 0.5) && (bits % 2 == 1))) {
+                ++bits;
+                if (bits == 1024) {
+                    // the carry propagated out of a string of 10 1 bits
+                    bits = 0;
+                    ++e;
+                    if (e == 31) {
+                        return -1;
+                    }
+                }
+            }
+        }
+        return bits | (e << 10) | (sign << 15);
+    }
+
+    /**
+     * Converts IEEE 754 half precision bits to a double like CPython's {@code _PyFloat_Unpack2}.
+     */
+    static double unpackHalfFloat(short halfBits) {
+        int sign = (halfBits >> 15) & 1;
+        int e = (halfBits >> 10) & 0x1f;
+        int f = halfBits & 0x3ff;
+        if (e == 0x1f) {
+            if (f == 0) {
+                return sign == 1 ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+            }
+            return sign == 1 ? -Double.NaN : Double.NaN;
+        }
+        double x = f / 1024.0;
+        if (e == 0) {
+            e = -14;
+        } else {
+            x += 1.0;
+            e -= 15;
+        }
+        x = Math.scalb(x, e);
+        return sign == 1 ? -x : x;
+    }
+}
@@ -44,7 +44,9 @@ import static com.oracle.graal.python.nodes.SpecialMethodNames.__ENTER__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__EXIT__;
 
 import java.util.List;
+import java.util.concurrent.Semaphore;
 
+import com.oracle.graal.python.PythonLanguage;
 import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
@@ -59,6 +61,8 @@ import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
 import com.oracle.graal.python.runtime.PythonCore;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.CachedLanguage;
+import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
@@ -119,8 +123,36 @@ public class SemLockBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class GetNameNode extends PythonUnaryBuiltinNode {
         @Specialization
-        Object getName(@SuppressWarnings("unused") PSemLock self) {
-            return PNone.NONE;
+        Object getName(PSemLock self) {
+            String name = self.getName();
+            return name != null ? name : PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "_rebuild", minNumOfPositionalArgs = 5, parameterNames = {"cls", "handle", "kind", "maxvalue", "name"}, isClassmethod = true)
+    @GenerateNodeFactory
+    abstract static class RebuildNode extends PythonBuiltinNode {
+        @Specialization
+        PSemLock rebuild(Object cls, @SuppressWarnings("unused") Object handle, int kind, @SuppressWarnings("unused") Object maxvalue, String name,
+                        @CachedLanguage PythonLanguage lang) {
+            // named semaphores are shared by all contexts in the engine, so the child can simply
+            // look up the parent's semaphore
+            Semaphore semaphore = getSemaphore(lang, name);
+            if (semaphore == null) {
+                throw raise(PythonBuiltinClassType.FileNotFoundError, ErrorMessages.NO_SUCH_FILE_OR_DIR, "semaphores", name);
+            }
+            return factory().createSemLock(cls, name, kind, semaphore);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PSemLock rebuild(Object cls, Object handle, Object kind, Object maxvalue, Object name) {
+            throw raise(PythonBuiltinClassType.ValueError, ErrorMessages.CANNOT_REBUILD_UNLINKED_SEMLOCK);
+        }
+
+        @TruffleBoundary
+        private static Semaphore getSemaphore(PythonLanguage lang, String name) {
+            return lang.namedSemaphores.get(name);
         }
     }
 
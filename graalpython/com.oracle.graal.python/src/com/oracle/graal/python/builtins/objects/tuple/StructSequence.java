@@ -52,11 +52,11 @@ import com.oracle.graal.python.PythonLanguage;
 import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.objects.PNone;
-import com.oracle.graal.python.builtins.objects.common.HashMapStorage;
 import com.oracle.graal.python.builtins.objects.common.HashingStorage;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageLibrary;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.GetItemNode;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.ToArrayNode;
+import com.oracle.graal.python.builtins.objects.common.StringMapStorage;
 import com.oracle.graal.python.builtins.objects.dict.PDict;
 import com.oracle.graal.python.builtins.objects.function.PArguments;
 import com.oracle.graal.python.builtins.objects.function.PArguments.ThreadState;
@@ -339,7 +339,7 @@ public class StructSequence {
                 seq = factory().createTuple(data);
                 dict = factory().createDict();
             } else {
-                HashingStorage storage = new HashMapStorage(fieldNames.length - inSequence);
+                HashingStorage storage = new StringMapStorage(fieldNames.length - inSequence);
                 for (int i = inSequence; i < fieldNames.length; ++i) {
                     storage = hlib.setItem(storage, fieldNames[i], data[i]);
                 }
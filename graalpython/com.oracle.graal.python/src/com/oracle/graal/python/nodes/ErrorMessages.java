@@ -43,6 +43,7 @@ package com.oracle.graal.python.nodes;
 public abstract class ErrorMessages {
 
     public static final String ABSOLUTE_VALUE_TOO_LARGE = "absolute value too large";
+    public static final String ARG_1_MUST_HAVE_A_WRITE_METHOD = "argument 1 must have a \"write\" method";
     public static final String ARG_AFTER_MUST_BE_ITERABLE = "argument after * must be an iterable, not %p";
     public static final String ARG_AFTER_MUST_BE_MAPPING = "%s() argument after ** must be a mapping, not %p";
     public static final String ARG_CONVERTED_NOT_EXECUTABLE = "argument converted is not executable";
@@ -66,12 +67,15 @@ public abstract class ErrorMessages {
     public static final String ARG_SHOULD_NOT_EXCEED = "%s argument should not exceed %d";
     public static final String ARGS_CHANGED_DURING_ITERATION = "args changed during iteration";
     public static final String ARGS_MUST_HAVE_SAME_LENGTH = "%s arguments must have same length";
+    public static final String ARGUMENT_LIST_MUST_BE_A_TUPLE = "argument list must be a tuple";
     public static final String ARRAY_ASSIGN_OUT_OF_BOUNDS = "array assignment index out of range";
     public static final String ARRAY_OUT_OF_BOUNDS = "array index out of range";
     public static final String ARRAY_SIZE_TOO_LARGE = "array size too large";
     public static final String ATTEMP_TO_RELEASE_RECURSIVE_LOCK = "attempt to release recursive lock not owned by thread";
     public static final String ATTEMPT_TO_ASSIGN_SEQ_OF_SIZE_TO_SLICE_OF_SIZE = "attempt to assign sequence of size %d to extended slice of size %d";
     public static final String KEY_IN_S_MUST_BE_STRING = "Key in %s.%s must be str, not %p";
+    public static final String KEY_LENGTH_IS_TOO_GREAT = "key length is too great.";
+    public static final String KEY_LENGTH_MUST_BE_GREATER_THAN_ZERO = "key length must be greater than 0.";
     public static final String ITEM_IN_S_MUST_BE_STRING = "Item in %s.%s must be str, not %p";
     public static final String ATTR_NAME_MUST_BE_STRING = "attribute name must be string, not '%p'";
     public static final String ATTR_S_OF_S_IS_NOT_READABLE = "attribute %s of %s objects is not readable";
@@ -89,13 +93,16 @@ public abstract class ErrorMessages {
     public static final String BAD_MARSHAL_DATA = "bad marshal data";
     public static final String BAD_MEMBER_DESCR_TYPE_FOR_P = "bad memberdescr type for %p";
     public static final String BAD_OPERAND_FOR = "bad operand type for %s%s: '%p'";
+    public static final String BAD_QUOTING_VALUE = "bad \"quoting\" value";
     public static final String BAD_VALUES_IN_FDS_TO_KEEP = "bad value(s) in fds_to_keep";
     public static final String BASE_OUT_OF_RANGE_FOR_INT = "base is out of range for int()";
     public static final String BASES_MUST_BE_TYPES = "bases must be types";
     public static final String BASES_ITEM_CAUSES_INHERITANCE_CYCLE = "a __bases__ item causes an inheritance cycle";
     public static final String BOOL_SHOULD_RETURN_BOOL = "__bool__ should return bool, returned %p";
     public static final String BOTH_POINTS_MUST_HAVE_THE_SAME_NUMBER_OF_DIMENSIONS = "both points must have the same number of dimensions";
+    public static final String BUFFER_CALLBACK_NEEDS_PROTOCOL_5 = "buffer_callback needs protocol >= 5";
     public static final String BUFFER_INDICES_MUST_BE_INTS = "buffer indices must be integers, not %p";
+    public static final String BYTE_COUNT_EXCEEDS_MAXIMUM_FOR_S = "%s exceeds system's maximum size";
     public static final String BYTE_STR_IS_TOO_LARGE = "byte string is too large";
     public static final String BYTEARRAY_OUT_OF_BOUNDS = "bytearray index out of range";
     public static final String BYTEORDER_MUST_BE_LITTLE_OR_BIG = "byteorder must be either 'little' or 'big'";
@@ -135,6 +142,7 @@ public abstract class ErrorMessages {
     public static final String CANNOT_DELETE_MEMORY = "cannot delete memory";
     public static final String CANNOT_MODIFY_READONLY_MEMORY = "cannot modify read-only memory";
     public static final String CANNOT_EXTEND_INCOMPLETE_P = "Cannot extend an incomplete type '%p'";
+    public static final String CANNOT_EXTRACT_RAW_BUFFER_FROM_NON_CONTIGUOUS = "cannot extract raw buffer from non-contiguous buffer";
     public static final String CANNOT_FIT_P_INTO_INDEXSIZED_INT = "cannot fit '%p' into an index-sized integer";
     public static final String CANNOT_GET_SHAPE_OF_NATIVE_CLS = "cannot get shape of native class";
     public static final String CANNOT_GET_CONSISTEMT_METHOD_RESOLUTION = "Cannot create a consistent method resolution\norder (MRO) for bases %s";
@@ -147,6 +155,7 @@ public abstract class ErrorMessages {
     public static final String CANNOT_INITIALIZE_WITH = "cannot initialize %s with %s%s";
     public static final String CANNOT_LOAD = "cannot load %s: %s";
     public static final String CANNOT_LOAD_M = "cannot load %s: %m";
+    public static final String CANNOT_REBUILD_UNLINKED_SEMLOCK = "cannot rebuild a semaphore that was unlinked";
     public static final String CANNOT_RELEASE_UNAQUIRED_LOCK = "cannot release un-acquired lock";
     public static final String CANNOT_SPECIFY_BOTH_COMMA_AND_UNDERSCORE = "Cannot specify both ',' and '_'.";
     public static final String CANNOT_SPECIFY_C_WITH_C = "Cannot specify '%c' with '%c'.";
@@ -160,7 +169,18 @@ public abstract class ErrorMessages {
     public static final String CANT_EXTEND_JAVA_CLASS_NOT_JVM = "Java Class can be extended only in JVM mode.";
     public static final String CANT_EXTEND_JAVA_CLASS_NOT_TYPE = "Function extend needs a Java type as its argument not %p";
     public static final String CANT_FIND_MODULE = "can't find module '%s'";
+    public static final String CANT_GET_ATTRIBUTE_S_ON_S = "Can't get attribute %s on %s";
+    public static final String CANT_GET_LOCAL_ATTRIBUTE_S_ON_S = "Can't get local attribute %s on %s";
     public static final String CANT_MULTIPLY_SEQ_BY_NON_INT = "can't multiply sequence by non-int of type '%p'";
+    public static final String CANT_PICKLE_GLOBAL_IDENTIFIER_S_USING_PROTOCOL_D = "can't pickle global identifier '%s' using pickle protocol %d";
+    public static final String CANT_PICKLE_LOCAL_OBJECT_S = "Can't pickle local object %s";
+    public static final String CANT_PICKLE_MODULE_IDENTIFIER_S_USING_PROTOCOL_D = "can't pickle module identifier '%s' using pickle protocol %d";
+    public static final String CANT_PICKLE_P_OBJECT_S = "can't pickle '%p' object: %s";
+    public static final String CANT_PICKLE_S_ATTRIBUTE_LOOKUP_S_ON_S_FAILED = "Can't pickle %s: attribute lookup %s on %s failed";
+    public static final String CANT_PICKLE_S_EXTENSION_CODE_S_NOT_INT = "Can't pickle %s: extension code %s isn't an integer";
+    public static final String CANT_PICKLE_S_EXTENSION_CODE_S_OUT_OF_RANGE = "Can't pickle %s: extension code %s is out of range";
+    public static final String CANT_PICKLE_S_IMPORT_OF_MODULE_S_FAILED = "Can't pickle %s: import of module %s failed";
+    public static final String CANT_PICKLE_S_NOT_SAME_OBJECT_AS_S_S = "Can't pickle %s: it's not the same object as %s.%s";
     public static final String CANT_SET_S_S = "can't set %s.%s";
     public static final String CANT_SET_ATTRIBUTES_OF_TYPE = "can't set attributes of %s";
     public static final String CANT_SET_ATTRIBUTES_OF_TYPE_S = "can't set attributes of built-in/extension type '%s'";
@@ -182,6 +202,8 @@ public abstract class ErrorMessages {
     public static final String MUST_BE_SET_TO_S_NOT_P = "%s must be set to a %s, not a '%p'";
     public static final String CLASSPATH_ARG_MUST_BE_STRING = "classpath argument %d must be string, not %p";
     public static final String CODE_OBJ_NO_FREE_VARIABLES = "code object passed to %s may not contain free variables";
+    public static final String COMPAT_PICKLE_S_VALUES_SHOULD_BE_2_TUPLES_NOT_P = "_compat_pickle.%s values should be 2-tuples, not %p";
+    public static final String COMPAT_PICKLE_S_VALUES_SHOULD_BE_STRINGS_NOT_P = "_compat_pickle.%s values should be strings, not %p";
     public static final String COMPILE_MUST_BE = "compile() mode must be 'exec', 'eval' or 'single'";
     public static final String COMPLEX_ARG_IS_MALFORMED_STR = "complex() arg is a malformed string";
     public static final String COMPLEX_CANT_TAKE_ARG = "complex() can't take second arg if first is a string";
@@ -199,26 +221,34 @@ public abstract class ErrorMessages {
     public static final String COVERAGE_TRACKER_NOT_RUNNING = "coverage tracker not running";
     public static final String CREATING_SOCKETS_NOT_ALLOWED = "creating sockets not allowed";
     public static final String DEFAULT_EXCEPT_MUST_BE_LAST = "default 'except:' must be last";
+    public static final String DEPTH_MUST_BE_BETWEEN_1_AND_255 = "depth must be between 1 and 255";
     public static final String DESC_S_FOR_S_DOESNT_APPLY_TO_S = "descriptor '%s' for '%s' objects doesn't apply to '%s' object";
     public static final String DESCRIPTOR_REQUIRES_OBJ = "descriptor '%s' requires a '%s' object but received a '%p'";
     public static final String DESCRIPTOR_NEED_OBJ = "descriptor '%s' of '%s' object needs an argument";
+    public static final String DIALECT_NAME_MUST_BE_A_STRING = "dialect name must be a string";
     public static final String DICT_CHANGED_DURING_COMPARISON = "dictionary changed during comparison operation";
+    public static final String DICT_ITEMS_ITERATOR_MUST_RETURN_2_TUPLES = "dict items iterator must return 2-tuples";
     public static final String CHANGED_SIZE_DURING_ITERATION = "%s changed size during iteration";
     public static final String DICT_MUST_BE_SET_TO_DICT = "__dict__ must be set to a dictionary, not a '%p'";
     public static final String DICT_OF_P_OBJECTS_HAS_NO_ATTR = "'%p' dict of '%p' object has no attribute '__setitem__'";
     public static final String DICT_UPDATE_SEQ_ELEM_HAS_LENGTH_2_REQUIRED = "dictionary update sequence element #%d has length %d; 2 is required";
+    public static final String DIGEST_SIZE_MUST_BE_BETWEEN_1_AND_D_BYTES = "digest_size must be between 1 and %d bytes";
     public static final String DIVISION_BY_ZERO = "division by zero";
     public static final String S_DIVISION_BY_ZERO = "%s division by zero";
     public static final String S_DIVISION_OR_MODULO_BY_ZERO = "%s division or modulo by zero";
     public static final String SUPER_NO_CLASS = "super(): no arguments";
     public static final String SUPER_EMPTY_CLASS = "super(): empty __class__ cell";
     public static final String EMPTY_SEPARATOR = "empty separator";
+    public static final String S_MUST_BE_AN_INTEGER = "\"%s\" must be an integer";
+    public static final String S_MUST_BE_A_1_CHAR_STRING = "\"%s\" must be a 1-character string";
+    public static final String S_MUST_BE_A_STRING = "\"%s\" must be a string";
     public static final String S_MUST_BE_NONE_OR_STRING = "%s must be None or a string, not %p";
     public static final String ERROR_5_WHILE_DECOMPRESSING = "Error -5 while decompressing data: incomplete or truncated stream";
     public static final String ERROR_WRITING_FORKEXEC = "there was an error writing the fork_exec error to the error pipe";
     public static final String ERROR_CALLING_SET_NAME = "Error calling __set_name__ on '%p' instance '%s' in '%N'";
     public static final String ERRORS_WITHOUT_STR_ARG = "errors without a string argument";
     public static final String EXPORTS_CANNOT_RESIZE = "Existing exports of data: object cannot be re-sized";
+    public static final String EXTENSION_CODE_IS_NOT_POSITIVE = "EXT specifies code <= 0";
     public static final String ESTAR_FORMAT_SPECIFIERS_NOT_ALLOWED = "'e*' format specifiers are not supported";
     public static final String EXCEPTION_CAUSE_MUST_BE_NONE_OR_DERIVE_FROM_BASE_EX = "exception cause must be None or derive from BaseException";
     public static final String EXCEPTION_CAUSES_MUST_DERIVE_FROM_BASE_EX = "exception causes must derive from BaseException";
@@ -226,6 +256,7 @@ public abstract class ErrorMessages {
     public static final String EXCEPTIONS_MUST_DERIVE_FROM_BASE_EX = "exceptions must derive from BaseException";
     public static final String EXECV_ARG2_FIRST_ELEMENT_CANNOT_BE_EMPTY = "execv() arg 2 first element cannot be empty";
     public static final String EXPECTED_ARG_TYPES_S_S_BUT_NOT_P_P = "expected argument types (%s) or (%s) but not (%p, %p)";
+    public static final String EXPECTED_AT_LEAST_D_ARGS_GOT_D = "%s expected at least %d arguments, got %d";
     public static final String EXPECTED_AT_MOST_D_ARGS_GOT_D = "%s expected at most %d arguments, got %d";
     public static final String EXPECTED_BYTESLIKE_GOT_P = "expected a bytes-like object, %p found";
     public static final String EXPECTED_CHARACTER_BUT_STRING_FOUND = "%s expected a character, but string of length %d found";
@@ -235,21 +266,30 @@ public abstract class ErrorMessages {
     public static final String EXPECTED_S_NOT_P = "expected %s, not %p";
     public static final String EXPECTED_S_P_FOUND = "expected %s, %p found";
     public static final String EXPECTED_STR_BYTE_OSPATHLIKE_OBJ = "expected str, bytes or os.PathLike object, not %p";
+    public static final String EXPECTED_STR_OR_BYTESLIKE_OBJ = "expected string or bytes-like object";
+    public static final String EXPECTED_STR_INSTANCE_P = "expected str instance, %p found";
+    public static final String S_EXPECTED_AFTER_S = "'%s' expected after '%s'";
     public static final String S_EXPECTED_STRING_OF_LEN_BUT_P = "%s expected string of length %s, but %p found";
     public static final String EXPECTED_UNICODE_CHAR_NOT_P = "expected a unicode character, not %p";
     public static final String EXPONENT_TOO_LARGE = "exponent too large";
     public static final String FACTORIAL_NOT_DEFINED_FOR_NEGATIVE = "factorial() not defined for negative values";
+    public static final String FANOUT_MUST_BE_BETWEEN_0_AND_255 = "fanout must be between 0 and 255";
+    public static final String FAST_MODE_CANT_PICKLE_CYCLIC_OBJECTS = "fast mode: can't pickle cyclic objects including object type %p at %d";
     public static final String FD_IS_GREATER_THAN_MAXIMUM = "fd is greater than maximum";
     public static final String FD_IS_LESS_THAN_MINIMUM = "fd is less than minimum";
+    public static final String FIELD_LARGER_THAN_FIELD_LIMIT = "field larger than field limit (%d)";
     public static final String FILE_NOT_OPENED_FOR_READING = "file not opened for reading";
     public static final String FILE_OR_STREAM_IS_NOT_READABLE = "File or stream is not readable.";
     public static final String FILE_OR_STREAM_IS_NOT_SEEKABLE = "File or stream is not seekable.";
     public static final String FILE_OR_STREAM_IS_NOT_WRITABLE = "File or stream is not writable.";
     public static final String FILE_DESCRIPTOR_OUT_OF_RANGE_IN_SELECT = "filedescriptor out of range in select()";
+    public static final String FILE_MUST_HAVE_READ_AND_READLINE_ATTRS = "file must have 'read' and 'readline' attributes";
+    public static final String FILE_MUST_HAVE_WRITE_ATTR = "file must have a 'write' attribute";
     public static final String FILL_CHAR_MUST_BE_LENGTH_1 = "The fill character must be exactly one character long";
     public static final String FILTER_SPEC_MUST_BE_DICT = "Filter specifier must be a dict or dict-like object";
     public static final String FILTER_SPECIFIER_MUST_HAVE = "Filter specifier must have an \"id\" entry";
     public static final String FIRST_ARG_MUST_BE_CALLABLE = "first argument must be callable";
+    public static final String FIRST_ARG_MUST_BE_STRING_NOT_P = "first argument must be a string, not %p";
     public static final String FIRST_ARG_MUST_BE_S_OR_TUPLE_NOT_P = "%s first arg must be %s or a tuple of str, not %p";
     public static final String FIRST_TWO_MAKETRANS_ARGS_MUST_HAVE_EQ_LENGTH = "the first two maketrans arguments must have equal length";
     public static final String FLOAT_ARG_REQUIRED = "float argument required, not %p";
@@ -275,6 +315,7 @@ public abstract class ErrorMessages {
     public static final String GOT_UNEXPECTED_KEYWORD_ARG = "%s() got an unexpected keyword argument '%s'";
     public static final String HAS_NO_ATTR = "%s has no attribute %s";
     public static final String HASH_SHOULD_RETURN_INTEGER = "__hash__ method should return an integer";
+    public static final String HEAP_ARGUMENT_MUST_BE_A_LIST = "heap argument must be a list";
     public static final String HEX_VALUE_TOO_LARGE_AS_FLOAT = "hexadecimal value too large to represent as a float";
     public static final String HOST_ACCESS_NOT_ALLOWED = "host access is not allowed";
     public static final String HOST_LOOKUP_NOT_ALLOWED = "host lookup is not allowed";
@@ -325,6 +366,7 @@ public abstract class ErrorMessages {
     public static final String INVALID_INSTANTIATION_OF_FOREIGN_OBJ = "invalid instantiation of foreign object";
     public static final String INVALID_ITEM_RETURNED_FROM_NATIVE_SEQ = "Invalid item type %s returned from native sequence storage (expected: %s)";
     public static final String INVALID_LITERAL_FOR_INT_WITH_BASE = "invalid literal for int() with base %s: %s";
+    public static final String INVALID_LOAD_KEY_S = "invalid load key, '%s'.";
     public static final String INVALID_LOCALE_CATEGORY = "invalid locale category";
     public static final String INVALID_MRO_OBJ = "invalid mro object";
     public static final String INVALID_NORMALIZATION_FORM = "invalid normalization form";
@@ -349,24 +391,33 @@ public abstract class ErrorMessages {
     public static final String D_IS_NOT_IN_RANGE = "%d is not in range";
     public static final String INIT_TAKES_ONE_ARG = "%N.__init__() takes exactly one argument (the instance to initialize)";
     public static final String INIT_TAKES_ONE_ARG_OBJECT = "object.__init__() takes exactly one argument (the instance to initialize)";
+    public static final String INNER_SIZE_MUST_BE_BETWEEN_0_AND_D = "inner_size must be between 0 and is %d";
     public static final String INVALID_VALUE_NAN = "Invalid value NaN (not a number)";
     public static final String IS_NOT_SUBTYPE_OF = "%s.__new__(%N): %N is not a subtype of %s";
     public static final String IS_NOT_TYPE_OBJ = "%s is not a type object (%p)";
     public static final String ISINSTANCE_ARG_2_MUST_BE_TYPE_OR_TUPLE_OF_CLSS_WAS = "issubclass() arg 2 must be a class or tuple of classes";
     public static final String ISINSTANCE_ARG_2_MUST_BE_TYPE_OR_TUPLE_OF_TYPE = "isinstance() arg 2 must be a type or tuple of types (was: %s)";
     public static final String ISSUBCLASS_MUST_BE_CLASS_OR_TUPLE = "issubclass() arg 2 must be a class or tuple of classes";
+    public static final String ITERABLE_EXPECTED_NOT_P = "iterable expected, not %p";
+    public static final String ITERATION_VALUE_IS_TOO_GREAT = "iteration value is too great.";
+    public static final String ITERATION_VALUE_MUST_BE_GREATER_THAN_ZERO = "iteration value must be greater than 0.";
+    public static final String ITERATOR_SHOULD_RETURN_STRINGS_NOT_P = "iterator should return strings, not %p (did you open the file in text mode?)";
     public static final String ITER_V_MUST_BE_CALLABLE = "iter(v, w): v must be callable";
     public static final String KEYWORD_NAMES_MUST_BE_STR_GOT_P = "keyword names must be str, get %p";
     public static final String KEYWORDS_MUST_BE_STRINGS = "%s() keywords must be strings";
     public static final String KLASS_ARG_IS_NOT_HOST_OBJ = "klass argument '%p' is not a host object";
     public static final String LAZY_INITIALIZATION_FAILED = "lazy initialization of type %s failed";
+    public static final String LEAF_SIZE_IS_TOO_LARGE = "leaf_size is too large";
     public static final String LEFT_BRACKET_WO_RIGHT_BRACKET_IN_ARG = "')' without '(' in argument parsing";
     public static final String LEN_SHOULD_RETURN_MT_ZERO = "__len__() should return >= 0";
     public static final String LENGTH_HINT_SHOULD_RETURN_MT_ZERO = "__length_hint__() should return >= 0";
+    public static final String LENGTH_IS_TOO_LARGE = "length is too large";
     public static final String LIST_ASSIGMENT_INDEX_OUT_OF_RANGE = "list assignment index out of range";
     public static final String LIST_INDEX_OUT_OF_RANGE = "list index out of range";
     public static final String LIST_LENGTH_OUT_OF_RANGE = "list length out of range";
+    public static final String LIST_MODIFIED_DURING_SORT = "list modified during sort";
     public static final String LOCAL_VAR_REFERENCED_BEFORE_ASSIGMENT = "local variable '%s' referenced before assignment";
+    public static final String LONG_PICKLE_HAS_NEGATIVE_BYTE_COUNT = "LONG pickle has negative byte count";
     public static final String LOCALS_MUST_BE_MAPPING = "%s() locals must be a mapping or None, not %p";
     public static final String LOST_SYSBREAKPOINTHOOK = "lost sys.breakpointhook";
     public static final String LOST_SYSDISPLAYHOOK = "lost sys.displayhook";
@@ -374,11 +425,16 @@ public abstract class ErrorMessages {
     public static final String LENGTH_SHOULD_NOT_BE_NEG = "length should not be negative";
     public static final String MATH_DOMAIN_ERROR = "math domain error";
     public static final String MATH_RANGE_ERROR = "math range error";
+    public static final String MAXIMUM_KEY_LENGTH_IS_D_BYTES = "maximum key length is %d bytes";
+    public static final String MAXIMUM_PERSON_LENGTH_IS_D_BYTES = "maximum person length is %d bytes";
+    public static final String MAXIMUM_SALT_LENGTH_IS_D_BYTES = "maximum salt length is %d bytes";
     public static final String MAX_MARSHAL_STACK_DEPTH = "Maximum marshal stack depth";
+    public static final String MAX_RECURSION_DEPTH_EXCEEDED_WHILE_PICKLING = "maximum recursion depth exceeded while pickling an object";
     public static final String MEMORYVIEW_INVALID_SLICE_KEY = "memoryview: invalid slice key";
     public static final String MEMORYVIEW_A_BYTES_LIKE_OBJECT_REQUIRED_NOT_P = "memoryview: a bytes-like object is required, not '%p'";
     public static final String MEMORYVIEW_INVALID_VALUE_FOR_FORMAT_S = "memoryview: invalid value for format '%s'";
     public static final String MEMORYVIEW_SLICE_ASSIGNMENT_RESTRICTED_TO_DIM_1 = "memoryview slice assignments are currently restricted to ndim = 1";
+    public static final String MEMO_INDEX_TOO_LARGE = "memo index too large";
     public static final String MEMORYVIEW_DIFFERENT_STRUCTURES = "memoryview assignment: lvalue and rvalue have different structures";
     public static final String MEMORYVIEW_FORBIDDEN_RELEASED = "operation forbidden on released memoryview object";
     public static final String MEMORYVIEW_DESTINATION_FORMAT_ERROR = "memoryview: destination format must be a native single character format prefixed with an optional '@'";
@@ -427,18 +483,30 @@ public abstract class ErrorMessages {
     public static final String NAME_NOT_DEFINED = "name '%s' is not defined";
     public static final String NAMELESS_MODULE = "nameless module";
     public static final String NEED_BYTELIKE_OBJ = "decoding to str: need a bytes-like object, %p found";
+    public static final String NEED_TO_ESCAPE_BUT_NO_ESCAPECHAR_SET = "need to escape, but no escapechar set";
     public static final String NEG_INF_PLUS_INF_IN = "-inf + inf in fsum";
     public static final String NEGATIVE_COUNT = "negative count";
     public static final String NEGATIVE_DATA_SIZE = "negative data size";
+    public static final String NEGATIVE_PUT_ARGUMENT = "negative PUT argument";
     public static final String NEGATIVE_SHIFT_COUNT = "negative shift count";
+    public static final String NEWLINE_IN_UNQUOTED_FIELD = "new-line character seen in unquoted field - do you need to open the file in universal-newline mode?";
+    public static final String NEWOBJ_ARGLIST_IS_EMPTY = "__newobj__ arglist is empty";
+    public static final String NEWOBJ_ARGS0_HAS_WRONG_CLASS = "args[0] from __newobj__ args has the wrong class";
+    public static final String NEWOBJ_ARGS0_IS_NOT_A_TYPE = "args[0] from __newobj__ args is not a type";
+    public static final String NEWOBJ_EX_ARGS_LENGTH_MUST_BE_3_NOT_D = "length of the NEWOBJ_EX argument tuple must be exactly 3, not %d";
+    public static final String NEWOBJ_EX_KWARGS_MUST_BE_A_DICT = "NEWOBJ_EX kwargs argument must be a dict";
+    public static final String NEWOBJ_EX_S_ITEM_MUST_BE_S_NOT_P = "%s item from NEWOBJ_EX argument tuple must be %s, not %p";
     public static final String NEW_TAKES_ONE_ARG = "object.__new__() takes exactly one argument (the type to instantiate)";
     public static final String NEW_TAKES_NO_ARGS = "%N() takes no arguments";
+    public static final String NODE_DEPTH_MUST_BE_BETWEEN_0_AND_255 = "node_depth must be between 0 and 255";
+    public static final String NODE_OFFSET_IS_TOO_LARGE = "node_offset is too large";
     public static final String NO_ACTIVE_EX_TO_RERAISE = "No active exception to reraise";
     public static final String NO_ARGS = "%s: no arguments";
     public static final String NO_BINDING_FOR_NON_LOCAL = "no binding for nonlocal variable \"%s\" found";
     public static final String NO_CACHED_CODE = "no cached code for %s";
     public static final String NO_CURRENT_FRAME = "%s: no current frame";
     public static final String NO_FUNCTION_FOUND = "no function %s%s found in %s";
+    public static final String NO_PERSISTENT_LOAD_FUNCTION = "A load persistent id instruction was encountered, but no persistent_load function was specified.";
     public static final String NO_SUCH_FILE_OR_DIR = "No such file or directory: '%s:/%s'";
     public static final String NO_SUCH_NAME = "no such name";
     public static final String NONEMPTY_SLOTS_NOT_ALLOWED_FOR_SUBTYPE_OF_S = "nonempty __slots__ not supported for subtype of '%s'";
@@ -451,6 +519,7 @@ public abstract class ErrorMessages {
     public static final String NOT_ENOUGH_VALUES_TO_UNPACK = "not enough values to unpack (expected %d, got %d)";
     public static final String NOT_SUPPORTED_BETWEEN_INSTANCES = "'%s' not supported between instances of '%p' and '%p'";
     public static final String NUMBER_S_CANNOT_FIT_INTO_INDEXSIZED_INT = "number %s cannot fit into index-sized integer";
+    public static final String OBJECT_SUPPORTING_BUFFER_API_REQUIRED = "object supporting the buffer API required";
     public static final String OBJ_INDEX_MUST_BE_INT_OR_SLICES = "%s indices must be integers or slices, not %p";
     public static final String OBJ_CANNOT_BE_INTERPRETED_AS_INTEGER = "'%p' object cannot be interpreted as an int";
     public static final String OBJ_DOES_NOT_SUPPORT_INDEXING = "'%p' object does not support indexing";
@@ -467,10 +536,20 @@ public abstract class ErrorMessages {
     public static final String OBJ_P_HAS_NO_ATTR_S = "'%p' object has no attribute '%s'";
     public static final String OBJ_S_HAS_NO_ATTR_S = "'%s' object has no attribute '%s'";
     public static final String ODD_LENGTH_STRING = "Odd-length string";
+    public static final String ODD_NUMBER_OF_ITEMS_FOR_S = "odd number of items for %s";
     public static final String ONLY_ACCEPTS_INTEGRAL_VALUES = "%s only accepts integral values";
     public static final String ONLY_DEFLATED_ALLOWED_AS_METHOD = "only DEFLATED (%d) allowed as method, got %d";
     public static final String ORDER_MUST_BE_C_F_OR_A = "order must be 'C', 'F' or 'A'";
     public static final String PATH_SHOULD_BE_STR_BYTES_PATHLIKE_NOT_P = "path should be string, bytes, or os.PathLike, not %p";
+    public static final String PERSISTENT_IDS_IN_PROTOCOL_0_MUST_BE_ASCII = "persistent IDs in protocol 0 must be ASCII strings";
+    public static final String PICKLEBUFFER_NON_CONTIGUOUS = "PickleBuffer can not be pickled when pointing to a non-contiguous buffer";
+    public static final String PICKLEBUFFER_ONLY_WITH_PROTOCOL_5 = "PickleBuffer can only pickled with protocol >= 5";
+    public static final String PICKLED_STRING_NOT_QUOTED = "the STRING opcode argument must be quoted";
+    public static final String PICKLER_INIT_NOT_CALLED = "Pickler.__init__() was not called by %p.__init__()";
+    public static final String PICKLE_DATA_WAS_TRUNCATED = "pickle data was truncated";
+    public static final String PICKLE_OUTPUT_TOO_LARGE = "pickle output is too large";
+    public static final String PICKLE_PROTOCOL_MUST_BE_LE = "pickle protocol must be <= %d";
+    public static final String PICKLE_REFERS_TO_OUT_OF_BAND_DATA = "pickle stream refers to out-of-band data but no *buffers* argument was given";
     public static final String PACKED_IP_WRONG_LENGTH = "packed IP wrong length for %s";
     public static final String PACKET_IP_WRONG_LENGTH_FOR = "packed IP wrong length for %s";
     public static final String PATCHED_DATETIME_CLASS = "patched datetime class: %r";
@@ -485,9 +564,16 @@ public abstract class ErrorMessages {
     public static final String PYTHON_INT_TOO_LARGE_TO_CONV_TO = "Python int too large to convert to %s";
     public static final String PYTHON_INT_TOO_LARGE_TO_CONV_TO_C_TYPE = "Python int too large to convert to %s-byte C type";
     public static final String RANGE_OUT_OF_BOUNDS = "range index out of range";
+    public static final String RAN_OUT_OF_INPUT = "Ran out of input";
     public static final String READ_BYTE_OUT_OF_RANGE = "read byte out of range";
     public static final String READ_ONLY_BYTELIKE_OBJ = "read-only bytes-like object";
+    public static final String READ_SHOULD_HAVE_RETURNED_BYTES_NOT_P = "read() should have returned a bytes object, not '%p'";
     public static final String READ_WRITE_BYTELIKE_OBJ = "read-write bytes-like object";
+    public static final String REDUCE_FIRST_ITEM_MUST_BE_CALLABLE = "first item of the tuple returned by __reduce__ must be callable";
+    public static final String REDUCE_MUST_RETURN_STRING_OR_TUPLE = "__reduce__ must return a string or tuple";
+    public static final String REDUCE_SECOND_ITEM_MUST_BE_TUPLE = "second item of the tuple returned by __reduce__ must be a tuple";
+    public static final String REDUCE_S_ELEMENT_MUST_BE_S_NOT_P = "%s element of the tuple returned by __reduce__ must be %s, not %p";
+    public static final String REDUCE_TUPLE_MUST_CONTAIN_2_TO_6_ELEMENTS = "tuple returned by __reduce__ must contain 2 through 6 elements";
     public static final String READONLY_ATTRIBUTE = "readonly attribute";
     public static final String REQUIRES_CODE_OBJ = "%s() requires a code object with %d free vars, not %d";
     public static final String REQUIRES_INT_OR_CHAR = "%%%c requires int or char";
@@ -509,6 +595,7 @@ public abstract class ErrorMessages {
     public static final String RETURNED_NON_LONG = "%p.%s returned a non long (type %p)";
     public static final String RETURNED_NON_STRING = "%s returned non-string (type %p)";
     public static final String P_S_RETURNED_NON_STRING = "%p.%s returned non-string (type %p)";
+    public static final String QUOTECHAR_MUST_BE_SET_IF_QUOTING_ENABLED = "quotechar must be set if quoting enabled";
     public static final String RETURNED_NONBYTES = "%s returned non-bytes (type %p)";
     public static final String RETURNED_NULL_WO_SETTING_ERROR = "%s returned NULL without setting an error";
     public static final String RETURNED_RESULT_WITH_ERROR_SET = "%s returned a result with an error set";
@@ -516,6 +603,7 @@ public abstract class ErrorMessages {
     public static final String EMBEDDED_NULL_CHARACTER = "embedded null character";
     public static final String S_EMBEDDED_NULL_CHARACTER_IN_S = "%sembedded null character in %s";
     public static final String S_MUST_BE_S = "%s must be %s";
+    public static final String S_MUST_BE_STRING_NOT_P = "\"%s\" must be string, not %p";
     public static final String S_NOT_SUPPORTED = "%s not supported";
     public static final String S_S_SHOULD_BE_S_NOT_P = "%s%s should be %s, not %p";
     public static final String S_S_CONFLICTS_WITH_CLASS_VARIABLE = "'%s' in %s conflicts with class variable";
@@ -541,9 +629,11 @@ public abstract class ErrorMessages {
     public static final String SRC_CODE_CANNOT_CONTAIN_NULL_BYTES = "source code string cannot contain null bytes";
     public static final String DICT_SLOT_DISALLOWED_WE_GOT_ONE = "__dict__ slot disallowed: we already got one";
     public static final String WEAKREF_SLOT_DISALLOWED_WE_GOT_ONE = "__weakref__ slot disallowed: either we already got one, or __itemsize__ != 0";
+    public static final String STACK_GLOBAL_REQUIRES_STR = "STACK_GLOBAL requires str";
     public static final String STAR_WANTS_INT = "* wants int";
     public static final String TOO_MANY_DECIMAL_DIGITS_IN_FORMAT_STRING = "Too many decimal digits in format string";
     public static final String SLOTS_MUST_BE_IDENTIFIERS = "__slots__ must be identifiers";
+    public static final String SLOT_STATE_IS_NOT_A_DICTIONARY = "slot state is not a dictionary";
     public static final String STARRED_ASSIGMENT_MUST_BE_IN_LIST_OR_TUPLE = "starred assignment target must be in a list or tuple";
     public static final String STATE_VECTOR_INVALID = "state vector invalid.";
     public static final String STATE_VECTOR_MUST_BE_A_TUPLE = "state vector must be a tuple";
@@ -568,7 +658,9 @@ public abstract class ErrorMessages {
     public static final String TAKES_FROM_D_TO_D_POS_ARG_S_BUT_D_POS_ARG_S = "%s() takes from %d to %d positional argument%s but %d positional argument%s (and %d keyword-only argument%s) were given%s";
     public static final String TAKES_FROM_D_TO_D_POS_ARG_S_BUT_D_S_GIVEN_S = "%s() takes from %d to %d positional argument%s but %d %s given%s";
     public static final String TAKES_EXACTLY_D_ARGUMENTS_D_GIVEN = "%s() takes exactly %d arguments (%d given)";
+    public static final String TAKES_NO_ARGUMENTS_D_GIVEN = "%s() takes no arguments (%d given)";
     public static final String TAKES_NO_KEYWORD_ARGS = "%s takes no keyword arguments";
+    public static final String TAKES_NO_POSITIONAL_ARGS = "%s() takes no positional arguments";
     public static final String THROW_THIRD_ARG_MUST_BE_TRACEBACK = "throw() third argument must be a traceback object";
     public static final String TIMED_OUT = "timed out";
     public static final String TIMEOUT_VALUE_MUST_BE_POSITIVE = "timeout value must be positive";
@@ -591,11 +683,15 @@ public abstract class ErrorMessages {
     public static final String TYPE_DOESNT_SUPPORT_MRO_ENTRY_RESOLUTION = "type() doesn't support MRO entry resolution; use types.new_class()";
     public static final String UNAVAILABLE_ON_THIS_PLATFORM = "%s: %s unavailable on this platform";
     public static final String UNAVAILABLE_ON_THIS_PLATFORM_NO_FUNC = "%s unavailable on this platform";
+    public static final String UNEXPECTED_END_OF_DATA = "unexpected end of data";
     public static final String UNEXPECTED_KEYWORD_ARGS = "%s: unexpected keyword arguments";
+    public static final String UNEXPECTED_MARK_FOUND = "unexpected MARK found";
     public static final String UNHASHABLE_TYPE = "unhashable type: '%p'";
+    public static final String UNICODE_OBJECTS_MUST_BE_ENCODED_BEFORE_HASHING = "Unicode-objects must be encoded before hashing";
     public static final String UNINITIALIZED_S_OBJECT = "uninitialized classmethod object";
     public static final String UNKNOWN_ADDR_FAMILY = "unknown address family %d";
     public static final String UNKNOWN_ATTR = "Unknown attribute: '%s'";
+    public static final String UNKNOWN_DIALECT = "unknown dialect";
     public static final String UNKNOWN_ENCODING = "unknown encoding %s";
     public static final String UNKNOWN_ERROR_HANDLER = "unknown error handler name '%s'";
     public static final String UNKNOWN_FORMAT_CODE = "Unknown format code '%c' for object of type '%s'";
@@ -603,6 +699,7 @@ public abstract class ErrorMessages {
     public static final String UNRECOGNIZED_FLAGS = "compile(): unrecognised flags";
     public static final String UNRECOGNIZED_FORMAT_CHAR = "unrecognized format char in arguments parsing: %c";
     public static final String UNRECOGNIZED_KIND = "unrecognized kind";
+    public static final String UNREGISTERED_EXTENSION_CODE_D = "unregistered extension code %d";
     public static final String UNSIGNED_BYTE_INT_GREATER_THAN_MAX = "unsigned byte integer is greater than maximum";
     public static final String UNSIGNED_BYTE_INT_LESS_THAN_MIN = "unsigned byte integer is less than minimum";
     public static final String UNSUPPORTED_FORMAT_CHAR_AT_INDEX = "unsupported format character '%c' (0x%x) at index %d";
@@ -619,6 +716,7 @@ public abstract class ErrorMessages {
     public static final String UNSUPPORTED_TARGET_SIZE = "Unsupported target size: %d";
     public static final String UNSUPPORTED_USE_OF_SYS_EXECUTABLE = "internal error: unsupported use of sys.executable";
     public static final String UTIME_CANNOT_USE_DIR_FD_AND_FOLLOW_SYMLINKS = "utime: cannot use dir_fd and follow_symlinks together on this platform";
+    public static final String VALUE_MUST_BE_POSITIVE = "value must be positive";
     public static final String VALUE_TOO_LARGE_TO_FIT_INTO_INDEX = "value too large to fit into index-sized integer";
     public static final String WAS_NOT_POSSIBLE_TO_MARSHAL = "Was not possible to marshal";
     public static final String WAS_NOT_POSSIBLE_TO_MARSHAL_P = "Was not possible to marshal %p";
@@ -633,6 +731,7 @@ public abstract class ErrorMessages {
     public static final String POW_BASE_NOT_INVERTIBLE = "base is not invertible for the given modulus";
     public static final String POW_ZERO_CANNOT_RAISE_TO_NEGATIVE_POWER = "0.0 cannot be raised to a negative power";
     public static final String S_ALIGNMENT_FLAG_NOT_ALLOWED_FOR_COMPLEX_FMT = "'%c' alignment flag is not allowed in complex format specifier";
+    public static final String S_ARGS_ARGUMENT_MUST_BE_A_TUPLE = "%s args argument must be a tuple";
     public static final String EQUALS_ALIGNMENT_FLAG_NOT_ALLOWED_FOR_STRING_FMT = "'=' alignment not allowed in string format specifier";
     public static final String SIGN_NOT_ALLOWED_FOR_STRING_FMT = "Sign not allowed in string format specifier";
     public static final String ZERO_PADDING_NOT_ALLOWED_FOR_COMPLEX_FMT = "Zero padding is not allowed in complex format specifier";
@@ -641,6 +740,7 @@ public abstract class ErrorMessages {
     public static final String CANNOT_ENCODE_DOCSTR = "'utf-8' codec can't encode docstring '%s'";
     public static final String PRECISION_NOT_ALLOWED_FOR_INT = "Precision not allowed in integer format specifier";
     public static final String SIGN_NOT_ALLOWED_WITH_C_FOR_INT = "Sign not allowed with integer format specifier 'c'";
+    public static final String SINGLE_EMPTY_FIELD_RECORD_MUST_BE_QUOTED = "single empty field record must be quoted";
     public static final String ALTERNATE_NOT_ALLOWED_WITH_C_FOR_INT = "Alternate form (#) not allowed with integer format specifier 'c'";
     public static final String ALTERNATE_NOT_ALLOWED_WITH_STRING_FMT = "Alternate form (#) not allowed in string format specifier";
     public static final String CAPI_LOAD_ERROR = "Could not load C API from %s.";
@@ -649,10 +749,13 @@ public abstract class ErrorMessages {
     public static final String CANNOT_CONVERT_NEGATIVE_VALUE_TO_UNSIGNED_INT = "can't convert negative value to unsigned int";
     public static final String SEND_NON_NONE_TO_UNSTARTED_GENERATOR = "can't send non-None value to a just-started generator";
     public static final String UNSUPPORTED_FORMAT_STRING_PASSED_TO_P_FORMAT = "unsupported format string passed to %p.__format__";
+    public static final String UNSUPPORTED_HASH_TYPE = "unsupported hash type";
     public static final String ONLY_SINGLE_TARGET_CAN_BE_ANNOTATED = "only single target (not %s) can be annotated";
     public static final String ILLEGAL_TARGET_FOR_ANNOTATION = "illegal target for annotation";
     public static final String SLICE_INDICES_TYPE_ERROR = "slice indices must be integers or have an __index__ method";
     public static final String UNMAPPABLE_CHARACTER = "unmappable character";
+    public static final String UNPICKLER_INIT_NOT_CALLED = "Unpickler.__init__() was not called by %p.__init__()";
+    public static final String UNPICKLING_STACK_UNDERFLOW = "unpickling stack underflow";
     public static final String MALFORMED_INPUT = "malformed input";
     public static final String SHOULD_HAVE_RETURNED_EXCEPTION = "calling %N should have returned an instance of BaseException, not %p";
     public static final String STRING_KEYS_MUST_BE_LENGTH_1 = "string keys in translate table must be of length 1";
@@ -672,6 +775,7 @@ public abstract class ErrorMessages {
     public static final String NO_CIPHER_CAN_BE_SELECTED = "No cipher can be selected.";
     public static final String HANDSHAKE_NOT_DONE_YET = "handshake not done yet";
     public static final String S_CHANNEL_BINDING_NOT_IMPLEMENTED = "'%s' channel binding type not implemented";
+    public static final String S_CLASS_ARGUMENT_ISNT_A_TYPE_OBJECT = "%s class argument isn't a type object";
     public static final String SSL_WANT_READ = "The operation did not complete (read)";
     public static final String SSL_WANT_WRITE = "The operation did not complete (write)";
     public static final String SSL_ERROR_EOF = "EOF occurred in violation of protocol";
@@ -679,11 +783,13 @@ public abstract class ErrorMessages {
     public static final String CA_FILE_PATH_DATA_CANNOT_BE_ALL_OMMITED = "cafile, capath and cadata cannot be all omitted";
     public static final String EMPTY_CERTIFICATE_DATA = "Empty certificate data";
     public static final String NOT_ENOUGH_DATA = "not enough data";
+    public static final String NOT_ENOUGH_OUT_OF_BAND_BUFFERS = "not enough out-of-band buffers";
     public static final String KEY_VALUES_MISMATCH = "[X509: KEY_VALUES_MISMATCH] key values mismatch";
     public static final String BAD_BASE64_DECODE = "[PEM: BAD_BASE64_DECODE] bad base64 decode";
     public static final String NO_CERTIFICATE_OR_CRL_FOUND = "[X509: NO_CERTIFICATE_OR_CRL_FOUND] no certificate or crl found";
     public static final String CERTIFICATE_VERIFY_FAILED = "[SSL: CERTIFICATE_VERIFY_FAILED] certificate verify failed: %s";
     public static final String CONTEXT_DOESNT_SUPPORT_MIN_MAX = "The context's protocol doesn't support modification of highest and lowest version.";
+    public static final String UNSUPPORTED_PICKLE_PROTOCOL_D = "unsupported pickle protocol: %d";
     public static final String UNSUPPORTED_PROTOCOL_VERSION = "Unsupported protocol version 0x%x";
     public static final String CANNOT_SET_VERIFY_MODE_TO_CERT_NONE = "Cannot set verify_mode to CERT_NONE when check_hostname is enabled.";
     public static final String INVALID_OR_UNSUPPORTED_PROTOCOL_VERSION = "invalid or unsupported protocol version: %s";
@@ -698,6 +804,7 @@ public abstract class ErrorMessages {
     public static final String MMAP_S_IS_GREATER_THAN_FILE_SIZE = "mmap %s is greater than file size";
     public static final String TOO_MANY_REMAINING_BYTES_TO_BE_STORED = "There are too many remaining bytes to be stored in a bytes object.";
     public static final String MMAP_CANNOT_MODIFY_READONLY_MEMORY = "mmap can't modify a readonly memory map.";
+    public static final String MMAP_CLOSED_OR_INVALID = "mmap closed or invalid";
     public static final String DATA_OUT_OF_RANGE = "data out of range";
 
     // zlib errors
@@ -728,6 +835,9 @@ public abstract class ErrorMessages {
     public static final String COMPRESSED_FILE_ENDED_BEFORE_EOS = "Compressed file ended before the logical end-of-stream was detected";
     public static final String INVALID_SEQUENCE_OF_COMMANDS = "Internal error - Invalid sequence of commands sent to libbzip2";
     public static final String LIBBZIP2_WAS_NOT_COMPILED_CORRECTLY = "libbzip2 was not compiled correctly";
+    public static final String LIMIT_MUST_BE_AN_INTEGER = "limit must be an integer";
+    public static final String LINETERMINATOR_MUST_BE_SET = "lineterminator must be set";
+    public static final String LINE_CONTAINS_NUL = "line contains NUL";
     public static final String UNRECOGNIZED_ERROR_FROM_LIBBZIP2_D = "Unrecognized error from libbzip2: %d";
 
     // lzma errors
@@ -758,6 +868,7 @@ public abstract class ErrorMessages {
     public static final String CANNOT_USE_CLOSEFD = "Cannot use closefd=False with file name";
     public static final String EXPECTED_INT_FROM_OPENER = "expected integer from opener";
     public static final String OPENER_RETURNED_D = "opener returned %d";
+    public static final String OP_FORBIDDEN_ON_RELEASED_PICKLEBUFFER = "operation forbidden on released PickleBuffer object";
     public static final String FILE_NOT_OPEN_FOR_S = "File not open for %s";
     public static final String UNBOUNDED_READ_RETURNED_MORE_BYTES = "unbounded read returned more bytes than a Python bytes object can hold";
     public static final String INVALID_MODE_S = "invalid mode: %s";
@@ -770,6 +881,7 @@ public abstract class ErrorMessages {
     public static final String CAN_T_DO_NONZERO_CUR_RELATIVE_SEEKS = "can't do nonzero cur-relative seeks";
     public static final String CAN_T_DO_NONZERO_END_RELATIVE_SEEKS = "can't do nonzero end-relative seeks";
     public static final String INVALID_WHENCE_D_SHOULD_BE_D_D_OR_D = "invalid whence (%d, should be %d, %d or %d)";
+    public static final String INVERTED_REGISTRY_D_ISNT_A_2_TUPLE_OF_STRINGS = "_inverted_registry[%d] isn't a 2-tuple of strings";
     public static final String NEGATIVE_SEEK_POSITION_D = "negative seek position %d";
     public static final String UNDERLYING_READ_SHOULD_HAVE_RETURNED_A_BYTES_OBJECT_NOT_S = "underlying read() should have returned a bytes object, not '%s'";
     public static final String S_SHOULD_HAVE_RETURNED_A_STR_OBJECT_NOT_P = "%s() should have returned a str object, not '%p'";
@@ -780,6 +892,8 @@ public abstract class ErrorMessages {
     public static final String ILLEGAL_DECODER_STATE = "illegal decoder state";
     public static final String ILLEGAL_DECODER_STATE_THE_FIRST = "illegal decoder state: the first item should be a bytes object, not '%p'";
     public static final String A_STRICTLY_POSITIVE_INTEGER_IS_REQUIRED = "a strictly positive integer is required";
+    public static final String SWITCH_INTERVAL_MUST_BE_POSITIVE = "switch interval must be strictly positive";
+    public static final String SWITCH_INTERVAL_TOO_LARGE = "switch interval is too large";
     public static final String NEW_POSITION_TOO_LARGE = "new position too large";
     public static final String NEGATIVE_SIZE_VALUE_D = "negative size value %d";
     public static final String INVALID_WHENCE_D_SHOULD_BE_0_1_OR_2 = "invalid whence (%d, should be 0, 1 or 2)";
@@ -791,15 +905,18 @@ public abstract class ErrorMessages {
     public static final String ILLEGAL_NEWLINE_VALUE_S = "illegal newline value: %s";
     public static final String S_SHOULD_HAVE_RETURNED_A_BYTES_LIKE_OBJECT_NOT_P = "underlying %s() should have returned a bytes-like object, not '%p'";
     public static final String COULD_NOT_DETERMINE_DEFAULT_ENCODING = "could not determine default encoding";
+    public static final String COULD_NOT_FIND_MARK = "could not find MARK";
     public static final String INVALID_BUFFERING_SIZE = "invalid buffering size";
     public static final String UNKNOWN_MODE_S = "unknown mode: '%s'";
     public static final String CAN_T_HAVE_TEXT_AND_BINARY_MODE_AT_ONCE = "can't have text and binary mode at once";
     public static final String MODE_U_CANNOT_BE_COMBINED_WITH_X_W_A_OR = "mode U cannot be combined with 'x', 'w', 'a', or '+'";
     public static final String MUST_HAVE_EXACTLY_ONE_OF_CREATE_READ_WRITE_APPEND_MODE = "must have exactly one of create/read/write/append mode";
     public static final String BINARY_MODE_DOESN_T_TAKE_AN_S_ARGUMENT = "binary mode doesn't take an %s argument";
+    public static final String BINSTRING_PICKLE_HAS_NEGATIVE_BYTE_COUNT = "BINSTRING pickle has negative byte count";
     public static final String CAN_T_HAVE_UNBUFFERED_TEXT_IO = "can't have unbuffered text I/O";
     public static final String ILLEGAL_STATE_ARGUMENT = "illegal state argument";
     public static final String STATE_ARGUMENT_MUST_BE_A_TUPLE = "state argument must be a tuple";
+    public static final String STATE_IS_NOT_A_DICTIONARY = "state is not a dictionary";
     public static final String REENTRANT_CALL_INSIDE_S_REPR = "reentrant call inside %s.__repr__";
     public static final String EXISTING_EXPORTS_OF_DATA_OBJECT_CANNOT_BE_RE_SIZED = "Existing exports of data: object cannot be re-sized";
     public static final String SECOND_ITEM_OF_STATE_MUST_BE_AN_INTEGER_NOT_P = "second item of state must be an integer, not %p";
@@ -811,6 +928,73 @@ public abstract class ErrorMessages {
     public static final String DEQUE_INDEX_OUT_OF_RANGE = "deque index out of range";
     public static final String CAN_ONLY_CONCATENATE_DEQUE_NOT_P_TO_DEQUE = "can only concatenate deque (not \"%p\") to deque";
 
+    // struct errors
+    public static final String BAD_CHAR_IN_STRUCT_FORMAT = "bad char in struct format";
+    public static final String REPEAT_COUNT_WITHOUT_FMT = "repeat count given without format specifier";
+    public static final String STRUCT_SIZE_TOO_LONG = "total struct size too long";
+    public static final String STRUCT_ARG_MUST_BE_STR_OR_BYTES = "Struct() argument 1 must be a str or bytes object, not %p";
+    public static final String STRUCT_ARG_NOT_AN_INTEGER = "required argument is not an integer";
+    public static final String STRUCT_ARG_NOT_A_FLOAT = "required argument is not a float";
+    public static final String STRUCT_ARG_OUT_OF_RANGE = "argument out of range";
+    public static final String STRUCT_INT_TOO_LARGE = "int too large to convert";
+    public static final String STRUCT_BYTE_FORMAT_RANGE = "byte format requires -128 <= number <= 127";
+    public static final String STRUCT_UBYTE_FORMAT_RANGE = "ubyte format requires 0 <= number <= 255";
+    public static final String STRUCT_SHORT_FORMAT_RANGE = "short format requires -32768 <= number <= 32767";
+    public static final String STRUCT_USHORT_FORMAT_RANGE = "ushort format requires 0 <= number <= 65535";
+    public static final String STRUCT_FMT_REQUIRES_RANGE = "'%c' format requires %d <= number <= %d";
+    public static final String STRUCT_FMT_REQUIRES_UNSIGNED_RANGE = "'%c' format requires 0 <= number <= %d";
+    public static final String STRUCT_CHAR_FORMAT_REQUIRES_BYTES = "char format requires a bytes object of length 1";
+    public static final String STRUCT_ARG_FOR_S_MUST_BE_BYTES = "argument for '%c' must be a bytes object";
+    public static final String STRUCT_FLOAT_TOO_LARGE_TO_PACK = "float too large to pack with %c format";
+    public static final String STRUCT_UNPACK_REQUIRES_N_BYTES = "unpack requires a buffer of %d bytes";
+    public static final String STRUCT_NOT_ENOUGH_DATA_TO_UNPACK = "not enough data to unpack %d bytes at offset %d";
+    public static final String STRUCT_OFFSET_OUT_OF_RANGE = "offset %d out of range for %d-byte buffer";
+    public static final String STRUCT_UNPACK_FROM_REQUIRES_N_BYTES = "unpack_from requires a buffer of at least %d bytes for unpacking %d bytes at offset %d (actual buffer size is %d)";
+    public static final String STRUCT_PACK_EXPECTED_N_ITEMS_GOT_K = "pack expected %d items for packing (got %d)";
+    public static final String STRUCT_PACK_INTO_EXPECTED_BUFFER_ARG = "pack_into expected buffer argument";
+    public static final String STRUCT_PACK_INTO_EXPECTED_OFFSET_ARG = "pack_into expected offset argument";
+    public static final String STRUCT_PACK_INTO_EXPECTED_N_ITEMS_GOT_K = "pack_into expected %d items for packing (got %d)";
+    public static final String STRUCT_NO_SPACE_TO_PACK_N_BYTES = "no space to pack %d bytes at offset %d";
+    public static final String STRUCT_PACK_INTO_REQUIRES_N_BYTES = "pack_into requires a buffer of at least %d bytes for packing %d bytes at offset %d (actual buffer size is %d)";
+    public static final String STRUCT_ITER_CANNOT_UNPACK_FROM_STRUCT_OF_SIZE_0 = "cannot iteratively unpack with a struct of length 0";
+    public static final String STRUCT_ITER_UNPACK_REQ_A_BUFFER_OF_A_MUL_OF_BYTES = "iterative unpacking requires a buffer of a multiple of %d bytes";
+
+    // itertools errors
+    public static final String ITERTOOLS_LEN_OF_UNSIZED_OBJECT = "len() of unsized object";
+    public static final String ITERTOOLS_STATE_IS_NOT_A_TUPLE = "state is not a tuple";
+    public static final String ITERTOOLS_STATE_IS_NOT_A_LENGTH_1_OR_2_TUPLE = "state is not a length 1 or 2 tuple";
+    public static final String ITERTOOLS_ARGUMENTS_MUST_BE_ITERATORS = "Arguments must be iterators.";
+    public static final String ITERTOOLS_INVALID_ARGUMENTS = "invalid arguments";
+    public static final String ITERTOOLS_INVALID_ARGUMENTS_TEE = "Invalid arguments";
+    public static final String ITERTOOLS_ISLICE_STOP_MUST_BE_NONE_OR_INT = "Stop argument for islice() must be None or an integer: 0 <= x <= sys.maxsize.";
+    public static final String ITERTOOLS_ISLICE_INDICES_MUST_BE_NONE_OR_INT = "Indices for islice() must be None or an integer: 0 <= x <= sys.maxsize.";
+    public static final String ITERTOOLS_ISLICE_STEP_MUST_BE_POSITIVE_INT_OR_NONE = "Step for islice() must be a positive integer or None.";
+    public static final String ITERTOOLS_A_NUMBER_IS_REQUIRED = "a number is required";
+    public static final String ITERTOOLS_EXPECTED_INT_AS_R = "Expected int as r";
+    public static final String ITERTOOLS_REPEAT_ARGUMENT_CANNOT_BE_NEGATIVE = "repeat argument cannot be negative";
+    public static final String ITERTOOLS_REPEAT_ARGUMENT_TOO_LARGE = "repeat argument too large";
+    public static final String ITERTOOLS_N_MUST_BE_AT_LEAST_ZERO = "n must be >= 0";
+    public static final String ITERTOOLS_CANNOT_REENTER_TEE_ITERATOR = "cannot re-enter the tee iterator";
+    public static final String ITERTOOLS_INDEX_OUT_OF_RANGE = "Index out of range";
+    public static final String ITERTOOLS_GROUPER_ARG_MUST_BE_GROUPBY = "_grouper() argument 1 must be itertools.groupby, not %p";
+    public static final String ITERTOOLS_TEE_ARG_MUST_BE_TEE_DATAOBJECT = "_tee.__setstate__() argument 1 must be itertools._tee_dataobject, not %p";
+    public static final String ITERTOOLS_CYCLE_STATE_MUST_BE_LIST = "cycle.__setstate__() argument 1 must be list, not %p";
+
+    // functools errors
+    public static final String FUNCTOOLS_THE_FIRST_ARGUMENT_MUST_BE_CALLABLE = "the first argument must be callable";
+    public static final String FUNCTOOLS_TYPE_PARTIAL_TAKES_AT_LEAST_ONE_ARGUMENT = "type 'partial' takes at least one argument";
+    public static final String FUNCTOOLS_REDUCE_OF_EMPTY_SEQUENCE = "reduce() of empty sequence with no initial value";
+    public static final String FUNCTOOLS_ARGUMENT_TO_SETSTATE_MUST_BE_A_TUPLE = "argument to __setstate__ must be a tuple";
+    public static final String FUNCTOOLS_EXPECTED_4_ITEMS_IN_STATE = "expected 4 items in state, got %d";
+    public static final String FUNCTOOLS_INVALID_PARTIAL_STATE = "invalid partial state";
+    public static final String FUNCTOOLS_MAXSIZE_SHOULD_BE_INTEGER_OR_NONE = "maxsize should be integer or None";
+
+    // select errors
+    public static final String SELECT_CONCURRENT_POLL_INVOCATION = "concurrent poll() invocation";
+    public static final String SELECT_IO_ON_CLOSED_EPOLL = "I/O operation on closed epoll object";
+    public static final String SELECT_MAXEVENTS_MUST_BE_GREATER_THAN_ZERO = "maxevents must be greater than 0, got %d";
+    public static final String SELECT_NEGATIVE_SIZEHINT = "negative sizehint";
+
     // pickle errors
     public static final String CANNOT_PICKLE_OBJECT_TYPE = "cannot pickle '%p' object";
 
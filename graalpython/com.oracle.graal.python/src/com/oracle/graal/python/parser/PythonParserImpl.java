@@ -184,6 +184,16 @@ public final class PythonParserImpl implements PythonParser, PythonCodeSerialize
     @Override
     @TruffleBoundary
     public RootNode deserialize(byte[] data, String[] cellvars, String[] freevars) {
+        return deserialize(null, data, cellvars, freevars);
+    }
+
+    @Override
+    @TruffleBoundary
+    public RootNode deserialize(Source givenSource, byte[] data) {
+        return deserialize(givenSource, data, null, null);
+    }
+
+    private RootNode deserialize(Source givenSource, byte[] data, String[] cellvars, String[] freevars) {
         assert data.length > 0 : "should be caught earlier";
 
         ByteArrayInputStream bais = new ByteArrayInputStream(data);
@@ -205,7 +215,12 @@ public final class PythonParserImpl implements PythonParser, PythonCodeSerialize
             globalScope = ScopeInfo.read(dis, null);
             int offset = dis.readInt();
 
-            if (path.isEmpty() || offset != 0) {
+            if (givenSource != null) {
+                if (givenSource.getLength() != contents.length()) {
+                    throw PythonLanguage.getCore().raise(PythonBuiltinClassType.ValueError, "Bad data of serialization");
+                }
+                source = givenSource;
+            } else if (path.isEmpty() || offset != 0) {
                 source = Source.newBuilder(PythonLanguage.ID, contents, name).build();
             } else {
                 source = Source.newBuilder(PythonLanguage.ID, PythonLanguage.getContext().getEnv().getPublicTruffleFile(path)).content(contents).name(name).build();
@@ -49,6 +49,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
@@ -159,7 +160,6 @@ public class AsyncHandler {
     private final ConcurrentLinkedQueue<AsyncAction> scheduledActions = new ConcurrentLinkedQueue<>();
     private ThreadLocal<Boolean> recursionGuard = new ThreadLocal<>();
     private static final int ASYNC_ACTION_DELAY = 15; // chosen by a fair D20 dice roll
-    private static final int GIL_RELEASE_DELAY = 10;
 
     private class AsyncRunnable implements Runnable {
         private final Supplier<AsyncAction> actionSupplier;
@@ -242,13 +242,39 @@ public class AsyncHandler {
 
     void activateGIL() {
         CompilerAsserts.neverPartOfCompilation();
-        executorService.scheduleWithFixedDelay(() -> {
+        scheduleGilRelease();
+    }
+
+    /**
+     * The GIL release request is rescheduled after every tick rather than run at a fixed rate, so
+     * that changes of the switch interval take effect immediately.
+     */
+    private void scheduleGilRelease() {
+        PythonContext ctx = context.get();
+        if (ctx == null || executorService.isShutdown()) {
+            return;
+        }
+        try {
+            executorService.schedule(this::requestGilRelease, ctx.getSwitchIntervalNanos(), TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // we are shutting down
+        }
+    }
+
+    private void requestGilRelease() {
+        PythonContext ctx = context.get();
+        if (ctx == null) {
+            return;
+        }
+        // handing off the GIL is pointless if no other thread is waiting for it
+        if (ctx.gilHasQueuedThreads()) {
             if ((scheduledActionsFlags & SHOULD_RELEASE_GIL) != 0) {
-                // didn't release the gil at all in the last GIL_RELEASE_DELAY timeframe. Panic.
+                // didn't release the gil at all in the last switch interval. Panic.
                 needsAdditionalSafepointExecution = true;
             }
             scheduledActionsFlags |= SHOULD_RELEASE_GIL;
-        }, GIL_RELEASE_DELAY, GIL_RELEASE_DELAY, TimeUnit.MILLISECONDS);
+        }
+        scheduleGilRelease();
     }
 
     void triggerAsyncActions() {
@@ -285,8 +311,9 @@ public class AsyncHandler {
         if (ctx == null) {
             return;
         }
+        long switchNumber = ctx.getGilSwitchNumber();
         try (GilNode.UncachedRelease gil = GilNode.uncachedRelease()) {
-            Thread.yield();
+            ctx.awaitGilSwitch(switchNumber);
         }
     }
 
@@ -51,6 +51,7 @@ import static com.oracle.graal.python.runtime.PosixConstants.LOCK_NB;
 import static com.oracle.graal.python.runtime.PosixConstants.LOCK_SH;
 import static com.oracle.graal.python.runtime.PosixConstants.LOCK_UN;
 import static com.oracle.graal.python.runtime.PosixConstants.MAP_ANONYMOUS;
+import static com.oracle.graal.python.runtime.PosixConstants.MAP_PRIVATE;
 import static com.oracle.graal.python.runtime.PosixConstants.O_ACCMODE;
 import static com.oracle.graal.python.runtime.PosixConstants.O_APPEND;
 import static com.oracle.graal.python.runtime.PosixConstants.O_CREAT;
@@ -65,7 +66,6 @@ import static com.oracle.graal.python.runtime.PosixConstants.O_TRUNC;
 import static com.oracle.graal.python.runtime.PosixConstants.O_WRONLY;
 import static com.oracle.graal.python.runtime.PosixConstants.PROT_EXEC;
 import static com.oracle.graal.python.runtime.PosixConstants.PROT_NONE;
-import static com.oracle.graal.python.runtime.PosixConstants.PROT_READ;
 import static com.oracle.graal.python.runtime.PosixConstants.PROT_WRITE;
 import static com.oracle.graal.python.runtime.PosixConstants.R_OK;
 import static com.oracle.graal.python.runtime.PosixConstants.SEEK_CUR;
@@ -112,8 +112,11 @@ import java.io.OutputStream;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ReadOnlyBufferException;
 import java.nio.channels.Channel;
 import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.nio.channels.FileLock;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.SeekableByteChannel;
@@ -173,10 +176,8 @@ import com.oracle.graal.python.runtime.PosixSupportLibrary.UnsupportedPosixFeatu
 import com.oracle.graal.python.runtime.exception.PythonExitException;
 import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
 import com.oracle.graal.python.util.FileDeleteShutdownHook;
-import com.oracle.graal.python.util.OverflowException;
 import com.oracle.graal.python.util.PythonUtils;
 import com.oracle.truffle.api.CompilerAsserts;
-import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.TruffleFile;
 import com.oracle.truffle.api.TruffleFile.Attributes;
@@ -260,6 +261,8 @@ public final class EmulatedPosixSupport extends PosixResources {
                     new PosixFilePermission[]{PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE, PosixFilePermission.OWNER_EXECUTE},
     };
 
+    private static final String SHM_DIR = "/dev/shm";
+
     private final ConcurrentHashMap<String, String> environ = new ConcurrentHashMap<>();
     private int currentUmask = 0022;
     private boolean hasDefaultUmask = true;
@@ -413,6 +416,30 @@ public final class EmulatedPosixSupport extends PosixResources {
         return new Buffer(array.getInternalByteArray(), array.length());
     }
 
+    @ExportMessage
+    public long readInto(int fd, byte[] buffer, int offset, int length,
+                    @Shared("channelClass") @Cached("createClassProfile()") ValueProfile channelClassProfile,
+                    @Shared("errorBranch") @Cached BranchProfile errorBranch) throws PosixException {
+        Channel channel = getFileChannel(fd, channelClassProfile);
+        if (!(channel instanceof ReadableByteChannel)) {
+            errorBranch.enter();
+            throw posixException(OSErrorEnum.EBADF);
+        }
+        try {
+            return doReadIntoOp(buffer, offset, length, (ReadableByteChannel) channel);
+        } catch (Exception e) {
+            errorBranch.enter();
+            throw posixException(OSErrorEnum.fromException(e));
+        }
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    private static int doReadIntoOp(byte[] buffer, int offset, int length, ReadableByteChannel channel) throws IOException {
+        int n = channel.read(ByteBuffer.wrap(buffer, offset, Math.min(length, ReadFromChannelNode.MAX_READ)));
+        // end of stream is reported as -1 by the channel, but as 0 by read(2)
+        return n < 0 ? 0 : n;
+    }
+
     @Override
     @ExportMessage
     public int dup(int fd) {
@@ -1974,82 +2001,198 @@ public final class EmulatedPosixSupport extends PosixResources {
         }
     }
 
+    /**
+     * An emulated memory mapping. File mappings are backed by {@link MappedByteBuffer}s created by
+     * {@link FileChannel#map}, anonymous mappings by heap buffers. Since a single buffer is limited
+     * to {@code int} indices, larger mappings are split into chunks of {@link #CHUNK_SIZE} bytes.
+     * If the file system does not give us a {@link FileChannel}, we fall back to positioned reads
+     * and writes on the channel.
+     */
     public static final class MMapHandle {
         private static final MMapHandle NONE = new MMapHandle(null, 0);
+
+        private static final int CHUNK_SHIFT = 30;
+        private static final long CHUNK_SIZE = 1L << CHUNK_SHIFT;
+        private static final long CHUNK_MASK = CHUNK_SIZE - 1;
+
         private SeekableByteChannel channel;
+        private ByteBuffer[] chunks;
         private final long offset;
+        private boolean closed;
 
         public MMapHandle(SeekableByteChannel channel, long offset) {
             this.channel = channel;
             this.offset = offset;
         }
 
-        @Override
-        public String toString() {
-            CompilerAsserts.neverPartOfCompilation();
-            return String.format("Emulated mmap [channel=%s, offset=%d]", channel, offset);
+        MMapHandle(ByteBuffer[] chunks) {
+            this.chunks = chunks;
+            this.offset = 0;
         }
-    }
 
-    private static final class AnonymousMap implements SeekableByteChannel {
-        private final byte[] data;
+        /**
+         * Fails with "mmap closed or invalid" once the handle is unmapped. The accessors call this
+         * while holding the monitor of the handle, which {@link #unmap} takes as well, so a
+         * concurrent unmap cannot release the chunks or the channel in the middle of an access.
+         */
+        private void checkValid() throws PosixException {
+            if (closed) {
+                throw new PosixException(OSErrorEnum.EBADF.getNumber(), ErrorMessages.MMAP_CLOSED_OR_INVALID);
+            }
+        }
 
-        private boolean open = true;
-        private int cur;
+        @TruffleBoundary
+        synchronized byte readByte(long index) throws PosixException {
+            checkValid();
+            if (chunks == null) {
+                ByteBuffer buffer = ByteBuffer.allocate(1);
+                if (readChannel(index, buffer) <= 0) {
+                    throw posixException(OSErrorEnum.ENODATA);
+                }
+                return buffer.get(0);
+            }
+            int chunkIdx = (int) (index >>> CHUNK_SHIFT);
+            int chunkPos = (int) (index & CHUNK_MASK);
+            if (index < 0 || chunkIdx >= chunks.length || chunkPos >= chunks[chunkIdx].limit()) {
+                throw posixException(OSErrorEnum.ENODATA);
+            }
+            return chunks[chunkIdx].get(chunkPos);
+        }
 
-        public AnonymousMap(int cap) {
-            this.data = new byte[cap];
+        @TruffleBoundary
+        synchronized int read(long index, byte[] bytes, int bytesOffset, int length) throws PosixException {
+            checkValid();
+            if (chunks == null) {
+                return readChannel(index, ByteBuffer.wrap(bytes, bytesOffset, length));
+            }
+            return copy(index, bytes, bytesOffset, length, false);
         }
 
-        @Override
-        public boolean isOpen() {
-            return open;
+        @TruffleBoundary
+        synchronized void write(long index, byte[] bytes, int length) throws PosixException {
+            checkValid();
+            int written;
+            if (chunks == null) {
+                try {
+                    channel.position(offset + index);
+                    written = channel.write(ByteBuffer.wrap(bytes, 0, length));
+                } catch (Exception e) {
+                    // Catching generic Exception to also cover NonWritableChannelException
+                    throw posixException(OSErrorEnum.fromException(e));
+                }
+            } else {
+                try {
+                    written = copy(index, bytes, 0, length, true);
+                } catch (ReadOnlyBufferException e) {
+                    throw posixException(OSErrorEnum.EACCES);
+                }
+            }
+            if (written != length) {
+                throw posixException(OSErrorEnum.EIO);
+            }
         }
 
-        @Override
-        public void close() throws IOException {
-            open = false;
+        @TruffleBoundary
+        synchronized void flush(long from, long length) throws PosixException {
+            checkValid();
+            if (chunks == null) {
+                // Channel based mappings write through to the file, there is nothing to flush
+                return;
+            }
+            for (int i = 0; i < chunks.length; i++) {
+                long chunkStart = (long) i << CHUNK_SHIFT;
+                if (chunks[i] instanceof MappedByteBuffer && chunkStart < from + length && from < chunkStart + chunks[i].limit()) {
+                    ((MappedByteBuffer) chunks[i]).force();
+                }
+            }
         }
 
-        @Override
-        public int read(ByteBuffer dst) throws IOException {
-            int nread = Math.min(dst.remaining(), data.length - cur);
-            dst.put(data, cur, nread);
-            return nread;
+        @TruffleBoundary
+        synchronized void unmap() throws PosixException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            // there is no way to unmap a MappedByteBuffer explicitly, the mapping goes away once the
+            // buffers are garbage collected
+            chunks = null;
+            if (channel != null) {
+                try {
+                    closeChannel(channel);
+                } catch (IOException e) {
+                    throw posixException(OSErrorEnum.fromException(e));
+                } finally {
+                    channel = null;
+                }
+            }
         }
 
-        @Override
-        public int write(ByteBuffer src) throws IOException {
-            int nwrite = Math.min(src.remaining(), data.length - cur);
-            src.get(data, cur, nwrite);
-            return nwrite;
+        private int readChannel(long index, ByteBuffer buffer) throws PosixException {
+            try {
+                channel.position(index + offset);
+                return channel.read(buffer);
+            } catch (IOException e) {
+                throw posixException(OSErrorEnum.fromException(e));
+            }
         }
 
-        @Override
-        public long position() throws IOException {
-            return cur;
+        /**
+         * Copies between the mapping at {@code index} and {@code bytes}, stops at the end of the
+         * mapping and returns the number of bytes copied.
+         */
+        private int copy(long index, byte[] bytes, int bytesOffset, int length, boolean write) {
+            int done = 0;
+            while (done < length) {
+                long pos = index + done;
+                int chunkIdx = (int) (pos >>> CHUNK_SHIFT);
+                if (chunkIdx >= chunks.length) {
+                    break;
+                }
+                int chunkPos = (int) (pos & CHUNK_MASK);
+                // duplicate so that the position of the shared buffer is left alone
+                ByteBuffer chunk = chunks[chunkIdx].duplicate();
+                if (chunkPos >= chunk.limit()) {
+                    break;
+                }
+                int n = Math.min(length - done, chunk.limit() - chunkPos);
+                chunk.position(chunkPos);
+                if (write) {
+                    chunk.put(bytes, bytesOffset + done, n);
+                } else {
+                    chunk.get(bytes, bytesOffset + done, n);
+                }
+                done += n;
+            }
+            return done;
         }
 
-        @Override
-        public SeekableByteChannel position(long newPosition) throws IOException {
-            if (newPosition < 0 || newPosition >= data.length) {
-                throw new IllegalArgumentException();
+        @TruffleBoundary
+        static ByteBuffer[] map(FileChannel channel, MapMode mode, long offset, long length) throws IOException {
+            ByteBuffer[] chunks = new ByteBuffer[(int) ((length + CHUNK_MASK) >>> CHUNK_SHIFT)];
+            for (int i = 0; i < chunks.length; i++) {
+                long start = (long) i << CHUNK_SHIFT;
+                chunks[i] = channel.map(mode, offset + start, Math.min(length - start, CHUNK_SIZE));
             }
-            cur = (int) newPosition;
-            return this;
+            return chunks;
         }
 
-        @Override
-        public long size() throws IOException {
-            return data.length;
+        @TruffleBoundary
+        static ByteBuffer[] allocate(long length) {
+            ByteBuffer[] chunks = new ByteBuffer[(int) ((length + CHUNK_MASK) >>> CHUNK_SHIFT)];
+            for (int i = 0; i < chunks.length; i++) {
+                long start = (long) i << CHUNK_SHIFT;
+                chunks[i] = ByteBuffer.allocate((int) Math.min(length - start, CHUNK_SIZE));
+            }
+            return chunks;
         }
 
         @Override
-        public SeekableByteChannel truncate(long size) throws IOException {
-            for (int i = 0; i < size; i++) {
-                data[i] = 0;
+        public String toString() {
+            CompilerAsserts.neverPartOfCompilation();
+            if (chunks != null) {
+                return String.format("Emulated mmap [chunks=%d]", chunks.length);
             }
-            return this;
+            return String.format("Emulated mmap [channel=%s, offset=%d]", channel, offset);
         }
     }
 
@@ -2064,10 +2207,9 @@ public final class EmulatedPosixSupport extends PosixResources {
         // Note: the profile is not really defaultDirProfile, but it's good to share...
         if (isAnonymousProfile.profile((flags & MAP_ANONYMOUS.value) != 0)) {
             try {
-                return new MMapHandle(new AnonymousMap(PythonUtils.toIntExact(length)), 0);
-            } catch (OverflowException e) {
-                CompilerDirectives.transferToInterpreter();
-                throw new UnsupportedPosixFeatureException(String.format("Anonymous mapping in mmap for memory larger than %d", Integer.MAX_VALUE));
+                return new MMapHandle(MMapHandle.allocate(length));
+            } catch (OutOfMemoryError e) {
+                throw posixException(OSErrorEnum.ENOMEM);
             }
         }
 
@@ -2079,6 +2221,14 @@ public final class EmulatedPosixSupport extends PosixResources {
         SeekableByteChannel fileChannel;
         try {
             fileChannel = newByteChannel(file, options);
+            if (fileChannel instanceof FileChannel) {
+                try {
+                    return new MMapHandle(MMapHandle.map((FileChannel) fileChannel, mmapMapMode(prot, flags), offset, length));
+                } finally {
+                    // the mapping stays valid after the channel is closed
+                    closeChannel(fileChannel);
+                }
+            }
             position(fileChannel, offset);
             return new MMapHandle(fileChannel, offset);
         } catch (IOException e) {
@@ -2086,12 +2236,18 @@ public final class EmulatedPosixSupport extends PosixResources {
         }
     }
 
+    private static MapMode mmapMapMode(int prot, int flags) {
+        if ((prot & PROT_WRITE.value) == 0) {
+            return MapMode.READ_ONLY;
+        }
+        return (flags & MAP_PRIVATE.value) != 0 ? MapMode.PRIVATE : MapMode.READ_WRITE;
+    }
+
     @TruffleBoundary
     private static Set<StandardOpenOption> mmapProtToOptions(int prot) {
         HashSet<StandardOpenOption> options = new HashSet<>();
-        if ((prot & PROT_READ.value) != 0) {
-            options.add(StandardOpenOption.READ);
-        }
+        // FileChannel.map needs a readable channel even for write-only mappings
+        options.add(StandardOpenOption.READ);
         if ((prot & PROT_WRITE.value) != 0) {
             options.add(StandardOpenOption.WRITE);
         }
@@ -2114,47 +2270,18 @@ public final class EmulatedPosixSupport extends PosixResources {
             errBranch.enter();
             throw posixException(OSErrorEnum.EACCES);
         }
-        MMapHandle handle = (MMapHandle) mmap;
-        ByteBuffer readingBuffer = allocateByteBuffer(1);
-        int readSize = readBytes(handle, index, readingBuffer, errBranch);
-        if (readSize == 0) {
-            throw posixException(OSErrorEnum.ENODATA);
-        }
-        return getByte(readingBuffer);
+        return ((MMapHandle) mmap).readByte(index);
     }
 
     @ExportMessage
     @SuppressWarnings("static-method")
-    public int mmapReadBytes(Object mmap, long index, byte[] bytes, int length,
+    public int mmapReadBytes(Object mmap, long index, byte[] bytes, int offset, int length,
                     @Shared("errorBranch") @Cached BranchProfile errBranch) throws PosixException {
         if (mmap == MMapHandle.NONE) {
             errBranch.enter();
             throw posixException(OSErrorEnum.EACCES);
         }
-        MMapHandle handle = (MMapHandle) mmap;
-        int sz;
-        try {
-            sz = PythonUtils.toIntExact(length);
-        } catch (OverflowException e) {
-            errBranch.enter();
-            throw posixException(OSErrorEnum.EOVERFLOW);
-        }
-        ByteBuffer readingBuffer = allocateByteBuffer(sz);
-        int readSize = readBytes(handle, index, readingBuffer, errBranch);
-        if (readSize > 0) {
-            getByteBufferArray(readingBuffer, bytes, readSize);
-        }
-        return readSize;
-    }
-
-    private static int readBytes(MMapHandle handle, long index, ByteBuffer readingBuffer, BranchProfile errBranch) throws PosixException {
-        try {
-            position(handle.channel, index + handle.offset);
-            return readChannel(handle.channel, readingBuffer);
-        } catch (IOException e) {
-            errBranch.enter();
-            throw posixException(OSErrorEnum.fromException(e));
-        }
+        return ((MMapHandle) mmap).read(index, bytes, offset, length);
     }
 
     @ExportMessage
@@ -2165,34 +2292,16 @@ public final class EmulatedPosixSupport extends PosixResources {
             errBranch.enter();
             throw posixException(OSErrorEnum.EACCES);
         }
-        MMapHandle handle = (MMapHandle) mmap;
-        try {
-            SeekableByteChannel channel = handle.channel;
-            position(channel, handle.offset + index);
-            int written = writeChannel(channel, bytes, length);
-            if (written != length) {
-                throw posixException(OSErrorEnum.EIO);
-            }
-        } catch (Exception e) {
-            // Catching generic Exception to also cover NonWritableChannelException
-            errBranch.enter();
-            throw posixException(OSErrorEnum.fromException(e));
-        }
-    }
-
-    @TruffleBoundary
-    private static int writeChannel(SeekableByteChannel channel, byte[] bytes, int length) throws IOException {
-        return channel.write(ByteBuffer.wrap(bytes, 0, length));
+        ((MMapHandle) mmap).write(index, bytes, length);
     }
 
     @ExportMessage
-    @SuppressWarnings({"static-method", "unused"})
-    public void mmapFlush(Object mmap, long offset, long length) {
-        // Intentionally noop
-        // If we had access to the underlying NIO FileChannel, we could explicitly set force(true)
-        // when creating the channel. Another possibility would be exposing JDK's memory mapped
-        // files support via Truffle API, which would allow for more compatible (and completely
-        // different implementation of mmap in emulated posix)
+    @SuppressWarnings("static-method")
+    public void mmapFlush(Object mmap, long offset, long length) throws PosixException {
+        if (mmap == MMapHandle.NONE) {
+            return;
+        }
+        ((MMapHandle) mmap).flush(offset, length);
     }
 
     @ExportMessage
@@ -2201,47 +2310,65 @@ public final class EmulatedPosixSupport extends PosixResources {
         if (mmap == MMapHandle.NONE) {
             return;
         }
-        MMapHandle handle = (MMapHandle) mmap;
-        if (handle.channel != null) {
-            try {
-                closeChannel(handle.channel);
-            } catch (IOException e) {
-                throw posixException(OSErrorEnum.fromException(e));
-            }
-            handle.channel = null;
-        }
+        ((MMapHandle) mmap).unmap();
     }
 
-    @TruffleBoundary
-    private static void closeChannel(Channel ch) throws IOException {
-        ch.close();
-    }
-
-    @TruffleBoundary
-    private static void position(SeekableByteChannel ch, long offset) throws IOException {
-        ch.position(offset);
+    @ExportMessage
+    public int shmOpen(Object name, int flags, int mode,
+                    @Shared("errorBranch") @Cached BranchProfile errorBranch) throws PosixException {
+        TruffleFile file = getShmFile(pathToJavaStr(name));
+        Set<StandardOpenOption> options = flagsToOptions(flags);
+        FileAttribute<Set<PosixFilePermission>> attributes = modeToAttributes(mode & ~currentUmask);
+        try {
+            return openTruffleFile(file, options, attributes);
+        } catch (Exception e) {
+            errorBranch.enter();
+            throw posixException(OSErrorEnum.fromException(e));
+        }
     }
 
-    @TruffleBoundary(allowInlining = true)
-    private static ByteBuffer allocateByteBuffer(int n) {
-        return ByteBuffer.allocate(n);
+    @ExportMessage
+    public void shmUnlink(Object name,
+                    @Shared("errorBranch") @Cached BranchProfile errorBranch) throws PosixException {
+        TruffleFile file = getShmFile(pathToJavaStr(name));
+        try {
+            file.delete();
+        } catch (Exception e) {
+            errorBranch.enter();
+            throw posixException(OSErrorEnum.fromException(e));
+        }
     }
 
-    @TruffleBoundary(allowInlining = true)
-    protected static void getByteBufferArray(ByteBuffer src, byte[] dst, int readSize) {
-        src.flip();
-        src.get(dst, 0, readSize);
+    /**
+     * Shared memory objects are plain files in {@code /dev/shm}, just like with glibc, so that
+     * other processes can open and map them as well. Systems without {@code /dev/shm} use the
+     * temporary directory instead.
+     */
+    @TruffleBoundary
+    private TruffleFile getShmFile(String name) throws PosixException {
+        // like glibc, ignore leading slashes and reject any other slash
+        int start = 0;
+        while (start < name.length() && name.charAt(start) == '/') {
+            start++;
+        }
+        if (start == name.length() || name.indexOf('/', start) >= 0) {
+            throw posixException(OSErrorEnum.EINVAL);
+        }
+        TruffleFile dir = getTruffleFile(SHM_DIR);
+        if (!dir.isDirectory()) {
+            dir = getTruffleFile(System.getProperty("java.io.tmpdir"));
+        }
+        return dir.resolve(name.substring(start));
     }
 
-    @TruffleBoundary(allowInlining = true)
-    protected static byte getByte(ByteBuffer src) {
-        src.flip();
-        return src.get();
+    @TruffleBoundary
+    private static void closeChannel(Channel ch) throws IOException {
+        ch.close();
     }
 
     @TruffleBoundary
-    private static int readChannel(Object readableChannel, ByteBuffer dst) throws IOException {
-        return ((ReadableByteChannel) readableChannel).read(dst);
+    private static void position(SeekableByteChannel ch, long offset) throws IOException {
+        ch.position(offset);
     }
 
     @ExportMessage
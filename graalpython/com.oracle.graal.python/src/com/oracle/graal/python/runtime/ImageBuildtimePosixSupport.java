@@ -195,6 +195,15 @@ public class ImageBuildtimePosixSupport extends PosixSupport {
         return nativeLib.read(nativePosixSupport, fd, length);
     }
 
+    @ExportMessage
+    final long readInto(int fd, byte[] buffer, int offset, int length,
+                    @CachedLibrary("this.nativePosixSupport") PosixSupportLibrary nativeLib) throws PosixException {
+        if (ImageInfo.inImageBuildtimeCode()) {
+            return PosixSupportLibrary.getUncached().readInto(emulatedPosixSupport, fd, buffer, offset, length);
+        }
+        return nativeLib.readInto(nativePosixSupport, fd, buffer, offset, length);
+    }
+
     @ExportMessage
     final long write(int fd, Buffer data,
                     @CachedLibrary("this.nativePosixSupport") PosixSupportLibrary nativeLib) throws PosixException {
@@ -644,10 +653,10 @@ public class ImageBuildtimePosixSupport extends PosixSupport {
     }
 
     @ExportMessage
-    final int mmapReadBytes(Object mmap, long index, byte[] bytes, int length,
+    final int mmapReadBytes(Object mmap, long index, byte[] bytes, int offset, int length,
                     @CachedLibrary("this.nativePosixSupport") PosixSupportLibrary nativeLib) throws PosixException {
         checkNotInImageBuildtime();
-        return nativeLib.mmapReadBytes(nativePosixSupport, mmap, index, bytes, length);
+        return nativeLib.mmapReadBytes(nativePosixSupport, mmap, index, bytes, offset, length);
     }
 
     @ExportMessage
@@ -671,6 +680,20 @@ public class ImageBuildtimePosixSupport extends PosixSupport {
         nativeLib.mmapUnmap(nativePosixSupport, mmap, length);
     }
 
+    @ExportMessage
+    final int shmOpen(Object name, int flags, int mode,
+                    @CachedLibrary("this.nativePosixSupport") PosixSupportLibrary nativeLib) throws PosixException {
+        checkNotInImageBuildtime();
+        return nativeLib.shmOpen(nativePosixSupport, name, flags, mode);
+    }
+
+    @ExportMessage
+    final void shmUnlink(Object name,
+                    @CachedLibrary("this.nativePosixSupport") PosixSupportLibrary nativeLib) throws PosixException {
+        checkNotInImageBuildtime();
+        nativeLib.shmUnlink(nativePosixSupport, name);
+    }
+
     @ExportMessage
     final int socket(int domain, int type, int protocol,
                     @CachedLibrary("this.nativePosixSupport") PosixSupportLibrary nativeLib) throws PosixException {
@@ -178,6 +178,17 @@ public class LoggingPosixSupport extends PosixSupport {
         }
     }
 
+    @ExportMessage
+    final long readInto(int fd, byte[] buffer, int offset, int length,
+                    @CachedLibrary("this.delegate") PosixSupportLibrary lib) throws PosixException {
+        logEnter("readInto", "%d, %d, %d", fd, offset, length);
+        try {
+            return logExit("readInto", "%d", lib.readInto(delegate, fd, buffer, offset, length));
+        } catch (PosixException e) {
+            throw logException("readInto", e);
+        }
+    }
+
     @ExportMessage
     final long write(int fd, Buffer data,
                     @CachedLibrary("this.delegate") PosixSupportLibrary lib) throws PosixException {
@@ -751,11 +762,11 @@ public class LoggingPosixSupport extends PosixSupport {
     }
 
     @ExportMessage
-    public int mmapReadBytes(Object mmap, long index, byte[] bytes, int length,
+    public int mmapReadBytes(Object mmap, long index, byte[] bytes, int offset, int length,
                     @CachedLibrary("this.delegate") PosixSupportLibrary lib) throws PosixException {
-        logEnter("mmapReadBytes", "%s, %d, %d", mmap, index, length);
+        logEnter("mmapReadBytes", "%s, %d, %d, %d", mmap, index, offset, length);
         try {
-            return logExit("mmapReadBytes", "%s", lib.mmapReadBytes(delegate, mmap, index, bytes, length));
+            return logExit("mmapReadBytes", "%s", lib.mmapReadBytes(delegate, mmap, index, bytes, offset, length));
         } catch (PosixException e) {
             throw logException("mmapReadBytes", e);
         }
@@ -840,6 +851,28 @@ public class LoggingPosixSupport extends PosixSupport {
         }
     }
 
+    @ExportMessage
+    final int shmOpen(Object name, int flags, int mode,
+                    @CachedLibrary("this.delegate") PosixSupportLibrary lib) throws PosixException {
+        logEnter("shmOpen", "%s, 0x%x, 0%o", name, flags, mode);
+        try {
+            return logExit("shmOpen", "%d", lib.shmOpen(delegate, name, flags, mode));
+        } catch (PosixException e) {
+            throw logException("shmOpen", e);
+        }
+    }
+
+    @ExportMessage
+    final void shmUnlink(Object name,
+                    @CachedLibrary("this.delegate") PosixSupportLibrary lib) throws PosixException {
+        logEnter("shmUnlink", "%s", name);
+        try {
+            lib.shmUnlink(delegate, name);
+        } catch (PosixException e) {
+            throw logException("shmUnlink", e);
+        }
+    }
+
     @ExportMessage
     final int system(Object command,
                     @CachedLibrary("this.delegate") PosixSupportLibrary lib) {
@@ -147,6 +147,8 @@ public final class NFIPosixSupport extends PosixSupport {
         set_errno("(sint32):void"),
         call_mmap("(sint64, sint32, sint32, sint32, sint64):sint64"),
         call_munmap("(sint64, sint64):sint32"),
+        call_shm_open("([sint8], sint32, sint32):sint32"),
+        call_shm_unlink("([sint8]):sint32"),
         call_msync("(sint64, sint64, sint64):void"),
         call_strerror("(sint32, [sint8], sint32):void"),
         call_getpid("():sint64"),
@@ -154,6 +156,7 @@ public final class NFIPosixSupport extends PosixSupport {
         call_openat("(sint32, [sint8], sint32, sint32):sint32"),
         call_close("(sint32):sint32"),
         call_read("(sint32, [sint8], uint64):sint64"),
+        call_read_at("(sint32, [sint8], uint64, uint64):sint64"),
         call_write("(sint32, [sint8], uint64):sint64"),
         call_dup("(sint32):sint32"),
         call_dup2("(sint32, sint32, sint32):sint32"),
@@ -474,6 +477,18 @@ public final class NFIPosixSupport extends PosixSupport {
         return buffer.withLength(n);
     }
 
+    @ExportMessage
+    public long readInto(int fd, byte[] buffer, int offset, int length,
+                    @Shared("invoke") @Cached InvokeNativeFunction invokeNode) throws PosixException {
+        long count = Math.min(length, MAX_READ);
+        setErrno(invokeNode, 0);
+        long n = invokeNode.callLong(this, PosixNativeFunction.call_read_at, fd, wrap(buffer), offset, count);
+        if (n < 0) {
+            throw getErrnoAndThrowPosixException(invokeNode);
+        }
+        return n;
+    }
+
     @ExportMessage
     public long write(int fd, Buffer data,
                     @Shared("invoke") @Cached InvokeNativeFunction invokeNode) throws PosixException {
@@ -1302,10 +1317,14 @@ public final class NFIPosixSupport extends PosixSupport {
 
     @ExportMessage
     @SuppressWarnings("static-method")
-    public int mmapReadBytes(Object mmap, long index, byte[] bytes, int length) {
+    public int mmapReadBytes(Object mmap, long index, byte[] bytes, int offset, int length) {
         MMapHandle handle = (MMapHandle) mmap;
         checkIndexAndLen(handle, index, length);
-        UNSAFE.copyMemory(null, handle.pointer + index, bytes, Unsafe.ARRAY_BYTE_BASE_OFFSET, length);
+        if (offset < 0 || length > bytes.length - offset) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            throw new IndexOutOfBoundsException();
+        }
+        UNSAFE.copyMemory(null, handle.pointer + index, bytes, Unsafe.ARRAY_BYTE_BASE_OFFSET + offset, length);
         return length;
     }
 
@@ -1339,6 +1358,25 @@ public final class NFIPosixSupport extends PosixSupport {
         }
     }
 
+    @ExportMessage
+    public int shmOpen(Object name, int flags, int mode,
+                    @Shared("invoke") @Cached InvokeNativeFunction invokeNode) throws PosixException {
+        int fd = invokeNode.callInt(this, PosixNativeFunction.call_shm_open, pathToCString(name), flags, mode);
+        if (fd < 0) {
+            throw getErrnoAndThrowPosixException(invokeNode);
+        }
+        return fd;
+    }
+
+    @ExportMessage
+    public void shmUnlink(Object name,
+                    @Shared("invoke") @Cached InvokeNativeFunction invokeNode) throws PosixException {
+        int result = invokeNode.callInt(this, PosixNativeFunction.call_shm_unlink, pathToCString(name));
+        if (result != 0) {
+            throw getErrnoAndThrowPosixException(invokeNode);
+        }
+    }
+
     private static void checkIndexAndLen(MMapHandle handle, long index, long length) {
         if (length < 0) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.runtime;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import org.graalvm.nativeimage.ImageInfo;
+
+import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.parser.sst.SerializationUtils;
+import com.oracle.graal.python.runtime.PythonParser.ParserMode;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.TruffleFile;
+import com.oracle.truffle.api.TruffleLogger;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.source.Source;
+
+/**
+ * A {@code __pycache__} style on-disk cache of serialized module code for sources that are not
+ * loaded through {@code importlib} (most importantly the core library files). The cache files use
+ * the same layout as the pycs written by {@code importlib}: a 16 byte header (magic number, flags
+ * and either the source mtime and size or the source hash, see PEP 552) followed by the serialized
+ * SST of the module.
+ *
+ * Any problem with reading, validating or writing a cache file is not an error, the source is just
+ * parsed as usual.
+ */
+public final class PersistentCodeCache {
+    private static final TruffleLogger LOGGER = PythonLanguage.getLogger(PersistentCodeCache.class);
+
+    public static final int MAGIC_NUMBER = 21000 + SerializationUtils.VERSION * 10;
+    public static final String CACHE_TAG = "graalpython-" + PythonLanguage.MAJOR + PythonLanguage.MINOR;
+
+    private static final String PYCACHE = "__pycache__";
+    private static final String BYTECODE_SUFFIX = ".pyc";
+    private static final int HEADER_SIZE = 16;
+    private static final int FLAG_HASH_BASED = 0b01;
+    private static final int FLAG_CHECK_SOURCE = 0b10;
+
+    private PersistentCodeCache() {
+    }
+
+    /**
+     * The magic number as it appears at the start of a pyc file, i.e., the same value as
+     * {@code importlib.util.MAGIC_NUMBER}.
+     */
+    public static byte[] getMagicNumberBytes() {
+        return new byte[]{(byte) MAGIC_NUMBER, (byte) (MAGIC_NUMBER >>> 8), '\r', '\n'};
+    }
+
+    /**
+     * The magic number bytes as little-endian integer, corresponding to
+     * {@code importlib._bootstrap_external._RAW_MAGIC_NUMBER}, which is used as the key for
+     * {@link #sourceHash}.
+     */
+    public static long getRawMagicNumber() {
+        return readInt(getMagicNumberBytes(), 0) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Computes the 8 byte hash of source contents as stored in hash-based pycs. This is a keyed
+     * 64-bit FNV-1a hash, written in little-endian byte order.
+     */
+    public static byte[] sourceHash(long key, byte[] source, int length) {
+        long hash = 0xcbf29ce484222325L ^ key;
+        for (int i = 0; i < length; i++) {
+            hash ^= source[i] & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        byte[] result = new byte[Long.BYTES];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = (byte) (hash >>> (8 * i));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the module root node for the given source file, either deserialized from a valid
+     * cache file or freshly parsed. In the latter case, the cache file is (re-)written unless
+     * {@link PythonOptions#DontWriteBytecodeFlag} is set.
+     */
+    @TruffleBoundary
+    public static RootNode parseCached(PythonContext context, TruffleFile sourceFile, Source source) {
+        PythonCore core = context.getCore();
+        if (ImageInfo.inImageBuildtimeCode()) {
+            // code parsed at image build time ends up in the image heap anyway
+            return (RootNode) core.getParser().parse(ParserMode.File, 0, core, source, null, null);
+        }
+        TruffleFile cacheFile = getCacheFile(context, sourceFile);
+        if (cacheFile != null) {
+            RootNode cached = load(context, sourceFile, cacheFile, source);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        RootNode root = (RootNode) core.getParser().parse(ParserMode.File, 0, core, source, null, null);
+        if (cacheFile != null && !context.getOption(PythonOptions.DontWriteBytecodeFlag)) {
+            store(context, sourceFile, cacheFile, root);
+        }
+        return root;
+    }
+
+    /**
+     * Computes the location of the cache file for the given source file, honouring
+     * {@link PythonOptions#PyCachePrefix} like {@code importlib.util.cache_from_source}.
+     */
+    private static TruffleFile getCacheFile(PythonContext context, TruffleFile sourceFile) {
+        try {
+            String name = sourceFile.getName();
+            if (name == null || !name.endsWith(PythonLanguage.EXTENSION)) {
+                return null;
+            }
+            String cacheName = name.substring(0, name.length() - PythonLanguage.EXTENSION.length()) + "." + CACHE_TAG + BYTECODE_SUFFIX;
+            TruffleFile sourceDir = sourceFile.getAbsoluteFile().getParent();
+            if (sourceDir == null) {
+                return null;
+            }
+            String prefix = context.getOption(PythonOptions.PyCachePrefix);
+            if (prefix.isEmpty()) {
+                return sourceDir.resolve(PYCACHE).resolve(cacheName);
+            }
+            String separator = context.getEnv().getFileNameSeparator();
+            String relativeDir = sourceDir.getPath();
+            while (relativeDir.startsWith(separator)) {
+                relativeDir = relativeDir.substring(separator.length());
+            }
+            return context.getEnv().getPublicTruffleFile(prefix).resolve(relativeDir).resolve(cacheName);
+        } catch (SecurityException | UnsupportedOperationException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static RootNode load(PythonContext context, TruffleFile sourceFile, TruffleFile cacheFile, Source source) {
+        try {
+            if (!cacheFile.isRegularFile()) {
+                return null;
+            }
+            byte[] data = cacheFile.readAllBytes();
+            if (data.length <= HEADER_SIZE || !Arrays.equals(getMagicNumberBytes(), Arrays.copyOf(data, 4))) {
+                return null;
+            }
+            int flags = readInt(data, 4);
+            if ((flags & FLAG_HASH_BASED) != 0) {
+                String checkMode = context.getOption(PythonOptions.CheckHashPycsMode);
+                if ("always".equals(checkMode) || (!"never".equals(checkMode) && (flags & FLAG_CHECK_SOURCE) != 0)) {
+                    byte[] sourceBytes = sourceFile.readAllBytes();
+                    byte[] hash = sourceHash(getRawMagicNumber(), sourceBytes, sourceBytes.length);
+                    if (!Arrays.equals(hash, Arrays.copyOfRange(data, 8, HEADER_SIZE))) {
+                        return null;
+                    }
+                }
+            } else if (readInt(data, 8) != (int) getMTime(sourceFile) || readInt(data, 12) != (int) sourceFile.size()) {
+                return null;
+            }
+            RootNode root = context.getCore().getSerializer().deserialize(source, Arrays.copyOfRange(data, HEADER_SIZE, data.length));
+            LOGGER.log(Level.FINE, () -> "Loaded cached code for " + sourceFile + " from " + cacheFile);
+            return root;
+        } catch (IOException | RuntimeException e) {
+            // a corrupt cache file may make the deserializer fail in arbitrary ways
+            LOGGER.log(Level.FINE, e, () -> "Could not load cached code for " + sourceFile + " from " + cacheFile);
+            return null;
+        }
+    }
+
+    private static void store(PythonContext context, TruffleFile sourceFile, TruffleFile cacheFile, RootNode root) {
+        TruffleFile tmpFile = null;
+        try {
+            byte[] code = context.getCore().getSerializer().serialize(root);
+            byte[] header = new byte[HEADER_SIZE];
+            System.arraycopy(getMagicNumberBytes(), 0, header, 0, 4);
+            if ("always".equals(context.getOption(PythonOptions.CheckHashPycsMode))) {
+                // mtimes are not trusted, so write a checked hash-based pyc
+                byte[] sourceBytes = sourceFile.readAllBytes();
+                writeInt(header, 4, FLAG_HASH_BASED | FLAG_CHECK_SOURCE);
+                System.arraycopy(sourceHash(getRawMagicNumber(), sourceBytes, sourceBytes.length), 0, header, 8, Long.BYTES);
+            } else {
+                writeInt(header, 8, (int) getMTime(sourceFile));
+                writeInt(header, 12, (int) sourceFile.size());
+            }
+            TruffleFile cacheDir = cacheFile.getParent();
+            cacheDir.createDirectories();
+            // write to a temporary file and move it into place, so that concurrent readers never
+            // see a partially written cache file
+            tmpFile = context.getEnv().createTempFile(cacheDir, cacheFile.getName(), null);
+            try (OutputStream out = tmpFile.newOutputStream()) {
+                out.write(header);
+                out.write(code);
+            }
+            tmpFile.move(cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            tmpFile = null;
+            LOGGER.log(Level.FINE, () -> "Wrote cached code for " + sourceFile + " to " + cacheFile);
+        } catch (IOException | SecurityException | UnsupportedOperationException | PException e) {
+            LOGGER.log(Level.FINE, e, () -> "Could not write cached code for " + sourceFile + " to " + cacheFile);
+        } finally {
+            if (tmpFile != null) {
+                try {
+                    tmpFile.delete();
+                } catch (IOException | SecurityException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    private static long getMTime(TruffleFile file) throws IOException {
+        return file.getLastModifiedTime().to(TimeUnit.SECONDS);
+    }
+
+    private static int readInt(byte[] data, int offset) {
+        return (data[offset] & 0xFF) | (data[offset + 1] & 0xFF) << 8 | (data[offset + 2] & 0xFF) << 16 | (data[offset + 3] & 0xFF) << 24;
+    }
+
+    private static void writeInt(byte[] data, int offset, int value) {
+        data[offset] = (byte) value;
+        data[offset + 1] = (byte) (value >>> 8);
+        data[offset + 2] = (byte) (value >>> 16);
+        data[offset + 3] = (byte) (value >>> 24);
+    }
+}
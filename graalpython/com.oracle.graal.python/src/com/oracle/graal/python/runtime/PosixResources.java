@@ -54,9 +54,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.WeakHashMap;
 
+import com.oracle.graal.python.builtins.objects.select.PPoll;
 import com.oracle.graal.python.builtins.objects.socket.PSocket;
 import com.oracle.graal.python.runtime.PosixSupportLibrary.PosixException;
 import com.oracle.truffle.api.CompilerDirectives;
@@ -85,6 +88,8 @@ public class PosixResources extends PosixSupport {
     private final Map<String, Integer> inodes;
     private int inodeCnt = 0;
     private final boolean useNfiForSocketFd;
+    /** Poll objects that want to be told about closed channels, see {@link PPoll#channelClosed}. */
+    private final Set<PPoll> pollObjects = Collections.newSetFromMap(new WeakHashMap<>());
 
     private static class ProcessGroup extends Process {
         private final List<Process> children;
@@ -241,9 +246,11 @@ public class PosixResources extends PosixSupport {
         ChannelWrapper channelWrapper = files.getOrDefault(fd, null);
 
         if (channelWrapper != null) {
+            Channel closedChannel = null;
             synchronized (files) {
                 if (channelWrapper.cnt == 1) {
                     channelWrapper.channel.close();
+                    closedChannel = channelWrapper.channel;
                 } else if (channelWrapper.cnt > 1) {
                     channelWrapper.cnt -= 1;
                 }
@@ -251,11 +258,38 @@ public class PosixResources extends PosixSupport {
                 files.remove(fd);
                 filePaths.remove(fd);
             }
+            if (closedChannel != null) {
+                notifyPollObjects(closedChannel);
+            }
             return true;
         }
         return false;
     }
 
+    /**
+     * Registers a poll object to be notified when a channel is closed through this object. The
+     * poll object is only weakly referenced.
+     */
+    @TruffleBoundary
+    public void addPollObject(PPoll poll) {
+        synchronized (pollObjects) {
+            pollObjects.add(poll);
+        }
+    }
+
+    private void notifyPollObjects(Channel channel) {
+        PPoll[] polls;
+        synchronized (pollObjects) {
+            if (pollObjects.isEmpty()) {
+                return;
+            }
+            polls = pollObjects.toArray(new PPoll[0]);
+        }
+        for (PPoll poll : polls) {
+            poll.channelClosed(channel);
+        }
+    }
+
     /**
      * ATTENTION: This method must be used in a synchronized block (sync on {@link #files}) until.
      */
@@ -91,6 +91,14 @@ public abstract class PosixSupportLibrary extends Library {
 
     public abstract Buffer read(Object receiver, int fd, long length) throws PosixException;
 
+    /**
+     * Reads at most {@code length} bytes from {@code fd} directly into {@code buffer} starting at
+     * {@code offset}, avoiding the intermediate {@link Buffer} allocated by {@link #read}.
+     *
+     * @return the number of bytes read, 0 at end of file
+     */
+    public abstract long readInto(Object receiver, int fd, byte[] buffer, int offset, int length) throws PosixException;
+
     public abstract long write(Object receiver, int fd, Buffer data) throws PosixException;
 
     public abstract int dup(Object receiver, int fd) throws PosixException;
@@ -281,7 +289,7 @@ public abstract class PosixSupportLibrary extends Library {
 
     public abstract byte mmapReadByte(Object receiver, Object mmap, long index) throws PosixException;
 
-    public abstract int mmapReadBytes(Object receiver, Object mmap, long index, byte[] bytes, int length) throws PosixException;
+    public abstract int mmapReadBytes(Object receiver, Object mmap, long index, byte[] bytes, int offset, int length) throws PosixException;
 
     public abstract void mmapWriteBytes(Object receiver, Object mmap, long index, byte[] bytes, int length) throws PosixException;
 
@@ -289,6 +297,21 @@ public abstract class PosixSupportLibrary extends Library {
 
     public abstract void mmapUnmap(Object receiver, Object mmap, long length) throws PosixException;
 
+    /**
+     * Opens the POSIX shared memory object {@code name}, see {@code shm_open(3)}. The returned file
+     * descriptor can be sized with {@link #ftruncate} and mapped with {@link #mmap}.
+     *
+     * @param name opaque name (converted using createPathFromString)
+     */
+    public abstract int shmOpen(Object receiver, Object name, int flags, int mode) throws PosixException;
+
+    /**
+     * Removes the POSIX shared memory object {@code name}, see {@code shm_unlink(3)}.
+     *
+     * @param name opaque name (converted using createPathFromString)
+     */
+    public abstract void shmUnlink(Object receiver, Object name) throws PosixException;
+
     /**
      * Converts a {@code String} into the internal representation of paths used by the library
      * implementation. The implementation should return {@code null} if the path after any necessary
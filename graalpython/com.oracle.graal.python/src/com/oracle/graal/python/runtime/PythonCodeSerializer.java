@@ -41,6 +41,7 @@
 package com.oracle.graal.python.runtime;
 
 import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.source.Source;
 
 public interface PythonCodeSerializer {
     public byte[] serialize(RootNode rootNode);
@@ -48,4 +49,11 @@ public interface PythonCodeSerializer {
     public RootNode deserialize(byte[] data);
 
     public RootNode deserialize(byte[] data, String[] cellvars, String[] freevars);
+
+    /**
+     * Deserializes a whole module that was serialized from {@code source}. The given source is
+     * attached to the resulting nodes instead of a new one being created from the serialized
+     * contents, so that properties like {@link Source#isInternal()} are preserved.
+     */
+    public RootNode deserialize(Source source, byte[] data);
 }
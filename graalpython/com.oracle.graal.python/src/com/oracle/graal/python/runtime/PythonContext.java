@@ -35,6 +35,7 @@ import static com.oracle.graal.python.nodes.SpecialAttributeNames.__FILE__;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.PrintStream;
 import java.io.PrintWriter;
 import java.lang.ref.WeakReference;
 import java.nio.file.LinkOption;
@@ -49,7 +50,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 
@@ -64,6 +67,7 @@ import com.oracle.graal.python.builtins.objects.PythonAbstractObject;
 import com.oracle.graal.python.builtins.objects.PythonAbstractObjectFactory.PInteropGetAttributeNodeGen;
 import com.oracle.graal.python.builtins.objects.cext.PythonNativeClass;
 import com.oracle.graal.python.builtins.objects.cext.capi.CApiContext;
+import com.oracle.graal.python.builtins.objects.cext.capi.HandleCache;
 import com.oracle.graal.python.builtins.objects.cext.capi.PThreadState;
 import com.oracle.graal.python.builtins.objects.cext.capi.PyTruffleObjectFree.ReleaseHandleNode;
 import com.oracle.graal.python.builtins.objects.cext.capi.PyTruffleObjectFreeFactory.ReleaseHandleNodeGen;
@@ -90,6 +94,7 @@ import com.oracle.graal.python.runtime.exception.ExceptionUtils;
 import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.exception.PythonExitException;
 import com.oracle.graal.python.runtime.exception.PythonThreadKillException;
+import com.oracle.graal.python.runtime.object.AllocationProfiler;
 import com.oracle.graal.python.runtime.object.IDUtils;
 import com.oracle.graal.python.util.Consumer;
 import com.oracle.graal.python.util.PythonUtils;
@@ -291,6 +296,7 @@ public final class PythonContext {
     private OutputStream err;
     private InputStream in;
     @CompilationFinal private CApiContext cApiContext;
+    private HandleCache cApiHandleCache;
     @CompilationFinal private GraalHPyContext hPyContext;
 
     private String soABI; // cache for soAPI
@@ -298,6 +304,17 @@ public final class PythonContext {
     private static final Assumption singleNativeContext = Truffle.getRuntime().createAssumption("single native context assumption");
 
     private final ReentrantLock globalInterpreterLock = new ReentrantLock();
+    /** Incremented whenever a thread takes the GIL. */
+    private volatile long gilSwitchNumber;
+    /** Signalled when {@link #gilSwitchNumber} changes while there are waiters. */
+    private final ReentrantLock gilSwitchLock = new ReentrantLock();
+    private final Condition gilSwitched = gilSwitchLock.newCondition();
+    /** Number of threads in {@link #awaitGilSwitch}. */
+    private final AtomicInteger gilSwitchWaiters = new AtomicInteger();
+    /** See {@code sys.setswitchinterval}, in microseconds like in CPython. */
+    private volatile long switchInterval = 5000;
+    /** The largest switch interval in microseconds that can still be expressed in nanoseconds. */
+    public static final long MAX_SWITCH_INTERVAL = Long.MAX_VALUE / 1000;
 
     /** Native wrappers for context-insensitive singletons like {@link PNone#NONE}. */
     @CompilationFinal(dimensions = 1) private final PythonNativeWrapper[] singletonNativePtrs = new PythonNativeWrapper[PythonLanguage.getNumberOfSpecialSingletons()];
@@ -316,6 +333,7 @@ public final class PythonContext {
 
     @CompilationFinal(dimensions = 1) private Object[] optionValues;
     private AllocationReporter allocationReporter;
+    private volatile AllocationProfiler allocationProfiler;
 
     /*
      * These maps are used to ensure that each "deserialization" of code in the parser gets a
@@ -350,6 +368,24 @@ public final class PythonContext {
         return allocationReporter;
     }
 
+    /**
+     * Returns the allocation profiler of this context. May only be called if
+     * {@link PythonOptions#AllocationProfile} is enabled.
+     */
+    public AllocationProfiler getAllocationProfiler() {
+        AllocationProfiler profiler = allocationProfiler;
+        if (profiler == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            synchronized (this) {
+                profiler = allocationProfiler;
+                if (profiler == null) {
+                    allocationProfiler = profiler = new AllocationProfiler();
+                }
+            }
+        }
+        return profiler;
+    }
+
     public ThreadGroup getThreadGroup() {
         return threadGroup;
     }
@@ -826,6 +862,19 @@ public final class PythonContext {
         return stdLibHome;
     }
 
+    /**
+     * Whether code compiled from {@code filename} after initialization should be shared with
+     * other contexts on the same engine. This is the case for files of the core and standard
+     * library when more than one context may run on the language.
+     */
+    @TruffleBoundary
+    public boolean isSharedLibraryFile(String filename) {
+        if (filename == null || getLanguage().singleContextAssumption.isValid() || !getOption(PythonOptions.WithCachedSources)) {
+            return false;
+        }
+        return (!stdLibHome.isEmpty() && filename.startsWith(stdLibHome)) || (!coreHome.isEmpty() && filename.startsWith(coreHome));
+    }
+
     @TruffleBoundary
     public String getCoreHomeOrFail() {
         if (coreHome.isEmpty()) {
@@ -873,6 +922,7 @@ public final class PythonContext {
         try (GilNode.UncachedAcquire gil = GilNode.uncachedAcquire()) {
             shutdownThreads();
             runShutdownHooks();
+            printAllocationProfile();
             finalizing = true;
             joinThreads();
             cleanupCApiResources();
@@ -881,6 +931,13 @@ public final class PythonContext {
         cleanupHPyResources();
     }
 
+    private void printAllocationProfile() {
+        int limit = getOption(PythonOptions.AllocationProfileReport);
+        if (allocationProfiler != null && limit > 0) {
+            allocationProfiler.printReport(new PrintStream(getStandardErr(), true), limit);
+        }
+    }
+
     @TruffleBoundary
     public int getAtexitHookCount() {
         return atExitHooks.size();
@@ -1107,6 +1164,10 @@ public final class PythonContext {
         assert !ownsGil() : "trying to acquire the GIL more than once";
         try {
             globalInterpreterLock.lockInterruptibly();
+            gilSwitchNumber++;
+            if (gilSwitchWaiters.get() > 0) {
+                signalGilSwitch();
+            }
         } catch (InterruptedException e) {
             if (!ImageInfo.inImageBuildtimeCode() && threadState.get().isShuttingDown()) {
                 // This is a thread being killed during normal context shutdown. This thread
@@ -1137,6 +1198,62 @@ public final class PythonContext {
         globalInterpreterLock.unlock();
     }
 
+    boolean gilHasQueuedThreads() {
+        return globalInterpreterLock.hasQueuedThreads();
+    }
+
+    long getGilSwitchNumber() {
+        return gilSwitchNumber;
+    }
+
+    /**
+     * Called after releasing the GIL to give it to another thread. Like CPython's
+     * {@code FORCE_SWITCHING}, this waits until another thread has actually taken the GIL, so that
+     * the releasing thread cannot immediately grab it again. Gives up if there are no more waiting
+     * threads or after one switch interval.
+     */
+    @TruffleBoundary
+    void awaitGilSwitch(long switchNumber) {
+        gilSwitchLock.lock();
+        try {
+            gilSwitchWaiters.incrementAndGet();
+            long remaining = getSwitchIntervalNanos();
+            while (gilSwitchNumber == switchNumber && globalInterpreterLock.hasQueuedThreads() && remaining > 0) {
+                remaining = gilSwitched.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            gilSwitchWaiters.decrementAndGet();
+            gilSwitchLock.unlock();
+        }
+    }
+
+    private void signalGilSwitch() {
+        gilSwitchLock.lock();
+        try {
+            gilSwitched.signalAll();
+        } finally {
+            gilSwitchLock.unlock();
+        }
+    }
+
+    /**
+     * The switch interval in microseconds.
+     */
+    public long getSwitchInterval() {
+        return switchInterval;
+    }
+
+    public void setSwitchInterval(long microseconds) {
+        assert microseconds >= 0 && microseconds <= MAX_SWITCH_INTERVAL;
+        switchInterval = microseconds;
+    }
+
+    long getSwitchIntervalNanos() {
+        return Math.max(switchInterval, 1) * 1000;
+    }
+
     /**
      * This is like {@code Env#getPublicTruffleFile(String)} but also allows access to files in the
      * language home directory matching one of the given file extensions. This is mostly useful to
@@ -1288,6 +1405,17 @@ public final class PythonContext {
         return cApiContext;
     }
 
+    /**
+     * The cache used by the C API to resolve handles, or {@code null} if the C API was not loaded.
+     */
+    public HandleCache getCApiHandleCache() {
+        return cApiHandleCache;
+    }
+
+    public void setCApiHandleCache(HandleCache cApiHandleCache) {
+        this.cApiHandleCache = cApiHandleCache;
+    }
+
     public void setCapiWasLoaded(Object capiLibrary) {
         assert cApiContext == null : "tried to create new C API context but it was already created";
         cApiContext = new CApiContext(this, capiLibrary);
@@ -238,6 +238,15 @@ public final class PythonOptions {
     @Option(category = OptionCategory.EXPERT, help = "Max native memory heap size (default: 2 GB).") //
     public static final OptionKey<Long> MaxNativeMemory = new OptionKey<>(1L << 31);
 
+    @Option(category = OptionCategory.EXPERT, help = "Maximum number of entries in the cache used to resolve C API handles (rounded up to a power of two, 0 disables the cache).") //
+    public static final OptionKey<Integer> CApiHandleCacheSize = new OptionKey<>(4096);
+
+    @EngineOption @Option(category = OptionCategory.EXPERT, help = "Count the Python objects allocated per type and per source location. The counts can be queried with __graalpython__.alloc_stats().") //
+    public static final OptionKey<Boolean> AllocationProfile = new OptionKey<>(false);
+
+    @Option(category = OptionCategory.EXPERT, help = "If allocation profiling is enabled, print the given number of most allocating types and locations on exit (0 disables the report).") //
+    public static final OptionKey<Integer> AllocationProfileReport = new OptionKey<>(0);
+
     @Option(category = OptionCategory.EXPERT, help = "Set by the launcher to true (false means that GraalPython is being embedded in an application).") //
     public static final OptionKey<Boolean> RunViaLauncher = new OptionKey<>(false);
 
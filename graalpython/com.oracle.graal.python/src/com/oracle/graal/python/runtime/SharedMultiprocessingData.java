@@ -0,0 +1,337 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.runtime;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.oracle.graal.python.builtins.objects.exception.OSErrorEnum;
+import com.oracle.graal.python.runtime.PosixSupportLibrary.PosixException;
+import com.oracle.graal.python.util.IntArrayBuilder;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.TruffleContext;
+
+/**
+ * State of the {@code truffleprocess} start method of {@code multiprocessing}, which runs child
+ * "processes" as separate contexts on their own threads within the same engine. Like named
+ * semaphores, this state is kept per language instance so that it is shared by all contexts of
+ * the engine.
+ *
+ * Children talk to their parent over in-memory pipes. Their ends are identified by negative
+ * numbers, so that they can never be confused with real file descriptors, and they behave like
+ * pipes: reading blocks until data is available or all writing ends are closed, writing never
+ * blocks and fails once all reading ends are closed.
+ */
+public final class SharedMultiprocessingData {
+
+    private static final class Channel {
+        private final ArrayDeque<byte[]> chunks = new ArrayDeque<>();
+        private int offset;
+        private int readers;
+        private int writers;
+
+        boolean isReadable() {
+            return !chunks.isEmpty() || writers == 0;
+        }
+    }
+
+    private static final class Endpoint {
+        private final Channel in;
+        private final Channel out;
+
+        Endpoint(Channel in, Channel out) {
+            this.in = in;
+            this.out = out;
+            if (in != null) {
+                in.readers++;
+            }
+            if (out != null) {
+                out.writers++;
+            }
+        }
+    }
+
+    /**
+     * A child context spawned by {@code _multiprocessing._spawn_context}.
+     */
+    public static final class ChildContext {
+        private final TruffleContext context;
+        private final int[] fds;
+        private Thread thread;
+        private volatile int exitCode;
+        private volatile boolean finished;
+        private volatile boolean terminated;
+
+        public ChildContext(TruffleContext context, int[] fds) {
+            this.context = context;
+            this.fds = fds;
+        }
+
+        public TruffleContext getContext() {
+            return context;
+        }
+
+        public Thread getThread() {
+            return thread;
+        }
+
+        public void setThread(Thread thread) {
+            this.thread = thread;
+        }
+
+        public boolean isFinished() {
+            return finished;
+        }
+
+        public int getExitCode() {
+            return exitCode;
+        }
+
+        public boolean isTerminated() {
+            return terminated;
+        }
+
+        public void setTerminated() {
+            terminated = true;
+        }
+    }
+
+    private final Object lock = new Object();
+    private final HashMap<Integer, Endpoint> endpoints = new HashMap<>();
+    private int nextFd = -1;
+
+    private final ConcurrentHashMap<Long, ChildContext> children = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new pipe and returns its reading and writing end. A duplex pipe has two ends that
+     * can both be read and written.
+     */
+    @TruffleBoundary
+    public int[] pipe(boolean duplex) {
+        synchronized (lock) {
+            Channel channel = new Channel();
+            if (duplex) {
+                Channel other = new Channel();
+                return new int[]{addEndpoint(new Endpoint(channel, other)), addEndpoint(new Endpoint(other, channel))};
+            }
+            return new int[]{addEndpoint(new Endpoint(channel, null)), addEndpoint(new Endpoint(null, channel))};
+        }
+    }
+
+    @TruffleBoundary
+    public int dup(int fd) throws PosixException {
+        synchronized (lock) {
+            Endpoint endpoint = getEndpoint(fd);
+            return addEndpoint(new Endpoint(endpoint.in, endpoint.out));
+        }
+    }
+
+    @TruffleBoundary
+    public void close(int fd) throws PosixException {
+        synchronized (lock) {
+            Endpoint endpoint = endpoints.remove(fd);
+            if (endpoint == null) {
+                throw badFd();
+            }
+            if (endpoint.in != null && --endpoint.in.readers == 0) {
+                // nobody can read the data anymore
+                endpoint.in.chunks.clear();
+            }
+            if (endpoint.out != null) {
+                endpoint.out.writers--;
+            }
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Reads at most {@code length} bytes from {@code fd}. Returns an empty array at the end of
+     * file, or {@code null} if nothing could be read within {@code timeoutMs}.
+     */
+    @TruffleBoundary
+    public byte[] read(int fd, int length, long timeoutMs) throws PosixException {
+        synchronized (lock) {
+            Channel channel = getEndpoint(fd).in;
+            if (channel == null) {
+                throw badFd();
+            }
+            if (!channel.isReadable()) {
+                waitForUpdate(timeoutMs);
+                // the endpoint may have been closed while we were waiting
+                channel = getEndpoint(fd).in;
+                if (!channel.isReadable()) {
+                    return null;
+                }
+            }
+            if (channel.chunks.isEmpty()) {
+                return new byte[0];
+            }
+            // like a pipe, we may return less than requested, but never block for more
+            byte[] chunk = channel.chunks.peekFirst();
+            int count = Math.min(length, chunk.length - channel.offset);
+            byte[] result;
+            if (channel.offset == 0 && count == chunk.length) {
+                result = chunk;
+            } else {
+                result = Arrays.copyOfRange(chunk, channel.offset, channel.offset + count);
+            }
+            channel.offset += count;
+            if (channel.offset == chunk.length) {
+                channel.chunks.removeFirst();
+                channel.offset = 0;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Writes all of {@code data} to {@code fd}.
+     */
+    @TruffleBoundary
+    public void write(int fd, byte[] data) throws PosixException {
+        synchronized (lock) {
+            Channel channel = getEndpoint(fd).out;
+            if (channel == null) {
+                throw badFd();
+            }
+            if (channel.readers == 0) {
+                throw new PosixException(OSErrorEnum.EPIPE.getNumber(), OSErrorEnum.EPIPE.getMessage());
+            }
+            if (data.length > 0) {
+                channel.chunks.addLast(Arrays.copyOf(data, data.length));
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Waits at most {@code timeoutMs} until at least one of {@code fds} is ready for reading and
+     * returns the ready ones.
+     */
+    @TruffleBoundary
+    public int[] select(int[] fds, long timeoutMs) throws PosixException {
+        synchronized (lock) {
+            IntArrayBuilder ready = collectReadable(fds);
+            if (ready.size() == 0 && timeoutMs != 0) {
+                waitForUpdate(timeoutMs);
+                ready = collectReadable(fds);
+            }
+            return ready.toArray();
+        }
+    }
+
+    private IntArrayBuilder collectReadable(int[] fds) throws PosixException {
+        IntArrayBuilder ready = new IntArrayBuilder();
+        for (int fd : fds) {
+            Channel channel = getEndpoint(fd).in;
+            if (channel == null || channel.isReadable()) {
+                // like select(2), a write-only end is reported as ready since reading fails
+                ready.add(fd);
+            }
+        }
+        return ready;
+    }
+
+    @TruffleBoundary
+    public void addChild(long id, ChildContext child) {
+        children.put(id, child);
+    }
+
+    @TruffleBoundary
+    public ChildContext getChild(long id) {
+        return children.get(id);
+    }
+
+    @TruffleBoundary
+    public void removeChild(long id) {
+        children.remove(id);
+    }
+
+    /**
+     * Records the exit code of {@code child} and closes all in-memory pipe ends it owned, just like
+     * the operating system would close the descriptors of an exiting process.
+     */
+    @TruffleBoundary
+    public void childFinished(ChildContext child, int exitCode) {
+        child.exitCode = exitCode;
+        synchronized (lock) {
+            for (int fd : child.fds) {
+                if (endpoints.containsKey(fd)) {
+                    try {
+                        close(fd);
+                    } catch (PosixException e) {
+                        // cannot happen, we checked that the descriptor is open
+                    }
+                }
+            }
+            child.finished = true;
+            lock.notifyAll();
+        }
+    }
+
+    private int addEndpoint(Endpoint endpoint) {
+        int fd = nextFd--;
+        endpoints.put(fd, endpoint);
+        return fd;
+    }
+
+    private Endpoint getEndpoint(int fd) throws PosixException {
+        Endpoint endpoint = endpoints.get(fd);
+        if (endpoint == null) {
+            throw badFd();
+        }
+        return endpoint;
+    }
+
+    private void waitForUpdate(long timeoutMs) {
+        try {
+            lock.wait(timeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static PosixException badFd() {
+        return new PosixException(OSErrorEnum.EBADF.getNumber(), OSErrorEnum.EBADF.getMessage());
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.runtime.object;
+
+import java.io.PrintStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.objects.object.PythonObject;
+import com.oracle.graal.python.builtins.objects.type.PythonBuiltinClass;
+import com.oracle.graal.python.builtins.objects.type.PythonManagedClass;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.source.SourceSection;
+
+/**
+ * Counts the objects created through {@link PythonObjectFactory} per Python type and per Python
+ * source location if {@link com.oracle.graal.python.runtime.PythonOptions#AllocationProfile} is
+ * enabled. Each thread records into its own tables, so profiled threads do not contend with each
+ * other. The byte counts are estimates of the shallow Java size of the allocated objects and do
+ * not include storage arrays or dynamic object properties.
+ */
+public final class AllocationProfiler {
+    private static final String UNKNOWN_LOCATION = "<unknown>";
+    private static final int OBJECT_HEADER_SIZE = 16;
+    private static final int FIELD_SIZE = 8;
+
+    private static final ClassValue<Long> SHALLOW_SIZE = new ClassValue<Long>() {
+        @Override
+        protected Long computeValue(Class<?> type) {
+            long size = OBJECT_HEADER_SIZE;
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                for (Field f : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(f.getModifiers())) {
+                        size += FIELD_SIZE;
+                    }
+                }
+            }
+            return size;
+        }
+    };
+
+    /** Allocation counters of a single thread. */
+    public static final class Counts {
+        private long count;
+        private long bytes;
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        void add(long c, long b) {
+            count += c;
+            bytes += b;
+        }
+    }
+
+    private static final class ThreadTables {
+        final String threadName;
+        final Counts total = new Counts();
+        final HashMap<Object, Counts> byType = new HashMap<>();
+        final HashMap<String, Counts> byLocation = new HashMap<>();
+
+        ThreadTables(String threadName) {
+            this.threadName = threadName;
+        }
+
+        synchronized void record(Object type, String location, long bytes) {
+            total.add(1, bytes);
+            byType.computeIfAbsent(type, k -> new Counts()).add(1, bytes);
+            byLocation.computeIfAbsent(location, k -> new Counts()).add(1, bytes);
+        }
+
+        synchronized void clear() {
+            total.count = 0;
+            total.bytes = 0;
+            byType.clear();
+            byLocation.clear();
+        }
+    }
+
+    private final ConcurrentHashMap<Long, ThreadTables> threads = new ConcurrentHashMap<>();
+    private final ThreadLocal<ThreadTables> currentTables = new ThreadLocal<>();
+
+    @TruffleBoundary
+    public void record(Object allocatedObject, Node location) {
+        ThreadTables tables = currentTables.get();
+        if (tables == null) {
+            Thread current = Thread.currentThread();
+            tables = new ThreadTables(current.getName());
+            threads.put(current.getId(), tables);
+            currentTables.set(tables);
+        }
+        tables.record(getTypeKey(allocatedObject), findLocation(location), SHALLOW_SIZE.get(allocatedObject.getClass()));
+    }
+
+    private static Object getTypeKey(Object allocatedObject) {
+        if (allocatedObject instanceof PythonObject) {
+            Object cls = ((PythonObject) allocatedObject).getInitialPythonClass();
+            if (cls instanceof PythonBuiltinClass) {
+                return ((PythonBuiltinClass) cls).getType();
+            } else if (cls instanceof PythonBuiltinClassType) {
+                return cls;
+            } else if (cls instanceof PythonManagedClass) {
+                return ((PythonManagedClass) cls).getQualName();
+            }
+        }
+        return allocatedObject.getClass().getSimpleName();
+    }
+
+    /**
+     * Uses the source section of the allocating node if it belongs to Python code. Allocations in
+     * builtins are attributed to the closest caller that has a source section.
+     */
+    private static String findLocation(Node location) {
+        String result = format(location != null ? location.getEncapsulatingSourceSection() : null);
+        if (result == null) {
+            result = Truffle.getRuntime().iterateFrames(frameInstance -> {
+                Node callNode = frameInstance.getCallNode();
+                return callNode != null ? format(callNode.getEncapsulatingSourceSection()) : null;
+            });
+        }
+        return result != null ? result : UNKNOWN_LOCATION;
+    }
+
+    private static String format(SourceSection section) {
+        if (section == null || !section.isAvailable()) {
+            return null;
+        }
+        String path = section.getSource().getPath();
+        return (path != null ? path : section.getSource().getName()) + ":" + section.getStartLine();
+    }
+
+    private static String getTypeName(Object typeKey) {
+        if (typeKey instanceof PythonBuiltinClassType) {
+            return ((PythonBuiltinClassType) typeKey).getPrintName();
+        }
+        return (String) typeKey;
+    }
+
+    @TruffleBoundary
+    public Map<String, Counts> getCountsByType() {
+        HashMap<String, Counts> result = new HashMap<>();
+        for (ThreadTables tables : threads.values()) {
+            synchronized (tables) {
+                for (Map.Entry<Object, Counts> e : tables.byType.entrySet()) {
+                    result.computeIfAbsent(getTypeName(e.getKey()), k -> new Counts()).add(e.getValue().count, e.getValue().bytes);
+                }
+            }
+        }
+        return result;
+    }
+
+    @TruffleBoundary
+    public Map<String, Counts> getCountsByLocation() {
+        HashMap<String, Counts> result = new HashMap<>();
+        for (ThreadTables tables : threads.values()) {
+            synchronized (tables) {
+                for (Map.Entry<String, Counts> e : tables.byLocation.entrySet()) {
+                    result.computeIfAbsent(e.getKey(), k -> new Counts()).add(e.getValue().count, e.getValue().bytes);
+                }
+            }
+        }
+        return result;
+    }
+
+    @TruffleBoundary
+    public Map<Long, Counts> getCountsByThread() {
+        HashMap<Long, Counts> result = new HashMap<>();
+        for (Map.Entry<Long, ThreadTables> e : threads.entrySet()) {
+            ThreadTables tables = e.getValue();
+            synchronized (tables) {
+                Counts c = new Counts();
+                c.add(tables.total.count, tables.total.bytes);
+                result.put(e.getKey(), c);
+            }
+        }
+        return result;
+    }
+
+    @TruffleBoundary
+    public void clear() {
+        for (ThreadTables tables : threads.values()) {
+            tables.clear();
+        }
+    }
+
+    /**
+     * Prints the {@code limit} types and locations with the most allocations.
+     */
+    @TruffleBoundary
+    public void printReport(PrintStream out, int limit) {
+        out.println("Allocation profile (approximate shallow sizes):");
+        out.println();
+        printTable(out, "type", getCountsByType(), limit);
+        out.println();
+        printTable(out, "location", getCountsByLocation(), limit);
+        out.println();
+        out.println(String.format("%-16s %-40s %12s %14s", "thread id", "name", "count", "bytes"));
+        for (Map.Entry<Long, ThreadTables> e : threads.entrySet()) {
+            ThreadTables tables = e.getValue();
+            synchronized (tables) {
+                out.println(String.format("%-16d %-40s %12d %14d", e.getKey(), tables.threadName, tables.total.count, tables.total.bytes));
+            }
+        }
+        out.flush();
+    }
+
+    private static void printTable(PrintStream out, String title, Map<String, Counts> counts, int limit) {
+        List<Map.Entry<String, Counts>> entries = new ArrayList<>(counts.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue().count, a.getValue().count));
+        out.println(String.format("%-60s %12s %14s", title, "count", "bytes"));
+        for (int i = 0; i < Math.min(limit, entries.size()); i++) {
+            Map.Entry<String, Counts> e = entries.get(i);
+            out.println(String.format("%-60s %12d %14d", e.getKey(), e.getValue().count, e.getValue().bytes));
+        }
+    }
+}
@@ -27,6 +27,7 @@ package com.oracle.graal.python.runtime.object;
 
 import java.lang.ref.ReferenceQueue;
 import java.math.BigInteger;
+import java.security.MessageDigest;
 import java.util.LinkedHashMap;
 import java.util.concurrent.Semaphore;
 
@@ -37,6 +38,9 @@ import com.oracle.graal.python.PythonLanguage;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.modules.PosixModuleBuiltins.PosixFileHandle;
 import com.oracle.graal.python.builtins.modules.bz2.BZ2Object;
+import com.oracle.graal.python.builtins.modules.csv.PCSVDialect;
+import com.oracle.graal.python.builtins.modules.csv.PCSVReader;
+import com.oracle.graal.python.builtins.modules.csv.PCSVWriter;
 import com.oracle.graal.python.builtins.modules.io.PBuffered;
 import com.oracle.graal.python.builtins.modules.io.PBytesIO;
 import com.oracle.graal.python.builtins.modules.io.PBytesIOBuffer;
@@ -82,9 +86,13 @@ import com.oracle.graal.python.builtins.objects.function.PBuiltinFunction;
 import com.oracle.graal.python.builtins.objects.function.PFunction;
 import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.builtins.objects.function.Signature;
+import com.oracle.graal.python.builtins.objects.functools.PLruCacheWrapper;
+import com.oracle.graal.python.builtins.objects.functools.PPartial;
 import com.oracle.graal.python.builtins.objects.generator.PGenerator;
 import com.oracle.graal.python.builtins.objects.getsetdescriptor.GetSetDescriptor;
 import com.oracle.graal.python.builtins.objects.getsetdescriptor.HiddenKeyDescriptor;
+import com.oracle.graal.python.builtins.objects.hashlib.DigestAlgorithm;
+import com.oracle.graal.python.builtins.objects.hashlib.PDigest;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
 import com.oracle.graal.python.builtins.objects.iterator.PArrayIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PBaseSetIterator;
@@ -98,6 +106,25 @@ import com.oracle.graal.python.builtins.objects.iterator.PSentinelIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PSequenceIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PStringIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PZip;
+import com.oracle.graal.python.builtins.objects.itertools.PAccumulate;
+import com.oracle.graal.python.builtins.objects.itertools.PChain;
+import com.oracle.graal.python.builtins.objects.itertools.PCombinations;
+import com.oracle.graal.python.builtins.objects.itertools.PCompress;
+import com.oracle.graal.python.builtins.objects.itertools.PCount;
+import com.oracle.graal.python.builtins.objects.itertools.PCycle;
+import com.oracle.graal.python.builtins.objects.itertools.PDropwhile;
+import com.oracle.graal.python.builtins.objects.itertools.PFilterfalse;
+import com.oracle.graal.python.builtins.objects.itertools.PGroupBy;
+import com.oracle.graal.python.builtins.objects.itertools.PGrouper;
+import com.oracle.graal.python.builtins.objects.itertools.PIslice;
+import com.oracle.graal.python.builtins.objects.itertools.PPermutations;
+import com.oracle.graal.python.builtins.objects.itertools.PProduct;
+import com.oracle.graal.python.builtins.objects.itertools.PRepeat;
+import com.oracle.graal.python.builtins.objects.itertools.PStarmap;
+import com.oracle.graal.python.builtins.objects.itertools.PTakewhile;
+import com.oracle.graal.python.builtins.objects.itertools.PTee;
+import com.oracle.graal.python.builtins.objects.itertools.PTeeDataObject;
+import com.oracle.graal.python.builtins.objects.itertools.PZipLongest;
 import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.map.PMap;
 import com.oracle.graal.python.builtins.objects.mappingproxy.PMappingproxy;
@@ -110,6 +137,9 @@ import com.oracle.graal.python.builtins.objects.method.PMethod;
 import com.oracle.graal.python.builtins.objects.mmap.PMMap;
 import com.oracle.graal.python.builtins.objects.module.PythonModule;
 import com.oracle.graal.python.builtins.objects.object.PythonObject;
+import com.oracle.graal.python.builtins.objects.pickle.PPickleBuffer;
+import com.oracle.graal.python.builtins.objects.pickle.PPickler;
+import com.oracle.graal.python.builtins.objects.pickle.PUnpickler;
 import com.oracle.graal.python.builtins.objects.posix.PDirEntry;
 import com.oracle.graal.python.builtins.objects.posix.PScandirIterator;
 import com.oracle.graal.python.builtins.objects.property.PProperty;
@@ -120,6 +150,7 @@ import com.oracle.graal.python.builtins.objects.range.PIntRange;
 import com.oracle.graal.python.builtins.objects.referencetype.PReferenceType;
 import com.oracle.graal.python.builtins.objects.reversed.PSequenceReverseIterator;
 import com.oracle.graal.python.builtins.objects.reversed.PStringReverseIterator;
+import com.oracle.graal.python.builtins.objects.select.PPoll;
 import com.oracle.graal.python.builtins.objects.set.PBaseSet;
 import com.oracle.graal.python.builtins.objects.set.PFrozenSet;
 import com.oracle.graal.python.builtins.objects.set.PSet;
@@ -131,6 +162,9 @@ import com.oracle.graal.python.builtins.objects.ssl.PSSLContext;
 import com.oracle.graal.python.builtins.objects.ssl.PSSLSocket;
 import com.oracle.graal.python.builtins.objects.ssl.SSLMethod;
 import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.builtins.objects.struct.PStruct;
+import com.oracle.graal.python.builtins.objects.struct.PStructUnpackIterator;
+import com.oracle.graal.python.builtins.objects.struct.StructFormat;
 import com.oracle.graal.python.builtins.objects.superobject.SuperObject;
 import com.oracle.graal.python.builtins.objects.thread.PLock;
 import com.oracle.graal.python.builtins.objects.thread.PRLock;
@@ -209,13 +243,18 @@ public abstract class PythonObjectFactory extends Node {
     }
 
     @Specialization
-    static AllocationReporter doTrace(Object o, long size,
-                    @CachedContext(PythonLanguage.class) @SuppressWarnings("unused") ContextReference<PythonContext> contextRef,
-                    @Cached(value = "getAllocationReporter(contextRef)", allowUncached = true) AllocationReporter reporter) {
+    AllocationReporter doTrace(Object o, long size,
+                    @CachedContext(PythonLanguage.class) ContextReference<PythonContext> contextRef,
+                    @CachedLanguage PythonLanguage lang,
+                    @Cached(value = "getAllocationReporter(contextRef)", allowUncached = true) AllocationReporter reporter,
+                    @Cached(value = "isAllocationProfile(lang)", allowUncached = true) boolean allocationProfile) {
         if (reporter.isActive()) {
             reporter.onEnter(null, 0, size);
             reporter.onReturnValue(o, 0, size);
         }
+        if (allocationProfile) {
+            contextRef.get().getAllocationProfiler().record(o, this);
+        }
         return null;
     }
 
@@ -230,6 +269,10 @@ public abstract class PythonObjectFactory extends Node {
         return contextRef.get().getAllocationReporter();
     }
 
+    protected static boolean isAllocationProfile(PythonLanguage lang) {
+        return lang.getEngineOption(PythonOptions.AllocationProfile);
+    }
+
     public final PythonLanguage getLanguage() {
         return executeGetLanguage(true, 0.0);
     }
@@ -1031,6 +1074,26 @@ public abstract class PythonObjectFactory extends Node {
         return trace(LZMAObject.createCompressor(clazz, getShape(clazz), isNative));
     }
 
+    public final PPoll createPoll(Object clazz) {
+        return trace(new PPoll(clazz, getShape(clazz)));
+    }
+
+    public final PPickler createPickler(Object clazz) {
+        return trace(new PPickler(clazz, getShape(clazz)));
+    }
+
+    public final PUnpickler createUnpickler(Object clazz) {
+        return trace(new PUnpickler(clazz, getShape(clazz)));
+    }
+
+    public final PPickleBuffer createPickleBuffer(Object clazz, PMemoryView view) {
+        return trace(new PPickleBuffer(clazz, getShape(clazz), view));
+    }
+
+    public final PDigest createDigest(Object clazz, DigestAlgorithm algorithm, MessageDigest digest) {
+        return trace(new PDigest(clazz, getShape(clazz), algorithm, digest));
+    }
+
     public final PFileIO createFileIO(Object clazz) {
         return trace(new PFileIO(clazz, getShape(clazz)));
     }
@@ -1113,6 +1176,23 @@ public abstract class PythonObjectFactory extends Node {
         return trace(new PJSONEncoder(clazz, getShape(clazz), markers, defaultFn, encoder, indent, keySeparator, itemSeparator, sortKeys, skipKeys, allowNan, fastEncode));
     }
 
+    // CSV
+
+    public final PCSVDialect createCSVDialect(Object clazz, int delimiter, boolean doubleQuote, int escapeChar, String lineTerminator, int quoteChar, int quoting, boolean skipInitialSpace,
+                    boolean strict) {
+        return trace(new PCSVDialect(clazz, getShape(clazz), delimiter, doubleQuote, escapeChar, lineTerminator, quoteChar, quoting, skipInitialSpace, strict));
+    }
+
+    @TruffleBoundary
+    public final PCSVReader createCSVReader(Object clazz, PythonModule module, Object inputIter, PCSVDialect dialect) {
+        return trace(new PCSVReader(clazz, getShape(clazz), module, inputIter, dialect));
+    }
+
+    @TruffleBoundary
+    public final PCSVWriter createCSVWriter(Object clazz, Object write, PCSVDialect dialect) {
+        return trace(new PCSVWriter(clazz, getShape(clazz), write, dialect));
+    }
+
     public final PDeque createDeque() {
         return trace(new PDeque(PythonBuiltinClassType.PDeque, getShape(PythonBuiltinClassType.PDeque)));
     }
@@ -1132,4 +1212,124 @@ public abstract class PythonObjectFactory extends Node {
     public final PSimpleQueue createSimpleQueue(Object cls) {
         return trace(new PSimpleQueue(cls, getShape(cls)));
     }
+
+    public final PStruct createStruct(Object cls, StructFormat format) {
+        return trace(new PStruct(cls, getShape(cls), format));
+    }
+
+    public final PStructUnpackIterator createStructUnpackIterator(StructFormat format, Object buffer, int bufferLength) {
+        return trace(new PStructUnpackIterator(PythonBuiltinClassType.PStructUnpackIterator, getShape(PythonBuiltinClassType.PStructUnpackIterator), format, buffer, bufferLength));
+    }
+
+    public final PAccumulate createAccumulate(Object cls) {
+        return trace(new PAccumulate(cls, getShape(cls)));
+    }
+
+    public final PAccumulate createAccumulate() {
+        return createAccumulate(PythonBuiltinClassType.PAccumulate);
+    }
+
+    public final PChain createChain(Object cls) {
+        return trace(new PChain(cls, getShape(cls)));
+    }
+
+    public final PChain createChain() {
+        return createChain(PythonBuiltinClassType.PChain);
+    }
+
+    public final PCombinations createCombinations(Object cls) {
+        return trace(new PCombinations(cls, getShape(cls)));
+    }
+
+    public final PCompress createCompress(Object cls) {
+        return trace(new PCompress(cls, getShape(cls)));
+    }
+
+    public final PCount createCount(Object cls) {
+        return trace(new PCount(cls, getShape(cls)));
+    }
+
+    public final PCycle createCycle(Object cls) {
+        return trace(new PCycle(cls, getShape(cls)));
+    }
+
+    public final PDropwhile createDropwhile(Object cls) {
+        return trace(new PDropwhile(cls, getShape(cls)));
+    }
+
+    public final PFilterfalse createFilterfalse(Object cls) {
+        return trace(new PFilterfalse(cls, getShape(cls)));
+    }
+
+    public final PGroupBy createGroupBy(Object cls) {
+        return trace(new PGroupBy(cls, getShape(cls)));
+    }
+
+    public final PGrouper createGrouper(Object cls) {
+        return trace(new PGrouper(cls, getShape(cls)));
+    }
+
+    public final PGrouper createGrouper() {
+        return createGrouper(PythonBuiltinClassType.PGrouper);
+    }
+
+    public final PIslice createIslice(Object cls) {
+        return trace(new PIslice(cls, getShape(cls)));
+    }
+
+    public final PIslice createIslice() {
+        return createIslice(PythonBuiltinClassType.PIslice);
+    }
+
+    public final PPermutations createPermutations(Object cls) {
+        return trace(new PPermutations(cls, getShape(cls)));
+    }
+
+    public final PProduct createProduct(Object cls) {
+        return trace(new PProduct(cls, getShape(cls)));
+    }
+
+    public final PRepeat createRepeat(Object cls) {
+        return trace(new PRepeat(cls, getShape(cls)));
+    }
+
+    public final PRepeat createRepeat() {
+        return createRepeat(PythonBuiltinClassType.PRepeat);
+    }
+
+    public final PStarmap createStarmap(Object cls) {
+        return trace(new PStarmap(cls, getShape(cls)));
+    }
+
+    public final PTakewhile createTakewhile(Object cls) {
+        return trace(new PTakewhile(cls, getShape(cls)));
+    }
+
+    public final PTee createTee(Object cls) {
+        return trace(new PTee(cls, getShape(cls)));
+    }
+
+    public final PTee createTee() {
+        return createTee(PythonBuiltinClassType.PTee);
+    }
+
+    public final PTeeDataObject createTeeDataObject(Object cls) {
+        return trace(new PTeeDataObject(cls, getShape(cls)));
+    }
+
+    public final PTeeDataObject createTeeDataObject() {
+        return createTeeDataObject(PythonBuiltinClassType.PTeeDataObject);
+    }
+
+    public final PZipLongest createZipLongest(Object cls) {
+        return trace(new PZipLongest(cls, getShape(cls)));
+    }
+
+    public final PPartial createPartial(Object cls) {
+        return trace(new PPartial(cls, getShape(cls)));
+    }
+
+    public final PLruCacheWrapper createLruCacheWrapper(Object cls) {
+        return trace(new PLruCacheWrapper(cls, getShape(cls)));
+    }
 }
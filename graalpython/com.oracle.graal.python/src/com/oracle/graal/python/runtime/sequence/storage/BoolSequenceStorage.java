@@ -128,7 +128,7 @@ public final class BoolSequenceStorage extends TypedSequenceStorage {
         ensureCapacity(length + 1);
 
         // shifting tail to the right by one slot
-        for (int i = values.length - 1; i > idx; i--) {
+        for (int i = length; i > idx; i--) {
             values[i] = values[i - 1];
         }
 
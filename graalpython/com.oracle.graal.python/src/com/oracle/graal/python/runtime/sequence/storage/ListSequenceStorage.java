@@ -132,7 +132,7 @@ public final class ListSequenceStorage extends TypedSequenceStorage {
         ensureCapacity(length + 1);
 
         // shifting tail to the right by one slot
-        for (int i = values.length - 1; i > idx; i--) {
+        for (int i = length; i > idx; i--) {
             values[i] = values[i - 1];
         }
 
@@ -67,7 +67,7 @@ public final class ObjectSequenceStorage extends BasicSequenceStorage {
         ensureCapacity(length + 1);
 
         // shifting tail to the right by one slot
-        for (int i = values.length - 1; i > idx; i--) {
+        for (int i = length; i > idx; i--) {
             values[i] = values[i - 1];
         }
 
@@ -150,6 +150,7 @@ public final class ObjectSequenceStorage extends BasicSequenceStorage {
 
     public Object popObject() {
         Object pop = values[length - 1];
+        values[length - 1] = null;
         decLength();
         return pop;
     }
@@ -44,6 +44,8 @@ _mappingproxy = type(type.__dict__)
 
 from sys import maxsize as _sys_maxsize
 
+_MAXTEMPLATES = 100
+
 def default(value, default):
     return default if not value else value
 
@@ -294,6 +296,7 @@ class Pattern():
                 flags_str.append(char)
         self.__flags_str = "".join(flags_str)
         self.__compiled_regexes = {}
+        self.__templates = {}
         compiled_regex = self.__tregex_compile(self.pattern)
         self.groups = compiled_regex.groupCount - 1
         groups = compiled_regex.groups
@@ -427,8 +430,8 @@ class Pattern():
             endpos = len(string)
         elif endpos < 0:
             endpos = endpos % len(string) + 1
+        compiled_regex = self.__tregex_compile(self.pattern)
         while pos < endpos:
-            compiled_regex = self.__tregex_compile(self.pattern)
             result = tregex_call_exec(compiled_regex.exec, string, pos)
             if not result.isMatch:
                 break
@@ -444,96 +447,47 @@ class Pattern():
             endpos = len(string)
         elif endpos < 0 and len(string) > 0:
             endpos = endpos % len(string) + 1
-        matchlist = []
         compiled_regex = self.__tregex_compile(self.pattern)
-        while pos <= endpos:
-            result = tregex_call_exec(compiled_regex.exec, string, pos)
-            if not result.isMatch:
-                break
-            elif compiled_regex.groupCount == 1:
-                matchlist.append(self.__sanitize_out_type(string[result.getStart(0):result.getEnd(0)]))
-            elif compiled_regex.groupCount == 2:
-                matchlist.append(self.__sanitize_out_type(string[result.getStart(1):result.getEnd(1)]))
-            else:
-                matchlist.append(tuple(map(self.__sanitize_out_type, Match(self, pos, endpos, result, string, compiled_regex).groups())))
-            no_progress = (result.getStart(0) == result.getEnd(0))
-            pos = result.getEnd(0) + no_progress
-        return matchlist
+        return tregex_findall(compiled_regex.exec, string, pos, endpos, compiled_regex.groupCount)
 
     def sub(self, repl, string, count=0):
         return self.subn(repl, string, count)[0]
 
     def subn(self, repl, string, count=0):
         self.__check_input_type(string)
-        n = 0
         pattern = self.__tregex_compile(self.pattern)
-        result = []
-        pos = 0
-        literal = False
         if not callable(repl):
             self.__check_input_type(repl)
-            if isinstance(repl, str):
-                literal = '\\' not in repl
-            else:
-                literal = b'\\' not in repl
-            if not literal:
-                import re
-                repl = re._subx(self, repl)
-                if not callable(repl):
-                    literal = True
-
-        while (count == 0 or n < count) and pos <= len(string):
-            match_result = tregex_call_exec(pattern.exec, string, pos)
-            if not match_result.isMatch:
-                break
-            n += 1
-            start = match_result.getStart(0)
-            end = match_result.getEnd(0)
-            result.append(string[pos:start])
-            if literal:
-                result.append(repl)
-            else:
-                _srematch = Match(self, pos, -1, match_result, string, pattern)
-                _repl = repl(_srematch)
-                result.append(_repl)
-            pos = end
-            if start == end:
-                if pos < len(string):
-                    result.append(string[pos])
-                pos = pos + 1
-        result.append(string[pos:])
-        if self.__binary:
-            return b"".join(result), n
-        else:
-            return "".join(result), n
+            return tregex_subn(pattern.exec, string, count, self.__compile_template(repl))
+        endpos = len(string)
+        return tregex_subn(pattern.exec, string, count, repl, lambda result: Match(self, 0, endpos, result, string, pattern))
 
     def split(self, string, maxsplit=0):
-        n = 0
+        self.__check_input_type(string)
         pattern = self.__tregex_compile(self.pattern)
-        result = []
-        collect_pos = 0
-        search_pos = 0
-        while (maxsplit == 0 or n < maxsplit) and search_pos <= len(string):
-            match_result = tregex_call_exec(pattern.exec, string, search_pos)
-            if not match_result.isMatch:
-                break
-            n += 1
-            start = match_result.getStart(0)
-            end = match_result.getEnd(0)
-            result.append(self.__sanitize_out_type(string[collect_pos:start]))
-            # add all group strings
-            for i in range(1, pattern.groupCount):
-                groupStart = match_result.getStart(i)
-                if groupStart >= 0:
-                    result.append(self.__sanitize_out_type(string[groupStart:match_result.getEnd(i)]))
-                else:
-                    result.append(None)
-            collect_pos = end
-            search_pos = end
-            if start == end:
-                search_pos = search_pos + 1
-        result.append(self.__sanitize_out_type(string[collect_pos:]))
-        return result
+        return tregex_split(pattern.exec, string, maxsplit, pattern.groupCount)
+
+    def __compile_template(self, repl):
+        """Precompiles a replacement string into a tuple of literals and group numbers, which is
+           what 'tregex_subn' expands for each match."""
+        if not isinstance(repl, (str, bytes)):
+            repl = bytes(repl)
+        # the templates are kept in least recently used order
+        template = self.__templates.pop(repl, None)
+        if template is None:
+            if ('\\' if isinstance(repl, str) else b'\\') not in repl:
+                template = (repl,)
+            else:
+                import re
+                groups, literals = re._compile_repl(repl, self)
+                parts = list(literals)
+                for index, group in groups:
+                    parts[index] = group
+                template = tuple(part for part in parts if isinstance(part, int) or part)
+            if len(self.__templates) >= _MAXTEMPLATES:
+                del self.__templates[next(iter(self.__templates))]
+        self.__templates[repl] = template
+        return template
 
     def scanner(self, string, pos=0, endpos=None):
         return SREScanner(self, string, pos, endpos)
@@ -39,6 +39,9 @@
 
 import _codecs
 
+# the codec lookup always resolves these to the Java codecs, so we can call them directly
+_truffle_fast_codecs = ('utf-8', 'utf8', 'ascii', 'latin-1', 'latin1', 'iso-8859-1')
+
 
 def decode(self, encoding="utf-8", errors="strict"):
     """Decode the bytes using the codec registered for encoding.
@@ -52,6 +55,8 @@ def decode(self, encoding="utf-8", errors="strict"):
       as well as any other name registered with codecs.register_error that
       can handle UnicodeDecodeErrors.
     """
+    if encoding in _truffle_fast_codecs:
+        return _codecs.__truffle_decode__(self, encoding, errors, True)[0]
     result = _codecs.decode(self, encoding=encoding, errors=errors)
     if not isinstance(result, str):
         raise TypeError("'%s' encoder returned '%s' instead of 'str'; use codecs.decode() to decode to arbitrary types"
@@ -331,6 +331,10 @@ str.format = strformat
 str.format_map = format_map
 
 
+# the codec lookup always resolves these to the Java codecs, so we can call them directly
+_truffle_fast_codecs = ('utf-8', 'utf8', 'ascii', 'latin-1', 'latin1', 'iso-8859-1')
+
+
 def encode(self, encoding="utf-8", errors="strict"):
     """Decode the bytes using the codec registered for encoding.
 
@@ -343,6 +347,8 @@ def encode(self, encoding="utf-8", errors="strict"):
       as well as any other name registered with codecs.register_error that
       can handle UnicodeDecodeErrors.
     """
+    if encoding in _truffle_fast_codecs:
+        return _codecs.__truffle_encode__(self, encoding, errors)[0]
     result = _codecs.encode(self, encoding=encoding, errors=errors)
     if not isinstance(result, bytes):
         if isinstance(result, bytearray):
@@ -103,9 +103,10 @@ __all__ = [
 
 __author__ = 'Bob Ippolito <bob@redivi.com>'
 
-from .decoder import JSONDecoder, JSONDecodeError
-from .encoder import JSONEncoder
+from .decoder import JSONDecoder, JSONDecodeError, _decode_utf8, _BYTES_SCAN_FAILED
+from .encoder import JSONEncoder, _dump
 import codecs
+import sys
 
 _default_encoder = JSONEncoder(
     skipkeys=False,
@@ -166,14 +167,18 @@ def dump(obj, fp, *, skipkeys=False, ensure_ascii=True, check_circular=True,
         check_circular and allow_nan and
         cls is None and indent is None and separators is None and
         default is None and not sort_keys and not kw):
-        iterable = _default_encoder.iterencode(obj)
+        encoder = _default_encoder
     else:
         if cls is None:
             cls = JSONEncoder
-        iterable = cls(skipkeys=skipkeys, ensure_ascii=ensure_ascii,
+        encoder = cls(skipkeys=skipkeys, ensure_ascii=ensure_ascii,
             check_circular=check_circular, allow_nan=allow_nan, indent=indent,
             separators=separators,
-            default=default, sort_keys=sort_keys, **kw).iterencode(obj)
+            default=default, sort_keys=sort_keys, **kw)
+    if sys.implementation.name == 'graalpython' and _dump(encoder, obj, fp):
+        fp.flush()
+        return
+    iterable = encoder.iterencode(obj)
     # could accelerate with writelines in some versions of Python, at
     # a debuggability cost
     for chunk in iterable:
@@ -341,7 +346,26 @@ def loads(s, *, cls=None, object_hook=None, parse_float=None,
         if not isinstance(s, (bytes, bytearray)):
             raise TypeError(f'the JSON object must be str, bytes or bytearray, '
                             f'not {s.__class__.__name__}')
-        s = s.decode(detect_encoding(s), 'surrogatepass')
+        encoding = detect_encoding(s)
+        if (sys.implementation.name == 'graalpython' and encoding == 'utf-8'
+                and cls is None and not kw):
+            if (object_hook is None and parse_int is None and parse_float is None and
+                    parse_constant is None and object_pairs_hook is None):
+                decoder = _default_decoder
+            else:
+                decoder = JSONDecoder(object_hook=object_hook, parse_float=parse_float,
+                                      parse_int=parse_int, parse_constant=parse_constant,
+                                      object_pairs_hook=object_pairs_hook)
+            obj = _decode_utf8(decoder, s)
+            if obj is not _BYTES_SCAN_FAILED:
+                return obj
+            s = s.decode(encoding, 'surrogatepass')
+            # The hooks may already have run, so raise the JSONDecodeError
+            # without them. This only succeeds if the scanner gave up on
+            # bytes it could not decode, then parse again below.
+            _default_decoder.decode(s)
+        else:
+            s = s.decode(encoding, 'surrogatepass')
 
     if "encoding" in kw:
         import warnings
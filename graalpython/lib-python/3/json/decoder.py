@@ -354,3 +354,33 @@ class JSONDecoder(object):
         except StopIteration as err:
             raise JSONDecodeError("Expecting value", s, err.value) from None
         return obj, end
+
+
+BYTES_WHITESPACE = re.compile(rb'[ \t\n\r]*', FLAGS)
+
+
+# graalpython: returned by _decode_utf8 for a malformed document
+_BYTES_SCAN_FAILED = object()
+
+
+def _decode_utf8(decoder, b, _w=BYTES_WHITESPACE.match):
+    """graalpython: decode a UTF-8 encoded JSON document without converting it
+    to ``str`` first, the _json scanner parses bytes in place. Positions are
+    byte offsets, so the scanner reports a malformed document by returning
+    ``None`` instead of raising. This then returns ``_BYTES_SCAN_FAILED`` and
+    the caller is expected to decode the document to report the error. The
+    hooks may already have run at that point. Exceptions raised by the hooks
+    propagate.
+
+    """
+    scan_once_bytes = getattr(decoder.scan_once, '_scan_once_bytes', None)
+    if scan_once_bytes is None:
+        return _BYTES_SCAN_FAILED
+    result = scan_once_bytes(b, _w(b, 0).end())
+    if result is None:
+        return _BYTES_SCAN_FAILED
+    obj, end = result
+    end = _w(b, end).end()
+    if end != len(b):
+        return _BYTES_SCAN_FAILED
+    return obj
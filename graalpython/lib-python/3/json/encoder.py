@@ -440,3 +440,27 @@ def _make_iterencode(markers, _default, _encoder, _indent, _floatstr,
             if markers is not None:
                 del markers[markerid]
     return _iterencode
+
+
+def _dump(encoder, o, fp):
+    """graalpython: serialize ``o`` to ``fp`` with the _json encoder, which
+    writes its output in chunks instead of building the whole document.
+    Returns ``False`` if the encoder cannot be used for this configuration.
+
+    """
+    if (c_make_encoder is None or encoder.indent is not None or
+            type(encoder).iterencode is not JSONEncoder.iterencode):
+        return False
+    if encoder.check_circular:
+        markers = {}
+    else:
+        markers = None
+    if encoder.ensure_ascii:
+        _encoder = encode_basestring_ascii
+    else:
+        _encoder = encode_basestring
+    c_make_encoder(
+        markers, encoder.default, _encoder, encoder.indent,
+        encoder.key_separator, encoder.item_separator, encoder.sort_keys,
+        encoder.skipkeys, encoder.allow_nan).dump(o, fp)
+    return True
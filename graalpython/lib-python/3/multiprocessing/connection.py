@@ -116,7 +116,10 @@ class _ConnectionBase:
 
     def __init__(self, handle, readable=True, writable=True):
         handle = handle.__index__()
-        if handle < 0:
+        # BEGIN TRUFFLE PATCH
+        # negative handles are in-memory pipes of the 'truffleprocess' context
+        if handle < 0 and sys.implementation.name != 'graalpython':
+        # END TRUFFLE PATCH
             raise ValueError("invalid handle")
         if not readable and not writable:
             raise ValueError(
@@ -358,11 +361,19 @@ class Connection(_ConnectionBase):
         _read = _multiprocessing.recv
     else:
         def _close(self, _close=os.close):
+            # BEGIN TRUFFLE PATCH
+            if self._handle < 0:
+                _close = _multiprocessing._close
+            # END TRUFFLE PATCH
             _close(self._handle)
         _write = os.write
         _read = os.read
 
     def _send(self, buf, write=_write):
+        # BEGIN TRUFFLE PATCH
+        if self._handle < 0:
+            write = _multiprocessing._write
+        # END TRUFFLE PATCH
         remaining = len(buf)
         while True:
             n = write(self._handle, buf)
@@ -372,6 +383,10 @@ class Connection(_ConnectionBase):
             buf = buf[n:]
 
     def _recv(self, size, read=_read):
+        # BEGIN TRUFFLE PATCH
+        if self._handle < 0:
+            read = _multiprocessing._read
+        # END TRUFFLE PATCH
         buf = io.BytesIO()
         handle = self._handle
         remaining = size
@@ -914,12 +929,44 @@ else:
     else:
         _WaitSelector = selectors.SelectSelector
 
+    # BEGIN TRUFFLE PATCH
+    def _fileno(obj):
+        return obj if isinstance(obj, int) else obj.fileno()
+
+    def _wait_in_memory(object_list, timeout):
+        # In-memory pipes of the 'truffleprocess' context are waited for by
+        # _multiprocessing._select, real file descriptors are only polled
+        in_memory = [o for o in object_list if _fileno(o) < 0]
+        fds = tuple(_fileno(o) for o in in_memory)
+        others = [o for o in object_list if _fileno(o) >= 0]
+        if timeout is not None:
+            deadline = time.monotonic() + timeout
+        while True:
+            step = -1 if timeout is None else max(timeout, 0)
+            if others:
+                step = 0.01 if step < 0 else min(step, 0.01)
+            ready_fds = _multiprocessing._select(fds, step)
+            ready = [o for o in in_memory if _fileno(o) in ready_fds]
+            if others:
+                ready += wait(others, 0)
+            if ready:
+                return ready
+            if timeout is not None:
+                timeout = deadline - time.monotonic()
+                if timeout <= 0:
+                    return ready
+    # END TRUFFLE PATCH
+
     def wait(object_list, timeout=None):
         '''
         Wait till an object in object_list is ready/readable.
 
         Returns list of those objects in object_list which are ready/readable.
         '''
+        # BEGIN TRUFFLE PATCH
+        if any(_fileno(obj) < 0 for obj in object_list):
+            return _wait_in_memory(object_list, timeout)
+        # END TRUFFLE PATCH
         with _WaitSelector() as selector:
             for obj in object_list:
                 selector.register(obj, selectors.EVENT_READ)
@@ -260,6 +260,10 @@ class DefaultContext(BaseContext):
             methods = ['spawn', 'fork'] if sys.platform == 'darwin' else ['fork', 'spawn']
             if reduction.HAVE_SEND_HANDLE:
                 methods.append('forkserver')
+            # BEGIN TRUFFLE PATCH
+            if 'truffleprocess' in _concrete_contexts:
+                methods.append('truffleprocess')
+            # END TRUFFLE PATCH
             return methods
 
 
@@ -318,6 +322,29 @@ if sys.platform != 'win32':
         _default_context = DefaultContext(_concrete_contexts['fork'])
     # BEGIN TRUFFLE PATCH
     _default_context = DefaultContext(_concrete_contexts['spawn'])
+
+    class TruffleProcess(process.BaseProcess):
+        _start_method = 'truffleprocess'
+        @staticmethod
+        def _Popen(process_obj):
+            from .popen_truffleprocess import Popen
+            return Popen(process_obj)
+
+    class TruffleProcessContext(BaseContext):
+        _name = 'truffleprocess'
+        Process = TruffleProcess
+
+        def Pipe(self, duplex=True):
+            '''Returns two connection objects connected by an in-memory pipe'''
+            import _multiprocessing
+            from .connection import Connection
+            fd1, fd2 = _multiprocessing._pipe(duplex)
+            if duplex:
+                return Connection(fd1), Connection(fd2)
+            return Connection(fd1, writable=False), Connection(fd2, readable=False)
+
+    if sys.implementation.name == 'graalpython':
+        _concrete_contexts['truffleprocess'] = TruffleProcessContext()
     # END TRUFFLE PATCH
 
 else:
@@ -0,0 +1,153 @@
+# Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import io
+import os
+import sys
+
+import _multiprocessing
+
+from .context import reduction, set_spawning_popen
+from . import popen_fork
+from . import process
+from . import spawn
+from . import util
+
+__all__ = ['Popen']
+
+#
+# Start child process as a new context on a thread of this process.  Parent
+# and child communicate over in-memory pipes, whose ends are identified by
+# negative numbers.  The pid of such a process is the id of its thread.
+#
+
+_HEADER_SIZE = 8
+
+
+class _DupFd(object):
+    def __init__(self, fd):
+        self.fd = fd
+    def detach(self):
+        return self.fd
+
+
+def _close_fds(*fds):
+    for fd in fds:
+        _multiprocessing._close(fd)
+
+
+def _read_exactly(fd, size):
+    buf = io.BytesIO()
+    remaining = size
+    while remaining > 0:
+        chunk = _multiprocessing._read(fd, remaining)
+        if not chunk:
+            raise EOFError
+        buf.write(chunk)
+        remaining -= len(chunk)
+    return buf.getvalue()
+
+
+class Popen(popen_fork.Popen):
+    method = 'truffleprocess'
+    DupFd = _DupFd
+
+    def __init__(self, process_obj):
+        self._fds = []
+        super().__init__(process_obj)
+
+    def duplicate_for_child(self, fd):
+        if fd < 0:
+            # the child gets its own end, which is closed when it exits
+            fd = _multiprocessing._dup(fd)
+            self._fds.append(fd)
+        return fd
+
+    def poll(self, flag=os.WNOHANG):
+        if self.returncode is None:
+            self.returncode = _multiprocessing._waittid(self.pid, flag)
+        return self.returncode
+
+    def _send_signal(self, sig):
+        if self.returncode is None:
+            _multiprocessing._terminate_spawned_thread(self.pid)
+
+    def _launch(self, process_obj):
+        prep_data = spawn.get_preparation_data(process_obj._name)
+        fp = io.BytesIO()
+        set_spawning_popen(self)
+        try:
+            reduction.dump(prep_data, fp)
+            reduction.dump(process_obj, fp)
+        finally:
+            set_spawning_popen(None)
+
+        child_r, parent_w = _multiprocessing._pipe()
+        parent_r, child_w = _multiprocessing._pipe()
+        self._fds.extend([child_r, child_w])
+        try:
+            data = fp.getbuffer()
+            _multiprocessing._write(parent_w, len(data).to_bytes(_HEADER_SIZE, 'big'))
+            _multiprocessing._write(parent_w, data)
+            self.pid = _multiprocessing._spawn_context(child_r, tuple(self._fds))
+        except:
+            _close_fds(*self._fds, parent_r, parent_w)
+            raise
+        # the child never writes to child_w, parent_r becomes ready when the
+        # child exits and its ends are closed
+        self.sentinel = parent_r
+        self.finalizer = util.Finalize(self, _close_fds, (parent_r, parent_w))
+
+
+def spawn_truffleprocess(fd):
+    '''
+    Run code specified by data received over the in-memory pipe fd
+    '''
+    size = int.from_bytes(_read_exactly(fd, _HEADER_SIZE), 'big')
+    from_parent = io.BytesIO(_read_exactly(fd, size))
+    process.current_process()._inheriting = True
+    try:
+        preparation_data = reduction.pickle.load(from_parent)
+        spawn.prepare(preparation_data)
+        self = reduction.pickle.load(from_parent)
+    finally:
+        del process.current_process()._inheriting
+    # like with spawn, the pipe from the parent doubles as its sentinel, it
+    # becomes ready once the parent closes its end
+    sys.exit(self._bootstrap(parent_sentinel=fd))
@@ -38,7 +38,10 @@ class Queue(object):
             # Can raise ImportError (see issues #3770 and #23400)
             from .synchronize import SEM_VALUE_MAX as maxsize
         self._maxsize = maxsize
-        self._reader, self._writer = connection.Pipe(duplex=False)
+        # BEGIN TRUFFLE PATCH
+        # let the context decide, the 'truffleprocess' context uses in-memory pipes
+        self._reader, self._writer = ctx.Pipe(duplex=False)
+        # END TRUFFLE PATCH
         self._rlock = ctx.Lock()
         self._opid = os.getpid()
         if sys.platform == 'win32':
@@ -332,7 +335,10 @@ class JoinableQueue(Queue):
 class SimpleQueue(object):
 
     def __init__(self, *, ctx):
-        self._reader, self._writer = connection.Pipe(duplex=False)
+        # BEGIN TRUFFLE PATCH
+        # let the context decide, the 'truffleprocess' context uses in-memory pipes
+        self._reader, self._writer = ctx.Pipe(duplex=False)
+        # END TRUFFLE PATCH
         self._rlock = ctx.Lock()
         self._poll = self._reader.poll
         if sys.platform == 'win32':
@@ -72,7 +72,14 @@ class SemLock(object):
                 obj._semlock._after_fork()
             util.register_after_fork(self, _after_fork)
 
-        if self._semlock.name is not None:
+        # BEGIN TRUFFLE PATCH
+        if self._semlock.name is not None and sys.implementation.name == 'graalpython':
+            # Named semaphores only exist within the engine, so a resource
+            # tracker process could not unlink them anyway
+            util.Finalize(self, sem_unlink, (self._semlock.name,),
+                          exitpriority=0)
+        elif self._semlock.name is not None:
+        # END TRUFFLE PATCH
             # We only get here if we are on Unix with forking
             # disabled.  When the object is garbage collected or the
             # process shuts down we unlink the semaphore name
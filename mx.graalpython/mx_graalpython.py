@@ -1295,7 +1295,6 @@ def import_python_sources(args):
         "unicodedata.c": "_cpython_unicodedata.c",
         "_bz2module.c": "_bz2.c",
         "mmapmodule.c": "_mmap.c",
-        "_struct.c": "_cpython_struct.c",
         "_testcapimodule.c": "_testcapi.c",
     }
     extra_pypy_files = [
@@ -83,6 +83,11 @@ MICRO_BENCHMARKS = {
     'list-iterating-obj-sized': ITER_10 + ['100_000_000'],
     'list-constructions-sized': ITER_10 + ['10_000'],
     'dict-getitem-sized': ITER_10 + ['50_000_000'],
+    'dict-str-getitem-setitem-sized': ITER_10 + ['10_000_000'],
+    're-findall-split-sub': ITER_10 + ['2_000'],
+    'heapq-push-pop': ITER_10 + ['20_000'],
+    'bisect-insort': ITER_10 + ['20_000'],
+    'hashlib-digest': ITER_10 + ['1_000'],
     'math-sqrt': ITER_10 + ['500000000'],
     'object-allocate': ITER_10 + ['5000'],
     'object-layout-change': ITER_10 + ['1000000'],
@@ -95,6 +100,7 @@ MICRO_BENCHMARKS = {
     'call-classmethod-sized': ITER_10 + ['500_000_000'],
     'mmap-anonymous-sized': ITER_10 + ['20_000'],
     'mmap-file': ITER_10 + ['1000'],
+    'string-encode-decode-sized': ITER_10 + ['1_000_000'],
     'generate-functions-sized': ITER_15 + ['500_000_000'],
     'try-except-simple': ITER_10 + ['500_000_000'],
     'try-except-store-simple': ITER_10 + ['500_000_000'],
@@ -130,6 +136,11 @@ MICRO_BENCHMARKS_SMALL = {
     'list-iterating-obj-sized': ITER_6 + WARMUP_2 + ['1_000_000'],
     'list-constructions-sized': ITER_6 + WARMUP_2 + ['500'],
     'dict-getitem-sized': ITER_6 + WARMUP_2 + ['1_000_000'],
+    'dict-str-getitem-setitem-sized': ITER_6 + WARMUP_2 + ['1_000_000'],
+    're-findall-split-sub': ITER_6 + WARMUP_2 + ['100'],
+    'heapq-push-pop': ITER_6 + WARMUP_2 + ['1_000'],
+    'bisect-insort': ITER_6 + WARMUP_2 + ['1_000'],
+    'hashlib-digest': ITER_6 + WARMUP_2 + ['100'],
     'math-sqrt': ITER_6 + WARMUP_2 + ['20_000_000'],
     'object-allocate': ITER_6 + WARMUP_2 + ['50'],
     'object-layout-change': ITER_6 + WARMUP_2 + ['10_000'],
@@ -142,6 +153,7 @@ MICRO_BENCHMARKS_SMALL = {
     'call-classmethod-sized': ITER_6 + WARMUP_2 + ['1_000_000'],
     'mmap-anonymous-sized': ITER_6 + WARMUP_2 + ['1_000'],
     'mmap-file': ITER_6 + WARMUP_2 + ['100'],
+    'string-encode-decode-sized': ITER_6 + WARMUP_2 + ['50_000'],
     'generate-functions-sized': ITER_6 + WARMUP_2 + ['1_000_000'],
     'try-except-simple': ITER_6 + WARMUP_2 + ['2_500_000'],
     'try-except-store-simple': ITER_6 + WARMUP_2 + ['2_000_000'],
@@ -162,7 +174,7 @@ def _pickling_benchmarks(module='pickle'):
 
 
 # MICRO_BENCHMARKS.update(_pickling_benchmarks('pickle'))
-# MICRO_BENCHMARKS.update(_pickling_benchmarks('cPickle'))
+MICRO_BENCHMARKS.update(_pickling_benchmarks('cPickle'))
 
 
 MICRO_NATIVE_BENCHMARKS = {
@@ -178,6 +190,7 @@ MICRO_NATIVE_BENCHMARKS = {
     'c-issubtype-monorphic': ITER_10 + ['50000000'],
     'c-call-method': ITER_15 + ['5000000'],
     'c-instantiate-large': ITER_15 + ['1000'],
+    'c-handle-resolve': ITER_10 + ['1000000'],
 }
 
 
@@ -212,6 +225,8 @@ MESO_BENCHMARKS = {
     'image-magix': ITER_10 + ['10000'],
     'parrot-b2': ITER_10 + ['200'],
     'threadring': ITER_10 + ['100_000_000'],
+    'threading-io-latency': ITER_10 + ['1000'],
+    'csv-read-write': ITER_10 + ['200000'],
     'regexdna': ITER_25 + [],
     'knucleotide': ITER_25 + [],
     'chaos': ITER_10 + ['200'],
@@ -234,6 +249,7 @@ MESO_BENCHMARKS_SMALL = {
     'chaos': ITER_10 + WARMUP_2 + ['2'],
     'image-magix': ITER_10 + WARMUP_2 + ['100'],
     'raytrace-simple': ITER_10 + WARMUP_2 + ['110', '110'],
+    'csv-read-write': ITER_10 + WARMUP_2 + ['5000'],
 }
 
 
@@ -263,6 +279,11 @@ INTEROP_JAVA_BENCHMARKS = {
     'euler11': [_INTEROP_JAVA_PACKAGE + 'PyEuler11'] + MESO_BENCHMARKS['euler11'],
     'nbody3': [_INTEROP_JAVA_PACKAGE + 'PyNbody'] + MESO_BENCHMARKS['nbody3'],
     'fannkuchredux3': [_INTEROP_JAVA_PACKAGE + 'PyFannkuchredux'] + MESO_BENCHMARKS['fannkuchredux3'],
+    'context-creation-1': [_INTEROP_JAVA_PACKAGE + 'PyContextCreation'] + ITER_10 + ['1'],
+    'context-creation-10': [_INTEROP_JAVA_PACKAGE + 'PyContextCreation'] + ITER_10 + ['10'],
+    'context-creation-100': [_INTEROP_JAVA_PACKAGE + 'PyContextCreation'] + ITER_6 + ['100'],
+    'startup-code-cache': [_INTEROP_JAVA_PACKAGE + 'PyCodeCacheStartup'] + ITER_10 + ['true'],
+    'startup-no-code-cache': [_INTEROP_JAVA_PACKAGE + 'PyCodeCacheStartup'] + ITER_10 + ['false'],
 }
 
 JAVA_EMBEDDING_MESO_BENCHMARKS = {